@@ -19,6 +19,7 @@
 package boofcv.examples.sfm;
 
 import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.alg.cloud.PointCloudReader;
 import boofcv.alg.mvs.DisparityParameters;
 import boofcv.alg.mvs.MultiViewStereoFromKnownSceneStructure;
 import boofcv.alg.sfm.structure.SparseSceneToDenseCloud;
@@ -37,14 +38,11 @@ import boofcv.struct.image.ImageType;
 import boofcv.visualize.PointCloudViewer;
 import boofcv.visualize.VisualizeData;
 import georegression.metric.UtilAngle;
-import georegression.struct.point.Point3D_F64;
 import gnu.trove.map.hash.TIntObjectHashMap;
-import org.ddogleg.struct.DogArray_I32;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.util.List;
 
 /**
  * A dense point cloud is created using a previously computed sparse reconstruction and a basic implementation of
@@ -115,16 +113,15 @@ public class ExampleMultiViewDenseReconstruction {
 			throw new RuntimeException("Dense reconstruction failed!");
 
 		// Display the dense cloud
-		visualizeInPointCloud(sparseToDense.getCloud(), sparseToDense.getColorRgb(), example.scene);
+		visualizeInPointCloud(sparseToDense.getCloud(), example.scene);
 	}
 
-	public static void visualizeInPointCloud( List<Point3D_F64> cloud, DogArray_I32 colorsRgb,
-											  SceneStructureMetric structure ) {
+	public static void visualizeInPointCloud( PointCloudReader cloud, SceneStructureMetric structure ) {
 		PointCloudViewer viewer = VisualizeData.createPointCloudViewer();
 		viewer.setFog(true);
 		viewer.setDotSize(1);
 		viewer.setTranslationStep(0.15);
-		viewer.addCloud(cloud, colorsRgb.data);
+		viewer.addCloud(cloud);
 //		viewer.setColorizer(new TwoAxisRgbPlane.Z_XY(1.0).fperiod(40));
 		viewer.setCameraHFov(UtilAngle.radian(60));
 
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.AssociateDescription2D;
+import boofcv.abst.feature.associate.ScoreAssociation;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.feature.associate.ConfigAssociateGreedy;
+import boofcv.factory.feature.associate.FactoryAssociation;
+import boofcv.struct.ConfigLength;
+import boofcv.struct.feature.TupleDesc_F64;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares brute force against grid based 2D association for a tracking like scenario, where features only
+ * move a small distance between frames.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+public class BenchmarkAssociationGrid2D {
+
+	@Param({"true", "false"})
+	boolean concurrent;
+
+	@Param({"1000", "5000"})
+	int numFeatures;
+
+	@Param({"0.05"})
+	double maxDistance;
+
+	int DOF = 64;
+	int width = 1280;
+	int height = 720;
+
+	Random rand = new Random(234234);
+	DogArray<TupleDesc_F64> descA, descB;
+	DogArray<Point2D_F64> pointsA, pointsB;
+
+	ScoreAssociation<TupleDesc_F64> score = FactoryAssociation.scoreEuclidean(TupleDesc_F64.class, true);
+
+	AssociateDescription2D<TupleDesc_F64> bruteForce;
+	AssociateDescription2D<TupleDesc_F64> grid;
+
+	@Setup public void setup() {
+		BoofConcurrency.USE_CONCURRENT = concurrent;
+
+		descA = createDescriptions();
+		descB = createDescriptions();
+		pointsA = new DogArray<>(Point2D_F64::new);
+		pointsB = new DogArray<>(Point2D_F64::new);
+		for (int i = 0; i < numFeatures; i++) {
+			Point2D_F64 a = pointsA.grow();
+			a.setTo(rand.nextDouble()*width, rand.nextDouble()*height);
+			pointsB.grow().setTo(a.x + rand.nextGaussian()*5, a.y + rand.nextGaussian()*5);
+		}
+
+		var config = new ConfigAssociateGreedy(true);
+		bruteForce = FactoryAssociation.greedy2D(config, ConfigLength.relative(maxDistance, 0), score);
+		grid = FactoryAssociation.greedyGrid2D(config, ConfigLength.relative(maxDistance, 0), score);
+		bruteForce.initialize(width, height);
+		grid.initialize(width, height);
+	}
+
+	@Benchmark public void bruteForce() {
+		bruteForce.setSource(pointsA, descA);
+		bruteForce.setDestination(pointsB, descB);
+		bruteForce.associate();
+	}
+
+	@Benchmark public void grid() {
+		grid.setSource(pointsA, descA);
+		grid.setDestination(pointsB, descB);
+		grid.associate();
+	}
+
+	private DogArray<TupleDesc_F64> createDescriptions() {
+		DogArray<TupleDesc_F64> ret = new DogArray<>(() -> new TupleDesc_F64(DOF));
+
+		for (int i = 0; i < numFeatures; i++) {
+			TupleDesc_F64 t = ret.grow();
+			for (int j = 0; j < DOF; j++) {
+				t.data[j] = (rand.nextDouble() - 0.5)*20;
+			}
+		}
+		return ret;
+	}
+
+	public static void main( String[] args ) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(BenchmarkAssociationGrid2D.class.getSimpleName())
+				.warmupTime(TimeValue.seconds(1))
+				.measurementTime(TimeValue.seconds(1))
+				.build();
+
+		new Runner(opt).run();
+	}
+}
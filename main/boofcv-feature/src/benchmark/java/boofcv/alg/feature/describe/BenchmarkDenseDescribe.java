@@ -19,10 +19,12 @@
 package boofcv.alg.feature.describe;
 
 import boofcv.abst.feature.dense.DescribeImageDense;
+import boofcv.alg.feature.dense.DescribeDenseHogFastAlg;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.concurrency.BoofConcurrency;
 import boofcv.factory.feature.dense.ConfigDenseHoG;
 import boofcv.factory.feature.dense.FactoryDescribeImageDense;
+import boofcv.factory.feature.dense.FactoryDescribeImageDenseAlg;
 import boofcv.struct.feature.TupleDesc_F64;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.ImageType;
@@ -47,8 +49,8 @@ public class BenchmarkDenseDescribe {
 	@Param({"true", "false"})
 	boolean concurrent;
 
-	@Param({"800"})
-	int size = 0;
+	@Param({"800x800", "1920x1080"})
+	String resolution;
 
 	GrayF32 gray = new GrayF32(1, 1);
 	DescribeImageDense<GrayF32, TupleDesc_F64> alg;
@@ -57,7 +59,8 @@ public class BenchmarkDenseDescribe {
 		BoofConcurrency.USE_CONCURRENT = concurrent;
 
 		Random rand = new Random(234234);
-		gray.reshape(size, size);
+		String[] words = resolution.split("x");
+		gray.reshape(Integer.parseInt(words[0]), Integer.parseInt(words[1]));
 		GImageMiscOps.fillUniform(gray, rand, 0, 200);
 	}
 
@@ -68,6 +71,16 @@ public class BenchmarkDenseDescribe {
 		alg.process(gray);
 	}
 
+	/** Computes HOG at three scales while only computing the gradient once */
+	@Benchmark public void HoG_fast_multiScale() {
+		ConfigDenseHoG config = new ConfigDenseHoG();
+		DescribeDenseHogFastAlg<GrayF32> hog = FactoryDescribeImageDenseAlg.hogFast(config, ImageType.single(GrayF32.class));
+		hog.setInput(gray);
+		hog.process();
+		hog.processScale(2);
+		hog.processScale(4);
+	}
+
 	@Benchmark public void HoG() {
 		alg = FactoryDescribeImageDense.hog(null, ImageType.single(GrayF32.class));
 		alg.process(gray);
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detdesc;
+
+import boofcv.abst.feature.detdesc.DetectDescribePoint;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.factory.feature.detdesc.FactoryDetectDescribe;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the speed of complete detect and describe algorithms
+ *
+ * @author Peter Abeles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class BenchmarkDetectDescribe<T extends ImageGray<T>> {
+	@Param({"true", "false"})
+	boolean concurrent;
+
+	@Param({"SB_U8", "SB_F32"})
+	String imageTypeName;
+
+	T image;
+
+	DetectDescribePoint<T, ?> orb, surfFast, sift;
+
+	@Setup public void setup() {
+		BoofConcurrency.USE_CONCURRENT = concurrent;
+
+		Class<T> imageType = ImageType.stringToType(imageTypeName, 3).getImageClass();
+		image = GeneralizedImageOps.createSingleBand(imageType, 1280, 720);
+		GImageMiscOps.fillUniform(image, new Random(234), 0, 200);
+
+		orb = FactoryDetectDescribe.orb(null, imageType);
+		surfFast = FactoryDetectDescribe.surfFast(null, null, null, imageType);
+		sift = FactoryDetectDescribe.sift(null, imageType);
+	}
+
+	// @formatter:off
+	@Benchmark public void orb() {orb.detect(image);}
+	@Benchmark public void surfFast() {surfFast.detect(image);}
+	@Benchmark public void sift() {sift.detect(image);}
+	// @formatter:on
+
+	public static void main( String[] args ) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(BenchmarkDetectDescribe.class.getSimpleName())
+				.warmupTime(TimeValue.seconds(1))
+				.measurementTime(TimeValue.seconds(1))
+				.build();
+
+		new Runner(opt).run();
+	}
+}
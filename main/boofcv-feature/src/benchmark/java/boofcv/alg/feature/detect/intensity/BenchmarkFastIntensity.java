@@ -22,6 +22,8 @@ import boofcv.alg.feature.detect.intensity.impl.ImplFastCorner12_F32;
 import boofcv.alg.feature.detect.intensity.impl.ImplFastCorner12_U8;
 import boofcv.alg.feature.detect.intensity.impl.ImplFastCorner9_F32;
 import boofcv.alg.feature.detect.intensity.impl.ImplFastCorner9_U8;
+import boofcv.alg.feature.detect.intensity.impl.ImplFastCornerBits_F32;
+import boofcv.alg.feature.detect.intensity.impl.ImplFastCornerBits_U8;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.struct.image.GrayF32;
@@ -71,10 +73,14 @@ public class BenchmarkFastIntensity {
 		@Param({"SB_U8", "SB_F32"})
 		String imageTypeName;
 
+		// Maximum pixel value in the random image. Less contrast means fewer corners
+		@Param({"80", "255"})
+		int maxPixelValue;
+
 		T input;
 		GrayF32 intensity;
 
-		FastCornerDetector<T> fast9, fast12;
+		FastCornerDetector<T> fast9, fast12, bits9, bits12;
 
 		@Setup public void setup() {
 			Class<T> imageType = ImageType.stringToType(imageTypeName, 3).getImageClass();
@@ -83,7 +89,7 @@ public class BenchmarkFastIntensity {
 			input = GeneralizedImageOps.createSingleBand(imageType, imageSize, imageSize);
 			intensity = input.createSameShape(GrayF32.class);
 
-			GImageMiscOps.fillUniform(input, rand, 0, 255);
+			GImageMiscOps.fillUniform(input, rand, 0, maxPixelValue);
 
 
 			if (concurrent) {
@@ -93,6 +99,12 @@ public class BenchmarkFastIntensity {
 				fast12 = imageType == GrayU8.class ?
 						new FastCornerDetector_MT(new ImplFastCorner12_U8(60)) :
 						new FastCornerDetector_MT(new ImplFastCorner12_F32(60));
+				bits9 = imageType == GrayU8.class ?
+						new FastCornerDetector_MT(new ImplFastCornerBits_U8(60, 9)) :
+						new FastCornerDetector_MT(new ImplFastCornerBits_F32(60, 9));
+				bits12 = imageType == GrayU8.class ?
+						new FastCornerDetector_MT(new ImplFastCornerBits_U8(60, 12)) :
+						new FastCornerDetector_MT(new ImplFastCornerBits_F32(60, 12));
 			} else {
 				fast9 = imageType == GrayU8.class ?
 						new FastCornerDetector(new ImplFastCorner9_U8(60)) :
@@ -100,6 +112,12 @@ public class BenchmarkFastIntensity {
 				fast12 = imageType == GrayU8.class ?
 						new FastCornerDetector(new ImplFastCorner12_U8(60)) :
 						new FastCornerDetector(new ImplFastCorner12_F32(60));
+				bits9 = imageType == GrayU8.class ?
+						new FastCornerDetector(new ImplFastCornerBits_U8(60, 9)) :
+						new FastCornerDetector(new ImplFastCornerBits_F32(60, 9));
+				bits12 = imageType == GrayU8.class ?
+						new FastCornerDetector(new ImplFastCornerBits_U8(60, 12)) :
+						new FastCornerDetector(new ImplFastCornerBits_F32(60, 12));
 			}
 		}
 	}
@@ -108,6 +126,8 @@ public class BenchmarkFastIntensity {
 	@Benchmark public void naive9(NaiveState state) {state.naive9.process(state.input);}
 	@Benchmark public void fast9(MainState state) {state.fast9.process(state.input);}
 	@Benchmark public void fast12(MainState state) {state.fast12.process(state.input);}
+	@Benchmark public void bits9(MainState state) {state.bits9.process(state.input);}
+	@Benchmark public void bits12(MainState state) {state.bits12.process(state.input);}
 	// @formatter:on
 
 	public static void main( String[] args ) throws RunnerException {
@@ -23,6 +23,7 @@ import boofcv.abst.feature.detect.line.DetectLineSegment;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
+import boofcv.factory.feature.detect.line.ConfigHoughBinary;
 import boofcv.factory.feature.detect.line.ConfigHoughGradient;
 import boofcv.factory.feature.detect.line.ConfigLineRansac;
 import boofcv.factory.feature.detect.line.FactoryDetectLine;
@@ -49,8 +50,8 @@ public class BenchmarkDetectLines<T extends ImageGray<T>, D extends ImageGray<D>
 	@Param({"true","false"})
 	public boolean concurrent;
 
-	@Param({"1000"})
-	public int width;
+	@Param({"1000x1000", "3840x2160"})
+	public String resolution;
 
 	T input;
 	Class<T> imageType;
@@ -58,6 +59,7 @@ public class BenchmarkDetectLines<T extends ImageGray<T>, D extends ImageGray<D>
 	DetectLine<T> houghFoot;
 	DetectLine<T> houghPolar;
 	DetectLine<T> houghFootSub;
+	DetectLine<T> houghBinaryPolar;
 
 	DetectLineSegment<T> detectorSegment;
 
@@ -74,17 +76,22 @@ public class BenchmarkDetectLines<T extends ImageGray<T>, D extends ImageGray<D>
 	public void setup() {
 		BoofConcurrency.USE_CONCURRENT = concurrent;
 
+		String[] words = resolution.split("x");
+		int width = Integer.parseInt(words[0]);
+		int height = Integer.parseInt(words[1]);
+
 		// fill it with a few rectangles so that there are some lines
-		input.reshape(width,width);
+		input.reshape(width,height);
 		GImageMiscOps.fill(input,0);
-		GImageMiscOps.fillRectangle(input,100,10,15,width/4,width/4);
-		GImageMiscOps.fillRectangle(input,100,width/2,width/2+15,width/4,width/4);
-		GImageMiscOps.fillRectangle(input,100,width/2,0,width/8,width/8);
+		GImageMiscOps.fillRectangle(input,100,10,15,width/4,height/4);
+		GImageMiscOps.fillRectangle(input,100,width/2,height/2+15,width/4,height/4);
+		GImageMiscOps.fillRectangle(input,100,width/2,0,width/8,height/8);
 		GImageMiscOps.addUniform(input,new Random(234),0,20);
 
 		houghFoot = FactoryDetectLine.houghLineFoot(null,null, imageType);
 		houghPolar = FactoryDetectLine.houghLinePolar((ConfigHoughGradient)null,null, imageType);
 		houghFootSub = FactoryDetectLine.houghLineFootSub(null, imageType);
+		houghBinaryPolar = FactoryDetectLine.houghLinePolar((ConfigHoughBinary)null,null, imageType);
 		detectorSegment = FactoryDetectLine.lineRansac(new ConfigLineRansac(40, 30, 2.36, true), imageType);
 	}
 
@@ -100,6 +107,10 @@ public class BenchmarkDetectLines<T extends ImageGray<T>, D extends ImageGray<D>
 		houghFootSub.detect(input);
 	}
 
+	@Benchmark public void binaryHoughPolar() {
+		houghBinaryPolar.detect(input);
+	}
+
 	@Benchmark public void segment() {
 		detectorSegment.detect(input);
 	}
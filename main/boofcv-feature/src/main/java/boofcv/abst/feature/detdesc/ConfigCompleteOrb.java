@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.detdesc;
+
+import boofcv.abst.feature.detect.interest.ConfigFastCorner;
+import boofcv.alg.feature.detdesc.CompleteOrb;
+import boofcv.misc.BoofMiscOps;
+import boofcv.struct.Configuration;
+import boofcv.struct.pyramid.ConfigDiscreteLevels;
+
+/**
+ * Configuration for {@link CompleteOrb}.
+ *
+ * @author Peter Abeles
+ */
+public class ConfigCompleteOrb implements Configuration {
+
+	/** Specifies the number of levels in the image pyramid */
+	public ConfigDiscreteLevels pyramid = ConfigDiscreteLevels.levels(4);
+
+	/** Configuration for the FAST corner detector */
+	public ConfigFastCorner fast = new ConfigFastCorner(20, 9);
+
+	/** Maximum number of features it will return. Split between the levels in the pyramid. */
+	public int maxFeatures = 500;
+
+	/** Harris corner tuning parameter, used to rank FAST corners */
+	public float harrisKappa = 0.04f;
+
+	/** Radius of the region the Harris corner score is computed inside of */
+	public int harrisRadius = 3;
+
+	/** Radius of the region orientation and the descriptor are computed inside of, in level pixels */
+	public int radius = 15;
+
+	/** Number of bits in the descriptor */
+	public int numBits = 256;
+
+	/** Number of discrete angles the BRIEF pattern is rotated to */
+	public int numAngles = 30;
+
+	/** Amount of blur applied to the image before sampling. If &le; 0 it will be computed from the radius */
+	public double blurSigma = -1;
+
+	/** Radius of the blur applied to the image before sampling */
+	public int blurRadius = 2;
+
+	@Override
+	public void checkValidity() {
+		pyramid.checkValidity();
+		fast.checkValidity();
+		BoofMiscOps.checkTrue(maxFeatures > 0, "maxFeatures must be positive");
+		BoofMiscOps.checkTrue(harrisRadius > 0, "harrisRadius must be positive");
+		BoofMiscOps.checkTrue(radius > 0, "radius must be positive");
+		BoofMiscOps.checkTrue(numBits > 0, "numBits must be positive");
+		BoofMiscOps.checkTrue(numAngles > 0, "numAngles must be positive");
+	}
+
+	public void setTo( ConfigCompleteOrb src ) {
+		this.pyramid.setTo(src.pyramid);
+		this.fast.setTo(src.fast);
+		this.maxFeatures = src.maxFeatures;
+		this.harrisKappa = src.harrisKappa;
+		this.harrisRadius = src.harrisRadius;
+		this.radius = src.radius;
+		this.numBits = src.numBits;
+		this.numAngles = src.numAngles;
+		this.blurSigma = src.blurSigma;
+		this.blurRadius = src.blurRadius;
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.detdesc;
+
+import boofcv.alg.feature.detdesc.CompleteOrb;
+import boofcv.struct.feature.TupleDesc_B;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
+import georegression.struct.point.Point2D_F64;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray;
+
+/**
+ * Wrapper around {@link CompleteOrb} for {@link DetectDescribePoint}. Descriptors are copied out of the packed
+ * array into individual objects since callers are allowed to save references to them. If that isn't needed
+ * then access the packed array directly through {@link #getAlg()}.
+ *
+ * @author Peter Abeles
+ */
+public class DetectDescribe_CompleteOrb<T extends ImageGray<T>>
+		implements DetectDescribePoint<T, TupleDesc_B> {
+
+	@Getter CompleteOrb<T> alg;
+	ImageType<T> inputType;
+
+	// Descriptions copied from the packed array
+	DogArray<TupleDesc_B> descriptions;
+
+	public DetectDescribe_CompleteOrb( CompleteOrb<T> alg, Class<T> inputType ) {
+		this.alg = alg;
+		this.inputType = ImageType.single(inputType);
+		this.descriptions = new DogArray<>(alg::createDescription);
+	}
+
+	@Override public TupleDesc_B createDescription() {
+		return alg.createDescription();
+	}
+
+	@Override public TupleDesc_B getDescription( int index ) {
+		return descriptions.get(index);
+	}
+
+	@Override public ImageType<T> getInputType() {
+		return inputType;
+	}
+
+	@Override public Class<TupleDesc_B> getDescriptionType() {
+		return TupleDesc_B.class;
+	}
+
+	@Override public void detect( T input ) {
+		alg.process(input);
+
+		int N = alg.getDescriptions().size();
+		descriptions.resize(N);
+		for (int i = 0; i < N; i++) {
+			alg.getDescriptions().getCopy(i, descriptions.get(i));
+		}
+	}
+
+	@Override public int getNumberOfSets() {
+		return 2;
+	}
+
+	@Override public int getSet( int index ) {
+		return alg.getLocations().get(index).white ? 0 : 1;
+	}
+
+	@Override public int getNumberOfFeatures() {
+		return alg.getLocations().size;
+	}
+
+	@Override public Point2D_F64 getLocation( int featureIndex ) {
+		return alg.getLocations().get(featureIndex).pixel;
+	}
+
+	@Override public double getRadius( int featureIndex ) {
+		return alg.getRadius(featureIndex);
+	}
+
+	@Override public double getOrientation( int featureIndex ) {
+		return alg.getOrientations().get(featureIndex);
+	}
+
+	@Override public boolean hasScale() {
+		return true;
+	}
+
+	@Override public boolean hasOrientation() {
+		return true;
+	}
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociation;
+import georegression.struct.point.Point2D_F64;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * <p>
+ * Greedy association which uses a uniform grid to avoid scoring src and dst features which are too far apart.
+ * Destination features are bucketed into grid cells and for each source feature only the cells which intersect
+ * its search region are considered. Results are identical to {@link AssociateGreedyBruteForce2D} when the
+ * search region contains every point inside the max distance, but the cost is closer to O(N) than O(N*M)
+ * when the max distance is small relative to the image.
+ * </p>
+ *
+ * <p>
+ * By default the search region is a square with a radius of the max distance, which is correct for Euclidean
+ * distance functions. A custom region can be specified. For example, with rectified stereo images
+ * {@link #setEpipolarBand} will only consider features within a few pixels of the same row.
+ * </p>
+ *
+ * <p>
+ * A dense score matrix is not computed. Instead, the scores of feasible pairs are saved and used for
+ * forwards-backwards validation, keeping memory proportional to the number of feasible pairs.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class AssociateGreedyGrid2D<D> extends AssociateGreedyBase2D<D> {
+
+	/**
+	 * Maximum number of grid cells relative to the number of destination features. Prevents excessive memory
+	 * usage when the search region is small.
+	 */
+	public double maxCellsPerFeature = 2.0;
+
+	// If true the search region was specified by the user
+	protected boolean customRegion = false;
+
+	/** Search region relative to the source pixel. Inclusive. Units are pixels. */
+	protected @Getter double regionMinX, regionMaxX, regionMinY, regionMaxY;
+
+	// Description of the grid
+	protected double gridX0, gridY0;
+	protected double cellWidth, cellHeight;
+	protected int gridCols, gridRows;
+
+	// Index of first dst feature in each cell. Has a length of number of cells + 1
+	protected final DogArray_I32 cellStart = new DogArray_I32();
+	// dst feature indexes ordered by cell
+	protected final DogArray_I32 cellDst = new DogArray_I32();
+	// which cell each dst feature belongs to
+	protected final DogArray_I32 dstCell = new DogArray_I32();
+
+	// Best and second best scores for each dst feature, used in backwards validation
+	protected final DogArray_F64 dstBest = new DogArray_F64();
+	protected final DogArray_F64 dstSecond = new DogArray_F64();
+	protected final DogArray_I32 dstBestSrc = new DogArray_I32();
+	// Number of src features which could be paired with each dst feature
+	protected final DogArray_I32 dstFeasible = new DogArray_I32();
+
+	// Workspace for each thread
+	protected final GrowArray<Workspace> workspaces;
+
+	/**
+	 * Specifies score mechanism
+	 *
+	 * @param scoreAssociation How features are scored.
+	 */
+	public AssociateGreedyGrid2D( ScoreAssociation<D> scoreAssociation,
+								  AssociateImageDistanceFunction distanceFunction ) {
+		super(scoreAssociation, distanceFunction);
+		this.workspaces = new GrowArray<>(this::createWorkspace, Workspace::reset);
+	}
+
+	protected Workspace createWorkspace() {
+		return new Workspace(distanceFunction);
+	}
+
+	@Override public void init( int imageWidth, int imageHeight ) {
+		super.init(imageWidth, imageHeight);
+
+		if (customRegion)
+			return;
+		double radius = maxDistanceLength.compute(Math.max(imageWidth, imageHeight));
+		regionMinX = regionMinY = -radius;
+		regionMaxX = regionMaxY = radius;
+	}
+
+	/**
+	 * Specifies the region around each source pixel which is searched for destination features. Must be
+	 * called before {@link #init}. Features must also pass the max distance test.
+	 *
+	 * @param minX Lower extent along x-axis relative to the source pixel
+	 * @param maxX Upper extent along x-axis relative to the source pixel
+	 * @param minY Lower extent along y-axis relative to the source pixel
+	 * @param maxY Upper extent along y-axis relative to the source pixel
+	 */
+	public void setSearchRegion( double minX, double maxX, double minY, double maxY ) {
+		if (minX > maxX || minY > maxY)
+			throw new IllegalArgumentException("Lower extent must be less than or equal to the upper extent");
+		this.customRegion = true;
+		this.regionMinX = minX;
+		this.regionMaxX = maxX;
+		this.regionMinY = minY;
+		this.regionMaxY = maxY;
+	}
+
+	/**
+	 * Search region for rectified stereo images. Source features are from the left image and destination
+	 * from the right image, which are shifted to the left by the disparity.
+	 *
+	 * @param disparityMin Minimum disparity
+	 * @param disparityMax Maximum disparity
+	 * @param band How far off the epipolar line (the same row) a feature can be.
+	 */
+	public void setEpipolarBand( double disparityMin, double disparityMax, double band ) {
+		setSearchRegion(-disparityMax, -disparityMin, -band, band);
+	}
+
+	/**
+	 * Reverts to the default search region, which is derived from the max distance
+	 */
+	public void clearSearchRegion() {
+		this.customRegion = false;
+	}
+
+	@Override public void associate() {
+		fitQuality.reset();
+		pairs.reset();
+		pairs.resize(descSrc.size);
+		fitQuality.resize(descSrc.size);
+
+		createGrid();
+		scoreSources();
+
+		if (backwardsValidation) {
+			backwardsValidation();
+		}
+	}
+
+	/**
+	 * Finds the best match for every source feature. The feasible pairs are saved in the workspace when
+	 * backwards validation is turned on.
+	 */
+	protected void scoreSources() {
+		workspaces.reset();
+		Workspace work = workspaces.grow();
+		for (int idxSrc = 0; idxSrc < descSrc.size; idxSrc++) {
+			associateSource(work, idxSrc);
+		}
+	}
+
+	/**
+	 * Buckets destination features into grid cells. The cell size is selected so that the search region spans
+	 * a few cells.
+	 */
+	protected void createGrid() {
+		final int N = locationDst.size;
+
+		double x0 = Double.MAX_VALUE, y0 = Double.MAX_VALUE;
+		double x1 = -Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 p = locationDst.data[i];
+			x0 = Math.min(x0, p.x);
+			y0 = Math.min(y0, p.y);
+			x1 = Math.max(x1, p.x);
+			y1 = Math.max(y1, p.y);
+		}
+		if (N == 0) {
+			x0 = y0 = x1 = y1 = 0.0;
+		}
+
+		gridX0 = x0;
+		gridY0 = y0;
+		cellWidth = Math.max(1.0, (regionMaxX - regionMinX)/2.0);
+		cellHeight = Math.max(1.0, (regionMaxY - regionMinY)/2.0);
+
+		// Make the cells larger until the number of cells is reasonable
+		double maxCells = Math.max(16.0, maxCellsPerFeature*N);
+		while (true) {
+			gridCols = (int)Math.min(Integer.MAX_VALUE - 1, (x1 - x0)/cellWidth) + 1;
+			gridRows = (int)Math.min(Integer.MAX_VALUE - 1, (y1 - y0)/cellHeight) + 1;
+			if ((double)gridCols*gridRows <= maxCells)
+				break;
+			cellWidth *= 2.0;
+			cellHeight *= 2.0;
+		}
+
+		// Counting sort of dst features into cells. Inside a cell features are in increasing order
+		int numCells = gridCols*gridRows;
+		cellStart.resize(numCells + 1);
+		cellStart.fill(0);
+		dstCell.resize(N);
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 p = locationDst.data[i];
+			int cell = cellRow(p.y)*gridCols + cellCol(p.x);
+			dstCell.data[i] = cell;
+			cellStart.data[cell + 1]++;
+		}
+		for (int i = 1; i <= numCells; i++) {
+			cellStart.data[i] += cellStart.data[i - 1];
+		}
+		cellDst.resize(N);
+		for (int i = N - 1; i >= 0; i--) {
+			int cell = dstCell.data[i];
+			cellDst.data[--cellStart.data[cell + 1]] = i;
+		}
+		// cellStart[cell+1] now points to the start of the cell. Shift it back into place
+		System.arraycopy(cellStart.data, 1, cellStart.data, 0, numCells);
+		cellStart.data[numCells] = N;
+	}
+
+	/**
+	 * Finds the best destination feature for the specified source feature
+	 */
+	protected void associateSource( Workspace work, int idxSrc ) {
+		final AssociateImageDistanceFunction distanceFunction = work.distance;
+		final double ratioTest = this.ratioTest;
+
+		Point2D_F64 p = locationSrc.get(idxSrc);
+		distanceFunction.setSource(idxSrc, p);
+		D a = descSrc.data[idxSrc];
+
+		// Region being searched in image coordinates
+		double x0 = p.x + regionMinX, x1 = p.x + regionMaxX;
+		double y0 = p.y + regionMinY, y1 = p.y + regionMaxY;
+
+		int col0 = cellCol(x0), col1 = cellCol(x1);
+		int row0 = cellRow(y0), row1 = cellRow(y1);
+
+		double bestScore = maxFitError;
+		double secondBest = bestScore;
+		int bestIndex = -1;
+
+		for (int row = row0; row <= row1; row++) {
+			for (int col = col0; col <= col1; col++) {
+				int cell = row*gridCols + col;
+				int idx1 = cellStart.data[cell + 1];
+				for (int k = cellStart.data[cell]; k < idx1; k++) {
+					int idxDst = cellDst.data[k];
+					Point2D_F64 q = locationDst.data[idxDst];
+					if (q.x < x0 || q.x > x1 || q.y < y0 || q.y > y1)
+						continue;
+
+					// compute distance between the two features and don't even consider if too far apart
+					if (distanceFunction.distance(idxDst, q) > maxDistanceUnits)
+						continue;
+
+					double fit = score.score(a, descDst.data[idxDst]);
+					if (backwardsValidation)
+						work.save(idxSrc, idxDst, fit);
+
+					// Cells are not traversed in order. When there's a tie select the largest index, which
+					// is what brute force does
+					if (fit < bestScore || (fit == bestScore && idxDst > bestIndex)) {
+						secondBest = bestScore;
+						bestIndex = idxDst;
+						bestScore = fit;
+					} else if (fit < secondBest) {
+						secondBest = fit;
+					}
+				}
+			}
+		}
+
+		if (ratioTest < 1.0 && bestIndex != -1 && bestScore != 0.0) {
+			pairs.data[idxSrc] = secondBest*ratioTest >= bestScore ? bestIndex : -1;
+		} else {
+			pairs.data[idxSrc] = bestIndex;
+		}
+		fitQuality.data[idxSrc] = bestScore;
+	}
+
+	/**
+	 * A match is accepted only if no other src feature has a score which is as good or better with the dst feature.
+	 * Pairs which were not scored are treated as having a score of maxFitError, just like in brute force.
+	 */
+	protected void backwardsValidation() {
+		final int N = descDst.size;
+		dstBest.resize(N);
+		dstBest.fill(Double.MAX_VALUE);
+		dstSecond.resize(N);
+		dstSecond.fill(Double.MAX_VALUE);
+		dstBestSrc.resize(N);
+		dstBestSrc.fill(-1);
+		dstFeasible.resize(N);
+		dstFeasible.fill(0);
+
+		// Find the best and second best score for each dst feature. The order doesn't matter
+		for (int workIdx = 0; workIdx < workspaces.size(); workIdx++) {
+			Workspace work = workspaces.get(workIdx);
+			for (int i = 0; i < work.pairScore.size; i++) {
+				int idxDst = work.pairDst.data[i];
+				double fit = work.pairScore.data[i];
+				dstFeasible.data[idxDst]++;
+				if (fit < dstBest.data[idxDst]) {
+					dstSecond.data[idxDst] = dstBest.data[idxDst];
+					dstBest.data[idxDst] = fit;
+					dstBestSrc.data[idxDst] = work.pairSrc.data[i];
+				} else if (fit < dstSecond.data[idxDst]) {
+					dstSecond.data[idxDst] = fit;
+				}
+			}
+		}
+
+		for (int idxSrc = 0; idxSrc < descSrc.size; idxSrc++) {
+			int idxDst = pairs.data[idxSrc];
+			if (idxDst == -1)
+				continue;
+			boolean tiedWithUnscored = fitQuality.data[idxSrc] >= maxFitError && dstFeasible.data[idxDst] < descSrc.size;
+			if (dstBestSrc.data[idxDst] != idxSrc || dstSecond.data[idxDst] <= dstBest.data[idxDst] || tiedWithUnscored) {
+				pairs.data[idxSrc] = -1;
+				fitQuality.data[idxSrc] = Double.MAX_VALUE;
+			}
+		}
+	}
+
+	protected final int cellCol( double x ) {
+		double c = (x - gridX0)/cellWidth;
+		if (c <= 0.0)
+			return 0;
+		return c >= gridCols - 1 ? gridCols - 1 : (int)c;
+	}
+
+	protected final int cellRow( double y ) {
+		double r = (y - gridY0)/cellHeight;
+		if (r <= 0.0)
+			return 0;
+		return r >= gridRows - 1 ? gridRows - 1 : (int)r;
+	}
+
+	/**
+	 * Storage for a single thread
+	 */
+	protected static class Workspace {
+		public final AssociateImageDistanceFunction distance;
+		// Feasible pairs and their scores
+		public final DogArray_I32 pairSrc = new DogArray_I32();
+		public final DogArray_I32 pairDst = new DogArray_I32();
+		public final DogArray_F64 pairScore = new DogArray_F64();
+
+		public Workspace( AssociateImageDistanceFunction distance ) {
+			this.distance = distance;
+		}
+
+		public void save( int idxSrc, int idxDst, double fit ) {
+			pairSrc.add(idxSrc);
+			pairDst.add(idxDst);
+			pairScore.add(fit);
+		}
+
+		public void reset() {
+			pairSrc.reset();
+			pairDst.reset();
+			pairScore.reset();
+		}
+	}
+}
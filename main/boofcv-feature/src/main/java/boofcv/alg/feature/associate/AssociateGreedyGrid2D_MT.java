@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociation;
+import boofcv.concurrency.BoofConcurrency;
+
+/**
+ * Concurrent implementation of {@link AssociateGreedyGrid2D}. Source features are split between threads.
+ * Output is identical to the single threaded version.
+ *
+ * @author Peter Abeles
+ */
+public class AssociateGreedyGrid2D_MT<D> extends AssociateGreedyGrid2D<D> {
+
+	public AssociateGreedyGrid2D_MT( ScoreAssociation<D> scoreAssociation,
+									 AssociateImageDistanceFunction distanceFunction ) {
+		super(scoreAssociation, distanceFunction);
+	}
+
+	@Override protected Workspace createWorkspace() {
+		return new Workspace(distanceFunction.copyConcurrent());
+	}
+
+	@Override protected void scoreSources() {
+		BoofConcurrency.loopBlocks(0, descSrc.size, workspaces, ( work, idx0, idx1 ) -> {
+			for (int idxSrc = idx0; idxSrc < idx1; idxSrc++) {
+				associateSource(work, idxSrc);
+			}
+		});
+	}
+}
@@ -89,7 +89,7 @@ public class DescribeDenseHogAlg<Input extends ImageBase<Input>> extends BaseDen
 	protected GrayF32 orientation = new GrayF32(1, 1);
 	protected GrayF64 magnitude = new GrayF64(1, 1); // stored as F64 instead of F32 for speed
 
-	// the active histogram being worked on
+	// the active histogram being worked on. Only used by functions which don't take the histogram as an argument
 	double[] histogram;
 
 	// spatial weights applied to each in a block
@@ -176,8 +176,18 @@ public class DescribeDenseHogAlg<Input extends ImageBase<Input>> extends BaseDen
 	/**
 	 * Computes the orientation and magnitude of each pixel
 	 */
-	private void computePixelFeatures() {
-		for (int y = 0; y < derivX.height; y++) {
+	protected void computePixelFeatures() {
+		computePixelFeatures(0, derivX.height);
+	}
+
+	/**
+	 * Computes the orientation and magnitude of each pixel inside the specified range of rows
+	 *
+	 * @param y0 First row, inclusive
+	 * @param y1 Last row, exclusive
+	 */
+	protected void computePixelFeatures( int y0, int y1 ) {
+		for (int y = y0; y < y1; y++) {
 			int pixelIndex = y*derivX.width;
 			int endIndex = pixelIndex + derivX.width;
 			for (; pixelIndex < endIndex; pixelIndex++) {
@@ -208,23 +218,32 @@ public class DescribeDenseHogAlg<Input extends ImageBase<Input>> extends BaseDen
 
 		for (int y = 0; y < maxY; y += stepBlockPixelsY) {
 			for (int x = 0; x < maxX; x += stepBlockPixelsX) {
-				TupleDesc_F64 d = descriptions.grow();
-				Arrays.fill(d.data, 0);
-				histogram = d.data;
+				computeBlockDescriptor(x, y, descriptions.grow());
+				locations.grow().setTo(x, y);
+			}
+		}
+	}
 
-				for (int cellRow = 0; cellRow < cellsPerBlockY; cellRow++) {
-					int blockPixelRow = cellRow*pixelsPerCell;
-					for (int cellCol = 0; cellCol < cellsPerBlockX; cellCol++) {
-						int blockPixelCol = cellCol*pixelsPerCell;
+	/**
+	 * Computes the descriptor for the block with the specified lower extent
+	 *
+	 * @param x block's lower extent x-axis in the image
+	 * @param y block's lower extent y-axis in the image
+	 * @param d (Output) the descriptor
+	 */
+	protected void computeBlockDescriptor( int x, int y, TupleDesc_F64 d ) {
+		Arrays.fill(d.data, 0);
 
-						computeCellHistogram(x + blockPixelCol, y + blockPixelRow, cellCol, cellRow);
-					}
-				}
+		for (int cellRow = 0; cellRow < cellsPerBlockY; cellRow++) {
+			int blockPixelRow = cellRow*pixelsPerCell;
+			for (int cellCol = 0; cellCol < cellsPerBlockX; cellCol++) {
+				int blockPixelCol = cellCol*pixelsPerCell;
 
-				DescribeSiftCommon.normalizeDescriptor(d, 0.2);
-				locations.grow().setTo(x, y);
+				computeCellHistogram(d.data, x + blockPixelCol, y + blockPixelRow, cellCol, cellRow);
 			}
 		}
+
+		DescribeSiftCommon.normalizeDescriptor(d, 0.2);
 	}
 
 	/**
@@ -237,6 +256,20 @@ public class DescribeDenseHogAlg<Input extends ImageBase<Input>> extends BaseDen
 	 */
 	void computeCellHistogram( int pixelX0, int pixelY0,
 							   int cellX, int cellY ) {
+		computeCellHistogram(histogram, pixelX0, pixelY0, cellX, cellY);
+	}
+
+	/**
+	 * Computes the histogram for the block with the specified lower extent
+	 *
+	 * @param histogram (Output) the block's histogram
+	 * @param pixelX0 cell's lower extent x-axis in the image
+	 * @param pixelY0 cell's lower extent y-axis in the image
+	 * @param cellX Location of the cell in the block x-axis
+	 * @param cellY Location of the cell in the block y-axis
+	 */
+	void computeCellHistogram( double[] histogram, int pixelX0, int pixelY0,
+							   int cellX, int cellY ) {
 
 		float angleBinSize = GrlConstants.F_PI/orientationBins;
 
@@ -290,32 +323,32 @@ public class DescribeDenseHogAlg<Input extends ImageBase<Input>> extends BaseDen
 
 				// spatial bilinear interpolation + orientation linear interpolation
 				// + gaussian weighting (previously applied)
-				addToHistogram(cellX - 1, cellY - 1, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX0*spatialWeightY0);
-				addToHistogram(cellX - 1, cellY - 1, index1, oriWeight1*magnitude*spatialWeightX0*spatialWeightY0);
+				addToHistogram(histogram, cellX - 1, cellY - 1, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX0*spatialWeightY0);
+				addToHistogram(histogram, cellX - 1, cellY - 1, index1, oriWeight1*magnitude*spatialWeightX0*spatialWeightY0);
 
-				addToHistogram(cellX, cellY - 1, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX1*spatialWeightY0);
-				addToHistogram(cellX, cellY - 1, index1, oriWeight1*magnitude*spatialWeightX1*spatialWeightY0);
+				addToHistogram(histogram, cellX, cellY - 1, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX1*spatialWeightY0);
+				addToHistogram(histogram, cellX, cellY - 1, index1, oriWeight1*magnitude*spatialWeightX1*spatialWeightY0);
 
-				addToHistogram(cellX + 1, cellY - 1, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX2*spatialWeightY0);
-				addToHistogram(cellX + 1, cellY - 1, index1, oriWeight1*magnitude*spatialWeightX2*spatialWeightY0);
+				addToHistogram(histogram, cellX + 1, cellY - 1, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX2*spatialWeightY0);
+				addToHistogram(histogram, cellX + 1, cellY - 1, index1, oriWeight1*magnitude*spatialWeightX2*spatialWeightY0);
 
-				addToHistogram(cellX - 1, cellY, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX0*spatialWeightY1);
-				addToHistogram(cellX - 1, cellY, index1, oriWeight1*magnitude*spatialWeightX0*spatialWeightY1);
+				addToHistogram(histogram, cellX - 1, cellY, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX0*spatialWeightY1);
+				addToHistogram(histogram, cellX - 1, cellY, index1, oriWeight1*magnitude*spatialWeightX0*spatialWeightY1);
 
-				addToHistogram(cellX, cellY, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX1*spatialWeightY1);
-				addToHistogram(cellX, cellY, index1, oriWeight1*magnitude*spatialWeightX1*spatialWeightY1);
+				addToHistogram(histogram, cellX, cellY, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX1*spatialWeightY1);
+				addToHistogram(histogram, cellX, cellY, index1, oriWeight1*magnitude*spatialWeightX1*spatialWeightY1);
 
-				addToHistogram(cellX + 1, cellY, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX2*spatialWeightY1);
-				addToHistogram(cellX + 1, cellY, index1, oriWeight1*magnitude*spatialWeightX2*spatialWeightY1);
+				addToHistogram(histogram, cellX + 1, cellY, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX2*spatialWeightY1);
+				addToHistogram(histogram, cellX + 1, cellY, index1, oriWeight1*magnitude*spatialWeightX2*spatialWeightY1);
 
-				addToHistogram(cellX - 1, cellY + 1, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX0*spatialWeightY2);
-				addToHistogram(cellX - 1, cellY + 1, index1, oriWeight1*magnitude*spatialWeightX0*spatialWeightY2);
+				addToHistogram(histogram, cellX - 1, cellY + 1, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX0*spatialWeightY2);
+				addToHistogram(histogram, cellX - 1, cellY + 1, index1, oriWeight1*magnitude*spatialWeightX0*spatialWeightY2);
 
-				addToHistogram(cellX, cellY + 1, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX1*spatialWeightY2);
-				addToHistogram(cellX, cellY + 1, index1, oriWeight1*magnitude*spatialWeightX1*spatialWeightY2);
+				addToHistogram(histogram, cellX, cellY + 1, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX1*spatialWeightY2);
+				addToHistogram(histogram, cellX, cellY + 1, index1, oriWeight1*magnitude*spatialWeightX1*spatialWeightY2);
 
-				addToHistogram(cellX + 1, cellY + 1, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX2*spatialWeightY2);
-				addToHistogram(cellX + 1, cellY + 1, index1, oriWeight1*magnitude*spatialWeightX2*spatialWeightY2);
+				addToHistogram(histogram, cellX + 1, cellY + 1, index0, (1.0 - oriWeight1)*magnitude*spatialWeightX2*spatialWeightY2);
+				addToHistogram(histogram, cellX + 1, cellY + 1, index1, oriWeight1*magnitude*spatialWeightX2*spatialWeightY2);
 			}
 		}
 	}
@@ -329,6 +362,19 @@ public class DescribeDenseHogAlg<Input extends ImageBase<Input>> extends BaseDen
 	 * @param magnitude edge magnitude
 	 */
 	void addToHistogram( int cellX, int cellY, int orientationIndex, double magnitude ) {
+		addToHistogram(histogram, cellX, cellY, orientationIndex, magnitude);
+	}
+
+	/**
+	 * Adds the magnitude to the histogram at the specified cell and orientation
+	 *
+	 * @param histogram (Output) the block's histogram
+	 * @param cellX cell coordinate
+	 * @param cellY cell coordinate
+	 * @param orientationIndex orientation coordinate
+	 * @param magnitude edge magnitude
+	 */
+	void addToHistogram( double[] histogram, int cellX, int cellY, int orientationIndex, double magnitude ) {
 		// see if it's being applied to a valid cell in the histogram
 		if (cellX < 0 || cellX >= cellsPerBlockX)
 			return;
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.dense;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+
+/**
+ * Concurrent implementation of {@link DescribeDenseHogAlg}. Pixel orientation and magnitude are computed in
+ * parallel bands of rows and each row of blocks is described in a different thread. Output is identical to the
+ * single threaded version.
+ *
+ * @author Peter Abeles
+ */
+public class DescribeDenseHogAlg_MT<Input extends ImageBase<Input>> extends DescribeDenseHogAlg<Input> {
+	public DescribeDenseHogAlg_MT( int orientationBins, int pixelsPerCell,
+								   int cellsPerBlockX, int cellsPerBlockY,
+								   int stepBlock,
+								   ImageType<Input> imageType ) {
+		super(orientationBins, pixelsPerCell, cellsPerBlockX, cellsPerBlockY, stepBlock, imageType);
+	}
+
+	@Override protected void computePixelFeatures() {
+		BoofConcurrency.loopBlocks(0, derivX.height, ( y0, y1 ) -> computePixelFeatures(y0, y1));
+	}
+
+	@Override public void process() {
+		int stepBlockPixelsX = pixelsPerCell*stepBlock;
+		int stepBlockPixelsY = pixelsPerCell*stepBlock;
+
+		int maxY = derivX.height - pixelsPerCell*cellsPerBlockY + 1;
+		int maxX = derivX.width - pixelsPerCell*cellsPerBlockX + 1;
+
+		// Number of blocks along each axis
+		int blockRows = maxY <= 0 ? 0 : (maxY - 1)/stepBlockPixelsY + 1;
+		int blockCols = maxX <= 0 ? 0 : (maxX - 1)/stepBlockPixelsX + 1;
+
+		locations.resize(blockRows*blockCols);
+		descriptions.resize(blockRows*blockCols);
+
+		BoofConcurrency.loopFor(0, blockRows, blockRow -> {
+			int y = blockRow*stepBlockPixelsY;
+			int index = blockRow*blockCols;
+			for (int blockCol = 0; blockCol < blockCols; blockCol++, index++) {
+				int x = blockCol*stepBlockPixelsX;
+				computeBlockDescriptor(x, y, descriptions.get(index));
+				locations.get(index).setTo(x, y);
+			}
+		});
+	}
+}
@@ -25,6 +25,7 @@ import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
 import georegression.metric.UtilAngle;
 import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_I32;
 
 import java.util.Arrays;
 import java.util.List;
@@ -55,6 +56,8 @@ public class DescribeDenseHogFastAlg<Input extends ImageBase<Input>> extends Bas
 	Cell[] cells = new Cell[0];
 	// number of cell rows and columns in the image
 	int cellRows, cellCols;
+	// storage for histograms of larger cells when processing at a coarser scale
+	Cell[] scaledCells = new Cell[0];
 
 	/**
 	 * Configures HOG descriptor computation
@@ -76,20 +79,78 @@ public class DescribeDenseHogFastAlg<Input extends ImageBase<Input>> extends Bas
 	 */
 	@Override
 	public void process() {
-		locations.reset();
-		descriptions.reset();
-
 		// see if the cell array needs to grow for this image.  Recycle data when growing
 		growCellArray(derivX.width, derivX.height);
 
 		computeCellHistograms();
+		computeDescriptors(cells, cellRows, cellCols, pixelsPerCell);
+	}
+
+	/**
+	 * <p>
+	 * Computes descriptors at a coarser scale while reusing the image gradient and cell histograms from the
+	 * most recent call to {@link #process()}. Each larger cell is the sum of cellScale by cellScale cells, which
+	 * is equivalent to increasing the number of pixels per cell. This is much faster than computing the gradient
+	 * again on a scaled down image, but is only an approximation of that.
+	 * </p>
+	 *
+	 * <p>Descriptor locations are in input image pixels. Results from the previous call are discarded.</p>
+	 *
+	 * @param cellScale Number of cells wide a larger cell is. If 1 then it's the same as {@link #process()}.
+	 */
+	public void processScale( int cellScale ) {
+		if (cellScale < 1)
+			throw new IllegalArgumentException("cellScale must be >= 1");
+		if (cellScale == 1) {
+			computeDescriptors(cells, cellRows, cellCols, pixelsPerCell);
+			return;
+		}
+
+		int scaledRows = cellRows/cellScale;
+		int scaledCols = cellCols/cellScale;
+
+		if (scaledRows*scaledCols > scaledCells.length) {
+			scaledCells = growCells(scaledCells, scaledRows*scaledCols);
+		}
+
+		for (int row = 0; row < scaledRows; row++) {
+			for (int col = 0; col < scaledCols; col++) {
+				float[] histogram = scaledCells[row*scaledCols + col].histogram;
+				Arrays.fill(histogram, 0);
+
+				for (int i = 0; i < cellScale; i++) {
+					int indexCell = (row*cellScale + i)*cellCols + col*cellScale;
+					for (int j = 0; j < cellScale; j++) {
+						float[] src = cells[indexCell++].histogram;
+						for (int k = 0; k < orientationBins; k++) {
+							histogram[k] += src[k];
+						}
+					}
+				}
+			}
+		}
+
+		computeDescriptors(scaledCells, scaledRows, scaledCols, pixelsPerCell*cellScale);
+	}
+
+	/**
+	 * Computes descriptors for every block in the grid of cells
+	 *
+	 * @param grid Cells in a row-major format
+	 * @param gridRows Number of cell rows
+	 * @param gridCols Number of cell columns
+	 * @param cellWidth Number of pixels wide a cell is
+	 */
+	protected void computeDescriptors( Cell[] grid, int gridRows, int gridCols, int cellWidth ) {
+		locations.reset();
+		descriptions.reset();
 
-		int cellRowMax = (cellRows - (cellsPerBlockY - 1));
-		int cellColMax = (cellCols - (cellsPerBlockX - 1));
+		int cellRowMax = (gridRows - (cellsPerBlockY - 1));
+		int cellColMax = (gridCols - (cellsPerBlockX - 1));
 
 		for (int i = 0; i < cellRowMax; i += stepBlock) {
 			for (int j = 0; j < cellColMax; j += stepBlock) {
-				computeDescriptor(i, j);
+				computeDescriptor(grid, gridCols, cellWidth, i, j, locations.grow(), descriptions.grow());
 			}
 		}
 	}
@@ -103,15 +164,22 @@ public class DescribeDenseHogFastAlg<Input extends ImageBase<Input>> extends Bas
 		cellRows = imageHeight/pixelsPerCell;
 
 		if (cellRows*cellCols > cells.length) {
-			Cell[] a = new Cell[cellCols*cellRows];
+			cells = growCells(cells, cellCols*cellRows);
+		}
+	}
 
-			System.arraycopy(cells, 0, a, 0, cells.length);
-			for (int i = cells.length; i < a.length; i++) {
-				a[i] = new Cell();
-				a[i].histogram = new float[orientationBins];
-			}
-			cells = a;
+	/**
+	 * Creates a larger array of cells while recycling the old cells
+	 */
+	Cell[] growCells( Cell[] original, int length ) {
+		Cell[] a = new Cell[length];
+
+		System.arraycopy(original, 0, a, 0, original.length);
+		for (int i = original.length; i < a.length; i++) {
+			a[i] = new Cell();
+			a[i].histogram = new float[orientationBins];
 		}
+		return a;
 	}
 
 	/**
@@ -146,15 +214,29 @@ public class DescribeDenseHogFastAlg<Input extends ImageBase<Input>> extends Bas
 	 * @param col Lower extent of cell columns
 	 */
 	void computeDescriptor( int row, int col ) {
-		// set location to top-left pixel
-		locations.grow().setTo(col*pixelsPerCell, row*pixelsPerCell);
+		computeDescriptor(cells, cellCols, pixelsPerCell, row, col, locations.grow(), descriptions.grow());
+	}
 
-		TupleDesc_F64 d = descriptions.grow();
+	/**
+	 * Compute the descriptor from the specified cells.  (row,col) to (row+w,col+w)
+	 *
+	 * @param grid Cells in a row-major format
+	 * @param gridCols Number of cell columns
+	 * @param cellWidth Number of pixels wide a cell is
+	 * @param row Lower extent of cell rows
+	 * @param col Lower extent of cell columns
+	 * @param location (Output) top-left pixel of the block
+	 * @param d (Output) the descriptor
+	 */
+	protected void computeDescriptor( Cell[] grid, int gridCols, int cellWidth, int row, int col,
+									  Point2D_I32 location, TupleDesc_F64 d ) {
+		// set location to top-left pixel
+		location.setTo(col*cellWidth, row*cellWidth);
 
 		int indexDesc = 0;
 		for (int i = 0; i < cellsPerBlockY; i++) {
 			for (int j = 0; j < cellsPerBlockX; j++) {
-				Cell c = cells[(row + i)*cellCols + (col + j)];
+				Cell c = grid[(row + i)*gridCols + (col + j)];
 
 				for (int k = 0; k < c.histogram.length; k++) {
 					d.data[indexDesc++] = c.histogram[k];
@@ -170,15 +252,23 @@ public class DescribeDenseHogFastAlg<Input extends ImageBase<Input>> extends Bas
 	 * Compute histograms for all the cells inside the image using precomputed derivative.
 	 */
 	void computeCellHistograms() {
+		computeCellHistograms(0, cellRows);
+	}
 
-		int width = cellCols*pixelsPerCell;
-		int height = cellRows*pixelsPerCell;
-
+	/**
+	 * Compute histograms for cells inside the specified range of cell rows
+	 *
+	 * @param cellRow0 First cell row, inclusive
+	 * @param cellRow1 Last cell row, exclusive
+	 */
+	protected void computeCellHistograms( int cellRow0, int cellRow1 ) {
 		float angleBinSize = GrlConstants.F_PI/orientationBins;
 
-		int indexCell = 0;
-		for (int i = 0; i < height; i += pixelsPerCell) {
-			for (int j = 0; j < width; j += pixelsPerCell, indexCell++) {
+		for (int cellRow = cellRow0; cellRow < cellRow1; cellRow++) {
+			int i = cellRow*pixelsPerCell;
+			int indexCell = cellRow*cellCols;
+			for (int cellCol = 0; cellCol < cellCols; cellCol++, indexCell++) {
+				int j = cellCol*pixelsPerCell;
 				Cell c = cells[indexCell];
 				c.reset();
 
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.dense;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+
+/**
+ * Concurrent implementation of {@link DescribeDenseHogFastAlg}. Cell histograms are computed in parallel bands
+ * of cell rows and descriptors in parallel rows of blocks. Each cell and descriptor is only written to by a
+ * single thread, making the output identical to the single threaded version.
+ *
+ * @author Peter Abeles
+ */
+public class DescribeDenseHogFastAlg_MT<Input extends ImageBase<Input>> extends DescribeDenseHogFastAlg<Input> {
+	public DescribeDenseHogFastAlg_MT( int orientationBins, int pixelsPerCell, int cellsPerBlockX, int cellsPerBlockY,
+									   int stepBlock, ImageType<Input> imageType ) {
+		super(orientationBins, pixelsPerCell, cellsPerBlockX, cellsPerBlockY, stepBlock, imageType);
+	}
+
+	@Override void computeCellHistograms() {
+		BoofConcurrency.loopBlocks(0, cellRows, ( row0, row1 ) -> computeCellHistograms(row0, row1));
+	}
+
+	@Override protected void computeDescriptors( Cell[] grid, int gridRows, int gridCols, int cellWidth ) {
+		int cellRowMax = (gridRows - (cellsPerBlockY - 1));
+		int cellColMax = (gridCols - (cellsPerBlockX - 1));
+
+		// Number of blocks along each axis
+		int blockRows = cellRowMax <= 0 ? 0 : (cellRowMax - 1)/stepBlock + 1;
+		int blockCols = cellColMax <= 0 ? 0 : (cellColMax - 1)/stepBlock + 1;
+
+		locations.resize(blockRows*blockCols);
+		descriptions.resize(blockRows*blockCols);
+
+		BoofConcurrency.loopFor(0, blockRows, blockRow -> {
+			int index = blockRow*blockCols;
+			for (int blockCol = 0; blockCol < blockCols; blockCol++, index++) {
+				computeDescriptor(grid, gridCols, cellWidth, blockRow*stepBlock, blockCol*stepBlock,
+						locations.get(index), descriptions.get(index));
+			}
+		});
+	}
+}
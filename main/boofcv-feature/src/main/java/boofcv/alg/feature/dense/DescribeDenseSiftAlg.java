@@ -52,6 +52,8 @@ public class DescribeDenseSiftAlg<D extends ImageGray<D>> extends DescribeSiftCo
 
 	// wrapper around gradient images so that multiple types are supported
 	GImageGray imageDerivX, imageDerivY;
+	// Type of gradient image
+	final Class<D> derivType;
 
 	// storage for descriptors
 	DogArray<TupleDesc_F64> descriptors;
@@ -81,6 +83,7 @@ public class DescribeDenseSiftAlg<D extends ImageGray<D>> extends DescribeSiftCo
 		super(widthSubregion, widthGrid, numHistogramBins, weightingSigmaFraction, maxDescriptorElementValue);
 		this.periodRows = periodRows;
 		this.periodColumns = periodColumns;
+		this.derivType = derivType;
 
 		final int DOF = getDescriptorLength();
 
@@ -133,21 +136,51 @@ public class DescribeDenseSiftAlg<D extends ImageGray<D>> extends DescribeSiftCo
 			for (int j = 0; j < numX; j++) {
 				int x = (X1 - X0)*j/(numX - 1) + X0;
 
-				TupleDesc_F64 desc = descriptors.grow();
-
-				computeDescriptor(x, y, desc);
 				sampleLocations.grow().setTo(x, y);
 			}
 		}
+
+		descriptors.resize(sampleLocations.size);
+		computeDescriptors();
+	}
+
+	/**
+	 * Computes descriptors at all the sample locations
+	 */
+	protected void computeDescriptors() {
+		computeDescriptors(0, sampleLocations.size);
+	}
+
+	/**
+	 * Computes descriptors at the sample locations inside the specified range
+	 *
+	 * @param idx0 First sample, inclusive
+	 * @param idx1 Last sample, exclusive
+	 */
+	protected void computeDescriptors( int idx0, int idx1 ) {
+		for (int i = idx0; i < idx1; i++) {
+			Point2D_I32 p = sampleLocations.get(i);
+			computeDescriptor(p.x, p.y, descriptors.get(i));
+		}
 	}
 
 	/**
 	 * Computes the angle of each pixel and its gradient magnitude
 	 */
 	void precomputeAngles( D image ) {
-		int savecIndex = 0;
-		for (int y = 0; y < image.height; y++) {
+		precomputeAngles(image, 0, image.height);
+	}
+
+	/**
+	 * Computes the angle of each pixel and its gradient magnitude inside the specified range of rows
+	 *
+	 * @param y0 First row, inclusive
+	 * @param y1 Last row, exclusive
+	 */
+	protected void precomputeAngles( D image, int y0, int y1 ) {
+		for (int y = y0; y < y1; y++) {
 			int pixelIndex = y*image.stride + image.startIndex;
+			int savecIndex = y*image.width;
 
 			for (int x = 0; x < image.width; x++, pixelIndex++, savecIndex++) {
 				float spacialDX = imageDerivX.getF(pixelIndex);
@@ -222,6 +255,6 @@ public class DescribeDenseSiftAlg<D extends ImageGray<D>> extends DescribeSiftCo
 	}
 
 	public Class<D> getDerivType() {
-		return (Class)imageDerivX.getImageType();
+		return derivType;
 	}
 }
@@ -0,0 +1,452 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detdesc;
+
+import boofcv.abst.filter.blur.BlurFilter;
+import boofcv.alg.feature.describe.brief.BinaryCompareDefinition_I32;
+import boofcv.alg.feature.detect.intensity.FastCornerDetector;
+import boofcv.alg.feature.detect.selector.FeatureSelectNBest;
+import boofcv.alg.feature.detect.selector.SampleIntensity;
+import boofcv.core.image.FactoryGImageGray;
+import boofcv.core.image.GImageGray;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.misc.BoofLambdas;
+import boofcv.struct.ListIntPoint2D;
+import boofcv.struct.feature.PackedTupleArray_B;
+import boofcv.struct.feature.ScalePoint;
+import boofcv.struct.feature.TupleDesc_B;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.pyramid.PyramidDiscrete;
+import georegression.struct.point.Point2D_I32;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.FastArray;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>
+ * Oriented FAST and Rotated BRIEF (ORB) [1]. Binary features which are fast to detect, describe, and associate.
+ * FAST corners are detected in each level of a {@link PyramidDiscrete}, ranked using the Harris corner score, and
+ * only the best are kept using {@link FeatureSelectNBest}. The number of features kept in each level is
+ * proportional to the inverse of the level's scale. Orientation is found using the intensity centroid
+ * and a BRIEF descriptor is computed using a pattern which has been rotated to the closest discrete angle. The
+ * rotated patterns are precomputed and stored as pixel offsets in a single packed array.
+ * </p>
+ *
+ * <p>
+ * Differences from the paper: The pyramid is discrete and each level is half the size of the previous one,
+ * instead of a scale factor of 1.2. The BRIEF pattern is randomly generated and not learned.
+ * </p>
+ *
+ * <p>
+ * [1] Rublee, Ethan, et al. "ORB: An efficient alternative to SIFT or SURF." ICCV 2011.
+ * </p>
+ *
+ * @author Peter Abeles
+ * @see FastCornerDetector
+ * @see boofcv.alg.feature.describe.DescribePointBriefSO
+ */
+public class CompleteOrb<T extends ImageGray<T>> {
+	/** Maximum number of features it will return. Split between the levels in the pyramid. */
+	public int maxFeatures = 500;
+
+	/** Harris corner tuning parameter, used to rank FAST corners */
+	public float harrisKappa = 0.04f;
+
+	/** Radius of the region the Harris corner score is computed inside of */
+	public int harrisRadius = 3;
+
+	/** Image pyramid that features are detected inside of */
+	@Getter final PyramidDiscrete<T> pyramid;
+
+	/** Defines the BRIEF descriptor */
+	@Getter final BinaryCompareDefinition_I32 definition;
+
+	// Number of discrete angles the BRIEF pattern is rotated to
+	final int numAngles;
+	// BRIEF sample points rotated to each discrete angle. index = angle*numSamples + sample
+	final int[] rotatedX, rotatedY;
+
+	// Half the width of the circular region at each row. Used to compute the intensity centroid
+	final int[] circleHalfWidth;
+
+	// Creates algorithms used internally when a new workspace is needed
+	final BoofLambdas.Factory<FastCornerDetector<T>> factoryFast;
+	final BoofLambdas.Factory<BlurFilter<T>> factoryBlur;
+
+	// Used to process each level when single threaded
+	final LevelWorkspace workspace;
+
+	// Results for each level in the pyramid
+	final DogArray<LevelResults> levelResults;
+
+	// Maximum number of features in each level
+	final DogArray_I32 levelLimits = new DogArray_I32();
+
+	/** Descriptions for all the features */
+	@Getter final PackedTupleArray_B descriptions;
+	/** Location of features in the input image, the level's scale, and which FAST set it belongs to */
+	@Getter final DogArray<ScalePoint> locations = new DogArray<>(ScalePoint::new);
+	/** Orientation of each feature */
+	@Getter final DogArray_F64 orientations = new DogArray_F64();
+
+	/**
+	 * Configures ORB
+	 *
+	 * @param pyramid Image pyramid features are detected inside of
+	 * @param definition Definition of the BRIEF descriptor
+	 * @param numAngles Number of discrete angles the BRIEF pattern is rotated to. Try 30.
+	 * @param factoryFast Creates a FAST detector
+	 * @param factoryBlur Creates the filter used to blur the image before it's sampled by BRIEF
+	 */
+	public CompleteOrb( PyramidDiscrete<T> pyramid,
+						BinaryCompareDefinition_I32 definition,
+						int numAngles,
+						BoofLambdas.Factory<FastCornerDetector<T>> factoryFast,
+						BoofLambdas.Factory<BlurFilter<T>> factoryBlur ) {
+		this.pyramid = pyramid;
+		this.definition = definition;
+		this.numAngles = numAngles;
+		this.factoryFast = factoryFast;
+		this.factoryBlur = factoryBlur;
+
+		int numSamples = definition.samplePoints.length;
+		rotatedX = new int[numAngles*numSamples];
+		rotatedY = new int[numAngles*numSamples];
+		for (int angleIdx = 0; angleIdx < numAngles; angleIdx++) {
+			double theta = 2.0*Math.PI*angleIdx/numAngles;
+			double c = Math.cos(theta);
+			double s = Math.sin(theta);
+			for (int i = 0; i < numSamples; i++) {
+				Point2D_I32 a = definition.samplePoints[i];
+				rotatedX[angleIdx*numSamples + i] = (int)Math.round(c*a.x - s*a.y);
+				rotatedY[angleIdx*numSamples + i] = (int)Math.round(s*a.x + c*a.y);
+			}
+		}
+
+		int r = definition.radius;
+		circleHalfWidth = new int[2*r + 1];
+		for (int y = -r; y <= r; y++) {
+			circleHalfWidth[y + r] = (int)Math.sqrt(r*r - y*y);
+		}
+
+		final int dof = definition.getLength();
+		descriptions = new PackedTupleArray_B(dof);
+		levelResults = new DogArray<>(() -> new LevelResults(dof), LevelResults::reset);
+		workspace = createWorkspace();
+	}
+
+	/**
+	 * Detects and describes features inside the image
+	 */
+	public void process( T input ) {
+		pyramid.process(input);
+
+		int numLevels = pyramid.getNumLayers();
+		computeLevelLimits(numLevels);
+		levelResults.resize(numLevels);
+
+		processLevels(numLevels);
+
+		// Combine the results from each level together, in order
+		descriptions.reset();
+		locations.reset();
+		orientations.reset();
+		for (int level = 0; level < numLevels; level++) {
+			LevelResults results = levelResults.get(level);
+			for (int i = 0; i < results.locations.size; i++) {
+				descriptions.append(results.descriptions.getTemp(i));
+				locations.grow().setTo(results.locations.get(i));
+			}
+			orientations.addAll(results.orientations);
+		}
+	}
+
+	/**
+	 * Processes each level in the pyramid
+	 */
+	protected void processLevels( int numLevels ) {
+		for (int level = 0; level < numLevels; level++) {
+			processLevel(workspace, level, levelResults.get(level));
+		}
+	}
+
+	/**
+	 * The number of features in each level is proportional to the inverse of its scale
+	 */
+	void computeLevelLimits( int numLevels ) {
+		double sum = 0.0;
+		for (int level = 0; level < numLevels; level++) {
+			sum += 1.0/pyramid.getScale(level);
+		}
+		levelLimits.resize(numLevels);
+		for (int level = 0; level < numLevels; level++) {
+			double fraction = (1.0/pyramid.getScale(level))/sum;
+			levelLimits.set(level, Math.max(1, (int)Math.round(maxFeatures*fraction)));
+		}
+	}
+
+	/**
+	 * Detects, selects, and describes features in a single level of the pyramid
+	 */
+	protected void processLevel( LevelWorkspace work, int level, LevelResults results ) {
+		results.reset();
+
+		T image = pyramid.getLayer(level);
+		double scale = pyramid.getScale(level);
+
+		// Features too close to the border can't be described
+		int border = Math.max(definition.radius, harrisRadius) + 1;
+		if (image.width <= 2*border || image.height <= 2*border)
+			return;
+
+		work.imageWrap.wrap(image);
+
+		// Find candidate corners and score them using Harris
+		work.fast.process(image);
+		work.candidates.reset();
+		addCandidates(work, image, work.fast.getCandidatesHigh(), true, border);
+		addCandidates(work, image, work.fast.getCandidatesLow(), false, border);
+
+		if (work.candidates.size == 0)
+			return;
+
+		// Only keep the best corners
+		work.selector.select(null, image.width, image.height, true, null,
+				work.candidates, levelLimits.get(level), work.selected);
+
+		// BRIEF samples a blurred image to reduce sensitivity to noise
+		work.blurred.reshape(image.width, image.height);
+		work.blur.process(image, work.blurred);
+		work.blurredWrap.wrap(work.blurred);
+		work.updateSampleOffsets(work.blurred.stride);
+
+		for (int i = 0; i < work.selected.size; i++) {
+			Candidate c = work.selected.get(i);
+
+			double angle = computeOrientation(work.imageWrap, image, c.x, c.y);
+			describe(work, c.x, c.y, angle, work.desc);
+
+			results.descriptions.append(work.desc);
+			results.locations.grow().setTo(c.x*scale, c.y*scale, scale, c.white, c.score);
+			results.orientations.add(angle);
+		}
+	}
+
+	/**
+	 * Adds FAST corners which are far enough away from the image border to be described as candidates
+	 */
+	void addCandidates( LevelWorkspace work, T image, ListIntPoint2D found, boolean white, int border ) {
+		Point2D_I32 p = work.point;
+		for (int i = 0; i < found.size(); i++) {
+			found.get(i, p);
+			if (p.x < border || p.y < border || p.x >= image.width - border || p.y >= image.height - border)
+				continue;
+
+			Candidate c = work.candidates.grow();
+			c.x = p.x;
+			c.y = p.y;
+			c.white = white;
+			c.score = computeHarris(work.imageWrap, image, p.x, p.y);
+		}
+	}
+
+	/**
+	 * Computes the Harris corner score using the image gradient in a square region
+	 */
+	float computeHarris( GImageGray g, T image, int cx, int cy ) {
+		final int r = harrisRadius;
+		final int stride = image.stride;
+
+		float xx = 0, yy = 0, xy = 0;
+		for (int y = cy - r; y <= cy + r; y++) {
+			int index = image.startIndex + y*stride + cx - r;
+			for (int x = -r; x <= r; x++, index++) {
+				float dx = g.getF(index + 1) - g.getF(index - 1);
+				float dy = g.getF(index + stride) - g.getF(index - stride);
+				xx += dx*dx;
+				yy += dy*dy;
+				xy += dx*dy;
+			}
+		}
+
+		float trace = xx + yy;
+		return xx*yy - xy*xy - harrisKappa*trace*trace;
+	}
+
+	/**
+	 * Computes the orientation from the intensity centroid inside a circular region
+	 */
+	double computeOrientation( GImageGray g, T image, int cx, int cy ) {
+		final int r = definition.radius;
+		final int stride = image.stride;
+
+		float m10 = 0, m01 = 0;
+		for (int dy = -r; dy <= r; dy++) {
+			int w = circleHalfWidth[dy + r];
+			int index = image.startIndex + (cy + dy)*stride + cx - w;
+			float sumRow = 0;
+			for (int dx = -w; dx <= w; dx++, index++) {
+				float v = g.getF(index);
+				m10 += dx*v;
+				sumRow += v;
+			}
+			m01 += dy*sumRow;
+		}
+
+		return Math.atan2(m01, m10);
+	}
+
+	/**
+	 * Computes the descriptor using the pattern at the closest discrete angle
+	 */
+	void describe( LevelWorkspace work, int cx, int cy, double angle, TupleDesc_B desc ) {
+		int numSamples = definition.samplePoints.length;
+
+		int angleIdx = (int)Math.round(numAngles*angle/(2.0*Math.PI));
+		angleIdx = ((angleIdx%numAngles) + numAngles)%numAngles;
+
+		final int[] offsets = work.sampleOffsets;
+		final float[] values = work.values;
+		final GImageGray g = work.blurredWrap;
+		int center = work.blurred.startIndex + cy*work.blurred.stride + cx;
+		int start = angleIdx*numSamples;
+		for (int i = 0; i < numSamples; i++) {
+			values[i] = g.getF(center + offsets[start + i]);
+		}
+
+		final int[] data = desc.data;
+		for (int i = 0; i < data.length; i++) {
+			data[i] = 0;
+		}
+		for (int i = 0; i < definition.compare.length; i++) {
+			Point2D_I32 comp = definition.compare[i];
+			if (values[comp.x] < values[comp.y]) {
+				data[i/32] |= 1 << (i%32);
+			}
+		}
+	}
+
+	/**
+	 * Creates a new workspace for processing a level
+	 */
+	protected LevelWorkspace createWorkspace() {
+		return new LevelWorkspace(factoryFast.newInstance(), factoryBlur.newInstance());
+	}
+
+	public TupleDesc_B createDescription() {
+		return new TupleDesc_B(definition.getLength());
+	}
+
+	public int getDescriptorLength() {
+		return definition.getLength();
+	}
+
+	/**
+	 * Radius of the feature in the input image
+	 */
+	public double getRadius( int index ) {
+		return definition.radius*locations.get(index).scale;
+	}
+
+	/**
+	 * A detected corner which may be selected to be a feature
+	 */
+	static class Candidate {
+		int x, y;
+		// Harris corner score
+		float score;
+		// true if it was from the set of FAST features which are brighter than the center pixel
+		boolean white;
+	}
+
+	/**
+	 * Lets {@link FeatureSelectNBest} access the precomputed Harris score
+	 */
+	static class SampleHarris implements SampleIntensity<Candidate> {
+		@Override public float sample( @Nullable GrayF32 intensity, int index, Candidate p ) {return p.score;}
+
+		@Override public int getX( Candidate p ) {return p.x;}
+
+		@Override public int getY( Candidate p ) {return p.y;}
+	}
+
+	/**
+	 * Features found inside a single level
+	 */
+	static class LevelResults {
+		final PackedTupleArray_B descriptions;
+		final DogArray<ScalePoint> locations = new DogArray<>(ScalePoint::new);
+		final DogArray_F64 orientations = new DogArray_F64();
+
+		LevelResults( int dof ) {
+			descriptions = new PackedTupleArray_B(dof);
+		}
+
+		void reset() {
+			descriptions.reset();
+			locations.reset();
+			orientations.reset();
+		}
+	}
+
+	/**
+	 * Everything needed to process a level independently
+	 */
+	protected class LevelWorkspace {
+		final FastCornerDetector<T> fast;
+		final BlurFilter<T> blur;
+		final T blurred;
+		final GImageGray imageWrap;
+		final GImageGray blurredWrap;
+
+		final FeatureSelectNBest<Candidate> selector = new FeatureSelectNBest<>(new SampleHarris());
+		final DogArray<Candidate> candidates = new DogArray<>(Candidate::new);
+		final FastArray<Candidate> selected = new FastArray<>(Candidate.class);
+		final Point2D_I32 point = new Point2D_I32();
+
+		// BRIEF sample points for every angle converted into index offsets for the blurred image
+		final int[] sampleOffsets = new int[rotatedX.length];
+		int sampleStride = -1;
+		// Values of each BRIEF sample point
+		final float[] values = new float[definition.samplePoints.length];
+		final TupleDesc_B desc = createDescription();
+
+		protected LevelWorkspace( FastCornerDetector<T> fast, BlurFilter<T> blur ) {
+			this.fast = fast;
+			this.blur = blur;
+			Class<T> imageType = fast.getImageType();
+			this.blurred = GeneralizedImageOps.createSingleBand(imageType, 1, 1);
+			this.imageWrap = FactoryGImageGray.create(imageType);
+			this.blurredWrap = FactoryGImageGray.create(imageType);
+		}
+
+		void updateSampleOffsets( int stride ) {
+			if (stride == sampleStride)
+				return;
+			sampleStride = stride;
+			for (int i = 0; i < sampleOffsets.length; i++) {
+				sampleOffsets[i] = rotatedY[i]*stride + rotatedX[i];
+			}
+		}
+	}
+}
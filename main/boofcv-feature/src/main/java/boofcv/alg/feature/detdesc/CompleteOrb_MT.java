@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detdesc;
+
+import boofcv.abst.filter.blur.BlurFilter;
+import boofcv.alg.feature.describe.brief.BinaryCompareDefinition_I32;
+import boofcv.alg.feature.detect.intensity.FastCornerDetector;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.misc.BoofLambdas;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.pyramid.PyramidDiscrete;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link CompleteOrb}. Each level in the pyramid is processed in a different
+ * thread. Results are combined in the same order as the single threaded version, making the output identical.
+ *
+ * @author Peter Abeles
+ */
+public class CompleteOrb_MT<T extends ImageGray<T>> extends CompleteOrb<T> {
+
+	// Work space for each thread
+	GrowArray<LevelWorkspace> workspaces;
+
+	public CompleteOrb_MT( PyramidDiscrete<T> pyramid,
+						   BinaryCompareDefinition_I32 definition,
+						   int numAngles,
+						   BoofLambdas.Factory<FastCornerDetector<T>> factoryFast,
+						   BoofLambdas.Factory<BlurFilter<T>> factoryBlur ) {
+		super(pyramid, definition, numAngles, factoryFast, factoryBlur);
+		workspaces = new GrowArray<>(this::createWorkspace);
+	}
+
+	@Override protected void processLevels( int numLevels ) {
+		BoofConcurrency.loopBlocks(0, numLevels, 1, workspaces, ( work, idx0, idx1 ) -> {
+			for (int level = idx0; level < idx1; level++) {
+				processLevel(work, level, levelResults.get(level));
+			}
+		});
+	}
+}
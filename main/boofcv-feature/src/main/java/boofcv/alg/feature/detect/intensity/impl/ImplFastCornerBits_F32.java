@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.intensity.impl;
+
+import boofcv.struct.image.GrayF32;
+
+/**
+ * <p>
+ * Alternative to the auto generated decision trees, e.g. {@link ImplFastCorner9_F32}. Instead of sampling the circle
+ * one pixel at a time with a deeply nested set of if statements, the comparison against the upper and lower
+ * thresholds for all 16 pixels in the circle are packed into the bits of a word without branching. Whether or not
+ * there is a continuous arc is then found using a few shift and AND operations,
+ * see {@link ImplFastCornerBits_U8#hasArc}. Before the full circle is sampled, the 4 compass points are checked
+ * and the pixel rejected if there aren't enough of them above or below the threshold to possibly form an arc.
+ * This tends to be faster on highly textured images where branch prediction in the decision tree performs poorly.
+ * </p>
+ *
+ * <p>The circle's pixels are scattered across several rows and only two floats fit in a long, so the pixel values
+ * themselves are not packed into a word. Only the results of the comparisons are.</p>
+ *
+ * <p>Produces the exact same set of corners as the decision tree implementations.</p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplFastCornerBits_F32 extends ImplFastHelper_F32 {
+	// Minimum number of continuous pixels for it to be a corner
+	final int minContinuous;
+	// Minimum number of compass points which must pass the threshold for it to possibly be a corner
+	final int minCompass;
+
+	public ImplFastCornerBits_F32( float pixelTol, int minContinuous ) {
+		super(pixelTol);
+		if (minContinuous < 9 || minContinuous > 12)
+			throw new IllegalArgumentException("minContinuous must be from 9 to 12, inclusive");
+		this.minContinuous = minContinuous;
+		this.minCompass = minContinuous/4;
+	}
+
+	/**
+	 * @return 1 = positive corner, 0 = no corner, -1 = negative corner
+	 */
+	@Override public final int checkPixel( int index ) {
+		setThreshold(index);
+
+		final float[] data = this.data;
+		final int[] offsets = this.offsets;
+
+		// Quickly reject pixels using the compass points. Any arc will contain at least minContinuous/4 of them
+		float v0 = data[index + offsets[0]];
+		float v4 = data[index + offsets[4]];
+		float v8 = data[index + offsets[8]];
+		float v12 = data[index + offsets[12]];
+
+		int compassUpper = (v0 > upper ? 1 : 0) + (v4 > upper ? 1 : 0) + (v8 > upper ? 1 : 0) + (v12 > upper ? 1 : 0);
+		int compassLower = (v0 < lower ? 1 : 0) + (v4 < lower ? 1 : 0) + (v8 < lower ? 1 : 0) + (v12 < lower ? 1 : 0);
+
+		if (compassUpper < minCompass && compassLower < minCompass)
+			return 0;
+
+		// Pack the result of each comparison into a bit. Simple enough for the JIT to use conditional moves
+		int bitsUpper = 0;
+		int bitsLower = 0;
+		for (int i = 0; i < 16; i++) {
+			float v = data[index + offsets[i]];
+			bitsUpper |= (v > upper ? 1 : 0) << i;
+			bitsLower |= (v < lower ? 1 : 0) << i;
+		}
+
+		// It's impossible for there to be an upper and lower arc at the same time since minContinuous > 8
+		if (ImplFastCornerBits_U8.hasArc(bitsUpper, minContinuous))
+			return 1;
+		if (ImplFastCornerBits_U8.hasArc(bitsLower, minContinuous))
+			return -1;
+		return 0;
+	}
+
+	@Override public FastCornerInterface<GrayF32> newInstance() {
+		return new ImplFastCornerBits_F32(tol, minContinuous);
+	}
+}
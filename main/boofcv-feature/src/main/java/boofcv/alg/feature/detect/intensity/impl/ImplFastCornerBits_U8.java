@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.intensity.impl;
+
+import boofcv.struct.image.GrayU8;
+
+/**
+ * <p>
+ * Alternative to the auto generated decision trees, e.g. {@link ImplFastCorner9_U8}. Instead of sampling the circle
+ * one pixel at a time with a deeply nested set of if statements, the comparison against the upper and lower
+ * thresholds for all 16 pixels in the circle are packed into the bits of a word without branching. Whether or not
+ * there is a continuous arc is then found using a few shift and AND operations, see {@link #hasArc}. Before the full
+ * circle is sampled, the 4 compass points are checked and the pixel rejected if there aren't enough of them
+ * above or below the threshold to possibly form an arc. This tends to be faster on highly textured images where
+ * branch prediction in the decision tree performs poorly.
+ * </p>
+ *
+ * <p>Produces the exact same set of corners as the decision tree implementations.</p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplFastCornerBits_U8 extends ImplFastHelper_U8 {
+	// Minimum number of continuous pixels for it to be a corner
+	final int minContinuous;
+	// Minimum number of compass points which must pass the threshold for it to possibly be a corner
+	final int minCompass;
+
+	public ImplFastCornerBits_U8( int pixelTol, int minContinuous ) {
+		super(pixelTol);
+		if (minContinuous < 9 || minContinuous > 12)
+			throw new IllegalArgumentException("minContinuous must be from 9 to 12, inclusive");
+		this.minContinuous = minContinuous;
+		this.minCompass = minContinuous/4;
+	}
+
+	/**
+	 * @return 1 = positive corner, 0 = no corner, -1 = negative corner
+	 */
+	@Override public final int checkPixel( int index ) {
+		setThreshold(index);
+
+		final byte[] data = this.data;
+		final int[] offsets = this.offsets;
+
+		// Quickly reject pixels using the compass points. Any arc will contain at least minContinuous/4 of them
+		int v0 = data[index + offsets[0]] & 0xFF;
+		int v4 = data[index + offsets[4]] & 0xFF;
+		int v8 = data[index + offsets[8]] & 0xFF;
+		int v12 = data[index + offsets[12]] & 0xFF;
+
+		int compassUpper = ((upper - v0) >>> 31) + ((upper - v4) >>> 31) + ((upper - v8) >>> 31) + ((upper - v12) >>> 31);
+		int compassLower = ((v0 - lower) >>> 31) + ((v4 - lower) >>> 31) + ((v8 - lower) >>> 31) + ((v12 - lower) >>> 31);
+
+		if (compassUpper < minCompass && compassLower < minCompass)
+			return 0;
+
+		// Pack the result of each comparison into a bit. The sign bit is used to avoid branching
+		int bitsUpper = 0;
+		int bitsLower = 0;
+		for (int i = 0; i < 16; i++) {
+			int v = data[index + offsets[i]] & 0xFF;
+			bitsUpper |= ((upper - v) >>> 31) << i;
+			bitsLower |= ((v - lower) >>> 31) << i;
+		}
+
+		// It's impossible for there to be an upper and lower arc at the same time since minContinuous > 8
+		if (hasArc(bitsUpper, minContinuous))
+			return 1;
+		if (hasArc(bitsLower, minContinuous))
+			return -1;
+		return 0;
+	}
+
+	/**
+	 * Returns true if the 16-bit circular bit field has a continuous run of at least 'length' bits which are set.
+	 * Must be between 9 and 16.
+	 */
+	static boolean hasArc( int bits, int length ) {
+		// Unroll the circle so that runs that wrap around are continuous
+		int r = bits | (bits << 16);
+		// Bit 'i' is set if the run starting at 'i' is at least 2, 4, then 8 long
+		r &= r >>> 1;
+		r &= r >>> 2;
+		r &= r >>> 4;
+		// Two overlapping runs of 8 will cover the requested length
+		r &= r >>> (length - 8);
+		return (r & 0xFFFF) != 0;
+	}
+
+	@Override public FastCornerInterface<GrayU8> newInstance() {
+		return new ImplFastCornerBits_U8(tol, minContinuous);
+	}
+}
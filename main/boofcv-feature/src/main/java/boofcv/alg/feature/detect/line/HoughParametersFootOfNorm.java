@@ -71,6 +71,11 @@ public class HoughParametersFootOfNorm implements HoughTransformParameters {
 		throw new IllegalArgumentException("Not supported");
 	}
 
+	@Override
+	public void parameterizeRows( int x, int y, int row0, int row1, GrayF32 transform ) {
+		throw new IllegalArgumentException("Not supported");
+	}
+
 	@Override
 	public void parameterize( int x, int y, float derivX, float derivY, Point2D_F32 parameter ) {
 		// put the point in a new coordinate system centered at the image's origin
@@ -95,6 +95,11 @@ public class HoughParametersPolar implements HoughTransformParameters {
 
 	@Override
 	public void parameterize( int x, int y, GrayF32 transform ) {
+		parameterizeRows(x, y, 0, transform.height, transform);
+	}
+
+	@Override
+	public void parameterizeRows( int x, int y, int row0, int row1, GrayF32 transform ) {
 		// put the point in a new coordinate system centered at the image's origin
 		x -= originX;
 		y -= originY;
@@ -102,7 +107,7 @@ public class HoughParametersPolar implements HoughTransformParameters {
 		int w2 = transform.width/2;
 
 		// The line's slope is encoded using the tangent angle.  Those bins are along the image's y-axis
-		for (int i = 0; i < transform.height; i++) {
+		for (int i = row0; i < row1; i++) {
 			// distance of closest point on line from a line defined by the point (x,y) and
 			// the tangent theta=PI*i/height
 			double p = x*tableTrig.c[i] + y*tableTrig.s[i];
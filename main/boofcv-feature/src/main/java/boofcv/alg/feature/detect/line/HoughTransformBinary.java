@@ -77,6 +77,9 @@ public class HoughTransformBinary {
 
 	HoughTransformParameters parameters;
 
+	// shape of the input image
+	int imageWidth, imageHeight;
+
 	// post processing pruning
 	ImageLinePruneMerge post = new ImageLinePruneMerge();
 
@@ -105,17 +108,46 @@ public class HoughTransformBinary {
 	 * @param binary Binary image that indicates which pixels lie on edges.
 	 */
 	public void transform( GrayU8 binary ) {
-		parameters.initialize(binary.width, binary.height, transform);
+		initialize(binary.width, binary.height);
+		vote(binary);
+		extract();
+	}
+
+	/**
+	 * Incremental mode. Clears the transform and prepares it for images of the specified shape. Votes are then
+	 * added with {@link #vote} as they arrive and lines are found using {@link #extract}.
+	 *
+	 * @param width Width of input images
+	 * @param height Height of input images
+	 */
+	public void initialize( int width, int height ) {
+		this.imageWidth = width;
+		this.imageHeight = height;
+		parameters.initialize(width, height, transform);
 		ImageMiscOps.fill(transform, 0);
+	}
 
+	/**
+	 * Incremental mode. Adds votes from edge pixels to the transform without clearing previous votes.
+	 *
+	 * @param binary Binary image that indicates which pixels lie on edges.
+	 */
+	public void vote( GrayU8 binary ) {
+		if (binary.width != imageWidth || binary.height != imageHeight)
+			throw new IllegalArgumentException("Image shape doesn't match the shape passed to initialize()");
 		computeParameters(binary);
+	}
 
+	/**
+	 * Finds lines using all the votes cast since {@link #initialize} was called.
+	 */
+	public void extract() {
 		extractLines();
 		if (maxLines <= 0) {
 			linesMerged.clear();
 			linesMerged.addAll(linesAll.toList());
 		} else {
-			mergeLines(binary.width, binary.height);
+			mergeLines(imageWidth, imageHeight);
 		}
 	}
 
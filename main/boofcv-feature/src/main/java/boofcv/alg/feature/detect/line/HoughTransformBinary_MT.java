@@ -21,13 +21,28 @@ package boofcv.alg.feature.detect.line;
 import boofcv.abst.feature.detect.extract.NonMaxSuppression;
 import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.image.GrayU8;
+import org.ddogleg.struct.DogArray_I32;
+import pabeles.concurrency.GrowArray;
 
 /**
- * Concurrent version of {@link HoughTransformBinary}
+ * <p>
+ * Concurrent version of {@link HoughTransformBinary}.
+ * </p>
+ *
+ * <p>
+ * Edge pixels are first found in parallel blocks of image rows. The transform is then split into tiles composed
+ * of transform rows and each thread casts votes into a different tile. Threads never write to the same
+ * element, so a single transform is shared and no merge step is required. The result is identical to the
+ * single threaded version.
+ * </p>
  *
  * @author Peter Abeles
  */
 public class HoughTransformBinary_MT extends HoughTransformBinary {
+
+	// Coordinates of edge pixels found in each block of image rows. Interleaved (x,y)
+	private final GrowArray<DogArray_I32> blockPoints = new GrowArray<>(DogArray_I32::new, DogArray_I32::reset);
+
 	/**
 	 * Specifies parameters of transform.  The minimum number of points specified in the extractor
 	 * is an important tuning parameter.
@@ -40,13 +55,27 @@ public class HoughTransformBinary_MT extends HoughTransformBinary {
 
 	@Override
 	void computeParameters( GrayU8 binary ) {
-		BoofConcurrency.loopFor(0, binary.height, y -> {
-			int start = binary.startIndex + y*binary.stride;
-			int stop = start + binary.width;
+		// Find all the edge pixels
+		BoofConcurrency.loopBlocks(0, binary.height, blockPoints, ( points, y0, y1 ) -> {
+			for (int y = y0; y < y1; y++) {
+				int start = binary.startIndex + y*binary.stride;
+				int stop = start + binary.width;
+
+				for (int index = start; index < stop; index++) {
+					if (binary.data[index] != 0) {
+						points.add(index - start);
+						points.add(y);
+					}
+				}
+			}
+		});
 
-			for (int index = start; index < stop; index++) {
-				if (binary.data[index] != 0) {
-					parameters.parameterize(index - start, y, transform);
+		// Each thread is assigned its own set of rows in the transform
+		BoofConcurrency.loopBlocks(0, transform.height, ( row0, row1 ) -> {
+			for (int blockIdx = 0; blockIdx < blockPoints.size(); blockIdx++) {
+				DogArray_I32 points = blockPoints.get(blockIdx);
+				for (int i = 0; i < points.size; i += 2) {
+					parameters.parameterizeRows(points.data[i], points.data[i + 1], row0, row1, transform);
 				}
 			}
 		});
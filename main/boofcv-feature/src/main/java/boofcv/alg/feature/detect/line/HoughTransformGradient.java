@@ -76,6 +76,9 @@ public class HoughTransformGradient<D extends ImageGray<D>> {
 
 	HoughTransformParameters parameters;
 
+	// shape of the input image
+	int imageWidth, imageHeight;
+
 	// used to make the input image type generic
 	GImageGray _derivX, _derivY;
 
@@ -113,19 +116,53 @@ public class HoughTransformGradient<D extends ImageGray<D>> {
 	 */
 	public <TD extends ImageGray<TD>> void transform( TD derivX, TD derivY, GrayU8 binary ) {
 		InputSanityCheck.checkSameShape(derivX, derivY, binary);
-		parameters.initialize(derivX.width, derivX.height, transform);
+		initialize(binary.width, binary.height);
+		vote(derivX, derivY, binary);
+		extract();
+	}
+
+	/**
+	 * Incremental mode. Clears the transform and prepares it for images of the specified shape. Votes are then
+	 * added with {@link #vote} as they arrive and lines are found using {@link #extract}.
+	 *
+	 * @param width Width of input images
+	 * @param height Height of input images
+	 */
+	public void initialize( int width, int height ) {
+		this.imageWidth = width;
+		this.imageHeight = height;
+		parameters.initialize(width, height, transform);
 		ImageMiscOps.fill(transform, 0);
+		candidates.configure(transform.width, transform.height);
+	}
+
+	/**
+	 * Incremental mode. Adds votes from edge pixels to the transform without clearing previous votes.
+	 *
+	 * @param derivX (Input) Image derivative along x-axis.
+	 * @param derivY (Input) Image derivative along y-axis.
+	 * @param binary (Input) Non-zero pixels are considered to be line pixels.
+	 */
+	public <TD extends ImageGray<TD>> void vote( TD derivX, TD derivY, GrayU8 binary ) {
+		InputSanityCheck.checkSameShape(derivX, derivY, binary);
+		if (binary.width != imageWidth || binary.height != imageHeight)
+			throw new IllegalArgumentException("Image shape doesn't match the shape passed to initialize()");
 
 		_derivX.wrap(derivX);
 		_derivY.wrap(derivY);
 		transform(binary);
+	}
 
+	/**
+	 * Finds lines using all the votes cast since {@link #initialize} was called.
+	 */
+	public void extract() {
 		extractLines();
 		if (maxLines <= 0) {
 			linesMerged.clear();
 			linesMerged.addAll(linesAll.toList());
 		} else {
-			mergeLines(binary.width, binary.height);
+			mergeLines(imageWidth, imageHeight);
 		}
 	}
 
@@ -233,8 +270,6 @@ public class HoughTransformGradient<D extends ImageGray<D>> {
 	}
 
 	void transform( GrayU8 binary ) {
-		candidates.configure(transform.width, transform.height);
-
 		// apply the transform to the entire image
 		for (int y = 0; y < binary.height; y++) {
 			int start = binary.startIndex + y*binary.stride;
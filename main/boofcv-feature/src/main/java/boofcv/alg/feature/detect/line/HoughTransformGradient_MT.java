@@ -20,24 +20,40 @@ package boofcv.alg.feature.detect.line;
 
 import boofcv.abst.feature.detect.extract.NonMaxSuppression;
 import boofcv.concurrency.BoofConcurrency;
-import boofcv.struct.ListIntPoint2D;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageGray;
-import georegression.struct.point.Point2D_I32;
+import georegression.struct.point.Point2D_F32;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F32;
+import org.ddogleg.struct.DogArray_I32;
 import pabeles.concurrency.GrowArray;
 
 /**
- * Concurrent version of {@link HoughTransformGradient}
+ * <p>
+ * Concurrent version of {@link HoughTransformGradient}.
+ * </p>
+ *
+ * <p>
+ * Each edge pixel only votes for a few elements in the transform. Blocks of image rows are processed in parallel
+ * and votes are saved in sparse lists, one for each tile in the transform. A tile is a set of transform
+ * rows. Then each tile is processed in parallel by summing up the votes from every image block in the same order
+ * as the single threaded version. This avoids multiple threads writing to the same element and floating point
+ * sums are identical to the single threaded version. The only difference is the order of candidates.
+ * </p>
  *
  * @author Peter Abeles
  */
 public class HoughTransformGradient_MT<D extends ImageGray<D>>
 		extends HoughTransformGradient<D> {
 
-	// storage for candidates in each thread's block
-	private final GrowArray<ListIntPoint2D> blockCandidates = new GrowArray<>(ListIntPoint2D::new);
+	/** Number of transform rows in a tile */
+	public int tileRows = 16;
+
+	// storage for votes in each thread's block
+	private final GrowArray<BlockVotes> blockVotes = new GrowArray<>(BlockVotes::new);
 
-	Point2D_I32 p = new Point2D_I32();
+	// new candidates found in each tile. Encoded as the index of the element in the transform
+	private final DogArray<DogArray_I32> tileCandidates = new DogArray<>(DogArray_I32::new, DogArray_I32::reset);
 
 	/**
 	 * Specifies parameters of transform.
@@ -50,10 +66,11 @@ public class HoughTransformGradient_MT<D extends ImageGray<D>>
 
 	@Override
 	void transform( GrayU8 binary ) {
-		candidates.configure(transform.width, transform.height);
-		blockCandidates.reset();
-		BoofConcurrency.loopBlocks(0, binary.height, blockCandidates, ( storage, y0, y1 ) -> {
-			storage.configure(transform.width, transform.height);
+		final int numTiles = (transform.height + tileRows - 1)/tileRows;
+
+		// Compute votes for each block of rows in the image
+		BoofConcurrency.loopBlocks(0, binary.height, blockVotes, ( votes, y0, y1 ) -> {
+			votes.setNumberOfTiles(numTiles);
 			for (int y = y0; y < y1; y++) {
 				int start = binary.startIndex + y*binary.stride;
 				int end = start + binary.width;
@@ -61,18 +78,96 @@ public class HoughTransformGradient_MT<D extends ImageGray<D>>
 				for (int index = start; index < end; index++) {
 					if (binary.data[index] != 0) {
 						int x = index - start;
-						parameterize(storage, x, y, _derivX.unsafe_getF(x, y), _derivY.unsafe_getF(x, y));
+						parameterize(votes, x, y, _derivX.unsafe_getF(x, y), _derivY.unsafe_getF(x, y));
 					}
 				}
 			}
 		});
 
-		// Combine results found in each thread together
-		for (int i = 0; i < blockCandidates.size(); i++) {
-			ListIntPoint2D s = blockCandidates.get(i);
-			for (int j = 0; j < s.size(); j++) {
-				s.get(j, p);
-				candidates.add(p.x, p.y);
+		// Sum up the votes inside each tile
+		tileCandidates.resize(numTiles);
+		BoofConcurrency.loopFor(0, numTiles, tileIdx -> {
+			DogArray_I32 found = tileCandidates.get(tileIdx);
+			found.reset();
+			for (int blockIdx = 0; blockIdx < blockVotes.size(); blockIdx++) {
+				TileVotes tile = blockVotes.get(blockIdx).tiles.get(tileIdx);
+				for (int i = 0; i < tile.indexes.size; i++) {
+					int index = tile.indexes.data[i];
+					// keep track of candidate pixels so that a sparse search can be done
+					if (transform.data[index] == 0)
+						found.add(index);
+					transform.data[index] += tile.amounts.data[i];
+				}
+			}
+		});
+
+		// Combine candidates found in each tile together
+		for (int tileIdx = 0; tileIdx < numTiles; tileIdx++) {
+			DogArray_I32 found = tileCandidates.get(tileIdx);
+			for (int i = 0; i < found.size; i++) {
+				int offset = found.data[i] - transform.startIndex;
+				int y = offset/transform.stride;
+				candidates.add(offset - y*transform.stride, y);
+			}
+		}
+	}
+
+	/**
+	 * Same as {@link #parameterize(boofcv.struct.ListIntPoint2D, int, int, float, float)} but votes are saved
+	 * instead of being added to the transform
+	 */
+	private void parameterize( BlockVotes votes, int x, int y, float derivX, float derivY ) {
+		Point2D_F32 parameter = votes.parameter;
+		parameters.parameterize(x, y, derivX, derivY, parameter);
+
+		int x0 = (int)parameter.x;
+		int y0 = (int)parameter.y;
+
+		// weights for bilinear interpolate type weightings
+		float wx = parameter.x - x0;
+		float wy = parameter.y - y0;
+
+		// make a soft decision and spread counts across neighbors
+		addVote(votes, x0, y0, (1f - wx)*(1f - wy));
+		addVote(votes, x0 + 1, y0, wx*(1f - wy));
+		addVote(votes, x0, y0 + 1, (1f - wx)*wy);
+		addVote(votes, x0 + 1, y0 + 1, wx*wy);
+	}
+
+	private void addVote( BlockVotes votes, int x, int y, float amount ) {
+		if (!transform.isInBounds(x, y))
+			return;
+		TileVotes tile = votes.tiles.get(y/tileRows);
+		tile.indexes.add(transform.startIndex + y*transform.stride + x);
+		tile.amounts.add(amount);
+	}
+
+	/**
+	 * Votes cast inside a single tile
+	 */
+	private static class TileVotes {
+		// index of the transform element
+		final DogArray_I32 indexes = new DogArray_I32();
+		// amount added to the element
+		final DogArray_F32 amounts = new DogArray_F32();
+
+		void reset() {
+			indexes.reset();
+			amounts.reset();
+		}
+	}
+
+	/**
+	 * Votes cast by a block of image rows, split up by tile
+	 */
+	private static class BlockVotes {
+		final DogArray<TileVotes> tiles = new DogArray<>(TileVotes::new);
+		final Point2D_F32 parameter = new Point2D_F32();
+
+		void setNumberOfTiles( int numTiles ) {
+			tiles.resize(numTiles);
+			for (int i = 0; i < numTiles; i++) {
+				tiles.get(i).reset();
 			}
 		}
 	}
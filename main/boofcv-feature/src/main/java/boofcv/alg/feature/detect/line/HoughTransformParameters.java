@@ -39,5 +39,14 @@ public interface HoughTransformParameters {
 
 	void parameterize( int x, int y, GrayF32 transform );
 
+	/**
+	 * Same as {@link #parameterize(int, int, GrayF32)} but only rows inside the specified range are modified.
+	 * Used to split the transform into tiles which are processed independently.
+	 *
+	 * @param row0 First row in the transform, inclusive
+	 * @param row1 Last row in the transform, exclusive
+	 */
+	void parameterizeRows( int x, int y, int row0, int row1, GrayF32 transform );
+
 	void parameterize( int x, int y, float derivX, float derivY, Point2D_F32 parameter );
 }
@@ -44,6 +44,13 @@ public class ConfigAssociate implements Configuration {
 	 */
 	public ConfigLength maximumDistancePixels = ConfigLength.relative(1.0, 0.0);
 
+	/**
+	 * If true and 2D information is used, destination features are stored in a grid so that only nearby
+	 * features are scored. Produces the same results but is much faster when {@link #maximumDistancePixels}
+	 * is small relative to the image.
+	 */
+	public boolean gridSearch2D = false;
+
 	@Override
 	public void checkValidity() {
 		greedy.checkValidity();
@@ -56,6 +63,7 @@ public class ConfigAssociate implements Configuration {
 
 	public void setTo( ConfigAssociate src ) {
 		this.type = src.type;
+		this.gridSearch2D = src.gridSearch2D;
 		this.greedy.setTo(src.greedy);
 		this.nearestNeighbor.setTo(src.nearestNeighbor);
 	}
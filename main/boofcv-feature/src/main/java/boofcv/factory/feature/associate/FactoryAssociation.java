@@ -67,6 +67,8 @@ public class FactoryAssociation {
 		// only greedy is supported at this time
 		if (config.type == ConfigAssociate.AssociationType.GREEDY) {
 			ScoreAssociation<D> scorer = FactoryAssociation.defaultScore(info.getDescriptionType());
+			if (config.gridSearch2D)
+				return FactoryAssociation.greedyGrid2D(config.greedy, config.maximumDistancePixels, scorer);
 			return FactoryAssociation.greedy2D(config.greedy, config.maximumDistancePixels, scorer);
 		}
 		throw new IllegalArgumentException("Unknown association: " + config.type);
@@ -154,6 +156,40 @@ public class FactoryAssociation {
 		return new WrapAssociateGreedy2D<D>(alg);
 	}
 
+	/**
+	 * Returns an algorithm for associating features together which uses a greedy algorithm. Destination features
+	 * are stored in a grid so that only features which are close to each other are scored. Much faster than
+	 * {@link #greedy2D} when the maximum distance is small relative to the image.
+	 * See {@link AssociateGreedyGrid2D} for details.
+	 *
+	 * @param score Computes the fit score between two features.
+	 * @param config Configuration
+	 * @param maxDistance Specifies maximum distance allowed.
+	 * @param <D> Data structure being associated
+	 * @return AssociateDescription
+	 */
+	public static <D> AssociateDescription2D<D>
+	greedyGrid2D( @Nullable ConfigAssociateGreedy config, ConfigLength maxDistance, ScoreAssociation<D> score ) {
+		if (config == null)
+			config = new ConfigAssociateGreedy();
+
+		AssociateImageDistanceFunction distance = new AssociateImageDistanceEuclideanSq();
+
+		AssociateGreedyGrid2D<D> alg;
+		if (BoofConcurrency.USE_CONCURRENT) {
+			alg = new AssociateGreedyGrid2D_MT<>(score, distance);
+		} else {
+			alg = new AssociateGreedyGrid2D<>(score, distance);
+		}
+
+		alg.getMaxDistanceLength().setTo(maxDistance);
+		alg.setBackwardsValidation(config.forwardsBackwards);
+		alg.setMaxFitError(config.maxErrorThreshold);
+		alg.setRatioTest(config.scoreRatioThreshold);
+
+		return new WrapAssociateGreedy2D<D>(alg);
+	}
+
 	/**
 	 * Approximate association using a K-D tree degree of moderate size (10-15) that uses a best-bin-first search
 	 * order.
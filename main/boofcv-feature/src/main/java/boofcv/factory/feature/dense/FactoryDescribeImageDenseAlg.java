@@ -19,7 +19,10 @@
 package boofcv.factory.feature.dense;
 
 import boofcv.alg.feature.dense.DescribeDenseHogAlg;
+import boofcv.alg.feature.dense.DescribeDenseHogAlg_MT;
 import boofcv.alg.feature.dense.DescribeDenseHogFastAlg;
+import boofcv.alg.feature.dense.DescribeDenseHogFastAlg_MT;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
 
@@ -35,6 +38,12 @@ public class FactoryDescribeImageDenseAlg {
 	DescribeDenseHogAlg<T> hog( ConfigDenseHoG config, ImageType<T> imageType ) {
 		config.checkValidity();
 
+		if (BoofConcurrency.USE_CONCURRENT) {
+			return new DescribeDenseHogAlg_MT<>(config.orientationBins, config.pixelsPerCell,
+					config.cellsPerBlockX, config.cellsPerBlockY,
+					config.stepBlock, imageType);
+		}
+
 		return new DescribeDenseHogAlg<>(config.orientationBins, config.pixelsPerCell,
 				config.cellsPerBlockX, config.cellsPerBlockY,
 				config.stepBlock, imageType);
@@ -44,6 +53,11 @@ public class FactoryDescribeImageDenseAlg {
 	DescribeDenseHogFastAlg<T> hogFast( ConfigDenseHoG config, ImageType<T> imageType ) {
 		config.checkValidity();
 
+		if (BoofConcurrency.USE_CONCURRENT) {
+			return new DescribeDenseHogFastAlg_MT(config.orientationBins, config.pixelsPerCell
+					, config.cellsPerBlockX, config.cellsPerBlockY, config.stepBlock, imageType);
+		}
+
 		return new DescribeDenseHogFastAlg(config.orientationBins, config.pixelsPerCell
 				, config.cellsPerBlockX, config.cellsPerBlockY, config.stepBlock, imageType);
 	}
@@ -31,6 +31,7 @@ import boofcv.abst.feature.orientation.OrientationIntegral;
 import boofcv.alg.feature.describe.DescribePointSurf;
 import boofcv.alg.feature.describe.DescribePointSurfMod;
 import boofcv.alg.feature.describe.DescribePointSurfPlanar;
+import boofcv.alg.feature.detdesc.CompleteOrb;
 import boofcv.alg.feature.detdesc.CompleteSift;
 import boofcv.alg.feature.detdesc.DetectDescribeSurfPlanar;
 import boofcv.alg.feature.detdesc.DetectDescribeSurfPlanar_MT;
@@ -46,6 +47,7 @@ import boofcv.factory.feature.detect.interest.FactoryInterestPointAlgs;
 import boofcv.factory.feature.orientation.FactoryOrientation;
 import boofcv.factory.feature.orientation.FactoryOrientationAlgs;
 import boofcv.struct.feature.TupleDesc;
+import boofcv.struct.feature.TupleDesc_B;
 import boofcv.struct.feature.TupleDesc_F64;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.image.ImageMultiBand;
@@ -153,6 +155,20 @@ public class FactoryDetectDescribe {
 		return new DetectDescribe_CompleteSift<>(dds, imageType);
 	}
 
+	/**
+	 * Creates ORB, a fast binary feature which is detected in an image pyramid and has orientation.
+	 *
+	 * @param config Configuration for ORB. If null then default is used.
+	 * @param imageType Type of input image
+	 * @return ORB
+	 * @see CompleteOrb
+	 */
+	public static <T extends ImageGray<T>>
+	DetectDescribePoint<T, TupleDesc_B> orb( @Nullable ConfigCompleteOrb config, Class<T> imageType ) {
+		CompleteOrb<T> alg = FactoryDetectDescribeAlgs.orb(config, imageType);
+		return new DetectDescribe_CompleteOrb<>(alg, imageType);
+	}
+
 	/**
 	 * <p>
 	 * Creates a SURF descriptor.  SURF descriptors are invariant to illumination, orientation, and scale.
@@ -20,20 +20,36 @@ package boofcv.factory.feature.detdesc;
 
 import boofcv.abst.feature.describe.ConfigSiftDescribe;
 import boofcv.abst.feature.describe.ConfigSiftScaleSpace;
+import boofcv.abst.feature.detdesc.ConfigCompleteOrb;
 import boofcv.abst.feature.detdesc.ConfigCompleteSift;
+import boofcv.abst.filter.blur.BlurFilter;
 import boofcv.abst.feature.detect.interest.ConfigSiftDetector;
 import boofcv.abst.feature.orientation.ConfigSiftOrientation;
 import boofcv.alg.feature.describe.DescribePointSift;
+import boofcv.alg.feature.describe.brief.BinaryCompareDefinition_I32;
+import boofcv.alg.feature.describe.brief.FactoryBriefDefinition;
+import boofcv.alg.feature.detdesc.CompleteOrb;
+import boofcv.alg.feature.detdesc.CompleteOrb_MT;
 import boofcv.alg.feature.detdesc.CompleteSift;
 import boofcv.alg.feature.detdesc.CompleteSift_MT;
+import boofcv.alg.feature.detect.intensity.FastCornerDetector;
 import boofcv.alg.feature.detect.interest.SiftDetector;
 import boofcv.alg.feature.detect.interest.SiftScaleSpace;
 import boofcv.alg.feature.orientation.OrientationHistogramSift;
 import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.feature.detect.intensity.FactoryIntensityPointAlg;
 import boofcv.factory.feature.detect.interest.FactoryInterestPointAlgs;
+import boofcv.factory.filter.blur.FactoryBlurFilter;
+import boofcv.factory.transform.pyramid.FactoryPyramid;
+import boofcv.misc.BoofLambdas;
 import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.pyramid.PyramidDiscrete;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Random;
+
 /**
  * @author Peter Abeles
  */
@@ -72,4 +88,42 @@ public class FactoryDetectDescribeAlgs {
 			return new CompleteSift(ss, detector, orientation, describe);
 		}
 	}
+
+	/**
+	 * Creates ORB, binary features which are detected in a pyramid and have orientation.
+	 *
+	 * @param config Configuration. If null then default is used.
+	 * @param imageType Type of input image
+	 * @return ORB
+	 * @see CompleteOrb
+	 */
+	public static <T extends ImageGray<T>>
+	CompleteOrb<T> orb( @Nullable ConfigCompleteOrb config, Class<T> imageType ) {
+		if (config == null)
+			config = new ConfigCompleteOrb();
+		config.checkValidity();
+
+		final ConfigCompleteOrb _config = config;
+		ImageType<T> type = ImageType.single(imageType);
+
+		PyramidDiscrete<T> pyramid = FactoryPyramid.discreteGaussian(config.pyramid, -1, 2, true, type);
+		BinaryCompareDefinition_I32 definition =
+				FactoryBriefDefinition.gaussian2(new Random(123), config.radius, config.numBits);
+
+		BoofLambdas.Factory<FastCornerDetector<T>> factoryFast = () ->
+				FactoryIntensityPointAlg.fast(_config.fast.pixelTol, _config.fast.minContinuous, imageType);
+		BoofLambdas.Factory<BlurFilter<T>> factoryBlur = () ->
+				FactoryBlurFilter.gaussian(type, _config.blurSigma, _config.blurRadius);
+
+		CompleteOrb<T> alg;
+		if (BoofConcurrency.USE_CONCURRENT) {
+			alg = new CompleteOrb_MT<>(pyramid, definition, config.numAngles, factoryFast, factoryBlur);
+		} else {
+			alg = new CompleteOrb<>(pyramid, definition, config.numAngles, factoryFast, factoryBlur);
+		}
+		alg.maxFeatures = config.maxFeatures;
+		alg.harrisKappa = config.harrisKappa;
+		alg.harrisRadius = config.harrisRadius;
+		return alg;
+	}
 }
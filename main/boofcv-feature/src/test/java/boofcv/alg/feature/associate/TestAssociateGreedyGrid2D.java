@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociateEuclidean_F64;
+import boofcv.abst.feature.associate.ScoreAssociation;
+import boofcv.struct.ConfigLength;
+import boofcv.struct.feature.TupleDesc_F64;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.FastAccess;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+class TestAssociateGreedyGrid2D extends GenericAssociateGreedyChecks {
+
+	ScoreAssociation<TupleDesc_F64> score = new ScoreAssociateEuclidean_F64();
+
+	@Override
+	protected AssociateGreedyBase<TupleDesc_F64> createAlgorithm() {
+		var alg = new AssociateGreedyGrid2D<>(score, new AssociateImageDistanceEuclideanSq());
+		// it should now be equivalent
+		alg.maxDistanceLength.setTo(ConfigLength.fixed(Double.MAX_VALUE));
+		alg.init(100, 100);
+		return alg;
+	}
+
+	@Override
+	protected void associate( AssociateGreedyBase<TupleDesc_F64> _alg,
+							  FastAccess<TupleDesc_F64> src,
+							  FastAccess<TupleDesc_F64> dst ) {
+		var alg = (AssociateGreedyGrid2D<TupleDesc_F64>)_alg;
+
+		// Dummy Values
+		var locSrc = new DogArray<>(Point2D_F64::new);
+		var locDst = new DogArray<>(Point2D_F64::new);
+
+		for (int i = 0; i < src.size; i++) {locSrc.grow();}
+		for (int i = 0; i < dst.size; i++) {locDst.grow();}
+
+		alg.setSource(locSrc, src);
+		alg.setDestination(locDst, dst);
+		alg.associate();
+	}
+
+	/**
+	 * Results should be identical to brute force for a variety of settings
+	 */
+	@Test void compareToBruteForce() {
+		DogArray<TupleDesc_F64> descSrc = TestAssociateGreedyBruteForce2D_MT.createData(300);
+		DogArray<TupleDesc_F64> descDst = TestAssociateGreedyBruteForce2D_MT.createData(250);
+		DogArray<Point2D_F64> pointsSrc = TestAssociateGreedyBruteForce2D_MT.createPoints(300);
+		DogArray<Point2D_F64> pointsDst = TestAssociateGreedyBruteForce2D_MT.createPoints(250);
+		// Make sure there are some duplicate scores and locations to test how ties are handled
+		for (int i = 0; i < 20; i++) {
+			descDst.get(i + 100).setTo(descDst.get(i));
+			pointsDst.get(i + 100).setTo(pointsDst.get(i));
+		}
+
+		for (double fraction : new double[]{0.02, 0.1, 0.5, 1.0}) {
+			for (boolean backwards : new boolean[]{false, true}) {
+				for (double ratioTest : new double[]{1.0, 0.5}) {
+					var expected = new AssociateGreedyBruteForce2D<>(score, new AssociateImageDistanceEuclideanSq());
+					var found = new AssociateGreedyGrid2D<>(score, new AssociateImageDistanceEuclideanSq());
+
+					for (AssociateGreedyBase2D<TupleDesc_F64> alg : new AssociateGreedyBase2D[]{expected, found}) {
+						alg.maxDistanceLength.setTo(ConfigLength.relative(fraction, 0));
+						alg.init(TestAssociateGreedyBruteForce2D_MT.width, TestAssociateGreedyBruteForce2D_MT.height);
+						alg.backwardsValidation = backwards;
+						alg.setRatioTest(ratioTest);
+						alg.setMaxFitError(2.0);
+						alg.setSource(pointsSrc, descSrc);
+						alg.setDestination(pointsDst, descDst);
+						alg.associate();
+					}
+
+					assertEquals(expected.getPairs().size, found.getPairs().size);
+					for (int i = 0; i < expected.getPairs().size; i++) {
+						assertEquals(expected.getPairs().get(i), found.getPairs().get(i));
+						assertEquals(expected.getFitQuality().get(i), found.getFitQuality().get(i));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A score which is exactly maxFitError should be handled the same as in brute force. Pairs which are too far
+	 * apart are considered to have a score of maxFitError in backwards validation.
+	 */
+	@Test void fitErrorEqualToMax() {
+		var descSrc = createData(1, 5);
+		var descDst = createData(3);
+
+		var locSrc = new DogArray<>(Point2D_F64::new);
+		var locDst = new DogArray<>(Point2D_F64::new);
+		locSrc.grow().setTo(10, 10);
+		locSrc.grow().setTo(90, 90);
+		locDst.grow().setTo(11, 10);
+
+		for (boolean backwards : new boolean[]{false, true}) {
+			var expected = new AssociateGreedyBruteForce2D<>(score, new AssociateImageDistanceEuclideanSq());
+			var found = new AssociateGreedyGrid2D<>(score, new AssociateImageDistanceEuclideanSq());
+
+			for (AssociateGreedyBase2D<TupleDesc_F64> alg : new AssociateGreedyBase2D[]{expected, found}) {
+				alg.maxDistanceLength.setTo(ConfigLength.fixed(5));
+				alg.init(100, 100);
+				alg.backwardsValidation = backwards;
+				alg.setMaxFitError(score.score(descSrc.get(0), descDst.get(0)));
+				alg.setSource(locSrc, descSrc);
+				alg.setDestination(locDst, descDst);
+				alg.associate();
+			}
+
+			assertEquals(backwards ? -1 : 0, expected.getPairs().get(0));
+			for (int i = 0; i < descSrc.size; i++) {
+				assertEquals(expected.getPairs().get(i), found.getPairs().get(i));
+				assertEquals(expected.getFitQuality().get(i), found.getFitQuality().get(i));
+			}
+		}
+	}
+
+	@Test void isMaxDistanceRespected() {
+		var descSrc = createData(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+		var descDst = createData(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+
+		var locSrc = new DogArray<>(Point2D_F64::new);
+		var locDst = new DogArray<>(Point2D_F64::new);
+
+		locSrc.resize(descSrc.size);
+		locDst.resize(descDst.size);
+
+		double d = 10.0;
+		for (int i = 0; i < 4; i++) {
+			locDst.get(i).setTo(d, 0);
+		}
+
+		var alg = new AssociateGreedyGrid2D<>(score, new AssociateImageDistanceEuclideanSq());
+		alg.setMaxFitError(0.1); // limit what it can be matched to to make testing easier
+		alg.setSource(locSrc, descSrc);
+		alg.setDestination(locDst, descDst);
+
+		// very clear separation
+		alg.maxDistanceLength.setTo(ConfigLength.fixed(d/2));
+		alg.init(100, 100);
+		alg.associate();
+		assertEquals(6, countMatches(alg));
+
+		// everything should be matched
+		alg.maxDistanceLength.setTo(ConfigLength.fixed(d*2));
+		alg.init(100, 100);
+		alg.associate();
+		assertEquals(10, countMatches(alg));
+
+		// test that threshold is inclusive
+		alg.maxDistanceLength.setTo(ConfigLength.fixed(d));
+		alg.init(100, 100);
+		alg.associate();
+		assertEquals(10, countMatches(alg));
+	}
+
+	/**
+	 * Only features inside the epipolar band should be considered
+	 */
+	@Test void epipolarBand() {
+		var descSrc = createData(1, 2, 3);
+		var descDst = createData(1, 2, 3, 3);
+
+		var locSrc = new DogArray<>(Point2D_F64::new);
+		var locDst = new DogArray<>(Point2D_F64::new);
+		locSrc.grow().setTo(50, 20);
+		locSrc.grow().setTo(50, 40);
+		locSrc.grow().setTo(50, 60);
+		// inside the band
+		locDst.grow().setTo(40, 20.5);
+		// off the epipolar line
+		locDst.grow().setTo(40, 45);
+		// negative disparity
+		locDst.grow().setTo(55, 60);
+		// too large of a disparity
+		locDst.grow().setTo(10, 60);
+
+		var alg = new AssociateGreedyGrid2D<>(score, new AssociateImageDistanceEuclideanSq());
+		alg.setMaxFitError(0.1);
+		alg.setEpipolarBand(0, 30, 1.0);
+		alg.init(100, 100);
+		alg.setSource(locSrc, descSrc);
+		alg.setDestination(locDst, descDst);
+		alg.associate();
+
+		assertEquals(0, alg.getPairs().get(0));
+		assertEquals(-1, alg.getPairs().get(1));
+		assertEquals(-1, alg.getPairs().get(2));
+
+		// Increase the disparity range so that it can be matched
+		alg.setEpipolarBand(0, 40, 1.0);
+		alg.init(100, 100);
+		alg.associate();
+		assertEquals(3, alg.getPairs().get(2));
+	}
+
+	private int countMatches( AssociateGreedyBase<?> alg ) {
+		int total = 0;
+		for (int i = 0; i < alg.getPairs().size; i++) {
+			if (alg.getPairs().data[i] >= 0)
+				total++;
+		}
+		return total;
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociateEuclidean_F64;
+import boofcv.struct.ConfigLength;
+import boofcv.struct.feature.TupleDesc_F64;
+import boofcv.testing.BoofStandardJUnit;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+class TestAssociateGreedyGrid2D_MT extends BoofStandardJUnit {
+	@Test void compare() {
+		compare(false, 1.0);
+		compare(true, 1.0);
+		compare(false, 0.1);
+		compare(true, 0.1);
+	}
+
+	void compare( boolean backwards, double ratioTest ) {
+		DogArray<TupleDesc_F64> descSrc = TestAssociateGreedyBruteForce2D_MT.createData(200);
+		DogArray<TupleDesc_F64> descDst = TestAssociateGreedyBruteForce2D_MT.createData(200);
+		DogArray<Point2D_F64> pointsSrc = TestAssociateGreedyBruteForce2D_MT.createPoints(200);
+		DogArray<Point2D_F64> pointsDst = TestAssociateGreedyBruteForce2D_MT.createPoints(200);
+
+		var sequentialAlg = new AssociateGreedyGrid2D<>(new ScoreAssociateEuclidean_F64(), new AssociateImageDistanceEuclideanSq());
+		var parallelAlg = new AssociateGreedyGrid2D_MT<>(new ScoreAssociateEuclidean_F64(), new AssociateImageDistanceEuclideanSq());
+
+		for (AssociateGreedyGrid2D<TupleDesc_F64> alg : new AssociateGreedyGrid2D[]{sequentialAlg, parallelAlg}) {
+			alg.maxDistanceLength.setTo(ConfigLength.relative(0.25, 6));
+			alg.init(TestAssociateGreedyBruteForce2D_MT.width, TestAssociateGreedyBruteForce2D_MT.height);
+			alg.backwardsValidation = backwards;
+			alg.setRatioTest(ratioTest);
+			alg.setMaxFitError(0.5);
+			alg.setSource(pointsSrc, descSrc);
+			alg.setDestination(pointsDst, descDst);
+			alg.associate();
+		}
+
+		int[] pairs0 = sequentialAlg.getPairs().data;
+		int[] pairs1 = parallelAlg.getPairs().data;
+		double[] quality0 = sequentialAlg.getFitQuality().data;
+		double[] quality1 = parallelAlg.getFitQuality().data;
+
+		assertEquals(sequentialAlg.getPairs().size, parallelAlg.getPairs().size);
+
+		for (int i = 0; i < sequentialAlg.getPairs().size; i++) {
+			assertEquals(pairs0[i], pairs1[i]);
+			assertEquals(quality0[i], quality1[i]);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.dense;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.struct.feature.TupleDesc_F64;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.ImageType;
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+class TestDescribeDenseHogAlg_MT extends BoofStandardJUnit {
+	@Test void compareToSingle() {
+		var input = new GrayF32(150, 120);
+		GImageMiscOps.fillUniform(input, rand, 0, 200);
+
+		ImageType<GrayF32> imageType = ImageType.single(GrayF32.class);
+		var single = new DescribeDenseHogAlg<>(9, 8, 3, 2, 2, imageType);
+		var multi = new DescribeDenseHogAlg_MT<>(9, 8, 3, 2, 2, imageType);
+
+		single.setInput(input);
+		multi.setInput(input);
+
+		single.process();
+		multi.process();
+
+		assertEquals(single.getDescriptions().size, multi.getDescriptions().size);
+		assertEquals(single.getLocations().size, multi.getLocations().size);
+		for (int i = 0; i < single.getDescriptions().size; i++) {
+			TupleDesc_F64 expected = single.getDescriptions().get(i);
+			TupleDesc_F64 found = multi.getDescriptions().get(i);
+			assertArrayEquals(expected.data, found.data);
+			assertEquals(single.getLocations().get(i).x, multi.getLocations().get(i).x);
+			assertEquals(single.getLocations().get(i).y, multi.getLocations().get(i).y);
+		}
+	}
+}
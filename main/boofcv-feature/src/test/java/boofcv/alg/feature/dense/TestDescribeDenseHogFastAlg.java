@@ -188,6 +188,45 @@ public class TestDescribeDenseHogFastAlg extends BoofStandardJUnit {
 		}
 	}
 
+	/**
+	 * Larger cells should be the sum of smaller cells and locations should be in input pixels
+	 */
+	@Test
+	public void processScale() {
+		DescribeDenseHogFastAlg<GrayF32> helper = new DescribeDenseHogFastAlg<>(10,8,3,3,1,imageType);
+
+		helper.setInput(new GrayF32(imgWidth,imgHeight));
+		ImageMiscOps.fill(helper._getDerivX(), 0.5f);
+		ImageMiscOps.fill(helper._getDerivY(), 0.2f);
+		helper.process();
+		TupleDesc_F64 expected = helper.getDescriptions().get(0).copy();
+
+		helper.processScale(2);
+		assertEquals(3,helper.getDescriptions().size);
+		assertEquals(3,helper.getLocations().size);
+		for (int i = 0; i < 3; i++) {
+			Point2D_I32 p = helper.getLocations().get(i);
+			assertEquals(0,p.x);
+			assertEquals(i*16,p.y);
+			// gradient is constant so the normalized descriptor doesn't change with scale
+			TupleDesc_F64 found = helper.getDescriptions().get(i);
+			for (int j = 0; j < expected.size(); j++) {
+				assertEquals(expected.data[j],found.data[j],1e-6);
+			}
+		}
+
+		for (int i = 0; i < 5*3; i++) {
+			float[] histogram = helper.scaledCells[i].histogram;
+			for (int j = 0; j < histogram.length; j++) {
+				assertEquals(4*helper.cells[0].histogram[j],histogram[j],1e-3f);
+			}
+		}
+
+		// scale of 1 should be the same as process
+		helper.processScale(1);
+		assertEquals(5*8,helper.getDescriptions().size);
+	}
+
 	@Test
 	public void getRegionWidthPixel() {
 		DescribeDenseHogFastAlg helper = new DescribeDenseHogFastAlg(10,8,3,2,1,imageType);
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.dense;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.struct.feature.TupleDesc_F64;
+import boofcv.struct.image.GrayF32;
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+class TestDescribeDenseSiftAlg_MT extends BoofStandardJUnit {
+	@Test void compareToSingle() {
+		var derivX = new GrayF32(120, 102);
+		var derivY = new GrayF32(120, 102);
+
+		GImageMiscOps.fillUniform(derivX, rand, -100, 100);
+		GImageMiscOps.fillUniform(derivY, rand, -100, 100);
+
+		var single = new DescribeDenseSiftAlg<>(4, 4, 8, 0.5, 0.2, 5, 7, GrayF32.class);
+		var multi = new DescribeDenseSiftAlg_MT<>(4, 4, 8, 0.5, 0.2, 5, 7, GrayF32.class);
+
+		single.setImageGradient(derivX, derivY);
+		multi.setImageGradient(derivX, derivY);
+		assertArrayEquals(single.savedAngle.data, multi.savedAngle.data);
+		assertArrayEquals(single.savedMagnitude.data, multi.savedMagnitude.data);
+
+		single.process();
+		multi.process();
+
+		assertEquals(single.getDescriptors().size, multi.getDescriptors().size);
+		for (int i = 0; i < single.getDescriptors().size; i++) {
+			TupleDesc_F64 expected = single.getDescriptors().get(i);
+			TupleDesc_F64 found = multi.getDescriptors().get(i);
+			assertArrayEquals(expected.data, found.data);
+			assertEquals(single.getLocations().get(i).x, multi.getLocations().get(i).x);
+			assertEquals(single.getLocations().get(i).y, multi.getLocations().get(i).y);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detdesc;
+
+import boofcv.abst.feature.detdesc.ConfigCompleteOrb;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.FactoryGImageGray;
+import boofcv.factory.feature.detdesc.FactoryDetectDescribeAlgs;
+import boofcv.struct.image.GrayU8;
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+class TestCompleteOrb extends BoofStandardJUnit {
+	/**
+	 * Makes sure it finds features and the expected number of features in each level
+	 */
+	@Test void basic() {
+		var image = new GrayU8(320, 240);
+		GImageMiscOps.fillUniform(image, rand, 0, 200);
+
+		var config = new ConfigCompleteOrb();
+		config.maxFeatures = 200;
+		BoofConcurrency.USE_CONCURRENT = false;
+		CompleteOrb<GrayU8> alg = FactoryDetectDescribeAlgs.orb(config, GrayU8.class);
+		alg.process(image);
+
+		int N = alg.getLocations().size;
+		assertTrue(N > 100 && N <= 202); // rounding in the level limits can add a few extra
+		assertEquals(N, alg.getOrientations().size);
+		assertEquals(N, alg.getDescriptions().size());
+		assertEquals(256, alg.getDescriptorLength());
+
+		// Features in higher levels should be fewer and have a larger radius
+		int countLevel0 = 0;
+		for (int i = 0; i < N; i++) {
+			double scale = alg.getLocations().get(i).scale;
+			if (scale == 1.0)
+				countLevel0++;
+			assertEquals(15*scale, alg.getRadius(i));
+		}
+		assertTrue(countLevel0 > N/4 && countLevel0 < N);
+	}
+
+	/**
+	 * The intensity centroid should point towards the brighter side of the region
+	 */
+	@Test void computeOrientation() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		CompleteOrb<GrayU8> alg = FactoryDetectDescribeAlgs.orb(null, GrayU8.class);
+
+		var image = new GrayU8(60, 50);
+		var wrapped = FactoryGImageGray.wrap(image);
+
+		// Brighter along +x
+		for (int y = 0; y < image.height; y++) {
+			for (int x = 0; x < image.width; x++) {
+				image.set(x, y, 2*x);
+			}
+		}
+		assertEquals(0.0, alg.computeOrientation(wrapped, image, 30, 25), 1e-4);
+
+		// Brighter along -y
+		for (int y = 0; y < image.height; y++) {
+			for (int x = 0; x < image.width; x++) {
+				image.set(x, y, 200 - 2*y);
+			}
+		}
+		assertEquals(-Math.PI/2, alg.computeOrientation(wrapped, image, 30, 25), 1e-4);
+	}
+}
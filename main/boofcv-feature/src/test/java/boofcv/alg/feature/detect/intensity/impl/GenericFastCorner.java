@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2020, Peter Abeles. All Rights Reserved.
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
  *
  * This file is part of BoofCV (http://boofcv.org).
  *
@@ -21,10 +21,13 @@ package boofcv.alg.feature.detect.intensity.impl;
 import boofcv.alg.feature.detect.intensity.DetectorFastNaive;
 import boofcv.alg.feature.detect.intensity.FastCornerDetector;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.core.image.GConvertImage;
+import boofcv.core.image.GeneralizedImageOps;
 import boofcv.misc.DiscretizedCircle;
 import boofcv.struct.ListIntPoint2D;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
 import boofcv.testing.BoofStandardJUnit;
 import georegression.struct.point.Point2D_I16;
 import georegression.struct.point.Point2D_I32;
@@ -34,16 +37,18 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
+ * Test images are created as {@link GrayU8} then converted into the detector's image type.
+ *
  * @author Peter Abeles
  */
-public abstract class GenericFastCorner extends BoofStandardJUnit {
+public abstract class GenericFastCorner<T extends ImageGray<T>> extends BoofStandardJUnit {
 
 	int minContinuous;
 	int detectDifference ;
 
-	FastCornerDetector<GrayU8> alg;
+	FastCornerDetector<T> alg;
 
-	protected GenericFastCorner(FastCornerDetector<GrayU8> alg, int minContinuous, int detectDifference ) {
+	protected GenericFastCorner(FastCornerDetector<T> alg, int minContinuous, int detectDifference ) {
 		this.alg = alg;
 		this.minContinuous = minContinuous;
 		this.detectDifference = detectDifference;
@@ -76,7 +81,7 @@ public abstract class GenericFastCorner extends BoofStandardJUnit {
 			input.data[center] = 100;
 
 //			input.print();
-			alg.process(input,intensity);
+			alg.process(convert(input),intensity);
 
 			ListIntPoint2D corners = high?alg.getCandidatesHigh():alg.getCandidatesLow();
 			assertEquals(1,corners.size());
@@ -97,7 +102,7 @@ public abstract class GenericFastCorner extends BoofStandardJUnit {
 		DetectorFastNaive validator = new DetectorFastNaive(3,minContinuous,detectDifference);
 		validator.process(input);
 
-		alg.process(input,intensity);
+		alg.process(convert(input),intensity);
 
 		assertEquals(validator.getCandidatesLow().size,alg.getCandidatesLow().size());
 		assertEquals(validator.getCandidatesHigh().size,alg.getCandidatesHigh().size());
@@ -127,11 +132,17 @@ public abstract class GenericFastCorner extends BoofStandardJUnit {
 		createCircle(4,5,offsets,minContinuous,detectDifference+1,input);
 		createCircle(12,20,offsets,minContinuous,detectDifference+10,input);
 
-		alg.process(input,intensity);
+		alg.process(convert(input),intensity);
 
 		assertTrue(intensity.get(4,5) < intensity.get(12,20));
 	}
 
+	private T convert( GrayU8 input ) {
+		T output = GeneralizedImageOps.createSingleBand(alg.getImageType(), input.width, input.height);
+		GConvertImage.convert(input, output);
+		return output;
+	}
+
 	private void createCircle( int x , int y , int offsets[] , int n , int b ,
 							   GrayU8 image ) {
 
@@ -19,11 +19,12 @@
 package boofcv.alg.feature.detect.intensity.impl;
 
 import boofcv.alg.feature.detect.intensity.FastCornerDetector;
+import boofcv.struct.image.GrayU8;
 
 /**
  * @author Peter Abeles
  */
-public class TestImplFastCorner10 extends GenericFastCorner {
+public class TestImplFastCorner10 extends GenericFastCorner<GrayU8> {
 	public TestImplFastCorner10() {
 		super(new FastCornerDetector<>(new ImplFastCorner10_U8(20)), 10, 20);
 	}
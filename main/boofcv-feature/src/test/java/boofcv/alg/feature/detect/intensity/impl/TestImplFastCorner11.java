@@ -19,11 +19,12 @@
 package boofcv.alg.feature.detect.intensity.impl;
 
 import boofcv.alg.feature.detect.intensity.FastCornerDetector;
+import boofcv.struct.image.GrayU8;
 
 /**
  * @author Peter Abeles
  */
-public class TestImplFastCorner11 extends GenericFastCorner {
+public class TestImplFastCorner11 extends GenericFastCorner<GrayU8> {
 	public TestImplFastCorner11() {
 		super(new FastCornerDetector<>(new ImplFastCorner11_U8(20)), 11, 20);
 	}
@@ -19,11 +19,12 @@
 package boofcv.alg.feature.detect.intensity.impl;
 
 import boofcv.alg.feature.detect.intensity.FastCornerDetector;
+import boofcv.struct.image.GrayU8;
 
 /**
  * @author Peter Abeles
  */
-public class TestImplFastCorner12 extends GenericFastCorner {
+public class TestImplFastCorner12 extends GenericFastCorner<GrayU8> {
 	public TestImplFastCorner12() {
 		super(new FastCornerDetector<>(new ImplFastCorner12_U8(20)), 12, 20);
 	}
@@ -19,11 +19,12 @@
 package boofcv.alg.feature.detect.intensity.impl;
 
 import boofcv.alg.feature.detect.intensity.FastCornerDetector;
+import boofcv.struct.image.GrayU8;
 
 /**
  * @author Peter Abeles
  */
-public class TestImplFastCorner9 extends GenericFastCorner {
+public class TestImplFastCorner9 extends GenericFastCorner<GrayU8> {
 	public TestImplFastCorner9() {
 		super(new FastCornerDetector<>(new ImplFastCorner9_U8(20)), 9, 20);
 	}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.intensity.impl;
+
+import boofcv.alg.feature.detect.intensity.FastCornerDetector;
+import boofcv.struct.image.GrayF32;
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Nested;
+
+/**
+ * @author Peter Abeles
+ */
+class TestImplFastCornerBits_F32 extends BoofStandardJUnit {
+	@Nested class Fast9 extends GenericFastCorner<GrayF32> {
+		Fast9() {super(new FastCornerDetector<>(new ImplFastCornerBits_F32(20, 9)), 9, 20);}
+	}
+
+	@Nested class Fast10 extends GenericFastCorner<GrayF32> {
+		Fast10() {super(new FastCornerDetector<>(new ImplFastCornerBits_F32(20, 10)), 10, 20);}
+	}
+
+	@Nested class Fast11 extends GenericFastCorner<GrayF32> {
+		Fast11() {super(new FastCornerDetector<>(new ImplFastCornerBits_F32(20, 11)), 11, 20);}
+	}
+
+	@Nested class Fast12 extends GenericFastCorner<GrayF32> {
+		Fast12() {super(new FastCornerDetector<>(new ImplFastCornerBits_F32(20, 12)), 12, 20);}
+	}
+
+	@Nested class Helper extends GenericImplFastCornerInterfaceTests<GrayF32> {
+		Helper() {super(GrayF32.class, new ImplFastCornerBits_F32(10, 9), 10);}
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.intensity.impl;
+
+import boofcv.alg.feature.detect.intensity.FastCornerDetector;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.factory.feature.detect.intensity.FactoryIntensityPointAlg;
+import boofcv.struct.ListIntPoint2D;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.testing.BoofStandardJUnit;
+import georegression.struct.point.Point2D_I32;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+class TestImplFastCornerBits_U8 extends BoofStandardJUnit {
+
+	@Test void hasArc() {
+		for (int length = 9; length <= 12; length++) {
+			for (int start = 0; start < 16; start++) {
+				// Exactly the minimum length, which might wrap around
+				int bits = 0;
+				for (int i = 0; i < length; i++) {
+					bits |= 1 << ((start + i)%16);
+				}
+				assertTrue(ImplFastCornerBits_U8.hasArc(bits, length));
+
+				// Remove one bit from the middle so it's too short
+				bits &= ~(1 << ((start + length/2)%16));
+				assertFalse(ImplFastCornerBits_U8.hasArc(bits, length));
+			}
+		}
+		assertFalse(ImplFastCornerBits_U8.hasArc(0, 9));
+		assertTrue(ImplFastCornerBits_U8.hasArc(0xFFFF, 12));
+	}
+
+	/**
+	 * Compare against the decision tree implementation on random images with different amounts of texture
+	 */
+	@Test void compareToDecisionTree_U8() {
+		var input = new GrayU8(60, 70);
+		for (int minCont = 9; minCont <= 12; minCont++) {
+			for (int maxValue : new int[]{30, 100, 255}) {
+				GImageMiscOps.fillUniform(input, rand, 0, maxValue);
+				FastCornerDetector<GrayU8> expected = FactoryIntensityPointAlg.fast(15, minCont, GrayU8.class);
+				FastCornerDetector<GrayU8> found = FactoryIntensityPointAlg.fastBits(15, minCont, GrayU8.class);
+				var intensityExpected = new GrayF32(input.width, input.height);
+				var intensityFound = new GrayF32(input.width, input.height);
+				expected.process(input, intensityExpected);
+				found.process(input, intensityFound);
+
+				// Low texture images might not have any corners
+				if (maxValue == 255) {
+					assertTrue(expected.getCandidatesLow().size() > 0);
+					assertTrue(expected.getCandidatesHigh().size() > 0);
+				}
+				assertIdentical(expected.getCandidatesLow(), found.getCandidatesLow());
+				assertIdentical(expected.getCandidatesHigh(), found.getCandidatesHigh());
+				assertArrayEquals(intensityExpected.data, intensityFound.data);
+			}
+		}
+	}
+
+	@Test void compareToDecisionTree_F32() {
+		var input = new GrayF32(60, 70);
+		for (int minCont = 9; minCont <= 12; minCont++) {
+			GImageMiscOps.fillUniform(input, rand, 0, 100);
+			FastCornerDetector<GrayF32> expected = FactoryIntensityPointAlg.fast(15, minCont, GrayF32.class);
+			FastCornerDetector<GrayF32> found = FactoryIntensityPointAlg.fastBits(15, minCont, GrayF32.class);
+			expected.process(input);
+			found.process(input);
+
+			assertTrue(expected.getCandidatesLow().size() > 0);
+			assertTrue(expected.getCandidatesHigh().size() > 0);
+			assertIdentical(expected.getCandidatesLow(), found.getCandidatesLow());
+			assertIdentical(expected.getCandidatesHigh(), found.getCandidatesHigh());
+		}
+	}
+
+	private void assertIdentical( ListIntPoint2D expected, ListIntPoint2D found ) {
+		assertEquals(expected.size(), found.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Point2D_I32 a = expected.get(i);
+			Point2D_I32 b = found.get(i);
+			assertEquals(a.x, b.x);
+			assertEquals(a.y, b.y);
+		}
+	}
+
+	@Nested class Fast9 extends GenericFastCorner<GrayU8> {
+		Fast9() {super(new FastCornerDetector<>(new ImplFastCornerBits_U8(20, 9)), 9, 20);}
+	}
+
+	@Nested class Fast10 extends GenericFastCorner<GrayU8> {
+		Fast10() {super(new FastCornerDetector<>(new ImplFastCornerBits_U8(20, 10)), 10, 20);}
+	}
+
+	@Nested class Fast11 extends GenericFastCorner<GrayU8> {
+		Fast11() {super(new FastCornerDetector<>(new ImplFastCornerBits_U8(20, 11)), 11, 20);}
+	}
+
+	@Nested class Fast12 extends GenericFastCorner<GrayU8> {
+		Fast12() {super(new FastCornerDetector<>(new ImplFastCornerBits_U8(20, 12)), 12, 20);}
+	}
+
+	@Nested class Helper extends GenericImplFastCornerInterfaceTests<GrayU8> {
+		Helper() {super(GrayU8.class, new ImplFastCornerBits_U8(10, 9), 10);}
+	}
+}
@@ -18,6 +18,9 @@
 
 package boofcv.alg.feature.detect.line;
 
+import boofcv.BoofTesting;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.GrayU8;
 import boofcv.testing.BoofStandardJUnit;
 import georegression.struct.line.LineParametric2D_F32;
@@ -63,4 +66,37 @@ public abstract class CommonHoughBinaryChecks extends BoofStandardJUnit {
 			assertEquals(1,Math.abs(l.slope.y),0.1);
 		}
 	}
+
+	/**
+	 * Voting with two images should produce the same transform as voting once with their union
+	 */
+	@Test
+	public void incrementalVoting() {
+		GrayU8 imageA = new GrayU8(width,height);
+		GrayU8 imageB = new GrayU8(width,height);
+		ImageMiscOps.fillUniform(imageA, rand, 0, 2);
+		ImageMiscOps.fillUniform(imageB, rand, 0, 2);
+
+		// pixels in both images would be counted twice
+		GrayU8 union = imageA.clone();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (imageA.get(x, y) != 0)
+					imageB.set(x, y, 0);
+				else if (imageB.get(x, y) != 0)
+					union.set(x, y, 1);
+			}
+		}
+
+		HoughTransformBinary alg = createAlgorithm();
+		alg.transform(union);
+		GrayF32 expected = alg.getTransform().clone();
+
+		alg.initialize(width, height);
+		alg.vote(imageA);
+		alg.vote(imageB);
+		alg.extract();
+
+		BoofTesting.assertEquals(expected, alg.getTransform(), 1e-4);
+	}
 }
@@ -18,6 +18,9 @@
 
 package boofcv.alg.feature.detect.line;
 
+import boofcv.BoofTesting;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.alg.misc.ImageMiscOps;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.struct.image.*;
 import boofcv.testing.BoofStandardJUnit;
@@ -71,4 +74,48 @@ public abstract class CommonHoughGradientChecks extends BoofStandardJUnit {
 		assertEquals(0,Math.abs(l.slope.x), 0.1);
 		assertEquals(1,Math.abs(l.slope.y), 0.1);
 	}
+
+	/**
+	 * Voting with two images should produce the same transform as voting once with their union
+	 */
+	@Test
+	void incrementalVoting() {
+		for( Class imageType : imageTypes ) {
+			incrementalVoting(imageType);
+		}
+	}
+
+	private <D extends ImageGray<D>> void incrementalVoting( Class<D> derivType ) {
+		D derivX = GeneralizedImageOps.createSingleBand(derivType, width, height);
+		D derivY = GeneralizedImageOps.createSingleBand(derivType, width, height);
+		GImageMiscOps.fillUniform(derivX, rand, 1, 20);
+		GImageMiscOps.fillUniform(derivY, rand, 1, 20);
+
+		GrayU8 binaryA = new GrayU8(width,height);
+		GrayU8 binaryB = new GrayU8(width,height);
+		ImageMiscOps.fillUniform(binaryA, rand, 0, 2);
+		ImageMiscOps.fillUniform(binaryB, rand, 0, 2);
+
+		// pixels in both images would be counted twice
+		GrayU8 union = binaryA.clone();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (binaryA.get(x, y) != 0)
+					binaryB.set(x, y, 0);
+				else if (binaryB.get(x, y) != 0)
+					union.set(x, y, 1);
+			}
+		}
+
+		HoughTransformGradient alg = createAlgorithm(derivType);
+		alg.transform(derivX, derivY, union);
+		GrayF32 expected = alg.getTransform().clone();
+
+		alg.initialize(width, height);
+		alg.vote(derivX, derivY, binaryA);
+		alg.vote(derivX, derivY, binaryB);
+		alg.extract();
+
+		BoofTesting.assertEquals(expected, alg.getTransform(), 1e-3);
+	}
 }
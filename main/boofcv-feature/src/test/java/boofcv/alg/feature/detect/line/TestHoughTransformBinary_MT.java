@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.line;
+
+import boofcv.BoofTesting;
+import boofcv.abst.feature.detect.extract.ConfigExtract;
+import boofcv.abst.feature.detect.extract.NonMaxSuppression;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.factory.feature.detect.extract.FactoryFeatureExtractor;
+import boofcv.struct.image.GrayU8;
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+class TestHoughTransformBinary_MT extends BoofStandardJUnit {
+	@Test
+	void compareToSingle() {
+		GrayU8 binary = new GrayU8(120, 90);
+		ImageMiscOps.fillUniform(binary, rand, 0, 2);
+
+		var single = new HoughTransformBinary(createExtractor(), new HoughParametersPolar(0.5, 180));
+		var multi = new HoughTransformBinary_MT(createExtractor(), new HoughParametersPolar(0.5, 180));
+
+		single.transform(binary);
+		multi.transform(binary);
+
+		BoofTesting.assertEquals(single.getTransform(), multi.getTransform(), 0.0);
+		assertEquals(single.getLinesAll().size, multi.getLinesAll().size);
+	}
+
+	private NonMaxSuppression createExtractor() {
+		return FactoryFeatureExtractor.nonmax(new ConfigExtract(4, -1, 0, false));
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.line;
+
+import boofcv.BoofTesting;
+import boofcv.abst.feature.detect.extract.ConfigExtract;
+import boofcv.abst.feature.detect.extract.NonMaxSuppression;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.factory.feature.detect.extract.FactoryFeatureExtractor;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+class TestHoughTransformGradient_MT extends BoofStandardJUnit {
+	int width = 120;
+	int height = 90;
+
+	@Test
+	void compareToSingle_Polar() {
+		compareToSingle(new HoughParametersPolar(0.5, 180), new HoughParametersPolar(0.5, 180));
+	}
+
+	@Test
+	void compareToSingle_FootOfNorm() {
+		compareToSingle(new HoughParametersFootOfNorm(5), new HoughParametersFootOfNorm(5));
+	}
+
+	void compareToSingle( HoughTransformParameters paramSingle, HoughTransformParameters paramMulti ) {
+		GrayF32 derivX = new GrayF32(width, height);
+		GrayF32 derivY = new GrayF32(width, height);
+		GrayU8 binary = new GrayU8(width, height);
+		ImageMiscOps.fillUniform(derivX, rand, 1, 20);
+		ImageMiscOps.fillUniform(derivY, rand, 1, 20);
+		ImageMiscOps.fillUniform(binary, rand, 0, 2);
+
+		var single = new HoughTransformGradient<>(createExtractor(), paramSingle, GrayF32.class);
+		var multi = new HoughTransformGradient_MT<>(createExtractor(), paramMulti, GrayF32.class);
+		// make sure several tiles are processed
+		multi.tileRows = 7;
+
+		single.transform(derivX, derivY, binary);
+		multi.transform(derivX, derivY, binary);
+
+		// votes are summed in the same order so the results should be identical
+		BoofTesting.assertEquals(single.getTransform(), multi.getTransform(), 0.0);
+		assertEquals(single.candidates.size(), multi.candidates.size());
+		assertEquals(single.getLinesAll().size, multi.getLinesAll().size);
+	}
+
+	private NonMaxSuppression createExtractor() {
+		return FactoryFeatureExtractor.nonmax(new ConfigExtract(4, 5, 0, true));
+	}
+}
@@ -35,6 +35,7 @@ class TestConfigAssociate extends StandardConfigurationChecks {
 	public Configuration createNotDefault(Random rand) {
 		var out = new ConfigAssociate();
 		out.type = ConfigAssociate.AssociationType.RANDOM_FOREST;
+		out.gridSearch2D = true;
 		return out;
 	}
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.alg.distort.brown.LensDistortionBrown;
+import boofcv.alg.distort.universal.LensDistortionUniversalOmni;
+import boofcv.struct.calib.CameraPinholeBrown;
+import boofcv.struct.calib.CameraUniversalOmni;
+import boofcv.struct.distort.Point2Transform2_F32;
+import boofcv.struct.distort.Point2Transform2_F64;
+import boofcv.struct.distort.Point2Transform3_F64;
+import georegression.struct.point.Point2D_F32;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares exact lens models against {@link LensDistortionGridNarrowFOV} and {@link LensDistortionGridWideFOV}.
+ * Same structure as BenchmarkPixelTransform in boofcv-ip, which can't depend on the lens models in this module.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+public class BenchmarkLensDistortionGrid {
+	@Param({"0.01", "0.0001"})
+	public double maxError;
+
+	CameraPinholeBrown brown = new CameraPinholeBrown(500, 550, 0.001, 400, 300, 800, 600).
+			fsetRadial(-0.2, 0.05).fsetTangental(0.001, -0.002);
+	CameraUniversalOmni omni = new CameraUniversalOmni(2);
+
+	LensDistortionNarrowFOV exactNarrow, gridNarrow;
+	LensDistortionWideFOV exactWide, gridWide;
+
+	Point2D_F64 out64 = new Point2D_F64();
+	Point2D_F32 out32 = new Point2D_F32();
+	Point3D_F64 out3 = new Point3D_F64();
+
+	@Setup public void setup() {
+		omni.fsetK(400, 405, 0.01, 400, 300, 800, 600);
+		omni.fsetMirror(0.5);
+		omni.fsetRadial(0.01, -0.03);
+		omni.fsetTangental(0.001, 0.002);
+
+		exactNarrow = new LensDistortionBrown(brown);
+		gridNarrow = new LensDistortionGridNarrowFOV(exactNarrow, brown.width, brown.height, maxError);
+		exactWide = new LensDistortionUniversalOmni(omni);
+		gridWide = new LensDistortionGridWideFOV(exactWide, omni.width, omni.height, maxError);
+	}
+
+	// @formatter:off
+	@Benchmark public void build_narrow() {new LensDistortionGridNarrowFOV(exactNarrow, brown.width, brown.height, maxError);}
+	@Benchmark public void undistort_exact_F64() {process(exactNarrow.undistort_F64(true, true));}
+	@Benchmark public void undistort_grid_F64() {process(gridNarrow.undistort_F64(true, true));}
+	@Benchmark public void undistort_exact_F32() {process(exactNarrow.undistort_F32(true, true));}
+	@Benchmark public void undistort_grid_F32() {process(gridNarrow.undistort_F32(true, true));}
+	@Benchmark public void distort_exact_F64() {process(exactNarrow.distort_F64(true, true));}
+	@Benchmark public void distort_grid_F64() {process(gridNarrow.distort_F64(true, true));}
+	@Benchmark public void omni_PtoS_exact() {process(exactWide.undistortPtoS_F64());}
+	@Benchmark public void omni_PtoS_grid() {process(gridWide.undistortPtoS_F64());}
+	// @formatter:on
+
+	void process( Point2Transform2_F64 alg ) {
+		for (int y = 0; y < brown.height; y++)
+			for (int x = 0; x < brown.width; x++)
+				alg.compute(x, y, out64);
+	}
+
+	void process( Point2Transform2_F32 alg ) {
+		for (int y = 0; y < brown.height; y++)
+			for (int x = 0; x < brown.width; x++)
+				alg.compute(x, y, out32);
+	}
+
+	void process( Point2Transform3_F64 alg ) {
+		for (int y = 0; y < omni.height; y++)
+			for (int x = 0; x < omni.width; x++)
+				alg.compute(x, y, out3);
+	}
+
+	public static void main( String[] args ) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(BenchmarkLensDistortionGrid.class.getSimpleName())
+				.warmupTime(TimeValue.seconds(1))
+				.measurementTime(TimeValue.seconds(1))
+				.build();
+
+		new Runner(opt).run();
+	}
+}
@@ -19,8 +19,14 @@
 package boofcv.alg.geo;
 
 import boofcv.abst.geo.Estimate1ofEpipolar;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.geo.ConfigHomography;
+import boofcv.factory.geo.ConfigRansac;
 import boofcv.factory.geo.FactoryMultiView;
+import boofcv.factory.geo.FactoryMultiViewRobust;
 import boofcv.struct.geo.AssociatedPair;
+import georegression.struct.homography.Homography2D_F64;
+import org.ddogleg.fitting.modelset.ModelMatcher;
 import org.ejml.data.DMatrixRMaj;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.runner.Runner;
@@ -46,6 +52,20 @@ public class BenchmarkHomography extends ArtificialStereoScene {
 
 	DMatrixRMaj H = new DMatrixRMaj(3, 3);
 
+	/** Planar scene with noise and outliers for robust estimation */
+	@State(Scope.Benchmark) public static class RobustState {
+		ArtificialStereoScene scene = new ArtificialStereoScene();
+
+		@Setup public void setup() {
+			scene.init(NUM_POINTS, true, true);
+			scene.addPixelNoise(0.5);
+			// replace 30% of the observations with random pixels
+			for (int i = 0; i < scene.pairs.size(); i += 3) {
+				scene.pairs.get(i).p2.setTo(scene.rand.nextDouble()*640, scene.rand.nextDouble()*480);
+			}
+		}
+	}
+
 	@Setup public void setup() {
 		init(NUM_POINTS, true, false);
 	}
@@ -79,6 +99,28 @@ public class BenchmarkHomography extends ArtificialStereoScene {
 		}
 	}
 
+	@Benchmark public void Ransac( RobustState s ) {
+		processRobust(s, false, false);
+	}
+
+	@Benchmark public void RansacAdaptive( RobustState s ) {
+		processRobust(s, true, false);
+	}
+
+	@Benchmark public void RansacAdaptive_MT( RobustState s ) {
+		processRobust(s, true, true);
+	}
+
+	private void processRobust( RobustState s, boolean adaptive, boolean concurrent ) {
+		BoofConcurrency.USE_CONCURRENT = concurrent;
+		var config = new ConfigRansac(2000, 2.0);
+		ModelMatcher<Homography2D_F64, AssociatedPair> alg = adaptive ?
+				FactoryMultiViewRobust.homographyRansacAdaptive(new ConfigHomography(), config) :
+				FactoryMultiViewRobust.homographyRansac(new ConfigHomography(), config);
+		if (!alg.process(s.scene.pairs))
+			throw new RuntimeException("Failed");
+	}
+
 	private void processMinimal( Estimate1ofEpipolar alg ) {
 		for (int trial = 0; trial < 10; trial++) {
 			for (int i = 4; i < pairs.size(); i++) {
@@ -19,11 +19,24 @@
 package boofcv.alg.geo;
 
 import boofcv.abst.geo.Estimate1ofPnP;
+import boofcv.abst.geo.EstimateBatchPnP;
+import boofcv.abst.geo.RefinePnP;
+import boofcv.abst.geo.pose.WrapBatchPnP;
+import boofcv.abst.geo.pose.WrapBatchPnP_MT;
 import boofcv.alg.geo.pose.PnPLepetitEPnP;
+import boofcv.alg.geo.robust.ModelMatcherMultiview;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.geo.ConfigPnP;
+import boofcv.factory.geo.ConfigRansac;
 import boofcv.factory.geo.EnumPNP;
 import boofcv.factory.geo.FactoryMultiView;
+import boofcv.factory.geo.FactoryMultiViewRobust;
+import boofcv.struct.calib.CameraPinhole;
 import boofcv.struct.geo.Point2D3D;
 import georegression.struct.se.Se3_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_I32;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -61,6 +74,46 @@ public class BenchmarkPnP extends ArtificialStereoScene {
 		}
 	}
 
+	/** Observations with 30% outliers for robust estimation */
+	@State(Scope.Benchmark) public static class RobustState {
+		ArtificialStereoScene scene = new ArtificialStereoScene();
+		List<Point2D3D> observations = new ArrayList<>();
+
+		@Setup public void setup() {
+			scene.init(2000, false, false);
+			for (int i = 0; i < scene.observationPose.size(); i++) {
+				Point2D3D p = scene.observationPose.get(i).copy();
+				if (i%3 == 0)
+					p.observation.setTo(scene.rand.nextGaussian()*0.5, scene.rand.nextGaussian()*0.5);
+				observations.add(p);
+			}
+		}
+	}
+
+	/** Many small problems, e.g. 100 fiducials with 4 to 50 points each */
+	@State(Scope.Benchmark) public static class BatchState {
+		ArtificialStereoScene scene = new ArtificialStereoScene();
+		DogArray_I32 offsets = new DogArray_I32();
+		DogArray<Se3_F64> found = new DogArray<>(Se3_F64::new);
+		DogArray_B success = new DogArray_B();
+
+		Estimate1ofPnP estimator = FactoryMultiView.pnp_1(EnumPNP.EPNP, 10, 0);
+		RefinePnP refiner = FactoryMultiView.pnpRefine(1e-8, 100);
+		EstimateBatchPnP batch = new WrapBatchPnP(() -> FactoryMultiView.pnp_1(EnumPNP.EPNP, 10, 0),
+				() -> FactoryMultiView.pnpRefine(1e-8, 100));
+		EstimateBatchPnP batch_MT = new WrapBatchPnP_MT(() -> FactoryMultiView.pnp_1(EnumPNP.EPNP, 10, 0),
+				() -> FactoryMultiView.pnpRefine(1e-8, 100));
+
+		@Setup public void setup() {
+			scene.init(100*50, false, false);
+			offsets.reset();
+			offsets.add(0);
+			for (int i = 0; i < 100; i++) {
+				offsets.add(offsets.getTail() + 4 + scene.rand.nextInt(47));
+			}
+		}
+	}
+
 	@Setup public void setup() {
 		init(NUM_POINTS, false, false);
 	}
@@ -81,6 +134,34 @@ public class BenchmarkPnP extends ArtificialStereoScene {
 	@Benchmark public void ippe( PlanarState s ) {ippe.process(s.scene.observationPose, found);}
 	// @formatter:on
 
+	@Benchmark public void Ransac( RobustState s ) {processRobust(s, false, false);}
+	@Benchmark public void RansacAdaptive( RobustState s ) {processRobust(s, true, false);}
+	@Benchmark public void RansacAdaptive_MT( RobustState s ) {processRobust(s, true, true);}
+
+	@Benchmark public void batch_loop( BatchState s ) {
+		Se3_F64 initial = new Se3_F64();
+		for (int i = 1; i < s.offsets.size; i++) {
+			List<Point2D3D> points = s.scene.observationPose.subList(s.offsets.get(i - 1), s.offsets.get(i));
+			if (s.estimator.process(points, initial))
+				s.refiner.fitModel(points, initial, found);
+		}
+	}
+
+	// @formatter:off
+	@Benchmark public void batch( BatchState s ) {s.batch.process(s.scene.observationPose, s.offsets, s.found, s.success);}
+	@Benchmark public void batch_MT( BatchState s ) {s.batch_MT.process(s.scene.observationPose, s.offsets, s.found, s.success);}
+	// @formatter:on
+
+	public void processRobust( RobustState s, boolean adaptive, boolean concurrent ) {
+		BoofConcurrency.USE_CONCURRENT = concurrent;
+		var config = new ConfigRansac(2000, 2.0);
+		config.adaptive = adaptive;
+		ModelMatcherMultiview<Se3_F64, Point2D3D> alg = FactoryMultiViewRobust.pnpRansac(new ConfigPnP(), config);
+		alg.setIntrinsic(0, new CameraPinhole(705, 704, 0, 326, 224, 640, 480));
+		if (!alg.process(s.observations))
+			throw new RuntimeException("Failed");
+	}
+
 	public void processMin( Estimate1ofPnP alg ) {
 		int maxConsider = Math.min(20000, observationPose.size());
 		int N = alg.getMinimumPoints();
@@ -18,11 +18,22 @@
 
 package boofcv.alg.geo;
 
+import boofcv.abst.geo.TriangulateNViewsMetricH;
+import boofcv.abst.geo.triangulate.WrapBatchTriangulateMetricH;
+import boofcv.abst.geo.triangulate.WrapBatchTriangulateMetricH_MT;
 import boofcv.alg.geo.triangulate.PixelDepthLinearMetric;
 import boofcv.alg.geo.triangulate.Triangulate2ViewsGeometricMetric;
 import boofcv.alg.geo.triangulate.TriangulateMetricLinearDLT;
+import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point3D_F64;
+import boofcv.factory.geo.ConfigTriangulation;
+import boofcv.factory.geo.FactoryMultiView;
+import boofcv.struct.packed.PackedArrayPoint2D_F64;
+import boofcv.struct.packed.PackedArrayPoint4D_F64;
 import georegression.struct.point.Point4D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_I32;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -30,6 +41,8 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.TimeValue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @BenchmarkMode(Mode.AverageTime)
@@ -39,7 +52,7 @@ import java.util.concurrent.TimeUnit;
 @State(Scope.Benchmark)
 @Fork(value = 1)
 public class BenchmarkTriangulate extends ArtificialStereoScene {
-	@Param({"20", "2000"})
+	@Param({"20", "2000", "100000"})
 	public int numPoints;
 
 	private final Point4D_F64 found4 = new Point4D_F64();
@@ -49,8 +62,40 @@ public class BenchmarkTriangulate extends ArtificialStereoScene {
 	private final Triangulate2ViewsGeometricMetric view2 = new Triangulate2ViewsGeometricMetric();
 	private final PixelDepthLinearMetric pixelDepth = new PixelDepthLinearMetric();
 
+	// Packed observations for batch triangulation
+	private final PackedArrayPoint2D_F64 packedObs = new PackedArrayPoint2D_F64();
+	private final DogArray_I32 packedViews = new DogArray_I32();
+	private final DogArray_I32 packedOffsets = new DogArray_I32();
+	private final List<Se3_F64> listWorldToView = new ArrayList<>();
+	private final PackedArrayPoint4D_F64 packedFound = new PackedArrayPoint4D_F64();
+	private final DogArray_B success = new DogArray_B();
+
+	private final TriangulateNViewsMetricH nviewDlt = FactoryMultiView.triangulateNViewMetricH(null);
+	private final WrapBatchTriangulateMetricH batchDlt =
+			new WrapBatchTriangulateMetricH(() -> FactoryMultiView.triangulateNViewMetricH(null));
+	private final WrapBatchTriangulateMetricH batchDlt_MT =
+			new WrapBatchTriangulateMetricH_MT(() -> FactoryMultiView.triangulateNViewMetricH(null));
+	private final WrapBatchTriangulateMetricH batchRefine_MT =
+			new WrapBatchTriangulateMetricH_MT(() -> FactoryMultiView.triangulateNViewMetricH(ConfigTriangulation.GEOMETRIC()));
+
 	@Setup public void setup() {
 		init(numPoints, false, false);
+
+		listWorldToView.clear();
+		listWorldToView.add(new Se3_F64());
+		listWorldToView.add(motion);
+
+		packedObs.reset();
+		packedViews.reset();
+		packedOffsets.reset();
+		for (int i = 0; i < numPoints; i++) {
+			packedOffsets.add(packedViews.size);
+			packedObs.append(pairs.get(i).p1);
+			packedObs.append(pairs.get(i).p2);
+			packedViews.add(0);
+			packedViews.add(1);
+		}
+		packedOffsets.add(packedViews.size);
 	}
 
 	@Benchmark public void dlt() {
@@ -68,6 +113,28 @@ public class BenchmarkTriangulate extends ArtificialStereoScene {
 			pixelDepth.depth2View(pairs.get(i).p1, pairs.get(i).p2, motion);
 	}
 
+	@Benchmark public void nview_dlt() {
+		List<Point2D_F64> obs = new ArrayList<>();
+		for (int i = 0; i < numPoints; i++) {
+			obs.clear();
+			obs.add(pairs.get(i).p1);
+			obs.add(pairs.get(i).p2);
+			nviewDlt.triangulate(obs, listWorldToView, found4);
+		}
+	}
+
+	@Benchmark public void batch_dlt() {
+		batchDlt.triangulate(packedObs, packedViews, packedOffsets, listWorldToView, packedFound, success);
+	}
+
+	@Benchmark public void batch_dlt_MT() {
+		batchDlt_MT.triangulate(packedObs, packedViews, packedOffsets, listWorldToView, packedFound, success);
+	}
+
+	@Benchmark public void batch_refine_MT() {
+		batchRefine_MT.triangulate(packedObs, packedViews, packedOffsets, listWorldToView, packedFound, success);
+	}
+
 	public static void main( String[] args ) throws RunnerException {
 		Options opt = new OptionsBuilder()
 				.include(BenchmarkTriangulate.class.getSimpleName())
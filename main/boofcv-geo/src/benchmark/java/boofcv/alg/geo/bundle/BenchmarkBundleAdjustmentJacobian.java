@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.abst.geo.bundle.SceneObservations;
+import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.alg.geo.bundle.cameras.BundlePinholeSimplified;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ejml.data.DMatrixSparseCSC;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks residual and Jacobian computations for metric bundle adjustment on a synthetic scene which resembles
+ * the problems in the Bundle Adjustment in the Large dataset. Every view has its own camera and each point
+ * is observed by a few views.
+ *
+ * @author Peter Abeles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+public class BenchmarkBundleAdjustmentJacobian {
+	@Param({"20000", "200000"})
+	public int numPoints;
+
+	@Param({"200"})
+	public int numViews;
+
+	/** Number of views that observe each point */
+	@Param({"5"})
+	public int viewsPerPoint;
+
+	SceneStructureMetric structure;
+	SceneObservations observations;
+	double[] parameters;
+	double[] residuals;
+
+	DMatrixSparseCSC left = new DMatrixSparseCSC(1, 1);
+	DMatrixSparseCSC right = new DMatrixSparseCSC(1, 1);
+
+	BundleAdjustmentMetricResidualFunction residual = new BundleAdjustmentMetricResidualFunction();
+	BundleAdjustmentMetricResidualFunction residual_MT = new BundleAdjustmentMetricResidualFunction_MT();
+	BundleAdjustmentMetricSchurJacobian_DSCC jacobian = new BundleAdjustmentMetricSchurJacobian_DSCC();
+	BundleAdjustmentMetricSchurJacobian_DSCC jacobian_MT = new BundleAdjustmentMetricSchurJacobian_DSCC_MT();
+
+	@Setup public void setup() {
+		var rand = new Random(234);
+
+		structure = new SceneStructureMetric(false);
+		structure.initialize(numViews, numViews, numPoints);
+		observations = new SceneObservations();
+		observations.initialize(numViews);
+
+		for (int viewIdx = 0; viewIdx < numViews; viewIdx++) {
+			structure.setCamera(viewIdx, false, new BundlePinholeSimplified(500 + rand.nextGaussian()*20, 0.01, 0.001));
+			Se3_F64 world_to_view = SpecialEuclideanOps_F64.eulerXyz(
+					rand.nextGaussian()*0.5, rand.nextGaussian()*0.5, rand.nextGaussian()*0.1,
+					rand.nextGaussian()*0.05, rand.nextGaussian()*0.05, rand.nextGaussian()*0.05, null);
+			structure.setView(viewIdx, viewIdx, false, world_to_view);
+		}
+
+		var viewPt = new Point3D_F64();
+		var pixel = new Point2D_F64();
+		for (int pointIdx = 0; pointIdx < numPoints; pointIdx++) {
+			var X = new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), 5 + rand.nextGaussian()*0.2);
+			structure.setPoint(pointIdx, X.x, X.y, X.z);
+
+			// consecutive views so that a view never observes the same point twice
+			int firstView = rand.nextInt(numViews);
+			for (int i = 0; i < viewsPerPoint; i++) {
+				int viewIdx = (firstView + i)%numViews;
+				structure.connectPointToView(pointIdx, viewIdx);
+				SePointOps_F64.transform(structure.getParentToView(viewIdx), X, viewPt);
+				structure.cameras.get(viewIdx).model.project(viewPt.x, viewPt.y, viewPt.z, pixel);
+				observations.getView(viewIdx).add(pointIdx,
+						(float)(pixel.x + rand.nextGaussian()*0.5), (float)(pixel.y + rand.nextGaussian()*0.5));
+			}
+		}
+
+		parameters = new double[structure.getParameterCount()];
+		residuals = new double[observations.getObservationCount()*2];
+		new CodecSceneStructureMetric().encode(structure, parameters);
+
+		residual.configure(structure, observations);
+		residual_MT.configure(structure, observations);
+		jacobian.configure(structure, observations);
+		jacobian_MT.configure(structure, observations);
+	}
+
+	@Benchmark public void residual() {
+		residual.process(parameters, residuals);
+	}
+
+	@Benchmark public void residual_MT() {
+		residual_MT.process(parameters, residuals);
+	}
+
+	@Benchmark public void jacobian() {
+		jacobian.process(parameters, left, right);
+	}
+
+	@Benchmark public void jacobian_MT() {
+		jacobian_MT.process(parameters, left, right);
+	}
+
+	public static void main( String[] args ) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(BenchmarkBundleAdjustmentJacobian.class.getSimpleName())
+				.warmupTime(TimeValue.seconds(1))
+				.measurementTime(TimeValue.seconds(1))
+				.build();
+
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo;
+
+import boofcv.struct.geo.Point2D3D;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_I32;
+
+import java.util.List;
+
+/**
+ * Solves many independent PnP problems at once, e.g. the pose of every fiducial seen in an image. Observations
+ * of all the problems are packed into a single list. Observations of problem 'i' are stored in elements
+ * problemOffsets[i] to problemOffsets[i+1]-1.
+ *
+ * <p>NOTE: Observations are in normalized image coordinates NOT pixels.</p>
+ *
+ * @author Peter Abeles
+ */
+public interface EstimateBatchPnP {
+
+	/**
+	 * Estimates the pose for each problem.
+	 *
+	 * @param observations (Input) Observations of all the problems
+	 * @param problemOffsets (Input) Index of the first observation in each problem. Has N+1 elements.
+	 * @param worldToViews (Output) Found world to view transform for each problem. Resized to N.
+	 * @param success (Output) If a pose was found for each problem. Resized to N.
+	 * @return Number of problems a pose was found for
+	 */
+	int process( List<Point2D3D> observations,
+				 DogArray_I32 problemOffsets,
+				 DogArray<Se3_F64> worldToViews,
+				 DogArray_B success );
+
+	/**
+	 * Minimum number of points required for a single problem
+	 */
+	int getMinimumPoints();
+}
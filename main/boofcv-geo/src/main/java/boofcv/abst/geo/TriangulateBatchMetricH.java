@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo;
+
+import boofcv.struct.packed.PackedArrayPoint2D_F64;
+import boofcv.struct.packed.PackedArrayPoint4D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_I32;
+
+import java.util.List;
+
+/**
+ * Triangulates the location of many 3D points in homogenous coordinates from N views with a calibrated camera and
+ * known poses. Observations of all the points are packed into a single array to avoid per-point overhead.
+ * Observations of point 'i' are stored in elements pointOffsets[i] to pointOffsets[i+1]-1 and the view each
+ * observation came from is specified in 'observationViews'.
+ *
+ * @author Peter Abeles
+ */
+public interface TriangulateBatchMetricH {
+
+	/**
+	 * Triangulates the location of each point.
+	 *
+	 * @param observations (Input) Observations of all the points in normalized image coordinates.
+	 * @param observationViews (Input) Index of the view each observation came from.
+	 * @param pointOffsets (Input) Index of the first observation of each point. Has N+1 elements.
+	 * @param listWorldToView (Input) Transform from world to each of the different camera views
+	 * @param locations (Output) Location of each point in world coordinates. Resized to N.
+	 * @param success (Output) If triangulation was successful for each point. Resized to N.
+	 * @return Number of points which were successfully triangulated
+	 */
+	int triangulate( PackedArrayPoint2D_F64 observations,
+					 DogArray_I32 observationViews,
+					 DogArray_I32 pointOffsets,
+					 List<Se3_F64> listWorldToView,
+					 PackedArrayPoint4D_F64 locations,
+					 DogArray_B success );
+}
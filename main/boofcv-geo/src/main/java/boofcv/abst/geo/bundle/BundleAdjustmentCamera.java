@@ -25,6 +25,10 @@ import org.jetbrains.annotations.Nullable;
  * Generalized camera model for bundle adjustment. By implementing this function you can swap in and out
  * arbitrary camera models.
  *
+ * <p>Concurrent implementations of bundle adjustment will call {@link #project} and {@link #jacobian} from multiple
+ * threads at once. These functions must not modify the camera's state if concurrency is turned on with
+ * {@link boofcv.factory.geo.ConfigBundleAdjustment#concurrent}.</p>
+ *
  * @author Peter Abeles
  */
 public interface BundleAdjustmentCamera {
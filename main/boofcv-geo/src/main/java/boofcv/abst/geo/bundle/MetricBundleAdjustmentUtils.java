@@ -18,7 +18,9 @@
 
 package boofcv.abst.geo.bundle;
 
+import boofcv.abst.geo.TriangulateBatchMetricH;
 import boofcv.abst.geo.TriangulateNViewsMetricH;
+import boofcv.abst.geo.triangulate.WrapBatchTriangulateMetricH;
 import boofcv.factory.geo.ConfigTriangulation;
 import boofcv.factory.geo.FactoryMultiView;
 import boofcv.misc.ConfigConverge;
@@ -47,10 +49,20 @@ public class MetricBundleAdjustmentUtils {
 	public final @Getter SceneObservations observations = new SceneObservations();
 	public @Getter @Setter BundleAdjustment<SceneStructureMetric> sba = FactoryMultiView.bundleSparseMetric(null);
 	public @Getter @Setter TriangulateNViewsMetricH triangulator = FactoryMultiView.triangulateNViewMetricH(null);
+	/**
+	 * Used to triangulate many points at once. If {@link #triangulator} is replaced then use
+	 * {@link #getTriangulatorBatch()}, which will return a batch triangulator built around the new triangulator.
+	 */
+	public TriangulateBatchMetricH triangulatorBatch = FactoryMultiView.triangulateBatchMetricH(null);
 	public @Getter ScaleSceneStructure scaler = new ScaleSceneStructure();
 
+	// The value of triangulator when triangulatorBatch was created. Used to see if the user changed triangulator
+	private TriangulateNViewsMetricH batchSource;
+
 	public MetricBundleAdjustmentUtils( @Nullable ConfigTriangulation triangulation, boolean homogenous ) {
 		triangulator = FactoryMultiView.triangulateNViewMetricH(triangulation);
+		triangulatorBatch = FactoryMultiView.triangulateBatchMetricH(triangulation);
+		batchSource = triangulator;
 		structure = new SceneStructureMetric(homogenous);
 	}
 
@@ -58,6 +70,27 @@ public class MetricBundleAdjustmentUtils {
 		this(null,true);
 	}
 
+	/**
+	 * Returns the batch triangulator. If {@link #triangulator} has been changed since the batch triangulator
+	 * was created then it's replaced by a single threaded batch triangulator which uses {@link #triangulator}.
+	 */
+	public TriangulateBatchMetricH getTriangulatorBatch() {
+		if (batchSource != triangulator) {
+			final TriangulateNViewsMetricH single = triangulator;
+			triangulatorBatch = new WrapBatchTriangulateMetricH(() -> single);
+			batchSource = single;
+		}
+		return triangulatorBatch;
+	}
+
+	/**
+	 * Specifies the batch triangulator. It will be used until {@link #triangulator} is changed.
+	 */
+	public void setTriangulatorBatch( TriangulateBatchMetricH triangulatorBatch ) {
+		this.triangulatorBatch = triangulatorBatch;
+		this.batchSource = triangulator;
+	}
+
 	/**
 	 * Uses the already configured structure and observations to perform bundle adjustment
 	 *
@@ -345,6 +345,9 @@ public class PruneStructureFromSceneMetric {
 		int[] histogram = new int[structure.cameras.size];
 
 		for (int i = 0; i < structure.views.size; i++) {
+			// skip the body frame of rigs since they have no camera
+			if (structure.views.data[i].camera < 0)
+				continue;
 			histogram[structure.views.data[i].camera]++;
 		}
 
@@ -368,6 +371,8 @@ public class PruneStructureFromSceneMetric {
 		// Update the references to the cameras
 		for (int i = 0; i < structure.views.size; i++) {
 			SceneStructureMetric.View v = structure.views.data[i];
+			if (v.camera < 0)
+				continue;
 			v.camera = oldToNew[v.camera];
 		}
 
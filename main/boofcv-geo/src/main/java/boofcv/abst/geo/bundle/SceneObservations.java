@@ -80,6 +80,24 @@ public class SceneObservations {
 		return total;
 	}
 
+	/**
+	 * Computes the index of the first observation in each view. Observations are ordered by view and inside
+	 * each view general points come before rigid points. This allows views to be processed independently.
+	 *
+	 * @param offsets (Output) Index of the first observation in each view. Last element is the total.
+	 */
+	public void computeViewOffsets( DogArray_I32 offsets ) {
+		boolean rigid = hasRigid();
+		offsets.resize(views.size + 1);
+		offsets.data[0] = 0;
+		for (int i = 0; i < views.size; i++) {
+			int count = views.data[i].point.size;
+			if (rigid)
+				count += viewsRigid.data[i].point.size;
+			offsets.data[i + 1] = offsets.data[i] + count;
+		}
+	}
+
 	/**
 	 * True if there are rigid views
 	 */
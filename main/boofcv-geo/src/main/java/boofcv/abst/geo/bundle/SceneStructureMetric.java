@@ -39,6 +39,13 @@ import static boofcv.misc.BoofMiscOps.checkTrue;
  *
  * Points belonging to the general scene and rigid objects have two different sets of ID's.
  *
+ * <p>
+ * Multi-camera rigs are described by giving each time step a view for the rig's body frame, which has no camera
+ * and no observations, see {@link #setRigBody}. Each camera on the rig is then a view relative to the body
+ * with a motion that is shared across all time steps, see {@link #addRigCamera} and {@link #setRigView}. This way
+ * there is only one pose per time step and one offset per camera being optimized.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class SceneStructureMetric extends SceneStructureCommon {
@@ -238,6 +245,43 @@ public class SceneStructureMetric extends SceneStructureCommon {
 		return index;
 	}
 
+	/**
+	 * Specifies the pose of a multi-camera rig's body frame at a single time step. The view has no camera and
+	 * should have no observations. Views of cameras on the rig must have a larger index than the body.
+	 *
+	 * @param viewIndex Which view is being specified.
+	 * @param known If the parameters are known and not optimized or unknown and optimized
+	 * @param world_to_rig The transform from world to rig body reference frames. Internal copy is saved.
+	 */
+	public void setRigBody( int viewIndex, boolean known, Se3_F64 world_to_rig ) {
+		setView(viewIndex, -1, known, world_to_rig);
+	}
+
+	/**
+	 * Adds the transform from a rig's body frame to a camera mounted on the rig. This motion is shared by
+	 * all the time steps and is optimized once if it's not known.
+	 *
+	 * @param known If the parameters are known and not optimized or unknown and optimized
+	 * @param rig_to_camera The transform from rig body to camera reference frames.
+	 * @return Index or ID for the created motion
+	 */
+	public int addRigCamera( boolean known, Se3_F64 rig_to_camera ) {
+		return addMotion(known, rig_to_camera);
+	}
+
+	/**
+	 * Specifies a view from a camera which is mounted on a rig.
+	 *
+	 * @param viewIndex Which view is being specified.
+	 * @param cameraIndex Index of camera model
+	 * @param rigToCamera Motion from rig body to camera. See {@link #addRigCamera}
+	 * @param rigBody Index of the view for the rig's body frame at this time step. See {@link #setRigBody}
+	 */
+	public void setRigView( int viewIndex, int cameraIndex, int rigToCamera, int rigBody ) {
+		checkTrue(views.get(rigBody).camera == -1, "Rig body can't have a camera");
+		setView(viewIndex, cameraIndex, rigToCamera, rigBody);
+	}
+
 	/**
 	 * Declares the data structure for a rigid object. Location of points are set by accessing the object directly.
 	 * Rigid objects are useful in known scenes with calibration targets.
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.calibration;
+
+import boofcv.alg.geo.calibration.CalibrationObservation;
+import boofcv.struct.image.GrayF32;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.Factory;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detects calibration targets in a set of images. Images are requested from an {@link ImageSource} when they are
+ * needed so that the entire set doesn't need to be in memory at once. The results for each image are saved
+ * and can then be passed to {@link CalibrateMonoPlanar}.
+ *
+ * @author Peter Abeles
+ */
+public class BatchDetectFiducialCalibration {
+
+	// Creates a new detector. Each thread needs its own detector
+	protected final Factory<DetectorFiducialCalibration> factory;
+
+	// Detected calibration points in each image. null if the target was not detected
+	protected final List<CalibrationObservation> results = new ArrayList<>();
+
+	// Workspace for the single threaded implementation
+	protected @Nullable Worker worker;
+
+	public BatchDetectFiducialCalibration( Factory<DetectorFiducialCalibration> factory ) {
+		this.factory = factory;
+	}
+
+	/**
+	 * Detects calibration targets in all the images
+	 *
+	 * @param images (Input) Images that are to be processed
+	 */
+	public void process( List<GrayF32> images ) {
+		process(images.size(), ( index, storage ) -> images.get(index));
+	}
+
+	/**
+	 * Detects calibration targets in all the images
+	 *
+	 * @param numImages (Input) Number of images
+	 * @param source (Input) Provides the images
+	 */
+	public void process( int numImages, ImageSource source ) {
+		initializeResults(numImages);
+		if (worker == null)
+			worker = new Worker();
+		detectRange(worker, 0, numImages, source);
+	}
+
+	protected void initializeResults( int numImages ) {
+		results.clear();
+		for (int i = 0; i < numImages; i++) {
+			results.add(null);
+		}
+	}
+
+	/**
+	 * Detects targets in images inside the specified range
+	 */
+	protected void detectRange( Worker worker, int idx0, int idx1, ImageSource source ) {
+		for (int imageIdx = idx0; imageIdx < idx1; imageIdx++) {
+			GrayF32 image = source.load(imageIdx, worker.image);
+			if (image == null || !worker.detector.process(image))
+				continue;
+			results.set(imageIdx, worker.detector.getDetectedPoints());
+		}
+	}
+
+	/**
+	 * Returns the detected calibration points in the specified image.
+	 *
+	 * @return The detected points or null if the target was not detected
+	 */
+	public @Nullable CalibrationObservation getDetected( int imageIdx ) {
+		return results.get(imageIdx);
+	}
+
+	/**
+	 * Returns true if the target was detected in the specified image
+	 */
+	public boolean isDetected( int imageIdx ) {
+		return results.get(imageIdx) != null;
+	}
+
+	/**
+	 * Number of images the target was detected in
+	 */
+	public int countDetected() {
+		int total = 0;
+		for (int i = 0; i < results.size(); i++) {
+			if (results.get(i) != null)
+				total++;
+		}
+		return total;
+	}
+
+	/**
+	 * Adds images where the target was detected to the calibration algorithm, in the order they were processed
+	 *
+	 * @param calibrator Calibration algorithm
+	 */
+	public void addDetectedTo( CalibrateMonoPlanar calibrator ) {
+		for (int i = 0; i < results.size(); i++) {
+			CalibrationObservation found = results.get(i);
+			if (found != null)
+				calibrator.addImage(found);
+		}
+	}
+
+	/**
+	 * Returns the layout of calibration points on the target
+	 */
+	public List<Point2D_F64> getLayout() {
+		return factory.newInstance().getLayout();
+	}
+
+	/**
+	 * Number of images processed in the last call to process
+	 */
+	public int getImageCount() {
+		return results.size();
+	}
+
+	/**
+	 * Detector and image storage used by a single thread
+	 */
+	protected class Worker {
+		public final DetectorFiducialCalibration detector = factory.newInstance();
+		public final GrayF32 image = new GrayF32(1, 1);
+	}
+
+	/**
+	 * Provides images for processing. Implementations must be thread safe if used with the concurrent implementation.
+	 */
+	@FunctionalInterface
+	public interface ImageSource {
+		/**
+		 * Returns the image at the specified index.
+		 *
+		 * @param index Index of the image
+		 * @param storage Storage which can be used to hold the image. Only used by the calling thread.
+		 * @return The image or null if it could not be loaded
+		 */
+		@Nullable GrayF32 load( int index, GrayF32 storage );
+	}
+}
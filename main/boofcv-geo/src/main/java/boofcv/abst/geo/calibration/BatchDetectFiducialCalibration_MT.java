@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.calibration;
+
+import boofcv.concurrency.BoofConcurrency;
+import org.ddogleg.struct.Factory;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link BatchDetectFiducialCalibration}. Images are split into blocks and each thread
+ * has its own detector. Each image's results are saved to its own slot so the output is identical to the
+ * single threaded version.
+ *
+ * @author Peter Abeles
+ */
+public class BatchDetectFiducialCalibration_MT extends BatchDetectFiducialCalibration {
+	// Workspace for each thread
+	private final GrowArray<Worker> workers = new GrowArray<>(Worker::new);
+
+	public BatchDetectFiducialCalibration_MT( Factory<DetectorFiducialCalibration> factory ) {
+		super(factory);
+	}
+
+	@Override public void process( int numImages, ImageSource source ) {
+		initializeResults(numImages);
+		BoofConcurrency.loopBlocks(0, numImages, 1, workers, ( worker, idx0, idx1 ) ->
+				detectRange(worker, idx0, idx1, source));
+	}
+}
@@ -21,9 +21,11 @@ package boofcv.abst.geo.calibration;
 import boofcv.abst.geo.bundle.SceneStructureMetric;
 import boofcv.alg.geo.calibration.CalibrationObservation;
 import boofcv.alg.geo.calibration.CalibrationPlanarGridZhang99;
+import boofcv.alg.geo.calibration.CalibrationPlanarGridZhang99_MT;
 import boofcv.alg.geo.calibration.cameras.Zhang99Camera;
 import boofcv.alg.geo.calibration.cameras.Zhang99CameraBrown;
 import boofcv.alg.geo.calibration.cameras.Zhang99CameraUniversalOmni;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.calib.CameraModel;
 import georegression.struct.point.Point2D_F64;
 import lombok.Getter;
@@ -96,7 +98,7 @@ public class CalibrateMonoPlanar implements VerbosePrint {
 	 * Specifies the calibration model.
 	 */
 	public void configure( Zhang99Camera camera ) {
-		zhang99 = new CalibrationPlanarGridZhang99(layout, camera);
+		zhang99 = createZhang99(camera);
 	}
 
 	public void configurePinhole( boolean assumeZeroSkew,
@@ -104,13 +106,13 @@ public class CalibrateMonoPlanar implements VerbosePrint {
 								  boolean includeTangential ) {
 		Zhang99CameraBrown camera =
 				new Zhang99CameraBrown(assumeZeroSkew, includeTangential, numRadialParam);
-		zhang99 = new CalibrationPlanarGridZhang99(layout, camera);
+		zhang99 = createZhang99(camera);
 	}
 
 	public void configureUniversalOmni( boolean assumeZeroSkew,
 										int numRadialParam,
 										boolean includeTangential ) {
-		zhang99 = new CalibrationPlanarGridZhang99(layout,
+		zhang99 = createZhang99(
 				new Zhang99CameraUniversalOmni(assumeZeroSkew, includeTangential, numRadialParam));
 	}
 
@@ -118,10 +120,19 @@ public class CalibrateMonoPlanar implements VerbosePrint {
 										int numRadialParam,
 										boolean includeTangential,
 										double mirrorOffset ) {
-		zhang99 = new CalibrationPlanarGridZhang99(layout,
+		zhang99 = createZhang99(
 				new Zhang99CameraUniversalOmni(assumeZeroSkew, includeTangential, numRadialParam, mirrorOffset));
 	}
 
+	/**
+	 * Creates the Zhang99 algorithm. A concurrent implementation is used if concurrency is turned on.
+	 */
+	protected CalibrationPlanarGridZhang99 createZhang99( Zhang99Camera camera ) {
+		if (BoofConcurrency.USE_CONCURRENT)
+			return new CalibrationPlanarGridZhang99_MT(layout, camera);
+		return new CalibrationPlanarGridZhang99(layout, camera);
+	}
+
 	/**
 	 * Resets internal data structures.  Must call before adding images
 	 */
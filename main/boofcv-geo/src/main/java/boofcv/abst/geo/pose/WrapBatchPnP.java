@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.pose;
+
+import boofcv.abst.geo.Estimate1ofPnP;
+import boofcv.abst.geo.EstimateBatchPnP;
+import boofcv.abst.geo.RefinePnP;
+import boofcv.struct.geo.Point2D3D;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.Factory;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of {@link EstimateBatchPnP} which solves each problem independently using {@link Estimate1ofPnP}
+ * and then optionally refines it with {@link RefinePnP}. All storage is owned by a worker and reused between
+ * calls so no memory is created once it has warmed up.
+ *
+ * @author Peter Abeles
+ */
+public class WrapBatchPnP implements EstimateBatchPnP {
+	// Creates a new estimator and refiner for each thread
+	final Factory<Estimate1ofPnP> factoryEstimator;
+	final @Nullable Factory<RefinePnP> factoryRefine;
+
+	// Storage for the main thread
+	final Worker worker;
+
+	// Input and output of the most recent call. Saved so that worker threads can access them
+	protected List<Point2D3D> observations;
+	protected DogArray_I32 problemOffsets;
+	protected DogArray<Se3_F64> worldToViews;
+	protected DogArray_B success;
+
+	/**
+	 * @param factoryEstimator Creates the estimator for a single problem
+	 * @param factoryRefine (Optional) Creates the refiner for a single problem. If null there is no refinement.
+	 */
+	public WrapBatchPnP( Factory<Estimate1ofPnP> factoryEstimator, @Nullable Factory<RefinePnP> factoryRefine ) {
+		this.factoryEstimator = factoryEstimator;
+		this.factoryRefine = factoryRefine;
+		this.worker = new Worker();
+	}
+
+	@Override public int process( List<Point2D3D> observations,
+								  DogArray_I32 problemOffsets,
+								  DogArray<Se3_F64> worldToViews,
+								  DogArray_B success ) {
+		if (problemOffsets.size == 0)
+			throw new IllegalArgumentException("problemOffsets must have N+1 elements");
+		if (problemOffsets.getTail() > observations.size())
+			throw new IllegalArgumentException("problemOffsets references more observations than there are");
+
+		this.observations = observations;
+		this.problemOffsets = problemOffsets;
+		this.worldToViews = worldToViews;
+		this.success = success;
+
+		int numProblems = problemOffsets.size - 1;
+		worldToViews.resize(numProblems);
+		success.resize(numProblems);
+
+		estimateRange(0, numProblems);
+
+		int total = 0;
+		for (int i = 0; i < numProblems; i++) {
+			if (success.data[i])
+				total++;
+		}
+		return total;
+	}
+
+	/**
+	 * Estimates the pose for problems in the specified range
+	 *
+	 * @param idx0 First problem, inclusive
+	 * @param idx1 Last problem, exclusive
+	 */
+	protected void estimateRange( int idx0, int idx1 ) {
+		for (int i = idx0; i < idx1; i++) {
+			success.data[i] = estimateProblem(worker, i);
+		}
+	}
+
+	/**
+	 * Estimates the pose for a single problem and saves the results
+	 */
+	protected boolean estimateProblem( Worker worker, int problemIdx ) {
+		int obs0 = problemOffsets.data[problemIdx];
+		int obs1 = problemOffsets.data[problemIdx + 1];
+
+		Se3_F64 found = worldToViews.get(problemIdx);
+
+		if (obs1 - obs0 < worker.estimator.getMinimumPoints()) {
+			found.reset();
+			return false;
+		}
+
+		worker.points.clear();
+		for (int i = obs0; i < obs1; i++) {
+			worker.points.add(observations.get(i));
+		}
+
+		if (!worker.estimator.process(worker.points, worker.initial)) {
+			found.reset();
+			return false;
+		}
+
+		if (worker.refiner == null || !worker.refiner.fitModel(worker.points, worker.initial, found)) {
+			found.setTo(worker.initial);
+		}
+		return true;
+	}
+
+	@Override public int getMinimumPoints() {
+		return worker.estimator.getMinimumPoints();
+	}
+
+	/**
+	 * Storage for a single thread
+	 */
+	protected class Worker {
+		final Estimate1ofPnP estimator = factoryEstimator.newInstance();
+		final @Nullable RefinePnP refiner = factoryRefine == null ? null : factoryRefine.newInstance();
+		final List<Point2D3D> points = new ArrayList<>();
+		final Se3_F64 initial = new Se3_F64();
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.pose;
+
+import boofcv.abst.geo.Estimate1ofPnP;
+import boofcv.abst.geo.RefinePnP;
+import boofcv.concurrency.BoofConcurrency;
+import org.ddogleg.struct.Factory;
+import org.jetbrains.annotations.Nullable;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link WrapBatchPnP}. Each thread has its own estimator and refiner.
+ *
+ * @author Peter Abeles
+ */
+public class WrapBatchPnP_MT extends WrapBatchPnP {
+	// Storage for each thread
+	final GrowArray<Worker> workers = new GrowArray<>(Worker::new);
+
+	public WrapBatchPnP_MT( Factory<Estimate1ofPnP> factoryEstimator, @Nullable Factory<RefinePnP> factoryRefine ) {
+		super(factoryEstimator, factoryRefine);
+	}
+
+	@Override protected void estimateRange( int idx0, int idx1 ) {
+		BoofConcurrency.loopBlocks(idx0, idx1, workers, ( worker, i0, i1 ) -> {
+			for (int i = i0; i < i1; i++) {
+				success.data[i] = estimateProblem(worker, i);
+			}
+		});
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.triangulate;
+
+import boofcv.abst.geo.TriangulateBatchMetricH;
+import boofcv.abst.geo.TriangulateNViewsMetricH;
+import boofcv.struct.packed.PackedArrayPoint2D_F64;
+import boofcv.struct.packed.PackedArrayPoint4D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point4D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.Factory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of {@link TriangulateBatchMetricH} which triangulates each point independently using
+ * {@link TriangulateNViewsMetricH}. If nonlinear refinement is desired then the single point triangulator
+ * should include it, e.g. {@link TriangulateThenRefineMetricH}.
+ *
+ * @author Peter Abeles
+ */
+public class WrapBatchTriangulateMetricH implements TriangulateBatchMetricH {
+	// Creates a new triangulator for each thread
+	final Factory<TriangulateNViewsMetricH> factory;
+
+	// Storage for the main thread
+	final Worker worker;
+
+	// Input and output of the most recent call. Saved so that worker threads can access them
+	protected PackedArrayPoint2D_F64 observations;
+	protected DogArray_I32 observationViews;
+	protected DogArray_I32 pointOffsets;
+	protected List<Se3_F64> listWorldToView;
+	protected PackedArrayPoint4D_F64 locations;
+	protected DogArray_B success;
+
+	public WrapBatchTriangulateMetricH( Factory<TriangulateNViewsMetricH> factory ) {
+		this.factory = factory;
+		this.worker = new Worker();
+	}
+
+	@Override public int triangulate( PackedArrayPoint2D_F64 observations,
+									  DogArray_I32 observationViews,
+									  DogArray_I32 pointOffsets,
+									  List<Se3_F64> listWorldToView,
+									  PackedArrayPoint4D_F64 locations,
+									  DogArray_B success ) {
+		if (observations.size() != observationViews.size)
+			throw new IllegalArgumentException("Number of observations and views don't match");
+		if (pointOffsets.size == 0)
+			throw new IllegalArgumentException("pointOffsets must have N+1 elements");
+
+		this.observations = observations;
+		this.observationViews = observationViews;
+		this.pointOffsets = pointOffsets;
+		this.listWorldToView = listWorldToView;
+		this.locations = locations;
+		this.success = success;
+
+		int numPoints = pointOffsets.size - 1;
+		locations.resize(numPoints);
+		success.resize(numPoints);
+
+		triangulateRange(0, numPoints);
+
+		int total = 0;
+		for (int i = 0; i < numPoints; i++) {
+			if (success.data[i])
+				total++;
+		}
+		return total;
+	}
+
+	/**
+	 * Triangulates points in the specified range
+	 *
+	 * @param idx0 First point, inclusive
+	 * @param idx1 Last point, exclusive
+	 */
+	protected void triangulateRange( int idx0, int idx1 ) {
+		for (int i = idx0; i < idx1; i++) {
+			success.data[i] = triangulatePoint(worker, i);
+		}
+	}
+
+	/**
+	 * Triangulates a single point and saves the results
+	 */
+	protected boolean triangulatePoint( Worker worker, int pointIdx ) {
+		int obs0 = pointOffsets.data[pointIdx];
+		int obs1 = pointOffsets.data[pointIdx + 1];
+
+		worker.pixels.resize(obs1 - obs0);
+		worker.poses.clear();
+		for (int i = obs0; i < obs1; i++) {
+			observations.getCopy(i, worker.pixels.get(i - obs0));
+			worker.poses.add(listWorldToView.get(observationViews.data[i]));
+		}
+
+		Point4D_F64 X = worker.found;
+		if (!worker.triangulator.triangulate(worker.pixels.toList(), worker.poses, X)) {
+			locations.set(pointIdx, 0, 0, 0, 0);
+			return false;
+		}
+		locations.set(pointIdx, X.x, X.y, X.z, X.w);
+		return true;
+	}
+
+	/**
+	 * Storage for a single thread
+	 */
+	protected class Worker {
+		final TriangulateNViewsMetricH triangulator = factory.newInstance();
+		final DogArray<Point2D_F64> pixels = new DogArray<>(Point2D_F64::new);
+		final List<Se3_F64> poses = new ArrayList<>();
+		final Point4D_F64 found = new Point4D_F64();
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.triangulate;
+
+import boofcv.abst.geo.TriangulateNViewsMetricH;
+import boofcv.concurrency.BoofConcurrency;
+import org.ddogleg.struct.Factory;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link WrapBatchTriangulateMetricH}. Each thread has its own triangulator.
+ *
+ * @author Peter Abeles
+ */
+public class WrapBatchTriangulateMetricH_MT extends WrapBatchTriangulateMetricH {
+	// Storage for each thread
+	final GrowArray<Worker> workers = new GrowArray<>(Worker::new);
+
+	public WrapBatchTriangulateMetricH_MT( Factory<TriangulateNViewsMetricH> factory ) {
+		super(factory);
+	}
+
+	@Override protected void triangulateRange( int idx0, int idx1 ) {
+		BoofConcurrency.loopBlocks(idx0, idx1, workers, ( worker, i0, i1 ) -> {
+			for (int i = i0; i < i1; i++) {
+				success.data[i] = triangulatePoint(worker, i);
+			}
+		});
+	}
+}
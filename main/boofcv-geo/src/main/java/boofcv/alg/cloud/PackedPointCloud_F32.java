@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.cloud;
+
+import georegression.struct.point.Point3D_F32;
+import georegression.struct.point.Point3D_F64;
+import org.ddogleg.struct.DogArray_F32;
+import org.ddogleg.struct.DogArray_I32;
+
+import java.util.List;
+
+/**
+ * Point cloud which is stored in a structure of arrays format. Each coordinate axis and color is stored in its own
+ * continuous array. This avoids the overhead of creating an object for every point, which for large clouds
+ * dominates memory usage, and allows the coordinates to be processed in tight loops.
+ *
+ * Points which are added without a color have an RGB value of 0.
+ *
+ * @author Peter Abeles
+ */
+public class PackedPointCloud_F32 implements PointCloudReader, PointCloudWriter {
+	/** Coordinate of each point along the x-axis */
+	public final DogArray_F32 x = new DogArray_F32();
+	/** Coordinate of each point along the y-axis */
+	public final DogArray_F32 y = new DogArray_F32();
+	/** Coordinate of each point along the z-axis */
+	public final DogArray_F32 z = new DogArray_F32();
+	/** Color of each point encoded as 0xRRGGBB */
+	public final DogArray_I32 rgb = new DogArray_I32();
+
+	/** Discards all points */
+	public void reset() {
+		x.reset();
+		y.reset();
+		z.reset();
+		rgb.reset();
+	}
+
+	/** Ensures that there is enough storage for this many points without needing to grow the arrays */
+	public void reserve( int numPoints ) {
+		x.reserve(numPoints);
+		y.reserve(numPoints);
+		z.reserve(numPoints);
+		rgb.reserve(numPoints);
+	}
+
+	/** Changes the number of points. New points have undefined values. */
+	public void resize( int numPoints ) {
+		x.resize(numPoints);
+		y.resize(numPoints);
+		z.resize(numPoints);
+		rgb.resize(numPoints);
+	}
+
+	/** Sets the coordinate of an existing point */
+	public void set( int index, double x, double y, double z ) {
+		this.x.data[index] = (float)x;
+		this.y.data[index] = (float)y;
+		this.z.data[index] = (float)z;
+	}
+
+	/** Sets the color of an existing point */
+	public void setRGB( int index, int rgb ) {
+		this.rgb.set(index, rgb);
+	}
+
+	/** Appends all the points in the list to the end of this cloud */
+	public void addAll( List<Point3D_F64> points ) {
+		reserve(size() + points.size());
+		for (int i = 0; i < points.size(); i++) {
+			Point3D_F64 p = points.get(i);
+			add(p.x, p.y, p.z);
+		}
+	}
+
+	/** Makes this cloud a copy of src */
+	public PackedPointCloud_F32 setTo( PackedPointCloud_F32 src ) {
+		x.setTo(src.x);
+		y.setTo(src.y);
+		z.setTo(src.z);
+		rgb.setTo(src.rgb);
+		return this;
+	}
+
+	@Override public void init( int estimatedSize ) {
+		reset();
+		reserve(estimatedSize);
+	}
+
+	@Override public void add( double x, double y, double z ) {
+		add(x, y, z, 0);
+	}
+
+	@Override public void add( double x, double y, double z, int rgb ) {
+		this.x.add((float)x);
+		this.y.add((float)y);
+		this.z.add((float)z);
+		this.rgb.add(rgb);
+	}
+
+	@Override public int size() {
+		return x.size;
+	}
+
+	@Override public void get( int index, Point3D_F32 point ) {
+		point.setTo(x.get(index), y.data[index], z.data[index]);
+	}
+
+	@Override public void get( int index, Point3D_F64 point ) {
+		point.setTo(x.get(index), y.data[index], z.data[index]);
+	}
+
+	@Override public int getRGB( int index ) {
+		return rgb.get(index);
+	}
+}
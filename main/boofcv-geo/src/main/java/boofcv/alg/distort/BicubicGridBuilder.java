@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+/**
+ * Samples a function on a {@link BicubicGrid_F64} and refines the grid until the interpolation error is less than
+ * the requested maximum. The error is checked at {@link #SAMPLES_PER_AXIS} by {@link #SAMPLES_PER_AXIS} points
+ * spread across the interior of every cell, since the error can peak away from the cell's center and edges.
+ * If the function is undefined (NaN) at a node then interpolated values which depend on it will also be NaN.
+ * Those points are skipped when checking the error since transforms fall back to the exact model for them.
+ *
+ * @author Peter Abeles
+ */
+class BicubicGridBuilder {
+	/** Initial distance between grid nodes in pixels */
+	static final double INITIAL_CELL_PIXELS = 32.0;
+	/** If the distance between nodes drops below this and the error is still too large it will give up */
+	static final double MINIMUM_CELL_PIXELS = 0.5;
+	/** Number of points along each axis inside a cell where the error is checked */
+	static final int SAMPLES_PER_AXIS = 4;
+
+	/** Maximum allowed error in pixels */
+	final double maxError;
+
+	/** Largest error found when the most recent grid was verified */
+	double maxErrorFound;
+
+	BicubicGridBuilder( double maxError ) {
+		if (maxError <= 0.0)
+			throw new IllegalArgumentException("maxError must be positive");
+		this.maxError = maxError;
+	}
+
+	/**
+	 * Creates a grid which approximates the function with an error less than the maximum
+	 *
+	 * @param grid (Output) The grid
+	 * @param x0 Lower x-coordinate of the region
+	 * @param y0 Lower y-coordinate of the region
+	 * @param x1 Upper x-coordinate of the region
+	 * @param y1 Upper y-coordinate of the region
+	 * @param pixelsPerUnit Approximate number of pixels in one unit of the grid's input. Used to pick the cell size.
+	 * @param dof Number of elements in the function's output
+	 * @param function The function being approximated
+	 * @param error Computes the error of an interpolated value in pixels
+	 */
+	void build( BicubicGrid_F64 grid, double x0, double y0, double x1, double y1, double pixelsPerUnit, int dof,
+				BicubicGrid_F64.Function function, ErrorFunction error ) {
+		for (double cellPixels = INITIAL_CELL_PIXELS; ; cellPixels /= 2.0) {
+			grid.setShape(x0, y0, x1, y1, cellPixels/pixelsPerUnit, dof);
+			grid.sample(function);
+			maxErrorFound = computeMaxError(grid, function, error);
+			if (maxErrorFound <= maxError)
+				return;
+			if (cellPixels <= MINIMUM_CELL_PIXELS)
+				throw new IllegalArgumentException("Unable to approximate the lens model with an error of " +
+						maxError + " pixels. Found " + maxErrorFound);
+		}
+	}
+
+	/**
+	 * Finds the maximum interpolation error across all the cells
+	 */
+	static double computeMaxError( BicubicGrid_F64 grid, BicubicGrid_F64.Function function, ErrorFunction error ) {
+		double[] truth = new double[grid.dof];
+		double[] estimated = new double[grid.dof];
+
+		double found = 0.0;
+		for (int row = 1; row < grid.rows - 3; row++) {
+			for (int col = 1; col < grid.cols - 3; col++) {
+				for (int i = 0; i < SAMPLES_PER_AXIS; i++) {
+					double y = grid.nodeY(row) + (i + 0.5)*grid.cellSize/SAMPLES_PER_AXIS;
+					for (int j = 0; j < SAMPLES_PER_AXIS; j++) {
+						double x = grid.nodeX(col) + (j + 0.5)*grid.cellSize/SAMPLES_PER_AXIS;
+						function.evaluate(x, y, truth);
+						grid.interpolate(x, y, estimated);
+						if (Double.isNaN(truth[0]) || Double.isNaN(estimated[0]))
+							continue;
+						double e = error.compute(x, y, estimated, truth);
+						if (Double.isNaN(e))
+							return Double.POSITIVE_INFINITY;
+						found = Math.max(found, e);
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Converts a grid into a 32-bit grid
+	 */
+	static BicubicGrid_F32 convert( BicubicGrid_F64 src ) {
+		var dst = new BicubicGrid_F32();
+		dst.x0 = (float)src.x0;
+		dst.y0 = (float)src.y0;
+		dst.cellSize = (float)src.cellSize;
+		dst.cols = src.cols;
+		dst.rows = src.rows;
+		dst.dof = src.dof;
+		dst.data = new float[src.cols*src.rows*src.dof];
+		for (int i = 0; i < dst.data.length; i++) {
+			dst.data[i] = (float)src.data[i];
+		}
+		return dst;
+	}
+
+	/**
+	 * Computes the error in pixels between the interpolated and true value
+	 */
+	interface ErrorFunction {
+		double compute( double x, double y, double[] estimated, double[] truth );
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+/**
+ * Vector valued function which is sampled on a regular 2D grid and interpolated using bicubic Catmull-Rom
+ * interpolation. A border of one node is added before the first cell and two after the last cell so that the
+ * entire region can be interpolated. After it has been sampled it's read only and can be shared between threads.
+ *
+ * @author Peter Abeles
+ */
+public class BicubicGrid_F64 {
+	/** Coordinate of the lower extent of the region which can be interpolated */
+	public double x0, y0;
+	/** Distance between grid nodes */
+	public double cellSize;
+	/** Number of grid nodes along each axis. Includes the border. */
+	public int cols, rows;
+	/** Number of elements in the vector at each node */
+	public int dof;
+	/** Value of each node. Row-major with the vector's elements interleaved */
+	public double[] data = new double[0];
+
+	/**
+	 * Specifies the region which is to be interpolated and allocates memory
+	 *
+	 * @param x0 Lower x-coordinate of the region
+	 * @param y0 Lower y-coordinate of the region
+	 * @param x1 Upper x-coordinate of the region
+	 * @param y1 Upper y-coordinate of the region
+	 * @param cellSize Distance between nodes
+	 * @param dof Number of elements in the vector at each node
+	 */
+	public void setShape( double x0, double y0, double x1, double y1, double cellSize, int dof ) {
+		this.x0 = x0;
+		this.y0 = y0;
+		this.cellSize = cellSize;
+		this.dof = dof;
+		this.cols = (int)Math.ceil((x1 - x0)/cellSize) + 4;
+		this.rows = (int)Math.ceil((y1 - y0)/cellSize) + 4;
+
+		int length = cols*rows*dof;
+		if (data.length < length)
+			data = new double[length];
+	}
+
+	/** Returns the x-coordinate of a node */
+	public double nodeX( int col ) {
+		return x0 + (col - 1)*cellSize;
+	}
+
+	/** Returns the y-coordinate of a node */
+	public double nodeY( int row ) {
+		return y0 + (row - 1)*cellSize;
+	}
+
+	/**
+	 * Samples the function at every node
+	 */
+	public void sample( Function function ) {
+		double[] value = new double[dof];
+		for (int row = 0; row < rows; row++) {
+			double y = nodeY(row);
+			for (int col = 0; col < cols; col++) {
+				function.evaluate(nodeX(col), y, value);
+				System.arraycopy(value, 0, data, (row*cols + col)*dof, dof);
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the point can be interpolated
+	 */
+	public boolean isInBounds( double x, double y ) {
+		double fx = (x - x0)/cellSize;
+		double fy = (y - y0)/cellSize;
+		return fx >= 0 && fy >= 0 && fx <= cols - 4 && fy <= rows - 4;
+	}
+
+	/**
+	 * Interpolates the vector at the specified point. Must be inside the bounds.
+	 *
+	 * @param x x-coordinate
+	 * @param y y-coordinate
+	 * @param output (Output) Storage for the interpolated vector. Must have at least 'dof' elements.
+	 */
+	public void interpolate( double x, double y, double[] output ) {
+		double fx = (x - x0)/cellSize;
+		double fy = (y - y0)/cellSize;
+		int ix = (int)fx;
+		int iy = (int)fy;
+		if (ix > cols - 4) ix = cols - 4;
+		if (iy > rows - 4) iy = rows - 4;
+		double tx = fx - ix;
+		double ty = fy - iy;
+
+		// Catmull-Rom weights
+		double wx0 = 0.5*(-tx + 2*tx*tx - tx*tx*tx);
+		double wx1 = 0.5*(2 - 5*tx*tx + 3*tx*tx*tx);
+		double wx2 = 0.5*(tx + 4*tx*tx - 3*tx*tx*tx);
+		double wx3 = 0.5*(-tx*tx + tx*tx*tx);
+
+		double wy0 = 0.5*(-ty + 2*ty*ty - ty*ty*ty);
+		double wy1 = 0.5*(2 - 5*ty*ty + 3*ty*ty*ty);
+		double wy2 = 0.5*(ty + 4*ty*ty - 3*ty*ty*ty);
+		double wy3 = 0.5*(-ty*ty + ty*ty*ty);
+
+		int stride = cols*dof;
+		int index = (iy*cols + ix)*dof;
+		for (int i = 0; i < dof; i++) {
+			int idx = index + i;
+			double r0 = wx0*data[idx] + wx1*data[idx + dof] + wx2*data[idx + 2*dof] + wx3*data[idx + 3*dof];
+			idx += stride;
+			double r1 = wx0*data[idx] + wx1*data[idx + dof] + wx2*data[idx + 2*dof] + wx3*data[idx + 3*dof];
+			idx += stride;
+			double r2 = wx0*data[idx] + wx1*data[idx + dof] + wx2*data[idx + 2*dof] + wx3*data[idx + 3*dof];
+			idx += stride;
+			double r3 = wx0*data[idx] + wx1*data[idx + dof] + wx2*data[idx + 2*dof] + wx3*data[idx + 3*dof];
+
+			output[i] = wy0*r0 + wy1*r1 + wy2*r2 + wy3*r3;
+		}
+	}
+
+	/**
+	 * Function which is sampled at each node
+	 */
+	public interface Function {
+		void evaluate( double x, double y, double[] output );
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.struct.distort.Point2Transform2_F64;
+import georegression.struct.point.Point2D_F64;
+
+/**
+ * Approximates a 2D to 2D point transform using a precomputed {@link BicubicGrid_F64}. If a point is outside
+ * the grid, or the interpolated value is undefined, then the exact transform is used instead.
+ *
+ * @author Peter Abeles
+ */
+public class GridTransform2_F64 implements Point2Transform2_F64 {
+	/** Precomputed grid. Shared between threads. */
+	final BicubicGrid_F64 grid;
+	/** Exact transform used outside of the grid */
+	final Point2Transform2_F64 exact;
+
+	final double[] work = new double[2];
+
+	public GridTransform2_F64( BicubicGrid_F64 grid, Point2Transform2_F64 exact ) {
+		this.grid = grid;
+		this.exact = exact;
+	}
+
+	@Override public void compute( double x, double y, Point2D_F64 out ) {
+		if (!grid.isInBounds(x, y)) {
+			exact.compute(x, y, out);
+			return;
+		}
+
+		grid.interpolate(x, y, work);
+		if (Double.isNaN(work[0])) {
+			exact.compute(x, y, out);
+			return;
+		}
+		out.x = work[0];
+		out.y = work[1];
+	}
+
+	@Override public GridTransform2_F64 copyConcurrent() {
+		return new GridTransform2_F64(grid, exact.copyConcurrent());
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.struct.distort.Point2Transform3_F64;
+import georegression.struct.point.Point3D_F64;
+
+/**
+ * Approximates a transform from pixels to unit sphere coordinates using a precomputed {@link BicubicGrid_F64}.
+ * The interpolated vector is normalized so that it's on the unit sphere. If a point is outside the grid, or
+ * the interpolated value is undefined, then the exact transform is used instead.
+ *
+ * @author Peter Abeles
+ */
+public class GridTransformPtoS_F64 implements Point2Transform3_F64 {
+	/** Precomputed grid. Shared between threads. */
+	final BicubicGrid_F64 grid;
+	/** Exact transform used outside of the grid */
+	final Point2Transform3_F64 exact;
+
+	final double[] work = new double[3];
+
+	public GridTransformPtoS_F64( BicubicGrid_F64 grid, Point2Transform3_F64 exact ) {
+		this.grid = grid;
+		this.exact = exact;
+	}
+
+	@Override public void compute( double x, double y, Point3D_F64 out ) {
+		if (!grid.isInBounds(x, y)) {
+			exact.compute(x, y, out);
+			return;
+		}
+
+		grid.interpolate(x, y, work);
+		if (Double.isNaN(work[0])) {
+			exact.compute(x, y, out);
+			return;
+		}
+		double n = Math.sqrt(work[0]*work[0] + work[1]*work[1] + work[2]*work[2]);
+		out.x = work[0]/n;
+		out.y = work[1]/n;
+		out.z = work[2]/n;
+	}
+
+	@Override public GridTransformPtoS_F64 copyConcurrent() {
+		return new GridTransformPtoS_F64(grid, exact.copyConcurrent());
+	}
+}
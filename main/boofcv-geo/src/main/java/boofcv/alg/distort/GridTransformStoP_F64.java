@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.struct.distort.Point3Transform2_F64;
+import georegression.struct.point.Point2D_F64;
+
+/**
+ * Approximates a transform from unit sphere coordinates to pixels using a precomputed {@link BicubicGrid_F64}.
+ * The sphere is parameterized using an azimuthal equidistant projection around the +z axis, which is smooth
+ * everywhere except for directly behind the camera. If a point is outside the grid, or the interpolated value is
+ * undefined, then the exact transform is used instead.
+ *
+ * @author Peter Abeles
+ */
+public class GridTransformStoP_F64 implements Point3Transform2_F64 {
+	/** Precomputed grid. Shared between threads. */
+	final BicubicGrid_F64 grid;
+	/** Exact transform used outside of the grid */
+	final Point3Transform2_F64 exact;
+
+	final double[] work = new double[2];
+
+	public GridTransformStoP_F64( BicubicGrid_F64 grid, Point3Transform2_F64 exact ) {
+		this.grid = grid;
+		this.exact = exact;
+	}
+
+	@Override public void compute( double x, double y, double z, Point2D_F64 out ) {
+		double r = Math.sqrt(x*x + y*y);
+		double theta = Math.atan2(r, z);
+		double u = r == 0.0 ? 0.0 : theta*x/r;
+		double v = r == 0.0 ? 0.0 : theta*y/r;
+
+		if (!grid.isInBounds(u, v)) {
+			exact.compute(x, y, z, out);
+			return;
+		}
+
+		grid.interpolate(u, v, work);
+		if (Double.isNaN(work[0])) {
+			exact.compute(x, y, z, out);
+			return;
+		}
+		out.x = work[0];
+		out.y = work[1];
+	}
+
+	/**
+	 * Converts azimuthal equidistant coordinates into a point on the unit sphere
+	 */
+	public static void azimuthalToSphere( double u, double v, double[] sphere ) {
+		double theta = Math.sqrt(u*u + v*v);
+		if (theta == 0.0) {
+			sphere[0] = 0.0;
+			sphere[1] = 0.0;
+			sphere[2] = 1.0;
+			return;
+		}
+		double s = Math.sin(theta)/theta;
+		sphere[0] = u*s;
+		sphere[1] = v*s;
+		sphere[2] = Math.cos(theta);
+	}
+
+	@Override public GridTransformStoP_F64 copyConcurrent() {
+		return new GridTransformStoP_F64(grid, exact.copyConcurrent());
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.alg.distort.pinhole.PinholeNtoP_F32;
+import boofcv.alg.distort.pinhole.PinholeNtoP_F64;
+import boofcv.alg.distort.pinhole.PinholePtoN_F32;
+import boofcv.alg.distort.pinhole.PinholePtoN_F64;
+import boofcv.struct.distort.Point2Transform2_F32;
+import boofcv.struct.distort.Point2Transform2_F64;
+import boofcv.struct.distort.SequencePoint2Transform2_F32;
+import boofcv.struct.distort.SequencePoint2Transform2_F64;
+import georegression.struct.point.Point2D_F64;
+import lombok.Getter;
+
+/**
+ * <p>
+ * Approximates a {@link LensDistortionNarrowFOV} using precomputed grids which are interpolated with bicubic
+ * interpolation. Models like {@link boofcv.alg.distort.brown.RemoveBrownPtoN_F64} have to iteratively invert the
+ * distortion for every point, which is much more expensive than a grid lookup. One grid goes from distorted
+ * pixels to undistorted normalized image coordinates and another goes in the opposite direction. All other
+ * transforms are found by combining these grids with the linear pinhole model.
+ * </p>
+ *
+ * <p>
+ * When the grids are built the error is checked and the grids are refined until the error in pixels is less
+ * than the requested maximum. Points outside the image are handled by the exact model. After construction
+ * this class is read only and can be shared between threads. Transforms it creates follow the usual rules and
+ * should be copied with copyConcurrent().
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LensDistortionGridNarrowFOV implements LensDistortionNarrowFOV {
+	/** The model being approximated */
+	final @Getter LensDistortionNarrowFOV exact;
+
+	/** Largest error in pixels found for each grid when they were built */
+	@Getter double errorUndistort, errorDistort;
+
+	// Distorted pixels to undistorted normalized image coordinates
+	final @Getter BicubicGrid_F64 gridUndistort = new BicubicGrid_F64();
+	// Undistorted normalized image coordinates to distorted pixels
+	final @Getter BicubicGrid_F64 gridDistort = new BicubicGrid_F64();
+
+	// 32-bit copies of the grids
+	final BicubicGrid_F32 gridUndistort32;
+	final BicubicGrid_F32 gridDistort32;
+
+	// Pinhole camera parameters
+	double fx, fy, skew, cx, cy;
+
+	/**
+	 * Builds the grids
+	 *
+	 * @param exact The lens model which is being approximated
+	 * @param width Image width
+	 * @param height Image height
+	 * @param maxError Maximum allowed error in pixels
+	 */
+	public LensDistortionGridNarrowFOV( LensDistortionNarrowFOV exact, int width, int height, double maxError ) {
+		this.exact = exact;
+		estimatePinhole();
+
+		var builder = new BicubicGridBuilder(maxError);
+		Point2Transform2_F64 p_to_n = exact.undistort_F64(true, false);
+		Point2Transform2_F64 n_to_p = exact.distort_F64(false, true);
+		var tmp = new Point2D_F64();
+
+		// Error is measured in undistorted pixels
+		builder.build(gridUndistort, -1, -1, width, height, 1.0, 2,
+				( x, y, output ) -> {
+					p_to_n.compute(x, y, tmp);
+					output[0] = tmp.x;
+					output[1] = tmp.y;
+				},
+				( x, y, estimated, truth ) -> {
+					double dx = estimated[0] - truth[0];
+					double dy = estimated[1] - truth[1];
+					return Math.hypot(fx*dx + skew*dy, fy*dy);
+				});
+		errorUndistort = builder.maxErrorFound;
+
+		// Find the region in undistorted normalized image coordinates which the image covers
+		double x0 = Double.MAX_VALUE, y0 = Double.MAX_VALUE;
+		double x1 = -Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+		for (int i = 0; i <= width; i++) {
+			for (int y : new int[]{-1, height}) {
+				p_to_n.compute(i, y, tmp);
+				x0 = Math.min(x0, tmp.x); x1 = Math.max(x1, tmp.x);
+				y0 = Math.min(y0, tmp.y); y1 = Math.max(y1, tmp.y);
+			}
+		}
+		for (int i = 0; i <= height; i++) {
+			for (int x : new int[]{-1, width}) {
+				p_to_n.compute(x, i, tmp);
+				x0 = Math.min(x0, tmp.x); x1 = Math.max(x1, tmp.x);
+				y0 = Math.min(y0, tmp.y); y1 = Math.max(y1, tmp.y);
+			}
+		}
+
+		// Error is measured in distorted pixels
+		builder.build(gridDistort, x0, y0, x1, y1, Math.max(fx, fy), 2,
+				( x, y, output ) -> {
+					n_to_p.compute(x, y, tmp);
+					output[0] = tmp.x;
+					output[1] = tmp.y;
+				},
+				( x, y, estimated, truth ) -> Math.hypot(estimated[0] - truth[0], estimated[1] - truth[1]));
+		errorDistort = builder.maxErrorFound;
+
+		gridUndistort32 = BicubicGridBuilder.convert(gridUndistort);
+		gridDistort32 = BicubicGridBuilder.convert(gridDistort);
+	}
+
+	/**
+	 * Finds the pinhole parameters by sampling the linear pixel to normalized transform
+	 */
+	void estimatePinhole() {
+		Point2Transform2_F64 p_to_n = exact.normalized_F64();
+		var n0 = new Point2D_F64();
+		var a = new Point2D_F64();
+		var b = new Point2D_F64();
+		p_to_n.compute(0, 0, n0);
+		p_to_n.compute(1, 0, a);
+		p_to_n.compute(0, 1, b);
+
+		fx = 1.0/(a.x - n0.x);
+		fy = 1.0/(b.y - n0.y);
+		skew = -(b.x - n0.x)*fx*fy;
+		cy = -n0.y*fy;
+		cx = skew*cy/fy - fx*n0.x;
+	}
+
+	@Override public Point2Transform2_F64 distort_F64( boolean pixelIn, boolean pixelOut ) {
+		Point2Transform2_F64 n_to_p = new GridTransform2_F64(gridDistort, exact.distort_F64(false, true));
+		if (pixelIn) {
+			var p_to_n = new PinholePtoN_F64().setK(fx, fy, skew, cx, cy);
+			if (pixelOut)
+				return new SequencePoint2Transform2_F64(p_to_n, n_to_p);
+			return new SequencePoint2Transform2_F64(p_to_n, n_to_p, new PinholePtoN_F64().setK(fx, fy, skew, cx, cy));
+		} else {
+			if (pixelOut)
+				return n_to_p;
+			return new SequencePoint2Transform2_F64(n_to_p, new PinholePtoN_F64().setK(fx, fy, skew, cx, cy));
+		}
+	}
+
+	@Override public Point2Transform2_F32 distort_F32( boolean pixelIn, boolean pixelOut ) {
+		Point2Transform2_F32 n_to_p = new GridTransform2_F32(gridDistort32, exact.distort_F32(false, true));
+		if (pixelIn) {
+			var p_to_n = new PinholePtoN_F32().setK(fx, fy, skew, cx, cy);
+			if (pixelOut)
+				return new SequencePoint2Transform2_F32(p_to_n, n_to_p);
+			return new SequencePoint2Transform2_F32(p_to_n, n_to_p, new PinholePtoN_F32().setK(fx, fy, skew, cx, cy));
+		} else {
+			if (pixelOut)
+				return n_to_p;
+			return new SequencePoint2Transform2_F32(n_to_p, new PinholePtoN_F32().setK(fx, fy, skew, cx, cy));
+		}
+	}
+
+	@Override public Point2Transform2_F64 undistort_F64( boolean pixelIn, boolean pixelOut ) {
+		Point2Transform2_F64 p_to_n = new GridTransform2_F64(gridUndistort, exact.undistort_F64(true, false));
+		if (pixelIn) {
+			if (pixelOut)
+				return new Transform2ThenPixel_F64(p_to_n).set(fx, fy, skew, cx, cy);
+			return p_to_n;
+		} else {
+			var n_to_p = new PinholeNtoP_F64().setK(fx, fy, skew, cx, cy);
+			if (pixelOut)
+				return new Transform2ThenPixel_F64(new SequencePoint2Transform2_F64(n_to_p, p_to_n)).set(fx, fy, skew, cx, cy);
+			return new SequencePoint2Transform2_F64(n_to_p, p_to_n);
+		}
+	}
+
+	@Override public Point2Transform2_F32 undistort_F32( boolean pixelIn, boolean pixelOut ) {
+		Point2Transform2_F32 p_to_n = new GridTransform2_F32(gridUndistort32, exact.undistort_F32(true, false));
+		if (pixelIn) {
+			if (pixelOut)
+				return new Transform2ThenPixel_F32(p_to_n).set(fx, fy, skew, cx, cy);
+			return p_to_n;
+		} else {
+			var n_to_p = new PinholeNtoP_F32().setK(fx, fy, skew, cx, cy);
+			if (pixelOut)
+				return new Transform2ThenPixel_F32(new SequencePoint2Transform2_F32(n_to_p, p_to_n)).set(fx, fy, skew, cx, cy);
+			return new SequencePoint2Transform2_F32(n_to_p, p_to_n);
+		}
+	}
+
+	@Override public Point2Transform2_F32 normalized_F32() {
+		return exact.normalized_F32();
+	}
+
+	@Override public Point2Transform2_F64 normalized_F64() {
+		return exact.normalized_F64();
+	}
+}
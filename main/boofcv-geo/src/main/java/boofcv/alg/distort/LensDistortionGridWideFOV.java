@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.struct.distort.Point2Transform3_F32;
+import boofcv.struct.distort.Point2Transform3_F64;
+import boofcv.struct.distort.Point3Transform2_F32;
+import boofcv.struct.distort.Point3Transform2_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import lombok.Getter;
+
+/**
+ * <p>
+ * Approximates a {@link LensDistortionWideFOV} using precomputed grids which are interpolated with bicubic
+ * interpolation. Models like {@link boofcv.alg.distort.universal.UniOmniPtoS_F64} have to iteratively invert the
+ * distortion for every point, which is much more expensive than a grid lookup. The unit sphere is parameterized
+ * with an azimuthal equidistant projection, see {@link GridTransformStoP_F64}.
+ * </p>
+ *
+ * <p>
+ * When the grids are built the error is checked and the grids are refined until the error in pixels is less
+ * than the requested maximum. Points outside the grid are handled by the exact model. After construction
+ * this class is read only and can be shared between threads.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LensDistortionGridWideFOV implements LensDistortionWideFOV {
+	/** The model being approximated */
+	final @Getter LensDistortionWideFOV exact;
+
+	/** Largest error in pixels found for each grid when they were built */
+	@Getter double errorUndistort, errorDistort;
+
+	// Distorted pixels to unit sphere
+	final @Getter BicubicGrid_F64 gridUndistort = new BicubicGrid_F64();
+	// Azimuthal equidistant coordinates to distorted pixels
+	final @Getter BicubicGrid_F64 gridDistort = new BicubicGrid_F64();
+
+	// 32-bit copies of the grids
+	final BicubicGrid_F32 gridUndistort32;
+	final BicubicGrid_F32 gridDistort32;
+
+	/**
+	 * Builds the grids
+	 *
+	 * @param exact The lens model which is being approximated
+	 * @param width Image width
+	 * @param height Image height
+	 * @param maxError Maximum allowed error in pixels
+	 */
+	public LensDistortionGridWideFOV( LensDistortionWideFOV exact, int width, int height, double maxError ) {
+		this.exact = exact;
+
+		var builder = new BicubicGridBuilder(maxError);
+		Point2Transform3_F64 p_to_s = exact.undistortPtoS_F64();
+		Point3Transform2_F64 s_to_p = exact.distortStoP_F64();
+		var tmp2 = new Point2D_F64();
+		var tmp3 = new Point3D_F64();
+
+		// Error is measured by projecting the interpolated point back into the image
+		builder.build(gridUndistort, -1, -1, width, height, 1.0, 3,
+				( x, y, output ) -> {
+					p_to_s.compute(x, y, tmp3);
+					output[0] = tmp3.x;
+					output[1] = tmp3.y;
+					output[2] = tmp3.z;
+				},
+				( x, y, estimated, truth ) -> {
+					double n = Math.sqrt(estimated[0]*estimated[0] + estimated[1]*estimated[1] + estimated[2]*estimated[2]);
+					s_to_p.compute(estimated[0]/n, estimated[1]/n, estimated[2]/n, tmp2);
+					return tmp2.distance(x, y);
+				});
+		errorUndistort = builder.maxErrorFound;
+
+		// Find the region in azimuthal coordinates the image covers
+		double maxTheta = 0.0;
+		for (int i = 0; i <= width; i++) {
+			maxTheta = Math.max(maxTheta, angle(p_to_s, i, -1, tmp3));
+			maxTheta = Math.max(maxTheta, angle(p_to_s, i, height, tmp3));
+		}
+		for (int i = 0; i <= height; i++) {
+			maxTheta = Math.max(maxTheta, angle(p_to_s, -1, i, tmp3));
+			maxTheta = Math.max(maxTheta, angle(p_to_s, width, i, tmp3));
+		}
+		// The grid is square so its corners are further from the optical axis. Make sure the corners don't get
+		// close to directly behind the camera, where the parameterization is singular. Points which are
+		// further out are handled by the exact model.
+		maxTheta = Math.min(maxTheta, 0.95*Math.PI/Math.sqrt(2.0));
+
+		// Approximate pixels per radian at the image center
+		s_to_p.compute(0, 0, 1, tmp2);
+		double centerX = tmp2.x, centerY = tmp2.y;
+		s_to_p.compute(Math.sin(0.01), 0, Math.cos(0.01), tmp2);
+		double pixelsPerRadian = Math.max(1.0, tmp2.distance(centerX, centerY)/0.01);
+
+		double[] sphere = new double[3];
+		builder.build(gridDistort, -maxTheta, -maxTheta, maxTheta, maxTheta, pixelsPerRadian, 2,
+				( u, v, output ) -> {
+					GridTransformStoP_F64.azimuthalToSphere(u, v, sphere);
+					s_to_p.compute(sphere[0], sphere[1], sphere[2], tmp2);
+					output[0] = tmp2.x;
+					output[1] = tmp2.y;
+				},
+				( x, y, estimated, truth ) -> Math.hypot(estimated[0] - truth[0], estimated[1] - truth[1]));
+		errorDistort = builder.maxErrorFound;
+
+		gridUndistort32 = BicubicGridBuilder.convert(gridUndistort);
+		gridDistort32 = BicubicGridBuilder.convert(gridDistort);
+	}
+
+	/**
+	 * Angle between the optical axis and the pixel
+	 */
+	static double angle( Point2Transform3_F64 p_to_s, double x, double y, Point3D_F64 tmp ) {
+		p_to_s.compute(x, y, tmp);
+		return Math.atan2(Math.sqrt(tmp.x*tmp.x + tmp.y*tmp.y), tmp.z);
+	}
+
+	@Override public Point3Transform2_F64 distortStoP_F64() {
+		return new GridTransformStoP_F64(gridDistort, exact.distortStoP_F64());
+	}
+
+	@Override public Point3Transform2_F32 distortStoP_F32() {
+		return new GridTransformStoP_F32(gridDistort32, exact.distortStoP_F32());
+	}
+
+	@Override public Point2Transform3_F64 undistortPtoS_F64() {
+		return new GridTransformPtoS_F64(gridUndistort, exact.undistortPtoS_F64());
+	}
+
+	@Override public Point2Transform3_F32 undistortPtoS_F32() {
+		return new GridTransformPtoS_F32(gridUndistort32, exact.undistortPtoS_F32());
+	}
+}
@@ -29,6 +29,7 @@ import georegression.struct.point.Point4D_F64;
 import georegression.struct.se.Se3_F64;
 import georegression.transform.se.SePointOps_F64;
 import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_I32;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -50,23 +51,16 @@ import java.util.Map;
  */
 public class BundleAdjustmentMetricResidualFunction
 		implements BundleAdjustmentSchur.FunctionResiduals<SceneStructureMetric> {
-	private SceneStructureMetric structure;
-	private SceneObservations observations;
-
-	// feature location in world coordinates
-	private final Point3D_F64 worldPt = new Point3D_F64();
+	SceneStructureMetric structure;
+	SceneObservations observations;
 
 	// number of parameters being optimised
 	private int numParameters;
 	// number of observations.  2 for each point in each view
 	private int numObservations;
 
-	// local variable which stores the predicted location of the feature in the camera frame
-	private final Point3D_F64 cameraPt = new Point3D_F64();
-
-	// Storage for rendered output
-	private final Point2D_F64 predictedPixel = new Point2D_F64();
-	private final PointIndex2D_F64 observedPixel = new PointIndex2D_F64();
+	// Index of the first observation in each view
+	final DogArray_I32 viewObservationOffsets = new DogArray_I32();
 
 	// Used to write the "unknown" parameters into the scene
 	private final CodecSceneStructureMetric codec = new CodecSceneStructureMetric();
@@ -75,10 +69,11 @@ public class BundleAdjustmentMetricResidualFunction
 	private final DogArray<Se3_F64> storageSe3 = new DogArray<>(Se3_F64::new);
 	// Look up workspace by view ID when relative view
 	private final Map<SceneStructureMetric.View, Se3_F64> mapWorldToView = new HashMap<>();
+	// World to view transform for every view. Computed before any points are projected
+	private final DogArray<Se3_F64> listWorldToView = new DogArray<>(Se3_F64::new);
 
-	// Storage for 3D points in Cartesian and homogenous coordinates
-	private final Point3D_F64 p3 = new Point3D_F64();
-	private final Point4D_F64 p4 = new Point4D_F64();
+	// Workspace used when projecting points in the calling thread
+	private final Workspace workspace = new Workspace();
 
 	/**
 	 * Specifies the scenes structure and observed feature locations
@@ -92,6 +87,7 @@ public class BundleAdjustmentMetricResidualFunction
 		numObservations = observations.getObservationCount();
 		numParameters = structure.getParameterCount();
 		structure.assignIDsToRigidPoints();
+		observations.computeViewOffsets(viewObservationOffsets);
 
 		// declare storage and create a look up table for world to view for all relative views
 		mapWorldToView.clear();
@@ -121,71 +117,103 @@ public class BundleAdjustmentMetricResidualFunction
 		// write the current parameters into the scene's structure
 		codec.decode(input, structure);
 
-		// Project the general scene now
-		if (structure.isHomogenous())
-			project4(output);
-		else
-			project3(output);
+		// Relative views depend on their parents, so this needs to be done in order
+		listWorldToView.resize(structure.views.size);
+		for (int viewIndex = 0; viewIndex < structure.views.size; viewIndex++) {
+			listWorldToView.get(viewIndex).setTo(lookupWorldToView(structure.views.get(viewIndex)));
+		}
+
+		computeResiduals(output);
 	}
 
 	/**
-	 * projection from 3D coordinates
+	 * Computes residuals for every view. Each view can be processed independently.
 	 */
-	private void project3( double[] output ) {
-		int observationIndex = 0;
-		for (int viewIndex = 0; viewIndex < structure.views.size; viewIndex++) {
-			SceneStructureMetric.View view = structure.views.get(viewIndex);
-			SceneStructureCommon.Camera camera = structure.cameras.get(view.camera);
-
-			Se3_F64 world_to_view = lookupWorldToView(view);
-
-			//=========== Project General Points in this View
-			{
-				SceneObservations.View obsView = observations.views.get(viewIndex);
-				for (int i = 0; i < obsView.size(); i++) {
-					obsView.get(i, observedPixel);
-					SceneStructureCommon.Point worldPt = structure.points.data[observedPixel.index];
-					worldPt.get(p3);
+	protected void computeResiduals( double[] output ) {
+		projectViews(workspace, 0, structure.views.size, output);
+	}
 
-					SePointOps_F64.transform(world_to_view, p3, cameraPt);
+	/**
+	 * Projects all the points observed by views in the specified range and computes their residuals
+	 *
+	 * @param view0 First view, inclusive
+	 * @param view1 Last view, exclusive
+	 */
+	protected void projectViews( Workspace ws, int view0, int view1, double[] output ) {
+		for (int viewIndex = view0; viewIndex < view1; viewIndex++) {
+			// The body frame of a rig has no camera and no observations
+			if (structure.views.data[viewIndex].camera < 0)
+				continue;
 
-					camera.model.project(cameraPt.x, cameraPt.y, cameraPt.z, predictedPixel);
+			// Project the general scene now
+			if (structure.isHomogenous())
+				project4(ws, viewIndex, output);
+			else
+				project3(ws, viewIndex, output);
+		}
+	}
 
-					int outputIndex = observationIndex*2;
-					output[outputIndex] = predictedPixel.x - observedPixel.p.x;
-					output[outputIndex + 1] = predictedPixel.y - observedPixel.p.y;
-					observationIndex++;
-				}
+	/**
+	 * projection from 3D coordinates
+	 */
+	private void project3( Workspace ws, int viewIndex, double[] output ) {
+		int observationIndex = viewObservationOffsets.get(viewIndex);
+		SceneStructureMetric.View view = structure.views.get(viewIndex);
+		SceneStructureCommon.Camera camera = structure.cameras.get(view.camera);
+
+		Se3_F64 world_to_view = listWorldToView.get(viewIndex);
+
+		final Point3D_F64 p3 = ws.p3;
+		final Point3D_F64 cameraPt = ws.cameraPt;
+		final Point2D_F64 predictedPixel = ws.predictedPixel;
+		final PointIndex2D_F64 observedPixel = ws.observedPixel;
+
+		//=========== Project General Points in this View
+		{
+			SceneObservations.View obsView = observations.views.get(viewIndex);
+			for (int i = 0; i < obsView.size(); i++) {
+				obsView.get(i, observedPixel);
+				SceneStructureCommon.Point worldPt = structure.points.data[observedPixel.index];
+				worldPt.get(p3);
+
+				SePointOps_F64.transform(world_to_view, p3, cameraPt);
+
+				camera.model.project(cameraPt.x, cameraPt.y, cameraPt.z, predictedPixel);
+
+				int outputIndex = observationIndex*2;
+				output[outputIndex] = predictedPixel.x - observedPixel.p.x;
+				output[outputIndex + 1] = predictedPixel.y - observedPixel.p.y;
+				observationIndex++;
 			}
+		}
 
-			//=========== Project Rigid Object Points in this View
-			if (observations.hasRigid()) {
-				SceneObservations.View obsView = observations.viewsRigid.get(viewIndex);
-				for (int i = 0; i < obsView.size(); i++) {
-					obsView.get(i, observedPixel);
-
-					// Use lookup table to figure out which rigid object it belongs to
-					int rigidIndex = structure.lookupRigid[observedPixel.index];
-					SceneStructureMetric.Rigid rigid = structure.rigids.get(rigidIndex);
-					// Compute the point's index on the rigid object
-					int pointIndex = observedPixel.index - rigid.indexFirst;
-
-					// Load the 3D location of point on the rigid body
-					SceneStructureCommon.Point objectPt = rigid.points[pointIndex];
-					objectPt.get(p3);
-
-					// Transform to world frame and from world to camera
-					SePointOps_F64.transform(rigid.object_to_world, p3, worldPt);
-					SePointOps_F64.transform(world_to_view, worldPt, cameraPt);
-
-					// Project and compute residual
-					camera.model.project(cameraPt.x, cameraPt.y, cameraPt.z, predictedPixel);
-
-					int outputIndex = observationIndex*2;
-					output[outputIndex] = predictedPixel.x - observedPixel.p.x;
-					output[outputIndex + 1] = predictedPixel.y - observedPixel.p.y;
-					observationIndex++;
-				}
+		//=========== Project Rigid Object Points in this View
+		if (observations.hasRigid()) {
+			SceneObservations.View obsView = observations.viewsRigid.get(viewIndex);
+			for (int i = 0; i < obsView.size(); i++) {
+				obsView.get(i, observedPixel);
+
+				// Use lookup table to figure out which rigid object it belongs to
+				int rigidIndex = structure.lookupRigid[observedPixel.index];
+				SceneStructureMetric.Rigid rigid = structure.rigids.get(rigidIndex);
+				// Compute the point's index on the rigid object
+				int pointIndex = observedPixel.index - rigid.indexFirst;
+
+				// Load the 3D location of point on the rigid body
+				SceneStructureCommon.Point objectPt = rigid.points[pointIndex];
+				objectPt.get(p3);
+
+				// Transform to world frame and from world to camera
+				SePointOps_F64.transform(rigid.object_to_world, p3, ws.worldPt);
+				SePointOps_F64.transform(world_to_view, ws.worldPt, cameraPt);
+
+				// Project and compute residual
+				camera.model.project(cameraPt.x, cameraPt.y, cameraPt.z, predictedPixel);
+
+				int outputIndex = observationIndex*2;
+				output[outputIndex] = predictedPixel.x - observedPixel.p.x;
+				output[outputIndex + 1] = predictedPixel.y - observedPixel.p.y;
+				observationIndex++;
 			}
 		}
 	}
@@ -193,63 +221,66 @@ public class BundleAdjustmentMetricResidualFunction
 	/**
 	 * projection from homogenous coordinates
 	 */
-	private void project4( double[] output ) {
-		int observationIndex = 0;
-		for (int viewIndex = 0; viewIndex < structure.views.size; viewIndex++) {
-			SceneStructureMetric.View view = structure.views.get(viewIndex);
-			SceneStructureCommon.Camera camera = structure.cameras.get(view.camera);
+	private void project4( Workspace ws, int viewIndex, double[] output ) {
+		int observationIndex = viewObservationOffsets.get(viewIndex);
+		SceneStructureMetric.View view = structure.views.get(viewIndex);
+		SceneStructureCommon.Camera camera = structure.cameras.get(view.camera);
 
-			Se3_F64 world_to_view = lookupWorldToView(view);
+		Se3_F64 world_to_view = listWorldToView.get(viewIndex);
 
-			//=========== Project General Points in this View
-			{
-				SceneObservations.View obsView = observations.views.get(viewIndex);
+		final Point4D_F64 p4 = ws.p4;
+		final Point3D_F64 cameraPt = ws.cameraPt;
+		final Point2D_F64 predictedPixel = ws.predictedPixel;
+		final PointIndex2D_F64 observedPixel = ws.observedPixel;
 
-				for (int i = 0; i < obsView.size(); i++) {
-					obsView.get(i, observedPixel);
-					SceneStructureCommon.Point worldPt = structure.points.data[observedPixel.index];
-					worldPt.get(p4);
+		//=========== Project General Points in this View
+		{
+			SceneObservations.View obsView = observations.views.get(viewIndex);
 
-					// TODO Explain why this is correct. The last row is omitted when converted to 3D
-					SePointOps_F64.transformV(world_to_view, p4, cameraPt);
+			for (int i = 0; i < obsView.size(); i++) {
+				obsView.get(i, observedPixel);
+				SceneStructureCommon.Point worldPt = structure.points.data[observedPixel.index];
+				worldPt.get(p4);
 
-					camera.model.project(cameraPt.x, cameraPt.y, cameraPt.z, predictedPixel);
+				// TODO Explain why this is correct. The last row is omitted when converted to 3D
+				SePointOps_F64.transformV(world_to_view, p4, cameraPt);
 
-					int outputIndex = observationIndex*2;
-					output[outputIndex] = predictedPixel.x - observedPixel.p.x;
-					output[outputIndex + 1] = predictedPixel.y - observedPixel.p.y;
-					observationIndex++;
-				}
+				camera.model.project(cameraPt.x, cameraPt.y, cameraPt.z, predictedPixel);
+
+				int outputIndex = observationIndex*2;
+				output[outputIndex] = predictedPixel.x - observedPixel.p.x;
+				output[outputIndex + 1] = predictedPixel.y - observedPixel.p.y;
+				observationIndex++;
 			}
+		}
 
-			//=========== Project Rigid Object Points in this View
-			if (observations.hasRigid()) {
-				SceneObservations.View obsView = observations.viewsRigid.get(viewIndex);
+		//=========== Project Rigid Object Points in this View
+		if (observations.hasRigid()) {
+			SceneObservations.View obsView = observations.viewsRigid.get(viewIndex);
 
-				for (int i = 0; i < obsView.size(); i++) {
-					obsView.get(i, observedPixel);
+			for (int i = 0; i < obsView.size(); i++) {
+				obsView.get(i, observedPixel);
 
-					// Use lookup table to figure out which rigid object it belongs to
-					int rigidIndex = structure.lookupRigid[observedPixel.index];
-					SceneStructureMetric.Rigid rigid = structure.rigids.get(rigidIndex);
-					// Compute the point's index on the rigid object
-					int pointIndex = observedPixel.index - rigid.indexFirst;
+				// Use lookup table to figure out which rigid object it belongs to
+				int rigidIndex = structure.lookupRigid[observedPixel.index];
+				SceneStructureMetric.Rigid rigid = structure.rigids.get(rigidIndex);
+				// Compute the point's index on the rigid object
+				int pointIndex = observedPixel.index - rigid.indexFirst;
 
-					// Load the 3D location of point on the rigid body
-					SceneStructureCommon.Point objectPt = rigid.points[pointIndex];
-					objectPt.get(p4);
+				// Load the 3D location of point on the rigid body
+				SceneStructureCommon.Point objectPt = rigid.points[pointIndex];
+				objectPt.get(p4);
 
-					// Transform to world frame and from world to camera
-					SePointOps_F64.transformV(rigid.object_to_world, p4, worldPt);
-					SePointOps_F64.transform(world_to_view, worldPt, cameraPt);
+				// Transform to world frame and from world to camera
+				SePointOps_F64.transformV(rigid.object_to_world, p4, ws.worldPt);
+				SePointOps_F64.transform(world_to_view, ws.worldPt, cameraPt);
 
-					camera.model.project(cameraPt.x, cameraPt.y, cameraPt.z, predictedPixel);
+				camera.model.project(cameraPt.x, cameraPt.y, cameraPt.z, predictedPixel);
 
-					int outputIndex = observationIndex*2;
-					output[outputIndex] = predictedPixel.x - observedPixel.p.x;
-					output[outputIndex + 1] = predictedPixel.y - observedPixel.p.y;
-					observationIndex++;
-				}
+				int outputIndex = observationIndex*2;
+				output[outputIndex] = predictedPixel.x - observedPixel.p.x;
+				output[outputIndex + 1] = predictedPixel.y - observedPixel.p.y;
+				observationIndex++;
 			}
 		}
 	}
@@ -277,4 +308,20 @@ public class BundleAdjustmentMetricResidualFunction
 		}
 		return world_to_view;
 	}
+
+	/**
+	 * Storage used while projecting points. One for each thread.
+	 */
+	protected static class Workspace {
+		// feature location in world coordinates
+		final Point3D_F64 worldPt = new Point3D_F64();
+		// local variable which stores the predicted location of the feature in the camera frame
+		final Point3D_F64 cameraPt = new Point3D_F64();
+		// Storage for rendered output
+		final Point2D_F64 predictedPixel = new Point2D_F64();
+		final PointIndex2D_F64 observedPixel = new PointIndex2D_F64();
+		// Storage for 3D points in Cartesian and homogenous coordinates
+		final Point3D_F64 p3 = new Point3D_F64();
+		final Point4D_F64 p4 = new Point4D_F64();
+	}
 }
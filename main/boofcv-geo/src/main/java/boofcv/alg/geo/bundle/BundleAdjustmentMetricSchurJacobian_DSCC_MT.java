@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.concurrency.BoofConcurrency;
+import org.ejml.data.DMatrix;
+import org.ejml.data.DMatrixSparseTriplet;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link BundleAdjustmentMetricSchurJacobian_DSCC}. Views are split into blocks and
+ * each block writes to its own triplet matrices. Triplets are then merged in the same order as the single
+ * threaded version, producing identical sparse matrices.
+ *
+ * <p>NOTE: Camera models must not modify their internal state when computing the Jacobian.</p>
+ *
+ * @author Peter Abeles
+ */
+public class BundleAdjustmentMetricSchurJacobian_DSCC_MT extends BundleAdjustmentMetricSchurJacobian_DSCC {
+	// Workspace and output for each thread
+	private final GrowArray<BlockWork> blocks = new GrowArray<>(BlockWork::new);
+
+	@Override protected void computeJacobian( double[] input, DMatrix leftPoint, DMatrix rightView ) {
+		BoofConcurrency.loopBlocks(0, structure.views.size, blocks, ( work, idx0, idx1 ) -> {
+			work.left.reshape(leftPoint.getNumRows(), leftPoint.getNumCols());
+			work.right.reshape(rightView.getNumRows(), rightView.getNumCols());
+			computeViews(work, idx0, idx1, input, work.left, work.right);
+		});
+
+		// Blocks are in order of views, so the triplets will be in the same order as the single threaded version
+		for (int i = 0; i < blocks.size(); i++) {
+			BlockWork work = blocks.get(i);
+			appendTriplets(work.left, (DMatrixSparseTriplet)leftPoint);
+			appendTriplets(work.right, (DMatrixSparseTriplet)rightView);
+		}
+	}
+
+	static void appendTriplets( DMatrixSparseTriplet src, DMatrixSparseTriplet dst ) {
+		for (int i = 0; i < src.nz_length; i++) {
+			dst.addItem(src.nz_rowcol.data[i*2], src.nz_rowcol.data[i*2 + 1], src.nz_value.data[i]);
+		}
+	}
+
+	static class BlockWork extends Workspace {
+		final DMatrixSparseTriplet left = new DMatrixSparseTriplet(1, 1, 1);
+		final DMatrixSparseTriplet right = new DMatrixSparseTriplet(1, 1, 1);
+	}
+}
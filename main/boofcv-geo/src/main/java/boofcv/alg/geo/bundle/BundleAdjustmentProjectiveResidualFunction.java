@@ -27,6 +27,7 @@ import boofcv.struct.geo.PointIndex2D_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.point.Point4D_F64;
+import org.ddogleg.struct.DogArray_I32;
 
 /**
  * <p>
@@ -45,27 +46,22 @@ import georegression.struct.point.Point4D_F64;
  */
 public class BundleAdjustmentProjectiveResidualFunction
 		implements BundleAdjustmentSchur.FunctionResiduals<SceneStructureProjective> {
-	private SceneStructureProjective structure;
-	private SceneObservations observations;
+	SceneStructureProjective structure;
+	SceneObservations observations;
 
 	// number of parameters being optimised
 	private int numParameters;
 	// number of observations.  2 for each point in each view
 	private int numObservations;
 
-	// Storage for rendered output
-	private final Point2D_F64 predictedPixel = new Point2D_F64();
-	private final PointIndex2D_F64 observedPixel = new PointIndex2D_F64();
+	// Index of the first observation in each view
+	final DogArray_I32 viewObservationOffsets = new DogArray_I32();
 
 	// Used to write the "unknown" paramters into the scene
 	private final CodecSceneStructureProjective codec = new CodecSceneStructureProjective();
 
-	// Point in world frame
-	private final Point3D_F64 p3 = new Point3D_F64();
-	private final Point4D_F64 p4 = new Point4D_F64();
-
-	// Pixel in homogenous image coordinate
-	private final Point3D_F64 pix = new Point3D_F64();
+	// Workspace used when projecting points in the calling thread
+	private final Workspace workspace = new Workspace();
 
 	/**
 	 * Specifies the scenes structure and observed feature locations
@@ -78,6 +74,7 @@ public class BundleAdjustmentProjectiveResidualFunction
 
 		numObservations = observations.getObservationCount();
 		numParameters = structure.getParameterCount();
+		observations.computeViewOffsets(viewObservationOffsets);
 	}
 
 	@Override
@@ -96,69 +93,108 @@ public class BundleAdjustmentProjectiveResidualFunction
 		// write the current parameters into the scene's structure
 		codec.decode(input, structure);
 
-		if (structure.isHomogenous())
-			project4(output);
-		else
-			project3(output);
+		computeResiduals(output);
+	}
+
+	/**
+	 * Computes residuals for every view. Each view can be processed independently.
+	 */
+	protected void computeResiduals( double[] output ) {
+		projectViews(workspace, 0, structure.views.size, output);
+	}
+
+	/**
+	 * Projects all the points observed by views in the specified range and computes their residuals
+	 *
+	 * @param view0 First view, inclusive
+	 * @param view1 Last view, exclusive
+	 */
+	protected void projectViews( Workspace ws, int view0, int view1, double[] output ) {
+		for (int viewIndex = view0; viewIndex < view1; viewIndex++) {
+			if (structure.isHomogenous())
+				project4(ws, viewIndex, output);
+			else
+				project3(ws, viewIndex, output);
+		}
 	}
 
 	/**
 	 * projection from 3D coordinates
 	 */
-	private void project3( double[] output ) {
-		int observationIndex = 0;
-		for (int viewIndex = 0; viewIndex < structure.views.size; viewIndex++) {
-			SceneStructureProjective.View view = structure.views.data[viewIndex];
-			SceneObservations.View obsView = observations.views.data[viewIndex];
-			SceneStructureCommon.Camera camera = structure.cameras.get(view.camera);
-
-			for (int i = 0; i < obsView.size(); i++) {
-				obsView.get(i, observedPixel);
-				SceneStructureCommon.Point worldPt = structure.points.data[observedPixel.index];
-				worldPt.get(p3);
-
-				// Apply projective camera to point in world coordinates
-				PerspectiveOps.renderPixel(view.worldToView, p3, pix);
-
-				// Apply camera model to pixel in homogenous coordinates
-				camera.model.project(pix.x, pix.y, pix.z, predictedPixel);
-
-				// Save results
-				int outputIndex = observationIndex*2;
-				output[outputIndex] = predictedPixel.x - observedPixel.p.x;
-				output[outputIndex + 1] = predictedPixel.y - observedPixel.p.y;
-				observationIndex++;
-			}
+	private void project3( Workspace ws, int viewIndex, double[] output ) {
+		int observationIndex = viewObservationOffsets.get(viewIndex);
+		SceneStructureProjective.View view = structure.views.data[viewIndex];
+		SceneObservations.View obsView = observations.views.data[viewIndex];
+		SceneStructureCommon.Camera camera = structure.cameras.get(view.camera);
+
+		final Point3D_F64 p3 = ws.p3;
+		final Point3D_F64 pix = ws.pix;
+		final Point2D_F64 predictedPixel = ws.predictedPixel;
+		final PointIndex2D_F64 observedPixel = ws.observedPixel;
+
+		for (int i = 0; i < obsView.size(); i++) {
+			obsView.get(i, observedPixel);
+			SceneStructureCommon.Point worldPt = structure.points.data[observedPixel.index];
+			worldPt.get(p3);
+
+			// Apply projective camera to point in world coordinates
+			PerspectiveOps.renderPixel(view.worldToView, p3, pix);
+
+			// Apply camera model to pixel in homogenous coordinates
+			camera.model.project(pix.x, pix.y, pix.z, predictedPixel);
+
+			// Save results
+			int outputIndex = observationIndex*2;
+			output[outputIndex] = predictedPixel.x - observedPixel.p.x;
+			output[outputIndex + 1] = predictedPixel.y - observedPixel.p.y;
+			observationIndex++;
 		}
 	}
 
 	/**
 	 * projection from homogenous coordinates
 	 */
-	private void project4( double[] output ) {
-		int observationIndex = 0;
-		for (int viewIndex = 0; viewIndex < structure.views.size; viewIndex++) {
-			SceneStructureProjective.View view = structure.views.data[viewIndex];
-			SceneObservations.View obsView = observations.views.data[viewIndex];
-			SceneStructureCommon.Camera camera = structure.cameras.get(view.camera);
-
-			for (int i = 0; i < obsView.size(); i++) {
-				obsView.get(i, observedPixel);
-				SceneStructureCommon.Point worldPt = structure.points.data[observedPixel.index];
-				worldPt.get(p4);
-
-				// Apply projective camera to point in world coordinates
-				PerspectiveOps.renderPixel(view.worldToView, p4, pix);
-
-				// Apply camera model to pixel in homogenous coordinates
-				camera.model.project(pix.x, pix.y, pix.z, predictedPixel);
-
-				// Save results
-				int outputIndex = observationIndex*2;
-				output[outputIndex] = predictedPixel.x - observedPixel.p.x;
-				output[outputIndex + 1] = predictedPixel.y - observedPixel.p.y;
-				observationIndex++;
-			}
+	private void project4( Workspace ws, int viewIndex, double[] output ) {
+		int observationIndex = viewObservationOffsets.get(viewIndex);
+		SceneStructureProjective.View view = structure.views.data[viewIndex];
+		SceneObservations.View obsView = observations.views.data[viewIndex];
+		SceneStructureCommon.Camera camera = structure.cameras.get(view.camera);
+
+		final Point4D_F64 p4 = ws.p4;
+		final Point3D_F64 pix = ws.pix;
+		final Point2D_F64 predictedPixel = ws.predictedPixel;
+		final PointIndex2D_F64 observedPixel = ws.observedPixel;
+
+		for (int i = 0; i < obsView.size(); i++) {
+			obsView.get(i, observedPixel);
+			SceneStructureCommon.Point worldPt = structure.points.data[observedPixel.index];
+			worldPt.get(p4);
+
+			// Apply projective camera to point in world coordinates
+			PerspectiveOps.renderPixel(view.worldToView, p4, pix);
+
+			// Apply camera model to pixel in homogenous coordinates
+			camera.model.project(pix.x, pix.y, pix.z, predictedPixel);
+
+			// Save results
+			int outputIndex = observationIndex*2;
+			output[outputIndex] = predictedPixel.x - observedPixel.p.x;
+			output[outputIndex + 1] = predictedPixel.y - observedPixel.p.y;
+			observationIndex++;
 		}
 	}
+
+	/**
+	 * Storage used while projecting points. One for each thread.
+	 */
+	protected static class Workspace {
+		// Storage for rendered output
+		final Point2D_F64 predictedPixel = new Point2D_F64();
+		final PointIndex2D_F64 observedPixel = new PointIndex2D_F64();
+		// Point in world frame
+		final Point3D_F64 p3 = new Point3D_F64();
+		final Point4D_F64 p4 = new Point4D_F64();
+		// Pixel in homogenous image coordinate
+		final Point3D_F64 pix = new Point3D_F64();
+	}
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.concurrency.BoofConcurrency;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link BundleAdjustmentProjectiveResidualFunction}. Views are split into blocks and
+ * each block is processed in a different thread. The output is identical to the single threaded version.
+ *
+ * <p>NOTE: Camera models must not modify their internal state when projecting points.</p>
+ *
+ * @author Peter Abeles
+ */
+public class BundleAdjustmentProjectiveResidualFunction_MT extends BundleAdjustmentProjectiveResidualFunction {
+	// Workspace for each thread
+	private final GrowArray<Workspace> workspaces = new GrowArray<>(Workspace::new);
+
+	@Override protected void computeResiduals( double[] output ) {
+		BoofConcurrency.loopBlocks(0, structure.views.size, workspaces, ( ws, idx0, idx1 ) ->
+				projectViews(ws, idx0, idx1, output));
+	}
+}
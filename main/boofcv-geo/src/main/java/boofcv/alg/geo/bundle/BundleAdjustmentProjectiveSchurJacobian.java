@@ -25,6 +25,7 @@ import boofcv.abst.geo.bundle.SceneStructureProjective;
 import boofcv.alg.geo.PerspectiveOps;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.point.Point4D_F64;
+import org.ddogleg.struct.DogArray_I32;
 import org.ejml.data.DMatrix;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.ReshapeMatrix;
@@ -33,15 +34,14 @@ import org.jetbrains.annotations.Nullable;
 /**
  * Computes the Jacobian for {@link BundleAdjustmentSchur} for generic matrices.
  *
+ * <p>Each view only modifies the rows of its own observations, allowing views to be processed independently.</p>
+ *
  * @author Peter Abeles
  */
 public abstract class BundleAdjustmentProjectiveSchurJacobian<M extends DMatrix>
 		implements BundleAdjustmentSchur.Jacobian<SceneStructureProjective, M> {
-	private SceneStructureProjective structure;
-	private SceneObservations observations;
-
-	// work space for jacobian
-	private final DMatrixRMaj worldToView = new DMatrixRMaj(3, 4);
+	SceneStructureProjective structure;
+	SceneObservations observations;
 
 	// number of views with parameters that are going to be adjusted
 	private int numViewsUnknown;
@@ -52,12 +52,6 @@ public abstract class BundleAdjustmentProjectiveSchurJacobian<M extends DMatrix>
 	// length of a 3D point. 3 = regular, 4 = homogenous
 	private int lengthPoint;
 
-	// feature location in world coordinates
-	private final Point4D_F64 worldPt = new Point4D_F64();
-
-	// Observed pixel in homogenous coordinates. X'=P*X
-	private final Point3D_F64 pixelH = new Point3D_F64();
-
 	// index in parameters of the first point
 	private int indexFirstView;
 	private int indexLastView;
@@ -65,23 +59,14 @@ public abstract class BundleAdjustmentProjectiveSchurJacobian<M extends DMatrix>
 	private int[] viewParameterIndexes;
 	// first index in input/parameters vector for each camera. Right side
 	private int[] cameraParameterIndexes;
+	// Largest number of intrinsic parameters in any camera
+	private int largestCameraSize;
+
+	// Index of the first observation in each view
+	private final DogArray_I32 viewObservationOffsets = new DogArray_I32();
 
-	// Jacobian matrix index of x and y partial
-	private int jacRowX, jacRowY;
-
-	// Storage for gradients
-	private final double[] worldGradX = new double[4];  // pixel homogeneous partial to world point homogeneous
-	private final double[] worldGradY = new double[4];
-	private final double[] worldGradZ = new double[4];
-	private final double[] camGradX = new double[12];   // pixel homogeneous partial to camera matrix
-	private final double[] camGradY = new double[12];
-	private final double[] camGradZ = new double[12];
-	private final double[] pixelhGradX = new double[3]; // 2D pixel partial to pixel homogeneous
-	private final double[] pixelhGradY = new double[3];
-	private double[] intrGradX;                         // 2D pixel partial to intrinsic camera parameters
-	private double[] intrGradY;
-	private final double[] chainRuleX = new double[12]; // Storage for partial computed using chain rule
-	private final double[] chainRuleY = new double[12];
+	// Workspace used when processing views in the calling thread
+	private final Workspace workspace = new Workspace();
 
 	@Override
 	public void configure( SceneStructureProjective structure, SceneObservations observations ) {
@@ -89,7 +74,6 @@ public abstract class BundleAdjustmentProjectiveSchurJacobian<M extends DMatrix>
 		this.observations = observations;
 
 		if (!structure.isHomogenous()) {
-			worldPt.w = 1;
 			lengthPoint = 3;
 		} else {
 			lengthPoint = 4;
@@ -112,7 +96,7 @@ public abstract class BundleAdjustmentProjectiveSchurJacobian<M extends DMatrix>
 
 		// Create a lookup table for each camera. Camera ID to location in parameter vector
 		cameraParameterIndexes = new int[structure.cameras.size];
-		int largestCameraSize = 0;
+		largestCameraSize = 0;
 		for (int i = 0, index = 0; i < structure.cameras.size; i++) {
 			if (!structure.cameras.get(i).known) {
 				cameraParameterIndexes[i] = index;
@@ -122,8 +106,7 @@ public abstract class BundleAdjustmentProjectiveSchurJacobian<M extends DMatrix>
 			}
 		}
 
-		intrGradX = new double[largestCameraSize];
-		intrGradY = new double[largestCameraSize];
+		observations.computeViewOffsets(viewObservationOffsets);
 	}
 
 	@Override
@@ -153,12 +136,42 @@ public abstract class BundleAdjustmentProjectiveSchurJacobian<M extends DMatrix>
 		leftPoint.zero();
 		rightView.zero();
 
-		int observationIndex = 0;
-		// first decode the transformation
-		for (int viewIndex = 0; viewIndex < structure.views.size; viewIndex++) {
+		computeJacobian(input, leftPoint, rightView);
+	}
+
+	/**
+	 * Computes the Jacobian for every view. Views are independent of each other and can be processed in any order.
+	 */
+	protected void computeJacobian( double[] input, DMatrix leftPoint, DMatrix rightView ) {
+		computeViews(workspace, 0, structure.views.size, input, leftPoint, rightView);
+	}
+
+	/**
+	 * Computes the Jacobian for all observations in the views inside the specified range
+	 *
+	 * @param view0 First view, inclusive
+	 * @param view1 Last view, exclusive
+	 */
+	protected void computeViews( Workspace ws, int view0, int view1,
+								 double[] input, DMatrix leftPoint, DMatrix rightView ) {
+		ws.declareCalibration(largestCameraSize);
+		if (!structure.isHomogenous())
+			ws.worldPt.w = 1;
+
+		final DMatrixRMaj worldToView = ws.worldToView;
+		final Point4D_F64 worldPt = ws.worldPt;
+		final Point3D_F64 pixelH = ws.pixelH;
+		final double[] worldGradX = ws.worldGradX, worldGradY = ws.worldGradY, worldGradZ = ws.worldGradZ;
+		final double[] camGradX = ws.camGradX, camGradY = ws.camGradY, camGradZ = ws.camGradZ;
+		final double[] pixelhGradX = ws.pixelhGradX, pixelhGradY = ws.pixelhGradY;
+		final double[] intrGradX = ws.intrGradX, intrGradY = ws.intrGradY;
+		final double[] chainRuleX = ws.chainRuleX, chainRuleY = ws.chainRuleY;
+
+		for (int viewIndex = view0; viewIndex < view1; viewIndex++) {
 			SceneStructureProjective.View view = structure.views.data[viewIndex];
 			SceneStructureCommon.Camera camera = structure.cameras.data[view.camera];
 			int cameraParamStartIndex = cameraParameterIndexes[view.camera];
+			int observationIndex = viewObservationOffsets.get(viewIndex);
 
 			if (!view.known) {
 				int paramIndex = viewParameterIndexes[viewIndex] + indexFirstView;
@@ -201,8 +214,8 @@ public abstract class BundleAdjustmentProjectiveSchurJacobian<M extends DMatrix>
 								worldToView, worldGradX, worldGradY, worldGradZ, camGradX, camGradY, camGradZ);
 				}
 
-				jacRowX = observationIndex*2;
-				jacRowY = jacRowX + 1;
+				int jacRowX = observationIndex*2;
+				int jacRowY = jacRowX + 1;
 
 				//============ Partial of camera parameters
 				if (!camera.known) {
@@ -228,7 +241,7 @@ public abstract class BundleAdjustmentProjectiveSchurJacobian<M extends DMatrix>
 					chainRuleX[j] = pixelhGradX[0]*worldGradX[j] + pixelhGradX[1]*worldGradY[j] + pixelhGradX[2]*worldGradZ[j];
 					chainRuleY[j] = pixelhGradY[0]*worldGradX[j] + pixelhGradY[1]*worldGradY[j] + pixelhGradY[2]*worldGradZ[j];
 				}
-				addToJacobian(leftPoint, columnOfPointInJac, lengthPoint, chainRuleX, chainRuleY);
+				addToJacobian(leftPoint, jacRowX, jacRowY, columnOfPointInJac, lengthPoint, chainRuleX, chainRuleY);
 
 				if (!view.known) {
 					// partial of residual (pixel) w.r.t. camera matrix P
@@ -239,7 +252,7 @@ public abstract class BundleAdjustmentProjectiveSchurJacobian<M extends DMatrix>
 
 					// partial of x' = (1/z)*P*X with respect to P is a 2 by 12 matrix
 					int col = viewParameterIndexes[viewIndex];
-					addToJacobian(rightView, col, 12, chainRuleX, chainRuleY);
+					addToJacobian(rightView, jacRowX, jacRowY, col, 12, chainRuleX, chainRuleY);
 				}
 
 				observationIndex++;
@@ -330,7 +343,7 @@ public abstract class BundleAdjustmentProjectiveSchurJacobian<M extends DMatrix>
 		camGradZ[8] = X; camGradZ[9] = Y; camGradZ[10] = Z; camGradZ[11] = W;
 	}
 
-	private void addToJacobian( DMatrix triplet, int col, int length, double[] a, double[] b ) {
+	private void addToJacobian( DMatrix triplet, int jacRowX, int jacRowY, int col, int length, double[] a, double[] b ) {
 		for (int i = 0; i < length; i++) {
 			set(triplet, jacRowX, col + i, a[i]);
 			set(triplet, jacRowY, col + i, b[i]);
@@ -341,4 +354,39 @@ public abstract class BundleAdjustmentProjectiveSchurJacobian<M extends DMatrix>
 	 * Abstract interface for settings the value of a matrix without knowing the type of matrix
 	 */
 	protected abstract void set( DMatrix matrix, int row, int col, double value );
+
+	/**
+	 * Storage used while computing the Jacobian of a view. One for each thread.
+	 */
+	protected static class Workspace {
+		// work space for jacobian
+		final DMatrixRMaj worldToView = new DMatrixRMaj(3, 4);
+
+		// feature location in world coordinates
+		final Point4D_F64 worldPt = new Point4D_F64();
+
+		// Observed pixel in homogenous coordinates. X'=P*X
+		final Point3D_F64 pixelH = new Point3D_F64();
+
+		// Storage for gradients
+		final double[] worldGradX = new double[4];  // pixel homogeneous partial to world point homogeneous
+		final double[] worldGradY = new double[4];
+		final double[] worldGradZ = new double[4];
+		final double[] camGradX = new double[12];   // pixel homogeneous partial to camera matrix
+		final double[] camGradY = new double[12];
+		final double[] camGradZ = new double[12];
+		final double[] pixelhGradX = new double[3]; // 2D pixel partial to pixel homogeneous
+		final double[] pixelhGradY = new double[3];
+		double[] intrGradX = new double[0];         // 2D pixel partial to intrinsic camera parameters
+		double[] intrGradY = new double[0];
+		final double[] chainRuleX = new double[12]; // Storage for partial computed using chain rule
+		final double[] chainRuleY = new double[12];
+
+		void declareCalibration( int length ) {
+			if (intrGradX.length >= length)
+				return;
+			intrGradX = new double[length];
+			intrGradY = new double[length];
+		}
+	}
 }
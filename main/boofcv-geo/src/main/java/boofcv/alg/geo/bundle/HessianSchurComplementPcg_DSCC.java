@@ -0,0 +1,666 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.geo.ConfigSchurPcg;
+import lombok.Getter;
+import org.ddogleg.optimization.math.HessianSchurComplement;
+import org.ddogleg.struct.DogArray_F64;
+import org.ddogleg.struct.DogArray_I32;
+import org.ejml.data.DGrowArray;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.IGrowArray;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverSparse;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.CommonOps_MT_DSCC;
+import org.ejml.sparse.csc.factory.LinearSolverFactory_DSCC;
+import org.ejml.sparse.csc.mult.MatrixVectorMult_DSCC;
+import org.ejml.sparse.csc.mult.Workspace_MT_DSCC;
+import pabeles.concurrency.GrowArray;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Solves the linear system in sparse bundle adjustment using preconditioned conjugate gradient (PCG) on the reduced
+ * camera system. The Hessian is broken up into blocks [A B;B' D], where A is for points and D is for the cameras.
+ * The Schur complement S = D - B'*inv(A)*B is never computed. Instead, products with S are computed implicitly
+ * from A, B, and D. A is block diagonal, with one small block for each point, and is inverted block by block. This
+ * greatly reduces the amount of memory needed when many views observe the same points, since that is when S
+ * becomes dense.
+ * </p>
+ *
+ * <p>
+ * The camera parameters are broken up into blocks by finding adjacent columns in D which have the same structure,
+ * e.g. the parameters for a single view. Block-Jacobi uses the inverse of these blocks from D as the preconditioner
+ * while Schur-Jacobi uses the inverse of the same blocks from S. If A turns out not to be block diagonal then
+ * the Schur complement is computed explicitly and solved with sparse Cholesky, the same as
+ * {@link org.ddogleg.optimization.math.HessianSchurComplement_DSCC}.
+ * </p>
+ *
+ * <p>
+ * Iterations stop once the residual has been reduced by {@link ConfigSchurPcg#relativeTolerance}, resulting
+ * in an inexact Newton step.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class HessianSchurComplementPcg_DSCC implements HessianSchurComplement<DMatrixSparseCSC> {
+	/** Configuration for the solver */
+	@Getter final ConfigSchurPcg config;
+
+	/** Number of conjugate gradient iterations in the most recent solve */
+	@Getter int iterations;
+
+	/** If true then A wasn't block diagonal and the Schur complement was computed explicitly */
+	@Getter boolean fallback;
+
+	// Blocks inside the Hessian [A B;B' D]
+	final DMatrixSparseCSC A = new DMatrixSparseCSC(1, 1);
+	final DMatrixSparseCSC B = new DMatrixSparseCSC(1, 1);
+	final DMatrixSparseCSC D = new DMatrixSparseCSC(1, 1);
+
+	// Workspace for computing the Hessian
+	final DMatrixSparseCSC transposed = new DMatrixSparseCSC(1, 1);
+	final IGrowArray gw = new IGrowArray();
+	final DGrowArray gx = new DGrowArray();
+	final GrowArray<Workspace_MT_DSCC> workspaceMT = new GrowArray<>(Workspace_MT_DSCC::new);
+
+	// Used when the Schur complement is computed explicitly
+	final LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> solverA = LinearSolverFactory_DSCC.cholesky(FillReducing.NONE);
+	final LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> solverD = LinearSolverFactory_DSCC.cholesky(FillReducing.NONE);
+	final DMatrixSparseCSC schurD = new DMatrixSparseCSC(1, 1);
+	final DMatrixSparseCSC schurTmp = new DMatrixSparseCSC(1, 1);
+	final DMatrixRMaj b1 = new DMatrixRMaj(1, 1);
+	final DMatrixRMaj b2 = new DMatrixRMaj(1, 1);
+	final DMatrixRMaj x1 = new DMatrixRMaj(1, 1);
+	final DMatrixRMaj x2 = new DMatrixRMaj(1, 1);
+
+	// Index of the first column in each block inside of A. Last element is the number of columns
+	final DogArray_I32 blocksA = new DogArray_I32();
+	// Index of the block each row/column in A belongs to
+	final DogArray_I32 rowToBlockA = new DogArray_I32();
+	// Location of each block's inverse inside of invA
+	final DogArray_I32 offsetsA = new DogArray_I32();
+	// Inverse of each block inside of A. Row-major.
+	final DogArray_F64 invA = new DogArray_F64();
+
+	// Same as above but for the preconditioner's blocks inside of D
+	final DogArray_I32 blocksM = new DogArray_I32();
+	final DogArray_I32 offsetsM = new DogArray_I32();
+	final DogArray_F64 invM = new DogArray_F64();
+
+	// Workspace for computing the preconditioner
+	final DMatrixRMaj blockWork = new DMatrixRMaj(1, 1);
+	final DogArray_I32 marks = new DogArray_I32();
+	final DogArray_I32 blockMarks = new DogArray_I32();
+	final DogArray_I32 blockSlot = new DogArray_I32();
+	final DogArray_I32 activeBlocks = new DogArray_I32();
+	final DogArray_I32 activeOffsets = new DogArray_I32();
+	final DogArray_F64 blockB = new DogArray_F64();
+	double[] blockTmp = new double[0];
+
+	// Vectors used inside of conjugate gradient
+	final DogArray_F64 x = new DogArray_F64();
+	final DogArray_F64 r = new DogArray_F64();
+	final DogArray_F64 z = new DogArray_F64();
+	final DogArray_F64 p = new DogArray_F64();
+	final DogArray_F64 q = new DogArray_F64();
+	final DogArray_F64 rhs = new DogArray_F64();
+	final DogArray_F64 tmp1 = new DogArray_F64();
+	final DogArray_F64 tmp2 = new DogArray_F64();
+
+	public HessianSchurComplementPcg_DSCC( ConfigSchurPcg config ) {
+		this.config = config;
+	}
+
+	public HessianSchurComplementPcg_DSCC() {
+		this(new ConfigSchurPcg());
+	}
+
+	@Override public void init( int numParameters ) {}
+
+	@Override public DMatrixSparseCSC createMatrix() {
+		return new DMatrixSparseCSC(1, 1);
+	}
+
+	@Override
+	public void computeHessian( DMatrixSparseCSC jacLeft, DMatrixSparseCSC jacRight ) {
+		A.reshape(jacLeft.numCols, jacLeft.numCols, 1);
+		B.reshape(jacLeft.numCols, jacRight.numCols, 1);
+		D.reshape(jacRight.numCols, jacRight.numCols, 1);
+
+		CommonOps_DSCC.transpose(jacLeft, transposed, gw);
+		mult(transposed, jacLeft, A);
+		mult(transposed, jacRight, B);
+		CommonOps_DSCC.transpose(jacRight, transposed, gw);
+		mult(transposed, jacRight, D);
+	}
+
+	@Override
+	public void computeGradient( DMatrixSparseCSC jacLeft, DMatrixSparseCSC jacRight,
+								 DMatrixRMaj residuals, DMatrixRMaj gradient ) {
+		x1.reshape(jacLeft.numCols, 1);
+		x2.reshape(jacRight.numCols, 1);
+		CommonOps_DSCC.multTransA(jacLeft, residuals, x1, gx);
+		CommonOps_DSCC.multTransA(jacRight, residuals, x2, gx);
+		gradient.reshape(x1.numRows + x2.numRows, 1);
+		CommonOps_DDRM.insert(x1, gradient, 0, 0);
+		CommonOps_DDRM.insert(x2, gradient, x1.numRows, 0);
+	}
+
+	@Override
+	public double innerVectorHessian( DMatrixRMaj v ) {
+		final int N1 = A.numCols;
+		double sum = MatrixVectorMult_DSCC.innerProduct(v.data, 0, A, v.data, 0);
+		sum += 2.0*MatrixVectorMult_DSCC.innerProduct(v.data, 0, B, v.data, N1);
+		sum += MatrixVectorMult_DSCC.innerProduct(v.data, N1, D, v.data, N1);
+		return sum;
+	}
+
+	@Override
+	public void extractDiagonals( DMatrixRMaj diag ) {
+		CommonOps_DSCC.extractDiag(A, x1);
+		CommonOps_DSCC.extractDiag(D, x2);
+		diag.reshape(A.numCols + D.numCols, 1);
+		CommonOps_DDRM.insert(x1, diag, 0, 0);
+		CommonOps_DDRM.insert(x2, diag, x1.numRows, 0);
+	}
+
+	@Override
+	public void setDiagonals( DMatrixRMaj diag ) {
+		final int N1 = A.numCols;
+		for (int i = 0; i < N1; i++) {
+			A.set(i, i, diag.data[i]);
+		}
+		for (int i = 0; i < D.numCols; i++) {
+			D.set(i, i, diag.data[N1 + i]);
+		}
+	}
+
+	@Override
+	public void divideRowsCols( DMatrixRMaj scaling ) {
+		final int N1 = A.numCols;
+		CommonOps_DSCC.divideRowsCols(scaling.data, 0, A, scaling.data, 0);
+		CommonOps_DSCC.divideRowsCols(scaling.data, 0, B, scaling.data, N1);
+		CommonOps_DSCC.divideRowsCols(scaling.data, N1, D, scaling.data, N1);
+	}
+
+	@Override
+	public boolean initializeSolver() {
+		fallback = !findBlocksA();
+		if (fallback)
+			return solverA.setA(A);
+
+		if (!invertBlocksA())
+			return false;
+		findBlocksM();
+		return computePreconditioner();
+	}
+
+	@Override
+	public boolean solve( DMatrixRMaj gradient, DMatrixRMaj step ) {
+		iterations = 0;
+		if (fallback)
+			return solveExplicit(gradient, step);
+
+		final int N1 = A.numCols;
+		final int N2 = D.numCols;
+		step.reshape(N1 + N2, 1);
+
+		tmp1.resize(N1);
+		tmp2.resize(N1);
+		rhs.resize(N2);
+
+		// rhs = g2 - B'*inv(A)*g1
+		multInvA(gradient.data, 0, tmp1.data);
+		multTransB(tmp1.data, rhs.data);
+		for (int i = 0; i < N2; i++) {
+			rhs.data[i] = gradient.data[N1 + i] - rhs.data[i];
+		}
+
+		// Solve S*x2 = rhs
+		if (!conjugateGradient(rhs.data, N2))
+			return false;
+
+		// x1 = inv(A)*(g1 - B*x2)
+		multB(x.data, tmp1.data);
+		for (int i = 0; i < N1; i++) {
+			tmp2.data[i] = gradient.data[i] - tmp1.data[i];
+		}
+		multInvA(tmp2.data, 0, step.data);
+		System.arraycopy(x.data, 0, step.data, N1, N2);
+
+		return true;
+	}
+
+	/**
+	 * Solves the system by explicitly computing the Schur complement S = D - B'*inv(A)*B. Used when A isn't block
+	 * diagonal.
+	 */
+	boolean solveExplicit( DMatrixRMaj gradient, DMatrixRMaj step ) {
+		final int N1 = A.numCols;
+		final int N2 = D.numCols;
+		CommonOps_DDRM.extract(gradient, 0, N1, 0, 1, b1);
+		CommonOps_DDRM.extract(gradient, N1, N1 + N2, 0, 1, b2);
+
+		// b2 = g2 - B'*inv(A)*g1
+		x1.reshape(N1, 1);
+		solverA.solve(b1, x1);
+		x2.reshape(N2, 1);
+		CommonOps_DSCC.multTransA(B, x1, x2, gx);
+		CommonOps_DDRM.subtract(b2, x2, b2);
+
+		// S = D - B'*inv(A)*B
+		schurTmp.reshape(N1, N2);
+		solverA.solveSparse(B, schurTmp);
+		CommonOps_DSCC.transpose(B, transposed, gw);
+		mult(transposed, schurTmp, schurD);
+		CommonOps_DSCC.add(1.0, D, -1.0, schurD, schurTmp, gw, gx);
+		schurD.setTo(schurTmp);
+		if (!solverD.setA(schurD))
+			return false;
+		solverD.solve(b2, x2);
+
+		// x1 = inv(A)*(g1 - B*x2)
+		CommonOps_DSCC.mult(B, x2, x1);
+		CommonOps_DDRM.subtract(b1, x1, b1);
+		solverA.solve(b1, x1);
+
+		step.reshape(N1 + N2, 1);
+		CommonOps_DDRM.insert(x1, step, 0, 0);
+		CommonOps_DDRM.insert(x2, step, N1, 0);
+		return true;
+	}
+
+	/**
+	 * output = a*b, where a and b are sparse. Concurrent if {@link BoofConcurrency#USE_CONCURRENT} is true.
+	 */
+	void mult( DMatrixSparseCSC a, DMatrixSparseCSC b, DMatrixSparseCSC output ) {
+		if (BoofConcurrency.USE_CONCURRENT) {
+			CommonOps_MT_DSCC.mult(a, b, output, workspaceMT);
+		} else {
+			CommonOps_DSCC.mult(a, b, output, gw, gx);
+		}
+	}
+
+	/**
+	 * Finds the blocks along the diagonal of A. Returns false if a block is too large, which most likely means
+	 * A isn't block diagonal.
+	 */
+	boolean findBlocksA() {
+		final int N = A.numCols;
+		blocksA.reset();
+		rowToBlockA.resize(N);
+
+		int blockStart = 0;
+		int blockEnd = 0;
+		for (int col = 0; col < N; col++) {
+			if (col >= blockEnd) {
+				blocksA.add(col);
+				blockStart = col;
+				blockEnd = col + 1;
+			}
+			// A is symmetric so the last row in every column of the block defines the block's extent
+			int idx0 = A.col_idx[col];
+			int idx1 = A.col_idx[col + 1];
+			for (int i = idx0; i < idx1; i++) {
+				blockEnd = Math.max(blockEnd, A.nz_rows[i] + 1);
+			}
+			if (blockEnd - blockStart > config.maxBlockSize)
+				return false;
+			rowToBlockA.data[col] = blocksA.size - 1;
+		}
+		blocksA.add(N);
+		return true;
+	}
+
+	/**
+	 * Inverts each block inside of A
+	 */
+	boolean invertBlocksA() {
+		final int numBlocks = blocksA.size - 1;
+		computeOffsets(blocksA, offsetsA);
+		invA.resize(offsetsA.get(numBlocks));
+
+		for (int block = 0; block < numBlocks; block++) {
+			int c0 = blocksA.data[block];
+			int c1 = blocksA.data[block + 1];
+			extractBlock(A, c0, c1, blockWork);
+			if (!CommonOps_DDRM.invert(blockWork))
+				return false;
+			System.arraycopy(blockWork.data, 0, invA.data, offsetsA.data[block], (c1 - c0)*(c1 - c0));
+		}
+		return true;
+	}
+
+	/**
+	 * Breaks the camera parameters up into blocks. Adjacent columns in D with the same structure are assumed to
+	 * belong to the same set of parameters, e.g. the same view.
+	 */
+	void findBlocksM() {
+		final int N = D.numCols;
+		blocksM.reset();
+		marks.resize(N);
+		marks.fill(-1);
+
+		for (int col = 0; col < N; col++) {
+			if (col == 0 || col - blocksM.get(blocksM.size - 1) >= config.maxBlockSize || !sameStructure(col - 1, col))
+				blocksM.add(col);
+		}
+		blocksM.add(N);
+	}
+
+	/**
+	 * Returns true if the two columns in D have non-zero elements in the same rows
+	 */
+	boolean sameStructure( int colA, int colB ) {
+		int a0 = D.col_idx[colA], a1 = D.col_idx[colA + 1];
+		int b0 = D.col_idx[colB], b1 = D.col_idx[colB + 1];
+		if (a1 - a0 != b1 - b0)
+			return false;
+
+		// colB is used as the mark since it's unique for each call
+		for (int i = a0; i < a1; i++) {
+			marks.data[D.nz_rows[i]] = colB;
+		}
+		for (int i = b0; i < b1; i++) {
+			if (marks.data[D.nz_rows[i]] != colB)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the inverse of each block in the preconditioner
+	 */
+	boolean computePreconditioner() {
+		final boolean schur = config.preconditioner == ConfigSchurPcg.Preconditioner.SCHUR_JACOBI;
+		final int numBlocks = blocksM.size - 1;
+		computeOffsets(blocksM, offsetsM);
+		invM.resize(offsetsM.get(numBlocks));
+
+		if (schur) {
+			blockMarks.resize(blocksA.size - 1);
+			blockMarks.fill(-1);
+			blockSlot.resize(blocksA.size - 1);
+		}
+
+		for (int block = 0; block < numBlocks; block++) {
+			int c0 = blocksM.data[block];
+			int c1 = blocksM.data[block + 1];
+			extractBlock(D, c0, c1, blockWork);
+			if (schur)
+				subtractSchurTerms(block, c0, c1, blockWork);
+			if (!CommonOps_DDRM.invert(blockWork))
+				return false;
+			System.arraycopy(blockWork.data, 0, invM.data, offsetsM.data[block], (c1 - c0)*(c1 - c0));
+		}
+		return true;
+	}
+
+	/**
+	 * Computes M = M - sum B[p,:]'*inv(A[p,p])*B[p,:] for every point block p which is connected to the columns
+	 * c0 to c1. This turns a block from D into a block from the Schur complement.
+	 */
+	void subtractSchurTerms( int block, int c0, int c1, DMatrixRMaj M ) {
+		final int n = c1 - c0;
+		activeBlocks.reset();
+		activeOffsets.reset();
+		blockB.reset();
+
+		// Copy the dense sub-blocks of B which are connected to these columns
+		for (int col = c0; col < c1; col++) {
+			int idx0 = B.col_idx[col];
+			int idx1 = B.col_idx[col + 1];
+			for (int i = idx0; i < idx1; i++) {
+				int row = B.nz_rows[i];
+				int blockA = rowToBlockA.data[row];
+				int r0 = blocksA.data[blockA];
+
+				if (blockMarks.data[blockA] != block) {
+					blockMarks.data[blockA] = block;
+					blockSlot.data[blockA] = activeBlocks.size;
+					activeBlocks.add(blockA);
+					activeOffsets.add(blockB.size);
+					int before = blockB.size;
+					int length = (blocksA.data[blockA + 1] - r0)*n;
+					blockB.resize(before + length);
+					Arrays.fill(blockB.data, before, before + length, 0.0);
+				}
+				int offset = activeOffsets.data[blockSlot.data[blockA]];
+				blockB.data[offset + (row - r0)*n + col - c0] += B.nz_values[i];
+			}
+		}
+
+		for (int active = 0; active < activeBlocks.size; active++) {
+			int blockA = activeBlocks.data[active];
+			int m = blocksA.data[blockA + 1] - blocksA.data[blockA];
+			int offB = activeOffsets.data[active];
+			int offInv = offsetsA.data[blockA];
+			if (blockTmp.length < m)
+				blockTmp = new double[m];
+
+			for (int j = 0; j < n; j++) {
+				// tmp = inv(A[p,p])*B[p,j]
+				for (int row = 0; row < m; row++) {
+					double sum = 0.0;
+					for (int k = 0; k < m; k++) {
+						sum += invA.data[offInv + row*m + k]*blockB.data[offB + k*n + j];
+					}
+					blockTmp[row] = sum;
+				}
+				// M[:,j] -= B[p,:]'*tmp
+				for (int i = 0; i < n; i++) {
+					double sum = 0.0;
+					for (int k = 0; k < m; k++) {
+						sum += blockB.data[offB + k*n + i]*blockTmp[k];
+					}
+					M.data[i*n + j] -= sum;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Solves S*x = b using preconditioned conjugate gradient. The solution is stored in {@link #x}.
+	 */
+	boolean conjugateGradient( double[] b, int N ) {
+		x.resize(N);
+		r.resize(N);
+		z.resize(N);
+		p.resize(N);
+		q.resize(N);
+
+		Arrays.fill(x.data, 0, N, 0.0);
+		System.arraycopy(b, 0, r.data, 0, N);
+
+		double normB = Math.sqrt(dot(b, b, N));
+		if (normB == 0.0)
+			return true;
+		double threshold = config.relativeTolerance*normB;
+
+		multInvM(r.data, z.data);
+		System.arraycopy(z.data, 0, p.data, 0, N);
+		double rz = dot(r.data, z.data, N);
+
+		while (iterations < config.maxIterations) {
+			multS(p.data, q.data);
+			double pq = dot(p.data, q.data, N);
+			// The system isn't positive definite. Use what has been found so far, if anything
+			if (pq <= 0.0)
+				return iterations > 0;
+
+			double alpha = rz/pq;
+			for (int i = 0; i < N; i++) {
+				x.data[i] += alpha*p.data[i];
+				r.data[i] -= alpha*q.data[i];
+			}
+			iterations++;
+
+			if (Math.sqrt(dot(r.data, r.data, N)) <= threshold)
+				break;
+
+			multInvM(r.data, z.data);
+			double rzNext = dot(r.data, z.data, N);
+			double beta = rzNext/rz;
+			rz = rzNext;
+			for (int i = 0; i < N; i++) {
+				p.data[i] = z.data[i] + beta*p.data[i];
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * output = S*input = D*input - B'*inv(A)*B*input
+	 */
+	void multS( double[] input, double[] output ) {
+		multB(input, tmp1.data);
+		multInvA(tmp1.data, 0, tmp2.data);
+
+		final int N = D.numCols;
+		Arrays.fill(output, 0, N, 0.0);
+		for (int col = 0; col < N; col++) {
+			double v = input[col];
+			if (v == 0.0)
+				continue;
+			int idx0 = D.col_idx[col];
+			int idx1 = D.col_idx[col + 1];
+			for (int i = idx0; i < idx1; i++) {
+				output[D.nz_rows[i]] += D.nz_values[i]*v;
+			}
+		}
+
+		for (int col = 0; col < N; col++) {
+			int idx0 = B.col_idx[col];
+			int idx1 = B.col_idx[col + 1];
+			double sum = 0.0;
+			for (int i = idx0; i < idx1; i++) {
+				sum += B.nz_values[i]*tmp2.data[B.nz_rows[i]];
+			}
+			output[col] -= sum;
+		}
+	}
+
+	/**
+	 * output = B*input
+	 */
+	void multB( double[] input, double[] output ) {
+		Arrays.fill(output, 0, B.numRows, 0.0);
+		for (int col = 0; col < B.numCols; col++) {
+			double v = input[col];
+			if (v == 0.0)
+				continue;
+			int idx0 = B.col_idx[col];
+			int idx1 = B.col_idx[col + 1];
+			for (int i = idx0; i < idx1; i++) {
+				output[B.nz_rows[i]] += B.nz_values[i]*v;
+			}
+		}
+	}
+
+	/**
+	 * output = B'*input
+	 */
+	void multTransB( double[] input, double[] output ) {
+		for (int col = 0; col < B.numCols; col++) {
+			int idx0 = B.col_idx[col];
+			int idx1 = B.col_idx[col + 1];
+			double sum = 0.0;
+			for (int i = idx0; i < idx1; i++) {
+				sum += B.nz_values[i]*input[B.nz_rows[i]];
+			}
+			output[col] = sum;
+		}
+	}
+
+	/**
+	 * output = inv(A)*input[offset:]
+	 */
+	void multInvA( double[] input, int offset, double[] output ) {
+		multBlockDiagonal(blocksA, offsetsA, invA, input, offset, output);
+	}
+
+	/**
+	 * output = inv(M)*input, where M is the preconditioner
+	 */
+	void multInvM( double[] input, double[] output ) {
+		multBlockDiagonal(blocksM, offsetsM, invM, input, 0, output);
+	}
+
+	static void multBlockDiagonal( DogArray_I32 blocks, DogArray_I32 offsets, DogArray_F64 inverses,
+								   double[] input, int offset, double[] output ) {
+		for (int block = 0; block < blocks.size - 1; block++) {
+			int c0 = blocks.data[block];
+			int m = blocks.data[block + 1] - c0;
+			int index = offsets.data[block];
+			for (int row = 0; row < m; row++) {
+				double sum = 0.0;
+				for (int k = 0; k < m; k++) {
+					sum += inverses.data[index++]*input[offset + c0 + k];
+				}
+				output[c0 + row] = sum;
+			}
+		}
+	}
+
+	/**
+	 * Copies the block along the diagonal from columns c0 to c1 into a dense matrix
+	 */
+	static void extractBlock( DMatrixSparseCSC src, int c0, int c1, DMatrixRMaj dst ) {
+		final int n = c1 - c0;
+		dst.reshape(n, n);
+		dst.zero();
+		for (int col = c0; col < c1; col++) {
+			int idx0 = src.col_idx[col];
+			int idx1 = src.col_idx[col + 1];
+			for (int i = idx0; i < idx1; i++) {
+				int row = src.nz_rows[i];
+				if (row < c0 || row >= c1)
+					continue;
+				dst.data[(row - c0)*n + col - c0] = src.nz_values[i];
+			}
+		}
+	}
+
+	/**
+	 * Computes where each block's inverse starts in the packed array. Last element is the total size.
+	 */
+	static void computeOffsets( DogArray_I32 blocks, DogArray_I32 offsets ) {
+		offsets.resize(blocks.size);
+		offsets.data[0] = 0;
+		for (int block = 0; block < blocks.size - 1; block++) {
+			int m = blocks.data[block + 1] - blocks.data[block];
+			offsets.data[block + 1] = offsets.data[block] + m*m;
+		}
+	}
+
+	static double dot( double[] a, double[] b, int N ) {
+		double sum = 0.0;
+		for (int i = 0; i < N; i++) {
+			sum += a[i]*b[i];
+		}
+		return sum;
+	}
+}
@@ -85,7 +85,7 @@ public class CalibrationPlanarGridZhang99 implements VerbosePrint {
 	private Listener listener;
 
 	// where calibration points are layout on the target.
-	private final List<Point2D_F64> layout;
+	protected final List<Point2D_F64> layout;
 
 	// Use a robust non-linear solver. This can run significantly slower
 	private boolean robust = false;
@@ -143,27 +143,15 @@ public class CalibrationPlanarGridZhang99 implements VerbosePrint {
 		List<DMatrixRMaj> homographies = new ArrayList<>();
 		List<Se3_F64> motions = new ArrayList<>();
 
-		for (int i = 0; i < observations.size(); i++) {
-			CalibrationObservation obs = observations.get(i);
-
-			if (!computeHomography.computeHomography(obs))
-				return false;
-
-			DMatrixRMaj H = computeHomography.getHomography();
-
-			homographies.add(H);
-		}
+		if (!computeHomographies(observations, homographies))
+			return false;
 
 		status("Estimating Calibration Matrix");
 		computeK.process(homographies);
 
 		DMatrixRMaj K = computeK.getCalibrationMatrix();
 
-		decomposeH.setCalibrationMatrix(K);
-		for (int i = 0; i < homographies.size(); i++) {
-			DMatrixRMaj H = homographies.get(i);
-			motions.add(decomposeH.decompose(H));
-		}
+		decomposeHomographies(K, homographies, motions);
 
 		status("Estimating Radial Distortion");
 		computeRadial.process(K, homographies, observations);
@@ -174,6 +162,40 @@ public class CalibrationPlanarGridZhang99 implements VerbosePrint {
 		return true;
 	}
 
+	/**
+	 * Computes the homography from the target to each image
+	 *
+	 * @param observations (Input) Observed calibration points in each image
+	 * @param homographies (Output) Homography for each image
+	 * @return true if a homography could be found for every image
+	 */
+	protected boolean computeHomographies( List<CalibrationObservation> observations, List<DMatrixRMaj> homographies ) {
+		for (int i = 0; i < observations.size(); i++) {
+			CalibrationObservation obs = observations.get(i);
+
+			if (!computeHomography.computeHomography(obs))
+				return false;
+
+			homographies.add(computeHomography.getHomography());
+		}
+		return true;
+	}
+
+	/**
+	 * Decomposes each homography into the target's location relative to the camera
+	 *
+	 * @param K (Input) Estimated calibration matrix
+	 * @param homographies (Input) Homography for each image
+	 * @param motions (Output) Target to camera transform for each image
+	 */
+	protected void decomposeHomographies( DMatrixRMaj K, List<DMatrixRMaj> homographies, List<Se3_F64> motions ) {
+		decomposeH.setCalibrationMatrix(K);
+		for (int i = 0; i < homographies.size(); i++) {
+			DMatrixRMaj H = homographies.get(i);
+			motions.add(decomposeH.decompose(H));
+		}
+	}
+
 	private void status( String message ) {
 		if (listener != null) {
 			if (!listener.zhangUpdate(message))
@@ -189,7 +211,7 @@ public class CalibrationPlanarGridZhang99 implements VerbosePrint {
 		ConfigLevenbergMarquardt configLM = new ConfigLevenbergMarquardt();
 		configLM.hessianScaling = false;
 
-		ConfigBundleAdjustment configSBA = new ConfigBundleAdjustment();
+		ConfigBundleAdjustment configSBA = createConfigBundleAdjustment();
 		configSBA.configOptimizer = configLM;
 
 		BundleAdjustment<SceneStructureMetric> bundleAdjustment;
@@ -253,7 +275,7 @@ public class CalibrationPlanarGridZhang99 implements VerbosePrint {
 		CodecSceneStructureMetric codec = new CodecSceneStructureMetric();
 		codec.encode(structure, parameters);
 
-		BundleAdjustmentMetricResidualFunction function = new BundleAdjustmentMetricResidualFunction();
+		BundleAdjustmentMetricResidualFunction function = createResidualFunction();
 		function.configure(structure, observations);
 		function.process(parameters, residuals);
 
@@ -290,6 +312,20 @@ public class CalibrationPlanarGridZhang99 implements VerbosePrint {
 		return errors;
 	}
 
+	/**
+	 * Creates the configuration used to construct bundle adjustment
+	 */
+	protected ConfigBundleAdjustment createConfigBundleAdjustment() {
+		return new ConfigBundleAdjustment();
+	}
+
+	/**
+	 * Creates the function used to compute residual errors after optimization
+	 */
+	protected BundleAdjustmentMetricResidualFunction createResidualFunction() {
+		return new BundleAdjustmentMetricResidualFunction();
+	}
+
 	public CameraModel getCameraModel() {
 		return cameraGenerator.getCameraModel(structure.cameras.get(0).model);
 	}
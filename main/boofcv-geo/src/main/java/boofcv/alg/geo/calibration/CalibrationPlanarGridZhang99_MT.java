@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.calibration;
+
+import boofcv.alg.geo.bundle.BundleAdjustmentMetricResidualFunction;
+import boofcv.alg.geo.bundle.BundleAdjustmentMetricResidualFunction_MT;
+import boofcv.alg.geo.calibration.cameras.Zhang99Camera;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.geo.ConfigBundleAdjustment;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ejml.data.DMatrixRMaj;
+import pabeles.concurrency.GrowArray;
+
+import java.util.List;
+
+/**
+ * Concurrent implementation of {@link CalibrationPlanarGridZhang99}. Homographies are estimated and decomposed for
+ * each image in parallel. Results are written to the image's own slot and then added in order, so the output is
+ * identical to the single threaded version. Non-linear refinement uses concurrent bundle adjustment and
+ * the concurrent residual function.
+ *
+ * @author Peter Abeles
+ */
+public class CalibrationPlanarGridZhang99_MT extends CalibrationPlanarGridZhang99 {
+
+	// Workspace for each thread
+	private final GrowArray<Zhang99ComputeTargetHomography> workHomography;
+	private final GrowArray<Zhang99DecomposeHomography> workDecompose =
+			new GrowArray<>(Zhang99DecomposeHomography::new);
+
+	public CalibrationPlanarGridZhang99_MT( List<Point2D_F64> layout, Zhang99Camera cameraGenerator ) {
+		super(layout, cameraGenerator);
+		workHomography = new GrowArray<>(() -> new Zhang99ComputeTargetHomography(layout));
+	}
+
+	@Override
+	protected boolean computeHomographies( List<CalibrationObservation> observations, List<DMatrixRMaj> homographies ) {
+		final DMatrixRMaj[] found = new DMatrixRMaj[observations.size()];
+
+		BoofConcurrency.loopBlocks(0, observations.size(), workHomography, ( alg, idx0, idx1 ) -> {
+			for (int i = idx0; i < idx1; i++) {
+				if (alg.computeHomography(observations.get(i)))
+					found[i] = alg.getHomography();
+			}
+		});
+
+		for (int i = 0; i < found.length; i++) {
+			if (found[i] == null)
+				return false;
+			homographies.add(found[i]);
+		}
+		return true;
+	}
+
+	@Override
+	protected void decomposeHomographies( DMatrixRMaj K, List<DMatrixRMaj> homographies, List<Se3_F64> motions ) {
+		final Se3_F64[] found = new Se3_F64[homographies.size()];
+
+		BoofConcurrency.loopBlocks(0, homographies.size(), workDecompose, ( alg, idx0, idx1 ) -> {
+			alg.setCalibrationMatrix(K);
+			for (int i = idx0; i < idx1; i++) {
+				found[i] = alg.decompose(homographies.get(i));
+			}
+		});
+
+		for (int i = 0; i < found.length; i++) {
+			motions.add(found[i]);
+		}
+	}
+
+	@Override protected ConfigBundleAdjustment createConfigBundleAdjustment() {
+		ConfigBundleAdjustment config = super.createConfigBundleAdjustment();
+		config.concurrent = true;
+		return config;
+	}
+
+	@Override protected BundleAdjustmentMetricResidualFunction createResidualFunction() {
+		return new BundleAdjustmentMetricResidualFunction_MT();
+	}
+}
@@ -0,0 +1,476 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.pose;
+
+import boofcv.struct.geo.Point2D3D;
+import georegression.fitting.MotionTransformPoint;
+import georegression.geometry.GeometryMath_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.solver.Polynomial;
+import org.ddogleg.solver.PolynomialRoots;
+import org.ddogleg.struct.DogArray;
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Minimal solution to the generalized P3P (GP3P) problem. Three points are observed by a generalized camera,
+ * e.g. multiple cameras rigidly attached to a rig with known extrinsics, and the transform from world to the rig's
+ * body frame is found. Unlike P3P, each observation can come from a different camera, which means the rays
+ * don't share a common origin.
+ * </p>
+ *
+ * <p>
+ * Each observation is converted into a ray in the rig's frame, P<sub>i</sub> = c<sub>i</sub> + &lambda;<sub>i</sub>
+ * d<sub>i</sub>, where c is the camera's center, d the unit pointing vector, and &lambda; the unknown distance.
+ * The distance between each pair of points must be the same in the rig and world frames, which results in three
+ * quadratic equations. &lambda;<sub>1</sub> and then &lambda;<sub>2</sub> are eliminated using resultants,
+ * producing an 8th order polynomial in &lambda;<sub>3</sub> [1]. For each real root the other distances are found
+ * by back substitution and polished with Newton's method. The rigid body motion is then found from the two sets of
+ * 3D points.
+ * There are up to eight solutions.
+ * </p>
+ *
+ * <p>
+ * <b>Observations are in normalized image coordinates</b>, e.g. (x,y,1.0) is the pointing vector in the camera frame.
+ * </p>
+ *
+ * <p>
+ * [1] Nistér, David, and Henrik Stewénius. "A minimal solution to the generalised 3-point pose problem."
+ * Journal of Mathematical Imaging and Vision 27.1 (2007): 67-79.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class GeneralizedP3P {
+	// Large enough for all the intermediate polynomials
+	static final int MAX_COEF = 13;
+
+	// used to solve the 8th order polynomial
+	final PolynomialRoots rootFinder;
+	// computes the rigid body motion between the points in world and rig frames
+	final MotionTransformPoint<Se3_F64, Point3D_F64> motionFit;
+
+	/** Transform from the rig's body frame to each camera */
+	final DogArray<Se3_F64> rig_to_cameras = new DogArray<>(Se3_F64::new);
+
+	// Found solutions. world to rig
+	final DogArray<Se3_F64> solutions = new DogArray<>(Se3_F64::new);
+
+	// Origin and pointing vector of each ray in the rig's frame
+	final Point3D_F64[] centers = new Point3D_F64[]{new Point3D_F64(), new Point3D_F64(), new Point3D_F64()};
+	final Vector3D_F64[] pointing = new Vector3D_F64[]{new Vector3D_F64(), new Vector3D_F64(), new Vector3D_F64()};
+
+	// Coefficients of the distance constraints. See computeCoefficients()
+	final double[] coef12 = new double[4];
+	final double[] coef13 = new double[4];
+	final double[] coef23 = new double[4];
+
+	// Polynomials in lambda3. g[i] is the coefficient of lambda2^i after lambda1 has been eliminated
+	final double[][] g = new double[5][MAX_COEF];
+	final double[] polyP = new double[MAX_COEF];
+	final double[] polyQ = new double[MAX_COEF];
+	final double[] work0 = new double[MAX_COEF];
+	final double[] work1 = new double[MAX_COEF];
+	final Polynomial poly = new Polynomial(MAX_COEF);
+
+	// Points in world and rig frames
+	final List<Point3D_F64> cloudWorld = new ArrayList<>();
+	final List<Point3D_F64> cloudRig = new ArrayList<>();
+
+	// Workspace
+	final Vector3D_F64 w = new Vector3D_F64();
+	final Se3_F64 camera_to_rig = new Se3_F64();
+	final Vector3D_F64 pointingCam = new Vector3D_F64();
+
+	// Polynomials in lambda2 and lambda3. Indexed by [lambda2 power][lambda3 power]
+	final double[][] p1 = new double[5][5];
+	final double[][] q1 = new double[5][5];
+	final double[][] p2 = new double[5][5];
+	final double[][] q2 = new double[5][5];
+	final double[][] dp = new double[5][5];
+	final double[][] dq = new double[5][5];
+	final double[][] res = new double[5][5];
+	final double[][] work2D0 = new double[5][5];
+	final double[][] work2D1 = new double[5][5];
+	final double[] h = new double[MAX_COEF];
+
+	// Distance along each ray
+	final double[] lambdas = new double[3];
+
+	/**
+	 * @param rootFinder Root finder for real roots of polynomials up to 8th order
+	 * @param motionFit Computes the rigid body motion between two sets of 3D points
+	 */
+	public GeneralizedP3P( PolynomialRoots rootFinder, MotionTransformPoint<Se3_F64, Point3D_F64> motionFit ) {
+		this.rootFinder = rootFinder;
+		this.motionFit = motionFit;
+		for (int i = 0; i < 3; i++) {
+			cloudRig.add(new Point3D_F64());
+		}
+	}
+
+	/**
+	 * Specifies the location of each camera on the rig
+	 *
+	 * @param rig_to_cameras Transform from the rig's body frame to each camera. Copied.
+	 */
+	public void setRig( List<Se3_F64> rig_to_cameras ) {
+		this.rig_to_cameras.reset();
+		for (int i = 0; i < rig_to_cameras.size(); i++) {
+			this.rig_to_cameras.grow().setTo(rig_to_cameras.get(i));
+		}
+	}
+
+	/**
+	 * Computes the transforms from world to rig which are consistent with the three observations
+	 *
+	 * @param p1 Observation of the first point
+	 * @param camera1 Index of the camera which observed the first point
+	 * @param p2 Observation of the second point
+	 * @param camera2 Index of the camera which observed the second point
+	 * @param p3 Observation of the third point
+	 * @param camera3 Index of the camera which observed the third point
+	 * @return true if at least one solution was found
+	 */
+	public boolean process( Point2D3D p1, int camera1, Point2D3D p2, int camera2, Point2D3D p3, int camera3 ) {
+		solutions.reset();
+
+		computeRay(p1, camera1, centers[0], pointing[0]);
+		computeRay(p2, camera2, centers[1], pointing[1]);
+		computeRay(p3, camera3, centers[2], pointing[2]);
+
+		// Scale everything so that the largest distance is one. Improves numerical stability
+		double d12 = p1.location.distance2(p2.location);
+		double d13 = p1.location.distance2(p3.location);
+		double d23 = p2.location.distance2(p3.location);
+		double scale = Math.sqrt(Math.max(d12, Math.max(d13, d23)));
+		if (scale == 0.0)
+			return false;
+
+		computeCoefficients(0, 1, d12/(scale*scale), scale, coef12);
+		computeCoefficients(0, 2, d13/(scale*scale), scale, coef13);
+		computeCoefficients(1, 2, d23/(scale*scale), scale, coef23);
+
+		if (!computePolynomial())
+			return false;
+
+		if (!rootFinder.process(poly))
+			return false;
+
+		cloudWorld.clear();
+		cloudWorld.add(p1.location);
+		cloudWorld.add(p2.location);
+		cloudWorld.add(p3.location);
+
+		List<Complex_F64> roots = rootFinder.getRoots();
+		for (int rootIdx = 0; rootIdx < roots.size(); rootIdx++) {
+			Complex_F64 r = roots.get(rootIdx);
+			if (!r.isReal())
+				continue;
+
+			double lambda3 = r.real;
+			if (lambda3 <= 0.0)
+				continue;
+
+			// Solve for lambda2 using the linear equation left over after reducing with f23
+			double A = evaluate(g[1], lambda3);
+			double B = evaluate(g[0], lambda3);
+			if (Math.abs(A) <= UtilEjml.EPS)
+				continue;
+			double lambda2 = -B/A;
+
+			// Solve for lambda1 using the difference between f12 and f13, which is linear in lambda1
+			double p12 = coef12[0]*lambda2 + coef12[1];
+			double q12 = lambda2*lambda2 + coef12[2]*lambda2 + coef12[3];
+			double p13 = coef13[0]*lambda3 + coef13[1];
+			double q13 = lambda3*lambda3 + coef13[2]*lambda3 + coef13[3];
+			if (Math.abs(p12 - p13) <= UtilEjml.EPS)
+				continue;
+			double lambda1 = -(q12 - q13)/(p12 - p13);
+			if (lambda1 <= 0.0 || lambda2 <= 0.0)
+				continue;
+
+			// Roots which are close together lose precision. Polish using the original constraints
+			lambdas[0] = lambda1;
+			lambdas[1] = lambda2;
+			lambdas[2] = lambda3;
+			refineLambdas(lambdas);
+
+			if (lambdas[0] <= 0.0 || lambdas[1] <= 0.0 || lambdas[2] <= 0.0)
+				continue;
+
+			setPoint(0, lambdas[0]*scale, cloudRig.get(0));
+			setPoint(1, lambdas[1]*scale, cloudRig.get(1));
+			setPoint(2, lambdas[2]*scale, cloudRig.get(2));
+
+			if (!motionFit.process(cloudWorld, cloudRig))
+				continue;
+
+			solutions.grow().setTo(motionFit.getTransformSrcToDst());
+		}
+
+		return solutions.size > 0;
+	}
+
+	/**
+	 * Computes the ray's origin and pointing vector in the rig's frame
+	 */
+	void computeRay( Point2D3D p, int cameraIdx, Point3D_F64 center, Vector3D_F64 direction ) {
+		rig_to_cameras.get(cameraIdx).invert(camera_to_rig);
+		center.setTo(camera_to_rig.T.x, camera_to_rig.T.y, camera_to_rig.T.z);
+		pointingCam.setTo(p.observation.x, p.observation.y, 1.0);
+		GeometryMath_F64.mult(camera_to_rig.R, pointingCam, direction);
+		direction.normalize();
+	}
+
+	/**
+	 * Computes the coefficients of the constraint |P<sub>i</sub> - P<sub>j</sub>|<sup>2</sup> = D<sub>ij</sub>,
+	 * which is written as &lambda;<sub>i</sub><sup>2</sup> + (a &lambda;<sub>j</sub> + b) &lambda;<sub>i</sub> +
+	 * &lambda;<sub>j</sub><sup>2</sup> + c &lambda;<sub>j</sub> + e = 0 and stored as [a, b, c, e].
+	 */
+	void computeCoefficients( int i, int j, double distanceSq, double scale, double[] coef ) {
+		Vector3D_F64 di = pointing[i];
+		Vector3D_F64 dj = pointing[j];
+		w.setTo((centers[i].x - centers[j].x)/scale,
+				(centers[i].y - centers[j].y)/scale,
+				(centers[i].z - centers[j].z)/scale);
+
+		coef[0] = -2.0*di.dot(dj);
+		coef[1] = 2.0*di.dot(w);
+		coef[2] = -2.0*dj.dot(w);
+		coef[3] = w.normSq() - distanceSq;
+	}
+
+	/**
+	 * Eliminates lambda1 and lambda2 to produce a polynomial in lambda3
+	 *
+	 * @return true if successful
+	 */
+	boolean computePolynomial() {
+		// f12 = l1^2 + p1*l1 + q1 and f13 = l1^2 + p2*l1 + q2
+		zero(p1);
+		zero(q1);
+		zero(p2);
+		zero(q2);
+		p1[1][0] = coef12[0];
+		p1[0][0] = coef12[1];
+		q1[2][0] = 1.0;
+		q1[1][0] = coef12[2];
+		q1[0][0] = coef12[3];
+		p2[0][1] = coef13[0];
+		p2[0][0] = coef13[1];
+		q2[0][2] = 1.0;
+		q2[0][1] = coef13[2];
+		q2[0][0] = coef13[3];
+
+		// Resultant of f12 and f13 with respect to l1: dq^2 - p1*dq*dp + q1*dp^2
+		subtract(p1, p2, dp);
+		subtract(q1, q2, dq);
+		multiply(dq, dq, res);
+		multiply(dq, dp, work2D0);
+		multiply(p1, work2D0, work2D1);
+		subtract(res, work2D1, res);
+		multiply(dp, dp, work2D0);
+		multiply(q1, work2D0, work2D1);
+		add(res, work2D1, res);
+
+		// Reduce the degree of l2 using f23 = l2^2 + P*l2 + Q, where P and Q are polynomials in l3
+		for (int i = 0; i < 5; i++) {
+			zero(g[i]);
+			System.arraycopy(res[i], 0, g[i], 0, 5);
+		}
+		zero(polyP);
+		polyP[0] = coef23[1];
+		polyP[1] = coef23[0];
+		zero(polyQ);
+		polyQ[0] = coef23[3];
+		polyQ[1] = coef23[2];
+		polyQ[2] = 1.0;
+
+		for (int i = 4; i >= 2; i--) {
+			multiply(polyP, g[i], work0);
+			subtract(g[i - 1], work0, g[i - 1]);
+			multiply(polyQ, g[i], work0);
+			subtract(g[i - 2], work0, g[i - 2]);
+			zero(g[i]);
+		}
+
+		// Resultant of f23 and A*l2 + B with respect to l2: B^2 - P*A*B + Q*A^2
+		double[] A = g[1];
+		double[] B = g[0];
+		multiply(B, B, h);
+		multiply(A, B, work0);
+		multiply(polyP, work0, work1);
+		subtract(h, work1, h);
+		multiply(A, A, work0);
+		multiply(polyQ, work0, work1);
+		add(h, work1, h);
+
+		// Normalize so that the smallest coefficients can be safely discarded
+		double max = 0;
+		for (int i = 0; i < h.length; i++) {
+			max = Math.max(max, Math.abs(h[i]));
+		}
+		if (max == 0.0)
+			return false;
+
+		poly.resize(MAX_COEF);
+		for (int i = 0; i < MAX_COEF; i++) {
+			poly.c[i] = h[i]/max;
+		}
+		poly.truncateZeros(UtilEjml.EPS);
+		return poly.computeDegree() > 0;
+	}
+
+	/**
+	 * Refines the distances along each ray using Newton's method on the three distance constraints
+	 */
+	void refineLambdas( double[] l ) {
+		for (int iter = 0; iter < 5; iter++) {
+			// Residual and Jacobian of each constraint
+			double f12 = constraint(coef12, l[0], l[1]);
+			double f13 = constraint(coef13, l[0], l[2]);
+			double f23 = constraint(coef23, l[1], l[2]);
+
+			double a11 = 2.0*l[0] + coef12[0]*l[1] + coef12[1];
+			double a12 = 2.0*l[1] + coef12[0]*l[0] + coef12[2];
+			double a21 = 2.0*l[0] + coef13[0]*l[2] + coef13[1];
+			double a23 = 2.0*l[2] + coef13[0]*l[0] + coef13[2];
+			double a32 = 2.0*l[1] + coef23[0]*l[2] + coef23[1];
+			double a33 = 2.0*l[2] + coef23[0]*l[1] + coef23[2];
+
+			// Solve J*delta = f using Cramer's rule. J = [a11 a12 0; a21 0 a23; 0 a32 a33]
+			double det = -a11*a23*a32 - a12*a21*a33;
+			if (Math.abs(det) <= UtilEjml.EPS)
+				return;
+
+			double d0 = (-f12*a23*a32 - a12*(f13*a33 - a23*f23))/det;
+			double d1 = (a11*(f13*a33 - a23*f23) - f12*(a21*a33))/det;
+			double d2 = (-a11*f13*a32 - a12*a21*f23 + f12*a21*a32)/det;
+
+			l[0] -= d0;
+			l[1] -= d1;
+			l[2] -= d2;
+
+			if (Math.abs(d0) + Math.abs(d1) + Math.abs(d2) <= UtilEjml.EPS*(l[0] + l[1] + l[2]))
+				return;
+		}
+	}
+
+	/**
+	 * Evaluates the constraint with coefficients [a, b, c, e]. See {@link #computeCoefficients}
+	 */
+	static double constraint( double[] coef, double li, double lj ) {
+		return li*li + (coef[0]*lj + coef[1])*li + lj*lj + coef[2]*lj + coef[3];
+	}
+
+	/**
+	 * Sets the point's location along the ray in the rig's frame
+	 */
+	void setPoint( int which, double lambda, Point3D_F64 p ) {
+		Point3D_F64 c = centers[which];
+		Vector3D_F64 d = pointing[which];
+		p.setTo(c.x + lambda*d.x, c.y + lambda*d.y, c.z + lambda*d.z);
+	}
+
+	static double evaluate( double[] poly, double x ) {
+		double result = 0;
+		for (int i = poly.length - 1; i >= 0; i--) {
+			result = result*x + poly[i];
+		}
+		return result;
+	}
+
+	static void zero( double[] a ) {
+		for (int i = 0; i < a.length; i++) {
+			a[i] = 0.0;
+		}
+	}
+
+	/** c = a*b for univariate polynomials. Terms which don't fit are discarded, but should always be zero */
+	static void multiply( double[] a, double[] b, double[] c ) {
+		zero(c);
+		for (int i = 0; i < a.length; i++) {
+			if (a[i] == 0.0)
+				continue;
+			for (int j = 0; i + j < c.length; j++) {
+				c[i + j] += a[i]*b[j];
+			}
+		}
+	}
+
+	static void add( double[] a, double[] b, double[] c ) {
+		for (int i = 0; i < c.length; i++) {
+			c[i] = a[i] + b[i];
+		}
+	}
+
+	static void subtract( double[] a, double[] b, double[] c ) {
+		for (int i = 0; i < c.length; i++) {
+			c[i] = a[i] - b[i];
+		}
+	}
+
+	static void zero( double[][] a ) {
+		for (int i = 0; i < a.length; i++) {
+			zero(a[i]);
+		}
+	}
+
+	/** c = a*b for polynomials in l2 and l3. Total degree of the output must be 4 or less */
+	static void multiply( double[][] a, double[][] b, double[][] c ) {
+		zero(c);
+		for (int i0 = 0; i0 < 5; i0++) {
+			for (int j0 = 0; i0 + j0 < 5; j0++) {
+				if (a[i0][j0] == 0.0)
+					continue;
+				for (int i1 = 0; i0 + i1 < 5; i1++) {
+					for (int j1 = 0; i0 + i1 + j0 + j1 < 5; j1++) {
+						c[i0 + i1][j0 + j1] += a[i0][j0]*b[i1][j1];
+					}
+				}
+			}
+		}
+	}
+
+	static void add( double[][] a, double[][] b, double[][] c ) {
+		for (int i = 0; i < 5; i++) {
+			add(a[i], b[i], c[i]);
+		}
+	}
+
+	static void subtract( double[][] a, double[][] b, double[][] c ) {
+		for (int i = 0; i < 5; i++) {
+			subtract(a[i], b[i], c[i]);
+		}
+	}
+
+	/**
+	 * Returns the found solutions. Transform from world to the rig's body frame.
+	 */
+	public DogArray<Se3_F64> getSolutions() {
+		return solutions;
+	}
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.pose;
+
+import boofcv.alg.geo.RodriguesRotationJacobian_F64;
+import boofcv.struct.geo.Point2D3D;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.so.Rodrigues_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.optimization.FactoryOptimization;
+import org.ddogleg.optimization.UnconstrainedLeastSquares;
+import org.ddogleg.optimization.functions.FunctionNtoM;
+import org.ddogleg.optimization.functions.FunctionNtoMxN;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_I32;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Solves the Perspective N-Point (PnP) problem for a generalized camera composed of multiple cameras rigidly attached
+ * to a rig with known extrinsics. The estimated transform is from world to the rig's body frame. Observations
+ * from all the cameras are used at once, which is more accurate than solving for each camera independently,
+ * and the pose can be found even when no single camera sees enough points.
+ * </p>
+ *
+ * <p>
+ * An initial estimate is found with {@link GeneralizedP3P} using three observations spread across the cameras. The
+ * solution with the smallest reprojection error across all observations is selected. It's then refined by
+ * minimizing the reprojection error in normalized image coordinates across all cameras using Levenberg-Marquardt
+ * with rotations encoded as Rodrigues coordinates. At least four observations are required. For data with outliers
+ * see {@link boofcv.alg.geo.robust.GeneratePnPGeneralized}.
+ * </p>
+ *
+ * <p>
+ * <b>Observations are in normalized image coordinates</b>, e.g. (x,y,1.0) is the pointing vector in the camera frame.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PnPGeneralizedCamera {
+	/** Minimal solver used to compute the initial estimate */
+	final GeneralizedP3P p3p;
+
+	/** Transform from the rig's body frame to each camera */
+	final DogArray<Se3_F64> rig_to_cameras = new DogArray<>(Se3_F64::new);
+
+	// Non-linear refinement across all cameras
+	final UnconstrainedLeastSquares<DMatrixRMaj> minimizer;
+	final PnPRodriguesCodec codec = new PnPRodriguesCodec();
+	final ResidualFunction residual = new ResidualFunction();
+	final JacobianFunction jacobian = new JacobianFunction();
+	final double[] param = new double[6];
+	double ftol;
+	int maxIterations;
+
+	// All the observations in a single list and which camera they came from
+	final List<Point2D3D> allObservations = new ArrayList<>();
+	final DogArray_I32 allCameras = new DogArray_I32();
+
+	// Workspace
+	final Point3D_F64 rigPt = new Point3D_F64();
+	final Point3D_F64 cameraPt = new Point3D_F64();
+
+	/**
+	 * @param p3p Minimal solver used to compute the initial estimate.
+	 * @param ftol Convergence tolerance for non-linear refinement. Try 1e-8
+	 * @param maxIterations Maximum number of iterations for non-linear refinement. If zero there is no refinement.
+	 */
+	public PnPGeneralizedCamera( GeneralizedP3P p3p, double ftol, int maxIterations ) {
+		this.p3p = p3p;
+		this.ftol = ftol;
+		this.maxIterations = maxIterations;
+		this.minimizer = FactoryOptimization.levenbergMarquardt(null, false);
+	}
+
+	/**
+	 * Specifies the location of each camera on the rig
+	 *
+	 * @param rig_to_cameras Transform from the rig's body frame to each camera. Copied.
+	 */
+	public void setRig( List<Se3_F64> rig_to_cameras ) {
+		this.rig_to_cameras.reset();
+		for (int i = 0; i < rig_to_cameras.size(); i++) {
+			this.rig_to_cameras.grow().setTo(rig_to_cameras.get(i));
+		}
+		p3p.setRig(rig_to_cameras);
+	}
+
+	/**
+	 * Estimates the pose of the rig
+	 *
+	 * @param observations Observations from each camera. Same order as the cameras passed to {@link #setRig}.
+	 * @param world_to_rig (Output) Transform from world to the rig's body frame
+	 * @return true if successful or false if it failed
+	 */
+	public boolean process( List<List<Point2D3D>> observations, Se3_F64 world_to_rig ) {
+		if (observations.size() != rig_to_cameras.size())
+			throw new IllegalArgumentException("Number of cameras doesn't match the rig. " +
+					observations.size() + " vs " + rig_to_cameras.size());
+
+		// Put all the observations into a single list
+		allObservations.clear();
+		allCameras.reset();
+		for (int cameraIdx = 0; cameraIdx < observations.size(); cameraIdx++) {
+			List<Point2D3D> list = observations.get(cameraIdx);
+			for (int i = 0; i < list.size(); i++) {
+				allObservations.add(list.get(i));
+				allCameras.add(cameraIdx);
+			}
+		}
+
+		final int N = allObservations.size();
+		if (N < getMinimumPoints())
+			return false;
+
+		// Observations are ordered by camera. Spacing them out will select from different cameras when possible
+		int idx1 = 0, idx2 = N/3, idx3 = 2*N/3;
+		if (!p3p.process(allObservations.get(idx1), allCameras.get(idx1), allObservations.get(idx2),
+				allCameras.get(idx2), allObservations.get(idx3), allCameras.get(idx3)))
+			return false;
+
+		// Select the solution which is most consistent with all the observations
+		DogArray<Se3_F64> solutions = p3p.getSolutions();
+		double bestError = Double.MAX_VALUE;
+		for (int i = 0; i < solutions.size; i++) {
+			double error = computeErrorSq(solutions.get(i));
+			if (error < bestError) {
+				bestError = error;
+				world_to_rig.setTo(solutions.get(i));
+			}
+		}
+		if (bestError == Double.MAX_VALUE)
+			return false;
+
+		if (maxIterations <= 0)
+			return true;
+
+		// Refine using all the observations
+		codec.encode(world_to_rig, param);
+		minimizer.setFunction(residual, jacobian);
+		minimizer.initialize(param, 0, ftol*allObservations.size());
+
+		for (int i = 0; i < maxIterations; i++) {
+			if (minimizer.iterate())
+				break;
+		}
+		codec.decode(minimizer.getParameters(), world_to_rig);
+
+		return true;
+	}
+
+	/**
+	 * Sum of the squared reprojection error across all the observations. Points behind a camera have infinite error.
+	 */
+	double computeErrorSq( Se3_F64 world_to_rig ) {
+		double total = 0.0;
+		for (int i = 0; i < allObservations.size(); i++) {
+			Point2D3D o = allObservations.get(i);
+			SePointOps_F64.transform(world_to_rig, o.location, rigPt);
+			SePointOps_F64.transform(rig_to_cameras.get(allCameras.data[i]), rigPt, cameraPt);
+			if (cameraPt.z <= 0.0)
+				return Double.MAX_VALUE;
+
+			double dx = cameraPt.x/cameraPt.z - o.observation.x;
+			double dy = cameraPt.y/cameraPt.z - o.observation.y;
+			total += dx*dx + dy*dy;
+		}
+		return total;
+	}
+
+	/**
+	 * Minimum number of observations, across all cameras, required to estimate the pose
+	 */
+	public int getMinimumPoints() {
+		return 4;
+	}
+
+	/**
+	 * Returns the fit score after refinement. Sum of the squared error in normalized image coordinates.
+	 */
+	public double getFitScore() {
+		return minimizer.getFunctionValue();
+	}
+
+	/**
+	 * Reprojection error in normalized image coordinates for all the observations in all the cameras
+	 */
+	class ResidualFunction implements FunctionNtoM {
+		final Se3_F64 world_to_rig = new Se3_F64();
+		final Point3D_F64 rigPt = new Point3D_F64();
+		final Point3D_F64 cameraPt = new Point3D_F64();
+
+		@Override public void process( double[] input, double[] output ) {
+			codec.decode(input, world_to_rig);
+
+			for (int i = 0, index = 0; i < allObservations.size(); i++) {
+				Point2D3D o = allObservations.get(i);
+				SePointOps_F64.transform(world_to_rig, o.location, rigPt);
+				SePointOps_F64.transform(rig_to_cameras.get(allCameras.data[i]), rigPt, cameraPt);
+
+				output[index++] = cameraPt.x/cameraPt.z - o.observation.x;
+				output[index++] = cameraPt.y/cameraPt.z - o.observation.y;
+			}
+		}
+
+		@Override public int getNumOfInputsN() {return 6;}
+
+		@Override public int getNumOfOutputsM() {return allObservations.size()*2;}
+	}
+
+	/**
+	 * Jacobian of {@link ResidualFunction}. The rig's rotation is encoded using Rodrigues coordinates.
+	 */
+	class JacobianFunction implements FunctionNtoMxN<DMatrixRMaj> {
+		final RodriguesRotationJacobian_F64 rodJacobian = new RodriguesRotationJacobian_F64();
+		final Rodrigues_F64 rodrigues = new Rodrigues_F64();
+		final Se3_F64 world_to_rig = new Se3_F64();
+
+		final Point3D_F64 rigPt = new Point3D_F64();
+		final Point3D_F64 cameraPt = new Point3D_F64();
+
+		// partial of the point in the rig's frame and in the camera's frame
+		final Point3D_F64 dRig = new Point3D_F64();
+		final Point3D_F64 dCam = new Point3D_F64();
+
+		@Override public void process( double[] input, DMatrixRMaj J ) {
+			rodrigues.setParamVector(input[0], input[1], input[2]);
+			rodJacobian.process(input[0], input[1], input[2]);
+			ConvertRotation3D_F64.rodriguesToMatrix(rodrigues, world_to_rig.R);
+			world_to_rig.T.setTo(input[3], input[4], input[5]);
+
+			double[] output = J.data;
+			for (int i = 0; i < allObservations.size(); i++) {
+				Point2D3D o = allObservations.get(i);
+				Se3_F64 rig_to_camera = rig_to_cameras.get(allCameras.data[i]);
+				SePointOps_F64.transform(world_to_rig, o.location, rigPt);
+				SePointOps_F64.transform(rig_to_camera, rigPt, cameraPt);
+
+				int indexX = 2*6*i;
+				int indexY = indexX + 6;
+
+				// Rotation. Partial of point in rig's frame is dot(R)*X
+				indexX = addPartial(rodJacobian.Rx, o.location, rig_to_camera, output, indexX, indexY++);
+				indexX = addPartial(rodJacobian.Ry, o.location, rig_to_camera, output, indexX, indexY++);
+				indexX = addPartial(rodJacobian.Rz, o.location, rig_to_camera, output, indexX, indexY++);
+
+				// Translation. Partial of point in rig's frame is a unit vector
+				dRig.setTo(1, 0, 0);
+				indexX = addPartial(rig_to_camera, output, indexX, indexY++);
+				dRig.setTo(0, 1, 0);
+				indexX = addPartial(rig_to_camera, output, indexX, indexY++);
+				dRig.setTo(0, 0, 1);
+				addPartial(rig_to_camera, output, indexX, indexY);
+			}
+		}
+
+		private int addPartial( DMatrixRMaj Rj, Point3D_F64 X, Se3_F64 rig_to_camera,
+								double[] output, int indexX, int indexY ) {
+			dRig.x = Rj.data[0]*X.x + Rj.data[1]*X.y + Rj.data[2]*X.z;
+			dRig.y = Rj.data[3]*X.x + Rj.data[4]*X.y + Rj.data[5]*X.z;
+			dRig.z = Rj.data[6]*X.x + Rj.data[7]*X.y + Rj.data[8]*X.z;
+			return addPartial(rig_to_camera, output, indexX, indexY);
+		}
+
+		/**
+		 * Converts the partial in the rig's frame into the partial of the normalized image coordinate.
+		 *
+		 * deriv [x,y] = dot(p)/z - p*dot(z)/z^2, where p = [x,y] and dot(p) = R_c*dot(rigPt)
+		 */
+		private int addPartial( Se3_F64 rig_to_camera, double[] output, int indexX, int indexY ) {
+			DMatrixRMaj Rc = rig_to_camera.R;
+			dCam.x = Rc.data[0]*dRig.x + Rc.data[1]*dRig.y + Rc.data[2]*dRig.z;
+			dCam.y = Rc.data[3]*dRig.x + Rc.data[4]*dRig.y + Rc.data[5]*dRig.z;
+			dCam.z = Rc.data[6]*dRig.x + Rc.data[7]*dRig.y + Rc.data[8]*dRig.z;
+
+			double z = cameraPt.z;
+			double z2 = z*z;
+			output[indexX] = dCam.x/z - cameraPt.x*dCam.z/z2;
+			output[indexY] = dCam.y/z - cameraPt.y*dCam.z/z2;
+			return indexX + 1;
+		}
+
+		@Override public int getNumOfInputsN() {return 6;}
+
+		@Override public int getNumOfOutputsM() {return allObservations.size()*2;}
+
+		@Override public DMatrixRMaj declareMatrixMxN() {
+			return new DMatrixRMaj(getNumOfOutputsM(), getNumOfInputsN());
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.pose;
+
+import boofcv.struct.geo.Point2D3DCamera;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.struct.DogArray;
+
+import java.util.List;
+
+/**
+ * Computes the reprojection error squared for a generalized camera, i.e. multiple cameras rigidly attached to a rig
+ * with known extrinsics. The model is the transform from world to the rig's body frame. Observations are in
+ * normalized image coordinates and so is the error.
+ *
+ * @author Peter Abeles
+ * @see PnPDistanceReprojectionSq
+ */
+public class PnPGeneralizedDistanceSq implements DistanceFromModel<Se3_F64, Point2D3DCamera> {
+
+	/** Transform from the rig's body frame to each camera */
+	final DogArray<Se3_F64> rig_to_cameras = new DogArray<>(Se3_F64::new);
+
+	// Transform from world to each camera for the current model
+	final DogArray<Se3_F64> world_to_cameras = new DogArray<>(Se3_F64::new);
+
+	// storage for point in camera frame
+	final Point3D_F64 X = new Point3D_F64();
+
+	/**
+	 * Specifies the location of each camera on the rig
+	 *
+	 * @param rig_to_cameras Transform from the rig's body frame to each camera. Copied.
+	 */
+	public void setRig( List<Se3_F64> rig_to_cameras ) {
+		this.rig_to_cameras.reset();
+		for (int i = 0; i < rig_to_cameras.size(); i++) {
+			this.rig_to_cameras.grow().setTo(rig_to_cameras.get(i));
+		}
+		world_to_cameras.resize(rig_to_cameras.size());
+	}
+
+	@Override public void setModel( Se3_F64 world_to_rig ) {
+		for (int i = 0; i < rig_to_cameras.size; i++) {
+			world_to_rig.concat(rig_to_cameras.get(i), world_to_cameras.get(i));
+		}
+	}
+
+	@Override public double distance( Point2D3DCamera pt ) {
+		SePointOps_F64.transform(world_to_cameras.get(pt.camera), pt.location, X);
+
+		// very large error if behind the camera
+		if (X.z <= 0)
+			return Double.MAX_VALUE;
+
+		double dx = X.x/X.z - pt.observation.x;
+		double dy = X.y/X.z - pt.observation.y;
+
+		return dx*dx + dy*dy;
+	}
+
+	@Override public void distances( List<Point2D3DCamera> observations, double[] distance ) {
+		for (int i = 0; i < observations.size(); i++)
+			distance[i] = distance(observations.get(i));
+	}
+
+	@Override public Class<Point2D3DCamera> getPointType() {
+		return Point2D3DCamera.class;
+	}
+
+	@Override public Class<Se3_F64> getModelType() {
+		return Se3_F64.class;
+	}
+}
@@ -141,6 +141,9 @@ public class PnPLepetitEPnP {
 
 	// mean location of world points
 	private final Point3D_F64 meanWorldPts = new Point3D_F64();
+	// covariance of world points and its right singular vectors. Saved to avoid creating new memory
+	private final DMatrixRMaj covar = new DMatrixRMaj(3, 3);
+	private final DMatrixRMaj covarV = new DMatrixRMaj(3, 3);
 
 	// number of iterations it will perform
 	private int numIterations;
@@ -329,12 +332,15 @@ public class PnPLepetitEPnP {
 		}
 		c11/=N;c12/=N;c13/=N;c22/=N;c23/=N;c33/=N;
 
-		DMatrixRMaj covar = new DMatrixRMaj(3, 3, true, c11, c12, c13, c12, c22, c23, c13, c23, c33);
+		double[] cd = covar.data;
+		cd[0] = c11;cd[1] = c12;cd[2] = c13;
+		cd[3] = c12;cd[4] = c22;cd[5] = c23;
+		cd[6] = c13;cd[7] = c23;cd[8] = c33;
 
 		// find the data's orientation and check to see if it is planar
 		svd.decompose(covar);
 		double[] singularValues = svd.getSingularValues();
-		DMatrixRMaj V = svd.getV(null, false);
+		DMatrixRMaj V = svd.getV(covarV, false);
 
 		SingularOps_DDRM.descendingOrder(null, false, singularValues, 3, V, false);
 
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.alg.geo.pose.GeneralizedP3P;
+import boofcv.alg.geo.pose.PnPGeneralizedDistanceSq;
+import boofcv.struct.geo.Point2D3DCamera;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.struct.DogArray;
+
+import java.util.List;
+
+/**
+ * Estimates the pose of a generalized camera, e.g. a multi-camera rig, using {@link GeneralizedP3P}. The first three
+ * points are used to compute up to eight solutions and the remaining points are used to select the one with the
+ * smallest reprojection error.
+ *
+ * @author Peter Abeles
+ */
+public class GeneratePnPGeneralized implements ModelGenerator<Se3_F64, Point2D3DCamera> {
+	final GeneralizedP3P alg;
+	final PnPGeneralizedDistanceSq distance = new PnPGeneralizedDistanceSq();
+
+	// Number of points used to select the best solution
+	final int numTest;
+
+	/**
+	 * @param alg Minimal solver
+	 * @param numTest Number of additional points used to select the best solution. Must be at least one.
+	 */
+	public GeneratePnPGeneralized( GeneralizedP3P alg, int numTest ) {
+		if (numTest < 1)
+			throw new IllegalArgumentException("Must test at least one point");
+		this.alg = alg;
+		this.numTest = numTest;
+	}
+
+	/**
+	 * Specifies the location of each camera on the rig
+	 *
+	 * @param rig_to_cameras Transform from the rig's body frame to each camera. Copied.
+	 */
+	public void setRig( List<Se3_F64> rig_to_cameras ) {
+		alg.setRig(rig_to_cameras);
+		distance.setRig(rig_to_cameras);
+	}
+
+	@Override public boolean generate( List<Point2D3DCamera> dataSet, Se3_F64 world_to_rig ) {
+		Point2D3DCamera p1 = dataSet.get(0);
+		Point2D3DCamera p2 = dataSet.get(1);
+		Point2D3DCamera p3 = dataSet.get(2);
+		if (!alg.process(p1, p1.camera, p2, p2.camera, p3, p3.camera))
+			return false;
+
+		// Select the solution which best fits the remaining points
+		DogArray<Se3_F64> solutions = alg.getSolutions();
+		double bestError = Double.MAX_VALUE;
+		int bestIdx = -1;
+		for (int solutionIdx = 0; solutionIdx < solutions.size; solutionIdx++) {
+			distance.setModel(solutions.get(solutionIdx));
+			double error = 0;
+			for (int i = 3; i < dataSet.size(); i++) {
+				error += distance.distance(dataSet.get(i));
+			}
+			if (error < bestError) {
+				bestError = error;
+				bestIdx = solutionIdx;
+			}
+		}
+		if (bestIdx == -1)
+			return false;
+
+		world_to_rig.setTo(solutions.get(bestIdx));
+		return true;
+	}
+
+	@Override public int getMinimumPoints() {
+		return 3 + numTest;
+	}
+}
@@ -0,0 +1,502 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.alg.geo.DistanceFromModelMultiView;
+import boofcv.factory.geo.ConfigRansac;
+import boofcv.struct.calib.CameraPinhole;
+import lombok.Getter;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.Factory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * RANSAC with adaptive termination, preemptive scoring, PROSAC sampling, and local optimization. Hypotheses are
+ * generated and scored in batches, which allows the concurrent implementation to score them in parallel. Each
+ * hypothesis is sampled using a random number generator seeded from its index, and the best model is only
+ * updated between batches. As a result the output only depends on the random seed and the input, not
+ * on the number of threads.
+ * </p>
+ *
+ * <ul>
+ *     <li>Adaptive: Once the inlier fraction w is known the number of iterations is reduced to
+ *     log(1-confidence)/log(1-w<sup>m</sup>), where m is the minimum number of points.</li>
+ *     <li>Preemptive: Each hypothesis is first scored against a random subset. If the number of inliers is
+ *     significantly less than what's expected from the best hypothesis so far, it is discarded.</li>
+ *     <li>PROSAC: If the input is sorted by quality, best first, then samples are initially drawn from the
+ *     best points and the pool is grown until it includes all the points.</li>
+ *     <li>Local Optimization: When a new best model is found, a new model is fit to a sample of its inliers and
+ *     kept if it has more inliers.</li>
+ * </ul>
+ *
+ * <p>
+ * There is no LMedS equivalent. LMedS scores a hypothesis using the median error across all the points, which can't
+ * be bounded using a subset of the points and doesn't provide an inlier fraction to stop early with.
+ * </p>
+ *
+ * <p>
+ * Each thread needs its own generator and distance function, so factories are passed in instead of instances.
+ * If the distance function is a {@link DistanceFromModelMultiView} then intrinsic parameters can be set
+ * through {@link #setIntrinsic}.
+ * </p>
+ *
+ * <p>
+ * [1] Chum, Ondrej, and Jiri Matas. "Matching with PROSAC-progressive sample consensus." CVPR 2005<br>
+ * [2] Chum, Ondrej, Jiri Matas, and Josef Kittler. "Locally optimized RANSAC." DAGM 2003
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class RansacAdaptive<Model, Point> implements ModelMatcherMultiview<Model, Point> {
+	/** Number of hypotheses which are generated before the best model is updated */
+	public static final int BATCH_SIZE = 64;
+
+	/** Configuration */
+	@Getter final ConfigRansac config;
+
+	/** Points with an error less than or equal to this are inliers */
+	@Getter final double thresholdFit;
+
+	final ModelManager<Model> manager;
+	final Factory<ModelGenerator<Model, Point>> factoryGenerator;
+	final Factory<DistanceFromModel<Model, Point>> factoryDistance;
+
+	// Used to compute the final results and local optimization
+	final Worker mainWorker;
+
+	// Intrinsic parameters for each view. Used if the distance is DistanceFromModelMultiView. Null if not set
+	final List<CameraPinhole> intrinsics = new ArrayList<>();
+	// Incremented each time the intrinsics change so workers know to update
+	int intrinsicVersion = 0;
+
+	// Input data
+	List<Point> dataSet = new ArrayList<>();
+	// Subset used for preemptive scoring
+	final List<Point> preemptiveSubset = new ArrayList<>();
+
+	// Models and number of inliers for each hypothesis in the batch. -1 means no valid model
+	final DogArray<Model> hypotheses;
+	final DogArray_I32 hypothesisInliers = new DogArray_I32();
+	// Size of the PROSAC sample pool for each hypothesis in the batch
+	final DogArray_I32 poolSizes = new DogArray_I32();
+
+	// Best model found so far
+	final Model bestModel;
+	int bestInliers;
+	// Inlier fraction of the best model. Used for preemptive scoring
+	double bestFraction;
+
+	// PROSAC state
+	int prosacN;
+	double prosacTn;
+	double prosacTnPrime;
+
+	/** Number of hypotheses generated in the most recent call to process */
+	@Getter int iterations;
+
+	// Output
+	final List<Point> matchSet = new ArrayList<>();
+	final DogArray_I32 inputIndexes = new DogArray_I32();
+
+	/**
+	 * Constructor
+	 *
+	 * @param config Configuration. Reference is saved.
+	 * @param thresholdFit Points with an error less than or equal to this are inliers
+	 * @param manager Used to create and copy models
+	 * @param factoryGenerator Creates a new generator for each thread
+	 * @param factoryDistance Creates a new distance function for each thread
+	 */
+	public RansacAdaptive( ConfigRansac config, double thresholdFit,
+						   ModelManager<Model> manager,
+						   Factory<ModelGenerator<Model, Point>> factoryGenerator,
+						   Factory<DistanceFromModel<Model, Point>> factoryDistance ) {
+		this.config = config;
+		this.thresholdFit = thresholdFit;
+		this.manager = manager;
+		this.factoryGenerator = factoryGenerator;
+		this.factoryDistance = factoryDistance;
+
+		this.mainWorker = createWorker();
+		this.hypotheses = new DogArray<>(manager::createModelInstance);
+		this.bestModel = manager.createModelInstance();
+	}
+
+	@Override public boolean process( List<Point> dataSet ) {
+		this.dataSet = dataSet;
+		matchSet.clear();
+		inputIndexes.reset();
+		iterations = 0;
+		bestInliers = -1;
+		bestFraction = 0.0;
+
+		final int N = dataSet.size();
+		final int m = getMinimumSize();
+		if (N < m)
+			return false;
+
+		selectPreemptiveSubset();
+		prosacN = m;
+		prosacTnPrime = 1.0;
+		prosacTn = config.iterations;
+		for (int i = 0; i < m; i++) {
+			prosacTn *= (double)(m - i)/(N - i);
+		}
+
+		int required = config.iterations;
+		while (iterations < required) {
+			int count = Math.min(BATCH_SIZE, required - iterations);
+
+			hypotheses.resize(count);
+			hypothesisInliers.resize(count);
+			computePoolSizes(count);
+
+			evaluateBatch(iterations, count);
+
+			// Select the best in a batch in order so that the results don't depend on how many threads there are
+			int best = -1;
+			for (int i = 0; i < count; i++) {
+				if (hypothesisInliers.data[i] > bestInliers) {
+					bestInliers = hypothesisInliers.data[i];
+					best = i;
+				}
+			}
+			iterations += count;
+
+			if (best < 0)
+				continue;
+
+			manager.copyModel(hypotheses.get(best), bestModel);
+			localOptimization();
+			bestFraction = bestInliers/(double)N;
+			required = Math.min(required, adaptiveIterations(bestFraction, m));
+		}
+
+		if (bestInliers < 0)
+			return false;
+
+		// Find the inliers for the best model
+		mainWorker.updateIntrinsics();
+		mainWorker.distance.setModel(bestModel);
+		for (int i = 0; i < N; i++) {
+			Point p = dataSet.get(i);
+			if (mainWorker.distance.distance(p) <= thresholdFit) {
+				matchSet.add(p);
+				inputIndexes.add(i);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Generates and scores hypotheses. Results are saved in {@link #hypotheses} and {@link #hypothesisInliers}.
+	 *
+	 * @param hypothesis0 Index of the first hypothesis in this batch
+	 * @param count Number of hypotheses in this batch
+	 */
+	protected void evaluateBatch( int hypothesis0, int count ) {
+		for (int i = 0; i < count; i++) {
+			hypothesisInliers.data[i] = evaluateHypothesis(mainWorker, hypothesis0, i);
+		}
+	}
+
+	/**
+	 * Generates a hypothesis from a random sample and counts how many inliers it has
+	 *
+	 * @param worker Storage for the thread this is being called from
+	 * @param hypothesis0 Index of the first hypothesis in this batch
+	 * @param index Index of the hypothesis inside the batch
+	 * @return Number of inliers or -1 if it failed
+	 */
+	protected int evaluateHypothesis( Worker worker, int hypothesis0, int index ) {
+		worker.updateIntrinsics();
+		worker.rand.setSeed(hypothesisSeed(hypothesis0 + index));
+		selectSample(worker, poolSizes.data[index]);
+
+		Model model = hypotheses.get(index);
+		if (!worker.generator.generate(worker.sample, model))
+			return -1;
+
+		worker.distance.setModel(model);
+
+		// Preemptive test. Discard the hypothesis if it's significantly worse than the best so far
+		if (bestFraction > 0.0 && !preemptiveSubset.isEmpty()) {
+			int inliers = countInliers(worker.distance, preemptiveSubset);
+			int total = preemptiveSubset.size();
+			double expected = bestFraction*total;
+			double sigma = Math.sqrt(expected*(1.0 - bestFraction));
+			if (inliers < expected - 3.0*sigma)
+				return -1;
+		}
+
+		return countInliers(worker.distance, dataSet);
+	}
+
+	/**
+	 * Attempts to improve the best model by fitting a model to a sample of its inliers
+	 */
+	void localOptimization() {
+		final int m = getMinimumSize();
+		final int sampleSize = Math.max(m, config.localSampleSize);
+		Worker worker = mainWorker;
+		worker.updateIntrinsics();
+
+		for (int iteration = 0; iteration < config.localIterations; iteration++) {
+			// Find the best model's inliers
+			worker.distance.setModel(bestModel);
+			worker.indexes.reset();
+			for (int i = 0; i < dataSet.size(); i++) {
+				if (worker.distance.distance(dataSet.get(i)) <= thresholdFit)
+					worker.indexes.add(i);
+			}
+			if (worker.indexes.size <= m)
+				return;
+
+			// Randomly select a subset of the inliers. Seeded so that it's deterministic.
+			worker.rand.setSeed(hypothesisSeed(-1 - iteration) ^ bestInliers);
+			int size = Math.min(sampleSize, worker.indexes.size);
+			worker.sample.clear();
+			for (int i = 0; i < size; i++) {
+				int selected = i + worker.rand.nextInt(worker.indexes.size - i);
+				int tmp = worker.indexes.data[i];
+				worker.indexes.data[i] = worker.indexes.data[selected];
+				worker.indexes.data[selected] = tmp;
+				worker.sample.add(dataSet.get(worker.indexes.data[i]));
+			}
+
+			Model candidate = worker.candidate;
+			if (!worker.generator.generate(worker.sample, candidate))
+				return;
+			worker.distance.setModel(candidate);
+			int inliers = countInliers(worker.distance, dataSet);
+			if (inliers <= bestInliers)
+				return;
+
+			bestInliers = inliers;
+			manager.copyModel(candidate, bestModel);
+		}
+	}
+
+	/**
+	 * Selects a random subset of the points used for preemptive scoring
+	 */
+	void selectPreemptiveSubset() {
+		preemptiveSubset.clear();
+		final int N = dataSet.size();
+		final int size = config.preemptiveSize;
+		// Not worth it if the subset is almost the same size as the entire set
+		if (size <= 0 || size*2 > N)
+			return;
+
+		DogArray_I32 indexes = mainWorker.indexes;
+		indexes.resize(N);
+		for (int i = 0; i < N; i++) {
+			indexes.data[i] = i;
+		}
+		var rand = new Random(config.randSeed);
+		for (int i = 0; i < size; i++) {
+			int selected = i + rand.nextInt(N - i);
+			int tmp = indexes.data[i];
+			indexes.data[i] = indexes.data[selected];
+			indexes.data[selected] = tmp;
+			preemptiveSubset.add(dataSet.get(indexes.data[i]));
+		}
+	}
+
+	/**
+	 * Computes the size of the pool points are sampled from for each hypothesis. If PROSAC is turned off then
+	 * it's always all the points.
+	 */
+	void computePoolSizes( int count ) {
+		final int N = dataSet.size();
+		final int m = getMinimumSize();
+		poolSizes.resize(count);
+
+		for (int i = 0; i < count; i++) {
+			if (!config.sortedByQuality) {
+				poolSizes.data[i] = N;
+				continue;
+			}
+
+			// Growth function from [1]. Iterations are one indexed.
+			int t = iterations + i + 1;
+			while (t >= prosacTnPrime && prosacN < N) {
+				double Tn1 = prosacTn*(prosacN + 1)/(prosacN + 1 - m);
+				prosacTnPrime += Math.max(1.0, Math.ceil(Tn1 - prosacTn));
+				prosacTn = Tn1;
+				prosacN++;
+			}
+			poolSizes.data[i] = prosacN;
+		}
+	}
+
+	/**
+	 * Randomly selects the minimum number of points from the pool. If the pool doesn't include all the points then
+	 * the last point in the pool is always selected, as is done in PROSAC.
+	 */
+	void selectSample( Worker worker, int poolSize ) {
+		final int m = getMinimumSize();
+		final int N = dataSet.size();
+		worker.indexes.reset();
+
+		int remaining = m;
+		if (poolSize < N) {
+			worker.indexes.add(poolSize - 1);
+			poolSize -= 1;
+			remaining -= 1;
+		}
+
+		// There are only a few points so rejection sampling is fast
+		for (int i = 0; i < remaining; i++) {
+			int selected;
+			do {
+				selected = worker.rand.nextInt(poolSize);
+			} while (worker.indexes.contains(selected));
+			worker.indexes.add(selected);
+		}
+
+		worker.sample.clear();
+		for (int i = 0; i < worker.indexes.size; i++) {
+			worker.sample.add(dataSet.get(worker.indexes.data[i]));
+		}
+	}
+
+	int countInliers( DistanceFromModel<Model, Point> distance, List<Point> points ) {
+		int count = 0;
+		for (int i = 0; i < points.size(); i++) {
+			if (distance.distance(points.get(i)) <= thresholdFit)
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Number of iterations needed to select a sample with only inliers with the desired confidence
+	 */
+	int adaptiveIterations( double inlierFraction, int m ) {
+		if (config.confidence <= 0.0)
+			return config.iterations;
+		double probability = Math.pow(inlierFraction, m);
+		if (probability >= 1.0)
+			return 0;
+		if (probability <= 0.0)
+			return config.iterations;
+		double required = Math.log(1.0 - config.confidence)/Math.log(1.0 - probability);
+		return (int)Math.min(config.iterations, Math.ceil(required));
+	}
+
+	/**
+	 * Seed for the random number generator of a hypothesis. Uses a SplitMix64 style hash so that adjacent
+	 * hypotheses have unrelated seeds.
+	 */
+	long hypothesisSeed( int hypothesis ) {
+		long z = config.randSeed + (hypothesis + 1)*0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30))*0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27))*0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	protected Worker createWorker() {
+		return new Worker();
+	}
+
+	@Override public Model getModelParameters() {
+		return bestModel;
+	}
+
+	@Override public List<Point> getMatchSet() {
+		return matchSet;
+	}
+
+	@Override public int getInputIndex( int matchIndex ) {
+		return inputIndexes.get(matchIndex);
+	}
+
+	/**
+	 * Returns the number of inliers
+	 */
+	@Override public double getFitQuality() {
+		return matchSet.size();
+	}
+
+	@Override public int getMinimumSize() {
+		return mainWorker.generator.getMinimumPoints();
+	}
+
+	@Override public void reset() {}
+
+	@Override public Class<Point> getPointType() {
+		return mainWorker.distance.getPointType();
+	}
+
+	@Override public Class<Model> getModelType() {
+		return mainWorker.distance.getModelType();
+	}
+
+	@Override public void setIntrinsic( int view, CameraPinhole intrinsic ) {
+		if (!(mainWorker.distance instanceof DistanceFromModelMultiView))
+			throw new IllegalArgumentException("Distance function isn't multiview");
+		while (intrinsics.size() <= view) {
+			intrinsics.add(null);
+		}
+		intrinsics.set(view, new CameraPinhole(intrinsic));
+		intrinsicVersion++;
+	}
+
+	@Override public int getNumberOfViews() {
+		if (!(mainWorker.distance instanceof DistanceFromModelMultiView))
+			throw new IllegalArgumentException("Distance function isn't multiview");
+		return ((DistanceFromModelMultiView<Model, Point>)mainWorker.distance).getNumberOfViews();
+	}
+
+	/**
+	 * Everything a single thread needs to generate and score hypotheses
+	 */
+	protected class Worker {
+		final ModelGenerator<Model, Point> generator = factoryGenerator.newInstance();
+		final DistanceFromModel<Model, Point> distance = factoryDistance.newInstance();
+		final Model candidate = manager.createModelInstance();
+		final Random rand = new Random(0);
+		final List<Point> sample = new ArrayList<>();
+		final DogArray_I32 indexes = new DogArray_I32();
+		int version = 0;
+
+		/** Makes sure the distance function has the latest intrinsic parameters */
+		void updateIntrinsics() {
+			if (version == intrinsicVersion)
+				return;
+			version = intrinsicVersion;
+			var multiview = (DistanceFromModelMultiView<Model, Point>)distance;
+			for (int view = 0; view < intrinsics.size(); view++) {
+				CameraPinhole intrinsic = intrinsics.get(view);
+				if (intrinsic != null)
+					multiview.setIntrinsic(view, intrinsic);
+			}
+		}
+	}
+}
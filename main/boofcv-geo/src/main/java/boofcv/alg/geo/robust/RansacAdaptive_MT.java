@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.geo.ConfigRansac;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+import org.ddogleg.struct.Factory;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link RansacAdaptive}. Hypotheses inside a batch are generated and scored in
+ * parallel, with each thread having its own generator and distance function. Output is identical to the single
+ * threaded version.
+ *
+ * @author Peter Abeles
+ */
+public class RansacAdaptive_MT<Model, Point> extends RansacAdaptive<Model, Point> {
+	// Storage for each thread
+	final GrowArray<Worker> workers = new GrowArray<>(this::createWorker);
+
+	public RansacAdaptive_MT( ConfigRansac config, double thresholdFit,
+							  ModelManager<Model> manager,
+							  Factory<ModelGenerator<Model, Point>> factoryGenerator,
+							  Factory<DistanceFromModel<Model, Point>> factoryDistance ) {
+		super(config, thresholdFit, manager, factoryGenerator, factoryDistance);
+	}
+
+	@Override protected void evaluateBatch( int hypothesis0, int count ) {
+		BoofConcurrency.loopBlocks(0, count, workers, ( worker, idx0, idx1 ) -> {
+			for (int i = idx0; i < idx1; i++) {
+				hypothesisInliers.data[i] = evaluateHypothesis(worker, hypothesis0, i);
+			}
+		});
+	}
+}
@@ -22,6 +22,7 @@ import boofcv.alg.geo.PerspectiveOps;
 import boofcv.misc.BoofMiscOps;
 import boofcv.struct.geo.AssociatedPair;
 import lombok.Getter;
+import org.ddogleg.struct.DogArray_F64;
 import org.ddogleg.struct.VerbosePrint;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.CommonOps_DDRM;
@@ -97,13 +98,21 @@ public class SelfCalibrationEssentialGuessAndCheck implements VerbosePrint {
 	/** Generates and scores a hypothesis given two intrinsic camera matrices */
 	public @Getter final TwoViewToCalibratingHomography calibrator = new TwoViewToCalibratingHomography();
 
-	// SVD use to compute fit score. Just need singular values
-	private final SingularValueDecomposition_F64<DMatrixRMaj> svd = DecompositionFactory_DDRM.svd(3, 3, false, false, false);
-	// storage for essential matrix used
-	final DMatrixRMaj E = new DMatrixRMaj(3, 3);
-	// storage for guess intrinsic camera matrices
-	final DMatrixRMaj K1 = new DMatrixRMaj(3, 3);
-	final DMatrixRMaj K2 = new DMatrixRMaj(3, 3);
+	/**
+	 * Number of times the search is repeated inside a narrower range centered around the previous best sample.
+	 * This allows a coarse grid to be sampled first followed by finer grids. If 0 then only one grid is sampled.
+	 */
+	public @Getter int refineLevels = 0;
+
+	// Fit error for each sample. Row-major. view-1 focal lengths are along the rows and view-2 along the columns
+	protected final DogArray_F64 sampleErrors = new DogArray_F64();
+	// Defines the grid being sampled. log scale.
+	protected double sampleMinA, logCoefA, sampleMinB, logCoefB;
+	// Number of samples along the columns. 1 if focus is fixed
+	protected int numSamplesB;
+
+	// Workspace used by the single threaded implementation
+	private final Workspace workspace = new Workspace();
 
 	// If not null then verbose information is printed
 	private PrintStream verbose;
@@ -135,20 +144,46 @@ public class SelfCalibrationEssentialGuessAndCheck implements VerbosePrint {
 		BoofMiscOps.checkTrue(sampleFocalRatioMin < sampleFocalRatioMax && sampleFocalRatioMin > 0);
 		BoofMiscOps.checkTrue(observations.size() > 0);
 		BoofMiscOps.checkTrue(numberOfSamples > 0);
+		BoofMiscOps.checkTrue(refineLevels >= 0);
 
 		// Pass in the trifocal tensor so that it can estimate self calibration
 		calibrator.initialize(F21, P2);
 
-		// coeffients for linear to log scale
-		double logCoef = Math.log(sampleFocalRatioMax/sampleFocalRatioMin)/(numberOfSamples - 1);
-
 		isLimit = false;
 
-		if (fixedFocus) {
-			searchFixedFocus(logCoef);
-		} else {
-			searchDynamicFocus(logCoef);
+		// Range of focal length ratios which are sampled
+		double minA = sampleFocalRatioMin, maxA = sampleFocalRatioMax;
+		double minB = sampleFocalRatioMin, maxB = sampleFocalRatioMax;
+		numSamplesB = fixedFocus ? 1 : numberOfSamples;
+
+		for (int level = 0; level <= refineLevels; level++) {
+			// coeffients for linear to log scale
+			sampleMinA = minA;
+			sampleMinB = minB;
+			logCoefA = Math.log(maxA/minA)/(numberOfSamples - 1);
+			logCoefB = Math.log(maxB/minB)/(numberOfSamples - 1);
+
+			sampleErrors.resize(numberOfSamples*numSamplesB);
+			computeSampleErrors();
+
+			int bestIndex = selectBestSample(level);
+			if (bestIndex < 0)
+				break;
+
+			// Narrow the search to the region between the best sample's neighbors
+			int idxA = bestIndex/numSamplesB;
+			int idxB = fixedFocus ? idxA : bestIndex%numSamplesB;
+			double tmpMinA = sampleMinA*Math.exp(logCoefA*Math.max(0, idxA - 1));
+			maxA = sampleMinA*Math.exp(logCoefA*Math.min(numberOfSamples - 1, idxA + 1));
+			minA = tmpMinA;
+			double tmpMinB = sampleMinB*Math.exp(logCoefB*Math.max(0, idxB - 1));
+			maxB = sampleMinB*Math.exp(logCoefB*Math.min(numberOfSamples - 1, idxB + 1));
+			minB = tmpMinB;
 		}
+		// Copy results to the other camera
+		if (fixedFocus)
+			focalLengthB = focalLengthA;
+
 		// compute the rectifying homography from the best solution
 		computeHomography(focalLengthA, focalLengthB, observations);
 
@@ -161,100 +196,103 @@ public class SelfCalibrationEssentialGuessAndCheck implements VerbosePrint {
 	}
 
 	/**
-	 * Assumes that each camera can have an independent focal length value and searches a 2D grid
-	 *
-	 * @param logCoef coeffient for log scale
+	 * Computes the fit error for every sample in the grid. Samples are independent of each other.
 	 */
-	private void searchDynamicFocus( double logCoef ) {
-		K1.set(2, 2, 1);
-		K2.set(2, 2, 1);
-
-		double bestError = Double.MAX_VALUE;
-
-		for (int idxA = 0; idxA < numberOfSamples; idxA++) {
-			double focalRatioA = sampleFocalRatioMin*Math.exp(logCoef*idxA);
-			double focalPixelsA = focalRatioA*imageLengthPixels;
-			K1.set(0, 0, focalPixelsA);
-			K1.set(1, 1, focalPixelsA);
+	protected void computeSampleErrors() {
+		computeSampleErrors(workspace, 0, numberOfSamples);
+	}
 
-			for (int idxB = 0; idxB < numberOfSamples; idxB++) {
-				double focalRatioB = sampleFocalRatioMin*Math.exp(logCoef*idxB);
-				double focalPixelsB = focalRatioB*imageLengthPixels;
+	/**
+	 * Computes the fit error for samples inside the specified range of rows. If the focus is fixed then the
+	 * same focal length is used for both views.
+	 *
+	 * @param idxA0 First row, inclusive
+	 * @param idxA1 Last row, exclusive
+	 */
+	protected void computeSampleErrors( Workspace ws, int idxA0, int idxA1 ) {
+		ws.K1.set(2, 2, 1);
+		ws.K2.set(2, 2, 1);
 
-				K2.set(0, 0, focalPixelsB);
-				K2.set(1, 1, focalPixelsB);
+		for (int idxA = idxA0; idxA < idxA1; idxA++) {
+			double focalPixelsA = sampleMinA*Math.exp(logCoefA*idxA)*imageLengthPixels;
+			ws.K1.set(0, 0, focalPixelsA);
+			ws.K1.set(1, 1, focalPixelsA);
 
-				PerspectiveOps.multTranA(K2, calibrator.F21, K1, E);
+			for (int idxB = 0; idxB < numSamplesB; idxB++) {
+				double focalPixelsB = fixedFocus ? focalPixelsA : sampleMinB*Math.exp(logCoefB*idxB)*imageLengthPixels;
+				ws.K2.set(0, 0, focalPixelsB);
+				ws.K2.set(1, 1, focalPixelsB);
 
-				if (!svd.decompose(E))
-					continue;
+				// Use known calibration to compute essential matrix
+				PerspectiveOps.multTranA(ws.K2, calibrator.F21, ws.K1, ws.E);
 
-				double error = computeFitError();
+				// Use the singular values to evaluate
+				double error = Double.NaN;
+				if (ws.svd.decompose(ws.E))
+					error = computeFitError(ws.svd.getSingularValues());
 
-				if (verbose != null)
-					verbose.printf("[%3d,%3d] f1=%5.2f f2=%5.2f error=%f\n", idxA, idxB, focalPixelsA, focalPixelsB, error);
-				if (error < bestError) {
-					isLimit = idxA == 0 || idxA == numberOfSamples - 1;
-					isLimit |= idxB == 0 || idxB == numberOfSamples - 1;
-					bestError = error;
-					focalLengthA = focalPixelsA;
-					focalLengthB = focalPixelsB;
-				}
+				sampleErrors.data[idxA*numSamplesB + idxB] = error;
 			}
 		}
 	}
 
-	private void computeHomography( double F1, double F2, List<AssociatedPair> observations ) {
-		DMatrixRMaj K1 = CommonOps_DDRM.diag(F1, F1, 1);
-		DMatrixRMaj K2 = CommonOps_DDRM.diag(F2, F2, 1);
-
-		calibrator.process(K1, K2, observations);
-		rectifyingHomography.setTo(calibrator.getCalibrationHomography());
-	}
-
 	/**
-	 * Assumes that there is only one focal length value and searches for the optical value
+	 * Selects the sample with the smallest error. Ties go to the first sample.
 	 *
-	 * @param logCoef coeffient for log scale
+	 * @param level Which refinement level. Limits are only checked on the first level
+	 * @return Index of the best sample or -1 if none were valid
 	 */
-	private void searchFixedFocus( double logCoef ) {
-		K1.set(2, 2, 1);
+	private int selectBestSample( int level ) {
 		double bestError = Double.MAX_VALUE;
+		int bestIndex = -1;
 
-		for (int idxA = 0; idxA < numberOfSamples; idxA++) {
-			double focalRatioA = sampleFocalRatioMin*Math.exp(logCoef*idxA);
-			double focalPixelsA = focalRatioA*imageLengthPixels;
-
-//			System.out.println("FOCUS = "+focalA);
-			K1.set(0, 0, focalPixelsA);
-			K1.set(1, 1, focalPixelsA);
+		for (int idxA = 0, index = 0; idxA < numberOfSamples; idxA++) {
+			double focalPixelsA = sampleMinA*Math.exp(logCoefA*idxA)*imageLengthPixels;
 
-			// Use known calibration to compute essential matrix
-			PerspectiveOps.multTranA(K1, calibrator.F21, K1, E);
+			for (int idxB = 0; idxB < numSamplesB; idxB++, index++) {
+				double error = sampleErrors.data[index];
+				// SVD failed
+				if (Double.isNaN(error))
+					continue;
 
-			// Use the singular values to evaluate
-			if (!svd.decompose(E))
-				continue;
+				double focalPixelsB = fixedFocus ? focalPixelsA : sampleMinB*Math.exp(logCoefB*idxB)*imageLengthPixels;
 
-			double error = computeFitError();
+				if (verbose != null) {
+					if (fixedFocus)
+						verbose.printf("[%3d] f=%5.2f svd-error=%f\n", idxA, focalPixelsA, error);
+					else
+						verbose.printf("[%3d,%3d] f1=%5.2f f2=%5.2f error=%f\n", idxA, idxB, focalPixelsA, focalPixelsB, error);
+				}
 
-			if (verbose != null) verbose.printf("[%3d] f=%5.2f svd-error=%f\n", idxA, focalPixelsA, error);
+				if (error >= bestError)
+					continue;
 
-			if (error < bestError) {
-				isLimit = idxA == 0 || idxA == numberOfSamples - 1;
+				if (level == 0) {
+					isLimit = idxA == 0 || idxA == numberOfSamples - 1;
+					if (!fixedFocus)
+						isLimit |= idxB == 0 || idxB == numberOfSamples - 1;
+				}
 				bestError = error;
+				bestIndex = index;
 				focalLengthA = focalPixelsA;
+				focalLengthB = focalPixelsB;
 			}
 		}
-		// Copy results to the other camera
-		focalLengthB = focalLengthA;
+		return bestIndex;
+	}
+
+	private void computeHomography( double F1, double F2, List<AssociatedPair> observations ) {
+		DMatrixRMaj K1 = CommonOps_DDRM.diag(F1, F1, 1);
+		DMatrixRMaj K2 = CommonOps_DDRM.diag(F2, F2, 1);
+
+		calibrator.process(K1, K2, observations);
+		rectifyingHomography.setTo(calibrator.getCalibrationHomography());
 	}
 
 	/**
 	 * Checks the two singular values are the same like it should be in a real essential matrix
 	 */
-	private double computeFitError() {
-		double[] sv = svd.getSingularValues();
+	private static double computeFitError( double[] sv ) {
 		// Find the two largest singular values
 		double v0, v1;
 		if (sv[0] > sv[1]) {
@@ -272,6 +310,19 @@ public class SelfCalibrationEssentialGuessAndCheck implements VerbosePrint {
 		return Math.abs(v0 - mean)/mean;
 	}
 
+	/**
+	 * Storage needed to evaluate a sample. One for each thread.
+	 */
+	protected static class Workspace {
+		// SVD use to compute fit score. Just need singular values
+		final SingularValueDecomposition_F64<DMatrixRMaj> svd = DecompositionFactory_DDRM.svd(3, 3, false, false, false);
+		// storage for essential matrix used
+		final DMatrixRMaj E = new DMatrixRMaj(3, 3);
+		// storage for guess intrinsic camera matrices
+		final DMatrixRMaj K1 = new DMatrixRMaj(3, 3);
+		final DMatrixRMaj K2 = new DMatrixRMaj(3, 3);
+	}
+
 	@Override
 	public void setVerbose( @Nullable PrintStream out, @Nullable Set<String> configuration ) {
 		this.verbose = out;
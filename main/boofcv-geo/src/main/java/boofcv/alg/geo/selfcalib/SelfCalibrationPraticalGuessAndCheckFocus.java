@@ -22,6 +22,7 @@ import boofcv.alg.geo.MultiViewOps;
 import boofcv.struct.calib.CameraPinhole;
 import georegression.struct.point.Vector3D_F64;
 import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F64;
 import org.ddogleg.struct.VerbosePrint;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.CommonOps_DDRM;
@@ -91,15 +92,10 @@ public class SelfCalibrationPraticalGuessAndCheckFocus implements VerbosePrint {
 	// storage for internally normalized camera matrices
 	DogArray<DMatrixRMaj> normalizedP;
 
-	//--------------------- Output Related
-	// used to estimate the plane at infinity
-	EstimatePlaneAtInfinityGivenK estimatePlaneInf = new EstimatePlaneAtInfinityGivenK();
-	Vector3D_F64 planeInf = new Vector3D_F64();
+	// Number of times the search is repeated in a narrower range around the previous best sample
+	int refineLevels = 0;
 
 	//---------------------------------- Internal Work Space
-	// intrinsic camera calibration matrix for view 1
-	DMatrixRMaj K1 = new DMatrixRMaj(3, 3);
-
 	// Work space for view 1 projective matrix
 	DMatrixRMaj P1 = new DMatrixRMaj(3, 4);
 	DMatrixRMaj tmpP = new DMatrixRMaj(3, 4);
@@ -108,27 +104,33 @@ public class SelfCalibrationPraticalGuessAndCheckFocus implements VerbosePrint {
 	DMatrixRMaj H = new DMatrixRMaj(4, 4);
 	DMatrixRMaj bestH = new DMatrixRMaj(4, 4);
 
-	// Absolute dual quadratic
-	DMatrixRMaj Q = new DMatrixRMaj(4, 4);
-
 	// camera normalization matrices
 	DMatrixRMaj V = new DMatrixRMaj(3, 3);
 	DMatrixRMaj Vinv = new DMatrixRMaj(3, 3);
 
-	double[] scores = new double[numSamples];
+	// Score for each sample. Row-major. view-1 focal lengths are along the rows and view-2 along the columns
+	protected final DogArray_F64 scores = new DogArray_F64();
+	// Defines the grid being sampled. log scale.
+	protected double sampleMin1, logCoef1, sampleMin2, logCoef2;
+	// Number of samples along the columns. 1 if focus is fixed
+	protected int numSamples2;
+	// Camera matrix for view 2. Normalized
+	protected DMatrixRMaj P2;
 
 	// Weights for score function
 	double w_sk = 1.0/0.01; // zero skew
 	double w_ar = 1.0/0.2;  // aspect ratio
 	double w_uo = 1.0/0.1;  // zero principle point
 
-	CameraPinhole intrinsic = new CameraPinhole();
-
+	DMatrixRMaj K1 = new DMatrixRMaj(3, 3);
 	DMatrixRMaj tmp = new DMatrixRMaj(3, 3);
 
 	// Is the best score at a local minimum? If not that means it probably diverged
 	boolean localMinimum;
 
+	// Workspace used by the single threaded implementation
+	private final Workspace workspace = new Workspace();
+
 	// if not null debug info is printed
 	PrintStream verbose;
 
@@ -171,7 +173,17 @@ public class SelfCalibrationPraticalGuessAndCheckFocus implements VerbosePrint {
 		this.sampleMin = min;
 		this.sampleMax = max;
 		this.numSamples = total;
-		this.scores = new double[numSamples];
+	}
+
+	/**
+	 * Specifies how many times the search is repeated inside a narrower range centered around the previous best
+	 * sample. This allows a coarse grid to be sampled first followed by finer grids.
+	 *
+	 * @param levels Number of refinement levels. 0 = only one grid is sampled. 0 is default
+	 */
+	public void setRefineLevels( int levels ) {
+		checkTrue(levels >= 0, "Levels must be non-negative");
+		this.refineLevels = levels;
 	}
 
 	/**
@@ -207,12 +219,7 @@ public class SelfCalibrationPraticalGuessAndCheckFocus implements VerbosePrint {
 		}
 
 		// Find the best combinations of focal lengths
-		double bestScore;
-		if (fixedFocus) {
-			bestScore = findBestFocusOne(normalizedP.get(0));
-		} else {
-			bestScore = findBestFocusTwo(normalizedP.get(0));
-		}
+		double bestScore = findBestFocus(normalizedP.get(0));
 
 		// undo normalization
 		CommonOps_DDRM.extract(bestH, 0, 0, tmp);
@@ -223,157 +230,240 @@ public class SelfCalibrationPraticalGuessAndCheckFocus implements VerbosePrint {
 		return bestScore != Double.MAX_VALUE && localMinimum;
 	}
 
-	private double findBestFocusOne( DMatrixRMaj P2 ) {
+	/**
+	 * Samples the grid of focal lengths, then optionally repeats the search inside a narrowed region around the
+	 * best sample. The best hypothesis across all levels is selected.
+	 */
+	private double findBestFocus( DMatrixRMaj P2 ) {
+		this.P2 = P2;
 		localMinimum = false;
+		numSamples2 = fixedFocus ? 1 : numSamples;
+
+		double min1 = sampleMin, max1 = sampleMax;
+		double min2 = sampleMin, max2 = sampleMax;
 
-		// coeffients for linear to log scale
-		double b = Math.log(sampleMax/sampleMin)/(numSamples - 1);
 		double bestScore = Double.MAX_VALUE;
-		int bestIndex = -1;
+		double bestF1 = 0, bestF2 = 0;
+
+		for (int level = 0; level <= refineLevels; level++) {
+			// coeffients for linear to log scale
+			sampleMin1 = min1;
+			sampleMin2 = min2;
+			logCoef1 = Math.log(max1/min1)/(numSamples - 1);
+			logCoef2 = Math.log(max2/min2)/(numSamples - 1);
+
+			scores.resize(numSamples*numSamples2);
+			computeScores();
+
+			// Only the first level tells you if the search diverged. Later levels are bounded by the best sample
+			int levelBest = fixedFocus ? selectBestOne(level == 0) : selectBestTwo(level == 0);
+			if (levelBest < 0)
+				break;
+
+			int idx1 = levelBest/numSamples2;
+			int idx2 = fixedFocus ? idx1 : levelBest%numSamples2;
+			double levelScore = scores.data[levelBest];
+			if (levelScore < bestScore) {
+				bestScore = levelScore;
+				bestF1 = sampleMin1*Math.exp(logCoef1*idx1);
+				bestF2 = fixedFocus ? bestF1 : sampleMin2*Math.exp(logCoef2*idx2);
+			}
 
-		for (int i = 0; i < numSamples; i++) {
-			double f = sampleMin*Math.exp(b*i);
+			// Narrow the search to the region between the best sample's neighbors
+			double tmpMin1 = sampleMin1*Math.exp(logCoef1*Math.max(0, idx1 - 1));
+			max1 = sampleMin1*Math.exp(logCoef1*Math.min(numSamples - 1, idx1 + 1));
+			min1 = tmpMin1;
+			double tmpMin2 = sampleMin2*Math.exp(logCoef2*Math.max(0, idx2 - 1));
+			max2 = sampleMin2*Math.exp(logCoef2*Math.min(numSamples - 1, idx2 + 1));
+			min2 = tmpMin2;
+		}
 
-			if (!computeRectifyH(f, f, P2, H)) {
-				scores[i] = Double.NaN;
-				continue;
+		// Recompute the homography for the best hypothesis
+		if (bestScore != Double.MAX_VALUE && !workspace.computeRectifyH(bestF1, bestF2, P2, bestH))
+			return Double.MAX_VALUE;
+
+		return bestScore;
+	}
+
+	/**
+	 * Computes the score for every sample in the grid. Samples are independent of each other.
+	 */
+	protected void computeScores() {
+		computeScores(workspace, 0, numSamples);
+	}
+
+	/**
+	 * Computes the score for samples inside the specified range of rows. If a hypothesis can't be computed its
+	 * score is NaN.
+	 *
+	 * @param idx0 First row, inclusive
+	 * @param idx1 Last row, exclusive
+	 */
+	protected void computeScores( Workspace ws, int idx0, int idx1 ) {
+		for (int i = idx0; i < idx1; i++) {
+			double f1 = sampleMin1*Math.exp(logCoef1*i);
+
+			for (int j = 0; j < numSamples2; j++) {
+				double f2 = fixedFocus ? f1 : sampleMin2*Math.exp(logCoef2*j);
+
+				double score = Double.NaN;
+				if (ws.computeRectifyH(f1, f2, P2, ws.H)) {
+					MultiViewOps.rectifyHToAbsoluteQuadratic(ws.H, ws.Q);
+					score = ws.scoreResults();
+				}
+				scores.data[i*numSamples2 + j] = score;
 			}
-			MultiViewOps.rectifyHToAbsoluteQuadratic(H, Q);
+		}
+	}
 
-			double score = scoreResults();
-			scores[i] = score;
+	private int selectBestOne( boolean checkMinimum ) {
+		double bestScore = Double.MAX_VALUE;
+		int bestIndex = -1;
+
+		for (int i = 0; i < numSamples; i++) {
+			double score = scores.data[i];
+			if (Double.isNaN(score))
+				continue;
 
 			if (score < bestScore) {
 				bestScore = score;
-				bestH.setTo(H);
 				bestIndex = i;
 			}
 
 			if (verbose != null) {
-				verbose.printf("[%3d] f=%5.2f score=%f\n", i, f, score);
+				verbose.printf("[%3d] f=%5.2f score=%f\n", i, sampleMin1*Math.exp(logCoef1*i), score);
 			}
 		}
 
-		if (bestIndex > 0 && bestIndex < numSamples - 1) {
-			localMinimum = bestScore < scores[bestIndex - 1] && bestScore < scores[bestIndex + 1];
+		if (checkMinimum && bestIndex > 0 && bestIndex < numSamples - 1) {
+			localMinimum = bestScore < scores.data[bestIndex - 1] && bestScore < scores.data[bestIndex + 1];
 		}
 
-		return bestScore;
+		return bestIndex;
 	}
 
-	private double findBestFocusTwo( DMatrixRMaj P2 ) {
-		localMinimum = false;
-
-		// coeffients for linear to log scale
-		double b = Math.log(sampleMax/sampleMin)/(numSamples - 1);
+	private int selectBestTwo( boolean checkMinimum ) {
 		double bestScore = Double.MAX_VALUE;
+		int bestIndex = -1;
 
 		for (int i = 0; i < numSamples; i++) {
-			double f1 = sampleMin*Math.exp(b*i);
-
 			boolean minimumChanged = false;
-			int bestIndex = -1;
+			int bestIndexRow = -1;
+			int rowStart = i*numSamples;
 
 			for (int j = 0; j < numSamples; j++) {
-				double f2 = sampleMin*Math.exp(b*j);
-
-				if (!computeRectifyH(f1, f2, P2, H)) {
-					scores[i] = Double.NaN;
+				double score = scores.data[rowStart + j];
+				if (Double.isNaN(score))
 					continue;
-				}
-				MultiViewOps.rectifyHToAbsoluteQuadratic(H, Q);
-
-				double score = scoreResults();
-				scores[j] = score;
 
 				if (score < bestScore) {
 					minimumChanged = true;
-					bestIndex = j;
+					bestIndexRow = j;
 					bestScore = score;
-					bestH.setTo(H);
+					bestIndex = rowStart + j;
 				}
 
 				if (verbose != null) {
-					verbose.printf("[%3d,%3d] f1=%5.2f f2=%5.2f score=%f\n", i, j, f1, f2, score);
+					verbose.printf("[%3d,%3d] f1=%5.2f f2=%5.2f score=%f\n", i, j,
+							sampleMin1*Math.exp(logCoef1*i), sampleMin2*Math.exp(logCoef2*j), score);
 				}
 			}
 
-			if (minimumChanged) {
-				if (bestIndex > 0 && bestIndex < numSamples - 1) {
-					localMinimum = bestScore < scores[bestIndex - 1] && bestScore < scores[bestIndex + 1];
+			if (checkMinimum && minimumChanged) {
+				if (bestIndexRow > 0 && bestIndexRow < numSamples - 1) {
+					localMinimum = bestScore < scores.data[rowStart + bestIndexRow - 1] &&
+							bestScore < scores.data[rowStart + bestIndexRow + 1];
 				} else {
 					localMinimum = false;
 				}
 			}
 		}
-		return bestScore;
+		return bestIndex;
 	}
 
 	/**
-	 * Given the focal lengths for the first two views compute homography H
-	 *
-	 * @param f1 view 1 focal length
-	 * @param f2 view 2 focal length
-	 * @param P2 projective camera matrix for view 2
-	 * @param H (Output) homography
-	 * @return true if successful
+	 * Storage needed to evaluate a hypothesis. One for each thread.
 	 */
-	boolean computeRectifyH( double f1, double f2, DMatrixRMaj P2, DMatrixRMaj H ) {
-
-		estimatePlaneInf.setCamera1(f1, f1, 0, 0, 0);
-		estimatePlaneInf.setCamera2(f2, f2, 0, 0, 0);
-
-		if (!estimatePlaneInf.estimatePlaneAtInfinity(P2, planeInf))
-			return false;
-
-		// TODO add a cost for distance from nominal and scale other cost by focal length fx for each view
-//		RefineDualQuadraticConstraint refine = new RefineDualQuadraticConstraint();
-//		refine.setZeroSkew(true);
-//		refine.setAspectRatio(true);
-//		refine.setZeroPrinciplePoint(true);
-//		refine.setKnownIntrinsic1(true);
-//		refine.setFixedCamera(false);
+	protected class Workspace {
+		// used to estimate the plane at infinity
+		final EstimatePlaneAtInfinityGivenK estimatePlaneInf = new EstimatePlaneAtInfinityGivenK();
+		final Vector3D_F64 planeInf = new Vector3D_F64();
+
+		// intrinsic camera calibration matrix for view 1
+		final DMatrixRMaj K1 = new DMatrixRMaj(3, 3);
+		// projective to metric homography
+		final DMatrixRMaj H = new DMatrixRMaj(4, 4);
+		// Absolute dual quadratic
+		final DMatrixRMaj Q = new DMatrixRMaj(4, 4);
+
+		final CameraPinhole intrinsic = new CameraPinhole();
+
+		/**
+		 * Given the focal lengths for the first two views compute homography H
+		 *
+		 * @param f1 view 1 focal length
+		 * @param f2 view 2 focal length
+		 * @param P2 projective camera matrix for view 2
+		 * @param H (Output) homography
+		 * @return true if successful
+		 */
+		boolean computeRectifyH( double f1, double f2, DMatrixRMaj P2, DMatrixRMaj H ) {
+
+			estimatePlaneInf.setCamera1(f1, f1, 0, 0, 0);
+			estimatePlaneInf.setCamera2(f2, f2, 0, 0, 0);
+
+			if (!estimatePlaneInf.estimatePlaneAtInfinity(P2, planeInf))
+				return false;
+
+			// TODO add a cost for distance from nominal and scale other cost by focal length fx for each view
+//			RefineDualQuadraticConstraint refine = new RefineDualQuadraticConstraint();
+//			refine.setZeroSkew(true);
+//			refine.setAspectRatio(true);
+//			refine.setZeroPrinciplePoint(true);
+//			refine.setKnownIntrinsic1(true);
+//			refine.setFixedCamera(false);
 //
-//		CameraPinhole intrinsic = new CameraPinhole(f1,f1,0,0,0,0,0);
-//		if( !refine.refine(normalizedP.toList(),intrinsic,planeInf))
-//			return false;
+//			CameraPinhole intrinsic = new CameraPinhole(f1,f1,0,0,0,0,0);
+//			if( !refine.refine(normalizedP.toList(),intrinsic,planeInf))
+//				return false;
 
-		K1.zero();
-		K1.set(0, 0, f1);
-		K1.set(1, 1, f1);
-		K1.set(2, 2, 1);
-		MultiViewOps.createProjectiveToMetric(K1, planeInf.x, planeInf.y, planeInf.z, 1, H);
+			K1.zero();
+			K1.set(0, 0, f1);
+			K1.set(1, 1, f1);
+			K1.set(2, 2, 1);
+			MultiViewOps.createProjectiveToMetric(K1, planeInf.x, planeInf.y, planeInf.z, 1, H);
 
-		return true;
-	}
+			return true;
+		}
 
-	/**
-	 * Extracts the calibration matrix for each view and computes the score according to:
-	 *
-	 * w_sk*|K[0,1]| + w_ar*|K[0,0]-K[1,1]| + w_ao*(|K[0,2]| + |K[1,2]|)
-	 *
-	 * which gives matrices which fit the constraints lower scores.
-	 */
-	double scoreResults() {
+		/**
+		 * Extracts the calibration matrix for each view and computes the score according to:
+		 *
+		 * w_sk*|K[0,1]| + w_ar*|K[0,0]-K[1,1]| + w_ao*(|K[0,2]| + |K[1,2]|)
+		 *
+		 * which gives matrices which fit the constraints lower scores.
+		 */
+		double scoreResults() {
 
-		double totalScore = 0;
+			double totalScore = 0;
 
-		for (int i = 0; i < normalizedP.size; i++) {
-			DMatrixRMaj P = normalizedP.get(i);
-			MultiViewOps.intrinsicFromAbsoluteQuadratic(Q, P, intrinsic);
+			for (int i = 0; i < normalizedP.size; i++) {
+				DMatrixRMaj P = normalizedP.get(i);
+				MultiViewOps.intrinsicFromAbsoluteQuadratic(Q, P, intrinsic);
 
-			double score = 0;
+				double score = 0;
 
-			// skew should be zero
-			score += w_sk*Math.abs(intrinsic.skew);
-			// aspect ratio unity
-			score += w_ar*(Math.max(intrinsic.fx, intrinsic.fy)/Math.min(intrinsic.fx, intrinsic.fy) - 1);
-			// principle point zero
-			score += w_uo*(Math.abs(intrinsic.cx) + Math.abs(intrinsic.cy));
+				// skew should be zero
+				score += w_sk*Math.abs(intrinsic.skew);
+				// aspect ratio unity
+				score += w_ar*(Math.max(intrinsic.fx, intrinsic.fy)/Math.min(intrinsic.fx, intrinsic.fy) - 1);
+				// principle point zero
+				score += w_uo*(Math.abs(intrinsic.cx) + Math.abs(intrinsic.cy));
 
-			totalScore += score;
+				totalScore += score;
+			}
+			return totalScore;
 		}
-		return totalScore;
 	}
 
 	public boolean isFixedFocus() {
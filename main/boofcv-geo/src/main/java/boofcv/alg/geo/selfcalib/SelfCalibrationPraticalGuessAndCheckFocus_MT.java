@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.selfcalib;
+
+import boofcv.concurrency.BoofConcurrency;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link SelfCalibrationPraticalGuessAndCheckFocus}. Rows in the grid of focal lengths
+ * are split into blocks and each block is evaluated in a different thread. The best hypothesis is then selected in a
+ * single thread so the output is identical to the single threaded version.
+ *
+ * @author Peter Abeles
+ */
+public class SelfCalibrationPraticalGuessAndCheckFocus_MT extends SelfCalibrationPraticalGuessAndCheckFocus {
+	// Workspace for each thread
+	private final GrowArray<Workspace> workspaces = new GrowArray<>(Workspace::new);
+
+	@Override protected void computeScores() {
+		BoofConcurrency.loopBlocks(0, numSamples, workspaces, ( ws, idx0, idx1 ) ->
+				computeScores(ws, idx0, idx1));
+	}
+}
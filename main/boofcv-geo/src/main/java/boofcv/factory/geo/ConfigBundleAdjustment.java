@@ -35,8 +35,39 @@ public class ConfigBundleAdjustment {
 	 */
 	public Object configOptimizer = new ConfigLevenbergMarquardt();
 
+	/**
+	 * How the reduced camera system is solved by sparse bundle adjustment. Dense bundle adjustment ignores this.
+	 */
+	public SchurSolver schurSolver = SchurSolver.CHOLESKY;
+
+	/** Configuration for the iterative solver. Only used if {@link #schurSolver} is {@link SchurSolver#PCG} */
+	public final ConfigSchurPcg pcg = new ConfigSchurPcg();
+
+	/**
+	 * If true, and concurrency is turned on in {@link boofcv.concurrency.BoofConcurrency}, then sparse bundle
+	 * adjustment will compute residuals and the Jacobian using multiple threads. Off by default since every
+	 * {@link boofcv.abst.geo.bundle.BundleAdjustmentCamera} in the scene must be safe to call from multiple threads,
+	 * which is not true for models that use internal workspace.
+	 */
+	public boolean concurrent = false;
+
 	public void setTo( ConfigBundleAdjustment src ) {
 		// it should copy / overwrite but that isn'y possible/easy. So this is the compromise
 		this.configOptimizer = src.configOptimizer;
+		this.schurSolver = src.schurSolver;
+		this.pcg.setTo(src.pcg);
+		this.concurrent = src.concurrent;
+	}
+
+	public enum SchurSolver {
+		/** The Schur complement is explicitly computed and decomposed using a sparse Cholesky decomposition */
+		CHOLESKY,
+		/**
+		 * The Schur complement is never computed. Instead preconditioned conjugate gradient is used with implicit
+		 * matrix-vector products. Uses much less memory on large problems.
+		 *
+		 * @see ConfigSchurPcg
+		 */
+		PCG
 	}
 }
@@ -18,6 +18,7 @@
 
 package boofcv.factory.geo;
 
+import boofcv.misc.BoofMiscOps;
 import boofcv.struct.Configuration;
 
 /**
@@ -39,6 +40,43 @@ public class ConfigRansac implements Configuration {
 	 */
 	public double inlierThreshold;
 
+	/**
+	 * If true then {@link boofcv.alg.geo.robust.RansacAdaptive} is used instead of the classic RANSAC. It scores
+	 * hypotheses in parallel, stops early once the model is found with the desired confidence, and refines the best
+	 * model. The remaining parameters are only used if this is true. Factory methods which return a specific RANSAC
+	 * type, e.g. {@link FactoryMultiViewRobust#homographyRansac}, ignore this and have an adaptive variant instead.
+	 */
+	public boolean adaptive = false;
+
+	/**
+	 * Desired probability that an outlier free sample has been drawn. Used for adaptive termination.
+	 * If &le; 0 then it will always run for the maximum number of iterations.
+	 */
+	public double confidence = 0.999;
+
+	/**
+	 * Number of randomly selected points hypotheses are first scored against. Hypotheses which are much worse than
+	 * the current best are discarded before being scored against all the points. If zero then it's disabled.
+	 */
+	public int preemptiveSize = 100;
+
+	/**
+	 * If true then the input points are assumed to be sorted by match quality, best first, and PROSAC sampling is
+	 * used.
+	 */
+	public boolean sortedByQuality = false;
+
+	/**
+	 * Number of local optimization iterations applied when a new best model is found. If zero then it's disabled.
+	 */
+	public int localIterations = 4;
+
+	/**
+	 * Number of inliers used to fit a model during local optimization. If less than the minimum number of points
+	 * needed to fit a model then the minimum is used.
+	 */
+	public int localSampleSize = 50;
+
 	public ConfigRansac(int iterations, double inlierThreshold) {
 		this.iterations = iterations;
 		this.inlierThreshold = inlierThreshold;
@@ -49,12 +87,21 @@ public class ConfigRansac implements Configuration {
 
 	@Override
 	public void checkValidity() {
-
+		BoofMiscOps.checkTrue(confidence < 1.0, "confidence must be less than one");
+		BoofMiscOps.checkTrue(preemptiveSize >= 0, "preemptiveSize must be non-negative");
+		BoofMiscOps.checkTrue(localIterations >= 0, "localIterations must be non-negative");
+		BoofMiscOps.checkTrue(localSampleSize > 0, "localSampleSize must be positive");
 	}
 
 	public void setTo( ConfigRansac src ) {
 		this.randSeed = src.randSeed;
 		this.iterations = src.iterations;
 		this.inlierThreshold = src.inlierThreshold;
+		this.adaptive = src.adaptive;
+		this.confidence = src.confidence;
+		this.preemptiveSize = src.preemptiveSize;
+		this.sortedByQuality = src.sortedByQuality;
+		this.localIterations = src.localIterations;
+		this.localSampleSize = src.localSampleSize;
 	}
 }
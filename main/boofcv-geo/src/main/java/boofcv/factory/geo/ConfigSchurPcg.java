@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.factory.geo;
+
+import boofcv.alg.geo.bundle.HessianSchurComplementPcg_DSCC;
+import boofcv.misc.BoofMiscOps;
+import boofcv.struct.Configuration;
+
+/**
+ * Configuration for {@link HessianSchurComplementPcg_DSCC}, which solves the reduced camera system in sparse
+ * bundle adjustment using preconditioned conjugate gradient instead of a Cholesky decomposition.
+ *
+ * @author Peter Abeles
+ */
+public class ConfigSchurPcg implements Configuration {
+	/** Which preconditioner is applied to the reduced camera system */
+	public Preconditioner preconditioner = Preconditioner.SCHUR_JACOBI;
+
+	/**
+	 * Iterations stop once the residual's norm is less than this fraction of the initial residual's norm. A loose
+	 * tolerance results in an inexact Newton step, which is often all the outer optimizer needs.
+	 */
+	public double relativeTolerance = 1e-3;
+
+	/** Maximum number of conjugate gradient iterations for each linear solve */
+	public int maxIterations = 500;
+
+	/**
+	 * Parameter blocks larger than this are not inverted directly. If the point block diagonal matrix has a block
+	 * larger than this then the solver falls back to the dense Schur complement.
+	 */
+	public int maxBlockSize = 16;
+
+	@Override
+	public void checkValidity() {
+		BoofMiscOps.checkTrue(relativeTolerance >= 0.0, "relativeTolerance must be non-negative");
+		BoofMiscOps.checkTrue(maxIterations > 0, "maxIterations must be positive");
+		BoofMiscOps.checkTrue(maxBlockSize > 0, "maxBlockSize must be positive");
+	}
+
+	public void setTo( ConfigSchurPcg src ) {
+		this.preconditioner = src.preconditioner;
+		this.relativeTolerance = src.relativeTolerance;
+		this.maxIterations = src.maxIterations;
+		this.maxBlockSize = src.maxBlockSize;
+	}
+
+	public enum Preconditioner {
+		/** Inverse of the camera parameter blocks in the diagonal of the Hessian. Cheapest to compute. */
+		BLOCK_JACOBI,
+		/** Inverse of the diagonal blocks of the Schur complement. More expensive but converges faster. */
+		SCHUR_JACOBI
+	}
+}
@@ -35,6 +35,12 @@ public class ConfigSelfCalibEssentialGuess implements Configuration {
 	/** Number of focal length values it will sample for each camera. 200 is better but is slow */
 	public int numberOfSamples=50;
 
+	/**
+	 * Number of times the search is repeated inside a narrower range centered around the previous best sample.
+	 * With refinement, a smaller {@link #numberOfSamples} can be used to reach the same resolution with less work.
+	 */
+	public int refineLevels = 0;
+
 	/** if true the focus is assumed to be the same for the first two images*/
 	public boolean fixedFocus = true;
 
@@ -43,12 +49,14 @@ public class ConfigSelfCalibEssentialGuess implements Configuration {
 		checkTrue(sampleMin>0,"Minimum focal length must be more than 0");
 		checkTrue(sampleMin<sampleMax,"Minimum focal length must less than the maximum");
 		BoofMiscOps.checkTrue(numberOfSamples>=1);
+		checkTrue(refineLevels>=0,"Refine levels can't be negative");
 	}
 
 	public void setTo( ConfigSelfCalibEssentialGuess src ) {
 		this.sampleMin = src.sampleMin;
 		this.sampleMax = src.sampleMax;
 		this.numberOfSamples = src.numberOfSamples;
+		this.refineLevels = src.refineLevels;
 		this.fixedFocus = src.fixedFocus;
 	}
 }
@@ -41,11 +41,14 @@ import boofcv.alg.geo.pose.*;
 import boofcv.alg.geo.robust.ModelGeneratorViews;
 import boofcv.alg.geo.selfcalib.MetricCameraTriple;
 import boofcv.alg.geo.selfcalib.SelfCalibrationEssentialGuessAndCheck;
+import boofcv.alg.geo.selfcalib.SelfCalibrationEssentialGuessAndCheck_MT;
 import boofcv.alg.geo.selfcalib.SelfCalibrationLinearDualQuadratic;
 import boofcv.alg.geo.selfcalib.SelfCalibrationPraticalGuessAndCheckFocus;
+import boofcv.alg.geo.selfcalib.SelfCalibrationPraticalGuessAndCheckFocus_MT;
 import boofcv.alg.geo.triangulate.*;
 import boofcv.alg.geo.trifocal.RefineThreeViewProjectiveGeometric;
 import boofcv.alg.geo.trifocal.TrifocalAlgebraicPoint7;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.misc.ConfigConverge;
 import boofcv.struct.geo.AssociatedPair;
 import boofcv.struct.geo.AssociatedTriple;
@@ -59,10 +62,15 @@ import org.ddogleg.optimization.FactoryOptimizationSparse;
 import org.ddogleg.optimization.UnconstrainedLeastSquares;
 import org.ddogleg.optimization.UnconstrainedLeastSquaresSchur;
 import org.ddogleg.optimization.lm.ConfigLevenbergMarquardt;
+import org.ddogleg.optimization.lm.UnconLeastSqLevenbergMarquardtSchur_F64;
+import org.ddogleg.optimization.math.MatrixMath_DSCC;
 import org.ddogleg.optimization.trustregion.ConfigTrustRegion;
+import org.ddogleg.optimization.trustregion.TrustRegionUpdateDogleg_F64;
+import org.ddogleg.optimization.trustregion.UnconLeastSqTrustRegionSchur_F64;
 import org.ddogleg.solver.PolynomialOps;
 import org.ddogleg.solver.RootFinderType;
 import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.Factory;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
 import org.jetbrains.annotations.Nullable;
@@ -77,6 +85,7 @@ public class FactoryMultiView {
 	/**
 	 * Returns bundle adjustment with a sparse implementation for metric reconstruction. In most situations this is
 	 * what you want to use, however dense bundle adjustment is available if the problem is small and degenerate.
+	 * Residuals and the Jacobian are only computed concurrently if {@link ConfigBundleAdjustment#concurrent} is true.
 	 *
 	 * @param config (Optional) configuration
 	 * @return bundle adjustment
@@ -85,22 +94,22 @@ public class FactoryMultiView {
 		if (config == null)
 			config = new ConfigBundleAdjustment();
 
-		UnconstrainedLeastSquaresSchur<DMatrixSparseCSC> minimizer;
-
-		if (config.configOptimizer instanceof ConfigTrustRegion)
-			minimizer = FactoryOptimizationSparse.doglegSchur((ConfigTrustRegion)config.configOptimizer);
-		else
-			minimizer = FactoryOptimizationSparse.levenbergMarquardtSchur((ConfigLevenbergMarquardt)config.configOptimizer);
+		UnconstrainedLeastSquaresSchur<DMatrixSparseCSC> minimizer = createSparseSchurMinimizer(config);
 
+		// Concurrency is opt-in since not all camera models are thread safe
+		boolean concurrent = config.concurrent && BoofConcurrency.USE_CONCURRENT;
 		return new BundleAdjustmentSchur_DSCC<>(minimizer,
-				new BundleAdjustmentMetricResidualFunction(),
-				new BundleAdjustmentMetricSchurJacobian_DSCC(),
+				concurrent ?
+						new BundleAdjustmentMetricResidualFunction_MT() : new BundleAdjustmentMetricResidualFunction(),
+				concurrent ?
+						new BundleAdjustmentMetricSchurJacobian_DSCC_MT() : new BundleAdjustmentMetricSchurJacobian_DSCC(),
 				new CodecSceneStructureMetric());
 	}
 
 	/**
 	 * Returns bundle adjustment with a sparse implementation for projective reconstruction. In most situations this is
 	 * what you want to use, however dense bundle adjustment is available if the problem is small and degenerate.
+	 * Residuals and the Jacobian are only computed concurrently if {@link ConfigBundleAdjustment#concurrent} is true.
 	 *
 	 * @param config (Optional) configuration
 	 * @return bundle adjustment
@@ -109,19 +118,45 @@ public class FactoryMultiView {
 		if (config == null)
 			config = new ConfigBundleAdjustment();
 
-		UnconstrainedLeastSquaresSchur<DMatrixSparseCSC> minimizer;
-
-		if (config.configOptimizer instanceof ConfigTrustRegion)
-			minimizer = FactoryOptimizationSparse.doglegSchur((ConfigTrustRegion)config.configOptimizer);
-		else
-			minimizer = FactoryOptimizationSparse.levenbergMarquardtSchur((ConfigLevenbergMarquardt)config.configOptimizer);
+		UnconstrainedLeastSquaresSchur<DMatrixSparseCSC> minimizer = createSparseSchurMinimizer(config);
 
+		// Concurrency is opt-in since not all camera models are thread safe
+		boolean concurrent = config.concurrent && BoofConcurrency.USE_CONCURRENT;
 		return new BundleAdjustmentSchur_DSCC<>(minimizer,
-				new BundleAdjustmentProjectiveResidualFunction(),
-				new BundleAdjustmentProjectiveSchurJacobian_DSCC(),
+				concurrent ?
+						new BundleAdjustmentProjectiveResidualFunction_MT() : new BundleAdjustmentProjectiveResidualFunction(),
+				concurrent ?
+						new BundleAdjustmentProjectiveSchurJacobian_DSCC_MT() : new BundleAdjustmentProjectiveSchurJacobian_DSCC(),
 				new CodecSceneStructureProjective());
 	}
 
+	/**
+	 * Creates the sparse optimizer used by bundle adjustment. If PCG is selected then the reduced camera system is
+	 * solved iteratively, otherwise the default Cholesky based solver is used.
+	 */
+	private static UnconstrainedLeastSquaresSchur<DMatrixSparseCSC>
+	createSparseSchurMinimizer( ConfigBundleAdjustment config ) {
+		if (config.schurSolver == ConfigBundleAdjustment.SchurSolver.CHOLESKY) {
+			if (config.configOptimizer instanceof ConfigTrustRegion)
+				return FactoryOptimizationSparse.doglegSchur((ConfigTrustRegion)config.configOptimizer);
+			else
+				return FactoryOptimizationSparse.levenbergMarquardtSchur((ConfigLevenbergMarquardt)config.configOptimizer);
+		}
+
+		config.pcg.checkValidity();
+		var hessian = new HessianSchurComplementPcg_DSCC(config.pcg);
+
+		if (config.configOptimizer instanceof ConfigTrustRegion) {
+			var alg = new UnconLeastSqTrustRegionSchur_F64<>(new TrustRegionUpdateDogleg_F64<DMatrixSparseCSC>(), hessian);
+			alg.configure((ConfigTrustRegion)config.configOptimizer);
+			return alg;
+		} else {
+			var alg = new UnconLeastSqLevenbergMarquardtSchur_F64<>(new MatrixMath_DSCC(), hessian);
+			alg.configure((ConfigLevenbergMarquardt)config.configOptimizer);
+			return alg;
+		}
+	}
+
 	/**
 	 * Returns bundle adjustment with a dense implementation for metric reconstruction. While much slower than a
 	 * sparse solver, a dense solver can handle systems which are degenerate.
@@ -514,6 +549,65 @@ public class FactoryMultiView {
 		return new PnPRefineRodrigues(tol, maxIterations);
 	}
 
+	/**
+	 * Solves many independent PnP problems at once. Each problem is solved with {@link #pnp_1} and then optionally
+	 * refined with {@link #pnpRefine}. If concurrency is turned on then problems are solved in parallel.
+	 *
+	 * <p>NOTE: Observations are in normalized image coordinates NOT pixels.</p>
+	 *
+	 * @param configPnP (Optional) Specifies which PnP algorithm to use
+	 * @param configRefine (Optional) Convergence criteria for refinement. If null then there is no refinement.
+	 * @return Batch PnP estimator
+	 * @see WrapBatchPnP
+	 */
+	public static EstimateBatchPnP pnpBatch( @Nullable ConfigPnP configPnP, @Nullable ConfigConverge configRefine ) {
+		final ConfigPnP _pnp = configPnP == null ? new ConfigPnP() : configPnP;
+		_pnp.checkValidity();
+
+		Factory<Estimate1ofPnP> factoryEstimator = () -> pnp_1(_pnp.which, _pnp.epnpIterations, _pnp.numResolve);
+		Factory<RefinePnP> factoryRefine = null;
+		if (configRefine != null) {
+			final double tol = configRefine.ftol;
+			final int maxIterations = configRefine.maxIterations;
+			factoryRefine = () -> pnpRefine(tol, maxIterations);
+		}
+
+		if (BoofConcurrency.USE_CONCURRENT)
+			return new WrapBatchPnP_MT(factoryEstimator, factoryRefine);
+		else
+			return new WrapBatchPnP(factoryEstimator, factoryRefine);
+	}
+
+	/**
+	 * Minimal solution to PnP for a generalized camera, i.e. multiple cameras rigidly attached to a rig with known
+	 * extrinsics. Known as GP3P. Returns up to eight solutions.
+	 *
+	 * <p>NOTE: Observations are in normalized image coordinates NOT pixels.</p>
+	 *
+	 * @return GP3P solver
+	 * @see GeneralizedP3P
+	 */
+	public static GeneralizedP3P pnpGeneralized_N() {
+		return new GeneralizedP3P(PolynomialOps.createRootFinder(9, RootFinderType.STURM),
+				FitSpecialEuclideanOps_F64.fitPoints3D());
+	}
+
+	/**
+	 * Solves PnP for a generalized camera, i.e. multiple cameras rigidly attached to a rig with known extrinsics.
+	 * The initial estimate comes from {@link #pnpGeneralized_N} and is then refined using observations from all
+	 * the cameras.
+	 *
+	 * @param configRefine Convergence criteria for refinement across all cameras. If null defaults are used.
+	 * @return Generalized camera PnP estimator
+	 * @see PnPGeneralizedCamera
+	 */
+	public static PnPGeneralizedCamera pnpGeneralized( @Nullable ConfigConverge configRefine ) {
+		if (configRefine == null)
+			configRefine = new ConfigConverge(1e-8, 1e-8, 50);
+
+		return new PnPGeneralizedCamera(pnpGeneralized_N(), configRefine.ftol, configRefine.maxIterations);
+	}
+
 	/**
 	 * Estimate the camera motion give two observations and the 3D world coordinate of each points.
 	 *
@@ -607,6 +701,22 @@ public class FactoryMultiView {
 		}
 	}
 
+	/**
+	 * Triangulates many points at once in homogenous coordinates. If the type is {@link ConfigTriangulation.Type#GEOMETRIC}
+	 * then each point is refined using nonlinear optimization. If concurrency is turned on then points are
+	 * triangulated in parallel.
+	 *
+	 * @return Batch triangulation algorithm
+	 * @see WrapBatchTriangulateMetricH
+	 */
+	public static TriangulateBatchMetricH triangulateBatchMetricH( @Nullable ConfigTriangulation config ) {
+		final ConfigTriangulation _config = config == null ? new ConfigTriangulation() : config;
+		if (BoofConcurrency.USE_CONCURRENT)
+			return new WrapBatchTriangulateMetricH_MT(() -> triangulateNViewMetricH(_config));
+		else
+			return new WrapBatchTriangulateMetricH(() -> triangulateNViewMetricH(_config));
+	}
+
 	/**
 	 * Triangulate N views using the Discrete Linear Transform (DLT) with an uncalibrated camera
 	 *
@@ -736,9 +846,11 @@ public class FactoryMultiView {
 		config.checkValidity();
 
 		final ConfigSelfCalibEssentialGuess c = config;
-		var selfCalib = new SelfCalibrationEssentialGuessAndCheck();
+		SelfCalibrationEssentialGuessAndCheck selfCalib = BoofConcurrency.USE_CONCURRENT ?
+				new SelfCalibrationEssentialGuessAndCheck_MT() : new SelfCalibrationEssentialGuessAndCheck();
 		selfCalib.fixedFocus = c.fixedFocus;
 		selfCalib.numberOfSamples = c.numberOfSamples;
+		selfCalib.refineLevels = c.refineLevels;
 		selfCalib.sampleFocalRatioMin = c.sampleMin;
 		selfCalib.sampleFocalRatioMax = c.sampleMax;
 
@@ -758,8 +870,10 @@ public class FactoryMultiView {
 		config.checkValidity();
 
 		final ConfigSelfCalibPracticalGuess c = config;
-		var selfCalib = new SelfCalibrationPraticalGuessAndCheckFocus();
+		SelfCalibrationPraticalGuessAndCheckFocus selfCalib = BoofConcurrency.USE_CONCURRENT ?
+				new SelfCalibrationPraticalGuessAndCheckFocus_MT() : new SelfCalibrationPraticalGuessAndCheckFocus();
 		selfCalib.setSampling(c.sampleMin, c.sampleMax, c.numberOfSamples);
+		selfCalib.setRefineLevels(c.refineLevels);
 		selfCalib.setSingleCamera(c.fixedFocus);
 		return new ProjectiveToMetricCameraPracticalGuessAndCheck(selfCalib);
 	}
@@ -27,14 +27,18 @@ import boofcv.abst.geo.fitting.GenerateEpipolarMatrix;
 import boofcv.abst.geo.fitting.ModelManagerEpipolarMatrix;
 import boofcv.alg.geo.DistanceFromModelMultiView;
 import boofcv.alg.geo.f.FundamentalResidualSampson;
+import boofcv.alg.geo.pose.GeneralizedP3P;
 import boofcv.alg.geo.pose.PnPDistanceReprojectionSq;
+import boofcv.alg.geo.pose.PnPGeneralizedDistanceSq;
 import boofcv.alg.geo.robust.*;
 import boofcv.alg.geo.selfcalib.DistanceMetricTripleReprojection23;
 import boofcv.alg.geo.selfcalib.MetricCameraTriple;
 import boofcv.alg.geo.selfcalib.ModelManagerMetricCameraTriple;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.geo.AssociatedPair;
 import boofcv.struct.geo.AssociatedTriple;
 import boofcv.struct.geo.Point2D3D;
+import boofcv.struct.geo.Point2D3DCamera;
 import boofcv.struct.geo.TrifocalTensor;
 import boofcv.struct.image.ImageDimension;
 import georegression.fitting.homography.ModelManagerHomography2D_F64;
@@ -47,9 +51,13 @@ import org.ddogleg.fitting.modelset.ModelManager;
 import org.ddogleg.fitting.modelset.ModelMatcher;
 import org.ddogleg.fitting.modelset.lmeds.LeastMedianOfSquares;
 import org.ddogleg.fitting.modelset.ransac.Ransac;
+import org.ddogleg.struct.Factory;
 import org.ejml.data.DMatrixRMaj;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Factory for creating robust false-positive tolerant estimation algorithms in multi-view geometry.  These
  * algorithms tend to have a lot of boilerplate associated with them and the goal of this factory
@@ -116,16 +124,60 @@ public class FactoryMultiViewRobust {
 		pnp.checkValidity();
 		ransac.checkValidity();
 
-		Estimate1ofPnP estimatorPnP = FactoryMultiView.pnp_1(pnp.which, pnp.epnpIterations, pnp.numResolve);
-		DistanceFromModelMultiView<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
+		final ConfigPnP _pnp = pnp;
 		ModelManagerSe3_F64 manager = new ModelManagerSe3_F64();
-		EstimatorToGenerator<Se3_F64,Point2D3D> generator =
-				new EstimatorToGenerator<>(estimatorPnP);
+		Factory<ModelGenerator<Se3_F64, Point2D3D>> generator = () ->
+				new EstimatorToGenerator<>(FactoryMultiView.pnp_1(_pnp.which, _pnp.epnpIterations, _pnp.numResolve));
 
 		// convert from pixels to pixels squared
 		double threshold = ransac.inlierThreshold*ransac.inlierThreshold;
 
-		return new RansacCalibrated<>(ransac.randSeed, manager, generator, distance, ransac.iterations, threshold);
+		if (ransac.adaptive)
+			return ransacAdaptive(ransac, threshold, manager, generator, PnPDistanceReprojectionSq::new);
+
+		return new RansacCalibrated<>(ransac.randSeed, manager, generator.newInstance(),
+				new PnPDistanceReprojectionSq(), ransac.iterations, threshold);
+	}
+
+	/**
+	 * Robust solution to PnP for a generalized camera, i.e. multiple cameras rigidly attached to a rig with known
+	 * extrinsics, using {@link Ransac} and {@link GeneralizedP3P}. Found transform is from world to the rig's body
+	 * frame.
+	 *
+	 * <p>NOTE: Observations and inlierThreshold are in normalized image coordinates NOT pixels.</p>
+	 *
+	 * @param rig_to_cameras Transform from the rig's body frame to each camera. Copied.
+	 * @param ransac Parameters for RANSAC.  Can't be null.
+	 * @return Robust Se3_F64 estimator
+	 */
+	public static ModelMatcher<Se3_F64, Point2D3DCamera> pnpGeneralizedRansac( List<Se3_F64> rig_to_cameras,
+																			   ConfigRansac ransac ) {
+		ransac.checkValidity();
+
+		final List<Se3_F64> rig = new ArrayList<>();
+		for (int i = 0; i < rig_to_cameras.size(); i++) {
+			rig.add(rig_to_cameras.get(i).copy());
+		}
+
+		ModelManagerSe3_F64 manager = new ModelManagerSe3_F64();
+		Factory<ModelGenerator<Se3_F64, Point2D3DCamera>> generator = () -> {
+			var alg = new GeneratePnPGeneralized(FactoryMultiView.pnpGeneralized_N(), 1);
+			alg.setRig(rig);
+			return alg;
+		};
+		Factory<DistanceFromModel<Se3_F64, Point2D3DCamera>> distance = () -> {
+			var alg = new PnPGeneralizedDistanceSq();
+			alg.setRig(rig);
+			return alg;
+		};
+
+		double threshold = ransac.inlierThreshold*ransac.inlierThreshold;
+
+		if (ransac.adaptive)
+			return ransacAdaptive(ransac, threshold, manager, generator, distance);
+
+		return new Ransac<>(ransac.randSeed, manager, generator.newInstance(), distance.newInstance(),
+				ransac.iterations, threshold);
 	}
 
 	/**
@@ -217,22 +269,24 @@ public class FactoryMultiViewRobust {
 			throw new RuntimeException("Error model has to be Euclidean");
 		}
 
-		Estimate1ofEpipolar epipolar = FactoryMultiView.
-				essential_1(essential.which, essential.numResolve);
-
-		Triangulate2ViewsMetric triangulate = FactoryMultiView.triangulate2ViewMetric(
-				new ConfigTriangulation(ConfigTriangulation.Type.GEOMETRIC));
+		final ConfigEssential _essential = essential;
+		var configTriangulate = new ConfigTriangulation(ConfigTriangulation.Type.GEOMETRIC);
 		ModelManager<Se3_F64> manager = new ModelManagerSe3_F64();
-		ModelGenerator<Se3_F64, AssociatedPair> generateEpipolarMotion =
-				new Se3FromEssentialGenerator(epipolar, triangulate);
+		Factory<ModelGenerator<Se3_F64, AssociatedPair>> generateEpipolarMotion = () ->
+				new Se3FromEssentialGenerator(
+						FactoryMultiView.essential_1(_essential.which, _essential.numResolve),
+						FactoryMultiView.triangulate2ViewMetric(configTriangulate));
 
-		DistanceFromModelMultiView<Se3_F64, AssociatedPair> distanceSe3 =
-				new DistanceSe3SymmetricSq(triangulate);
+		Factory<DistanceFromModelMultiView<Se3_F64, AssociatedPair>> distanceSe3 = () ->
+				new DistanceSe3SymmetricSq(FactoryMultiView.triangulate2ViewMetric(configTriangulate));
 
 		double ransacTOL = ransac.inlierThreshold * ransac.inlierThreshold * 2.0;
 
-		return new RansacCalibrated<>(ransac.randSeed, manager, generateEpipolarMotion, distanceSe3,
-				ransac.iterations, ransacTOL);
+		if (ransac.adaptive)
+			return ransacAdaptive(ransac, ransacTOL, manager, generateEpipolarMotion, distanceSe3::newInstance);
+
+		return new RansacCalibrated<>(ransac.randSeed, manager, generateEpipolarMotion.newInstance(),
+				distanceSe3.newInstance(), ransac.iterations, ransacTOL);
 	}
 
 	public static ModelMatcherMultiview<DMatrixRMaj, AssociatedPair>  essentialRansac(@Nullable ConfigEssential essential,
@@ -250,18 +304,19 @@ public class FactoryMultiViewRobust {
 			return new MmmvSe3ToEssential(baselineRansac(essential,ransac));
 		}
 
+		final ConfigEssential _essential = essential;
 		ModelManager<DMatrixRMaj> managerE = new ModelManagerEpipolarMatrix();
-		Estimate1ofEpipolar estimateF = FactoryMultiView.essential_1(essential.which,
-				essential.numResolve);
-		GenerateEpipolarMatrix generateE = new GenerateEpipolarMatrix(estimateF);
+		Factory<ModelGenerator<DMatrixRMaj, AssociatedPair>> generateE = () ->
+				new GenerateEpipolarMatrix(FactoryMultiView.essential_1(_essential.which, _essential.numResolve));
 
 		// How the error is measured
-		DistanceFromModelMultiView<DMatrixRMaj,AssociatedPair> errorMetric =
-				new DistanceMultiView_EssentialSampson();
 		double ransacTOL = ransac.inlierThreshold * ransac.inlierThreshold;
 
-		return new RansacCalibrated<>(ransac.randSeed, managerE, generateE, errorMetric,
-				ransac.iterations, ransacTOL);
+		if (ransac.adaptive)
+			return ransacAdaptive(ransac, ransacTOL, managerE, generateE, DistanceMultiView_EssentialSampson::new);
+
+		return new RansacCalibrated<>(ransac.randSeed, managerE, generateE.newInstance(),
+				new DistanceMultiView_EssentialSampson(), ransac.iterations, ransacTOL);
 	}
 
 
@@ -273,29 +328,23 @@ public class FactoryMultiViewRobust {
 		ransac.checkValidity();
 
 		ModelManager<DMatrixRMaj> managerF = new ModelManagerEpipolarMatrix();
-		Estimate1ofEpipolar estimateF = FactoryMultiView.fundamental_1(fundamental.which,
-				fundamental.numResolve);
-		GenerateEpipolarMatrix generateF = new GenerateEpipolarMatrix(estimateF);
+		Factory<ModelGenerator<DMatrixRMaj, AssociatedPair>> generateF = () ->
+				new GenerateEpipolarMatrix(FactoryMultiView.fundamental_1(fundamental.which, fundamental.numResolve));
 
 		// How the error is measured
-		DistanceFromModel<DMatrixRMaj,AssociatedPair> errorMetric;
-
-		switch( fundamental.errorModel ) {
-			case SAMPSON:
-				errorMetric = new DistanceFromModelResidual<>(new FundamentalResidualSampson());
-				break;
-
-			case GEOMETRIC:
-				errorMetric = new DistanceFundamentalGeometric();
-				break;
-
-			default:
-				throw new RuntimeException("Unknown");
-		}
+		Factory<DistanceFromModel<DMatrixRMaj,AssociatedPair>> errorMetric = switch (fundamental.errorModel) {
+			case SAMPSON -> () -> new DistanceFromModelResidual<>(new FundamentalResidualSampson());
+			case GEOMETRIC -> DistanceFundamentalGeometric::new;
+			default -> throw new RuntimeException("Unknown");
+		};
 
 		double ransacTOL = ransac.inlierThreshold * ransac.inlierThreshold;
 
-		return new Ransac<>(ransac.randSeed, managerF, generateF, errorMetric, ransac.iterations, ransacTOL);
+		if (ransac.adaptive)
+			return ransacAdaptive(ransac, ransacTOL, managerF, generateF, errorMetric);
+
+		return new Ransac<>(ransac.randSeed, managerF, generateF.newInstance(), errorMetric.newInstance(),
+				ransac.iterations, ransacTOL);
 	}
 
 	/**
@@ -340,8 +389,10 @@ public class FactoryMultiViewRobust {
 	 *
 	 * <p>See code for all the details.</p>
 	 *
+	 * @see #homographyRansacAdaptive
+	 *
 	 * @param homography Homography estimation parameters.  If null default is used.
-	 * @param ransac Parameters for RANSAC.  Can't be null.
+	 * @param ransac Parameters for RANSAC.  Can't be null. {@link ConfigRansac#adaptive} is ignored.
 	 * @return Homography estimator
 	 */
 	public static Ransac<Homography2D_F64,AssociatedPair>
@@ -359,13 +410,35 @@ public class FactoryMultiViewRobust {
 		return new Ransac<>(ransac.randSeed, manager, modelFitter, distance, ransac.iterations, ransacTol);
 	}
 
+	/**
+	 * Same as {@link #homographyRansac} but uses {@link RansacAdaptive}.
+	 *
+	 * @param homography Homography estimation parameters.  If null default is used.
+	 * @param ransac Parameters for RANSAC.  Can't be null.
+	 * @return Homography estimator
+	 */
+	public static ModelMatcher<Homography2D_F64,AssociatedPair>
+	homographyRansacAdaptive( @Nullable ConfigHomography homography , ConfigRansac ransac )
+	{
+		if( homography == null )
+			homography = new ConfigHomography();
+
+		final boolean normalize = homography.normalize;
+		ModelManager<Homography2D_F64> manager = new ModelManagerHomography2D_F64();
+		double ransacTol = ransac.inlierThreshold*ransac.inlierThreshold;
+
+		return ransacAdaptive(ransac, ransacTol, manager,
+				() -> new GenerateHomographyLinear(normalize), DistanceHomographySq::new);
+	}
+
 	/**
 	 * Estimates a homography from normalized image coordinates but computes the error in pixel coordinates
 	 *
 	 * @see GenerateHomographyLinear
 	 * @see DistanceHomographyCalibratedSq
+	 * @see #homographyCalibratedRansacAdaptive
 	 *
-	 * @param ransac RANSAC configuration
+	 * @param ransac RANSAC configuration. {@link ConfigRansac#adaptive} is ignored.
 	 * @return Ransac
 	 */
 	public static RansacCalibrated<Homography2D_F64,AssociatedPair>
@@ -381,14 +454,31 @@ public class FactoryMultiViewRobust {
 				(ransac.randSeed, manager, modelFitter, distance, ransac.iterations, ransacTol);
 	}
 
+	/**
+	 * Same as {@link #homographyCalibratedRansac} but uses {@link RansacAdaptive}.
+	 *
+	 * @param ransac RANSAC configuration
+	 * @return Ransac
+	 */
+	public static ModelMatcherMultiview<Homography2D_F64,AssociatedPair>
+	homographyCalibratedRansacAdaptive( ConfigRansac ransac )
+	{
+		ModelManager<Homography2D_F64> manager = new ModelManagerHomography2D_F64();
+		double ransacTol = ransac.inlierThreshold*ransac.inlierThreshold;
+
+		return ransacAdaptive(ransac, ransacTol, manager,
+				() -> new GenerateHomographyLinear(false), DistanceHomographyCalibratedSq::new);
+	}
+
 	/**
 	 * Robust RANSAC based estimator for
 	 *
 	 * @see FactoryMultiView#trifocal_1
+	 * @see #trifocalRansacAdaptive
 	 *
 	 * @param trifocal Configuration for trifocal tensor calculation
 	 * @param error Configuration for how trifocal error is computed
-	 * @param ransac Configuration for RANSAC
+	 * @param ransac Configuration for RANSAC. {@link ConfigRansac#adaptive} is ignored.
 	 * @return RANSAC
 	 */
 	public static Ransac<TrifocalTensor, AssociatedTriple>
@@ -402,24 +492,8 @@ public class FactoryMultiViewRobust {
 
 		trifocal.checkValidity();
 
-		double ransacTol;
-		DistanceFromModel<TrifocalTensor,AssociatedTriple> distance;
-
-		switch (error.model) {
-			case REPROJECTION -> {
-				ransacTol = 3.0 * ransac.inlierThreshold * ransac.inlierThreshold;
-				distance = new DistanceTrifocalReprojectionSq();
-			}
-			case REPROJECTION_REFINE -> {
-				ransacTol = 3.0 * ransac.inlierThreshold * ransac.inlierThreshold;
-				distance = new DistanceTrifocalReprojectionSq(error.converge.gtol, error.converge.maxIterations);
-			}
-			case POINT_TRANSFER -> {
-				ransacTol = 2.0 * ransac.inlierThreshold * ransac.inlierThreshold;
-				distance = new DistanceTrifocalTransferSq();
-			}
-			default -> throw new IllegalArgumentException("Unknown error model " + error.model);
-		}
+		double ransacTol = trifocalTolerance(error, ransac);
+		DistanceFromModel<TrifocalTensor,AssociatedTriple> distance = trifocalDistance(error).newInstance();
 
 		Estimate1ofTrifocalTensor estimator = FactoryMultiView.trifocal_1(trifocal);
 		ModelManager<TrifocalTensor> manager = new ManagerTrifocalTensor();
@@ -428,6 +502,80 @@ public class FactoryMultiViewRobust {
 		return new Ransac<>(ransac.randSeed, manager, generator, distance, ransac.iterations, ransacTol);
 	}
 
+	/**
+	 * Same as {@link #trifocalRansac} but uses {@link RansacAdaptive}.
+	 *
+	 * @param trifocal Configuration for trifocal tensor calculation
+	 * @param error Configuration for how trifocal error is computed
+	 * @param ransac Configuration for RANSAC
+	 * @return RANSAC
+	 */
+	public static ModelMatcher<TrifocalTensor, AssociatedTriple>
+	trifocalRansacAdaptive( @Nullable ConfigTrifocal trifocal ,
+							@Nullable ConfigTrifocalError error,
+							ConfigRansac ransac ) {
+		if( trifocal == null )
+			trifocal = new ConfigTrifocal();
+		if( error == null )
+			error = new ConfigTrifocalError();
+
+		trifocal.checkValidity();
+
+		final ConfigTrifocal _trifocal = trifocal;
+		ModelManager<TrifocalTensor> manager = new ManagerTrifocalTensor();
+
+		return ransacAdaptive(ransac, trifocalTolerance(error, ransac), manager,
+				() -> new GenerateTrifocalTensor(FactoryMultiView.trifocal_1(_trifocal)), trifocalDistance(error));
+	}
+
+	/**
+	 * Inlier tolerance for trifocal RANSAC. Errors are summed across views so the tolerance is scaled to match.
+	 */
+	private static double trifocalTolerance( ConfigTrifocalError error, ConfigRansac ransac ) {
+		double tolSq = ransac.inlierThreshold*ransac.inlierThreshold;
+		return switch (error.model) {
+			case REPROJECTION, REPROJECTION_REFINE -> 3.0*tolSq;
+			case POINT_TRANSFER -> 2.0*tolSq;
+			default -> throw new IllegalArgumentException("Unknown error model " + error.model);
+		};
+	}
+
+	/**
+	 * Creates a factory for the specified trifocal error model
+	 */
+	private static Factory<DistanceFromModel<TrifocalTensor, AssociatedTriple>>
+	trifocalDistance( ConfigTrifocalError error ) {
+		final double gtol = error.converge.gtol;
+		final int maxIterations = error.converge.maxIterations;
+		return switch (error.model) {
+			case REPROJECTION -> DistanceTrifocalReprojectionSq::new;
+			case REPROJECTION_REFINE -> () -> new DistanceTrifocalReprojectionSq(gtol, maxIterations);
+			case POINT_TRANSFER -> DistanceTrifocalTransferSq::new;
+			default -> throw new IllegalArgumentException("Unknown error model " + error.model);
+		};
+	}
+
+	/**
+	 * Creates {@link RansacAdaptive}. If concurrency is turned on then the concurrent implementation is returned.
+	 *
+	 * @param ransac Configuration for RANSAC
+	 * @param threshold Inlier threshold in the same units as the distance function
+	 * @param manager Model manager
+	 * @param generator Creates a new model generator for each thread
+	 * @param distance Creates a new distance function for each thread
+	 * @return RANSAC
+	 */
+	public static <Model, Point> RansacAdaptive<Model, Point>
+	ransacAdaptive( ConfigRansac ransac, double threshold, ModelManager<Model> manager,
+					Factory<ModelGenerator<Model, Point>> generator,
+					Factory<DistanceFromModel<Model, Point>> distance ) {
+		ransac.checkValidity();
+		if (BoofConcurrency.USE_CONCURRENT)
+			return new RansacAdaptive_MT<>(ransac, threshold, manager, generator, distance);
+		else
+			return new RansacAdaptive<>(ransac, threshold, manager, generator, distance);
+	}
+
 	/**
 	 * Projective to metric self calibration from 3-views
 	 *
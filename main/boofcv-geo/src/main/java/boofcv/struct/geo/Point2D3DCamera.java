@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.geo;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+
+/**
+ * Observed point feature location on the image plane, its 3D position, and which camera on a multi-camera rig
+ * observed it.
+ *
+ * @author Peter Abeles
+ */
+public class Point2D3DCamera extends Point2D3D {
+	/**
+	 * Index of the camera on the rig which observed the feature
+	 */
+	public int camera;
+
+	public Point2D3DCamera() {}
+
+	public Point2D3DCamera( Point2D_F64 observation, Point3D_F64 location, int camera ) {
+		super(observation, location);
+		this.camera = camera;
+	}
+
+	/**
+	 * Sets 'this' to be identical to 'src'.
+	 */
+	public void setTo( Point2D3DCamera src ) {
+		super.setTo(src);
+		this.camera = src.camera;
+	}
+
+	@Override public Point2D3DCamera copy() {
+		return new Point2D3DCamera(observation.copy(), location.copy(), camera);
+	}
+}
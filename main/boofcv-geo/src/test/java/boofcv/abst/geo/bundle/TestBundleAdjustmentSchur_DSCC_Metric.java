@@ -18,7 +18,9 @@
 
 package boofcv.abst.geo.bundle;
 
+import boofcv.factory.geo.ConfigBundleAdjustment;
 import boofcv.factory.geo.FactoryMultiView;
+import org.junit.jupiter.api.Nested;
 
 /**
  * @author Peter Abeles
@@ -32,4 +34,21 @@ public class TestBundleAdjustmentSchur_DSCC_Metric extends GenericBundleAdjustme
 		ret.configure(1e-5,1e-5,20);
 		return ret;
 	}
+
+	/**
+	 * Reduced camera system is solved using PCG. The tolerance is tightened since the checks compare against
+	 * a specific solution and a very inexact step can converge to a different local minimum.
+	 */
+	@Nested
+	public class PCG extends GenericBundleAdjustmentMetricChecks {
+		@Override
+		public BundleAdjustment<SceneStructureMetric> createAlg() {
+			var config = new ConfigBundleAdjustment();
+			config.schurSolver = ConfigBundleAdjustment.SchurSolver.PCG;
+			config.pcg.relativeTolerance = 1e-6;
+			BundleAdjustment<SceneStructureMetric> ret = FactoryMultiView.bundleSparseMetric(config);
+			ret.configure(1e-5, 1e-5, 20);
+			return ret;
+		}
+	}
 }
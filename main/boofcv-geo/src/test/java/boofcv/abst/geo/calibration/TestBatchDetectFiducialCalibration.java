@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.calibration;
+
+import boofcv.alg.distort.LensDistortionNarrowFOV;
+import boofcv.alg.geo.calibration.CalibrationObservation;
+import boofcv.struct.image.GrayF32;
+import boofcv.testing.BoofStandardJUnit;
+import georegression.struct.point.Point2D_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBatchDetectFiducialCalibration extends BoofStandardJUnit {
+	/**
+	 * Images with a positive value at (0,0) have a "target" in them. See if they are correctly identified and
+	 * the results are saved in the correct order
+	 */
+	@Test void process() {
+		List<GrayF32> images = createImages(20);
+
+		var alg = new BatchDetectFiducialCalibration(DummyDetector::new);
+		alg.process(images);
+		checkResults(images, alg);
+	}
+
+	/**
+	 * Images which can't be loaded should be skipped
+	 */
+	@Test void process_failedToLoad() {
+		List<GrayF32> images = createImages(10);
+
+		var alg = new BatchDetectFiducialCalibration(DummyDetector::new);
+		alg.process(images.size(), ( index, storage ) -> index == 2 ? null : images.get(index));
+
+		assertEquals(images.size(), alg.getImageCount());
+		assertFalse(alg.isDetected(2));
+		assertNull(alg.getDetected(2));
+	}
+
+	/**
+	 * Only images the target was detected in should be added
+	 */
+	@Test void addDetectedTo() {
+		List<GrayF32> images = createImages(10);
+
+		var alg = new BatchDetectFiducialCalibration(DummyDetector::new);
+		alg.process(images);
+
+		var calibrator = new CalibrateMonoPlanar(alg.getLayout());
+		alg.addDetectedTo(calibrator);
+
+		List<CalibrationObservation> found = calibrator.getObservations();
+		assertEquals(alg.countDetected(), found.size());
+		for (int i = 1; i < found.size(); i++) {
+			assertTrue(found.get(i - 1).get(0).p.x < found.get(i).get(0).p.x);
+		}
+	}
+
+	public static List<GrayF32> createImages( int count ) {
+		List<GrayF32> images = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			GrayF32 image = new GrayF32(30, 20);
+			image.set(0, 0, i%3 == 0 ? -1 : i);
+			images.add(image);
+		}
+		return images;
+	}
+
+	public static void checkResults( List<GrayF32> images, BatchDetectFiducialCalibration alg ) {
+		assertEquals(images.size(), alg.getImageCount());
+		int expectedCount = 0;
+		for (int i = 0; i < images.size(); i++) {
+			boolean expected = images.get(i).get(0, 0) > 0;
+			assertEquals(expected, alg.isDetected(i));
+			if (!expected)
+				continue;
+			expectedCount++;
+			CalibrationObservation found = alg.getDetected(i);
+			assertNotNull(found);
+			assertEquals(30, found.getWidth());
+			assertEquals(images.get(i).get(0, 0), found.get(0).p.x, 0.0);
+		}
+		assertEquals(expectedCount, alg.countDetected());
+	}
+
+	/**
+	 * Detects a target if the first pixel is positive. The first pixel's value is used as the detected location
+	 */
+	public static class DummyDetector implements DetectorFiducialCalibration {
+		GrayF32 image;
+
+		@Override public boolean process( GrayF32 input ) {
+			this.image = input;
+			return input.get(0, 0) > 0;
+		}
+
+		@Override public CalibrationObservation getDetectedPoints() {
+			var found = new CalibrationObservation(image.width, image.height);
+			found.add(image.get(0, 0), 1, 0);
+			return found;
+		}
+
+		@Override public List<Point2D_F64> getLayout() {
+			List<Point2D_F64> layout = new ArrayList<>();
+			layout.add(new Point2D_F64(0, 0));
+			return layout;
+		}
+
+		@Override public void setLensDistortion( LensDistortionNarrowFOV distortion, int width, int height ) {}
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.calibration;
+
+import boofcv.abst.geo.calibration.TestBatchDetectFiducialCalibration.DummyDetector;
+import boofcv.struct.image.GrayF32;
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static boofcv.abst.geo.calibration.TestBatchDetectFiducialCalibration.checkResults;
+import static boofcv.abst.geo.calibration.TestBatchDetectFiducialCalibration.createImages;
+
+/**
+ * @author Peter Abeles
+ */
+class TestBatchDetectFiducialCalibration_MT extends BoofStandardJUnit {
+	/**
+	 * Results should be the same as the single threaded version
+	 */
+	@Test void compareToSingleThread() {
+		List<GrayF32> images = createImages(53);
+
+		var single = new BatchDetectFiducialCalibration(DummyDetector::new);
+		var multi = new BatchDetectFiducialCalibration_MT(DummyDetector::new);
+		single.process(images);
+		multi.process(images);
+
+		checkResults(images, single);
+		checkResults(images, multi);
+
+		// Call it a second time to make sure old results are cleared
+		multi.process(images.subList(0, 10));
+		checkResults(images.subList(0, 10), multi);
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.pose;
+
+import boofcv.factory.geo.EnumPNP;
+import boofcv.factory.geo.FactoryMultiView;
+import boofcv.struct.geo.Point2D3D;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_I32;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestWrapBatchPnP extends BaseChecksPnP {
+	/**
+	 * Solve several problems with perfect observations and see if the correct poses are found
+	 */
+	@Test void perfectObservations() {
+		for (boolean refine : new boolean[]{false, true}) {
+			BatchProblems problems = createProblems(10, 6, 20);
+
+			WrapBatchPnP alg = createAlg(refine);
+			var found = new DogArray<>(Se3_F64::new);
+			var success = new DogArray_B();
+
+			assertEquals(10, alg.process(problems.observations, problems.offsets, found, success));
+
+			assertEquals(10, found.size);
+			assertEquals(10, success.size);
+			for (int i = 0; i < 10; i++) {
+				assertTrue(success.get(i));
+				Se3_F64 expected = problems.worldToViews.get(i);
+				assertTrue(MatrixFeatures_DDRM.isIdentical(expected.R, found.get(i).R, 1e-6));
+				assertTrue(expected.T.isIdentical(found.get(i).T, 1e-6));
+			}
+		}
+	}
+
+	/**
+	 * Problems with too few points should be marked as failed without affecting the others
+	 */
+	@Test void tooFewPoints() {
+		BatchProblems problems = createProblems(3, 6, 10);
+
+		// Shrink the second problem below the minimum
+		WrapBatchPnP alg = createAlg(false);
+		int tooFew = alg.getMinimumPoints() - 1;
+		int start = problems.offsets.get(1);
+		int end = problems.offsets.get(2);
+		for (int i = start + tooFew; i < end; i++) {
+			problems.observations.remove(start + tooFew);
+		}
+		for (int i = 2; i < problems.offsets.size; i++) {
+			problems.offsets.data[i] -= end - start - tooFew;
+		}
+
+		var found = new DogArray<>(Se3_F64::new);
+		var success = new DogArray_B();
+		assertEquals(2, alg.process(problems.observations, problems.offsets, found, success));
+		assertTrue(success.get(0));
+		assertFalse(success.get(1));
+		assertTrue(success.get(2));
+	}
+
+	public WrapBatchPnP createAlg( boolean refine ) {
+		return new WrapBatchPnP(() -> FactoryMultiView.pnp_1(EnumPNP.EPNP, 10, 0),
+				refine ? () -> FactoryMultiView.pnpRefine(1e-10, 50) : null);
+	}
+
+	/**
+	 * Creates a set of problems, each with a different pose and number of points
+	 */
+	public BatchProblems createProblems( int numProblems, int minPoints, int maxPoints ) {
+		var problems = new BatchProblems();
+		problems.offsets.add(0);
+		for (int i = 0; i < numProblems; i++) {
+			Se3_F64 worldToView = SpecialEuclideanOps_F64.eulerXyz(
+					rand.nextGaussian(), rand.nextGaussian(), 5 + rand.nextDouble(),
+					rand.nextGaussian()*0.2, rand.nextGaussian()*0.2, rand.nextGaussian()*0.2, null);
+			int numPoints = minPoints + rand.nextInt(maxPoints - minPoints + 1);
+			problems.worldToViews.add(worldToView);
+			problems.observations.addAll(createObservations(worldToView, numPoints));
+			problems.offsets.add(problems.observations.size());
+		}
+		return problems;
+	}
+
+	public static class BatchProblems {
+		public List<Point2D3D> observations = new ArrayList<>();
+		public DogArray_I32 offsets = new DogArray_I32();
+		public List<Se3_F64> worldToViews = new ArrayList<>();
+	}
+}
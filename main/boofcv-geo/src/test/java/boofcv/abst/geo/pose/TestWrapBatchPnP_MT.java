@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.pose;
+
+import boofcv.abst.geo.pose.TestWrapBatchPnP.BatchProblems;
+import boofcv.factory.geo.EnumPNP;
+import boofcv.factory.geo.FactoryMultiView;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_B;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+class TestWrapBatchPnP_MT extends BaseChecksPnP {
+	/**
+	 * Results should be identical to the single threaded version
+	 */
+	@Test void compareToSingleThread() {
+		BatchProblems problems = new TestWrapBatchPnP().createProblems(100, 4, 50);
+
+		var single = new WrapBatchPnP(() -> FactoryMultiView.pnp_1(EnumPNP.EPNP, 10, 0),
+				() -> FactoryMultiView.pnpRefine(1e-10, 50));
+		var multi = new WrapBatchPnP_MT(() -> FactoryMultiView.pnp_1(EnumPNP.EPNP, 10, 0),
+				() -> FactoryMultiView.pnpRefine(1e-10, 50));
+
+		var expected = new DogArray<>(Se3_F64::new);
+		var found = new DogArray<>(Se3_F64::new);
+		var expectedSuccess = new DogArray_B();
+		var foundSuccess = new DogArray_B();
+
+		int countExpected = single.process(problems.observations, problems.offsets, expected, expectedSuccess);
+		int countFound = multi.process(problems.observations, problems.offsets, found, foundSuccess);
+
+		assertEquals(countExpected, countFound);
+		assertEquals(expected.size, found.size);
+		for (int i = 0; i < expected.size; i++) {
+			assertEquals(expectedSuccess.get(i), foundSuccess.get(i));
+			assertTrue(MatrixFeatures_DDRM.isIdentical(expected.get(i).R, found.get(i).R, 0.0));
+			assertTrue(expected.get(i).T.isIdentical(found.get(i).T, 0.0));
+		}
+	}
+}
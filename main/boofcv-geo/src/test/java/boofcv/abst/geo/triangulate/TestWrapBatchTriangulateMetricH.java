@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.triangulate;
+
+import boofcv.abst.geo.GeneralCheckNViewsTriangulateMetricH;
+import boofcv.factory.geo.ConfigTriangulation;
+import boofcv.factory.geo.FactoryMultiView;
+import boofcv.struct.packed.PackedArrayPoint2D_F64;
+import boofcv.struct.packed.PackedArrayPoint4D_F64;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Point4D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_I32;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+class TestWrapBatchTriangulateMetricH extends GeneralCheckNViewsTriangulateMetricH {
+	WrapBatchTriangulateMetricH alg = createAlg();
+
+	protected WrapBatchTriangulateMetricH createAlg() {
+		return new WrapBatchTriangulateMetricH(() -> FactoryMultiView.triangulateNViewMetricH(null));
+	}
+
+	/**
+	 * Packs a single point and triangulates it
+	 */
+	@Override
+	public boolean triangulate( List<Point2D_F64> obsPts, List<Se3_F64> motion,
+								List<DMatrixRMaj> essential, Point4D_F64 found ) {
+		var observations = new PackedArrayPoint2D_F64();
+		var views = new DogArray_I32();
+		var offsets = new DogArray_I32();
+		offsets.add(0);
+		for (int i = 0; i < obsPts.size(); i++) {
+			observations.append(obsPts.get(i));
+			views.add(i);
+		}
+		offsets.add(obsPts.size());
+
+		var locations = new PackedArrayPoint4D_F64();
+		var success = new DogArray_B();
+		int count = alg.triangulate(observations, views, offsets, motion, locations, success);
+		assertEquals(1, locations.size());
+		assertEquals(1, success.size);
+		locations.getCopy(0, found);
+		return count == 1;
+	}
+
+	/**
+	 * Many points with each point being observed by a different set of views
+	 */
+	@Test void multiplePoints() {
+		var scene = new BatchScene(rand, 200);
+
+		var locations = new PackedArrayPoint4D_F64();
+		var success = new DogArray_B();
+		assertEquals(scene.points.size(),
+				alg.triangulate(scene.observations, scene.views, scene.offsets, scene.worldToViews, locations, success));
+
+		for (int i = 0; i < scene.points.size(); i++) {
+			assertTrue(success.get(i));
+			Point4D_F64 X = locations.getTemp(i);
+			Point3D_F64 expected = scene.points.get(i);
+			assertEquals(0.0, expected.distance(X.x/X.w, X.y/X.w, X.z/X.w), UtilEjml.TEST_F64_SQ);
+		}
+	}
+
+	/**
+	 * Checks the output when refinement is turned on
+	 */
+	@Test void refine() {
+		var refining = new WrapBatchTriangulateMetricH(() ->
+				FactoryMultiView.triangulateNViewMetricH(ConfigTriangulation.GEOMETRIC()));
+		var scene = new BatchScene(rand, 50);
+
+		var locations = new PackedArrayPoint4D_F64();
+		var success = new DogArray_B();
+		assertEquals(scene.points.size(),
+				refining.triangulate(scene.observations, scene.views, scene.offsets, scene.worldToViews, locations, success));
+
+		for (int i = 0; i < scene.points.size(); i++) {
+			Point4D_F64 X = locations.getTemp(i);
+			assertEquals(0.0, scene.points.get(i).distance(X.x/X.w, X.y/X.w, X.z/X.w), UtilEjml.TEST_F64_SQ);
+		}
+	}
+
+	/**
+	 * Randomly generated scene where each point is observed by a random subset of the views
+	 */
+	static class BatchScene {
+		List<Se3_F64> worldToViews = new ArrayList<>();
+		List<Point3D_F64> points = new ArrayList<>();
+		PackedArrayPoint2D_F64 observations = new PackedArrayPoint2D_F64();
+		DogArray_I32 views = new DogArray_I32();
+		DogArray_I32 offsets = new DogArray_I32();
+
+		BatchScene( Random rand, int numPoints ) {
+			int numViews = 5;
+			for (int i = 0; i < numViews; i++) {
+				var world_to_view = new Se3_F64();
+				world_to_view.getR().setTo(ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ,
+						rand.nextGaussian()*0.01, rand.nextGaussian()*0.05, rand.nextGaussian()*0.1, null));
+				world_to_view.getT().setTo(0.3*i, rand.nextGaussian()*0.1, rand.nextGaussian()*0.01);
+				worldToViews.add(world_to_view);
+			}
+
+			var viewPt = new Point3D_F64();
+			var norm = new Point2D_F64();
+			for (int pointIdx = 0; pointIdx < numPoints; pointIdx++) {
+				var X = new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), 4 + rand.nextDouble());
+				points.add(X);
+
+				// Observed by at least two views
+				offsets.add(views.size);
+				int firstView = rand.nextInt(numViews - 1);
+				int count = 2 + rand.nextInt(numViews - 1 - firstView);
+				for (int viewIdx = firstView; viewIdx < firstView + count; viewIdx++) {
+					SePointOps_F64.transform(worldToViews.get(viewIdx), X, viewPt);
+					norm.setTo(viewPt.x/viewPt.z, viewPt.y/viewPt.z);
+					observations.append(norm);
+					views.add(viewIdx);
+				}
+			}
+			offsets.add(views.size);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.triangulate;
+
+import boofcv.factory.geo.FactoryMultiView;
+import boofcv.struct.packed.PackedArrayPoint4D_F64;
+import boofcv.testing.BoofStandardJUnit;
+import org.ddogleg.struct.DogArray_B;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+class TestWrapBatchTriangulateMetricH_MT extends BoofStandardJUnit {
+	/**
+	 * Compare to single threaded version. Results should be identical
+	 */
+	@Test void compareToSingleThread() {
+		var scene = new TestWrapBatchTriangulateMetricH.BatchScene(rand, 2000);
+
+		var single = new WrapBatchTriangulateMetricH(() -> FactoryMultiView.triangulateNViewMetricH(null));
+		var concurrent = new WrapBatchTriangulateMetricH_MT(() -> FactoryMultiView.triangulateNViewMetricH(null));
+
+		var expectedLocations = new PackedArrayPoint4D_F64();
+		var expectedSuccess = new DogArray_B();
+		var foundLocations = new PackedArrayPoint4D_F64();
+		var foundSuccess = new DogArray_B();
+
+		int expected = single.triangulate(scene.observations, scene.views, scene.offsets, scene.worldToViews,
+				expectedLocations, expectedSuccess);
+		int found = concurrent.triangulate(scene.observations, scene.views, scene.offsets, scene.worldToViews,
+				foundLocations, foundSuccess);
+
+		assertEquals(expected, found);
+		assertEquals(expectedLocations.size(), foundLocations.size());
+		for (int i = 0; i < expectedLocations.array.size; i++) {
+			assertEquals(expectedLocations.array.get(i), foundLocations.array.get(i), 0.0);
+		}
+		for (int i = 0; i < expectedSuccess.size; i++) {
+			assertEquals(expectedSuccess.get(i), foundSuccess.get(i));
+		}
+	}
+}
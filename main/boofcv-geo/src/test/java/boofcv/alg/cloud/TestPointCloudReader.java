@@ -160,4 +160,16 @@ class TestPointCloudReader extends BoofStandardJUnit {
 			return PointCloudReader.wrapF64RGB(points);
 		}
 	}
+
+	@Nested
+	public class CheckPackedPointCloud_F32 extends ReaderTests {
+		@Override
+		public PointCloudReader createReader( List<Point3dRgbI_F64> points ) {
+			var cloud = new PackedPointCloud_F32();
+			for (Point3dRgbI_F64 p : points) {
+				cloud.add(p.x, p.y, p.z, p.rgb);
+			}
+			return cloud;
+		}
+	}
 }
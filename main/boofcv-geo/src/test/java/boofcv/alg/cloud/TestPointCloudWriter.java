@@ -219,4 +219,28 @@ class TestPointCloudWriter extends BoofStandardJUnit {
 		}
 	}
 
+	@Nested
+	public class CheckPackedPointCloud_F32 extends PcwTests {
+		@Override
+		public PointCloudWriter create() {
+			return new PackedPointCloud_F32();
+		}
+
+		@Override
+		public int size( PointCloudWriter data ) {
+			return ((PackedPointCloud_F32)data).size();
+		}
+
+		@Override
+		public Point3D_F64 getPoint( PointCloudWriter data, int i ) {
+			var found = new Point3D_F64();
+			((PackedPointCloud_F32)data).get(i, found);
+			return found;
+		}
+
+		@Override
+		public int getColor( PointCloudWriter data, int i ) {
+			return ((PackedPointCloud_F32)data).getRGB(i);
+		}
+	}
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.alg.distort.brown.LensDistortionBrown;
+import boofcv.struct.calib.CameraPinholeBrown;
+import boofcv.struct.distort.Point2Transform2_F64;
+import georegression.struct.point.Point2D_F64;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLensDistortionGridNarrowFOV extends GeneralLensDistortionNarrowFOVChecks {
+	double maxError = 1e-4;
+
+	CameraPinholeBrown param = new CameraPinholeBrown(500, 550, 0.001, 400, 450, 1000, 800).
+			fsetRadial(0.02, 0.005).fsetTangental(0.001, -0.002);
+
+	public TestLensDistortionGridNarrowFOV() {
+		tol_F64 = 1e-4;
+	}
+
+	@Override public LensDistortionNarrowFOV create() {
+		return new LensDistortionGridNarrowFOV(new LensDistortionBrown(param), param.width, param.height, maxError);
+	}
+
+	/**
+	 * The estimated pinhole parameters should match the actual parameters
+	 */
+	@Test void estimatePinhole() {
+		var alg = (LensDistortionGridNarrowFOV)create();
+		assertEquals(param.fx, alg.fx, 1e-6);
+		assertEquals(param.fy, alg.fy, 1e-6);
+		assertEquals(param.skew, alg.skew, 1e-6);
+		assertEquals(param.cx, alg.cx, 1e-6);
+		assertEquals(param.cy, alg.cy, 1e-6);
+	}
+
+	/**
+	 * Compare to the exact model at random locations inside the image. Should be within the requested error.
+	 */
+	@Test void compareToExact() {
+		var alg = (LensDistortionGridNarrowFOV)create();
+		assertTrue(alg.getErrorUndistort() <= maxError);
+		assertTrue(alg.getErrorDistort() <= maxError);
+
+		Point2Transform2_F64 expectedU = alg.getExact().undistort_F64(true, true);
+		Point2Transform2_F64 foundU = alg.undistort_F64(true, true);
+		Point2Transform2_F64 expectedD = alg.getExact().distort_F64(true, true);
+		Point2Transform2_F64 foundD = alg.distort_F64(true, true);
+
+		var expected = new Point2D_F64();
+		var found = new Point2D_F64();
+		for (int trial = 0; trial < 1000; trial++) {
+			double x = rand.nextDouble()*param.width;
+			double y = rand.nextDouble()*param.height;
+
+			expectedU.compute(x, y, expected);
+			foundU.compute(x, y, found);
+			assertEquals(0.0, expected.distance(found), maxError);
+
+			// distort the undistorted point so that it's inside the region covered by the grid
+			expectedD.compute(expected.x, expected.y, found);
+			foundD.compute(expected.x, expected.y, expected);
+			assertEquals(0.0, expected.distance(found), maxError);
+		}
+	}
+
+	/**
+	 * Points outside the grid should be identical to the exact model
+	 */
+	@Test void outsideUsesExact() {
+		var alg = (LensDistortionGridNarrowFOV)create();
+
+		Point2Transform2_F64 exact = alg.getExact().undistort_F64(true, false);
+		Point2Transform2_F64 grid = alg.undistort_F64(true, false);
+
+		var expected = new Point2D_F64();
+		var found = new Point2D_F64();
+		exact.compute(-200, param.height + 150, expected);
+		grid.compute(-200, param.height + 150, found);
+		assertEquals(0.0, expected.distance(found), 0.0);
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.alg.distort.universal.LensDistortionUniversalOmni;
+import boofcv.struct.calib.CameraUniversalOmni;
+import boofcv.struct.distort.Point2Transform3_F64;
+import boofcv.struct.distort.Point3Transform2_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import org.junit.jupiter.api.Test;
+
+import static boofcv.alg.distort.universal.TestUniOmniPtoS_F64.createModel;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLensDistortionGridWideFOV extends GeneralLensDistortionWideFOVChecks {
+	double maxError = 1e-3;
+
+	CameraUniversalOmni model = createModel(0.5);
+
+	@Override public LensDistortionWideFOV create() {
+		return new LensDistortionGridWideFOV(new LensDistortionUniversalOmni(model), model.width, model.height, maxError);
+	}
+
+	/**
+	 * Compare to the exact model at random locations inside the image
+	 */
+	@Test void compareToExact() {
+		var alg = (LensDistortionGridWideFOV)create();
+		assertTrue(alg.getErrorUndistort() <= maxError);
+		assertTrue(alg.getErrorDistort() <= maxError);
+
+		Point2Transform3_F64 undistort = alg.undistortPtoS_F64();
+		Point3Transform2_F64 expectedD = alg.getExact().distortStoP_F64();
+		Point3Transform2_F64 foundD = alg.distortStoP_F64();
+
+		var sphere = new Point3D_F64();
+		var expected = new Point2D_F64();
+		var found = new Point2D_F64();
+		for (int trial = 0; trial < 1000; trial++) {
+			double x = rand.nextDouble()*model.width;
+			double y = rand.nextDouble()*model.height;
+
+			// Reprojection error of the interpolated sphere point
+			undistort.compute(x, y, sphere);
+			expectedD.compute(sphere.x, sphere.y, sphere.z, expected);
+			assertEquals(0.0, expected.distance(x, y), maxError);
+
+			foundD.compute(sphere.x, sphere.y, sphere.z, found);
+			assertEquals(0.0, expected.distance(found), maxError);
+		}
+	}
+}
@@ -33,6 +33,7 @@ import java.util.Random;
 
 import static boofcv.alg.geo.bundle.TestBundleAdjustmentMetricResidualFunction.createObservations;
 import static boofcv.alg.geo.bundle.TestCodecSceneStructureMetric.createScene;
+import static boofcv.alg.geo.bundle.TestCodecSceneStructureMetric.createSceneRig;
 import static boofcv.alg.geo.bundle.TestCodecSceneStructureMetric.createSceneStereo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -159,6 +160,35 @@ public abstract class CommonBundleAdjustmentMetricSchurJacobian<M extends DMatri
 		assertTrue(DerivativeChecker.jacobian(func, jac, param, 100*UtilEjml.TEST_F64_SQ));
 	}
 
+	/**
+	 * Multi-camera rig where each camera has an offset from the rig's body that's shared across time steps
+	 */
+	@Test
+	public void multiCameraRig() {
+		multiCameraRig(true, false);
+		multiCameraRig(false, false);
+		multiCameraRig(true, true);
+		multiCameraRig(false, true);
+	}
+
+	public void multiCameraRig( boolean homogenous, boolean knownOffsets ) {
+		SceneStructureMetric structure = createSceneRig(rand, homogenous, 3, 2, knownOffsets);
+		SceneObservations observations = createObservations(rand, structure);
+
+		var param = new double[structure.getParameterCount()];
+		new CodecSceneStructureMetric().encode(structure, param);
+
+		var alg = createAlg();
+
+		var jac = createJacobian(alg);
+		var func = new BundleAdjustmentMetricResidualFunction();
+
+		alg.configure(structure, observations);
+		func.configure(structure, observations);
+
+		assertTrue(DerivativeChecker.jacobian(func, jac, param, 100*UtilEjml.TEST_F64_SQ));
+	}
+
 	/**
 	 * Multiple views that are relative to each other have the same motion
 	 */
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.abst.geo.bundle.SceneObservations;
+import boofcv.abst.geo.bundle.SceneStructureProjective;
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Test;
+
+import static boofcv.alg.geo.bundle.TestBundleAdjustmentProjectiveResidualFunction.createObservations;
+import static boofcv.alg.geo.bundle.TestCodecSceneStructureProjective.createScene3D;
+import static boofcv.alg.geo.bundle.TestCodecSceneStructureProjective.createSceneH;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * @author Peter Abeles
+ */
+class TestBundleAdjustmentProjectiveResidualFunction_MT extends BoofStandardJUnit {
+	/**
+	 * Output should be identical to the single threaded version
+	 */
+	@Test void compareToSingleThread() {
+		compareToSingleThread(createScene3D(rand));
+		compareToSingleThread(createSceneH(rand));
+	}
+
+	void compareToSingleThread( SceneStructureProjective structure ) {
+		SceneObservations obs = createObservations(rand, structure);
+
+		double[] param = new double[structure.getParameterCount()];
+		new CodecSceneStructureProjective().encode(structure, param);
+
+		var single = new BundleAdjustmentProjectiveResidualFunction();
+		var multi = new BundleAdjustmentProjectiveResidualFunction_MT();
+		single.configure(structure, obs);
+		multi.configure(structure, obs);
+
+		double[] expected = new double[single.getNumOfOutputsM()];
+		double[] found = new double[multi.getNumOfOutputsM()];
+
+		single.process(param, expected);
+		multi.process(param, found);
+
+		assertArrayEquals(expected, found, 0.0);
+	}
+}
@@ -102,6 +102,27 @@ class TestCodecSceneStructureMetric extends BoofStandardJUnit {
 		}
 	}
 
+	/**
+	 * A rig only has one motion per time step and one per camera
+	 */
+	@Test
+	void encode_decode_rig() {
+		SceneStructureMetric original = createSceneRig(rand, false, 3, 4, false);
+		assertEquals((4 + 3)*6 + original.points.size*3 + original.getUnknownCameraParameterCount(),
+				original.getParameterCount());
+
+		var codec = new CodecSceneStructureMetric();
+		double[] param = new double[original.getParameterCount()];
+		codec.encode(original, param);
+
+		SceneStructureMetric found = createSceneRig(rand, false, 3, 4, false);
+		codec.decode(param, found);
+
+		for (int i = 0; i < original.motions.size; i++) {
+			assertTrue(original.motions.get(i).isIdentical(found.motions.get(i), UtilEjml.TEST_F64));
+		}
+	}
+
 	static SceneStructureMetric createScene( Random rand, boolean homogenous, boolean hasRigid, boolean hasRelative ) {
 		SceneStructureMetric out = new SceneStructureMetric(homogenous);
 
@@ -191,6 +212,70 @@ class TestCodecSceneStructureMetric extends BoofStandardJUnit {
 		return out;
 	}
 
+	/**
+	 * Create a scene with a multi-camera rig that moves. Each camera on the rig has its own camera model
+	 * and a motion relative to the rig's body which is shared across all time steps.
+	 */
+	static SceneStructureMetric createSceneRig( Random rand, boolean homogenous,
+												int numCameras, int numSteps, boolean knownOffsets ) {
+		SceneStructureMetric out = new SceneStructureMetric(homogenous);
+
+		out.initialize(numCameras, numSteps*(numCameras + 1), 10);
+
+		int[] rigToCamera = new int[numCameras];
+		for (int cameraIdx = 0; cameraIdx < numCameras; cameraIdx++) {
+			out.setCamera(cameraIdx, cameraIdx%2 == 0, new CameraPinhole(200 + cameraIdx, 210,
+					0.01, 300 + cameraIdx, 250, 1, 1));
+			rigToCamera[cameraIdx] = out.addRigCamera(knownOffsets, SpecialEuclideanOps_F64.eulerXyz(
+					0.2*cameraIdx, 0.1, -0.15, 0.1, 0.1*cameraIdx - 0.2, -0.12, null));
+		}
+
+		// Numerical differentiation scales the step by each parameter's magnitude. Values which are close to zero,
+		// but not zero, will have steps so small that the numerical Jacobian is dominated by round off error
+		if (homogenous) {
+			for (int i = 0; i < out.points.size; i++) {
+				double w = rand.nextDouble()*0.5 + 0.5;
+				out.setPoint(i, w*awayFromZero(rand, 0.2, 0.5), w*awayFromZero(rand, 0.2, 0.5),
+						w*(3 + rand.nextGaussian()*0.2), w);
+			}
+		} else {
+			for (int i = 0; i < out.points.size; i++) {
+				out.setPoint(i, awayFromZero(rand, 0.2, 0.5), awayFromZero(rand, 0.2, 0.5), 3 + rand.nextGaussian()*0.2);
+			}
+		}
+
+		for (int step = 0; step < numSteps; step++) {
+			int bodyIdx = step*(numCameras + 1);
+			Se3_F64 world_to_rig = SpecialEuclideanOps_F64.eulerXyz(0.1, -0.15, -0.2 + step*0.3,
+					awayFromZero(rand, 0.1, 0.1), awayFromZero(rand, 0.1, 0.1), awayFromZero(rand, 0.1, 0.1), null);
+			out.setRigBody(bodyIdx, false, world_to_rig);
+
+			for (int cameraIdx = 0; cameraIdx < numCameras; cameraIdx++) {
+				out.setRigView(bodyIdx + 1 + cameraIdx, cameraIdx, rigToCamera[cameraIdx], bodyIdx);
+			}
+		}
+
+		// Points are only observed by views with a camera. First point is seen by all of them
+		for (int i = 0; i < out.views.size; i++) {
+			if (out.views.data[i].camera < 0)
+				continue;
+			out.points.data[0].views.add(i);
+			out.points.data[1 + i%(out.points.size - 1)].views.add(i);
+		}
+
+		// Sanity check
+		assertEquals(numSteps + numCameras, out.motions.size);
+		return out;
+	}
+
+	/**
+	 * Random value with a magnitude of at least 'min' and a random sign
+	 */
+	static double awayFromZero( Random rand, double min, double range ) {
+		double value = min + rand.nextDouble()*range;
+		return rand.nextBoolean() ? value : -value;
+	}
+
 	/**
 	 * Create a scene where a "stereo" camera is created that moves. The right to left transform is fixed and common
 	 * across all views
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.abst.geo.bundle.SceneObservations;
+import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.factory.geo.ConfigSchurPcg;
+import boofcv.testing.BoofStandardJUnit;
+import org.ddogleg.optimization.math.HessianSchurComplement;
+import org.ddogleg.optimization.math.HessianSchurComplement_DSCC;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.jupiter.api.Test;
+
+import static boofcv.alg.geo.bundle.TestBundleAdjustmentMetricResidualFunction.createObservations;
+import static boofcv.alg.geo.bundle.TestCodecSceneStructureMetric.createScene;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestHessianSchurComplementPcg_DSCC extends BoofStandardJUnit {
+	// gradient used in the most recent call to solve()
+	DMatrixRMaj gradient;
+
+	/**
+	 * With a tight tolerance the solution should be the same as the direct solver
+	 */
+	@Test void compareToDirect() {
+		for (var preconditioner : ConfigSchurPcg.Preconditioner.values()) {
+			compareToDirect(preconditioner, false, false);
+			compareToDirect(preconditioner, false, true);
+			compareToDirect(preconditioner, true, true);
+		}
+	}
+
+	void compareToDirect( ConfigSchurPcg.Preconditioner preconditioner, boolean hasRigid, boolean hasRelative ) {
+		var config = new ConfigSchurPcg();
+		config.preconditioner = preconditioner;
+		config.relativeTolerance = 1e-12;
+
+		var alg = new HessianSchurComplementPcg_DSCC(config);
+		DMatrixRMaj found = solve(alg, hasRigid, hasRelative);
+		DMatrixRMaj expected = solve(new HessianSchurComplement_DSCC(), hasRigid, hasRelative);
+
+		assertFalse(alg.isFallback());
+		assertTrue(alg.getIterations() > 0);
+		assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, 1e-6));
+	}
+
+	/**
+	 * If A isn't block diagonal it should fall back to the direct solver and still produce the same solution
+	 */
+	@Test void fallbackWhenBlocksTooLarge() {
+		var config = new ConfigSchurPcg();
+		config.maxBlockSize = 2;
+
+		var alg = new HessianSchurComplementPcg_DSCC(config);
+		DMatrixRMaj found = solve(alg, false, false);
+		DMatrixRMaj expected = solve(new HessianSchurComplement_DSCC(), false, false);
+
+		assertTrue(alg.isFallback());
+		assertTrue(MatrixFeatures_DDRM.isIdentical(expected, found, 1e-8));
+	}
+
+	/**
+	 * A loose tolerance should stop early, giving an inexact step
+	 */
+	@Test void looseToleranceFewerIterations() {
+		var configTight = new ConfigSchurPcg();
+		configTight.relativeTolerance = 1e-12;
+		var configLoose = new ConfigSchurPcg();
+		configLoose.relativeTolerance = 0.5;
+
+		var tight = new HessianSchurComplementPcg_DSCC(configTight);
+		var loose = new HessianSchurComplementPcg_DSCC(configLoose);
+		solve(tight, false, false);
+		solve(loose, false, false);
+
+		assertTrue(loose.getIterations() < tight.getIterations());
+	}
+
+	/**
+	 * Solving multiple times after a single call to initializeSolver() should do the same amount of work each time
+	 */
+	@Test void iterationsResetEachSolve() {
+		var config = new ConfigSchurPcg();
+		config.maxIterations = 3;
+		config.relativeTolerance = 1e-12;
+
+		var alg = new HessianSchurComplementPcg_DSCC(config);
+		DMatrixRMaj first = solve(alg, false, false);
+		assertEquals(3, alg.getIterations());
+
+		var second = new DMatrixRMaj(first.numRows, 1);
+		assertTrue(alg.solve(gradient, second));
+		assertEquals(3, alg.getIterations());
+		assertTrue(MatrixFeatures_DDRM.isIdentical(first, second, 1e-12));
+	}
+
+	/**
+	 * Computes the Jacobian for a random scene and solves for the step. The same random seed is used each time so
+	 * the solution from different solvers can be compared.
+	 */
+	DMatrixRMaj solve( HessianSchurComplement<DMatrixSparseCSC> hessian, boolean hasRigid, boolean hasRelative ) {
+		rand.setSeed(2345);
+		SceneStructureMetric structure = createScene(rand, false, hasRigid, hasRelative);
+		SceneObservations observations = createObservations(rand, structure);
+
+		var param = new double[structure.getParameterCount()];
+		new CodecSceneStructureMetric().encode(structure, param);
+
+		var jacobian = new BundleAdjustmentMetricSchurJacobian_DSCC();
+		jacobian.configure(structure, observations);
+		var left = new DMatrixSparseCSC(1, 1);
+		var right = new DMatrixSparseCSC(1, 1);
+		jacobian.process(param, left, right);
+
+		int N = left.numCols + right.numCols;
+		hessian.init(N);
+		hessian.computeHessian(left, right);
+
+		// dampen the system, like Levenberg-Marquardt would, so that it's positive definite
+		var diag = new DMatrixRMaj(N, 1);
+		hessian.extractDiagonals(diag);
+		for (int i = 0; i < N; i++) {
+			diag.data[i] += 1.0;
+		}
+		hessian.setDiagonals(diag);
+
+		gradient = RandomMatrices_DDRM.rectangle(N, 1, -1, 1, rand);
+		var step = new DMatrixRMaj(N, 1);
+		assertTrue(hessian.initializeSolver());
+		assertTrue(hessian.solve(gradient, step));
+		return step;
+	}
+}
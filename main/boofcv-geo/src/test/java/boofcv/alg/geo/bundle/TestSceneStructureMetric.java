@@ -20,6 +20,7 @@ package boofcv.alg.geo.bundle;
 
 import boofcv.abst.geo.bundle.SceneStructureMetric;
 import boofcv.alg.geo.PerspectiveOps;
+import boofcv.errors.BoofCheckFailure;
 import boofcv.struct.calib.CameraPinhole;
 import boofcv.testing.BoofStandardJUnit;
 import georegression.struct.point.Point2D_F64;
@@ -88,6 +89,37 @@ public class TestSceneStructureMetric extends BoofStandardJUnit {
 		}
 	}
 
+	/**
+	 * Constructs a rig with two cameras over two time steps and sees if the world to view transforms are correct
+	 */
+	@Test void rig() {
+		var scene = new SceneStructureMetric(false);
+		scene.initialize(2, 6, 4);
+
+		int rigToCam0 = scene.addRigCamera(true, SpecialEuclideanOps_F64.eulerXyz(0, 1, 0, 0, 0, 0, null));
+		int rigToCam1 = scene.addRigCamera(false, SpecialEuclideanOps_F64.eulerXyz(0, 2, 0, 0, 0, 0, null));
+
+		for (int step = 0; step < 2; step++) {
+			scene.setRigBody(step*3, false, SpecialEuclideanOps_F64.eulerXyz(step + 1, 0, 0, 0, 0, 0, null));
+			scene.setRigView(step*3 + 1, 0, rigToCam0, step*3);
+			scene.setRigView(step*3 + 2, 1, rigToCam1, step*3);
+		}
+
+		// Two camera offsets and one motion for each time step
+		assertEquals(4, scene.motions.size);
+		assertEquals(3, scene.getUnknownMotionCount());
+
+		for (int step = 0; step < 2; step++) {
+			assertEquals(-1, scene.views.get(step*3).camera);
+			Se3_F64 world_to_cam1 = scene.getWorldToView(scene.views.get(step*3 + 2), null, null);
+			assertEquals(step + 1, world_to_cam1.T.x, UtilEjml.TEST_F64);
+			assertEquals(2, world_to_cam1.T.y, UtilEjml.TEST_F64);
+		}
+
+		// Rig views must be attached to the rig's body
+		assertThrows(BoofCheckFailure.class, () -> scene.setRigView(4, 0, rigToCam0, 1));
+	}
+
 	@Test void projectToPixel_3D() {
 		var scene = new SceneStructureMetric(false);
 		var intrinsic = new CameraPinhole(100, 100, 0, 0, 0, 300, 300);
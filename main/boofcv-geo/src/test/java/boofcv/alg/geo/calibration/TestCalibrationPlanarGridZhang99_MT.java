@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.calibration;
+
+import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.abst.geo.calibration.ImageResults;
+import boofcv.alg.geo.bundle.CodecSceneStructureMetric;
+import boofcv.alg.geo.calibration.GenericCalibrationZhang99.CalibInputs;
+import boofcv.alg.geo.calibration.cameras.Zhang99CameraBrown;
+import boofcv.struct.calib.CameraPinholeBrown;
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+class TestCalibrationPlanarGridZhang99_MT extends BoofStandardJUnit {
+
+	CameraPinholeBrown intrinsic = new CameraPinholeBrown(400, 410, 0, 320, 240, 640, 480).
+			fsetRadial(0.01, -0.02).fsetTangental(0.001, 0.002);
+
+	/**
+	 * The linear estimate should be identical to the single threaded version
+	 */
+	@Test void linearEstimate_compareToSingleThread() {
+		CalibInputs inputs = GenericCalibrationZhang99.createInputs(intrinsic, 12, rand);
+
+		var single = new CalibrationPlanarGridZhang99(inputs.layout, new Zhang99CameraBrown(true, true, 2));
+		var multi = new CalibrationPlanarGridZhang99_MT(inputs.layout, new Zhang99CameraBrown(true, true, 2));
+
+		assertTrue(single.linearEstimate(inputs.observations));
+		assertTrue(multi.linearEstimate(inputs.observations));
+
+		assertArrayEquals(encode(single.getStructure()), encode(multi.getStructure()), 0.0);
+	}
+
+	/**
+	 * After non-linear refinement the results should also be identical
+	 */
+	@Test void process_compareToSingleThread() {
+		CalibInputs inputs = GenericCalibrationZhang99.createInputs(intrinsic, 12, rand);
+
+		var single = new CalibrationPlanarGridZhang99(inputs.layout, new Zhang99CameraBrown(true, true, 2));
+		var multi = new CalibrationPlanarGridZhang99_MT(inputs.layout, new Zhang99CameraBrown(true, true, 2));
+
+		assertTrue(single.process(inputs.observations));
+		assertTrue(multi.process(inputs.observations));
+
+		assertArrayEquals(encode(single.getStructure()), encode(multi.getStructure()), 0.0);
+
+		List<ImageResults> expected = single.computeErrors();
+		List<ImageResults> found = multi.computeErrors();
+		assertEquals(expected.size(), found.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertArrayEquals(expected.get(i).pointError, found.get(i).pointError, 0.0);
+		}
+	}
+
+	/**
+	 * Bundle adjustment should be configured to run concurrently
+	 */
+	@Test void createConfigBundleAdjustment() {
+		var alg = new CalibrationPlanarGridZhang99_MT(List.of(), new Zhang99CameraBrown(true, true, 2));
+		assertTrue(alg.createConfigBundleAdjustment().concurrent);
+	}
+
+	private static double[] encode( SceneStructureMetric structure ) {
+		double[] parameters = new double[structure.getParameterCount()];
+		new CodecSceneStructureMetric().encode(structure, parameters);
+		return parameters;
+	}
+}
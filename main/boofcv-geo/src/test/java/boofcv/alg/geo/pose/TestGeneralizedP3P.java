@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.pose;
+
+import boofcv.alg.geo.PerspectiveOps;
+import boofcv.struct.geo.Point2D3D;
+import boofcv.testing.BoofStandardJUnit;
+import georegression.fitting.se.FitSpecialEuclideanOps_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.solver.PolynomialOps;
+import org.ddogleg.solver.RootFinderType;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+class TestGeneralizedP3P extends BoofStandardJUnit {
+
+	GeneralizedP3P alg = new GeneralizedP3P(
+			PolynomialOps.createRootFinder(9, RootFinderType.STURM), FitSpecialEuclideanOps_F64.fitPoints3D());
+
+	/**
+	 * Each point is observed by a different camera
+	 */
+	@Test void perfect_differentCameras() {
+		List<Se3_F64> rig_to_cameras = new ArrayList<>();
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(0.5, 0, -0.1, 0, 0.2, 0, null));
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(-0.5, 0.1, 0, 0, -0.2, 0.1, null));
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(0.1, -0.3, 0.2, 0.1, 0.0, -0.1, null));
+		alg.setRig(rig_to_cameras);
+
+		for (int trial = 0; trial < 20; trial++) {
+			checkPerfect(rig_to_cameras, 0, 1, 2);
+		}
+	}
+
+	/**
+	 * Two of the points are observed by the same camera
+	 */
+	@Test void perfect_sharedCamera() {
+		List<Se3_F64> rig_to_cameras = new ArrayList<>();
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(0.5, 0, -0.1, 0, 0.2, 0, null));
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(-0.5, 0.1, 0, 0, -0.2, 0.1, null));
+		alg.setRig(rig_to_cameras);
+
+		for (int trial = 0; trial < 20; trial++) {
+			checkPerfect(rig_to_cameras, 0, 1, 1);
+		}
+	}
+
+	/**
+	 * A single camera, which reduces to the regular P3P problem
+	 */
+	@Test void perfect_central() {
+		List<Se3_F64> rig_to_cameras = new ArrayList<>();
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(0.5, 0, -0.1, 0, 0.2, 0, null));
+		alg.setRig(rig_to_cameras);
+
+		for (int trial = 0; trial < 20; trial++) {
+			checkPerfect(rig_to_cameras, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * The rig's extrinsics should be copied
+	 */
+	@Test void setRig_copy() {
+		List<Se3_F64> rig_to_cameras = new ArrayList<>();
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(0.5, 0, -0.1, 0, 0.2, 0, null));
+		alg.setRig(rig_to_cameras);
+		rig_to_cameras.get(0).T.x = 10;
+		assertTrue(alg.rig_to_cameras.get(0).T.x != 10);
+	}
+
+	void checkPerfect( List<Se3_F64> rig_to_cameras, int... cameras ) {
+		Se3_F64 world_to_rig = SpecialEuclideanOps_F64.eulerXyz(
+				rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+				rand.nextGaussian()*0.3, rand.nextGaussian()*0.3, rand.nextGaussian()*0.3, null);
+
+		Point2D3D[] points = new Point2D3D[3];
+		for (int i = 0; i < 3; i++) {
+			points[i] = createObservation(world_to_rig, rig_to_cameras.get(cameras[i]));
+		}
+
+		assertTrue(alg.process(points[0], cameras[0], points[1], cameras[1], points[2], cameras[2]));
+
+		// One of the solutions should match the truth
+		boolean matched = false;
+		for (Se3_F64 found : alg.getSolutions().toList()) {
+			if (MatrixFeatures_DDRM.isIdentical(world_to_rig.R, found.R, 1e-6) &&
+					world_to_rig.T.distance(found.T) <= 1e-6) {
+				matched = true;
+				break;
+			}
+		}
+		assertTrue(matched);
+	}
+
+	/**
+	 * Creates a point in front of the camera and its observation
+	 */
+	Point2D3D createObservation( Se3_F64 world_to_rig, Se3_F64 rig_to_camera ) {
+		Se3_F64 world_to_camera = world_to_rig.concat(rig_to_camera, null);
+		var cameraPt = new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), 3 + rand.nextGaussian()*0.2);
+
+		var p = new Point2D3D();
+		SePointOps_F64.transformReverse(world_to_camera, cameraPt, p.location);
+		PerspectiveOps.renderPixel(world_to_camera, p.location, p.observation);
+		return p;
+	}
+}
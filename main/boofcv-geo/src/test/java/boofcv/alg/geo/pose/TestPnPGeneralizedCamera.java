@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.pose;
+
+import boofcv.alg.geo.PerspectiveOps;
+import boofcv.factory.geo.FactoryMultiView;
+import boofcv.struct.geo.Point2D3D;
+import boofcv.testing.BoofStandardJUnit;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.optimization.DerivativeChecker;
+import org.ejml.UtilEjml;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+class TestPnPGeneralizedCamera extends BoofStandardJUnit {
+
+	Se3_F64 world_to_rig = SpecialEuclideanOps_F64.eulerXyz(0.2, -0.1, 0.3, 0.05, -0.1, 0.02, null);
+	List<Se3_F64> rig_to_cameras = new ArrayList<>();
+
+	TestPnPGeneralizedCamera() {
+		// three cameras which are pointed in different directions
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(0, 0, 0, 0, 0, 0, null));
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(0.5, 0, -0.1, 0, 0.2, 0, null));
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(-0.5, 0.1, 0, 0, -0.2, 0, null));
+	}
+
+	/**
+	 * Perfect observations in all cameras
+	 */
+	@Test void perfect() {
+		List<List<Point2D3D>> observations = createObservations(10, 10, 10);
+
+		PnPGeneralizedCamera alg = FactoryMultiView.pnpGeneralized(null);
+		alg.setRig(rig_to_cameras);
+
+		var found = new Se3_F64();
+		assertTrue(alg.process(observations, found));
+		assertTrue(MatrixFeatures_DDRM.isIdentical(world_to_rig.R, found.R, 1e-6));
+		assertEquals(0.0, world_to_rig.T.distance(found.T), 1e-6);
+	}
+
+	/**
+	 * No single camera has enough observations to estimate the pose by itself
+	 */
+	@Test void perfect_fewPerCamera() {
+		List<List<Point2D3D>> observations = createObservations(2, 1, 1);
+
+		PnPGeneralizedCamera alg = FactoryMultiView.pnpGeneralized(null);
+		alg.setRig(rig_to_cameras);
+
+		var found = new Se3_F64();
+		assertTrue(alg.process(observations, found));
+		assertTrue(MatrixFeatures_DDRM.isIdentical(world_to_rig.R, found.R, 1e-6));
+		assertEquals(0.0, world_to_rig.T.distance(found.T), 1e-6);
+	}
+
+	/**
+	 * Noise is added to all the observations. Refinement across all cameras should improve the initial estimate,
+	 * which was found using only three observations.
+	 */
+	@Test void refinementUsesAllCameras() {
+		List<List<Point2D3D>> observations = createObservations(6, 8, 6);
+
+		for (List<Point2D3D> list : observations) {
+			for (Point2D3D p : list) {
+				p.observation.x += rand.nextGaussian()*0.002;
+				p.observation.y += rand.nextGaussian()*0.002;
+			}
+		}
+
+		var found = new Se3_F64();
+
+		// Only use the initial estimate
+		var alg = new PnPGeneralizedCamera(FactoryMultiView.pnpGeneralized_N(), 1e-12, 0);
+		alg.setRig(rig_to_cameras);
+		assertTrue(alg.process(observations, found));
+		double errorInitial = alg.computeErrorSq(found);
+
+		alg = new PnPGeneralizedCamera(FactoryMultiView.pnpGeneralized_N(), 1e-12, 100);
+		alg.setRig(rig_to_cameras);
+		assertTrue(alg.process(observations, found));
+		assertTrue(alg.computeErrorSq(found) < errorInitial);
+		assertEquals(0.0, world_to_rig.T.distance(found.T), 0.05);
+	}
+
+	/**
+	 * Fewer observations than the minimum across all cameras
+	 */
+	@Test void tooFewPoints() {
+		List<List<Point2D3D>> observations = createObservations(1, 1, 1);
+
+		PnPGeneralizedCamera alg = FactoryMultiView.pnpGeneralized(null);
+		alg.setRig(rig_to_cameras);
+		assertFalse(alg.process(observations, new Se3_F64()));
+	}
+
+	/**
+	 * Modifying the list passed in after the rig is set should have no effect
+	 */
+	@Test void setRig_copy() {
+		List<List<Point2D3D>> observations = createObservations(4, 4, 4);
+
+		PnPGeneralizedCamera alg = FactoryMultiView.pnpGeneralized(null);
+		alg.setRig(rig_to_cameras);
+		rig_to_cameras.get(1).T.x += 2.0;
+		rig_to_cameras.get(2).reset();
+
+		var found = new Se3_F64();
+		assertTrue(alg.process(observations, found));
+		assertEquals(0.0, world_to_rig.T.distance(found.T), 1e-6);
+	}
+
+	@Test void jacobian() {
+		List<List<Point2D3D>> observations = createObservations(3, 4, 2);
+
+		PnPGeneralizedCamera alg = FactoryMultiView.pnpGeneralized(null);
+		alg.setRig(rig_to_cameras);
+		for (int cameraIdx = 0; cameraIdx < observations.size(); cameraIdx++) {
+			for (Point2D3D p : observations.get(cameraIdx)) {
+				alg.allObservations.add(p);
+				alg.allCameras.add(cameraIdx);
+			}
+		}
+
+		double[] param = new double[6];
+		alg.codec.encode(SpecialEuclideanOps_F64.eulerXyz(0.1, 0, 0.2, 0.1, 0.2, -0.1, null), param);
+
+		assertTrue(DerivativeChecker.jacobian(alg.residual, alg.jacobian, param, UtilEjml.TEST_F64_SQ));
+	}
+
+	/**
+	 * Renders points which are in front of each camera
+	 */
+	List<List<Point2D3D>> createObservations( int... counts ) {
+		Se3_F64 rig_to_world = world_to_rig.invert(null);
+		Se3_F64 camera_to_world = new Se3_F64();
+		Se3_F64 world_to_camera = new Se3_F64();
+
+		List<List<Point2D3D>> observations = new ArrayList<>();
+		for (int cameraIdx = 0; cameraIdx < counts.length; cameraIdx++) {
+			Se3_F64 rig_to_camera = rig_to_cameras.get(cameraIdx);
+			rig_to_camera.invert(null).concat(rig_to_world, camera_to_world);
+			world_to_rig.concat(rig_to_camera, world_to_camera);
+
+			List<Point2D3D> list = new ArrayList<>();
+			for (int i = 0; i < counts[cameraIdx]; i++) {
+				var cameraPt = new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), 3 + rand.nextGaussian()*0.2);
+
+				var p = new Point2D3D();
+				SePointOps_F64.transform(camera_to_world, cameraPt, p.location);
+				PerspectiveOps.renderPixel(world_to_camera, p.location, p.observation);
+				list.add(p);
+			}
+			observations.add(list);
+		}
+		return observations;
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.pose;
+
+import boofcv.alg.geo.PerspectiveOps;
+import boofcv.struct.geo.Point2D3DCamera;
+import boofcv.testing.BoofStandardJUnit;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+class TestPnPGeneralizedDistanceSq extends BoofStandardJUnit {
+
+	Se3_F64 world_to_rig = SpecialEuclideanOps_F64.eulerXyz(0.2, -0.1, 0.3, 0.05, -0.1, 0.02, null);
+	List<Se3_F64> rig_to_cameras = new ArrayList<>();
+
+	TestPnPGeneralizedDistanceSq() {
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(0, 0, 0, 0, 0, 0, null));
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(0.5, 0, -0.1, 0, 0.2, 0, null));
+	}
+
+	/**
+	 * Provide an observation with a known error in each camera and see if it's computed correctly
+	 */
+	@Test void checkErrorSingle() {
+		var alg = new PnPGeneralizedDistanceSq();
+		alg.setRig(rig_to_cameras);
+		alg.setModel(world_to_rig);
+
+		for (int cameraIdx = 0; cameraIdx < rig_to_cameras.size(); cameraIdx++) {
+			Point2D3DCamera p = createObservation(cameraIdx);
+			assertEquals(0.0, alg.distance(p), 1e-8);
+
+			double deltaX = 0.01;
+			double deltaY = -0.02;
+			p.observation.x += deltaX;
+			p.observation.y += deltaY;
+			assertEquals(deltaX*deltaX + deltaY*deltaY, alg.distance(p), 1e-8);
+		}
+	}
+
+	/**
+	 * A very large error should be returned if the point appears behind the camera
+	 */
+	@Test void checkBehindCamera() {
+		var alg = new PnPGeneralizedDistanceSq();
+		alg.setRig(rig_to_cameras);
+		alg.setModel(world_to_rig);
+
+		Point2D3DCamera p = createObservation(1);
+
+		// Move the point to the other side of the camera
+		var world_to_camera = world_to_rig.concat(rig_to_cameras.get(1), null);
+		var X = new Point3D_F64();
+		world_to_camera.transform(p.location, X);
+		X.scale(-1);
+		world_to_camera.transformReverse(X, p.location);
+
+		assertEquals(Double.MAX_VALUE, alg.distance(p));
+	}
+
+	/**
+	 * Modifying the list passed in after the rig is set should have no effect
+	 */
+	@Test void setRig_copy() {
+		var alg = new PnPGeneralizedDistanceSq();
+		alg.setRig(rig_to_cameras);
+
+		Point2D3DCamera p = createObservation(1);
+		rig_to_cameras.get(1).T.x += 1.0;
+
+		alg.setModel(world_to_rig);
+		assertEquals(0.0, alg.distance(p), 1e-8);
+	}
+
+	/**
+	 * Renders a point in front of the specified camera
+	 */
+	Point2D3DCamera createObservation( int cameraIdx ) {
+		var world_to_camera = world_to_rig.concat(rig_to_cameras.get(cameraIdx), null);
+
+		var cameraPt = new Point3D_F64(rand.nextGaussian()*0.2, rand.nextGaussian()*0.2, 2.0 + rand.nextGaussian()*0.2);
+		var p = new Point2D3DCamera();
+		p.camera = cameraIdx;
+		world_to_camera.transformReverse(cameraPt, p.location);
+		Point2D_F64 norm = PerspectiveOps.renderPixel(world_to_camera, p.location, null);
+		p.observation.setTo(norm);
+		return p;
+	}
+}
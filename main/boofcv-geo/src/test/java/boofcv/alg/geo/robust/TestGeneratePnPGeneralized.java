@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.alg.geo.PerspectiveOps;
+import boofcv.factory.geo.ConfigRansac;
+import boofcv.factory.geo.FactoryMultiView;
+import boofcv.factory.geo.FactoryMultiViewRobust;
+import boofcv.struct.geo.Point2D3DCamera;
+import boofcv.testing.BoofStandardJUnit;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import org.ddogleg.fitting.modelset.ModelMatcher;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+class TestGeneratePnPGeneralized extends BoofStandardJUnit {
+
+	Se3_F64 world_to_rig = SpecialEuclideanOps_F64.eulerXyz(0.2, -0.1, 0.3, 0.05, -0.1, 0.02, null);
+	List<Se3_F64> rig_to_cameras = new ArrayList<>();
+
+	TestGeneratePnPGeneralized() {
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(0, 0, 0, 0, 0, 0, null));
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(0.5, 0, -0.1, 0, 0.2, 0, null));
+		rig_to_cameras.add(SpecialEuclideanOps_F64.eulerXyz(-0.5, 0.1, 0, 0, -0.2, 0, null));
+	}
+
+	/**
+	 * Each point is observed by a different camera and there's no noise
+	 */
+	@Test void perfect() {
+		var alg = new GeneratePnPGeneralized(FactoryMultiView.pnpGeneralized_N(), 2);
+		alg.setRig(rig_to_cameras);
+		assertEquals(5, alg.getMinimumPoints());
+
+		for (int trial = 0; trial < 10; trial++) {
+			List<Point2D3DCamera> points = createObservations(alg.getMinimumPoints());
+
+			var found = new Se3_F64();
+			assertTrue(alg.generate(points, found));
+			assertTrue(MatrixFeatures_DDRM.isIdentical(world_to_rig.R, found.R, 1e-6));
+			assertEquals(0.0, world_to_rig.T.distance(found.T), 1e-6);
+		}
+	}
+
+	/**
+	 * Run it inside of RANSAC with outliers present
+	 */
+	@Test void ransac_outliers() {
+		List<Point2D3DCamera> points = createObservations(100);
+		for (int i = 0; i < 20; i++) {
+			Point2D3DCamera p = points.get(rand.nextInt(points.size()));
+			p.observation.x += 0.5 + rand.nextDouble();
+			p.observation.y -= 0.5 + rand.nextDouble();
+		}
+
+		var config = new ConfigRansac(200, 0.005);
+		ModelMatcher<Se3_F64, Point2D3DCamera> ransac =
+				FactoryMultiViewRobust.pnpGeneralizedRansac(rig_to_cameras, config);
+
+		assertTrue(ransac.process(points));
+		assertTrue(ransac.getMatchSet().size() >= 80);
+		Se3_F64 found = ransac.getModelParameters();
+		assertTrue(MatrixFeatures_DDRM.isIdentical(world_to_rig.R, found.R, 1e-6));
+		assertEquals(0.0, world_to_rig.T.distance(found.T), 1e-6);
+	}
+
+	/**
+	 * Renders points in front of the cameras. Observations cycle through all the cameras.
+	 */
+	List<Point2D3DCamera> createObservations( int count ) {
+		List<Point2D3DCamera> points = new ArrayList<>();
+		var world_to_camera = new Se3_F64();
+		for (int i = 0; i < count; i++) {
+			int cameraIdx = i%rig_to_cameras.size();
+			world_to_rig.concat(rig_to_cameras.get(cameraIdx), world_to_camera);
+
+			var cameraPt = new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), 3 + rand.nextGaussian()*0.2);
+			var p = new Point2D3DCamera();
+			p.camera = cameraIdx;
+			world_to_camera.transformReverse(cameraPt, p.location);
+			PerspectiveOps.renderPixel(world_to_camera, p.location, p.observation);
+			points.add(p);
+		}
+		return points;
+	}
+}
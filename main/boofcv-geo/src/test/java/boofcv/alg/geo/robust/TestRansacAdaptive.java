@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.factory.geo.ConfigRansac;
+import boofcv.struct.geo.AssociatedPair;
+import boofcv.testing.BoofStandardJUnit;
+import georegression.fitting.homography.ModelManagerHomography2D_F64;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.ejml.dense.fixed.MatrixFeatures_DDF3;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRansacAdaptive extends BoofStandardJUnit {
+	static final int NUM_POINTS = 400;
+	static final double OUTLIER_FRACTION = 0.3;
+
+	/**
+	 * Data is generated from a known homography with outliers mixed in. It should find all the inliers and none
+	 * of the outliers.
+	 */
+	@Test void findInliers() {
+		List<AssociatedPair> pairs = new ArrayList<>();
+		boolean[] inlier = createPairs(rand, pairs, false);
+
+		RansacAdaptive<Homography2D_F64, AssociatedPair> alg = createAlg(createConfig());
+		assertTrue(alg.process(pairs));
+
+		checkInliers(alg, inlier);
+	}
+
+	/**
+	 * Adaptive termination should stop well before the maximum number of iterations when the inlier fraction is high
+	 */
+	@Test void adaptiveTermination() {
+		List<AssociatedPair> pairs = new ArrayList<>();
+		createPairs(rand, pairs, false);
+
+		ConfigRansac config = createConfig();
+		RansacAdaptive<Homography2D_F64, AssociatedPair> alg = createAlg(config);
+		assertTrue(alg.process(pairs));
+		assertTrue(alg.getIterations() < config.iterations);
+
+		// Turning it off should force it to run every iteration
+		config.confidence = 0.0;
+		assertTrue(alg.process(pairs));
+		assertEquals(config.iterations, alg.getIterations());
+	}
+
+	/**
+	 * Inliers are sorted first, as if they had the best quality. PROSAC should find the model
+	 */
+	@Test void prosac() {
+		List<AssociatedPair> pairs = new ArrayList<>();
+		boolean[] inlier = createPairs(rand, pairs, true);
+
+		ConfigRansac config = createConfig();
+		config.sortedByQuality = true;
+		RansacAdaptive<Homography2D_F64, AssociatedPair> alg = createAlg(config);
+		assertTrue(alg.process(pairs));
+
+		checkInliers(alg, inlier);
+	}
+
+	/**
+	 * Processing the same input twice should produce identical results
+	 */
+	@Test void deterministic() {
+		List<AssociatedPair> pairs = new ArrayList<>();
+		createPairs(rand, pairs, false);
+
+		RansacAdaptive<Homography2D_F64, AssociatedPair> alg = createAlg(createConfig());
+		assertTrue(alg.process(pairs));
+		int iterations = alg.getIterations();
+		var found = new Homography2D_F64();
+		new ModelManagerHomography2D_F64().copyModel(alg.getModelParameters(), found);
+		List<AssociatedPair> matches = new ArrayList<>(alg.getMatchSet());
+
+		assertTrue(alg.process(pairs));
+		assertEquals(iterations, alg.getIterations());
+		assertEquals(matches, alg.getMatchSet());
+		assertTrue(MatrixFeatures_DDF3.isIdentical(found, alg.getModelParameters(), 0.0));
+	}
+
+	/**
+	 * Not enough points to fit a model
+	 */
+	@Test void tooFewPoints() {
+		List<AssociatedPair> pairs = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			pairs.add(new AssociatedPair(i, 2, 3, 4));
+		}
+
+		RansacAdaptive<Homography2D_F64, AssociatedPair> alg = createAlg(createConfig());
+		assertFalse(alg.process(pairs));
+		assertEquals(0, alg.getMatchSet().size());
+	}
+
+	void checkInliers( RansacAdaptive<Homography2D_F64, AssociatedPair> alg, boolean[] inlier ) {
+		int expected = 0;
+		for (boolean b : inlier) {
+			if (b) expected++;
+		}
+
+		assertEquals(expected, alg.getMatchSet().size());
+		for (int i = 0; i < alg.getMatchSet().size(); i++) {
+			assertTrue(inlier[alg.getInputIndex(i)]);
+		}
+	}
+
+	static ConfigRansac createConfig() {
+		var config = new ConfigRansac(2000, 1.0);
+		config.adaptive = true;
+		config.preemptiveSize = 50;
+		return config;
+	}
+
+	static RansacAdaptive<Homography2D_F64, AssociatedPair> createAlg( ConfigRansac config ) {
+		return new RansacAdaptive<>(config, config.inlierThreshold*config.inlierThreshold,
+				new ModelManagerHomography2D_F64(), () -> new GenerateHomographyLinear(true), DistanceHomographySq::new);
+	}
+
+	/**
+	 * Creates pairs of pixels related by a homography with some outliers.
+	 *
+	 * @param sorted If true then all the inliers come first
+	 * @return true for each pair which is an inlier
+	 */
+	static boolean[] createPairs( Random rand, List<AssociatedPair> pairs, boolean sorted ) {
+		var H = new Homography2D_F64(1.1, 0.05, 20, -0.04, 0.95, -15, 1e-5, -2e-5, 1.0);
+
+		int numOutliers = (int)(NUM_POINTS*OUTLIER_FRACTION);
+		boolean[] inlier = new boolean[NUM_POINTS];
+		for (int i = 0; i < NUM_POINTS; i++) {
+			inlier[i] = sorted ? i < NUM_POINTS - numOutliers : i >= numOutliers;
+		}
+		if (!sorted) {
+			// shuffle so that outliers are spread throughout
+			for (int i = NUM_POINTS - 1; i > 0; i--) {
+				int j = rand.nextInt(i + 1);
+				boolean tmp = inlier[i];
+				inlier[i] = inlier[j];
+				inlier[j] = tmp;
+			}
+		}
+
+		for (int i = 0; i < NUM_POINTS; i++) {
+			var pair = new AssociatedPair();
+			pair.p1.setTo(rand.nextDouble()*640, rand.nextDouble()*480);
+			if (inlier[i]) {
+				HomographyPointOps_F64.transform(H, pair.p1, pair.p2);
+			} else {
+				pair.p2.setTo(rand.nextDouble()*640, rand.nextDouble()*480);
+			}
+			pairs.add(pair);
+		}
+
+		return inlier;
+	}
+}
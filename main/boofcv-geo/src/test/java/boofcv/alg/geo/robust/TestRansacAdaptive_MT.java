@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.geo.ConfigRansac;
+import boofcv.struct.geo.AssociatedPair;
+import boofcv.testing.BoofStandardJUnit;
+import georegression.fitting.homography.ModelManagerHomography2D_F64;
+import georegression.struct.homography.Homography2D_F64;
+import org.ejml.dense.fixed.MatrixFeatures_DDF3;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRansacAdaptive_MT extends BoofStandardJUnit {
+	/**
+	 * Compare to single threaded version. Results should be identical
+	 */
+	@Test void compareToSingleThread() {
+		BoofConcurrency.USE_CONCURRENT = true;
+
+		List<AssociatedPair> pairs = new ArrayList<>();
+		TestRansacAdaptive.createPairs(rand, pairs, false);
+
+		for (boolean sorted : new boolean[]{false, true}) {
+			ConfigRansac config = TestRansacAdaptive.createConfig();
+			config.sortedByQuality = sorted;
+
+			RansacAdaptive<Homography2D_F64, AssociatedPair> single = TestRansacAdaptive.createAlg(config);
+			var concurrent = new RansacAdaptive_MT<>(config, config.inlierThreshold*config.inlierThreshold,
+					new ModelManagerHomography2D_F64(), () -> new GenerateHomographyLinear(true), DistanceHomographySq::new);
+
+			assertTrue(single.process(pairs));
+			assertTrue(concurrent.process(pairs));
+
+			assertEquals(single.getIterations(), concurrent.getIterations());
+			assertEquals(single.getMatchSet().size(), concurrent.getMatchSet().size());
+			for (int i = 0; i < single.getMatchSet().size(); i++) {
+				assertEquals(single.getInputIndex(i), concurrent.getInputIndex(i));
+			}
+			assertTrue(MatrixFeatures_DDF3.isIdentical(single.getModelParameters(), concurrent.getModelParameters(), 0.0));
+		}
+	}
+}
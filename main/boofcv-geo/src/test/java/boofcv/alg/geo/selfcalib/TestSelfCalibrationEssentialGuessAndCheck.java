@@ -70,6 +70,30 @@ public class TestSelfCalibrationEssentialGuessAndCheck extends CommonThreeViewSe
 		assertEquals(camera2.fx, alg.focalLengthB, 25);
 	}
 
+	/**
+	 * Coarse grid followed by refinement should be able to find the solution with fewer samples
+	 */
+	@Test
+	public void refineLevels() {
+		standardScene();
+		var camera1 = new CameraPinhole(700,700,0.0,0,0,800,600);
+		var camera2 = new CameraPinhole(450,450,0.0,0,0,800,600);
+
+		setCameras(camera1,camera2,camera2);
+		simulateScene(0);
+
+		var alg = new SelfCalibrationEssentialGuessAndCheck();
+		alg.imageLengthPixels = 800;
+		alg.fixedFocus = false;
+		alg.numberOfSamples = 12;
+		alg.refineLevels = 2;
+		alg.process(F21,P2, observations2);
+
+		assertFalse(alg.isLimit);
+		assertEquals(camera1.fx, alg.focalLengthA, 25);
+		assertEquals(camera2.fx, alg.focalLengthB, 25);
+	}
+
 	/**
 	 * See if it blows up if noise is added
 	 */
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.selfcalib;
+
+import boofcv.struct.calib.CameraPinhole;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+class TestSelfCalibrationEssentialGuessAndCheck_MT extends CommonThreeViewSelfCalibration {
+	/**
+	 * Results should be identical to the single threaded version
+	 */
+	@Test void compareToSingleThread() {
+		standardScene();
+		var camera1 = new CameraPinhole(700, 700, 0.0, 0, 0, 800, 600);
+		var camera2 = new CameraPinhole(450, 450, 0.0, 0, 0, 800, 600);
+		setCameras(camera1, camera2, camera2);
+		simulateScene(0.5);
+
+		for (boolean fixedFocus : new boolean[]{true, false}) {
+			for (int refineLevels = 0; refineLevels < 3; refineLevels++) {
+				var single = new SelfCalibrationEssentialGuessAndCheck();
+				var multi = new SelfCalibrationEssentialGuessAndCheck_MT();
+
+				for (var alg : new SelfCalibrationEssentialGuessAndCheck[]{single, multi}) {
+					alg.imageLengthPixels = 800;
+					alg.fixedFocus = fixedFocus;
+					alg.numberOfSamples = 20;
+					alg.refineLevels = refineLevels;
+					assertTrue(alg.process(F21, P2, observations2));
+				}
+
+				assertEquals(single.focalLengthA, multi.focalLengthA, 0.0);
+				assertEquals(single.focalLengthB, multi.focalLengthB, 0.0);
+				assertEquals(single.isLimit, multi.isLimit);
+				assertTrue(MatrixFeatures_DDRM.isIdentical(
+						single.rectifyingHomography, multi.rectifyingHomography, 0.0));
+			}
+		}
+	}
+}
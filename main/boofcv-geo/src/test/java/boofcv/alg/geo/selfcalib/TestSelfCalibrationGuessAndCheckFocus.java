@@ -151,6 +151,61 @@ public class TestSelfCalibrationGuessAndCheckFocus extends BoofStandardJUnit {
 		assertEquals(K2.get(1,2),KF.get(1,2),10);
 	}
 
+	/**
+	 * Coarse grid followed by refinement should produce results that are about as good as a dense grid
+	 */
+	@Test
+	public void refineLevels() {
+		DMatrixRMaj K1 = PerspectiveOps.pinholeToMatrix(fx,fx,skew,cx,cy);
+		DMatrixRMaj K2 = PerspectiveOps.pinholeToMatrix(fx+150,fx+150,skew,cx,cy);
+		List<DMatrixRMaj> cameraMatrices = new ArrayList<>();
+		DMatrixRMaj P1 = createCanonicalViews(K1, K2, cameraMatrices);
+
+		SelfCalibrationPraticalGuessAndCheckFocus alg = new SelfCalibrationPraticalGuessAndCheckFocus();
+		alg.setSampling(0.1,3,40);
+		alg.setRefineLevels(2);
+		alg.setCamera(skew,cx,cy,width,height);
+
+		assertTrue(alg.process(cameraMatrices));
+		DMatrixRMaj H = alg.getRectifyingHomography();
+
+		DMatrixRMaj KF = new DMatrixRMaj(3,3);
+		DMatrixRMaj P = new DMatrixRMaj(3,4);
+		CommonOps_DDRM.mult(P1,H,P);
+		MultiViewOps.decomposeMetricCamera(P,KF,new Se3_F64());
+		assertEquals(K1.get(0,0),KF.get(0,0),12);
+		assertEquals(K1.get(1,1),KF.get(1,1),12);
+
+		CommonOps_DDRM.mult(cameraMatrices.get(0),H,P);
+		MultiViewOps.decomposeMetricCamera(P,KF,new Se3_F64());
+		assertEquals(K2.get(0,0),KF.get(0,0),12);
+		assertEquals(K2.get(1,1),KF.get(1,1),12);
+	}
+
+	/**
+	 * Creates camera matrices for two views with P1 = [I|0]
+	 *
+	 * @param cameraMatrices (Output) camera matrix for view-2
+	 * @return camera matrix for view-1
+	 */
+	static DMatrixRMaj createCanonicalViews( DMatrixRMaj K1, DMatrixRMaj K2, List<DMatrixRMaj> cameraMatrices ) {
+		Se3_F64 view0_to_view0 = new Se3_F64();
+		Se3_F64 view0_to_view1 = SpecialEuclideanOps_F64.eulerXyz(1,0.1,-0.6,0.1,-0.05,-0.2,null);
+
+		DMatrixRMaj P1a = PerspectiveOps.createCameraMatrix(view0_to_view0.R,view0_to_view0.T,K1,null);
+		DMatrixRMaj P2a = PerspectiveOps.createCameraMatrix(view0_to_view1.R,view0_to_view1.T,K2,null);
+
+		DMatrixRMaj H = new DMatrixRMaj(4,4);
+		MultiViewOps.projectiveToIdentityH(P1a,H);
+
+		DMatrixRMaj P1 = new DMatrixRMaj(3,4);
+		DMatrixRMaj P2 = new DMatrixRMaj(3,4);
+		CommonOps_DDRM.mult(P1a,H,P1);
+		CommonOps_DDRM.mult(P2a,H,P2);
+		cameraMatrices.add(P2);
+		return P1;
+	}
+
 	@Test
 	public void perfect_data_three_views() {
 		DMatrixRMaj K1 = PerspectiveOps.pinholeToMatrix(fx,fx,skew,cx,cy);
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.selfcalib;
+
+import boofcv.alg.geo.PerspectiveOps;
+import boofcv.testing.BoofStandardJUnit;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static boofcv.alg.geo.selfcalib.TestSelfCalibrationGuessAndCheckFocus.createCanonicalViews;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+class TestSelfCalibrationPraticalGuessAndCheckFocus_MT extends BoofStandardJUnit {
+	double cx = 500, cy = 490, skew = 0.1, fx = 600;
+	int width = 1000, height = 800;
+
+	/**
+	 * Results should be identical to the single threaded version
+	 */
+	@Test void compareToSingleThread() {
+		DMatrixRMaj K1 = PerspectiveOps.pinholeToMatrix(fx, fx, skew, cx, cy);
+		DMatrixRMaj K2 = PerspectiveOps.pinholeToMatrix(fx + 150, fx + 150, skew, cx, cy);
+		List<DMatrixRMaj> cameraMatrices = new ArrayList<>();
+		createCanonicalViews(K1, K2, cameraMatrices);
+
+		for (boolean fixedFocus : new boolean[]{true, false}) {
+			for (int refineLevels = 0; refineLevels < 3; refineLevels++) {
+				var single = new SelfCalibrationPraticalGuessAndCheckFocus();
+				var multi = new SelfCalibrationPraticalGuessAndCheckFocus_MT();
+
+				boolean expected = true, found = false;
+				for (var alg : new SelfCalibrationPraticalGuessAndCheckFocus[]{single, multi}) {
+					alg.setSampling(0.1, 3, 30);
+					alg.setRefineLevels(refineLevels);
+					alg.setSingleCamera(fixedFocus);
+					alg.setCamera(skew, cx, cy, width, height);
+					if (alg == single)
+						expected = alg.process(cameraMatrices);
+					else
+						found = alg.process(cameraMatrices);
+				}
+
+				assertEquals(expected, found);
+				assertEquals(single.isLocalMinimum(), multi.isLocalMinimum());
+				assertTrue(MatrixFeatures_DDRM.isIdentical(
+						single.getRectifyingHomography(), multi.getRectifyingHomography(), 0.0));
+			}
+		}
+	}
+}
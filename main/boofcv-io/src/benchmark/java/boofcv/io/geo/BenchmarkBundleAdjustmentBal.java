@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.geo;
+
+import boofcv.abst.geo.bundle.BundleAdjustment;
+import boofcv.abst.geo.bundle.ScaleSceneStructure;
+import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.factory.geo.ConfigBundleAdjustment;
+import boofcv.factory.geo.ConfigSchurPcg;
+import boofcv.factory.geo.FactoryMultiView;
+import boofcv.io.UtilIO;
+import boofcv.misc.BoofMiscOps;
+import org.ddogleg.optimization.lm.ConfigLevenbergMarquardt;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+/**
+ * Compares the direct and iterative (PCG) Schur complement solvers on Bundle Adjustment in the Large problems.
+ * For each solver the processing time, final fit score, and peak heap memory are printed. Pass in the path
+ * to one or more BAL files, otherwise an example file is used.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkBundleAdjustmentBal {
+	public static void process( File file, String name, ConfigBundleAdjustment config ) throws IOException {
+		var parser = new CodecBundleAdjustmentInTheLarge();
+		parser.parse(file);
+
+		var configLM = new ConfigLevenbergMarquardt();
+		configLM.dampeningInitial = 1e-3;
+		configLM.hessianScaling = true;
+		config.configOptimizer = configLM;
+
+		BundleAdjustment<SceneStructureMetric> bundleAdjustment = FactoryMultiView.bundleSparseMetric(config);
+		bundleAdjustment.configure(1e-6, 1e-6, 50);
+
+		var bundleScale = new ScaleSceneStructure();
+		bundleScale.applyScale(parser.scene, parser.observations);
+		bundleAdjustment.setParameters(parser.scene, parser.observations);
+
+		System.gc();
+		resetPeakHeap();
+		double errorBefore = bundleAdjustment.getFitScore();
+		long time0 = System.currentTimeMillis();
+		boolean success = bundleAdjustment.optimize(parser.scene);
+		long time1 = System.currentTimeMillis();
+
+		System.out.printf("%-22s success=%5s time=%10s score %.3e -> %.3e peak_heap=%6d MB%n", name, success,
+				BoofMiscOps.milliToHuman(time1 - time0), errorBefore, bundleAdjustment.getFitScore(),
+				peakHeap()/(1024*1024));
+	}
+
+	static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+		}
+	}
+
+	static long peakHeap() {
+		long total = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP)
+				total += pool.getPeakUsage().getUsed();
+		}
+		return total;
+	}
+
+	public static void main( String[] args ) throws IOException {
+		String[] paths = args.length > 0 ? args : new String[]{UtilIO.pathExample("sfm/problem-16-22106-pre.txt")};
+
+		for (String path : paths) {
+			var file = new File(path);
+			System.out.println("BAL file: " + file.getName());
+
+			process(file, "cholesky", new ConfigBundleAdjustment());
+
+			for (var preconditioner : ConfigSchurPcg.Preconditioner.values()) {
+				var config = new ConfigBundleAdjustment();
+				config.schurSolver = ConfigBundleAdjustment.SchurSolver.PCG;
+				config.pcg.preconditioner = preconditioner;
+				process(file, "pcg " + preconditioner, config);
+			}
+		}
+	}
+}
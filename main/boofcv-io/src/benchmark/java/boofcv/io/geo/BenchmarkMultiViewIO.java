@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.geo;
+
+import boofcv.abst.geo.bundle.SceneStructureCommon;
+import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.alg.geo.bundle.cameras.BundlePinholeSimplified;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares loading and saving {@link SceneStructureMetric} using YAML in {@link MultiViewIO} against the binary
+ * format in {@link MultiViewBinaryIO}. Run with the GC profiler to see how much memory is allocated.
+ *
+ * @author Peter Abeles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+public class BenchmarkMultiViewIO {
+	@Param({"10000", "200000"})
+	public int numPoints;
+
+	@Param({"100"})
+	public int numViews;
+
+	SceneStructureMetric scene;
+	File fileYaml, fileBinary;
+
+	@Setup public void setup() throws IOException {
+		var rand = new Random(234);
+
+		scene = new SceneStructureMetric(false);
+		scene.initialize(numViews, numViews, numPoints);
+		for (int viewIdx = 0; viewIdx < numViews; viewIdx++) {
+			scene.setCamera(viewIdx, false, new BundlePinholeSimplified(500 + rand.nextDouble(), 0.01, -0.01));
+			scene.setView(viewIdx, viewIdx, false, SpecialEuclideanOps_F64.eulerXyz(
+					rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+					rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), null));
+		}
+		for (int i = 0; i < numPoints; i++) {
+			SceneStructureCommon.Point p = scene.points.get(i);
+			p.set(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+			for (int j = 0; j < 5; j++) {
+				p.views.add((i + j)%numViews);
+			}
+		}
+
+		fileYaml = File.createTempFile("scene", ".yaml");
+		fileBinary = File.createTempFile("scene", ".bin");
+		MultiViewIO.save(scene, fileYaml.getPath());
+		MultiViewBinaryIO.save(scene, fileBinary.getPath());
+	}
+
+	@TearDown public void teardown() {
+		fileYaml.delete();
+		fileBinary.delete();
+	}
+
+	@Benchmark public void saveYaml() throws IOException {
+		MultiViewIO.save(scene, new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(fileYaml)), UTF_8));
+	}
+
+	@Benchmark public void saveBinary() {
+		MultiViewBinaryIO.save(scene, fileBinary.getPath());
+	}
+
+	@Benchmark public SceneStructureMetric loadYaml() {
+		return MultiViewIO.load(fileYaml.getPath(), (SceneStructureMetric)null);
+	}
+
+	@Benchmark public SceneStructureMetric loadBinaryStream() throws IOException {
+		try (var input = new BufferedInputStream(new FileInputStream(fileBinary))) {
+			return MultiViewBinaryIO.load(input, (SceneStructureMetric)null);
+		}
+	}
+
+	@Benchmark public SceneStructureMetric loadBinaryMapped() {
+		return MultiViewBinaryIO.load(fileBinary.getPath(), (SceneStructureMetric)null);
+	}
+
+	public static void main( String[] args ) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(BenchmarkMultiViewIO.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.warmupTime(TimeValue.seconds(1))
+				.measurementTime(TimeValue.seconds(1))
+				.build();
+
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.geo;
+
+import boofcv.io.UtilIO;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.feature.TupleDesc_F32;
+import boofcv.struct.image.ImageDimension;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the I/O throughput of {@link SimilarImagesDiskStore} when writing and reading images, both in
+ * sequential order and in a random order with a page cache that's too small to hold everything. Each image
+ * has 500 features with 64 element F32 descriptions, which is about 130 kB of feature data, and is paired
+ * with 10 other images.
+ *
+ * @author Peter Abeles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+public class BenchmarkSimilarImagesDiskStore {
+	@Param({"200", "2000"})
+	public int numImages;
+
+	@Param({"1", "64"})
+	public int maxPages;
+
+	int numFeatures = 500;
+	int numPaired = 10;
+	int dof = 64;
+
+	File directoryWrite, directoryRead;
+	SimilarImagesDiskStore reader;
+
+	DogArray<Point2D_F64> features = new DogArray<>(Point2D_F64::new);
+	DogArray<TupleDesc_F32> descs = new DogArray<>(() -> new TupleDesc_F32(dof));
+	DogArray<AssociatedIndex> associated = new DogArray<>(AssociatedIndex::new);
+	int[] randomOrder;
+
+	// Storage for what's read so that it doesn't modify what's written
+	DogArray<Point2D_F64> readFeatures = new DogArray<>(Point2D_F64::new);
+	DogArray<TupleDesc_F32> readDescs = new DogArray<>(() -> new TupleDesc_F32(dof));
+	DogArray<AssociatedIndex> readPairs = new DogArray<>(AssociatedIndex::new);
+
+	@Setup public void setup() throws IOException {
+		var rand = new Random(234);
+
+		features.resize(numFeatures);
+		descs.resize(numFeatures);
+		for (int i = 0; i < numFeatures; i++) {
+			features.get(i).setTo(rand.nextDouble()*1000, rand.nextDouble()*1000);
+			for (int j = 0; j < dof; j++) {
+				descs.get(i).data[j] = rand.nextFloat();
+			}
+		}
+		associated.resize(numFeatures/2);
+		for (int i = 0; i < associated.size; i++) {
+			associated.get(i).setTo(rand.nextInt(numFeatures), rand.nextInt(numFeatures));
+		}
+
+		randomOrder = new int[numImages];
+		for (int i = 0; i < numImages; i++) {
+			randomOrder[i] = rand.nextInt(numImages);
+		}
+
+		directoryWrite = Files.createTempDirectory("write").toFile();
+		directoryRead = Files.createTempDirectory("read").toFile();
+		writeImages(directoryRead).close();
+		reader = SimilarImagesDiskStore.open(directoryRead, 4*1024*1024, maxPages);
+	}
+
+	@TearDown public void teardown() {
+		reader.close();
+		UtilIO.deleteRecursive(directoryWrite);
+		UtilIO.deleteRecursive(directoryRead);
+	}
+
+	private SimilarImagesDiskStore writeImages( File directory ) {
+		SimilarImagesDiskStore store = SimilarImagesDiskStore.create(directory, dof*4, 4*1024*1024, maxPages);
+		var shape = new ImageDimension(1000, 1000);
+		for (int i = 0; i < numImages; i++) {
+			store.addImage("" + i, shape, features, descs);
+		}
+		for (int i = 0; i < numImages; i++) {
+			for (int j = i + 1; j < Math.min(numImages, i + 1 + numPaired); j++) {
+				store.addMatches("" + i, "" + j, associated);
+			}
+		}
+		store.flush();
+		return store;
+	}
+
+	@Benchmark public void write() {
+		writeImages(directoryWrite).close();
+	}
+
+	@Benchmark public int readSequential() {
+		int total = 0;
+		for (int i = 0; i < numImages; i++) {
+			total += readImage("" + i);
+		}
+		return total;
+	}
+
+	@Benchmark public int readRandom() {
+		int total = 0;
+		for (int i = 0; i < numImages; i++) {
+			total += readImage("" + randomOrder[i]);
+		}
+		return total;
+	}
+
+	private int readImage( String id ) {
+		reader.lookupPixelFeats(id, readFeatures);
+		reader.lookupDescriptions(id, readDescs);
+		String other = reader.getImageIDs().get((Integer.parseInt(id) + 1)%numImages);
+		reader.lookupMatches(id, other, readPairs);
+		return readFeatures.size + readPairs.size;
+	}
+
+	public static void main( String[] args ) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(BenchmarkSimilarImagesDiskStore.class.getSimpleName())
+				.warmupTime(TimeValue.seconds(1))
+				.measurementTime(TimeValue.seconds(1))
+				.build();
+
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.points;
+
+import boofcv.alg.cloud.PackedPointCloud_F32;
+import boofcv.alg.cloud.PointCloudReader;
+import boofcv.alg.cloud.PointCloudWriter;
+import boofcv.io.points.impl.PlyCodec;
+import boofcv.struct.Point3dRgbI_F64;
+import org.ddogleg.struct.DogArray;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading and saving large PLY clouds using {@link PackedPointCloud_F32} against an array of point objects.
+ * Run with a large heap, e.g. -Xmx8g, for the largest cloud.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+public class BenchmarkPointCloudIO {
+	@Param({"1000000", "50000000"})
+	public int size;
+
+	File file;
+
+	PackedPointCloud_F32 packed = new PackedPointCloud_F32();
+	DogArray<Point3dRgbI_F64> objects = new DogArray<>(Point3dRgbI_F64::new);
+
+	@Setup public void setup() throws IOException {
+		var rand = new Random(234);
+		packed.reset();
+		packed.reserve(size);
+		for (int i = 0; i < size; i++) {
+			packed.add(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), rand.nextInt(0xFFFFFF));
+		}
+
+		file = File.createTempFile("cloud", ".ply");
+		file.deleteOnExit();
+		try (var output = new BufferedOutputStream(new FileOutputStream(file))) {
+			PlyCodec.saveBinary(packed, ByteOrder.BIG_ENDIAN, true, true, output);
+		}
+	}
+
+	@TearDown public void teardown() throws IOException {
+		Files.deleteIfExists(file.toPath());
+	}
+
+	@Benchmark public void load_packed() throws IOException {
+		try (var input = new BufferedInputStream(new FileInputStream(file))) {
+			PointCloudIO.load3D(PointCloudIO.Format.PLY, input, packed);
+		}
+	}
+
+	@Benchmark public void load_objects() throws IOException {
+		try (var input = new BufferedInputStream(new FileInputStream(file))) {
+			PointCloudIO.load(PointCloudIO.Format.PLY, input, PointCloudWriter.wrapF64RGB(objects));
+		}
+	}
+
+	@Benchmark public void save_packed() throws IOException {
+		try (var output = new BufferedOutputStream(new FileOutputStream(file))) {
+			PlyCodec.saveBinary(packed, ByteOrder.BIG_ENDIAN, true, true, output);
+		}
+	}
+
+	@Benchmark public void save_objects() throws IOException {
+		if (objects.size != size)
+			load_objects();
+		try (var output = new BufferedOutputStream(new FileOutputStream(file))) {
+			PlyCodec.saveBinary(PointCloudReader.wrapF64RGB(objects.toList()), ByteOrder.BIG_ENDIAN, true, true, output);
+		}
+	}
+
+	public static void main( String[] args ) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(BenchmarkPointCloudIO.class.getSimpleName())
+				.warmupTime(TimeValue.seconds(1))
+				.measurementTime(TimeValue.seconds(1))
+				.build();
+
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,868 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.geo;
+
+import boofcv.abst.geo.bundle.BundleAdjustmentCamera;
+import boofcv.abst.geo.bundle.SceneObservations;
+import boofcv.abst.geo.bundle.SceneStructureCommon;
+import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.alg.geo.bundle.cameras.BundlePinholeSimplified;
+import boofcv.alg.sfm.structure.PairwiseImageGraph;
+import boofcv.misc.BoofMiscOps;
+import boofcv.struct.feature.AssociatedIndex;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_F32;
+import org.ddogleg.struct.DogArray_I32;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * <p>
+ * Compact binary format for saving and loading large multiview data structures. Compared to the YAML format in
+ * {@link MultiViewIO} this is much faster and uses much less memory since elements are decoded directly into the
+ * data structures instead of going through intermediate maps and lists.
+ * </p>
+ *
+ * <p>
+ * Format: All values are little-endian. The file starts with a header: 4-byte magic "BMVB", int format version,
+ * int data type. This is followed by a sequence of chunks. Each chunk has an int tag, an int length in bytes,
+ * then the payload. Chunks which contain a list of elements start with the number of elements inside the chunk
+ * and large lists are split across multiple chunks with the same tag. The last chunk has the tag "END " and no
+ * payload. Readers skip over chunks with unknown tags.
+ * </p>
+ *
+ * <p>
+ * Chunks are written one at a time, so memory usage while saving is bounded by the chunk size. Files can be
+ * read as a stream or loaded through a memory mapped file, which avoids copying the data into a read buffer.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MultiViewBinaryIO {
+	/** Version of the binary format. Increment when the format changes in an incompatible way */
+	public static final int VERSION = 1;
+
+	/** Chunks are flushed once their payload exceeds this many bytes */
+	public static final int CHUNK_BYTES = 1024*1024;
+
+	// Size of the window used when memory mapping a file
+	static final long MAP_WINDOW = 256L*1024*1024;
+
+	static final int MAGIC = tag("BMVB");
+
+	static final int TYPE_SCENE_METRIC = 1;
+	static final int TYPE_OBSERVATIONS = 2;
+	static final int TYPE_PAIRWISE = 3;
+
+	static final int TAG_HEADER = tag("HEAD");
+	static final int TAG_END = tag("END ");
+	static final int TAG_CAMERAS = tag("CAMS");
+	static final int TAG_VIEWS = tag("VIEW");
+	static final int TAG_MOTIONS = tag("MOTN");
+	static final int TAG_RIGIDS = tag("RIGD");
+	static final int TAG_POINTS = tag("PNTS");
+	static final int TAG_OBS_GENERAL = tag("OBSG");
+	static final int TAG_OBS_RIGID = tag("OBSR");
+	static final int TAG_NODES = tag("NODE");
+	static final int TAG_EDGES = tag("EDGE");
+
+	/**
+	 * Converts a 4 character string into a tag. When written in little-endian the characters will be in order.
+	 */
+	static int tag( String text ) {
+		BoofMiscOps.checkEq(4, text.length());
+		return text.charAt(0) | text.charAt(1) << 8 | text.charAt(2) << 16 | text.charAt(3) << 24;
+	}
+
+	//===========================================================================================================
+	//============================================ SceneStructureMetric ========================================
+
+	public static void save( SceneStructureMetric scene, String path ) {
+		try (var out = new BufferedOutputStream(new FileOutputStream(path))) {
+			save(scene, out);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Saves a {@link SceneStructureMetric} in the binary format. The stream is not closed.
+	 *
+	 * @param scene (Input) The scene
+	 * @param output (Output) where the scene is written to
+	 */
+	public static void save( SceneStructureMetric scene, OutputStream output ) throws IOException {
+		var writer = new ChunkWriter(output, TYPE_SCENE_METRIC);
+
+		writer.begin(TAG_HEADER);
+		writer.putBoolean(scene.isHomogenous());
+		writer.putInt(scene.cameras.size);
+		writer.putInt(scene.views.size);
+		writer.putInt(scene.motions.size);
+		writer.putInt(scene.points.size);
+		writer.putInt(scene.rigids.size);
+		writer.end();
+
+		writer.beginElements(TAG_CAMERAS);
+		for (int i = 0; i < scene.cameras.size; i++) {
+			SceneStructureCommon.Camera c = scene.cameras.get(i);
+			writer.putBoolean(c.known);
+			writeCameraModel(c.model, writer);
+			writer.nextElement();
+		}
+		writer.endElements();
+
+		// A view's parent is referenced by its index
+		Map<SceneStructureMetric.View, Integer> viewToIndex = new HashMap<>();
+		for (int i = 0; i < scene.views.size; i++) {
+			viewToIndex.put(scene.views.get(i), i);
+		}
+
+		writer.beginElements(TAG_VIEWS);
+		for (int i = 0; i < scene.views.size; i++) {
+			SceneStructureMetric.View v = scene.views.get(i);
+			writer.putInt(v.camera);
+			writer.putInt(v.parent_to_view);
+			writer.putInt(v.parent == null ? -1 : viewToIndex.get(v.parent));
+			writer.nextElement();
+		}
+		writer.endElements();
+
+		writer.beginElements(TAG_MOTIONS);
+		for (int i = 0; i < scene.motions.size; i++) {
+			SceneStructureMetric.Motion m = scene.motions.get(i);
+			writer.putBoolean(m.known);
+			writer.putSE3(m.motion);
+			writer.nextElement();
+		}
+		writer.endElements();
+
+		writer.beginElements(TAG_RIGIDS);
+		for (int i = 0; i < scene.rigids.size; i++) {
+			SceneStructureMetric.Rigid r = scene.rigids.get(i);
+			writer.putBoolean(r.known);
+			writer.putSE3(r.object_to_world);
+			writer.putInt(r.indexFirst);
+			writer.putInt(r.points.length);
+			for (int j = 0; j < r.points.length; j++) {
+				writePoint(r.points[j], writer);
+			}
+			writer.nextElement();
+		}
+		writer.endElements();
+
+		writer.beginElements(TAG_POINTS);
+		for (int i = 0; i < scene.points.size; i++) {
+			writePoint(scene.points.get(i), writer);
+			writer.nextElement();
+		}
+		writer.endElements();
+
+		writer.finish();
+	}
+
+	private static void writeCameraModel( @Nullable BundleAdjustmentCamera model, ChunkWriter writer ) {
+		if (model == null) {
+			writer.putString("");
+			return;
+		}
+
+		if (model instanceof BundlePinholeSimplified) {
+			writer.putString("PinholeSimplified");
+		} else {
+			throw new RuntimeException("BundleAdjustmentCamera type not yet supported. " +
+					model.getClass().getSimpleName());
+		}
+
+		var parameters = new double[model.getIntrinsicCount()];
+		model.getIntrinsic(parameters, 0);
+		writer.putInt(parameters.length);
+		writer.putDoubles(parameters, parameters.length);
+	}
+
+	private static @Nullable BundleAdjustmentCamera readCameraModel( ByteBuffer buffer ) throws IOException {
+		String type = readString(buffer);
+		if (type.isEmpty())
+			return null;
+
+		BundleAdjustmentCamera model = switch (type) {
+			case "PinholeSimplified" -> new BundlePinholeSimplified();
+			default -> throw new IOException("Unknown camera. " + type);
+		};
+
+		var parameters = new double[buffer.getInt()];
+		BoofMiscOps.checkEq(model.getIntrinsicCount(), parameters.length, "Unexpected number of parameters");
+		buffer.asDoubleBuffer().get(parameters);
+		buffer.position(buffer.position() + parameters.length*8);
+		model.setIntrinsic(parameters, 0);
+		return model;
+	}
+
+	private static void writePoint( SceneStructureCommon.Point p, ChunkWriter writer ) {
+		writer.putDoubles(p.coordinate, p.coordinate.length);
+		writer.putInt(p.views.size);
+		writer.putInts(p.views.data, p.views.size);
+	}
+
+	private static void readPoint( ByteBuffer buffer, SceneStructureCommon.Point p ) {
+		for (int i = 0; i < p.coordinate.length; i++) {
+			p.coordinate[i] = buffer.getDouble();
+		}
+		readInts(buffer, buffer.getInt(), p.views);
+	}
+
+	/**
+	 * Loads a {@link SceneStructureMetric} from a file using a memory mapped file.
+	 *
+	 * @param path (Input) Path to the file
+	 * @param scene (Output) Optional storage for the scene. If null a new instance is created.
+	 * @return The decoded scene
+	 */
+	public static SceneStructureMetric load( String path, @Nullable SceneStructureMetric scene ) {
+		try (var reader = ChunkReader.mapped(path)) {
+			return load(reader, scene);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Loads a {@link SceneStructureMetric} by streaming it from the input. The stream is not closed.
+	 *
+	 * @param input (Input) Stream the scene is read from
+	 * @param scene (Output) Optional storage for the scene. If null a new instance is created.
+	 * @return The decoded scene
+	 */
+	public static SceneStructureMetric load( InputStream input, @Nullable SceneStructureMetric scene )
+			throws IOException {
+		return load(ChunkReader.stream(input), scene);
+	}
+
+	static SceneStructureMetric load( ChunkReader reader, @Nullable SceneStructureMetric scene )
+			throws IOException {
+		reader.readHeader(TYPE_SCENE_METRIC);
+
+		if (!reader.next() || reader.tag != TAG_HEADER)
+			throw new IOException("Expected header chunk");
+
+		ByteBuffer buffer = reader.payload;
+		boolean homogenous = readBoolean(buffer);
+		int numCameras = buffer.getInt();
+		int numViews = buffer.getInt();
+		int numMotions = buffer.getInt();
+		int numPoints = buffer.getInt();
+		int numRigids = buffer.getInt();
+
+		if (scene != null && scene.isHomogenous() != homogenous)
+			scene = null;
+		if (scene == null)
+			scene = new SceneStructureMetric(homogenous);
+		scene.initialize(numCameras, numViews, numMotions, numPoints, numRigids);
+
+		int indexCamera = 0, indexView = 0, indexRigid = 0, indexPoint = 0;
+		while (reader.next()) {
+			buffer = reader.payload;
+			int tag = reader.tag;
+			if (tag == TAG_CAMERAS) {
+				for (int count = buffer.getInt(); count > 0; count--) {
+					SceneStructureCommon.Camera c = scene.cameras.get(indexCamera++);
+					c.known = readBoolean(buffer);
+					c.model = readCameraModel(buffer);
+				}
+			} else if (tag == TAG_VIEWS) {
+				for (int count = buffer.getInt(); count > 0; count--) {
+					SceneStructureMetric.View v = scene.views.get(indexView++);
+					v.camera = buffer.getInt();
+					v.parent_to_view = buffer.getInt();
+					int parent = buffer.getInt();
+					v.parent = parent >= 0 ? scene.views.get(parent) : null;
+				}
+			} else if (tag == TAG_MOTIONS) {
+				for (int count = buffer.getInt(); count > 0; count--) {
+					SceneStructureMetric.Motion m = scene.motions.grow();
+					m.known = readBoolean(buffer);
+					readSE3(buffer, m.motion);
+				}
+			} else if (tag == TAG_RIGIDS) {
+				int dof = homogenous ? 4 : 3;
+				for (int count = buffer.getInt(); count > 0; count--) {
+					SceneStructureMetric.Rigid r = scene.rigids.get(indexRigid++);
+					r.known = readBoolean(buffer);
+					readSE3(buffer, r.object_to_world);
+					r.indexFirst = buffer.getInt();
+					r.points = new SceneStructureCommon.Point[buffer.getInt()];
+					for (int j = 0; j < r.points.length; j++) {
+						r.points[j] = new SceneStructureCommon.Point(dof);
+						readPoint(buffer, r.points[j]);
+					}
+				}
+			} else if (tag == TAG_POINTS) {
+				for (int count = buffer.getInt(); count > 0; count--) {
+					readPoint(buffer, scene.points.get(indexPoint++));
+				}
+			}
+		}
+
+		BoofMiscOps.checkEq(numCameras, indexCamera, "Missing cameras");
+		BoofMiscOps.checkEq(numViews, indexView, "Missing views");
+		BoofMiscOps.checkEq(numMotions, scene.motions.size, "Missing motions");
+		BoofMiscOps.checkEq(numRigids, indexRigid, "Missing rigids");
+		BoofMiscOps.checkEq(numPoints, indexPoint, "Missing points");
+
+		return scene;
+	}
+
+	//===========================================================================================================
+	//============================================ SceneObservations ===========================================
+
+	public static void save( SceneObservations observations, String path ) {
+		try (var out = new BufferedOutputStream(new FileOutputStream(path))) {
+			save(observations, out);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Saves {@link SceneObservations} in the binary format. The stream is not closed.
+	 *
+	 * @param observations (Input) The observations
+	 * @param output (Output) where the observations are written to
+	 */
+	public static void save( SceneObservations observations, OutputStream output ) throws IOException {
+		var writer = new ChunkWriter(output, TYPE_OBSERVATIONS);
+
+		writer.begin(TAG_HEADER);
+		writer.putInt(observations.views.size);
+		writer.putBoolean(observations.hasRigid());
+		writer.end();
+
+		writeObservationViews(observations.views, TAG_OBS_GENERAL, writer);
+		if (observations.hasRigid())
+			writeObservationViews(observations.viewsRigid, TAG_OBS_RIGID, writer);
+
+		writer.finish();
+	}
+
+	private static void writeObservationViews( DogArray<SceneObservations.View> views, int tag,
+											   ChunkWriter writer ) {
+		writer.beginElements(tag);
+		for (int i = 0; i < views.size; i++) {
+			SceneObservations.View v = views.get(i);
+			writer.putInt(v.point.size);
+			writer.putInts(v.point.data, v.point.size);
+			writer.putFloats(v.observations.data, v.point.size*2);
+			writer.nextElement();
+		}
+		writer.endElements();
+	}
+
+	/**
+	 * Loads {@link SceneObservations} from a file using a memory mapped file.
+	 *
+	 * @param path (Input) Path to the file
+	 * @param observations (Output) Optional storage for the observations. If null a new instance is created.
+	 * @return The decoded observations
+	 */
+	public static SceneObservations load( String path, @Nullable SceneObservations observations ) {
+		try (var reader = ChunkReader.mapped(path)) {
+			return load(reader, observations);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Loads {@link SceneObservations} by streaming it from the input. The stream is not closed.
+	 *
+	 * @param input (Input) Stream the observations are read from
+	 * @param observations (Output) Optional storage for the observations. If null a new instance is created.
+	 * @return The decoded observations
+	 */
+	public static SceneObservations load( InputStream input, @Nullable SceneObservations observations )
+			throws IOException {
+		return load(ChunkReader.stream(input), observations);
+	}
+
+	static SceneObservations load( ChunkReader reader, @Nullable SceneObservations observations )
+			throws IOException {
+		reader.readHeader(TYPE_OBSERVATIONS);
+
+		if (!reader.next() || reader.tag != TAG_HEADER)
+			throw new IOException("Expected header chunk");
+
+		int numViews = reader.payload.getInt();
+		boolean hasRigid = readBoolean(reader.payload);
+
+		if (observations == null)
+			observations = new SceneObservations();
+		observations.initialize(numViews, hasRigid);
+
+		int indexGeneral = 0, indexRigid = 0;
+		while (reader.next()) {
+			ByteBuffer buffer = reader.payload;
+			if (reader.tag == TAG_OBS_GENERAL) {
+				for (int count = buffer.getInt(); count > 0; count--) {
+					readObservationView(buffer, observations.views.get(indexGeneral++));
+				}
+			} else if (reader.tag == TAG_OBS_RIGID) {
+				for (int count = buffer.getInt(); count > 0; count--) {
+					readObservationView(buffer, observations.viewsRigid.get(indexRigid++));
+				}
+			}
+		}
+
+		BoofMiscOps.checkEq(numViews, indexGeneral, "Missing views");
+		if (hasRigid)
+			BoofMiscOps.checkEq(numViews, indexRigid, "Missing rigid views");
+
+		return observations;
+	}
+
+	private static void readObservationView( ByteBuffer buffer, SceneObservations.View v ) {
+		int size = buffer.getInt();
+		readInts(buffer, size, v.point);
+		readFloats(buffer, size*2, v.observations);
+	}
+
+	//===========================================================================================================
+	//============================================ PairwiseImageGraph ==========================================
+
+	public static void save( PairwiseImageGraph graph, String path ) {
+		try (var out = new BufferedOutputStream(new FileOutputStream(path))) {
+			save(graph, out);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Saves a {@link PairwiseImageGraph} in the binary format. The stream is not closed.
+	 *
+	 * @param graph (Input) The graph which is to be saved
+	 * @param output (Output) where the graph is written to
+	 */
+	public static void save( PairwiseImageGraph graph, OutputStream output ) throws IOException {
+		var writer = new ChunkWriter(output, TYPE_PAIRWISE);
+
+		// Views are referenced by their index, which is much more compact than their ID
+		Map<PairwiseImageGraph.View, Integer> viewToIndex = new HashMap<>();
+		for (int i = 0; i < graph.nodes.size; i++) {
+			viewToIndex.put(graph.nodes.get(i), i);
+		}
+
+		writer.begin(TAG_HEADER);
+		writer.putInt(graph.nodes.size);
+		writer.putInt(graph.edges.size);
+		writer.end();
+
+		writer.beginElements(TAG_NODES);
+		for (int i = 0; i < graph.nodes.size; i++) {
+			PairwiseImageGraph.View v = graph.nodes.get(i);
+			writer.putString(v.id);
+			writer.putInt(v.totalObservations);
+			writer.putInt(v.connections.size);
+			for (int j = 0; j < v.connections.size; j++) {
+				writer.putInt(v.connections.get(j).index);
+			}
+			writer.nextElement();
+		}
+		writer.endElements();
+
+		writer.beginElements(TAG_EDGES);
+		for (int i = 0; i < graph.edges.size; i++) {
+			PairwiseImageGraph.Motion m = graph.edges.get(i);
+			BoofMiscOps.checkEq(m.index, i);
+			writer.putBoolean(m.is3D);
+			writer.putDouble(m.score3D);
+			writer.putInt(viewToIndex.get(m.src));
+			writer.putInt(viewToIndex.get(m.dst));
+			writer.putInt(m.inliers.size);
+			for (int j = 0; j < m.inliers.size; j++) {
+				AssociatedIndex a = m.inliers.get(j);
+				writer.putInt(a.src);
+				writer.putInt(a.dst);
+			}
+			writer.nextElement();
+		}
+		writer.endElements();
+
+		writer.finish();
+	}
+
+	/**
+	 * Loads a {@link PairwiseImageGraph} from a file using a memory mapped file.
+	 *
+	 * @param path (Input) Path to the file
+	 * @param graph (Output) Optional storage for the graph. If null a new instance is created.
+	 * @return The decoded graph
+	 */
+	public static PairwiseImageGraph load( String path, @Nullable PairwiseImageGraph graph ) {
+		try (var reader = ChunkReader.mapped(path)) {
+			return load(reader, graph);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Loads a {@link PairwiseImageGraph} by streaming it from the input. The stream is not closed.
+	 *
+	 * @param input (Input) Stream the graph is read from
+	 * @param graph (Output) Optional storage for the graph. If null a new instance is created.
+	 * @return The decoded graph
+	 */
+	public static PairwiseImageGraph load( InputStream input, @Nullable PairwiseImageGraph graph )
+			throws IOException {
+		return load(ChunkReader.stream(input), graph);
+	}
+
+	static PairwiseImageGraph load( ChunkReader reader, @Nullable PairwiseImageGraph graph ) throws IOException {
+		reader.readHeader(TYPE_PAIRWISE);
+
+		if (!reader.next() || reader.tag != TAG_HEADER)
+			throw new IOException("Expected header chunk");
+
+		if (graph == null)
+			graph = new PairwiseImageGraph();
+		else
+			graph.reset();
+
+		int numNodes = reader.payload.getInt();
+		int numEdges = reader.payload.getInt();
+		graph.nodes.resize(numNodes);
+		graph.edges.resize(numEdges);
+
+		int indexNode = 0, indexEdge = 0;
+		while (reader.next()) {
+			ByteBuffer buffer = reader.payload;
+			if (reader.tag == TAG_NODES) {
+				for (int count = buffer.getInt(); count > 0; count--) {
+					PairwiseImageGraph.View v = graph.nodes.get(indexNode++);
+					v.id = readString(buffer);
+					v.totalObservations = buffer.getInt();
+					int numConnections = buffer.getInt();
+					v.connections.reset();
+					for (int j = 0; j < numConnections; j++) {
+						v.connections.add(graph.edges.get(buffer.getInt()));
+					}
+					graph.mapNodes.put(v.id, v);
+				}
+			} else if (reader.tag == TAG_EDGES) {
+				for (int count = buffer.getInt(); count > 0; count--) {
+					PairwiseImageGraph.Motion m = graph.edges.get(indexEdge);
+					m.index = indexEdge++;
+					m.is3D = readBoolean(buffer);
+					m.score3D = buffer.getDouble();
+					m.src = graph.nodes.get(buffer.getInt());
+					m.dst = graph.nodes.get(buffer.getInt());
+					m.inliers.resize(buffer.getInt());
+					for (int j = 0; j < m.inliers.size; j++) {
+						AssociatedIndex a = m.inliers.get(j);
+						a.src = buffer.getInt();
+						a.dst = buffer.getInt();
+					}
+				}
+			}
+		}
+
+		BoofMiscOps.checkEq(numNodes, indexNode, "Missing nodes");
+		BoofMiscOps.checkEq(numEdges, indexEdge, "Missing edges");
+
+		return graph;
+	}
+
+	//===========================================================================================================
+	//============================================ Encoding and Decoding =======================================
+
+	static boolean readBoolean( ByteBuffer buffer ) {
+		return buffer.get() != 0;
+	}
+
+	static String readString( ByteBuffer buffer ) {
+		var bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	static void readSE3( ByteBuffer buffer, Se3_F64 se ) {
+		for (int i = 0; i < 9; i++) {
+			se.R.data[i] = buffer.getDouble();
+		}
+		se.T.x = buffer.getDouble();
+		se.T.y = buffer.getDouble();
+		se.T.z = buffer.getDouble();
+	}
+
+	static void readInts( ByteBuffer buffer, int length, DogArray_I32 dst ) {
+		dst.resize(length);
+		buffer.asIntBuffer().get(dst.data, 0, length);
+		buffer.position(buffer.position() + length*4);
+	}
+
+	static void readFloats( ByteBuffer buffer, int length, DogArray_F32 dst ) {
+		dst.resize(length);
+		buffer.asFloatBuffer().get(dst.data, 0, length);
+		buffer.position(buffer.position() + length*4);
+	}
+
+	/**
+	 * Encodes chunks into a buffer and writes them to the output stream once complete
+	 */
+	static class ChunkWriter {
+		final OutputStream output;
+		ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES + 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+		// Tag of the chunk being written
+		int tag;
+		// Number of elements in the chunk being written
+		int count;
+
+		ChunkWriter( OutputStream output, int dataType ) throws IOException {
+			this.output = output;
+			var header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.putInt(dataType);
+			output.write(header.array());
+		}
+
+		/** Starts a new chunk */
+		void begin( int tag ) {
+			this.tag = tag;
+			buffer.clear();
+		}
+
+		/** Writes the chunk to the output stream */
+		void end() {
+			try {
+				var header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+				header.putInt(tag);
+				header.putInt(buffer.position());
+				output.write(header.array());
+				output.write(buffer.array(), 0, buffer.position());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		/** Starts a chunk with a list of elements. The list will be split into multiple chunks if needed */
+		void beginElements( int tag ) {
+			begin(tag);
+			count = 0;
+			buffer.putInt(0);
+		}
+
+		/** Marks the end of an element. If the chunk is large enough it's written and a new chunk is started */
+		void nextElement() {
+			count++;
+			if (buffer.position() >= CHUNK_BYTES) {
+				endElements();
+				beginElements(tag);
+			}
+		}
+
+		/** Writes the last chunk in a list. Empty chunks are skipped */
+		void endElements() {
+			if (count == 0)
+				return;
+			buffer.putInt(0, count);
+			end();
+		}
+
+		/** Writes the end of file marker */
+		void finish() throws IOException {
+			begin(TAG_END);
+			end();
+			output.flush();
+		}
+
+		/** Ensures there's enough space in the buffer. Needed when a single element is larger than a chunk */
+		void reserve( int bytes ) {
+			if (buffer.remaining() >= bytes)
+				return;
+			var larger = ByteBuffer.allocate(Math.max(buffer.capacity()*2, buffer.position() + bytes));
+			larger.order(ByteOrder.LITTLE_ENDIAN);
+			larger.put(buffer.array(), 0, buffer.position());
+			buffer = larger;
+		}
+
+		void putBoolean( boolean value ) {
+			reserve(1);
+			buffer.put((byte)(value ? 1 : 0));
+		}
+
+		void putInt( int value ) {
+			reserve(4);
+			buffer.putInt(value);
+		}
+
+		void putDouble( double value ) {
+			reserve(8);
+			buffer.putDouble(value);
+		}
+
+		void putString( String text ) {
+			byte[] bytes = text.getBytes(UTF_8);
+			reserve(4 + bytes.length);
+			buffer.putInt(bytes.length);
+			buffer.put(bytes);
+		}
+
+		void putSE3( Se3_F64 se ) {
+			reserve(12*8);
+			for (int i = 0; i < 9; i++) {
+				buffer.putDouble(se.R.data[i]);
+			}
+			buffer.putDouble(se.T.x);
+			buffer.putDouble(se.T.y);
+			buffer.putDouble(se.T.z);
+		}
+
+		void putInts( int[] values, int length ) {
+			reserve(length*4);
+			buffer.asIntBuffer().put(values, 0, length);
+			buffer.position(buffer.position() + length*4);
+		}
+
+		void putFloats( float[] values, int length ) {
+			reserve(length*4);
+			buffer.asFloatBuffer().put(values, 0, length);
+			buffer.position(buffer.position() + length*4);
+		}
+
+		void putDoubles( double[] values, int length ) {
+			reserve(length*8);
+			buffer.asDoubleBuffer().put(values, 0, length);
+			buffer.position(buffer.position() + length*8);
+		}
+	}
+
+	/**
+	 * Reads chunks from either an input stream or a memory mapped file. After {@link #next()} is called
+	 * the chunk's payload can be decoded from {@link #payload}.
+	 */
+	static class ChunkReader implements Closeable {
+		// Used when streaming
+		@Nullable InputStream input;
+		byte[] work = new byte[0];
+
+		// Used when memory mapped
+		@Nullable FileChannel channel;
+		@Nullable ByteBuffer window;
+		// Location of the window inside the file
+		long windowOffset;
+
+		/** Tag of the most recently read chunk */
+		int tag;
+		/** Payload of the most recently read chunk */
+		ByteBuffer payload = ByteBuffer.allocate(0);
+
+		static ChunkReader stream( InputStream input ) {
+			var reader = new ChunkReader();
+			reader.input = input;
+			return reader;
+		}
+
+		static ChunkReader mapped( String path ) throws IOException {
+			var reader = new ChunkReader();
+			reader.channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+			return reader;
+		}
+
+		/** Reads the file header and makes sure it's the expected type */
+		void readHeader( int expectedType ) throws IOException {
+			ByteBuffer header = read(12);
+			if (header.getInt() != MAGIC)
+				throw new IOException("Not a BoofCV binary multiview file");
+			int version = header.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported version " + version);
+			int type = header.getInt();
+			if (type != expectedType)
+				throw new IOException("Unexpected data type. Expected " + expectedType + " found " + type);
+		}
+
+		/**
+		 * Reads the next chunk.
+		 *
+		 * @return true if a chunk was read or false if the end has been reached
+		 */
+		boolean next() throws IOException {
+			ByteBuffer header = read(8);
+			tag = header.getInt();
+			int length = header.getInt();
+			if (tag == TAG_END)
+				return false;
+			payload = read(length);
+			return true;
+		}
+
+		/**
+		 * Returns a buffer containing the next 'length' bytes
+		 */
+		ByteBuffer read( int length ) throws IOException {
+			if (input != null) {
+				if (work.length < length)
+					work = new byte[Math.max(length, CHUNK_BYTES + 1024)];
+				int offset = 0;
+				while (offset < length) {
+					int amount = input.read(work, offset, length - offset);
+					if (amount < 0)
+						throw new EOFException("Unexpected end of stream");
+					offset += amount;
+				}
+				return ByteBuffer.wrap(work, 0, length).order(ByteOrder.LITTLE_ENDIAN);
+			}
+
+			// Memory map a new region of the file if the requested bytes aren't inside the current window
+			Objects.requireNonNull(channel);
+			if (window == null || window.remaining() < length) {
+				long position = windowOffset + (window == null ? 0 : window.position());
+				long size = Math.min(Math.max(MAP_WINDOW, length), channel.size() - position);
+				if (size < length)
+					throw new EOFException("Unexpected end of file");
+				window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+				windowOffset = position;
+			}
+			ByteBuffer slice = window.slice();
+			slice.limit(length);
+			slice.order(ByteOrder.LITTLE_ENDIAN);
+			window.position(window.position() + length);
+			return slice;
+		}
+
+		@Override public void close() throws IOException {
+			if (channel != null)
+				channel.close();
+		}
+	}
+}
@@ -46,7 +46,8 @@ import static boofcv.misc.BoofMiscOps.getOrThrow;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
- * For loading and saving data structures related to multiview reconstruction.
+ * For loading and saving data structures related to multiview reconstruction. For very large reconstructions
+ * consider {@link MultiViewBinaryIO} instead, which is much faster and uses less memory.
  *
  * @author Peter Abeles
  */
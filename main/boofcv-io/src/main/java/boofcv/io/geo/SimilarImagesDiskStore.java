@@ -0,0 +1,772 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.geo;
+
+import boofcv.alg.sfm.structure.LookUpSimilarImages;
+import boofcv.misc.BoofMiscOps;
+import boofcv.struct.feature.*;
+import boofcv.struct.image.ImageDimension;
+import georegression.struct.point.Point2D_F64;
+import gnu.trove.impl.Constants;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.FastAccess;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * <p>
+ * Disk backed implementation of {@link LookUpSimilarImages}. Image features and the associated features between
+ * image pairs are stored in columnar files which are memory mapped one page at a time. Only the most recently used
+ * pages are kept mapped, so the amount of memory used is bounded no matter how many images there are. Only a
+ * small index (image IDs, shapes, and image pairs) is kept on the heap.
+ * </p>
+ *
+ * <p>
+ * The store can be built incrementally by calling {@link #addImage} and {@link #addMatches}, saved with
+ * {@link #flush()}, and then reopened later with {@link #open(File)} and have more images added to it. The
+ * files inside the directory are:
+ * </p>
+ * <ul>
+ *     <li>index.bin: Image IDs, shapes, the location of their features, and the list of image pairs</li>
+ *     <li>pixels.bin: Pixel coordinate of every feature as (x,y) float pairs</li>
+ *     <li>descriptions.bin: Fixed length binary encoding of every feature's description. Optional</li>
+ *     <li>matches.bin: Associated feature indexes (src,dst) of every image pair as int pairs</li>
+ * </ul>
+ * <p>
+ * All values are little-endian. Column files are only appended to. The index is written to a temporary file
+ * then moved, so if the process is killed the previous index is still valid and any data after it in the column
+ * files is discarded when opened.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SimilarImagesDiskStore implements LookUpSimilarImages, Closeable {
+	/** Version of the file format. Increment when the format changes in an incompatible way */
+	public static final int VERSION = 1;
+
+	/** Default number of bytes in a page which is memory mapped */
+	public static final int DEFAULT_PAGE_BYTES = 16*1024*1024;
+
+	/** Default number of pages in each column file which can be mapped at the same time */
+	public static final int DEFAULT_MAX_PAGES = 8;
+
+	static final int MAGIC = MultiViewBinaryIO.tag("BSIM");
+
+	static final String FILE_INDEX = "index.bin";
+	static final String FILE_PIXELS = "pixels.bin";
+	static final String FILE_DESCRIPTIONS = "descriptions.bin";
+	static final String FILE_MATCHES = "matches.bin";
+
+	/** Directory the files are stored in */
+	@Getter final File directory;
+
+	/** Number of bytes used to encode a single description. If zero then descriptions are not saved. */
+	@Getter final int descriptionBytes;
+
+	//========================== Image Information and Relationships. Kept on the heap
+	// List of ID strings for each image
+	final List<String> imageIDs = new ArrayList<>();
+	// Mapping from image ID to image array index. -1 means no mapping
+	final TObjectIntMap<String> imageToIndex = new TObjectIntHashMap<>(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1);
+	// Dimension of each image
+	final DogArray<ImageDimension> imageShapes = new DogArray<>(ImageDimension::new);
+	// Index of the first feature in the column files and number of features for each image
+	final DogArray<Span> imageFeatures = new DogArray<>(Span::new);
+	// Mapping from image to list of PairInfo indexes its paired with
+	final DogArray<DogArray_I32> imageToPairIndexes = new DogArray<>(DogArray_I32::new, DogArray_I32::reset);
+	// List of all image pairs
+	final DogArray<PairInfo> pairs = new DogArray<>(PairInfo::new);
+
+	//========================== Column files
+	final Column pixels;
+	final @Nullable Column descriptions;
+	final Column matches;
+
+	/**
+	 * Use {@link #create} or {@link #open} instead.
+	 */
+	SimilarImagesDiskStore( File directory, int descriptionBytes, int pageBytes, int maxPages ) throws IOException {
+		this.directory = directory;
+		this.descriptionBytes = descriptionBytes;
+		this.pixels = new Column(new File(directory, FILE_PIXELS), 8, pageBytes, maxPages);
+		this.descriptions = descriptionBytes > 0 ?
+				new Column(new File(directory, FILE_DESCRIPTIONS), descriptionBytes, pageBytes, maxPages) : null;
+		this.matches = new Column(new File(directory, FILE_MATCHES), 8, pageBytes, maxPages);
+	}
+
+	/**
+	 * Creates a new empty store. If the directory already contains a store it will be overwritten.
+	 *
+	 * @param directory Directory the files are stored in. Created if it doesn't exist.
+	 * @param descriptionBytes Number of bytes used to encode a description, see {@link #computeDescriptionBytes}.
+	 * If zero then descriptions are not saved.
+	 * @return The new store
+	 */
+	public static SimilarImagesDiskStore create( File directory, int descriptionBytes ) {
+		return create(directory, descriptionBytes, DEFAULT_PAGE_BYTES, DEFAULT_MAX_PAGES);
+	}
+
+	/**
+	 * Creates a new empty store and specifies how large the page cache is.
+	 *
+	 * @param pageBytes Number of bytes in a page which is memory mapped
+	 * @param maxPages Number of pages in each column file which can be mapped at the same time
+	 * @see #create(File, int)
+	 */
+	public static SimilarImagesDiskStore create( File directory, int descriptionBytes, int pageBytes, int maxPages ) {
+		BoofMiscOps.checkTrue(descriptionBytes >= 0, "descriptionBytes can't be negative");
+		BoofMiscOps.checkTrue(maxPages >= 1, "Must be able to map at least one page");
+		if (!directory.exists() && !directory.mkdirs())
+			throw new UncheckedIOException(new IOException("Failed to create " + directory.getPath()));
+
+		try {
+			var store = new SimilarImagesDiskStore(directory, descriptionBytes, pageBytes, maxPages);
+			store.truncate();
+			store.flush();
+			return store;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Opens a store which was previously saved to the directory.
+	 *
+	 * @param directory Directory the files are stored in
+	 * @return The store
+	 */
+	public static SimilarImagesDiskStore open( File directory ) {
+		return open(directory, DEFAULT_PAGE_BYTES, DEFAULT_MAX_PAGES);
+	}
+
+	/**
+	 * Opens a store and specifies how large the page cache is.
+	 *
+	 * @see #open(File)
+	 * @see #create(File, int, int, int)
+	 */
+	public static SimilarImagesDiskStore open( File directory, int pageBytes, int maxPages ) {
+		try {
+			ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(new File(directory, FILE_INDEX).toPath()));
+			index.order(ByteOrder.LITTLE_ENDIAN);
+			if (index.getInt() != MAGIC)
+				throw new IOException("Not a similar images store");
+			int version = index.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported version " + version);
+
+			var store = new SimilarImagesDiskStore(directory, index.getInt(), pageBytes, maxPages);
+			store.readIndex(index);
+			return store;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Creates a new store in the directory and copies everything from the source into it.
+	 *
+	 * @param src (Input) The images and matches which are to be copied
+	 * @param directory Directory the files are stored in
+	 * @return The new store
+	 */
+	public static SimilarImagesDiskStore createFrom( LookUpSimilarImages src, File directory ) {
+		SimilarImagesDiskStore store = create(directory, 0);
+
+		var shape = new ImageDimension();
+		var features = new DogArray<>(Point2D_F64::new);
+		List<String> imageIDs = src.getImageIDs();
+		for (int i = 0; i < imageIDs.size(); i++) {
+			String id = imageIDs.get(i);
+			src.lookupShape(id, shape);
+			src.lookupPixelFeats(id, features);
+			store.addImage(id, shape, features);
+		}
+
+		var similar = new ArrayList<String>();
+		var associated = new DogArray<>(AssociatedIndex::new);
+		for (int i = 0; i < imageIDs.size(); i++) {
+			String id = imageIDs.get(i);
+			src.findSimilar(id, similar);
+			for (int j = 0; j < similar.size(); j++) {
+				// Skip if it's already been added from the other image
+				if (store.lookupPairInfo(i, store.imageToIndex.get(similar.get(j))) != null)
+					continue;
+				if (!src.lookupMatches(id, similar.get(j), associated))
+					continue;
+				store.addMatches(id, similar.get(j), associated);
+			}
+		}
+
+		store.flush();
+		return store;
+	}
+
+	/**
+	 * Adds a new image without descriptions. Can only be called if descriptions are not being saved.
+	 *
+	 * @param id Unique ID for this image
+	 * @param shape Shape of the image
+	 * @param features Pixel coordinates of image features
+	 */
+	public void addImage( String id, ImageDimension shape, FastAccess<Point2D_F64> features ) {
+		BoofMiscOps.checkTrue(descriptions == null, "Descriptions must be provided");
+		addImage(id, shape, features, null);
+	}
+
+	/**
+	 * Adds a new image along with its features. The image can be looked up immediately after this call.
+	 *
+	 * @param id Unique ID for this image
+	 * @param shape Shape of the image
+	 * @param features Pixel coordinates of image features
+	 * @param descs Descriptions of image features. Can be null only if descriptions are not being saved.
+	 */
+	public <TD extends TupleDesc<TD>> void addImage( String id, ImageDimension shape,
+													  FastAccess<Point2D_F64> features,
+													  @Nullable FastAccess<TD> descs ) {
+		if (imageToIndex.containsKey(id))
+			throw new IllegalArgumentException("Image already added. id=" + id);
+		if (descriptions != null) {
+			if (descs == null)
+				throw new IllegalArgumentException("Descriptions must be provided");
+			BoofMiscOps.checkEq(features.size, descs.size, "Number of features and descriptions must match");
+		}
+
+		try {
+			Span span = imageFeatures.grow();
+			span.first = pixels.size;
+			span.count = features.size;
+
+			for (int i = 0; i < features.size; i++) {
+				Point2D_F64 p = features.get(i);
+				pixels.append().putFloat((float)p.x).putFloat((float)p.y);
+			}
+
+			if (descriptions != null) {
+				for (int i = 0; i < descs.size; i++) {
+					TD desc = descs.get(i);
+					BoofMiscOps.checkEq(descriptionBytes, computeDescriptionBytes(desc), "Unexpected description size");
+					writeDescription(desc, descriptions.append());
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		imageToIndex.put(id, imageIDs.size());
+		imageIDs.add(id);
+		imageShapes.grow().setTo(shape);
+		imageToPairIndexes.grow();
+	}
+
+	/**
+	 * Saves the associated features between two images. Images can only be paired once.
+	 *
+	 * @param viewSrc ID of the source image
+	 * @param viewDst ID of the destination image
+	 * @param associated Indexes of features which have been associated
+	 */
+	public void addMatches( String viewSrc, String viewDst, FastAccess<AssociatedIndex> associated ) {
+		int imageIndexSrc = imageToIndex.get(viewSrc);
+		int imageIndexDst = imageToIndex.get(viewDst);
+		if (imageIndexSrc == -1 || imageIndexDst == -1)
+			throw new IllegalArgumentException("Unknown view: src=" + viewSrc + " dst=" + viewDst);
+		if (imageIndexSrc == imageIndexDst)
+			throw new IllegalArgumentException("Can't pair an image with itself");
+		if (lookupPairInfo(imageIndexSrc, imageIndexDst) != null)
+			throw new IllegalArgumentException("Images have already been paired");
+
+		PairInfo p = pairs.grow();
+		p.src = imageIndexSrc;
+		p.dst = imageIndexDst;
+		p.matches.first = matches.size;
+		p.matches.count = associated.size;
+
+		try {
+			for (int i = 0; i < associated.size; i++) {
+				AssociatedIndex a = associated.get(i);
+				matches.append().putInt(a.src).putInt(a.dst);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		imageToPairIndexes.get(imageIndexSrc).add(pairs.size - 1);
+		imageToPairIndexes.get(imageIndexDst).add(pairs.size - 1);
+	}
+
+	/**
+	 * Writes all buffered data to disk and saves the index. After this returns the store can be reopened.
+	 */
+	public void flush() {
+		try {
+			pixels.flush();
+			if (descriptions != null)
+				descriptions.flush();
+			matches.flush();
+
+			// Write to a temporary file first so that the old index is still valid if something goes wrong
+			File file = new File(directory, FILE_INDEX);
+			File temp = new File(directory, FILE_INDEX + ".tmp");
+			Files.write(temp.toPath(), encodeIndex());
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Flushes then closes all the files. The store can't be used after this is called.
+	 */
+	@Override public void close() {
+		flush();
+		try {
+			pixels.close();
+			if (descriptions != null)
+				descriptions.close();
+			matches.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** Removes all data from the column files */
+	private void truncate() throws IOException {
+		pixels.truncate(0);
+		if (descriptions != null)
+			descriptions.truncate(0);
+		matches.truncate(0);
+	}
+
+	private byte[] encodeIndex() {
+		var encodedIDs = new ArrayList<byte[]>();
+		int idBytes = 0;
+		for (int i = 0; i < imageIDs.size(); i++) {
+			encodedIDs.add(imageIDs.get(i).getBytes(UTF_8));
+			idBytes += encodedIDs.get(i).length;
+		}
+
+		int length = 4*5 + 8*3 + imageIDs.size()*(4*4 + 8) + idBytes + pairs.size*(4*3 + 8);
+		ByteBuffer index = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		index.putInt(MAGIC);
+		index.putInt(VERSION);
+		index.putInt(descriptionBytes);
+		index.putLong(pixels.size);
+		index.putLong(descriptions == null ? 0 : descriptions.size);
+		index.putLong(matches.size);
+
+		index.putInt(imageIDs.size());
+		for (int i = 0; i < imageIDs.size(); i++) {
+			index.putInt(encodedIDs.get(i).length);
+			index.put(encodedIDs.get(i));
+			index.putInt(imageShapes.get(i).width);
+			index.putInt(imageShapes.get(i).height);
+			index.putLong(imageFeatures.get(i).first);
+			index.putInt(imageFeatures.get(i).count);
+		}
+
+		index.putInt(pairs.size);
+		for (int i = 0; i < pairs.size; i++) {
+			PairInfo p = pairs.get(i);
+			index.putInt(p.src);
+			index.putInt(p.dst);
+			index.putLong(p.matches.first);
+			index.putInt(p.matches.count);
+		}
+		BoofMiscOps.checkEq(0, index.remaining(), "BUG! Index length is wrong");
+		return index.array();
+	}
+
+	private void readIndex( ByteBuffer index ) throws IOException {
+		// Discard anything which was written after the index was last saved
+		pixels.truncate(index.getLong());
+		long numDescriptions = index.getLong();
+		if (descriptions != null)
+			descriptions.truncate(numDescriptions);
+		matches.truncate(index.getLong());
+
+		int numImages = index.getInt();
+		for (int i = 0; i < numImages; i++) {
+			var encoded = new byte[index.getInt()];
+			index.get(encoded);
+			String id = new String(encoded, UTF_8);
+			imageToIndex.put(id, imageIDs.size());
+			imageIDs.add(id);
+			imageShapes.grow().setTo(index.getInt(), index.getInt());
+			Span span = imageFeatures.grow();
+			span.first = index.getLong();
+			span.count = index.getInt();
+			imageToPairIndexes.grow();
+		}
+
+		int numPairs = index.getInt();
+		for (int i = 0; i < numPairs; i++) {
+			PairInfo p = pairs.grow();
+			p.src = index.getInt();
+			p.dst = index.getInt();
+			p.matches.first = index.getLong();
+			p.matches.count = index.getInt();
+			imageToPairIndexes.get(p.src).add(i);
+			imageToPairIndexes.get(p.dst).add(i);
+		}
+	}
+
+	@Override public List<String> getImageIDs() {
+		return imageIDs;
+	}
+
+	@Override public void findSimilar( String target, List<String> similar ) {
+		similar.clear();
+		int imageIndex = lookupImageIndex(target);
+
+		DogArray_I32 pairIndexes = imageToPairIndexes.get(imageIndex);
+		for (int i = 0; i < pairIndexes.size; i++) {
+			similar.add(imageIDs.get(pairs.get(pairIndexes.get(i)).other(imageIndex)));
+		}
+	}
+
+	@Override public void lookupPixelFeats( String target, DogArray<Point2D_F64> features ) {
+		Span span = imageFeatures.get(lookupImageIndex(target));
+		features.resize(span.count);
+
+		try {
+			for (int i = 0; i < span.count; i++) {
+				ByteBuffer page = pixels.page(span.first + i);
+				int offset = pixels.offset(span.first + i);
+				features.get(i).setTo(page.getFloat(offset), page.getFloat(offset + 4));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Looks up the description of every feature in the image
+	 *
+	 * @param target ID of target image
+	 * @param descs Storage for descriptions. Cleared upon each call
+	 * @throws IllegalArgumentException If the target is not known or descriptions are not saved
+	 */
+	public <TD extends TupleDesc<TD>> void lookupDescriptions( String target, DogArray<TD> descs ) {
+		if (descriptions == null)
+			throw new IllegalArgumentException("Descriptions are not saved");
+		Span span = imageFeatures.get(lookupImageIndex(target));
+		descs.resize(span.count);
+
+		try {
+			for (int i = 0; i < span.count; i++) {
+				readDescription(descriptions.page(span.first + i), descriptions.offset(span.first + i), descs.get(i));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override public boolean lookupMatches( String viewSrc, String viewDst, DogArray<AssociatedIndex> pairs ) {
+		// clear the list so that nothing is returned if there is no match
+		pairs.reset();
+
+		int imageIndexSrc = imageToIndex.get(viewSrc);
+		int imageIndexDst = imageToIndex.get(viewDst);
+		if (imageIndexSrc == -1 || imageIndexDst == -1)
+			throw new IllegalArgumentException("Unknown view: src=" + viewSrc + " dst=" + viewDst);
+
+		// Every feature is a match to itself
+		if (imageIndexSrc == imageIndexDst) {
+			int size = imageFeatures.get(imageIndexSrc).count;
+			pairs.resize(size);
+			for (int i = 0; i < size; i++) {
+				pairs.get(i).setTo(i, i);
+			}
+			return true;
+		}
+
+		PairInfo info = lookupPairInfo(imageIndexSrc, imageIndexDst);
+		if (info == null)
+			return false;
+
+		// Make sure the src and dst matches the function's arguments
+		boolean swap = info.src != imageIndexSrc;
+
+		pairs.resize(info.matches.count);
+		try {
+			for (int i = 0; i < info.matches.count; i++) {
+				ByteBuffer page = matches.page(info.matches.first + i);
+				int offset = matches.offset(info.matches.first + i);
+				int src = page.getInt(offset);
+				int dst = page.getInt(offset + 4);
+				if (swap)
+					pairs.get(i).setTo(dst, src);
+				else
+					pairs.get(i).setTo(src, dst);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return true;
+	}
+
+	@Override public void lookupShape( String target, ImageDimension shape ) {
+		shape.setTo(imageShapes.get(lookupImageIndex(target)));
+	}
+
+	private int lookupImageIndex( String target ) {
+		int imageIndex = imageToIndex.get(target);
+		if (imageIndex == -1)
+			throw new IllegalArgumentException("Unknown view=" + target);
+		return imageIndex;
+	}
+
+	/**
+	 * Finds the Pair info for the two images. If they are not paired then null is returned
+	 */
+	protected @Nullable PairInfo lookupPairInfo( int imageIndexA, int imageIndexB ) {
+		DogArray_I32 indexes = imageToPairIndexes.get(imageIndexA);
+		for (int i = 0; i < indexes.size; i++) {
+			PairInfo pair = pairs.get(indexes.get(i));
+			if (pair.other(imageIndexA) == imageIndexB)
+				return pair;
+		}
+		return null;
+	}
+
+	/**
+	 * Number of bytes needed to encode the description
+	 */
+	public static <TD extends TupleDesc<TD>> int computeDescriptionBytes( TD desc ) {
+		if (desc instanceof TupleDesc_F64) {
+			return desc.size()*8;
+		} else if (desc instanceof TupleDesc_F32) {
+			return desc.size()*4;
+		} else if (desc instanceof TupleDesc_I8) {
+			return desc.size();
+		} else if (desc instanceof TupleDesc_B) {
+			return ((TupleDesc_B)desc).data.length*4;
+		} else {
+			throw new IllegalArgumentException("Unknown type " + desc.getClass().getSimpleName());
+		}
+	}
+
+	static <TD extends TupleDesc<TD>> void writeDescription( TD tuple, ByteBuffer buffer ) {
+		if (tuple instanceof TupleDesc_F64) {
+			var desc = (TupleDesc_F64)tuple;
+			for (int i = 0; i < desc.size(); i++) {
+				buffer.putDouble(desc.data[i]);
+			}
+		} else if (tuple instanceof TupleDesc_F32) {
+			var desc = (TupleDesc_F32)tuple;
+			for (int i = 0; i < desc.size(); i++) {
+				buffer.putFloat(desc.data[i]);
+			}
+		} else if (tuple instanceof TupleDesc_I8) {
+			var desc = (TupleDesc_I8)tuple;
+			buffer.put(desc.data, 0, desc.size());
+		} else if (tuple instanceof TupleDesc_B) {
+			var desc = (TupleDesc_B)tuple;
+			for (int i = 0; i < desc.data.length; i++) {
+				buffer.putInt(desc.data[i]);
+			}
+		} else {
+			throw new IllegalArgumentException("Unknown type " + tuple.getClass().getSimpleName());
+		}
+	}
+
+	static <TD extends TupleDesc<TD>> void readDescription( ByteBuffer buffer, int offset, TD tuple ) {
+		if (tuple instanceof TupleDesc_F64) {
+			var desc = (TupleDesc_F64)tuple;
+			for (int i = 0; i < desc.size(); i++) {
+				desc.data[i] = buffer.getDouble(offset + i*8);
+			}
+		} else if (tuple instanceof TupleDesc_F32) {
+			var desc = (TupleDesc_F32)tuple;
+			for (int i = 0; i < desc.size(); i++) {
+				desc.data[i] = buffer.getFloat(offset + i*4);
+			}
+		} else if (tuple instanceof TupleDesc_I8) {
+			var desc = (TupleDesc_I8)tuple;
+			for (int i = 0; i < desc.size(); i++) {
+				desc.data[i] = buffer.get(offset + i);
+			}
+		} else if (tuple instanceof TupleDesc_B) {
+			var desc = (TupleDesc_B)tuple;
+			for (int i = 0; i < desc.data.length; i++) {
+				desc.data[i] = buffer.getInt(offset + i*4);
+			}
+		} else {
+			throw new IllegalArgumentException("Unknown type " + tuple.getClass().getSimpleName());
+		}
+	}
+
+	/** Range of elements inside a column file */
+	static class Span {
+		public long first;
+		public int count;
+	}
+
+	/**
+	 * Describes the relationship between two images
+	 */
+	protected static class PairInfo {
+		// Index of source image
+		public int src;
+		// Index of destination image
+		public int dst;
+		// Location of associated features in the matches file
+		public final Span matches = new Span();
+
+		public int other( int target ) {
+			if (src == target)
+				return dst;
+			if (dst == target)
+				return src;
+			throw new RuntimeException("BUG!");
+		}
+	}
+
+	/**
+	 * A file which stores fixed size elements. New elements are buffered and appended to the end of the file.
+	 * Elements are read by memory mapping the page they are in. The least recently used page is unmapped when
+	 * too many pages are mapped. Elements never cross a page boundary.
+	 */
+	static class Column implements Closeable {
+		final FileChannel channel;
+		// Number of bytes in a single element
+		final int elementBytes;
+		// Number of elements in a page
+		final int elementsPerPage;
+
+		/** Number of elements, including ones which have not been written to the file yet */
+		long size;
+		// Number of elements which have been written to the file
+		long sizeFile;
+
+		// Elements which have been added but not written yet
+		final ByteBuffer writeBuffer;
+
+		// Pages which are currently mapped, in least recently used order
+		final Map<Long, ByteBuffer> pages;
+
+		Column( File file, int elementBytes, int pageBytes, int maxPages ) throws IOException {
+			BoofMiscOps.checkTrue(pageBytes >= elementBytes, "Page must be able to hold at least one element");
+			this.elementBytes = elementBytes;
+			this.elementsPerPage = pageBytes/elementBytes;
+			this.channel = FileChannel.open(file.toPath(),
+					StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			this.sizeFile = channel.size()/elementBytes;
+			this.size = sizeFile;
+			this.writeBuffer = ByteBuffer.allocateDirect(Math.max(elementBytes, 1024*1024/elementBytes*elementBytes));
+			this.writeBuffer.order(ByteOrder.LITTLE_ENDIAN);
+			this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+				@Override protected boolean removeEldestEntry( Map.Entry<Long, ByteBuffer> eldest ) {
+					return size() > maxPages;
+				}
+			};
+		}
+
+		/**
+		 * Adds a new element and returns the buffer it should be written to. Exactly 'elementBytes' must be written.
+		 */
+		ByteBuffer append() throws IOException {
+			if (writeBuffer.remaining() < elementBytes)
+				flush();
+			size++;
+			return writeBuffer;
+		}
+
+		/** Writes all buffered elements to the file */
+		void flush() throws IOException {
+			if (writeBuffer.position() == 0)
+				return;
+			BoofMiscOps.checkEq(0, writeBuffer.position()%elementBytes, "BUG! Partial element written");
+			writeBuffer.flip();
+			long location = sizeFile*elementBytes;
+			while (writeBuffer.hasRemaining()) {
+				location += channel.write(writeBuffer, location);
+			}
+			writeBuffer.clear();
+
+			// The last page might have been mapped when it was only partially filled
+			pages.remove(sizeFile/elementsPerPage);
+			sizeFile = size;
+		}
+
+		/** Discards all elements after the specified number */
+		void truncate( long numElements ) throws IOException {
+			writeBuffer.clear();
+			pages.clear();
+			if (channel.size() > numElements*elementBytes)
+				channel.truncate(numElements*elementBytes);
+			size = sizeFile = Math.min(numElements, channel.size()/elementBytes);
+		}
+
+		/** Returns the page which contains the element. Use {@link #offset} to find where it's located. */
+		ByteBuffer page( long element ) throws IOException {
+			if (element >= size)
+				throw new IndexOutOfBoundsException(element + " >= " + size);
+			if (element >= sizeFile)
+				flush();
+
+			long pageIndex = element/elementsPerPage;
+			ByteBuffer page = pages.get(pageIndex);
+			if (page == null) {
+				long start = pageIndex*elementsPerPage*elementBytes;
+				long length = Math.min((long)elementsPerPage*elementBytes, sizeFile*elementBytes - start);
+				page = channel.map(FileChannel.MapMode.READ_ONLY, start, length).order(ByteOrder.LITTLE_ENDIAN);
+				pages.put(pageIndex, page);
+			}
+			return page;
+		}
+
+		/** Byte offset of the element inside its page */
+		int offset( long element ) {
+			return (int)(element%elementsPerPage)*elementBytes;
+		}
+
+		@Override public void close() throws IOException {
+			flush();
+			pages.clear();
+			channel.close();
+		}
+	}
+}
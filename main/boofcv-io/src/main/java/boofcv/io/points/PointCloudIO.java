@@ -18,6 +18,7 @@
 
 package boofcv.io.points;
 
+import boofcv.alg.cloud.PackedPointCloud_F32;
 import boofcv.alg.cloud.PointCloudReader;
 import boofcv.alg.cloud.PointCloudWriter;
 import boofcv.io.points.impl.PlyCodec;
@@ -62,6 +63,23 @@ public class PointCloudIO {
 	}
 
 
+	/**
+	 * Loads a point cloud into a {@link PackedPointCloud_F32}. This is the most memory efficient way to load
+	 * large point clouds since no object is created for each point.
+	 *
+	 * @param format Format of the point cloud
+	 * @param input Stream the point cloud is read from
+	 * @param storage (Optional) Storage for the point cloud. If null a new instance is created.
+	 * @return The loaded point cloud
+	 */
+	public static PackedPointCloud_F32
+	load3D( Format format, InputStream input, @Nullable PackedPointCloud_F32 storage ) throws IOException {
+		if (storage == null)
+			storage = new PackedPointCloud_F32();
+		load(format, input, storage);
+		return storage;
+	}
+
 	public static DogArray<Point3D_F32>
 	load3D32F( Format format , InputStream input , @Nullable DogArray<Point3D_F32> storage  ) throws IOException {
 		if( storage == null )
@@ -38,6 +38,9 @@ import java.util.List;
  * @author Peter Abeles
  */
 public class PlyCodec {
+	// Number of bytes read or written at once when processing binary data
+	private static final int BLOCK_BYTES = 64*1024;
+
 	public static void saveAscii( PointCloudReader cloud, boolean saveRgb, Writer outputWriter ) throws IOException {
 		outputWriter.write("ply\n");
 		outputWriter.write("format ascii 1.0\n");
@@ -100,20 +103,25 @@ public class PlyCodec {
 		}
 		outputWriter.write("end_header\n".getBytes(format));
 
+		// Points are written in large blocks since writing them one at a time is slow for large clouds
 		int end = dataLength*3;
-		var bytes = ByteBuffer.allocate(dataLength*3 + (saveRgb ? 3 : 0));
+		int pointBytes = dataLength*3 + (saveRgb ? 3 : 0);
+		int blockPoints = Math.max(1, BLOCK_BYTES/pointBytes);
+		var bytes = ByteBuffer.allocate(pointBytes*blockPoints);
 		bytes.order(order);
 		Point3D_F64 p = new Point3D_F64();
-		for (int i = 0; i < cloud.size(); i++) {
+		final int N = cloud.size();
+		int location = 0;
+		for (int i = 0; i < N; i++) {
 			cloud.get(i, p);
 			if (saveAsFloat) {
-				bytes.putFloat(0, (float)p.x);
-				bytes.putFloat(4, (float)p.y);
-				bytes.putFloat(8, (float)p.z);
+				bytes.putFloat(location, (float)p.x);
+				bytes.putFloat(location + 4, (float)p.y);
+				bytes.putFloat(location + 8, (float)p.z);
 			} else {
-				bytes.putDouble(0, p.x);
-				bytes.putDouble(8, p.y);
-				bytes.putDouble(16, p.z);
+				bytes.putDouble(location, p.x);
+				bytes.putDouble(location + 8, p.y);
+				bytes.putDouble(location + 16, p.z);
 			}
 
 			if (saveRgb) {
@@ -121,12 +129,18 @@ public class PlyCodec {
 				int r = (rgb >> 16) & 0xFF;
 				int g = (rgb >> 8) & 0xFF;
 				int b = rgb & 0xFF;
-				bytes.put(end, (byte)r);
-				bytes.put(end + 1, (byte)g);
-				bytes.put(end + 2, (byte)b);
+				bytes.put(location + end, (byte)r);
+				bytes.put(location + end + 1, (byte)g);
+				bytes.put(location + end + 2, (byte)b);
+			}
+			location += pointBytes;
+
+			if (location == bytes.capacity()) {
+				outputWriter.write(bytes.array(), 0, location);
+				location = 0;
 			}
-			outputWriter.write(bytes.array());
 		}
+		outputWriter.write(bytes.array(), 0, location);
 		outputWriter.flush();
 	}
 
@@ -269,8 +283,10 @@ public class PlyCodec {
 			totalBytes += dataWords.get(i).data.size;
 		}
 
-		final byte[] line = new byte[totalBytes];
-		final ByteBuffer bb = ByteBuffer.wrap(line);
+		// Read in blocks of points at once since reading them one at a time is slow for large clouds
+		final int blockPoints = Math.max(1, BLOCK_BYTES/totalBytes);
+		final byte[] block = new byte[totalBytes*blockPoints];
+		final ByteBuffer bb = ByteBuffer.wrap(block);
 		bb.order(order);
 
 		// storage for read in values
@@ -281,43 +297,56 @@ public class PlyCodec {
 		int r = -1, g = -1, b = -1;
 		double x = -1, y = -1, z = -1;
 
-		for (int i = 0; i < vertexCount; i++) {
-			int found = reader.read(line);
-			if (line.length != found)
-				throw new IOException("Read unexpected number of bytes. " + found + " vs " + line.length);
+		for (int i = 0; i < vertexCount; i += blockPoints) {
+			int pointsInBlock = Math.min(blockPoints, vertexCount - i);
+			readFully(reader, block, pointsInBlock*totalBytes);
 
 			int location = 0;
-
-			for (int j = 0; j < dataWords.size(); j++) {
-				DataWord d = dataWords.get(j);
-				switch (d.data) {
-					case FLOAT -> F64 = bb.getFloat(location);
-					case DOUBLE -> F64 = bb.getDouble(location);
-					case CHAR -> I32 = bb.get(location);
-					case UCHAR -> I32 = bb.get(location) & 0xFF;
-					case SHORT -> I32 = bb.getShort(location);
-					case USHORT -> I32 = bb.getShort(location) & 0xFFFF;
-					case INT -> I32 = bb.getInt(location);
-					case UINT -> I32 = bb.getInt(location); // NOTE: not really uint...
-					default -> throw new RuntimeException("Unsupported");
+			for (int pointIdx = 0; pointIdx < pointsInBlock; pointIdx++) {
+				for (int j = 0; j < dataWords.size(); j++) {
+					DataWord d = dataWords.get(j);
+					switch (d.data) {
+						case FLOAT -> F64 = bb.getFloat(location);
+						case DOUBLE -> F64 = bb.getDouble(location);
+						case CHAR -> I32 = bb.get(location);
+						case UCHAR -> I32 = bb.get(location) & 0xFF;
+						case SHORT -> I32 = bb.getShort(location);
+						case USHORT -> I32 = bb.getShort(location) & 0xFFFF;
+						case INT -> I32 = bb.getInt(location);
+						case UINT -> I32 = bb.getInt(location); // NOTE: not really uint...
+						default -> throw new RuntimeException("Unsupported");
+					}
+					location += d.data.size;
+					switch( d.var ) {
+						case X: x = F64; break;
+						case Y: y = F64; break;
+						case Z: z = F64; break;
+						case R: r = I32; break;
+						case G: g = I32; break;
+						case B: b = I32; break;
+						default: break;
+					}
 				}
-				location += d.data.size;
-				switch( d.var ) {
-					case X: x = F64; break;
-					case Y: y = F64; break;
-					case Z: z = F64; break;
-					case R: r = I32; break;
-					case G: g = I32; break;
-					case B: b = I32; break;
-					default: break;
+
+				if (rgb) {
+					output.add(x, y, z, r << 16 | g << 8 | b);
+				} else {
+					output.add(x, y, z);
 				}
 			}
+		}
+	}
 
-			if (rgb) {
-				output.add(x, y, z, r << 16 | g << 8 | b);
-			} else {
-				output.add(x, y, z);
-			}
+	/**
+	 * Reads the requested number of bytes. A single call to read() can return fewer bytes than requested.
+	 */
+	private static void readFully( InputStream reader, byte[] data, int length ) throws IOException {
+		int total = 0;
+		while (total < length) {
+			int found = reader.read(data, total, length - total);
+			if (found < 0)
+				throw new IOException("Read unexpected number of bytes. " + total + " vs " + length);
+			total += found;
 		}
 	}
 
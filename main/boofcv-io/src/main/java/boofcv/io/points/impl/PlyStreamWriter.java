@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.points.impl;
+
+import boofcv.alg.cloud.PointCloudWriter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes points to a binary PLY file as they are added, without needing to know the number of points in advance
+ * or keep them in memory. The header is written with a zero padded vertex count which is updated when the file
+ * is closed. Coordinates are saved as 4-byte floats using the same format as
+ * {@link PlyCodec#saveBinary PlyCodec}. Intended to be used with streaming sources, e.g. spilled voxels from
+ * a {@link boofcv.alg.mvs.VoxelHashFusion}.
+ *
+ * @author Peter Abeles
+ */
+public class PlyStreamWriter implements PointCloudWriter, Closeable {
+	// Number of digits used to store the vertex count
+	private static final int COUNT_DIGITS = 12;
+
+	private final FileChannel channel;
+	private final boolean saveRgb;
+	private final ByteBuffer buffer = ByteBuffer.allocate(1024*64).order(ByteOrder.BIG_ENDIAN);
+
+	// Location of the vertex count in the header
+	private final long countOffset;
+	// Number of points written
+	private long count;
+
+	/**
+	 * Creates the file and writes the header
+	 *
+	 * @param file (Input) File that will be written to. If it exists it's overwritten.
+	 * @param saveRgb if true it will save RGB information
+	 */
+	public PlyStreamWriter( File file, boolean saveRgb ) throws IOException {
+		this.saveRgb = saveRgb;
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+
+		String start = "ply\n" +
+				"format binary_big_endian 1.0\n" +
+				"comment Created using BoofCV!\n" +
+				"element vertex ";
+		String end = "\n" +
+				"property float x\n" +
+				"property float y\n" +
+				"property float z\n" +
+				(saveRgb ? "property uchar red\nproperty uchar green\nproperty uchar blue\n" : "") +
+				"end_header\n";
+
+		countOffset = start.length();
+		buffer.put(start.getBytes(StandardCharsets.UTF_8));
+		buffer.put(formatCount(0));
+		buffer.put(end.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override public void init( int estimatedSize ) {}
+
+	@Override public void add( double x, double y, double z ) {
+		add(x, y, z, 0);
+	}
+
+	@Override public void add( double x, double y, double z, int rgb ) {
+		if (buffer.remaining() < 15)
+			flushBuffer();
+
+		buffer.putFloat((float)x);
+		buffer.putFloat((float)y);
+		buffer.putFloat((float)z);
+		if (saveRgb) {
+			buffer.put((byte)(rgb >> 16));
+			buffer.put((byte)(rgb >> 8));
+			buffer.put((byte)rgb);
+		}
+		count++;
+	}
+
+	/** Number of points which have been written */
+	public long size() {
+		return count;
+	}
+
+	private void flushBuffer() {
+		try {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static byte[] formatCount( long count ) {
+		return String.format("%0" + COUNT_DIGITS + "d", count).getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes any buffered points, updates the vertex count in the header, and closes the file
+	 */
+	@Override public void close() throws IOException {
+		if (!channel.isOpen())
+			return;
+		try {
+			flushBuffer();
+			channel.write(ByteBuffer.wrap(formatCount(count)), countOffset);
+		} finally {
+			channel.close();
+		}
+	}
+}
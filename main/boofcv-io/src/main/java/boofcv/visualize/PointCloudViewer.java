@@ -18,7 +18,9 @@
 
 package boofcv.visualize;
 
+import boofcv.alg.cloud.PointCloudReader;
 import boofcv.struct.Point3dRgbI_F64;
+import georegression.struct.point.Point3D_F32;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.se.Se3_F64;
 import org.ddogleg.struct.DogArray;
@@ -72,6 +74,26 @@ public interface PointCloudViewer {
 
 	void addCloud(DogArray_F32 cloudXYZ , DogArray_I32 colorRGB );
 
+	/**
+	 * Adds a point cloud with color. The default implementation copies it into interleaved arrays.
+	 */
+	default void addCloud( PointCloudReader cloud ) {
+		int N = cloud.size();
+		var cloudXYZ = new DogArray_F32();
+		var colorRGB = new DogArray_I32();
+		cloudXYZ.resize(N*3);
+		colorRGB.resize(N);
+		var p = new Point3D_F32();
+		for (int i = 0; i < N; i++) {
+			cloud.get(i, p);
+			cloudXYZ.data[i*3] = p.x;
+			cloudXYZ.data[i*3 + 1] = p.y;
+			cloudXYZ.data[i*3 + 2] = p.z;
+			colorRGB.data[i] = cloud.getRGB(i);
+		}
+		addCloud(cloudXYZ, colorRGB);
+	}
+
 	/**
 	 * adds a single point to the point cloud. This method can be very slow compared to doing it in a batch
 	 */
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.geo;
+
+import boofcv.abst.geo.bundle.SceneObservations;
+import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.alg.sfm.structure.PairwiseImageGraph;
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static boofcv.io.geo.TestMultiViewIO.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+class TestMultiViewBinaryIO extends BoofStandardJUnit {
+	@Test void save_load_SceneStructureMetric() throws IOException {
+		for (int trial = 0; trial < 20; trial++) {
+			SceneStructureMetric expected = createSceneStructureMetric(rand);
+
+			var output = new ByteArrayOutputStream();
+			MultiViewBinaryIO.save(expected, output);
+
+			var input = new ByteArrayInputStream(output.toByteArray());
+			SceneStructureMetric found = MultiViewBinaryIO.load(input, (SceneStructureMetric)null);
+			assertTrue(expected.isIdentical(found, 0.0));
+		}
+	}
+
+	/**
+	 * Large enough that the points are split across multiple chunks. Also tests memory mapped loading.
+	 */
+	@Test void save_load_SceneStructureMetric_Mapped_MultipleChunks() throws IOException {
+		SceneStructureMetric expected = createSceneStructureMetric(rand);
+		expected.points.resize(100_000);
+		expected.points.forEach(p -> randomizePoint(rand, p));
+
+		File file = File.createTempFile("scene", ".bin");
+		try {
+			MultiViewBinaryIO.save(expected, file.getPath());
+			assertTrue(file.length() > 2*MultiViewBinaryIO.CHUNK_BYTES);
+
+			SceneStructureMetric found = MultiViewBinaryIO.load(file.getPath(), (SceneStructureMetric)null);
+			assertTrue(expected.isIdentical(found, 0.0));
+		} finally {
+			assertTrue(file.delete());
+		}
+	}
+
+	@Test void save_load_SceneObservations() throws IOException {
+		for (int trial = 0; trial < 20; trial++) {
+			SceneObservations expected = createObservations(trial%2 == 0);
+
+			var output = new ByteArrayOutputStream();
+			MultiViewBinaryIO.save(expected, output);
+
+			var input = new ByteArrayInputStream(output.toByteArray());
+			SceneObservations found = MultiViewBinaryIO.load(input, (SceneObservations)null);
+			checkIdentical(expected, found);
+		}
+	}
+
+	@Test void save_load_SceneObservations_Mapped() throws IOException {
+		SceneObservations expected = createObservations(true);
+
+		File file = File.createTempFile("observations", ".bin");
+		try {
+			MultiViewBinaryIO.save(expected, file.getPath());
+			SceneObservations found = MultiViewBinaryIO.load(file.getPath(), (SceneObservations)null);
+			checkIdentical(expected, found);
+		} finally {
+			assertTrue(file.delete());
+		}
+	}
+
+	private SceneObservations createObservations( boolean rigid ) {
+		var ret = new SceneObservations();
+		ret.initialize(rand.nextInt(10) + 1, rigid);
+		ret.views.forEach(v -> randomizeView(v));
+		ret.viewsRigid.forEach(v -> randomizeView(v));
+		return ret;
+	}
+
+	private void randomizeView( SceneObservations.View v ) {
+		int N = rand.nextInt(50);
+		for (int i = 0; i < N; i++) {
+			v.add(rand.nextInt(), rand.nextFloat(), rand.nextFloat());
+		}
+	}
+
+	private void checkIdentical( SceneObservations a, SceneObservations b ) {
+		assertEquals(a.views.size, b.views.size);
+		assertEquals(a.hasRigid(), b.hasRigid());
+		for (int viewIdx = 0; viewIdx < a.views.size; viewIdx++) {
+			checkIdentical(a.views.get(viewIdx), b.views.get(viewIdx));
+			if (a.hasRigid())
+				checkIdentical(a.viewsRigid.get(viewIdx), b.viewsRigid.get(viewIdx));
+		}
+	}
+
+	private void checkIdentical( SceneObservations.View a, SceneObservations.View b ) {
+		assertEquals(a.size(), b.size());
+		for (int i = 0; i < a.size(); i++) {
+			assertEquals(a.point.get(i), b.point.get(i));
+			assertEquals(a.observations.get(i*2), b.observations.get(i*2));
+			assertEquals(a.observations.get(i*2 + 1), b.observations.get(i*2 + 1));
+		}
+	}
+
+	@Test void save_load_PairwiseImageGraph() throws IOException {
+		for (int trial = 0; trial < 20; trial++) {
+			PairwiseImageGraph expected = createPairwise(rand);
+
+			var output = new ByteArrayOutputStream();
+			MultiViewBinaryIO.save(expected, output);
+
+			var input = new ByteArrayInputStream(output.toByteArray());
+			PairwiseImageGraph found = MultiViewBinaryIO.load(input, (PairwiseImageGraph)null);
+			TestMultiViewIO.checkIdentical(expected, found);
+		}
+	}
+
+	@Test void save_load_PairwiseImageGraph_Mapped() throws IOException {
+		PairwiseImageGraph expected = createPairwise(rand);
+
+		File file = File.createTempFile("pairwise", ".bin");
+		try {
+			MultiViewBinaryIO.save(expected, file.getPath());
+			PairwiseImageGraph found = MultiViewBinaryIO.load(file.getPath(), (PairwiseImageGraph)null);
+			TestMultiViewIO.checkIdentical(expected, found);
+		} finally {
+			assertTrue(file.delete());
+		}
+	}
+
+	/**
+	 * Reading the wrong data type should fail
+	 */
+	@Test void wrongDataType() throws IOException {
+		var output = new ByteArrayOutputStream();
+		MultiViewBinaryIO.save(createPairwise(rand), output);
+
+		var input = new ByteArrayInputStream(output.toByteArray());
+		assertThrows(IOException.class, () -> MultiViewBinaryIO.load(input, (SceneStructureMetric)null));
+	}
+
+	/**
+	 * Unknown chunks should be skipped so that new chunks can be added without breaking old readers
+	 */
+	@Test void skipUnknownChunks() throws IOException {
+		SceneObservations expected = createObservations(false);
+
+		var output = new ByteArrayOutputStream();
+		var writer = new MultiViewBinaryIO.ChunkWriter(output, MultiViewBinaryIO.TYPE_OBSERVATIONS);
+		writer.begin(MultiViewBinaryIO.TAG_HEADER);
+		writer.putInt(expected.views.size);
+		writer.putBoolean(false);
+		writer.end();
+		writer.begin(MultiViewBinaryIO.tag("ABCD"));
+		writer.putDouble(1.0);
+		writer.putString("unknown");
+		writer.end();
+		writer.beginElements(MultiViewBinaryIO.TAG_OBS_GENERAL);
+		for (int i = 0; i < expected.views.size; i++) {
+			SceneObservations.View v = expected.views.get(i);
+			writer.putInt(v.size());
+			writer.putInts(v.point.data, v.size());
+			writer.putFloats(v.observations.data, v.size()*2);
+			writer.nextElement();
+		}
+		writer.endElements();
+		writer.finish();
+
+		var input = new ByteArrayInputStream(output.toByteArray());
+		checkIdentical(expected, MultiViewBinaryIO.load(input, (SceneObservations)null));
+	}
+}
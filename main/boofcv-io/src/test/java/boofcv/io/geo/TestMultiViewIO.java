@@ -37,6 +37,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.util.Random;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,7 +49,7 @@ class TestMultiViewIO extends BoofStandardJUnit {
 
 	@Test void save_load_PairwiseImageGraph() {
 		for (int trial = 0; trial < 20; trial++) {
-			PairwiseImageGraph expected = createPairwise();
+			PairwiseImageGraph expected = createPairwise(rand);
 
 			var output = new ByteArrayOutputStream();
 			MultiViewIO.save(expected, new OutputStreamWriter(output, UTF_8));
@@ -59,7 +60,7 @@ class TestMultiViewIO extends BoofStandardJUnit {
 		}
 	}
 
-	private void checkIdentical( PairwiseImageGraph a, PairwiseImageGraph b ) {
+	static void checkIdentical( PairwiseImageGraph a, PairwiseImageGraph b ) {
 		assertEquals(a.edges.size, b.edges.size);
 		assertEquals(a.nodes.size, b.nodes.size);
 		assertEquals(a.mapNodes.size(), b.mapNodes.size());
@@ -103,7 +104,7 @@ class TestMultiViewIO extends BoofStandardJUnit {
 		}
 	}
 
-	private PairwiseImageGraph createPairwise() {
+	static PairwiseImageGraph createPairwise( Random rand ) {
 		var ret = new PairwiseImageGraph();
 
 		ret.nodes.resize(rand.nextInt(10) + 1);
@@ -140,7 +141,7 @@ class TestMultiViewIO extends BoofStandardJUnit {
 
 	@Test void save_load_SceneWorkingGraph() {
 		for (int trial = 0; trial < 20; trial++) {
-			PairwiseImageGraph pairwise = createPairwise();
+			PairwiseImageGraph pairwise = createPairwise(rand);
 			SceneWorkingGraph expected = createWorkingGraph(pairwise);
 
 			var output = new ByteArrayOutputStream();
@@ -229,7 +230,7 @@ class TestMultiViewIO extends BoofStandardJUnit {
 
 	@Test void save_load_SceneStructureMetric() {
 		for (int trial = 0; trial < 20; trial++) {
-			SceneStructureMetric expected = createSceneStructureMetric();
+			SceneStructureMetric expected = createSceneStructureMetric(rand);
 
 			var output = new ByteArrayOutputStream();
 			MultiViewIO.save(expected, new OutputStreamWriter(output, UTF_8));
@@ -240,7 +241,7 @@ class TestMultiViewIO extends BoofStandardJUnit {
 		}
 	}
 
-	private SceneStructureMetric createSceneStructureMetric() {
+	static SceneStructureMetric createSceneStructureMetric( Random rand ) {
 		var ret = new SceneStructureMetric(rand.nextBoolean());
 
 		int numMotions = 1 + rand.nextInt(4);
@@ -271,12 +272,12 @@ class TestMultiViewIO extends BoofStandardJUnit {
 			r.points = new SceneStructureCommon.Point[rand.nextInt(4)];
 			for (int j = 0; j < r.points.length; j++) {
 				r.points[j] = new SceneStructureCommon.Point(ret.isHomogenous() ? 4 : 3);
-				randomizePoint(r.points[j]);
+				randomizePoint(rand, r.points[j]);
 			}
 		}
 
 		for (int i = 0; i < ret.points.size; i++) {
-			randomizePoint(ret.points.data[i]);
+			randomizePoint(rand, ret.points.data[i]);
 		}
 
 		for (int i = 0; i < ret.cameras.size; i++) {
@@ -292,7 +293,7 @@ class TestMultiViewIO extends BoofStandardJUnit {
 		return ret;
 	}
 
-	private void randomizePoint( SceneStructureCommon.Point p ) {
+	static void randomizePoint( Random rand, SceneStructureCommon.Point p ) {
 		p.views.resize(rand.nextInt(4));
 		p.views.forIdx(( iv, v ) -> p.views.set(iv, rand.nextInt(4)));
 		for (int i = 0; i < p.coordinate.length; i++) {
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.geo;
+
+import boofcv.alg.sfm.structure.GenericLookUpSimilarImagesChecks;
+import boofcv.alg.sfm.structure.LookUpSimilarImages;
+import boofcv.io.UtilIO;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.feature.TupleDesc_F64;
+import boofcv.struct.image.ImageDimension;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+class TestSimilarImagesDiskStore extends GenericLookUpSimilarImagesChecks {
+	int numViews = 5;
+	int numFeaturesPerView = 11;
+	int dof = 6;
+
+	// Directories which need to be deleted after each test
+	List<File> directories = new ArrayList<>();
+	List<SimilarImagesDiskStore> stores = new ArrayList<>();
+
+	@AfterEach void cleanup() {
+		for (SimilarImagesDiskStore s : stores) {
+			if (s.pixels.channel.isOpen())
+				s.close();
+		}
+		directories.forEach(UtilIO::deleteRecursive);
+	}
+
+	@Override public <T extends LookUpSimilarImages> T createFullyLoaded() {
+		SimilarImagesDiskStore alg = track(SimilarImagesDiskStore.create(createDirectory(), 0));
+		addImages(alg, 0, numViews, false);
+		addMatches(alg, 0, numViews);
+		return (T)alg;
+	}
+
+	/**
+	 * Save everything, reopen it, and see if anything changed
+	 */
+	@Test void flush_open() {
+		File directory = createDirectory();
+		SimilarImagesDiskStore expected = track(SimilarImagesDiskStore.create(directory, dof*8));
+		addImages(expected, 0, numViews, true);
+		addMatches(expected, 0, numViews);
+		expected.flush();
+
+		SimilarImagesDiskStore found = track(SimilarImagesDiskStore.open(directory));
+		checkIdentical(expected, found);
+		checkIdenticalDescriptions(expected, found);
+	}
+
+	/**
+	 * Reopen a store then add more images to it
+	 */
+	@Test void open_addMore() {
+		File directory = createDirectory();
+		SimilarImagesDiskStore original = SimilarImagesDiskStore.create(directory, dof*8);
+		addImages(original, 0, 3, true);
+		addMatches(original, 0, 3);
+		original.close();
+
+		SimilarImagesDiskStore expanded = track(SimilarImagesDiskStore.open(directory));
+		addImages(expanded, 3, numViews, true);
+		addMatches(expanded, 3, numViews);
+		expanded.close();
+
+		// Create the same thing all at once
+		SimilarImagesDiskStore expected = track(SimilarImagesDiskStore.create(createDirectory(), dof*8));
+		addImages(expected, 0, 3, true);
+		addMatches(expected, 0, 3);
+		addImages(expected, 3, numViews, true);
+		addMatches(expected, 3, numViews);
+
+		SimilarImagesDiskStore found = track(SimilarImagesDiskStore.open(directory));
+		checkIdentical(expected, found);
+		checkIdenticalDescriptions(expected, found);
+	}
+
+	/**
+	 * Anything written after the index was last saved should be ignored
+	 */
+	@Test void open_discardNotInIndex() throws IOException {
+		File directory = createDirectory();
+		SimilarImagesDiskStore alg = SimilarImagesDiskStore.create(directory, 0);
+		addImages(alg, 0, 2, false);
+		alg.flush();
+		long bytesPixels = alg.pixels.channel.size();
+
+		// Write more data to the column files but not the index, then simulate a crash
+		addImages(alg, 2, 3, false);
+		alg.pixels.close();
+		alg.matches.close();
+		assertTrue(bytesPixels < new File(directory, SimilarImagesDiskStore.FILE_PIXELS).length());
+
+		SimilarImagesDiskStore found = track(SimilarImagesDiskStore.open(directory));
+		assertEquals(2, found.getImageIDs().size());
+		assertEquals(bytesPixels, found.pixels.channel.size());
+	}
+
+	/**
+	 * Tiny pages so that features span multiple pages and least recently used pages are unmapped
+	 */
+	@Test void smallPages() {
+		SimilarImagesDiskStore expected = track(SimilarImagesDiskStore.create(createDirectory(), dof*8));
+		addImages(expected, 0, numViews, true);
+		addMatches(expected, 0, numViews);
+
+		SimilarImagesDiskStore found = track(SimilarImagesDiskStore.create(createDirectory(), dof*8, 64, 2));
+		addImages(found, 0, numViews, true);
+		addMatches(found, 0, numViews);
+
+		checkIdentical(expected, found);
+		checkIdenticalDescriptions(expected, found);
+		assertTrue(found.pixels.pages.size() <= 2);
+		assertTrue(found.matches.pages.size() <= 2);
+		assertTrue(found.descriptions.pages.size() <= 2);
+	}
+
+	/**
+	 * Lookups should work on data which has been added but not yet flushed
+	 */
+	@Test void lookupBeforeFlush() {
+		SimilarImagesDiskStore alg = track(SimilarImagesDiskStore.create(createDirectory(), 0));
+		addImages(alg, 0, 1, false);
+
+		var features = new DogArray<>(Point2D_F64::new);
+		alg.lookupPixelFeats("0", features);
+		assertEquals(numFeaturesPerView, features.size);
+
+		// Add another image after a page has been mapped
+		addImages(alg, 1, 2, false);
+		alg.lookupPixelFeats("1", features);
+		assertEquals(numFeaturesPerView + 1, features.size);
+		assertEquals(1.0, features.get(0).y, 1e-6);
+	}
+
+	@Test void createFrom() {
+		SimilarImagesDiskStore expected = createFullyLoaded();
+		SimilarImagesDiskStore found = track(SimilarImagesDiskStore.createFrom(expected, createDirectory()));
+		checkIdentical(expected, found);
+	}
+
+	@Test void addImage_duplicateID() {
+		SimilarImagesDiskStore alg = createFullyLoaded();
+		assertThrows(IllegalArgumentException.class, () ->
+				alg.addImage("0", new ImageDimension(10, 10), new DogArray<>(Point2D_F64::new)));
+	}
+
+	@Test void addMatches_alreadyPaired() {
+		SimilarImagesDiskStore alg = createFullyLoaded();
+		var associated = new DogArray<>(AssociatedIndex::new);
+		assertThrows(IllegalArgumentException.class, () -> alg.addMatches("0", "1", associated));
+		assertThrows(IllegalArgumentException.class, () -> alg.addMatches("1", "0", associated));
+	}
+
+	/**
+	 * Adds images with features that are deterministic so the same images can be added to multiple stores
+	 */
+	private void addImages( SimilarImagesDiskStore alg, int idx0, int idx1, boolean withDescriptions ) {
+		for (int viewIdx = idx0; viewIdx < idx1; viewIdx++) {
+			int numFeatures = numFeaturesPerView + viewIdx;
+			var features = new DogArray<>(Point2D_F64::new);
+			var descs = new DogArray<>(() -> new TupleDesc_F64(dof));
+			for (int i = 0; i < numFeatures; i++) {
+				features.grow().setTo(i + 0.5, viewIdx);
+				TupleDesc_F64 desc = descs.grow();
+				for (int j = 0; j < dof; j++) {
+					desc.data[j] = viewIdx*100 + i*10 + j;
+				}
+			}
+			alg.addImage("" + viewIdx, new ImageDimension(30 + viewIdx, 40), features,
+					withDescriptions ? descs : null);
+		}
+	}
+
+	/**
+	 * Connects every image in the range to every image before it
+	 */
+	private void addMatches( SimilarImagesDiskStore alg, int idx0, int idx1 ) {
+		var associated = new DogArray<>(AssociatedIndex::new);
+		for (int viewIdx = idx0; viewIdx < idx1; viewIdx++) {
+			for (int connView = 0; connView < viewIdx; connView++) {
+				associated.reset();
+				for (int i = 0; i < numFeaturesPerView; i++) {
+					associated.grow().setTo(i, (i + viewIdx)%numFeaturesPerView);
+				}
+				alg.addMatches("" + connView, "" + viewIdx, associated);
+			}
+		}
+	}
+
+	private void checkIdentical( LookUpSimilarImages expected, LookUpSimilarImages found ) {
+		assertEquals(expected.getImageIDs(), found.getImageIDs());
+
+		var shapeA = new ImageDimension();
+		var shapeB = new ImageDimension();
+		var featuresA = new DogArray<>(Point2D_F64::new);
+		var featuresB = new DogArray<>(Point2D_F64::new);
+		var similarA = new ArrayList<String>();
+		var similarB = new ArrayList<String>();
+		var pairsA = new DogArray<>(AssociatedIndex::new);
+		var pairsB = new DogArray<>(AssociatedIndex::new);
+
+		for (String id : expected.getImageIDs()) {
+			expected.lookupShape(id, shapeA);
+			found.lookupShape(id, shapeB);
+			assertEquals(shapeA, shapeB);
+
+			expected.lookupPixelFeats(id, featuresA);
+			found.lookupPixelFeats(id, featuresB);
+			assertEquals(featuresA.size, featuresB.size);
+			for (int i = 0; i < featuresA.size; i++) {
+				assertEquals(0.0, featuresA.get(i).distance(featuresB.get(i)), 1e-4);
+			}
+
+			expected.findSimilar(id, similarA);
+			found.findSimilar(id, similarB);
+			assertEquals(similarA, similarB);
+
+			for (String other : similarA) {
+				assertTrue(expected.lookupMatches(id, other, pairsA));
+				assertTrue(found.lookupMatches(id, other, pairsB));
+				assertEquals(pairsA.size, pairsB.size);
+				for (int i = 0; i < pairsA.size; i++) {
+					assertEquals(pairsA.get(i).src, pairsB.get(i).src);
+					assertEquals(pairsA.get(i).dst, pairsB.get(i).dst);
+				}
+			}
+		}
+	}
+
+	private void checkIdenticalDescriptions( SimilarImagesDiskStore expected, SimilarImagesDiskStore found ) {
+		var descsA = new DogArray<>(() -> new TupleDesc_F64(dof));
+		var descsB = new DogArray<>(() -> new TupleDesc_F64(dof));
+		for (String id : expected.getImageIDs()) {
+			expected.lookupDescriptions(id, descsA);
+			found.lookupDescriptions(id, descsB);
+			assertEquals(descsA.size, descsB.size);
+			for (int i = 0; i < descsA.size; i++) {
+				assertArrayEquals(descsA.get(i).data, descsB.get(i).data);
+			}
+		}
+	}
+
+	private SimilarImagesDiskStore track( SimilarImagesDiskStore store ) {
+		stores.add(store);
+		return store;
+	}
+
+	private File createDirectory() {
+		try {
+			File directory = Files.createTempDirectory("similar").toFile();
+			directories.add(directory);
+			return directory;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
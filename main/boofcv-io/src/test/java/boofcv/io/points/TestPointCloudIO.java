@@ -18,6 +18,7 @@
 
 package boofcv.io.points;
 
+import boofcv.alg.cloud.PackedPointCloud_F32;
 import boofcv.alg.cloud.PointCloudReader;
 import boofcv.io.points.PointCloudIO.Format;
 import boofcv.testing.BoofStandardJUnit;
@@ -35,6 +36,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * @author Peter Abeles
@@ -89,4 +91,34 @@ class TestPointCloudIO extends BoofStandardJUnit {
 			}
 		}
 	}
+
+	@Test
+	void encode_decode_packed() throws IOException {
+		var expected = new PackedPointCloud_F32();
+		for (int i = 0; i < 10; i++) {
+			expected.add(i*123.45, i - 1.01, i + 2.34, i*1000);
+		}
+
+		Format[] formats = new Format[]{Format.PLY};
+		for (Format f : formats) {
+			var found = new PackedPointCloud_F32();
+			found.add(1, 1, 1);
+
+			var stream = new ByteArrayOutputStream();
+			PointCloudIO.save3D(f, expected, true, stream);
+			InputStream input = new ByteArrayInputStream(stream.toByteArray());
+			assertSame(found, PointCloudIO.load3D(f, input, found));
+
+			// make sure it cleared the points
+			assertEquals(expected.size(), found.size());
+			var pe = new Point3D_F64();
+			var pf = new Point3D_F64();
+			for (int i = 0; i < expected.size(); i++) {
+				expected.get(i, pe);
+				found.get(i, pf);
+				assertEquals(0.0, pe.distance(pf), UtilEjml.TEST_F32);
+				assertEquals(expected.getRGB(i), found.getRGB(i));
+			}
+		}
+	}
 }
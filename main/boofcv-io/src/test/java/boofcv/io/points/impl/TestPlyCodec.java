@@ -18,6 +18,7 @@
 
 package boofcv.io.points.impl;
 
+import boofcv.alg.cloud.PackedPointCloud_F32;
 import boofcv.alg.cloud.PointCloudReader;
 import boofcv.alg.cloud.PointCloudWriter;
 import boofcv.struct.Point3dRgbI_F64;
@@ -136,4 +137,35 @@ class TestPlyCodec extends BoofStandardJUnit {
 			}
 		}
 	}
+
+	/**
+	 * Large enough that multiple blocks are read and written. The input stream will only return a few bytes
+	 * with each read
+	 */
+	@Test
+	void encode_decode_binary_multipleBlocks() throws IOException {
+		var expected = new PackedPointCloud_F32();
+		for (int i = 0; i < 20_000; i++) {
+			expected.add(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), rand.nextInt(0xFFFFFF));
+		}
+
+		var output = new ByteArrayOutputStream();
+		PlyCodec.saveBinary(expected, ByteOrder.BIG_ENDIAN, true, true, output);
+		InputStream input = new ByteArrayInputStream(output.toByteArray()) {
+			@Override public synchronized int read( byte[] b, int off, int len ) {
+				return super.read(b, off, Math.min(len, 7));
+			}
+		};
+
+		var found = new PackedPointCloud_F32();
+		PlyCodec.read(input, found);
+
+		assertEquals(expected.size(), found.size());
+		for (int i = 0; i < found.size(); i++) {
+			assertEquals(expected.x.get(i), found.x.get(i));
+			assertEquals(expected.y.get(i), found.y.get(i));
+			assertEquals(expected.z.get(i), found.z.get(i));
+			assertEquals(expected.rgb.get(i), found.rgb.get(i));
+		}
+	}
 }
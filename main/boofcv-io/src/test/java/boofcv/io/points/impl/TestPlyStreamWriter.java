@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.points.impl;
+
+import boofcv.alg.cloud.PointCloudWriter;
+import boofcv.alg.mvs.VoxelHashFusion;
+import boofcv.struct.Point3dRgbI_F64;
+import boofcv.testing.BoofStandardJUnit;
+import org.ddogleg.struct.DogArray;
+import org.ejml.UtilEjml;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+class TestPlyStreamWriter extends BoofStandardJUnit {
+	File file;
+
+	@BeforeEach void createFile() throws IOException {
+		file = Files.createTempFile("boofcv", ".ply").toFile();
+	}
+
+	@AfterEach void deleteFile() {
+		file.delete();
+	}
+
+	/**
+	 * Write more points than can fit in the buffer then read it back in
+	 */
+	@Test void encode_decode() throws IOException {
+		for (boolean saveRgb : new boolean[]{false, true}) {
+			var expected = new DogArray<>(Point3dRgbI_F64::new);
+			try (var alg = new PlyStreamWriter(file, saveRgb)) {
+				for (int i = 0; i < 10_000; i++) {
+					Point3dRgbI_F64 p = expected.grow();
+					p.set(i*0.5, i - 1.0, i + 2.0, saveRgb ? (i*31) & 0xFFFFFF : 0);
+					alg.add(p.x, p.y, p.z, p.rgb);
+				}
+				assertEquals(expected.size, alg.size());
+			}
+
+			var found = new DogArray<>(Point3dRgbI_F64::new);
+			try (InputStream input = new FileInputStream(file)) {
+				PlyCodec.read(input, PointCloudWriter.wrapF64RGB(found));
+			}
+
+			assertEquals(expected.size, found.size);
+			for (int i = 0; i < found.size; i++) {
+				assertEquals(0.0, found.get(i).distance(expected.get(i)), UtilEjml.TEST_F32);
+				assertEquals(expected.get(i).rgb, found.get(i).rgb);
+			}
+		}
+	}
+
+	/**
+	 * Spill voxels to the file while fusing
+	 */
+	@Test void spillVoxels() throws IOException {
+		var fusion = new VoxelHashFusion();
+		fusion.voxelSize = 1.0;
+		fusion.spillAge = 1;
+		try (var alg = new PlyStreamWriter(file, false)) {
+			fusion.setSpillTo(alg);
+			for (int view = 0; view < 20; view++) {
+				fusion.add(view + 0.2, 0, 0);
+				fusion.add(view + 0.8, 0, 0);
+				fusion.finishedView();
+				// only the voxel from this view should be in memory
+				assertEquals(1, fusion.size());
+			}
+			fusion.spillAll();
+		}
+
+		var found = new DogArray<>(Point3dRgbI_F64::new);
+		try (InputStream input = new FileInputStream(file)) {
+			PlyCodec.read(input, PointCloudWriter.wrapF64RGB(found));
+		}
+
+		assertEquals(20, found.size);
+		for (int i = 0; i < found.size; i++) {
+			assertEquals(i + 0.5, found.get(i).x, UtilEjml.TEST_F32);
+		}
+	}
+}
@@ -19,6 +19,8 @@
 package boofcv.alg.mvs;
 
 import boofcv.alg.InputSanityCheck;
+import boofcv.alg.cloud.PackedPointCloud_F32;
+import boofcv.core.image.LookUpColorRgb;
 import boofcv.struct.calib.CameraPinhole;
 import boofcv.struct.distort.PixelTransform;
 import boofcv.struct.distort.Point2Transform2_F64;
@@ -30,8 +32,9 @@ import georegression.struct.point.Point3D_F64;
 import georegression.struct.se.Se3_F64;
 import georegression.transform.se.SePointOps_F64;
 import lombok.Getter;
-import org.ddogleg.struct.DogArray;
+import lombok.Setter;
 import org.ddogleg.struct.DogArray_I32;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 
@@ -40,6 +43,11 @@ import java.util.List;
  * to the cloud. Initially the cloud is kept in separate lists to make it easy to see which view contributed
  * what points to the cloud.
  *
+ * <p>For large scenes a {@link VoxelHashFusion} can be specified using {@link #setFusion}. Points are then
+ * fused into the voxel grid instead of being added to {@link #getCloud()}, which merges redundant points across
+ * views and allows the cloud to be written out incrementally. Since the points are no longer available after
+ * being fused, their color needs to be provided when the disparity image is added.</p>
+ *
  * @author Peter Abeles
  */
 public class CreateCloudFromDisparityImages {
@@ -50,15 +58,20 @@ public class CreateCloudFromDisparityImages {
 	 */
 	public double disparitySimilarTol = 1.0;
 
-	/** List of all the points in the cloud */
-	final @Getter DogArray<Point3D_F64> cloud = new DogArray<>(Point3D_F64::new, p -> p.setTo(0, 0, 0));
+	/** All the points in the cloud */
+	final @Getter PackedPointCloud_F32 cloud = new PackedPointCloud_F32();
 	/** List of indices which specify the cloud size when a view 'i' was added. idx[i] &le; cloud < idx[i+1] */
 	final @Getter DogArray_I32 viewPointIdx = new DogArray_I32();
 
+	/** If not null then points are fused into this instead of being added to {@link #cloud} */
+	@Getter @Setter @Nullable VoxelHashFusion fusion;
+
 	/**
 	 * Clears previously added views and points.
 	 */
 	public void reset() {
+		if (fusion != null)
+			fusion.reset();
 		cloud.reset();
 		viewPointIdx.reset();
 		viewPointIdx.add(0);
@@ -71,8 +84,18 @@ public class CreateCloudFromDisparityImages {
 	 * @return The index of the view that can be used to retrieve the specified points added
 	 */
 	public int addCloud( List<Point3D_F64> cloud ) {
-		viewPointIdx.add(this.cloud.size + cloud.size());
-		this.cloud.copyAll(cloud, ( s, d ) -> d.setTo(s));
+		if (fusion != null) {
+			for (int i = 0; i < cloud.size(); i++) {
+				Point3D_F64 p = cloud.get(i);
+				fusion.add(p.x, p.y, p.z);
+			}
+			fusion.finishedView();
+			viewPointIdx.add(this.cloud.size());
+			return this.viewPointIdx.size - 1;
+		}
+
+		viewPointIdx.add(this.cloud.size() + cloud.size());
+		this.cloud.addAll(cloud);
 		return this.viewPointIdx.size - 1;
 	}
 
@@ -94,10 +117,28 @@ public class CreateCloudFromDisparityImages {
 	public int addDisparity( GrayF32 disparity, GrayU8 mask, Se3_F64 world_to_view, DisparityParameters parameters,
 							 Point2Transform2_F64 rectNorm_to_dispPixel,
 							 PixelTransform<Point2D_F64> dispPixel_to_rectNorm ) {
+		return addDisparity(disparity, mask, world_to_view, parameters, rectNorm_to_dispPixel,
+				dispPixel_to_rectNorm, null);
+	}
+
+	/**
+	 * Same as {@link #addDisparity(GrayF32, GrayU8, Se3_F64, DisparityParameters, Point2Transform2_F64, PixelTransform)}
+	 * but if a {@link #fusion} has been specified then the color of each point is also fused.
+	 *
+	 * @param colorLookup (Input) Color of each pixel in the disparity image. Only used with fusion. Can be null.
+	 * @return The index of the view that can be used to retrieve the specified points added
+	 */
+	public int addDisparity( GrayF32 disparity, GrayU8 mask, Se3_F64 world_to_view, DisparityParameters parameters,
+							 Point2Transform2_F64 rectNorm_to_dispPixel,
+							 PixelTransform<Point2D_F64> dispPixel_to_rectNorm,
+							 @Nullable LookUpColorRgb<?> colorLookup ) {
 		InputSanityCheck.checkSameShape(disparity, mask);
 
-		MultiViewStereoOps.maskOutPointsInCloud(cloud.toList(), disparity, parameters, world_to_view,
-				rectNorm_to_dispPixel, disparitySimilarTol, mask);
+		// Redundant points are merged inside the voxels when fusing
+		if (fusion == null) {
+			MultiViewStereoOps.maskOutPointsInCloud(cloud, disparity, parameters, world_to_view,
+					rectNorm_to_dispPixel, disparitySimilarTol, mask);
+		}
 
 		// normalized image coordinates of disparity image
 		final Point2D_F64 norm = new Point2D_F64();
@@ -105,6 +146,8 @@ public class CreateCloudFromDisparityImages {
 		final Point3D_F64 rectP = new Point3D_F64();
 		// 3D point in left stereo camera reference frame
 		final Point3D_F64 leftP = new Point3D_F64();
+		// 3D point in world frame
+		final Point3D_F64 worldP = new Point3D_F64();
 
 		final CameraPinhole intrinsic = parameters.pinhole;
 		final double baseline = parameters.baseline;
@@ -135,10 +178,20 @@ public class CreateCloudFromDisparityImages {
 				GeometryMath_F64.multTran(parameters.rotateToRectified, rectP, leftP);
 
 				// Left to world frame
-				SePointOps_F64.transformReverse(world_to_view, leftP, cloud.grow());
+				SePointOps_F64.transformReverse(world_to_view, leftP, worldP);
+				if (fusion == null) {
+					cloud.add(worldP.x, worldP.y, worldP.z);
+				} else if (colorLookup == null) {
+					fusion.add(worldP.x, worldP.y, worldP.z);
+				} else {
+					fusion.add(worldP.x, worldP.y, worldP.z, colorLookup.lookupRgb(x, y));
+				}
 			}
 		}
 
+		if (fusion != null)
+			fusion.finishedView();
+
 		// Denote where this set of points end
 		viewPointIdx.add(cloud.size());
 
@@ -19,6 +19,8 @@
 package boofcv.alg.mvs;
 
 import boofcv.alg.InputSanityCheck;
+import boofcv.alg.cloud.PackedPointCloud_F32;
+import boofcv.alg.cloud.PointCloudReader;
 import boofcv.alg.distort.pinhole.PixelTransformPinholeNorm_F64;
 import boofcv.alg.mvs.impl.ImplMultiViewStereoOps;
 import boofcv.misc.BoofLambdas;
@@ -67,6 +69,21 @@ public class MultiViewStereoOps {
 											 final Point2Transform2_F64 rectNorm_to_dispPixel,
 											 final double tolerance,
 											 final GrayU8 mask ) {
+		maskOutPointsInCloud(PointCloudReader.wrapF64(cloud), disparity, parameters, cloud_to_stereo,
+				rectNorm_to_dispPixel, tolerance, mask);
+	}
+
+	/**
+	 * Same as {@link #maskOutPointsInCloud(List, GrayF32, DisparityParameters, Se3_F64, Point2Transform2_F64, double, GrayU8)}
+	 * but the point cloud is accessed through a {@link PointCloudReader}, e.g. a {@link PackedPointCloud_F32}.
+	 */
+	public static void maskOutPointsInCloud( final PointCloudReader cloud,
+											 final GrayF32 disparity,
+											 final DisparityParameters parameters,
+											 final Se3_F64 cloud_to_stereo,
+											 final Point2Transform2_F64 rectNorm_to_dispPixel,
+											 final double tolerance,
+											 final GrayU8 mask ) {
 		InputSanityCheck.checkSameShape(disparity, mask);
 		parameters.checkValidity();
 
@@ -79,10 +96,13 @@ public class MultiViewStereoOps {
 		Point3D_F64 rectPt = new Point3D_F64();
 		// Pixel coordinate in disparity image
 		Point2D_F64 pixel = new Point2D_F64();
+		// 3D coordinate of point in the cloud's reference frame
+		Point3D_F64 cloudPt = new Point3D_F64();
 
-		for (int cloudIdx = 0; cloudIdx < cloud.size(); cloudIdx++) {
+		final int cloudSize = cloud.size();
+		for (int cloudIdx = 0; cloudIdx < cloudSize; cloudIdx++) {
 			// find the point in the camera's reference frame
-			Point3D_F64 cloudPt = cloud.get(cloudIdx);
+			cloud.get(cloudIdx, cloudPt);
 			SePointOps_F64.transform(cloud_to_stereo, cloudPt, cameraPt);
 			if (cameraPt.z <= 0.0)
 				continue;
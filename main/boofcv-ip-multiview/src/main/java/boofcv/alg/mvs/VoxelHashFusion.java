@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.mvs;
+
+import boofcv.alg.cloud.PointCloudReader;
+import boofcv.alg.cloud.PointCloudWriter;
+import georegression.struct.point.Point3D_F32;
+import georegression.struct.point.Point3D_F64;
+import gnu.trove.impl.Constants;
+import gnu.trove.map.hash.TLongIntHashMap;
+import lombok.Getter;
+import lombok.Setter;
+import org.ddogleg.struct.DogArray_F32;
+import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.DogArray_I64;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Fuses points into a sparse voxel grid which is stored in a hash table. Only voxels which contain points use
+ * memory. Each voxel stores the mean location and color of all the points which fell inside of it, as well as
+ * the number of points. Points from overlapping views which land in the same voxel are merged, removing
+ * redundant points from the cloud.
+ *
+ * <p>To bound memory, voxels which have not been updated recently can be written out to {@link #getSpillTo()} and
+ * removed. Each call to {@link #finishedView()} advances the age of every voxel. If {@link #spillAge} is
+ * positive then voxels which have not been updated in that many views are automatically spilled. Call
+ * {@link #spillAll()} once finished to write the remaining voxels.</p>
+ *
+ * <p>Internally the voxels are stored using a structure of arrays and voxel coordinates are packed into a long,
+ * 21-bits for each axis. The range of voxel coordinates along each axis is &plusmn;2<sup>20</sup>.</p>
+ *
+ * @author Peter Abeles
+ */
+public class VoxelHashFusion implements PointCloudWriter, PointCloudReader {
+	/** Maximum absolute value of a voxel coordinate */
+	public static final long MAX_COORDINATE = (1L << 20) - 1;
+
+	/** Length of a voxel's side. Units are the same as the points. */
+	public double voxelSize = 0.01;
+
+	/** Voxels which have not been updated in this many views are spilled. If &le; 0 it's disabled. */
+	public int spillAge = 0;
+
+	/** Voxels with fewer points than this are discarded when spilled */
+	public int minPoints = 1;
+
+	/** Voxels are written to this when spilled. If null then spilled voxels are discarded. */
+	@Getter @Setter @Nullable PointCloudWriter spillTo;
+
+	/** Total number of voxels which have been written to {@link #spillTo} */
+	@Getter long totalSpilled;
+
+	// Key which encodes the voxel's coordinate
+	final DogArray_I64 keys = new DogArray_I64();
+	// Mean location of points in each voxel. Interleaved (x,y,z)
+	final DogArray_F32 locations = new DogArray_F32();
+	// Mean color of points in each voxel. Interleaved (r,g,b)
+	final DogArray_F32 colors = new DogArray_F32();
+	// Number of points in each voxel
+	final DogArray_I32 counts = new DogArray_I32();
+	// Number of points with color in each voxel
+	final DogArray_I32 colorCounts = new DogArray_I32();
+	// The value of viewCounter when each voxel was last updated
+	final DogArray_I32 lastUpdated = new DogArray_I32();
+
+	// Look up table from voxel key to array index
+	final TLongIntHashMap keyToIndex =
+			new TLongIntHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1L, -1);
+
+	// Number of times finishedView() has been called
+	int viewCounter;
+
+	/**
+	 * Discards all voxels and resets the view counter
+	 */
+	public void reset() {
+		keys.reset();
+		locations.reset();
+		colors.reset();
+		counts.reset();
+		colorCounts.reset();
+		lastUpdated.reset();
+		keyToIndex.clear();
+		viewCounter = 0;
+		totalSpilled = 0;
+	}
+
+	@Override public void init( int estimatedSize ) {
+		reset();
+		keys.reserve(estimatedSize);
+		locations.reserve(estimatedSize*3);
+		colors.reserve(estimatedSize*3);
+		counts.reserve(estimatedSize);
+		colorCounts.reserve(estimatedSize);
+		lastUpdated.reserve(estimatedSize);
+	}
+
+	@Override public void add( double x, double y, double z ) {
+		addLocation(x, y, z);
+	}
+
+	@Override public void add( double x, double y, double z, int rgb ) {
+		int index = addLocation(x, y, z);
+		int count = colorCounts.data[index] + 1;
+		colorCounts.data[index] = count;
+
+		int i = index*3;
+		colors.data[i] += (((rgb >> 16) & 0xFF) - colors.data[i])/count;
+		colors.data[i + 1] += (((rgb >> 8) & 0xFF) - colors.data[i + 1])/count;
+		colors.data[i + 2] += ((rgb & 0xFF) - colors.data[i + 2])/count;
+	}
+
+	/**
+	 * Updates the mean location of the voxel containing the point
+	 *
+	 * @return index of the voxel
+	 */
+	int addLocation( double x, double y, double z ) {
+		int index = lookupOrCreate(x, y, z);
+		int count = counts.data[index] + 1;
+		counts.data[index] = count;
+
+		// Running mean of the location
+		int i = index*3;
+		locations.data[i] += (float)((x - locations.data[i])/count);
+		locations.data[i + 1] += (float)((y - locations.data[i + 1])/count);
+		locations.data[i + 2] += (float)((z - locations.data[i + 2])/count);
+		return index;
+	}
+
+	/**
+	 * Returns the index of the voxel which contains the point. If one doesn't exist then it's created.
+	 */
+	int lookupOrCreate( double x, double y, double z ) {
+		long key = computeKey(x, y, z);
+		int index = keyToIndex.get(key);
+		if (index == -1) {
+			index = keys.size;
+			keyToIndex.put(key, index);
+			keys.add(key);
+			locations.add((float)x);
+			locations.add((float)y);
+			locations.add((float)z);
+			colors.add(0);
+			colors.add(0);
+			colors.add(0);
+			counts.add(0);
+			colorCounts.add(0);
+			lastUpdated.add(viewCounter);
+		} else {
+			lastUpdated.data[index] = viewCounter;
+		}
+		return index;
+	}
+
+	/**
+	 * Computes the key for the voxel which contains the point
+	 */
+	long computeKey( double x, double y, double z ) {
+		return (encodeAxis(x) << 42) | (encodeAxis(y) << 21) | encodeAxis(z);
+	}
+
+	long encodeAxis( double value ) {
+		long coordinate = (long)Math.floor(value/voxelSize);
+		if (coordinate < -MAX_COORDINATE || coordinate > MAX_COORDINATE)
+			throw new IllegalArgumentException("Point is outside the range of the voxel grid. value=" + value);
+		return (coordinate + MAX_COORDINATE) & 0x1FFFFF;
+	}
+
+	/**
+	 * Call after all the points in a view have been added. If automatic spilling is turned on then old voxels
+	 * are spilled.
+	 */
+	public void finishedView() {
+		viewCounter++;
+		if (spillAge > 0)
+			spillOlderThan(viewCounter - spillAge);
+	}
+
+	/**
+	 * Spills all voxels which were last updated before the specified view
+	 *
+	 * @param view Voxels last updated before this view are spilled
+	 */
+	public void spillOlderThan( int view ) {
+		// Traverse backwards since removing swaps the last element into the removed element's location
+		for (int index = keys.size - 1; index >= 0; index--) {
+			if (lastUpdated.data[index] >= view)
+				continue;
+			spill(index);
+			remove(index);
+		}
+	}
+
+	/**
+	 * Spills every voxel and removes them
+	 */
+	public void spillAll() {
+		for (int index = 0; index < keys.size; index++) {
+			spill(index);
+		}
+		int views = viewCounter;
+		long spilled = totalSpilled;
+		reset();
+		viewCounter = views;
+		totalSpilled = spilled;
+	}
+
+	/**
+	 * Writes the voxel to spillTo if it has enough points
+	 */
+	void spill( int index ) {
+		if (spillTo == null || counts.data[index] < minPoints)
+			return;
+		int i = index*3;
+		if (colorCounts.data[index] > 0)
+			spillTo.add(locations.data[i], locations.data[i + 1], locations.data[i + 2], getRGB(index));
+		else
+			spillTo.add(locations.data[i], locations.data[i + 1], locations.data[i + 2]);
+		totalSpilled++;
+	}
+
+	/**
+	 * Removes the voxel by moving the last voxel into its location
+	 */
+	void remove( int index ) {
+		keyToIndex.remove(keys.data[index]);
+		int last = keys.size - 1;
+		if (index != last) {
+			keys.data[index] = keys.data[last];
+			counts.data[index] = counts.data[last];
+			colorCounts.data[index] = colorCounts.data[last];
+			lastUpdated.data[index] = lastUpdated.data[last];
+			System.arraycopy(locations.data, last*3, locations.data, index*3, 3);
+			System.arraycopy(colors.data, last*3, colors.data, index*3, 3);
+			keyToIndex.put(keys.data[index], index);
+		}
+		keys.size--;
+		counts.size--;
+		colorCounts.size--;
+		lastUpdated.size--;
+		locations.size -= 3;
+		colors.size -= 3;
+	}
+
+	/** Number of points which have been fused into the voxel */
+	public int getCount( int index ) {
+		return counts.data[index];
+	}
+
+	/** Number of voxels currently in memory */
+	@Override public int size() {
+		return keys.size;
+	}
+
+	@Override public void get( int index, Point3D_F32 point ) {
+		int i = index*3;
+		point.setTo(locations.data[i], locations.data[i + 1], locations.data[i + 2]);
+	}
+
+	@Override public void get( int index, Point3D_F64 point ) {
+		int i = index*3;
+		point.setTo(locations.data[i], locations.data[i + 1], locations.data[i + 2]);
+	}
+
+	@Override public int getRGB( int index ) {
+		int i = index*3;
+		int r = (int)(colors.data[i] + 0.5f);
+		int g = (int)(colors.data[i + 1] + 0.5f);
+		int b = (int)(colors.data[i + 2] + 0.5f);
+		return r << 16 | g << 8 | b;
+	}
+}
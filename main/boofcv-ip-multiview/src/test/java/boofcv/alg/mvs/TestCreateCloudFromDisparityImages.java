@@ -21,6 +21,7 @@ package boofcv.alg.mvs;
 import boofcv.alg.distort.pinhole.LensDistortionPinhole;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.alg.misc.ImageStatistics;
+import boofcv.core.image.LookUpColorRgbFormats;
 import boofcv.struct.distort.PixelTransform;
 import boofcv.struct.distort.Point2Transform2_F64;
 import boofcv.struct.distort.PointToPixelTransform_F64;
@@ -85,7 +86,7 @@ public class TestCreateCloudFromDisparityImages extends BoofStandardJUnit {
 		assertEquals(0, alg.addDisparity(disparity, mask, world_to_view, parameters, n_to_p, p_to_n));
 
 		// Only the two pixels marked as invalid should be excluded
-		assertEquals(width*height - 2, alg.cloud.size);
+		assertEquals(width*height - 2, alg.cloud.size());
 
 		DogArray<Point3D_F64> expected = new DogArray<>(Point3D_F64::new);
 		MultiViewStereoOps.disparityToCloud(disparity, mask, parameters,
@@ -93,10 +94,13 @@ public class TestCreateCloudFromDisparityImages extends BoofStandardJUnit {
 
 		// While not a strict requirement, the order of the two point clouds should match because they are both
 		// processed in a row-major order
+		var found = new Point3D_F64();
 		for (int i = 0; i < expected.size; i++) {
 			Point3D_F64 e = expected.get(i);
 			SePointOps_F64.transformReverse(world_to_view, e, e);
-			assertEquals(0.0, e.distance(alg.cloud.get(i)), UtilEjml.TEST_F64);
+			alg.cloud.get(i, found);
+			// The cloud is stored using floats
+			assertEquals(0.0, e.distance(found), UtilEjml.TEST_F32*Math.max(1.0, e.norm()));
 		}
 	}
 
@@ -113,17 +117,75 @@ public class TestCreateCloudFromDisparityImages extends BoofStandardJUnit {
 		assertEquals(0, alg.addDisparity(disparity, mask, world_to_view, parameters, n_to_p, p_to_n));
 
 		assertEquals(0, ImageStatistics.sum(mask)); // no previous points should fill it in
-		assertEquals(width*height, alg.cloud.size);
+		assertEquals(width*height, alg.cloud.size());
 		assertEquals(1, alg.viewPointIdx.size);
 
 		// add it again and see if no new points were added but the views increased
 		assertEquals(1, alg.addDisparity(disparity, mask, world_to_view, parameters, n_to_p, p_to_n));
 
 		assertTrue(ImageStatistics.sum(mask) > 0); // it should be filled in with existing points
-		assertEquals(width*height, alg.cloud.size);
+		assertEquals(width*height, alg.cloud.size());
 		assertEquals(2, alg.viewPointIdx.size);
 	}
 
+	/**
+	 * When fusing into a voxel grid, identical views should have every point merged with an existing voxel
+	 */
+	@Test void twoIdenticalViews_fusion() {
+		var disparity = new GrayF32(width, height);
+		GrayU8 mask = disparity.createSameShape(GrayU8.class);
+
+		ImageMiscOps.fillUniform(disparity, rand, 0, disparityRange - 1.0f);
+
+		var fusion = new VoxelHashFusion();
+		fusion.voxelSize = 0.001;
+		var alg = new CreateCloudFromDisparityImages();
+		alg.setFusion(fusion);
+		alg.reset();
+
+		assertEquals(1, alg.addDisparity(disparity, mask, world_to_view, parameters, n_to_p, p_to_n));
+		int numVoxels = fusion.size();
+		assertTrue(numVoxels > 0 && numVoxels <= width*height);
+		assertEquals(0, alg.cloud.size());
+
+		assertEquals(2, alg.addDisparity(disparity, mask, world_to_view, parameters, n_to_p, p_to_n));
+		assertEquals(numVoxels, fusion.size());
+		int total = 0;
+		for (int i = 0; i < fusion.size(); i++) {
+			total += fusion.getCount(i);
+		}
+		assertEquals(2*width*height, total);
+	}
+
+	/**
+	 * The color of each pixel should be fused with the points
+	 */
+	@Test void twoIdenticalViews_fusionColor() {
+		var disparity = new GrayF32(width, height);
+		GrayU8 mask = disparity.createSameShape(GrayU8.class);
+		ImageMiscOps.fillUniform(disparity, rand, 0, disparityRange - 1.0f);
+
+		var fusion = new VoxelHashFusion();
+		fusion.voxelSize = 0.001;
+		var alg = new CreateCloudFromDisparityImages();
+		alg.setFusion(fusion);
+		alg.reset();
+
+		// Identical views with different colors. Every voxel will have the same number of points from each
+		var colorLookup = new LookUpColorRgbFormats.SB_U8();
+		var gray = new GrayU8(width, height);
+		colorLookup.setImage(gray);
+		ImageMiscOps.fill(gray, 100);
+		alg.addDisparity(disparity, mask, world_to_view, parameters, n_to_p, p_to_n, colorLookup);
+		ImageMiscOps.fill(gray, 200);
+		alg.addDisparity(disparity, mask, world_to_view, parameters, n_to_p, p_to_n, colorLookup);
+
+		assertTrue(fusion.size() > 0);
+		for (int i = 0; i < fusion.size(); i++) {
+			assertEquals(150 << 16 | 150 << 8 | 150, fusion.getRGB(i));
+		}
+	}
+
 	/**
 	 * Checks to see it obeys the similarity tolerance
 	 */
@@ -137,18 +199,18 @@ public class TestCreateCloudFromDisparityImages extends BoofStandardJUnit {
 		var alg = new CreateCloudFromDisparityImages();
 		alg.disparitySimilarTol = tol;
 		assertEquals(0, alg.addDisparity(disparity, mask, world_to_view, parameters, n_to_p, p_to_n));
-		assertEquals(width*height, alg.cloud.size);
+		assertEquals(width*height, alg.cloud.size());
 
 		// Changing the disparity, but just under the tolerance. Nothing should be added
 		disparity.data[72] += tol - 0.001f;
 		assertEquals(1, alg.addDisparity(disparity, mask, world_to_view, parameters, n_to_p, p_to_n));
-		assertEquals(width*height, alg.cloud.size);
+		assertEquals(width*height, alg.cloud.size());
 
 		// It should now be above the tolerance
 		disparity.data[72] += 0.002f;
 		// zero the mask again so that it can add points
 		ImageMiscOps.fill(mask, 0);
 		assertEquals(2, alg.addDisparity(disparity, mask, world_to_view, parameters, n_to_p, p_to_n));
-		assertEquals(width*height + 1, alg.cloud.size);
+		assertEquals(width*height + 1, alg.cloud.size());
 	}
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.mvs;
+
+import boofcv.alg.cloud.PointCloudWriter;
+import boofcv.testing.BoofStandardJUnit;
+import georegression.struct.point.Point3D_F64;
+import org.ddogleg.struct.DogArray;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+class TestVoxelHashFusion extends BoofStandardJUnit {
+	/**
+	 * Points inside the same voxel should be merged and the mean found
+	 */
+	@Test void add_merge() {
+		var alg = new VoxelHashFusion();
+		alg.voxelSize = 0.5;
+
+		alg.add(0.1, 0.1, 0.1);
+		alg.add(0.3, 0.2, 0.4);
+		alg.add(-0.1, 0.1, 0.1);
+		alg.add(10.1, -20.2, 30.3);
+
+		assertEquals(3, alg.size());
+		assertEquals(2, alg.getCount(0));
+		assertEquals(1, alg.getCount(1));
+		assertEquals(1, alg.getCount(2));
+
+		var p = new Point3D_F64();
+		alg.get(0, p);
+		assertEquals(0.0, p.distance(0.2, 0.15, 0.25), 1e-6);
+		alg.get(2, p);
+		assertEquals(0.0, p.distance(10.1, -20.2, 30.3), 1e-5);
+	}
+
+	@Test void add_color() {
+		var alg = new VoxelHashFusion();
+		alg.voxelSize = 1.0;
+
+		alg.add(0.1, 0.1, 0.1, 10 << 16 | 20 << 8 | 30);
+		alg.add(0.2, 0.2, 0.2, 30 << 16 | 40 << 8 | 50);
+
+		assertEquals(1, alg.size());
+		assertEquals(20 << 16 | 30 << 8 | 40, alg.getRGB(0));
+	}
+
+	/**
+	 * Make sure the key is unique along each axis and handles negative values
+	 */
+	@Test void computeKey() {
+		var alg = new VoxelHashFusion();
+		alg.voxelSize = 1.0;
+
+		long key = alg.computeKey(1.5, 2.5, 3.5);
+		assertNotEquals(key, alg.computeKey(2.5, 1.5, 3.5));
+		assertNotEquals(key, alg.computeKey(3.5, 2.5, 1.5));
+		assertNotEquals(alg.computeKey(-0.5, 0, 0), alg.computeKey(0.5, 0, 0));
+		assertEquals(key, alg.computeKey(1.9, 2.1, 3.0));
+
+		assertThrows(IllegalArgumentException.class, () -> alg.computeKey(1e7, 0, 0));
+	}
+
+	/**
+	 * Voxels which are not updated should be spilled and the remaining voxels still accessible
+	 */
+	@Test void finishedView_spill() {
+		var spilled = new DogArray<>(Point3D_F64::new);
+		var alg = new VoxelHashFusion();
+		alg.voxelSize = 1.0;
+		alg.spillAge = 2;
+		alg.setSpillTo(PointCloudWriter.wrapF64(spilled));
+
+		// Voxels 0 to 4 are observed in the first view and voxel 0 is observed in every view
+		for (int i = 0; i < 5; i++) {
+			alg.add(i + 0.5, 0, 0);
+		}
+		alg.finishedView();
+		assertEquals(5, alg.size());
+
+		alg.add(0.5, 0, 0);
+		alg.add(10.5, 0, 0);
+		alg.finishedView();
+		assertEquals(6, alg.size());
+
+		alg.add(0.5, 0, 0);
+		alg.finishedView();
+		assertEquals(2, alg.size());
+		assertEquals(4, spilled.size);
+		assertEquals(4, alg.getTotalSpilled());
+
+		// Make sure the look up table is still correct after elements have been moved
+		alg.add(0.5, 0, 0);
+		alg.add(10.5, 0, 0);
+		assertEquals(2, alg.size());
+		for (int i = 0; i < alg.size(); i++) {
+			var p = new Point3D_F64();
+			alg.get(i, p);
+			assertEquals(p.x < 5 ? 4 : 2, alg.getCount(i));
+		}
+
+		alg.spillAll();
+		assertEquals(0, alg.size());
+		assertEquals(6, spilled.size);
+	}
+
+	/**
+	 * Voxels with too few points should not be written
+	 */
+	@Test void spill_minPoints() {
+		var spilled = new DogArray<>(Point3D_F64::new);
+		var alg = new VoxelHashFusion();
+		alg.voxelSize = 1.0;
+		alg.minPoints = 2;
+		alg.setSpillTo(PointCloudWriter.wrapF64(spilled));
+
+		alg.add(0.5, 0, 0);
+		alg.add(0.6, 0, 0);
+		alg.add(2.5, 0, 0);
+		alg.spillAll();
+
+		assertEquals(1, spilled.size);
+		assertEquals(0.55, spilled.get(0).x, 1e-6);
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.fiducial.calib;
+
+import boofcv.abst.geo.calibration.BatchDetectFiducialCalibration;
+import boofcv.abst.geo.calibration.BatchDetectFiducialCalibration_MT;
+import boofcv.abst.geo.calibration.CalibrateMonoPlanar;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.fiducial.FactoryFiducialCalibration;
+import boofcv.simulation.SimulatePlanarWorld;
+import boofcv.struct.calib.CameraPinholeBrown;
+import boofcv.struct.image.GrayF32;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calibration from target detection to Zhang99 refinement using synthetic images of a chessboard target rendered
+ * with {@link SimulatePlanarWorld}. Compares the single threaded and concurrent implementations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+public class BenchmarkCalibrationPipeline {
+	@Param({"40", "200"})
+	public int numImages;
+
+	ConfigGridDimen configGrid = new ConfigGridDimen(7, 5, 30);
+	CameraPinholeBrown intrinsic = new CameraPinholeBrown(600, 600, 0, 400, 300, 800, 600).fsetRadial(0.05, -0.02);
+
+	List<GrayF32> images = new ArrayList<>();
+
+	BatchDetectFiducialCalibration detectSingle;
+	BatchDetectFiducialCalibration detectMulti;
+
+	@Setup public void setup() {
+		detectSingle = new BatchDetectFiducialCalibration(
+				() -> FactoryFiducialCalibration.chessboardX(null, configGrid));
+		detectMulti = new BatchDetectFiducialCalibration_MT(
+				() -> FactoryFiducialCalibration.chessboardX(null, configGrid));
+
+		var simulator = new SimulatePlanarWorld();
+		simulator.setCamera(intrinsic);
+
+		var markerToWorld = new Se3_F64();
+		simulator.addSurface(markerToWorld, 0.3, renderChessboard(configGrid.numRows, configGrid.numCols, 40));
+
+		var rand = new Random(234);
+		images.clear();
+		for (int i = 0; i < numImages; i++) {
+			double x = (rand.nextDouble() - 0.5)*0.1;
+			double y = (rand.nextDouble() - 0.5)*0.1;
+			double z = 0.5 + rand.nextDouble()*0.2;
+			double rotX = (rand.nextDouble() - 0.5)*0.6;
+			double rotY = (rand.nextDouble() - 0.5)*0.6;
+			double rotZ = (rand.nextDouble() - 0.5)*1.0;
+			SpecialEuclideanOps_F64.eulerXyz(x, y, z, rotX, Math.PI + rotY, rotZ, markerToWorld);
+			images.add(simulator.render().clone());
+		}
+
+		// Sanity check to make sure the target can be seen
+		detectSingle.process(images);
+		if (detectSingle.countDetected() < numImages/2)
+			throw new RuntimeException("Too few targets detected. " + detectSingle.countDetected());
+	}
+
+	@Benchmark public void detect() {
+		detectSingle.process(images);
+	}
+
+	@Benchmark public void detect_MT() {
+		detectMulti.process(images);
+	}
+
+	@Benchmark public void zhang99() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		try {
+			calibrate(detectSingle);
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = true;
+		}
+	}
+
+	@Benchmark public void zhang99_MT() {
+		calibrate(detectSingle);
+	}
+
+	@Benchmark public void pipeline() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		try {
+			detectSingle.process(images);
+			calibrate(detectSingle);
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = true;
+		}
+	}
+
+	@Benchmark public void pipeline_MT() {
+		detectMulti.process(images);
+		calibrate(detectMulti);
+	}
+
+	private void calibrate( BatchDetectFiducialCalibration detections ) {
+		var calibrator = new CalibrateMonoPlanar(detections.getLayout());
+		calibrator.configurePinhole(true, 2, false);
+		detections.addDetectedTo(calibrator);
+		calibrator.process();
+	}
+
+	/**
+	 * Renders a chessboard target with a white border that's one square wide
+	 */
+	public static GrayF32 renderChessboard( int numRows, int numCols, int squareWidth ) {
+		var image = new GrayF32((numCols + 2)*squareWidth, (numRows + 2)*squareWidth);
+		ImageMiscOps.fill(image, 255);
+		for (int row = 0; row < numRows; row++) {
+			for (int col = 0; col < numCols; col++) {
+				if ((row + col)%2 != 0)
+					continue;
+				ImageMiscOps.fillRectangle(image, 0, (col + 1)*squareWidth, (row + 1)*squareWidth,
+						squareWidth, squareWidth);
+			}
+		}
+		return image;
+	}
+
+	public static void main( String[] args ) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(BenchmarkCalibrationPipeline.class.getSimpleName())
+				.warmupTime(TimeValue.seconds(1))
+				.measurementTime(TimeValue.seconds(1))
+				.build();
+
+		new Runner(opt).run();
+	}
+}
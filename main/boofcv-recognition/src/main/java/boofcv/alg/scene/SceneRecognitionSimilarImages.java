@@ -62,6 +62,8 @@ import java.util.Set;
  * considering every possible image pair and trying to match them. The main down side is that it will not be
  * 100% reliable.
  *
+ * The {@link #similarityTest} must be thread safe if the concurrent implementation is used.
+ *
  * @author Peter Abeles
  */
 public class SceneRecognitionSimilarImages<Image extends ImageBase<Image>, TD extends TupleDesc<TD>>
@@ -120,12 +122,16 @@ public class SceneRecognitionSimilarImages<Image extends ImageBase<Image>, TD ex
 	final TD tempDescription;
 	final Point2D_F64 tempPixel = new Point2D_F64();
 
-	// Storage used for association
-	final DogArray<TD> sourceDescriptions;
-	final DogArray<Point2D_F64> sourcePixels;
+	// Word that each feature in the packed arrays belongs to. Saved when querying so it's only looked up once
+	final DogArray_I32 featureWords = new DogArray_I32();
+	// Images the recognizer thinks might be similar to each image
+	final DogArray<DogArray_I32> imageToCandidates = new DogArray<>(DogArray_I32::new, DogArray_I32::reset);
+	// Pairs which passed the similarity test when each image was the source. Each image is written to independently
+	final DogArray<DogArray<PairInfo>> imageToAccepted =
+			new DogArray<>(() -> new DogArray<>(PairInfo::new, PairInfo::reset), DogArray::reset);
 
-	final DogArray<TD> destinationDescriptions;
-	final DogArray<Point2D_F64> destinationPixels;
+	// Storage used for association by a single thread
+	private final Workspace workspace;
 
 	// If not null it will print verbose debugging info
 	PrintStream verbose;
@@ -141,15 +147,7 @@ public class SceneRecognitionSimilarImages<Image extends ImageBase<Image>, TD ex
 
 		tempDescription = detector.createDescription();
 
-		sourceDescriptions = new DogArray<>(detector::createDescription);
-		destinationDescriptions = new DogArray<>(detector::createDescription);
-
-		sourcePixels = new DogArray<>(Point2D_F64::new);
-		destinationPixels = new DogArray<>(Point2D_F64::new);
-
-		// Source features are added first and there can only be a match if a set in the source exists
-		asscociator.createNewSetsFromSource = true;
-		asscociator.createNewSetsFromDestination = false;
+		workspace = new Workspace(asscociator);
 	}
 
 	/**
@@ -210,69 +208,70 @@ public class SceneRecognitionSimilarImages<Image extends ImageBase<Image>, TD ex
 	}
 
 	/**
-	 * Finds the relationship between all images in one batch
+	 * Finds the relationship between all images in one batch. First the recognizer is queried for each image
+	 * in the main thread, since queries modify its internal state. Then features are associated between each image
+	 * and its candidates, which can be done independently for each image. Finally the results are saved in the
+	 * same order as when processing one image at a time.
 	 */
 	void findAllSimilarImages() {
 		// Initialize data structures
 		imageToPairIndexes.resize(imageIDs.size());
+		imageToCandidates.resize(imageIDs.size());
+		imageToAccepted.resize(imageIDs.size());
+		featureWords.resize(descriptions.size());
 
-		// Go through each image and find the relationships. Note that the relationships might not be mutual
+		// Look up similar images and the word each feature belongs to
 		for (int imageIndex = 0; imageIndex < imageIDs.size(); imageIndex++) {
-			// Get the location of this image's features
-			int targetFeatureOffset = imageFeatureStartIndexes.get(imageIndex*2);
-			int targetFeatureSize = imageFeatureStartIndexes.get(imageIndex*2 + 1);
-
-			// Look up similar images
 			recognizer.query(createFeaturesLambda(imageIndex), limitMatchesConsider, sceneMatches);
 
 			if (verbose != null) verbose.printf("image[%d].cbir_matches.size=%d\n", imageIndex, sceneMatches.size);
 
-			// Initialize association
-			asscociator.initialize(recognizer.getTotalWords());
-
-			// Load the target/source image features
-			sourceDescriptions.reset();
-			sourcePixels.reset();
-			for (int i = 0; i < targetFeatureSize; i++) {
-				TD desc = sourceDescriptions.grow();
-				descriptions.getCopy(targetFeatureOffset + i, desc);
-				pixels.getCopy(targetFeatureOffset + i, sourcePixels.grow());
-				asscociator.addSource(desc, recognizer.getQueryWord(i));
+			int featureOffset = imageFeatureStartIndexes.get(imageIndex*2);
+			int featureSize = imageFeatureStartIndexes.get(imageIndex*2 + 1);
+			for (int i = 0; i < featureSize; i++) {
+				featureWords.data[featureOffset + i] = recognizer.getQueryWord(i);
 			}
 
-			// inspect all matches that the recognition algortihm found and see if anything of them look good
+			DogArray_I32 candidates = imageToCandidates.get(imageIndex);
+			candidates.reset();
 			for (int matchIndex = 0; matchIndex < sceneMatches.size; matchIndex++) {
-				SceneRecognition.Match match = sceneMatches.get(matchIndex);
-
-				int imageIndexMatch = imageToIndex.get(match.id);
+				int imageIndexMatch = imageToIndex.get(sceneMatches.get(matchIndex).id);
 				if (imageIndex == imageIndexMatch)
 					continue;
+				candidates.add(imageIndexMatch);
+			}
+		}
 
-				// See if these two images have been matched already
-				if (null != lookupPairInfo(imageIndex, imageIndexMatch))
-					continue;
-
-				addDestFeaturesThenAssociate(imageIndexMatch);
+		// Inspect all the candidates and see if any of them look good
+		associateCandidates();
 
-				if (verbose != null) {
-					verbose.printf("   dst.size=%d associated[%d].size=%d",
-							destinationPixels.size, imageIndexMatch, asscociator.getMatches().size);
-				}
+		// Save pairs. Note that the relationships might not be mutual so the first one found is used
+		for (int imageIndex = 0; imageIndex < imageIDs.size(); imageIndex++) {
+			DogArray<PairInfo> accepted = imageToAccepted.get(imageIndex);
+			for (int i = 0; i < accepted.size; i++) {
+				PairInfo found = accepted.get(i);
 
-				if (!similarityTest.isSimilar(sourcePixels, destinationPixels, asscociator.getMatches())) {
-					if (verbose != null) verbose.println();
-					// Idea: Save PairInfo even if not matched to avoid checking again
+				// See if these two images have been matched already
+				if (null != lookupPairInfo(found.src, found.dst))
 					continue;
-				}
 
-				if (verbose != null) verbose.println("  accepted");
-				saveImagePairInfo(imageIndex, imageIndexMatch);
+				saveImagePairInfo(found.src, found.dst, found.associated);
 			}
 
-			if (verbose != null) verbose.printf("      pair.size=%d\n", imageToPairIndexes.get(imageIndex).size);
+			if (verbose != null) {
+				verbose.printf("image[%d] candidates.size=%d accepted.size=%d pair.size=%d\n", imageIndex,
+						imageToCandidates.get(imageIndex).size, accepted.size, imageToPairIndexes.get(imageIndex).size);
+			}
 		}
 	}
 
+	/**
+	 * Associates features between every image and its candidates then applies the similarity test
+	 */
+	protected void associateCandidates() {
+		workspace.associateImages(0, imageIDs.size());
+	}
+
 	/**
 	 * Creates an iterator from saved image features. Loads the pixels and descriptors as needed.
 	 */
@@ -308,34 +307,10 @@ public class SceneRecognitionSimilarImages<Image extends ImageBase<Image>, TD ex
 		}
 	}
 
-	/**
-	 * Adds features from the destination image then associate
-	 */
-	private void addDestFeaturesThenAssociate( int imageIndex ) {
-		int destFeatureOffset = imageFeatureStartIndexes.get(imageIndex*2);
-		int destFeatureSize = imageFeatureStartIndexes.get(imageIndex*2 + 1);
-
-		// Purge features from previous matches
-		asscociator.clearDestination();
-
-		// Load the match/destination image features
-		sourceDescriptions.reset();
-		destinationPixels.reset();
-		for (int featureIndex = 0; featureIndex < destFeatureSize; featureIndex++) {
-			TD desc = destinationDescriptions.grow();
-			descriptions.getCopy(destFeatureOffset + featureIndex, desc);
-			pixels.getCopy(destFeatureOffset + featureIndex, destinationPixels.grow());
-			asscociator.addDestination(desc, recognizer.lookupWord(desc));
-		}
-
-		// Associate the features together
-		asscociator.associate();
-	}
-
 	/**
 	 * Saves association information for these two images
 	 */
-	void saveImagePairInfo( int imageIndexSrc, int imageIndexDst ) {
+	void saveImagePairInfo( int imageIndexSrc, int imageIndexDst, FastAccess<AssociatedIndex> associated ) {
 		// Save the reference from image index to PairInfo index
 		imageToPairIndexes.get(imageIndexSrc).add(pairedImages.size);
 		imageToPairIndexes.get(imageIndexDst).add(pairedImages.size);
@@ -344,7 +319,7 @@ public class SceneRecognitionSimilarImages<Image extends ImageBase<Image>, TD ex
 		PairInfo p = pairedImages.grow();
 		p.src = imageIndexSrc;
 		p.dst = imageIndexDst;
-		p.associated.copyAll(asscociator.getMatches().toList(), ( orig, copy ) -> copy.setTo(orig));
+		p.associated.copyAll(associated.toList(), ( orig, copy ) -> copy.setTo(orig));
 	}
 
 	@Override public void lookupPixelFeats( String target, DogArray<Point2D_F64> features ) {
@@ -469,6 +444,109 @@ public class SceneRecognitionSimilarImages<Image extends ImageBase<Image>, TD ex
 		this.verbose = out;
 	}
 
+	/**
+	 * Storage for associating features between an image and its candidates. Only reads from shared data structures,
+	 * other than the accepted list of the images it's processing, so one can be used by each thread.
+	 */
+	protected class Workspace {
+		// Associates features. Each thread must have its own
+		final AssociateDescriptionHashSets<TD> associator;
+
+		// Storage for features being associated. The associator saves references to the descriptions
+		final DogArray<TD> sourceDescriptions;
+		final DogArray<Point2D_F64> sourcePixels = new DogArray<>(Point2D_F64::new);
+
+		final DogArray<TD> destinationDescriptions;
+		final DogArray<Point2D_F64> destinationPixels = new DogArray<>(Point2D_F64::new);
+
+		public Workspace( AssociateDescriptionHashSets<TD> associator ) {
+			this.associator = associator;
+			sourceDescriptions = new DogArray<>(detector::createDescription);
+			destinationDescriptions = new DogArray<>(detector::createDescription);
+
+			// Source features are added first and there can only be a match if a set in the source exists
+			associator.createNewSetsFromSource = true;
+			associator.createNewSetsFromDestination = false;
+		}
+
+		/**
+		 * Finds the accepted pairs for images in the specified range.
+		 *
+		 * @param idx0 First image, inclusive
+		 * @param idx1 Last image, exclusive
+		 */
+		public void associateImages( int idx0, int idx1 ) {
+			for (int imageIndex = idx0; imageIndex < idx1; imageIndex++) {
+				DogArray<PairInfo> accepted = imageToAccepted.get(imageIndex);
+				accepted.reset();
+
+				DogArray_I32 candidates = imageToCandidates.get(imageIndex);
+				if (candidates.size == 0)
+					continue;
+
+				// Load the target/source image features
+				associator.initialize(recognizer.getTotalWords());
+				loadFeatures(imageIndex, sourceDescriptions, sourcePixels, true);
+
+				for (int candidateIdx = 0; candidateIdx < candidates.size; candidateIdx++) {
+					int imageIndexMatch = candidates.get(candidateIdx);
+
+					// If the other image was processed by this workspace and accepted this pair, the result will
+					// be discarded later on so there's no need to compute it
+					if (imageIndexMatch >= idx0 && imageIndexMatch < imageIndex &&
+							isAccepted(imageIndexMatch, imageIndex))
+						continue;
+
+					// Purge features from previous matches then associate
+					associator.clearDestination();
+					loadFeatures(imageIndexMatch, destinationDescriptions, destinationPixels, false);
+					associator.associate();
+
+					FastAccess<AssociatedIndex> matches = associator.getMatches();
+					if (!similarityTest.isSimilar(sourcePixels, destinationPixels, matches))
+						continue;
+
+					PairInfo p = accepted.grow();
+					p.src = imageIndex;
+					p.dst = imageIndexMatch;
+					p.associated.copyAll(matches.toList(), ( orig, copy ) -> copy.setTo(orig));
+				}
+			}
+		}
+
+		/**
+		 * Copies the image's features out of the packed arrays and adds them to the associator along with
+		 * the word they were assigned to when querying
+		 */
+		void loadFeatures( int imageIndex, DogArray<TD> descs, DogArray<Point2D_F64> locations, boolean source ) {
+			int featureOffset = imageFeatureStartIndexes.get(imageIndex*2);
+			int featureSize = imageFeatureStartIndexes.get(imageIndex*2 + 1);
+
+			descs.resize(featureSize);
+			locations.resize(featureSize);
+			for (int i = 0; i < featureSize; i++) {
+				TD desc = descs.get(i);
+				descriptions.getCopy(featureOffset + i, desc);
+				pixels.getCopy(featureOffset + i, locations.get(i));
+				int word = featureWords.get(featureOffset + i);
+				if (source)
+					associator.addSource(desc, word);
+				else
+					associator.addDestination(desc, word);
+			}
+		}
+
+		/** Returns true if imageIndex accepted the pair with the other image */
+		boolean isAccepted( int imageIndex, int other ) {
+			DogArray<PairInfo> accepted = imageToAccepted.get(imageIndex);
+			for (int i = 0; i < accepted.size; i++) {
+				if (accepted.get(i).dst == other)
+					return true;
+			}
+			return false;
+		}
+	}
+
 	/**
 	 * Describes the relationship between two images
 	 */
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.scene;
+
+import boofcv.abst.feature.associate.AssociateDescriptionHashSets;
+import boofcv.abst.feature.detdesc.DetectDescribePoint;
+import boofcv.abst.scene.FeatureSceneRecognition;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.misc.BoofLambdas;
+import boofcv.struct.PackedArray;
+import boofcv.struct.feature.TupleDesc;
+import boofcv.struct.image.ImageBase;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link SceneRecognitionSimilarImages}. The recognizer is queried in the main thread
+ * then features are associated between images and their candidates in parallel, with each thread having its own
+ * associator. Results are saved in the same order as the single threaded version, so the output is identical.
+ *
+ * @author Peter Abeles
+ */
+public class SceneRecognitionSimilarImages_MT<Image extends ImageBase<Image>, TD extends TupleDesc<TD>>
+		extends SceneRecognitionSimilarImages<Image, TD> {
+	// Workspace for each thread
+	private final GrowArray<Workspace> workspaces;
+
+	/**
+	 * @param factoryAssociator Creates a new association algorithm for each thread
+	 */
+	public SceneRecognitionSimilarImages_MT( DetectDescribePoint<Image, TD> detector,
+											 BoofLambdas.Factory<AssociateDescriptionHashSets<TD>> factoryAssociator,
+											 FeatureSceneRecognition<TD> recognizer,
+											 BoofLambdas.Factory<PackedArray<TD>> factoryPackedDesc ) {
+		super(detector, factoryAssociator.newInstance(), recognizer, factoryPackedDesc);
+		workspaces = new GrowArray<>(() -> new Workspace(factoryAssociator.newInstance()));
+	}
+
+	@Override protected void associateCandidates() {
+		BoofConcurrency.loopBlocks(0, imageIDs.size(), 1, workspaces, ( ws, idx0, idx1 ) ->
+				ws.associateImages(idx0, idx1));
+	}
+}
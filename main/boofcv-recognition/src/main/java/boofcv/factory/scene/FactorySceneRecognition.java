@@ -29,6 +29,9 @@ import boofcv.abst.scene.nister2006.FeatureSceneRecognitionNister2006;
 import boofcv.alg.scene.ConfigSceneRecognitionSimilarImages;
 import boofcv.alg.scene.ImageSimilarityAssociatedRatio;
 import boofcv.alg.scene.SceneRecognitionSimilarImages;
+import boofcv.alg.scene.SceneRecognitionSimilarImages_MT;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.feature.associate.ConfigAssociate;
 import boofcv.factory.feature.associate.FactoryAssociation;
 import boofcv.factory.feature.detdesc.FactoryDetectDescribe;
 import boofcv.factory.struct.FactoryTupleDesc;
@@ -96,11 +99,18 @@ public class FactorySceneRecognition {
 		FeatureSceneRecognition<TD> recognitizer =
 				createSceneNister2006(config.recognizeNister2006, detector::createDescription);
 
-		AssociateDescriptionHashSets<TD> associator = new AssociateDescriptionHashSets<>(
-				FactoryAssociation.generic(config.associate, detector));
+		ConfigAssociate configAssociate = config.associate;
+		BoofLambdas.Factory<AssociateDescriptionHashSets<TD>> factoryAssociator = () ->
+				new AssociateDescriptionHashSets<>(FactoryAssociation.generic(configAssociate, detector));
 
-		var similar = new SceneRecognitionSimilarImages<>(detector, associator, recognitizer,
-				() -> FactoryTupleDesc.createPacked(detector));
+		SceneRecognitionSimilarImages<Image, TD> similar;
+		if (BoofConcurrency.USE_CONCURRENT) {
+			similar = new SceneRecognitionSimilarImages_MT<>(detector, factoryAssociator, recognitizer,
+					() -> FactoryTupleDesc.createPacked(detector));
+		} else {
+			similar = new SceneRecognitionSimilarImages<>(detector, factoryAssociator.newInstance(), recognitizer,
+					() -> FactoryTupleDesc.createPacked(detector));
+		}
 
 		similar.setSimilarityTest(new ImageSimilarityAssociatedRatio(config.minimumRatioSimilar));
 		similar.setLimitMatchesConsider(config.limitMatchesConsider);
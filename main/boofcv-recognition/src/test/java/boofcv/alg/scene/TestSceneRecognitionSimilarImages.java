@@ -127,8 +127,11 @@ public class TestSceneRecognitionSimilarImages extends GenericLookUpSimilarImage
 		alg.pairedImages.reset();
 
 		// Add a couple of pairs
-		alg.saveImagePairInfo(0, 1);
-		alg.saveImagePairInfo(1, 2);
+		var associated = new DogArray<>(AssociatedIndex::new);
+		associated.grow().setTo(2, 3);
+		alg.saveImagePairInfo(0, 1, associated);
+		associated.grow().setTo(4, 5);
+		alg.saveImagePairInfo(1, 2, associated);
 
 		// Check the data structures to see if they were updated correctly
 		assertEquals(2, alg.pairedImages.size);
@@ -142,6 +145,9 @@ public class TestSceneRecognitionSimilarImages extends GenericLookUpSimilarImage
 
 		assertEquals(1, alg.pairedImages.get(1).src);
 		assertEquals(2, alg.pairedImages.get(1).dst);
+		assertEquals(1, alg.pairedImages.get(0).associated.size);
+		assertEquals(2, alg.pairedImages.get(1).associated.size);
+		assertEquals(5, alg.pairedImages.get(1).associated.get(1).dst);
 	}
 
 	@Test void lookupImageWords() {
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.scene;
+
+import boofcv.abst.feature.detdesc.DetectDescribePointAbstract;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.scene.FactorySceneRecognition;
+import boofcv.struct.feature.TupleDesc_F32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageType;
+import boofcv.testing.BoofStandardJUnit;
+import georegression.struct.point.Point2D_F64;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+class TestSceneRecognitionSimilarImages_MT extends BoofStandardJUnit {
+	/**
+	 * The same pairs, in the same order, should be found as the single threaded version
+	 */
+	@Test void compareToSingleThread() {
+		BoofConcurrency.USE_CONCURRENT = false;
+		SceneRecognitionSimilarImages<GrayU8, TupleDesc_F32> single = createAndProcess();
+		BoofConcurrency.USE_CONCURRENT = true;
+		SceneRecognitionSimilarImages<GrayU8, TupleDesc_F32> multi = createAndProcess();
+
+		assertTrue(multi instanceof SceneRecognitionSimilarImages_MT);
+		assertTrue(single.pairedImages.size > 0);
+
+		assertEquals(single.pairedImages.size, multi.pairedImages.size);
+		for (int i = 0; i < single.pairedImages.size; i++) {
+			SceneRecognitionSimilarImages.PairInfo a = single.pairedImages.get(i);
+			SceneRecognitionSimilarImages.PairInfo b = multi.pairedImages.get(i);
+			assertEquals(a.src, b.src);
+			assertEquals(a.dst, b.dst);
+			assertEquals(a.associated.size, b.associated.size);
+			for (int j = 0; j < a.associated.size; j++) {
+				assertEquals(a.associated.get(j).src, b.associated.get(j).src);
+				assertEquals(a.associated.get(j).dst, b.associated.get(j).dst);
+			}
+		}
+
+		for (int i = 0; i < single.imageToPairIndexes.size; i++) {
+			assertEquals(single.imageToPairIndexes.get(i).size, multi.imageToPairIndexes.get(i).size);
+		}
+	}
+
+	private SceneRecognitionSimilarImages<GrayU8, TupleDesc_F32> createAndProcess() {
+		SceneRecognitionSimilarImages<GrayU8, TupleDesc_F32> alg =
+				FactorySceneRecognition.createSimilarImages(null, ImageType.SB_U8);
+		alg.detector = new HelperDetector();
+
+		for (int i = 0; i < 12; i++) {
+			alg.addImage("" + i, new GrayU8(50, 10));
+		}
+		alg.fixate();
+		return alg;
+	}
+
+	/**
+	 * Simulates image feature detections. Output is deterministic so that both algorithms see the same features
+	 */
+	static class HelperDetector extends DetectDescribePointAbstract<GrayU8, TupleDesc_F32> {
+		int imageCount = 0;
+
+		@Override public TupleDesc_F32 getDescription( int index ) {
+			var desc = new TupleDesc_F32(64);
+			for (int i = 0; i < desc.size(); i++) {
+				desc.data[i] = (imageCount%3) + index + i;
+			}
+			return desc;
+		}
+
+		@Override public Point2D_F64 getLocation( int featureIndex ) {
+			return new Point2D_F64(featureIndex, imageCount);
+		}
+
+		@Override public void detect( GrayU8 input ) {imageCount++;}
+
+		@Override public TupleDesc_F32 createDescription() {return new TupleDesc_F32(64);}
+
+		@Override public int getNumberOfFeatures() {return 10 + imageCount%4;}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.structure;
+
+import boofcv.alg.geo.PerspectiveOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.sfm.FactorySceneReconstruction;
+import boofcv.struct.calib.CameraPinhole;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.image.ImageDimension;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import org.ddogleg.struct.DogArray;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single threaded and concurrent implementations of {@link GeneratePairwiseImageGraph} using
+ * synthetic data.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+public class BenchmarkGeneratePairwiseImageGraph {
+	@Param({"100"})
+	public int numViews;
+
+	@Param({"10"})
+	public int numSimilar;
+
+	SyntheticLookUp db;
+
+	GeneratePairwiseImageGraph single, concurrent;
+
+	@Setup public void setup() {
+		db = new SyntheticLookUp(numViews, numSimilar, 300, 0xBEEF);
+
+		BoofConcurrency.USE_CONCURRENT = false;
+		single = FactorySceneReconstruction.generatePairwise(null);
+		BoofConcurrency.USE_CONCURRENT = true;
+		concurrent = FactorySceneReconstruction.generatePairwise(null);
+	}
+
+	@Benchmark public void single() {single.process(db);}
+
+	@Benchmark public void concurrent() {concurrent.process(db);}
+
+	/**
+	 * Camera moves along a line while looking at a cloud of points. Every view sees every point and images
+	 * are similar to the views which are closest in the sequence.
+	 */
+	public static class SyntheticLookUp implements LookUpSimilarImages {
+		CameraPinhole intrinsic = new CameraPinhole(400, 400, 0, 400, 400, 800, 800);
+		List<String> ids = new ArrayList<>();
+		List<List<Point2D_F64>> pixels = new ArrayList<>();
+		int numSimilar;
+
+		public SyntheticLookUp( int numViews, int numSimilar, int numPoints, long seed ) {
+			this.numSimilar = numSimilar;
+			var rand = new Random(seed);
+
+			var cloud = new ArrayList<Point3D_F64>();
+			for (int i = 0; i < numPoints; i++) {
+				cloud.add(new Point3D_F64(rand.nextGaussian(), rand.nextGaussian(), 4 + rand.nextGaussian()*0.5));
+			}
+
+			for (int viewIdx = 0; viewIdx < numViews; viewIdx++) {
+				double x = 2.0*viewIdx/numViews - 1.0;
+				Se3_F64 world_to_view = SpecialEuclideanOps_F64.eulerXyz(-x, 0, 0, 0, x*0.2, 0, null);
+
+				List<Point2D_F64> list = new ArrayList<>();
+				for (Point3D_F64 X : cloud) {
+					Point2D_F64 p = PerspectiveOps.renderPixel(world_to_view, intrinsic, X, null);
+					if (p == null)
+						p = new Point2D_F64();
+					p.x += rand.nextGaussian()*0.5;
+					p.y += rand.nextGaussian()*0.5;
+					list.add(p);
+				}
+				ids.add("" + viewIdx);
+				pixels.add(list);
+			}
+		}
+
+		@Override public List<String> getImageIDs() {return ids;}
+
+		@Override public void findSimilar( String target, List<String> similar ) {
+			similar.clear();
+			int idx = Integer.parseInt(target);
+			for (int i = Math.max(0, idx - numSimilar); i <= Math.min(ids.size() - 1, idx + numSimilar); i++) {
+				if (i != idx)
+					similar.add(ids.get(i));
+			}
+		}
+
+		@Override public void lookupPixelFeats( String target, DogArray<Point2D_F64> features ) {
+			features.reset();
+			for (Point2D_F64 p : pixels.get(Integer.parseInt(target))) {
+				features.grow().setTo(p);
+			}
+		}
+
+		@Override public boolean lookupMatches( String viewSrc, String viewDst, DogArray<AssociatedIndex> pairs ) {
+			pairs.reset();
+			int N = pixels.get(Integer.parseInt(viewSrc)).size();
+			for (int i = 0; i < N; i++) {
+				pairs.grow().setTo(i, i);
+			}
+			return true;
+		}
+
+		@Override public void lookupShape( String target, ImageDimension shape ) {
+			shape.setTo(intrinsic.width, intrinsic.height);
+		}
+	}
+
+	public static void main( String[] args ) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(BenchmarkGeneratePairwiseImageGraph.class.getSimpleName())
+				.warmupTime(TimeValue.seconds(1))
+				.measurementTime(TimeValue.seconds(1))
+				.build();
+
+		new Runner(opt).run();
+	}
+}
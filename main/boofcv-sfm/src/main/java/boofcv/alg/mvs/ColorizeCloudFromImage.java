@@ -18,6 +18,7 @@
 
 package boofcv.alg.mvs;
 
+import boofcv.alg.cloud.PointCloudReader;
 import boofcv.core.image.LookUpColorRgb;
 import boofcv.misc.BoofLambdas;
 import boofcv.misc.BoofMiscOps;
@@ -44,6 +45,7 @@ import java.util.List;
 public class ColorizeCloudFromImage<T extends ImageBase<T>> {
 	protected final @Getter LookUpColorRgb<T> colorLookup;
 
+	protected final Point3D_F64 worldPt = new Point3D_F64();
 	protected final Point3D_F64 viewPt = new Point3D_F64();
 	protected final Point4D_F64 viewPt4 = new Point4D_F64();
 	protected final Point2D_F64 pixel = new Point2D_F64();
@@ -69,6 +71,41 @@ public class ColorizeCloudFromImage<T extends ImageBase<T>> {
 		process3(image, iterator, world_to_view, norm_to_pixel, colorizer);
 	}
 
+	/**
+	 * Colorizes all the points in the specified range using the specified image.
+	 *
+	 * @param image (Input) Which image is being considered
+	 * @param cloud (Input) The point cloud
+	 * @param idx0 (Input) The first point in the point cloud that's inside this image. Inclusive.
+	 * @param idx1 (Input) The last point in the point cloud that's inside this image. Exclusive.
+	 * @param world_to_view (Input) Transform from world (cloud) into this image/view.
+	 * @param norm_to_pixel (Input) Normalized image coordinates into pixel coordinates.
+	 * @param colorizer (Output) As the color of each point becomes known this function is invoked.
+	 */
+	public void process3( T image, PointCloudReader cloud, int idx0, int idx1, Se3_F64 world_to_view,
+						  Point2Transform2_F64 norm_to_pixel, BoofLambdas.IndexRgbConsumer colorizer ) {
+		colorLookup.setImage(image);
+		for (int pointIdx = idx0; pointIdx < idx1; pointIdx++) {
+			cloud.get(pointIdx, worldPt);
+			world_to_view.transform(worldPt, viewPt);
+
+			// See if the point is behind the camera
+			if (viewPt.z <= 0.0)
+				continue;
+
+			norm_to_pixel.compute(viewPt.x/viewPt.z, viewPt.y/viewPt.z, pixel);
+
+			if (!BoofMiscOps.isInside(image, pixel.x, pixel.y))
+				continue;
+
+			int xx = (int)(pixel.x + 0.5);
+			int yy = (int)(pixel.y + 0.5);
+
+			int rgb = colorLookup.lookupRgb(xx, yy);
+			colorizer.setRgb(pointIdx, (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+		}
+	}
+
 	public void process3( T image, Iterator<PointIndex3D_F64> cloud, Se3_F64 world_to_view,
 						  Point2Transform2_F64 norm_to_pixel, BoofLambdas.IndexRgbConsumer colorizer ) {
 		colorLookup.setImage(image);
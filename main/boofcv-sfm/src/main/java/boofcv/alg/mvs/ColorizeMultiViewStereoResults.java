@@ -20,6 +20,7 @@ package boofcv.alg.mvs;
 
 import boofcv.abst.geo.bundle.SceneStructureCommon;
 import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.alg.cloud.PackedPointCloud_F32;
 import boofcv.alg.distort.brown.LensDistortionBrown;
 import boofcv.alg.geo.bundle.BundleAdjustmentOps;
 import boofcv.alg.mvs.MultiViewStereoFromKnownSceneStructure.ViewInfo;
@@ -30,10 +31,8 @@ import boofcv.struct.calib.CameraPinholeBrown;
 import boofcv.struct.distort.Point2Transform2_F64;
 import boofcv.struct.geo.PointIndex4D_F64;
 import boofcv.struct.image.ImageBase;
-import georegression.struct.point.Point3D_F64;
 import georegression.struct.se.Se3_F64;
 import lombok.Getter;
-import org.ddogleg.struct.DogArray;
 import org.ddogleg.struct.DogArray_I32;
 
 import java.util.ArrayList;
@@ -46,6 +45,10 @@ import static boofcv.misc.BoofMiscOps.checkTrue;
  * cloud computed by {@link MultiViewStereoFromKnownSceneStructure}. Color information is extracted only
  * using the first view a point was seen inside of.
  *
+ * If the MVS fuses points into a {@link VoxelHashFusion} then the points can't be colored afterwards. Instead, pass
+ * this class to {@link MultiViewStereoFromKnownSceneStructure#setFusionColorizer} before processing and the color is
+ * fused along with the points.
+ *
  * @author Peter Abeles
  */
 public class ColorizeMultiViewStereoResults<T extends ImageBase<T>> {
@@ -93,7 +96,7 @@ public class ColorizeMultiViewStereoResults<T extends ImageBase<T>> {
 		List<ViewInfo> centers = mvs.getListCenters();
 
 		// Get the point cloud
-		DogArray<Point3D_F64> cloud = mvs.getDisparityCloud().getCloud();
+		PackedPointCloud_F32 cloud = mvs.getDisparityCloud().getCloud();
 
 		// Step through each "center" view
 		for (int centerIdx = 0; centerIdx < centers.size(); centerIdx++) {
@@ -114,10 +117,29 @@ public class ColorizeMultiViewStereoResults<T extends ImageBase<T>> {
 			scene.getWorldToView(center.metric, world_to_view, tmp);
 
 			// Grab the colorized points from this view
-			colorizer.process3(image, cloud.toList(), idx0, idx1, world_to_view, norm_to_pixel, indexColor);
+			colorizer.process3(image, cloud, idx0, idx1, world_to_view, norm_to_pixel, indexColor);
 		}
 	}
 
+	/**
+	 * Loads the image for a "center" view and returns the color look up for it. Fused disparity images are in the
+	 * center view's pixel coordinates, so a pixel in the disparity image has the color of the same pixel in the image.
+	 *
+	 * @param viewID (Input) ID of the center view
+	 * @param width (Input) Width of the disparity image
+	 * @param height (Input) Height of the disparity image
+	 * @return Color look up for the view's image. Only valid until the next call.
+	 */
+	public LookUpColorRgb<T> lookupColorOfView( String viewID, int width, int height ) {
+		if (!lookupImages.loadImage(viewID, image))
+			throw new RuntimeException("Couldn't find image: " + viewID);
+		checkTrue(image.width == width && image.height == height, "Image and disparity shapes don't match");
+
+		LookUpColorRgb<T> colorLookup = colorizer.getColorLookup();
+		colorLookup.setImage(image);
+		return colorLookup;
+	}
+
 	/**
 	 * Looks up the colors for all the points in the scene by reprojecting them back onto their original images.
 	 *
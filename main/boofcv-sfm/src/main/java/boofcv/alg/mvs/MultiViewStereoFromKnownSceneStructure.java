@@ -21,16 +21,17 @@ package boofcv.alg.mvs;
 import boofcv.abst.disparity.StereoDisparity;
 import boofcv.abst.geo.bundle.BundleAdjustmentCamera;
 import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.alg.cloud.PackedPointCloud_F32;
 import boofcv.alg.distort.brown.LensDistortionBrown;
 import boofcv.alg.geo.bundle.BundleAdjustmentOps;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.core.image.LookUpColorRgb;
 import boofcv.misc.BoofMiscOps;
 import boofcv.misc.LookUpImages;
 import boofcv.struct.calib.CameraPinholeBrown;
 import boofcv.struct.distort.Point2Transform2_F64;
 import boofcv.struct.distort.PointToPixelTransform_F64;
 import boofcv.struct.image.*;
-import georegression.struct.point.Point3D_F64;
 import georegression.struct.se.Se3_F64;
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
@@ -63,6 +64,10 @@ import static java.util.Objects.requireNonNull;
  * contribution to the point cloud is needed then you need to call {@link #getDisparityCloud()} and access
  * the view specific results.
  *
+ * If a {@link VoxelHashFusion} has been assigned to {@link #getDisparityCloud()} then points are fused as they are
+ * computed. To color the fused points, specify {@link #setFusionColorizer} since the points can't be colored
+ * afterwards. If the fusion spills voxels then all remaining voxels are spilled at the end of {@link #process}.
+ *
  * NOTE: Before this can be used you must call {@link #setStereoDisparity}.
  *
  * @see ScoreRectifiedViewCoveragePixels
@@ -85,6 +90,9 @@ public class MultiViewStereoFromKnownSceneStructure<T extends ImageGray<T>> impl
 	/** Used to access temporary results before they are discarded */
 	protected @Getter @Setter @Nullable Listener<T> listener;
 
+	/** If not null then it's used to look up the color of points which are fused into a {@link VoxelHashFusion} */
+	protected @Getter @Setter @Nullable ColorizeMultiViewStereoResults<?> fusionColorizer;
+
 	/** Which views acted as "centers" and contributed to the point cloud */
 	protected final @Getter List<ViewInfo> listCenters = new ArrayList<>();
 
@@ -119,6 +127,9 @@ public class MultiViewStereoFromKnownSceneStructure<T extends ImageGray<T>> impl
 	// Which SBA view indexes are paired to the target
 	DogArray_I32 imagePairIndexesSba = new DogArray_I32();
 
+	// Center views which have been selected and the views they are paired with
+	final DogArray<CenterJob> centerJobs = new DogArray<>(CenterJob::new, CenterJob::reset);
+
 	// Used when a stereo mask is required but none is available
 	GrayU8 dummyMask = new GrayU8(1, 1);
 
@@ -169,7 +180,24 @@ public class MultiViewStereoFromKnownSceneStructure<T extends ImageGray<T>> impl
 		// Sort views based on their score for being the center view. best views are first
 		Collections.sort(arrayScores.toList(), Comparator.comparingDouble(a -> -a.score));
 
-		// Go through the list of views and use unused views as center views when computing the overall 3D cloud
+		// Select which views will act as centers. This only depends on the scores and not the disparity results
+		selectCenterViews(pairs);
+
+		// Compute the fused disparity for each center and add it to the cloud
+		computeCenterViews(scene);
+
+		// Write out voxels which are still in memory
+		VoxelHashFusion fusion = disparityCloud.getFusion();
+		if (fusion != null && fusion.getSpillTo() != null)
+			fusion.spillAll();
+	}
+
+	/**
+	 * Goes through the sorted list of views and greedily selects unused views to act as center views. The
+	 * views paired to each center are saved in {@link #centerJobs}.
+	 */
+	void selectCenterViews( StereoPairGraph pairs ) {
+		centerJobs.reset();
 		for (int index = 0; index < arrayScores.size; index++) {
 			ViewInfo center = arrayScores.get(index);
 			// if already processed skip over
@@ -182,7 +210,7 @@ public class MultiViewStereoFromKnownSceneStructure<T extends ImageGray<T>> impl
 			//      and skip if over a certain value to avoid wasting time. This can happen if a view is very
 			//      similar to a "center" view and not used due to lack of 3D information between the two
 
-			// Compute a disparity image for this cluster of stereo pairs
+			// Select the cluster of stereo pairs
 			selectAndLoadConnectedImages(pairs, center.relations);
 
 			// If none of the connected views had enough quality abort
@@ -197,8 +225,27 @@ public class MultiViewStereoFromKnownSceneStructure<T extends ImageGray<T>> impl
 			// Add image for center view
 			indexSbaToViewID.put(center.relations.indexSba, center.relations.id);
 
+			// Save the cluster so that it can be processed later on
+			CenterJob job = centerJobs.grow();
+			job.center = center;
+			job.indexSbaToViewID.putAll(indexSbaToViewID);
+			job.pairIndexesSba.setTo(imagePairIndexesSba);
+		}
+	}
+
+	/**
+	 * Computes the fused disparity image for every selected center view, in order, and adds it to the cloud
+	 */
+	protected void computeCenterViews( SceneStructureMetric scene ) {
+		for (int jobIdx = 0; jobIdx < centerJobs.size; jobIdx++) {
+			CenterJob job = centerJobs.get(jobIdx);
+
+			// The listener looks up view IDs using this map
+			indexSbaToViewID.clear();
+			indexSbaToViewID.putAll(job.indexSbaToViewID);
+
 			// Compute the fused disparity from all the views, then add points to the point cloud
-			computeFusedDisparityAddCloud(scene, center, indexSbaToViewID, imagePairIndexesSba);
+			computeFusedDisparityAddCloud(scene, job.center, indexSbaToViewID, job.pairIndexesSba);
 		}
 	}
 
@@ -303,15 +350,22 @@ public class MultiViewStereoFromKnownSceneStructure<T extends ImageGray<T>> impl
 		if (!computeFused.process(scene, center.relations.indexSba, pairIndexes, sbaIndexToName::get))
 			throw new RuntimeException("Disparity failed!");
 
+		addDisparityToCloud(scene, center, computeFused.fusedDisparity, computeFused.fusedParam);
+	}
+
+	/**
+	 * Passes the fused disparity to the listener and adds it to the point cloud
+	 */
+	protected void addDisparityToCloud( SceneStructureMetric scene, ViewInfo center,
+										GrayF32 disparity, DisparityParameters parameters ) {
 		// The fused disparity doesn't compute a mask since all invalid pixels are marked as invalid using
 		// he disparity value
-		GrayF32 disparity = computeFused.fusedDisparity;
 		dummyMask.reshape(disparity);
 		ImageMiscOps.fill(dummyMask, 0);
 
 		// Pass along results to the listener
 		if (listener != null) {
-			listener.handleFusedDisparity(center.relations.id, disparity, dummyMask, computeFused.fusedParam);
+			listener.handleFusedDisparity(center.relations.id, disparity, dummyMask, parameters);
 		}
 
 		// Convert data structures into a format which is understood by disparity to cloud
@@ -323,10 +377,17 @@ public class MultiViewStereoFromKnownSceneStructure<T extends ImageGray<T>> impl
 		// world/cloud coordinates into this view
 		scene.getWorldToView(center.metric, world_to_view1, tmp);
 
+		// Fused points can only be colored as they are added since they are merged into voxels
+		LookUpColorRgb<?> colorLookup = null;
+		if (fusionColorizer != null && disparityCloud.getFusion() != null) {
+			colorLookup = fusionColorizer.lookupColorOfView(
+					center.relations.id, disparity.width, disparity.height);
+		}
+
 		// Use the computed disparity to add to the common point cloud while not adding points already in
 		// the cloud
-		disparityCloud.addDisparity(disparity, dummyMask, world_to_view1, computeFused.fusedParam,
-				norm_to_pixel, new PointToPixelTransform_F64(pixel_to_norm));
+		disparityCloud.addDisparity(disparity, dummyMask, world_to_view1, parameters,
+				norm_to_pixel, new PointToPixelTransform_F64(pixel_to_norm), colorLookup);
 	}
 
 	/**
@@ -369,9 +430,12 @@ public class MultiViewStereoFromKnownSceneStructure<T extends ImageGray<T>> impl
 		}
 	}
 
-	/** Returns the computed 3D point cloud. */
-	public List<Point3D_F64> getCloud() {
-		return disparityCloud.cloud.toList();
+	/**
+	 * Returns the computed 3D point cloud. If a {@link VoxelHashFusion} has been assigned to {@link #disparityCloud}
+	 * then this will be empty and the points are inside the fusion or have been spilled.
+	 */
+	public PackedPointCloud_F32 getCloud() {
+		return disparityCloud.cloud;
 	}
 
 	/** Specifies which stereo disparity algorithm to use */
@@ -413,6 +477,22 @@ public class MultiViewStereoFromKnownSceneStructure<T extends ImageGray<T>> impl
 		}
 	}
 
+	/** A center view and the views it's paired with. Everything needed to compute its fused disparity */
+	static class CenterJob {
+		// The center view
+		ViewInfo center;
+		// Look up table from SBA index to view ID for the center and paired views
+		final TIntObjectMap<String> indexSbaToViewID = new TIntObjectHashMap<>();
+		// SBA index of views which are paired to the center
+		final DogArray_I32 pairIndexesSba = new DogArray_I32();
+
+		void reset() {
+			center = null;
+			indexSbaToViewID.clear();
+			pairIndexesSba.reset();
+		}
+	}
+
 	/** Used to capture intermediate results */
 	public interface Listener<RectImg> {
 		/**
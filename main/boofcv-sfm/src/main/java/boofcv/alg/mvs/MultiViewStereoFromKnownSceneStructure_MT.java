@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.mvs;
+
+import boofcv.abst.disparity.DisparitySmoother;
+import boofcv.abst.disparity.StereoDisparity;
+import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.misc.BoofLambdas;
+import boofcv.misc.BoofMiscOps;
+import boofcv.misc.LookUpImages;
+import boofcv.misc.LookUpImagesCache;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
+import lombok.Getter;
+import lombok.Setter;
+import org.ddogleg.struct.DogArray;
+import org.jetbrains.annotations.Nullable;
+import pabeles.concurrency.GrowArray;
+
+import java.util.Objects;
+
+/**
+ * Concurrent implementation of {@link MultiViewStereoFromKnownSceneStructure}. Center views are independent of each
+ * other once they have been selected, so their fused disparity images are computed in parallel. Each thread has
+ * its own {@link MultiBaselineStereoIndependent} with its own {@link StereoDisparity} and {@link DisparitySmoother}.
+ * Since each center view holds several rectified images in memory, at most {@link #maxConcurrent} center views are
+ * processed at once. Images are loaded through a {@link LookUpImagesCache} since the same image is often used by
+ * multiple center views.
+ *
+ * Results are passed to the {@link Listener} and added to the point cloud in the same order as the single
+ * threaded version, so the output is identical.
+ *
+ * If the stereo disparity or smoother created by the factories is replaced, e.g. by calling
+ * {@link #setStereoDisparity}, then there's only a single instance which can't be shared between threads and
+ * center views are processed by the single threaded code.
+ *
+ * @author Peter Abeles
+ */
+public class MultiViewStereoFromKnownSceneStructure_MT<T extends ImageGray<T>>
+		extends MultiViewStereoFromKnownSceneStructure<T> {
+
+	/** Maximum number of center views which are processed at the same time. Bounds memory usage. */
+	public @Getter @Setter int maxConcurrent = 4;
+
+	/** Maximum number of images which are saved in the image cache */
+	public @Getter @Setter int cacheSize = 20;
+
+	// Computes the fused disparity for each thread
+	final GrowArray<MultiBaselineStereoIndependent<T>> workers;
+
+	// Results for each center view in the current batch
+	final DogArray<CenterResults> results;
+
+	// Cache for images in the look up
+	@Nullable LookUpImagesCache cache;
+
+	// Instances created by the factories. Used to detect if the user replaced them
+	final StereoDisparity<T, GrayF32> factoryStereo;
+	final @Nullable DisparitySmoother<T, GrayF32> factorySmoother;
+
+	/**
+	 * @param imageType Type of input image
+	 * @param factoryDisparity Creates the stereo disparity algorithm used by each thread
+	 * @param factorySmoother Creates the disparity smoother used by each thread. Can be null.
+	 */
+	public MultiViewStereoFromKnownSceneStructure_MT(
+			ImageType<T> imageType,
+			BoofLambdas.Factory<StereoDisparity<T, GrayF32>> factoryDisparity,
+			@Nullable BoofLambdas.Factory<DisparitySmoother<T, GrayF32>> factorySmoother ) {
+		super(imageType);
+		this.factoryStereo = factoryDisparity.newInstance();
+		this.factorySmoother = factorySmoother != null ? factorySmoother.newInstance() : null;
+		setStereoDisparity(this.factoryStereo);
+		computeFused.setDisparitySmoother(this.factorySmoother);
+
+		workers = new GrowArray<>(() -> {
+			var alg = new MultiBaselineStereoIndependent<>(imageType);
+			alg.setStereoDisparity(factoryDisparity.newInstance());
+			if (factorySmoother != null)
+				alg.setDisparitySmoother(factorySmoother.newInstance());
+			return alg;
+		});
+		results = new DogArray<>(() -> new CenterResults(imageType), CenterResults::reset);
+	}
+
+	@Override protected void computeCenterViews( SceneStructureMetric scene ) {
+		BoofMiscOps.checkTrue(maxConcurrent > 0, "maxConcurrent must be positive");
+
+		// A user provided algorithm can't be copied for each thread
+		if (computeFused.getStereoDisparity() != factoryStereo ||
+				computeFused.getDisparitySmoother() != factorySmoother) {
+			super.computeCenterViews(scene);
+			return;
+		}
+
+		// Images are shared between center views and decoding them can be expensive
+		LookUpImages lookUp = Objects.requireNonNull(imageLookUp, "Must call setImageLookUp() first");
+		if (cache == null || cache.getLookUp() != lookUp || cache.getMaxImages() != cacheSize)
+			cache = new LookUpImagesCache(lookUp, cacheSize);
+		else
+			cache.clear();
+		LookUpImagesCache cache = this.cache;
+
+		for (int batch0 = 0; batch0 < centerJobs.size; batch0 += maxConcurrent) {
+			final int offset = batch0;
+			int batch1 = Math.min(centerJobs.size, batch0 + maxConcurrent);
+
+			results.reset();
+			results.resize(batch1 - batch0);
+
+			// Compute the fused disparity for each center view in this batch
+			BoofConcurrency.loopBlocks(batch0, batch1, 1, workers, ( alg, idx0, idx1 ) -> {
+				// Each worker should be configured the same as the single threaded algorithm
+				alg.verbose = computeFused.verbose;
+				alg.setVerboseProfiling(computeFused.getVerboseProfiling());
+				alg.setLookUpImages(cache);
+				for (int jobIdx = idx0; jobIdx < idx1; jobIdx++) {
+					computeCenterFused(scene, alg, centerJobs.get(jobIdx), results.get(jobIdx - offset));
+				}
+			});
+
+			// Pass along the results in the same order as the single threaded version
+			for (int jobIdx = batch0; jobIdx < batch1; jobIdx++) {
+				CenterJob job = centerJobs.get(jobIdx);
+				CenterResults r = results.get(jobIdx - batch0);
+				if (!r.success)
+					throw new RuntimeException("Disparity failed!");
+
+				if (listener != null) {
+					for (int i = 0; i < r.pairs.size; i++) {
+						PairResults p = r.pairs.get(i);
+						listener.handlePairDisparity(p.leftID, p.rightID, p.rectLeft, p.rectRight,
+								p.disparity, p.mask, p.parameters);
+					}
+				}
+
+				addDisparityToCloud(scene, job.center, r.disparity, r.parameters);
+			}
+		}
+	}
+
+	/**
+	 * Computes the fused disparity for a single center view and copies the results
+	 */
+	void computeCenterFused( SceneStructureMetric scene, MultiBaselineStereoIndependent<T> alg,
+							 CenterJob job, CenterResults r ) {
+		// Save results from each stereo pair only if someone is going to look at them
+		if (listener != null) {
+			alg.setListener(( left, right, rectLeft, rectRight, disparity, mask, parameters, rect ) -> {
+				PairResults p = r.pairs.grow();
+				p.leftID = job.indexSbaToViewID.get(left);
+				p.rightID = job.indexSbaToViewID.get(right);
+				p.rectLeft.setTo(rectLeft);
+				p.rectRight.setTo(rectRight);
+				p.disparity.setTo(disparity);
+				p.mask.setTo(mask);
+				p.parameters.setTo(parameters);
+			});
+		} else {
+			alg.setListener(null);
+		}
+
+		r.success = alg.process(scene, job.center.relations.indexSba, job.pairIndexesSba,
+				job.indexSbaToViewID::get);
+		if (!r.success)
+			return;
+
+		r.disparity.setTo(alg.fusedDisparity);
+		r.parameters.setTo(alg.fusedParam);
+	}
+
+	/** Results from computing the fused disparity for a center view */
+	class CenterResults {
+		boolean success;
+		final GrayF32 disparity = new GrayF32(1, 1);
+		final DisparityParameters parameters = new DisparityParameters();
+		// Results from individual stereo pairs. Only saved if there's a listener
+		final DogArray<PairResults> pairs;
+
+		CenterResults( ImageType<T> imageType ) {
+			pairs = new DogArray<>(() -> new PairResults(imageType));
+		}
+
+		void reset() {
+			success = false;
+			pairs.reset();
+		}
+	}
+
+	/** Copy of the results from a single stereo pair */
+	class PairResults {
+		String leftID = "";
+		String rightID = "";
+		final T rectLeft, rectRight;
+		final GrayF32 disparity = new GrayF32(1, 1);
+		final GrayU8 mask = new GrayU8(1, 1);
+		final DisparityParameters parameters = new DisparityParameters();
+
+		PairResults( ImageType<T> imageType ) {
+			rectLeft = imageType.createImage(1, 1);
+			rectRight = imageType.createImage(1, 1);
+		}
+	}
+}
@@ -209,7 +209,7 @@ public abstract class VisOdomBundlePnPBase<Track extends VisOdomBundleAdjustment
 //			System.out.println("Dropping frame ID "+frameToDrop.id);
 
 			// update data structures
-			bundleViso.removeFrame(frameToDrop, removedBundleTracks);
+			bundleViso.dropKeyFrame(frameToDrop, removedBundleTracks);
 
 			// These tracks were visually being tracked and were removed. So drop them from the visual tracker
 			for (int removeIdx = 0; removeIdx < removedBundleTracks.size(); removeIdx++) {
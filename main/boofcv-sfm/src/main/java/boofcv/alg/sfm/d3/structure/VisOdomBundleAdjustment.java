@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2020, Peter Abeles. All Rights Reserved.
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
  *
  * This file is part of BoofCV (http://boofcv.org).
  *
@@ -30,9 +30,12 @@ import boofcv.struct.calib.CameraPinholeBrown;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point4D_F64;
 import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
 import gnu.trove.set.hash.TLongHashSet;
 import lombok.Getter;
+import lombok.Setter;
 import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_I64;
 import org.ddogleg.struct.Factory;
 import org.ddogleg.struct.FastArray;
 import org.jetbrains.annotations.Nullable;
@@ -40,10 +43,22 @@ import org.jetbrains.annotations.Nullable;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Bundle adjustment specifically intended for use with visual odometry algorithms.
  *
+ * <p>If {@link #asynchronous} is true then bundle adjustment is run in a background thread on a snapshot of
+ * the scene. The calling thread is free to keep adding and removing frames and tracks. Once the optimization
+ * has finished, the next call to {@link #optimize} merges the results back in. Frames and tracks which were
+ * added after the snapshot are moved into the optimized coordinate system using the correction found for the
+ * most recent frame in the snapshot.</p>
+ *
+ * <p>If {@link #maxMarginalized} is positive then frames which are removed aren't discarded right away. Their
+ * observations of tracks which are still alive are kept and the frame is added to bundle adjustment as a view
+ * with a fixed pose. This approximates marginalization by conditioning on the dropped frame's last estimate,
+ * so its information still constrains the remaining tracks. Only the most recently dropped frames are kept.</p>
+ *
  * @author Peter Abeles
  */
 public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
@@ -54,6 +69,8 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 	public final DogArray<BFrame> frames = new DogArray<>(BFrame::new, BFrame::reset);
 	/** List of all the cameras */
 	public final DogArray<BCamera> cameras = new DogArray<>(BCamera::new, BCamera::reset);
+	/** Frames which have been removed but are kept as fixed views in bundle adjustment. Oldest first */
+	public final DogArray<BFrame> marginalized = new DogArray<>(BFrame::new, BFrame::reset);
 
 	/** Configurations and implementation of bundle adjustment */
 	public final MetricBundleAdjustmentUtils bundle = new MetricBundleAdjustmentUtils();
@@ -63,17 +80,54 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 	// Reduce the number of tracks feed into bundle adjustment to make it run at a reasonable speed
 	@Getter SelectTracksInFrameForBundleAdjustment selectTracks = new SelectTracksInFrameForBundleAdjustment(0xBEEF);
 
+	/** If true then bundle adjustment is run in a background thread and doesn't block the caller */
+	@Getter @Setter boolean asynchronous = false;
+
+	/** Maximum number of removed frames which are kept as fixed views. If zero then removed frames are discarded */
+	@Getter @Setter int maxMarginalized = 0;
+
+	// Thread which is optimizing the snapshot. null if there is no background optimization
+	@Nullable Thread asyncThread;
+	// true once the background thread is done with the snapshot
+	volatile boolean asyncFinished;
+	// true if bundle adjustment in the background thread reported success
+	boolean asyncSuccess;
+	// Exception thrown inside the background thread. Re-thrown in the caller's thread
+	@Nullable RuntimeException asyncException;
+
+	// Frames and tracks in the snapshot. Their IDs are saved to detect when one has been removed and recycled
+	final FastArray<BFrame> snapshotFrames = new FastArray<>(BFrame.class);
+	final DogArray_I64 snapshotFrameIDs = new DogArray_I64();
+	final DogArray<Se3_F64> snapshotFrameToWorld = new DogArray<>(Se3_F64::new);
+	final FastArray<BTrack> snapshotTracks = new FastArray<>(BTrack.class);
+	final DogArray_I64 snapshotTrackIDs = new DogArray_I64();
+
 	final Se3_F64 world_to_view = new Se3_F64();
 
+	// Workspace for merging asynchronous results
+	final Se3_F64 optimized_to_world = new Se3_F64();
+	final Se3_F64 snapshot_to_world = new Se3_F64();
+	final Se3_F64 snapshot_to_anchor = new Se3_F64();
+	final Se3_F64 tmpSe3 = new Se3_F64();
+
 	public VisOdomBundleAdjustment( Factory<T> factoryTracks ) {
 		this.tracks = new DogArray<>(factoryTracks, BTrack::reset);
 		bundle.configConverge.setTo(new ConfigConverge(1e-3, 1e-3, 3));
 	}
 
 	/**
-	 * Performs bundle adjustment on the scene and updates parameters
+	 * Performs bundle adjustment on the scene and updates parameters. If {@link #asynchronous} then results from
+	 * a finished background optimization are merged in and a new one is started. If the previous background
+	 * optimization is still running then nothing happens.
 	 */
 	public void optimize( @Nullable PrintStream verbose ) {
+		if (asynchronous) {
+			optimizeAsynchronous(verbose);
+			return;
+		}
+		// If it was switched from asynchronous mode, don't leave the background thread hanging
+		finishOptimize(verbose);
+
 		selectTracks.selectTracks(this, selectedTracks);
 		setupBundleStructure();
 
@@ -84,6 +138,155 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 		copyResults();
 	}
 
+	private void optimizeAsynchronous( @Nullable PrintStream verbose ) {
+		if (asyncThread != null) {
+			if (!asyncFinished)
+				return;
+			mergeAsyncResults(verbose);
+		}
+
+		// Bundle adjustment's internal structures are a copy of the scene and are only touched by the
+		// background thread until it finishes
+		selectTracks.selectTracks(this, selectedTracks);
+		setupBundleStructure();
+		saveSnapshot();
+
+		asyncFinished = false;
+		asyncSuccess = false;
+		asyncException = null;
+		asyncThread = new Thread(() -> {
+			try {
+				asyncSuccess = bundle.process(verbose);
+			} catch (RuntimeException e) {
+				asyncException = e;
+			} finally {
+				asyncFinished = true;
+			}
+		}, "VisOdomBundle");
+		asyncThread.setDaemon(true);
+		asyncThread.start();
+	}
+
+	/**
+	 * Blocks until the background optimization has finished then merges its results into the scene. Does nothing
+	 * if there is no background optimization.
+	 */
+	public void finishOptimize( @Nullable PrintStream verbose ) {
+		if (asyncThread == null)
+			return;
+		mergeAsyncResults(verbose);
+	}
+
+	/** Returns true if bundle adjustment is currently running in a background thread */
+	public boolean isOptimizeRunning() {
+		return asyncThread != null && !asyncFinished;
+	}
+
+	/**
+	 * Saves references to the frames and tracks which were passed to bundle adjustment, as well as the frame
+	 * locations before optimization.
+	 */
+	private void saveSnapshot() {
+		snapshotFrames.reset();
+		snapshotFrameIDs.reset();
+		snapshotFrameToWorld.reset();
+		for (int frameIdx = 0; frameIdx < frames.size; frameIdx++) {
+			BFrame bf = frames.get(frameIdx);
+			snapshotFrames.add(bf);
+			snapshotFrameIDs.add(bf.id);
+			snapshotFrameToWorld.grow().setTo(bf.frame_to_world);
+		}
+
+		// Same order as the points in the bundle adjustment structure
+		snapshotTracks.reset();
+		snapshotTrackIDs.reset();
+		for (int trackIdx = 0; trackIdx < tracks.size; trackIdx++) {
+			BTrack bt = tracks.get(trackIdx);
+			if (!bt.selected)
+				continue;
+			snapshotTracks.add(bt);
+			snapshotTrackIDs.add(bt.id);
+		}
+	}
+
+	/**
+	 * Waits for the background thread then copies its results into the scene. Everything in the scene is first
+	 * moved by the correction found for the most recent snapshot frame which still exists. This brings frames and
+	 * tracks which were estimated after the snapshot into the optimized coordinate system. Then frames and tracks
+	 * which were optimized are overwritten with their optimized state.
+	 */
+	private void mergeAsyncResults( @Nullable PrintStream verbose ) {
+		Thread thread = Objects.requireNonNull(asyncThread);
+		asyncThread = null;
+		// join also ensures that everything written by the background thread is visible
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+
+		if (asyncException != null) {
+			RuntimeException e = asyncException;
+			asyncException = null;
+			throw e;
+		}
+
+		if (!asyncSuccess) {
+			if (verbose != null) verbose.println("Bundle adjustment failed!");
+		}
+
+		final SceneStructureMetric structure = bundle.getStructure();
+
+		// Find the most recent frame which was optimized and is still in the scene
+		int anchorIdx = -1;
+		for (int i = snapshotFrames.size - 1; i >= 0; i--) {
+			if (isSnapshotFrameInScene(i)) {
+				anchorIdx = i;
+				break;
+			}
+		}
+		// Everything which was optimized has since been dropped
+		if (anchorIdx < 0)
+			return;
+
+		// Transform from the world frame of the snapshot to the optimized world frame
+		structure.getParentToView(anchorIdx).invert(optimized_to_world);
+		snapshotFrameToWorld.get(anchorIdx).invert(snapshot_to_anchor);
+		snapshot_to_anchor.concat(optimized_to_world, snapshot_to_world);
+
+		for (int frameIdx = 0; frameIdx < frames.size; frameIdx++) {
+			BFrame bf = frames.get(frameIdx);
+			bf.frame_to_world.concat(snapshot_to_world, tmpSe3);
+			bf.frame_to_world.setTo(tmpSe3);
+		}
+		for (int trackIdx = 0; trackIdx < tracks.size; trackIdx++) {
+			BTrack bt = tracks.get(trackIdx);
+			SePointOps_F64.transform(snapshot_to_world, bt.worldLoc, bt.worldLoc);
+		}
+
+		// The first frame was fixed and is included so that it's restored to the location it was held at
+		for (int i = 0; i < snapshotFrames.size; i++) {
+			if (!isSnapshotFrameInScene(i))
+				continue;
+			structure.getParentToView(i).invert(snapshotFrames.get(i).frame_to_world);
+		}
+
+		for (int i = 0; i < snapshotTracks.size; i++) {
+			BTrack bt = snapshotTracks.get(i);
+			// Tracks which have been removed have no observations and a recycled track will have a different ID
+			if (bt.id != snapshotTrackIDs.get(i) || bt.observations.size == 0)
+				continue;
+			structure.points.get(i).get(bt.worldLoc);
+		}
+	}
+
+	/** True if the frame at this index in the snapshot is still in the scene and hasn't been recycled */
+	private boolean isSnapshotFrameInScene( int index ) {
+		BFrame bf = snapshotFrames.get(index);
+		return bf.id == snapshotFrameIDs.get(index) &&
+				bf.listIndex >= 0 && bf.listIndex < frames.size && frames.data[bf.listIndex] == bf;
+	}
+
 	/** Returns true if it is configured to be optimized */
 	public boolean isOptimizeActive() {
 		return bundle.configConverge.maxIterations > 0;
@@ -110,8 +313,9 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 		// Initialize data structures
 		final SceneStructureMetric structure = bundle.getStructure();
 		final SceneObservations observations = bundle.getObservations();
-		observations.initialize(frames.size);
-		structure.initialize(cameras.size, frames.size, totalBundleTracks);
+		final int totalViews = frames.size + marginalized.size;
+		observations.initialize(totalViews);
+		structure.initialize(cameras.size, totalViews, totalBundleTracks);
 		for (int cameraIdx = 0; cameraIdx < cameras.size; cameraIdx++) {
 			structure.setCamera(cameraIdx, true, cameras.get(cameraIdx).bundleCamera);
 		}
@@ -124,6 +328,14 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 			frames.get(frameIdx).listIndex = frameIdx; // save the index since it's needed in the next loop
 		}
 
+		// Marginalized frames come after the active frames and their pose is fixed
+		for (int i = 0; i < marginalized.size; i++) {
+			BFrame bf = marginalized.get(i);
+			bf.listIndex = frames.size + i;
+			bf.frame_to_world.invert(world_to_view);
+			structure.setView(bf.listIndex, bf.camera.index, true, world_to_view);
+		}
+
 		// A feature is only passed to SBA if it is active and more than one view has seen it
 		// this requires it to have a different index
 		int featureBundleIdx = 0;
@@ -140,6 +352,11 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 				SceneObservations.View view = observations.getView(o.frame.listIndex);
 				view.add(featureBundleIdx, (float)o.pixel.x, (float)o.pixel.y);
 			}
+			for (int obsIdx = 0; obsIdx < bt.marginalized.size; obsIdx++) {
+				BObservation o = bt.marginalized.get(obsIdx);
+				SceneObservations.View view = observations.getView(o.frame.listIndex);
+				view.add(featureBundleIdx, (float)o.pixel.x, (float)o.pixel.y);
+			}
 			featureBundleIdx++;
 		}
 
@@ -175,6 +392,19 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 	 * Returns to its original state with new views. The camera model is saved
 	 */
 	public void reset() {
+		// Wait for the background thread but throw away its results
+		if (asyncThread != null) {
+			try {
+				asyncThread.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			asyncThread = null;
+			asyncException = null;
+		}
+		snapshotFrames.reset();
+		snapshotTracks.reset();
+		marginalized.reset();
 		frames.reset();
 		tracks.reset();
 		cameras.reset();
@@ -187,14 +417,19 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 		frame.tracks.add(track);
 	}
 
-	/** Searches for a track that has the following tracker track. null is none were found */
-	public T findByTrackerTrack( PointTrack target ) {
-		for (int i = 0; i < tracks.size; i++) {
-			if (tracks.get(i).visualTrack == target) {
-				return tracks.get(i);
-			}
-		}
-		return null;
+	/**
+	 * Looks up the track which has the following tracker track. The tracker track's cookie is used as an index
+	 * and must reference its track, which is how the visual odometry algorithms associate the two. null if
+	 * none were found
+	 */
+	public @Nullable T findByTrackerTrack( PointTrack target ) {
+		if (!(target.cookie instanceof BTrack))
+			return null;
+		BTrack bt = (BTrack)target.cookie;
+		// If the track was dropped or recycled it will no longer reference the tracker track
+		if (bt.visualTrack != target)
+			return null;
+		return (T)bt;
 	}
 
 	public T addTrack( double x, double y, double z, double w ) {
@@ -213,15 +448,31 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 		BFrame frame = frames.grow();
 		frame.camera = cameras.get(cameraIndex);
 		frame.id = id;
+		frame.listIndex = frames.size - 1;
 		return frame;
 	}
 
 	BFrame addFrameDebug( long id ) {
 		BFrame frame = frames.grow();
 		frame.id = id;
+		frame.listIndex = frames.size - 1;
 		return frame;
 	}
 
+	/**
+	 * Removes a key frame which is no longer needed. If {@link #maxMarginalized} is positive then the frame's
+	 * observations of tracks which are still alive are saved in a marginalized copy of the frame before
+	 * it's removed.
+	 *
+	 * @param frame The frame that is to be dropped
+	 * @param removedVisualTracks (Output) List of visual tracks which had their bundle track removed
+	 */
+	public void dropKeyFrame( BFrame frame, List<PointTrack> removedVisualTracks ) {
+		if (maxMarginalized > 0)
+			marginalizeFrame(frame);
+		removeFrame(frame, removedVisualTracks);
+	}
+
 	/**
 	 * Removes the frame and all references to it. If a track has no observations after this
 	 * it is also removed from the master list.
@@ -231,8 +482,8 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 	 */
 	public void removeFrame( BFrame frame, List<PointTrack> removedVisualTracks ) {
 		removedVisualTracks.clear();
-		int index = frames.indexOf(frame);
-		if (index < 0) {
+		int index = frame.listIndex;
+		if (index < 0 || index >= frames.size || frames.data[index] != frame) {
 			throw new RuntimeException("BUG! frame not in frames list");
 		}
 
@@ -270,6 +521,49 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 		}
 
 		frames.remove(index);
+		frame.listIndex = -1;
+		// Frames after the removed one were shifted down
+		for (int frameIdx = index; frameIdx < frames.size; frameIdx++) {
+			frames.data[frameIdx].listIndex = frameIdx;
+		}
+	}
+
+	/**
+	 * Saves a copy of the frame and its observations of tracks which will still exist after it has been removed.
+	 * If there are too many marginalized frames then the oldest is discarded.
+	 */
+	void marginalizeFrame( BFrame frame ) {
+		BFrame copy = marginalized.grow();
+		copy.id = frame.id;
+		copy.camera = frame.camera;
+		copy.frame_to_world.setTo(frame.frame_to_world);
+
+		for (int trackIdx = 0; trackIdx < frame.tracks.size; trackIdx++) {
+			BTrack bt = frame.tracks.get(trackIdx);
+			// The track will be removed along with the frame
+			if (bt.observations.size <= 1)
+				continue;
+			BObservation o = Objects.requireNonNull(bt.findObservationBy(frame));
+			BObservation m = bt.marginalized.grow();
+			m.frame = copy;
+			m.pixel.setTo(o.pixel);
+			copy.tracks.add(bt);
+		}
+
+		// It provides no information
+		if (copy.tracks.size == 0) {
+			marginalized.removeTail();
+			return;
+		}
+
+		while (marginalized.size > maxMarginalized) {
+			BFrame oldest = marginalized.get(0);
+			// Tracks which have since been removed and recycled won't reference this frame
+			for (int trackIdx = 0; trackIdx < oldest.tracks.size; trackIdx++) {
+				oldest.tracks.get(trackIdx).removeMarginalizedRef(oldest);
+			}
+			marginalized.remove(0);
+		}
 	}
 
 	public BFrame getLastFrame() { return frames.get(frames.size - 1); }
@@ -327,6 +621,8 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 		public PointTrack visualTrack;
 		public final Point4D_F64 worldLoc = new Point4D_F64();
 		public final DogArray<BObservation> observations = new DogArray<>(BObservation::new, BObservation::reset);
+		/** Observations from frames which have been removed and marginalized */
+		public final DogArray<BObservation> marginalized = new DogArray<>(BObservation::new, BObservation::reset);
 		/** if true then the track has been an inlier at least once and should be considered for optimization */
 		public boolean hasBeenInlier;
 		/** true if it was selected for inclusion in the optimization */
@@ -353,6 +649,7 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 		public void reset() {
 			worldLoc.setTo(0, 0, 0, 0);
 			observations.reset();
+			marginalized.reset();
 			hasBeenInlier = false;
 			selected = false;
 			visualTrack = null;
@@ -373,6 +670,21 @@ public class VisOdomBundleAdjustment<T extends VisOdomBundleAdjustment.BTrack> {
 			}
 			return false;
 		}
+
+		/**
+		 * Removes the marginalized observation from the specified frame
+		 *
+		 * @return true if a match was found and removed. False otherwise.
+		 */
+		public boolean removeMarginalizedRef( BFrame frame ) {
+			for (int i = marginalized.size - 1; i >= 0; i--) {
+				if (marginalized.data[i].frame == frame) {
+					marginalized.removeSwap(i);
+					return true;
+				}
+			}
+			return false;
+		}
 	}
 
 	/**
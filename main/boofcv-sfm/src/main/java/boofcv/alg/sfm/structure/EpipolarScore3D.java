@@ -55,4 +55,9 @@ public interface EpipolarScore3D extends VerbosePrint {
 	 * @return true if 3D or false if not
 	 */
 	boolean is3D();
+
+	/**
+	 * Resets the internal state, e.g. random number generators, so that the results only depend on the input
+	 */
+	void reset();
 }
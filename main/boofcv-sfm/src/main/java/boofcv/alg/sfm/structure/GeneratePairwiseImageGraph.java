@@ -24,6 +24,7 @@ import georegression.struct.point.Point2D_F64;
 import lombok.Getter;
 import org.ddogleg.struct.DogArray;
 import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.FastArray;
 import org.ddogleg.struct.VerbosePrint;
 import org.ejml.data.DMatrixRMaj;
 import org.jetbrains.annotations.Nullable;
@@ -47,6 +48,22 @@ public class GeneratePairwiseImageGraph implements VerbosePrint {
 	/** Used to score if the two views have a 3D relationship or not */
 	public final @Getter EpipolarScore3D epipolarScore;
 
+	/**
+	 * Number of image pairs which are collected before they are scored. Edges are added to the graph after each
+	 * batch has been scored.
+	 */
+	public int batchSize = 200;
+
+	/** Nodes which were added to the graph the last time images were processed */
+	protected final @Getter FastArray<PairwiseImageGraph.View> newViews =
+			new FastArray<>(PairwiseImageGraph.View.class);
+
+	// Image pairs which are waiting to be scored
+	protected final DogArray<Candidate> candidates = new DogArray<>(Candidate::new, Candidate::reset);
+
+	// Storage for scoring image pairs in the single threaded implementation
+	private final Workspace workspace;
+
 	private PrintStream verbose;
 
 	/**
@@ -54,6 +71,7 @@ public class GeneratePairwiseImageGraph implements VerbosePrint {
 	 */
 	public GeneratePairwiseImageGraph( EpipolarScore3D epipolarScore ) {
 		this.epipolarScore = epipolarScore;
+		this.workspace = new Workspace(epipolarScore);
 	}
 
 	/**
@@ -63,94 +81,177 @@ public class GeneratePairwiseImageGraph implements VerbosePrint {
 	 * @param db Images with feature associations
 	 */
 	public void process( LookUpSimilarImages db ) {
-		this.imageIds = db.getImageIDs();
 		this.graph.reset();
+		processNewImages(db);
+	}
+
+	/**
+	 * Adds images in the db which are not already in the graph. Only image pairs with at least one new image are
+	 * considered, so the cost scales with the number of new images and not the total number of images. Existing
+	 * nodes and edges are not modified. Retrieve the added nodes using {@link #getNewViews()}.
+	 *
+	 * @param db Images with feature associations. Must contain all the images already in the graph.
+	 */
+	public void processNewImages( LookUpSimilarImages db ) {
+		this.imageIds = db.getImageIDs();
+		this.candidates.reset();
+		this.newViews.reset();
 
 		List<String> similar = new ArrayList<>();
 		DogArray<Point2D_F64> srcFeats = new DogArray<>(Point2D_F64::new);
 		DogArray<Point2D_F64> dstFeats = new DogArray<>(Point2D_F64::new);
-		DogArray<AssociatedIndex> matches = new DogArray<>(AssociatedIndex::new);
-		DogArray<AssociatedPair> pairs = new DogArray<>(AssociatedPair::new);
 
-		// map to quickly look up the ID of a view
-		Map<String, Integer> imageToIndex = new HashMap<>();
+		// map to quickly look up the index of a new view
+		Map<String, Integer> newToIndex = new HashMap<>();
 
-		// Create a node in the graph for each image
+		// Create a node in the graph for each image which isn't already in the graph
 		for (int idxTgt = 0; idxTgt < imageIds.size(); idxTgt++) {
-			imageToIndex.put(imageIds.get(idxTgt), idxTgt);
-			graph.createNode(imageIds.get(idxTgt));
+			if (graph.lookupNode(imageIds.get(idxTgt)) != null)
+				continue;
+			newToIndex.put(imageIds.get(idxTgt), newViews.size);
+			newViews.add(graph.createNode(imageIds.get(idxTgt)));
 		}
 
-		if (verbose != null) verbose.println("total images = " + imageIds.size());
+		if (verbose != null) verbose.println("total images = " + imageIds.size() + " new = " + newViews.size);
 
-		// For each image examine all related images for a true geometric relationship
+		// For each new image examine all related images for a true geometric relationship
 		// if one exists then add an edge to the graph describing their relationship
-		for (int idxTgt = 0; idxTgt < imageIds.size(); idxTgt++) {
-			String src = imageIds.get(idxTgt);
+		for (int idxNew = 0; idxNew < newViews.size; idxNew++) {
+			PairwiseImageGraph.View srcView = newViews.get(idxNew);
+			String src = srcView.id;
 
 			db.findSimilar(src, similar);
 			db.lookupPixelFeats(src, srcFeats);
 
 			if (verbose != null) verbose.println("ID=" + src + " similar=" + similar.size() + "  obs=" + srcFeats.size);
 
-			graph.nodes.get(idxTgt).totalObservations = srcFeats.size;
+			srcView.totalObservations = srcFeats.size;
 
 			for (int idxSimilar = 0; idxSimilar < similar.size(); idxSimilar++) {
 				String dst = similar.get(idxSimilar);
 
-				// make sure it isn't considering the same motion twice
-				int dstIdx = imageToIndex.get(dst);
-				if (dstIdx <= idxTgt)
+				// make sure it isn't considering the same motion twice. Pairs with images which were already in
+				// the graph are always new
+				Integer dstIdx = newToIndex.get(dst);
+				if (dstIdx != null && dstIdx <= idxNew)
 					continue;
 
 				// get information on the features and association
+				Candidate c = candidates.grow();
+				c.src = src;
+				c.dst = dst;
 				db.lookupPixelFeats(dst, dstFeats);
-				db.lookupMatches(src, dst, matches);
+				db.lookupMatches(src, dst, c.matches);
 
-				pairs.reset();
-				for (int i = 0; i < matches.size; i++) {
-					AssociatedIndex m = matches.get(i);
-					pairs.grow().setTo(srcFeats.get(m.src), dstFeats.get(m.dst));
+				for (int i = 0; i < c.matches.size; i++) {
+					AssociatedIndex m = c.matches.get(i);
+					c.pairs.grow().setTo(srcFeats.get(m.src), dstFeats.get(m.dst));
 				}
 
-				createEdge(src, dst, pairs, matches);
+				if (candidates.size >= batchSize)
+					processCandidates();
 			}
 		}
+		processCandidates();
+	}
+
+	/**
+	 * Scores all the candidates then adds edges to the graph in the same order the candidates were found in.
+	 */
+	private void processCandidates() {
+		scoreCandidates();
+		for (int i = 0; i < candidates.size; i++) {
+			createEdge(candidates.get(i));
+		}
+		candidates.reset();
+	}
+
+	/**
+	 * Scores all the candidates. Each candidate is independent of the others.
+	 */
+	protected void scoreCandidates() {
+		for (int i = 0; i < candidates.size; i++) {
+			workspace.score(candidates.get(i));
+		}
 	}
 
 	/**
 	 * Connects two views together if they meet a minimal set of geometric requirements. Determines if there
 	 * is strong evidence that there is 3D information present and not just a homography
 	 *
-	 * @param src ID of src image
-	 * @param dst ID of dst image
-	 * @param pairs Associated features pixels
-	 * @param matches Associated features feature indexes
+	 * @param c Pair of views which have been scored
 	 */
-	protected void createEdge( String src, String dst,
-							   DogArray<AssociatedPair> pairs, DogArray<AssociatedIndex> matches ) {
-
-		DMatrixRMaj fundamental = new DMatrixRMaj(3, 3);
-		DogArray_I32 inlierIdx = new DogArray_I32();
-
-		if (!epipolarScore.process(pairs.toList(), fundamental, inlierIdx)) {
+	protected void createEdge( Candidate c ) {
+		if (!c.success) {
 			// Don't create an edge here
 			return;
 		}
 
 		PairwiseImageGraph.Motion edge = graph.edges.grow();
-		edge.is3D = epipolarScore.is3D();
-		edge.score3D = epipolarScore.getScore();
+		edge.is3D = c.is3D;
+		edge.score3D = c.score3D;
 		edge.index = graph.edges.size - 1;
-		edge.src = graph.lookupNode(src);
-		edge.dst = graph.lookupNode(dst);
+		edge.src = graph.lookupNode(c.src);
+		edge.dst = graph.lookupNode(c.dst);
 		edge.src.connections.add(edge);
 		edge.dst.connections.add(edge);
 
 		// Allocate memory and copy inliers
-		edge.inliers.resize(inlierIdx.size);
-		for (int i = 0; i < inlierIdx.size; i++) {
-			edge.inliers.get(i).setTo(matches.get(inlierIdx.get(i)));
+		edge.inliers.resize(c.inlierIdx.size);
+		for (int i = 0; i < c.inlierIdx.size; i++) {
+			edge.inliers.get(i).setTo(c.matches.get(c.inlierIdx.get(i)));
+		}
+	}
+
+	/**
+	 * A pair of views which might be connected by an edge and the results of scoring the pair
+	 */
+	protected static class Candidate {
+		/** ID of src and dst images */
+		public String src = "", dst = "";
+		/** Associated features pixels */
+		public final DogArray<AssociatedPair> pairs = new DogArray<>(AssociatedPair::new);
+		/** Associated features feature indexes */
+		public final DogArray<AssociatedIndex> matches = new DogArray<>(AssociatedIndex::new);
+
+		/** If true then the geometric relationship could be determined */
+		public boolean success;
+		public boolean is3D;
+		public double score3D;
+		/** Which features inside of pairs are in the inlier sets */
+		public final DogArray_I32 inlierIdx = new DogArray_I32();
+
+		public void reset() {
+			src = dst = "";
+			pairs.reset();
+			matches.reset();
+			success = false;
+			is3D = false;
+			score3D = 0.0;
+			inlierIdx.reset();
+		}
+	}
+
+	/**
+	 * Everything needed to score a candidate. Each thread has its own instance.
+	 */
+	protected static class Workspace {
+		final EpipolarScore3D epipolarScore;
+		final DMatrixRMaj fundamental = new DMatrixRMaj(3, 3);
+
+		public Workspace( EpipolarScore3D epipolarScore ) {
+			this.epipolarScore = epipolarScore;
+		}
+
+		public void score( Candidate c ) {
+			// Results should not depend on which candidates were scored previously by this instance
+			epipolarScore.reset();
+			c.inlierIdx.reset();
+			c.success = epipolarScore.process(c.pairs.toList(), fundamental, c.inlierIdx);
+			if (!c.success)
+				return;
+			c.is3D = epipolarScore.is3D();
+			c.score3D = epipolarScore.getScore();
 		}
 	}
 
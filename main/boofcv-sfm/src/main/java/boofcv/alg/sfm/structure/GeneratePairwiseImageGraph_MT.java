@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.structure;
+
+import boofcv.concurrency.BoofConcurrency;
+import org.ddogleg.struct.Factory;
+import pabeles.concurrency.GrowArray;
+
+/**
+ * Concurrent implementation of {@link GeneratePairwiseImageGraph}. Candidate image pairs are collected in the main
+ * thread and scored in parallel, with each thread having its own {@link EpipolarScore3D}. Edges are then added to
+ * the graph in the same order as the single threaded implementation. The scorer is reset before each candidate,
+ * so the results are identical to the single threaded version.
+ *
+ * @author Peter Abeles
+ */
+public class GeneratePairwiseImageGraph_MT extends GeneratePairwiseImageGraph {
+	// Workspace for each thread
+	private final GrowArray<Workspace> workspaces;
+
+	/**
+	 * @param factory Creates a new instance of the scoring algorithm for each thread
+	 */
+	public GeneratePairwiseImageGraph_MT( Factory<EpipolarScore3D> factory ) {
+		super(factory.newInstance());
+		workspaces = new GrowArray<>(() -> new Workspace(factory.newInstance()));
+	}
+
+	@Override protected void scoreCandidates() {
+		BoofConcurrency.loopBlocks(0, candidates.size, 1, workspaces, ( ws, idx0, idx1 ) -> {
+			for (int i = idx0; i < idx1; i++) {
+				ws.score(candidates.get(i));
+			}
+		});
+	}
+}
@@ -21,25 +21,47 @@ package boofcv.alg.sfm.structure;
 import boofcv.abst.geo.bundle.SceneObservations;
 import boofcv.abst.geo.bundle.SceneStructureMetric;
 import boofcv.abst.tracker.PointTracker;
+import boofcv.alg.cloud.PackedPointCloud_F32;
 import boofcv.alg.filter.misc.AverageDownSampleOps;
+import boofcv.alg.mvs.video.SelectFramesForReconstruction3D;
 import boofcv.misc.LookUpImages;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.image.ImageType;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Point4D_F64;
 import gnu.trove.impl.Constants;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.TLongLongMap;
 import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TLongLongHashMap;
 import gnu.trove.map.hash.TObjectIntHashMap;
 import lombok.Getter;
+import lombok.Setter;
+import org.ddogleg.struct.DogArray;
 import org.ddogleg.struct.VerbosePrint;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
+import static boofcv.misc.BoofMiscOps.checkTrue;
+
 /**
  * High level interface designed to hide almost all of the complexity of converting an image sequence
  * into a sparse reconstruction.
  *
+ * <p>Images can be processed all at once with {@link #process} or streamed one at a time, as they arrive, with
+ * {@link #pushFrame}. When streaming, key frames are selected online and the scene is updated incrementally
+ * each time a key frame is added. A sparse preview cloud, {@link #getPreviewCloud()}, grows as the scene is
+ * updated. To bound memory, only the most recent {@link #streamMaxKeyFrames} key frames are kept in the scene.</p>
+ *
  * @author Peter Abeles
  */
 public class ImageSequenceToSparseScene<T extends ImageGray<T>> implements VerbosePrint {
@@ -58,6 +80,39 @@ public class ImageSequenceToSparseScene<T extends ImageGray<T>> implements Verbo
 	@Getter TObjectIntMap<String> imageIdToSceneViewIdx =
 			new TObjectIntHashMap<>(Constants.DEFAULT_CAPACITY,Constants.DEFAULT_LOAD_FACTOR,-1);
 
+	/**
+	 * Optional. Selects key frames when streaming with {@link #pushFrame}. If null then every frame is a key frame.
+	 * It's assigned {@link #tracker} when the stream starts.
+	 */
+	@Getter @Setter @Nullable SelectFramesForReconstruction3D<T> selectKeyFrames;
+
+	/**
+	 * Sparse cloud of the scene which is updated as key frames are added in streaming mode. There is one point
+	 * for each track. If a track is seen again in a later refinement then its point is updated.
+	 */
+	@Getter final PackedPointCloud_F32 previewCloud = new PackedPointCloud_F32();
+
+	/**
+	 * Maximum number of key frames which are kept when streaming. Once exceeded, the oldest key frames are removed
+	 * from the scene, the graphs, and {@link #trackerSimilar}. Views which have been removed are no longer refined
+	 * by {@link #refineAll()} or included in {@link #getSceneStructure()}. Local refinement can reach back twice
+	 * the similar image search radius, so this must be larger than that. If &le; 0 then all key frames are kept.
+	 */
+	public int streamMaxKeyFrames = 30;
+
+	/**
+	 * Input image ID for every image passed to {@link #trackerSimilar}. Key is the frame ID in the tracker, which
+	 * is the view ID in the graphs. When streaming, only key frames inside the window are saved.
+	 */
+	final Map<String, String> frameIdToImageID = new HashMap<>();
+
+	// Look up table from track ID to the index of its point in the preview cloud
+	final TLongIntMap trackToPreview =
+			new TLongIntHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1, -1);
+
+	// true if there is a metric scene which the next key frame can be added to
+	boolean streamInitialized;
+
 	/** Maximum image pixels before it down samples */
 	public int maxImagePixels = 800*600;
 
@@ -73,6 +128,19 @@ public class ImageSequenceToSparseScene<T extends ImageGray<T>> implements Verbo
 	private @Getter double timePairwiseMS;
 	private @Getter double timeMetricMS;
 	private @Getter double timeRefineMS;
+	/** Time to process the most recently pushed frame. */
+	private @Getter double timePushMS;
+	/** Maximum time to process a pushed frame since the stream started. */
+	private @Getter double timePushMaxMS;
+
+	// Workspace
+	final Point3D_F64 point3 = new Point3D_F64();
+	final Point4D_F64 point4 = new Point4D_F64();
+	final DogArray<Point2D_F64> pixels = new DogArray<>(Point2D_F64::new);
+	final Point2D_F64 pixel = new Point2D_F64();
+	final TLongLongMap pixelToTrack =
+			new TLongLongHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1, -1);
+	final Set<String> discardedIDs = new HashSet<>();
 
 	/**
 	 * Constructor which specifies all the internal implementations
@@ -108,61 +176,362 @@ public class ImageSequenceToSparseScene<T extends ImageGray<T>> implements Verbo
 		timeRefineMS = 0;
 
 		imageIdToSceneViewIdx.clear();
+		frameIdToImageID.clear();
+		streamInitialized = false;
+		previewCloud.reset();
+		trackToPreview.clear();
 
 		long time0 = System.nanoTime();
 		// Load images and feed into feature tracker
-		for (int indexIDs = 0; indexIDs < imageIDs.size(); indexIDs++) {
-			lookUpImages.loadImage(imageIDs.get(indexIDs), imageFull);
-
-			// Make sure the image is a reasonable size for processing. Also many tuning parameters
-			// are not scale invariant
-			T image = AverageDownSampleOps.downMaxPixels(imageFull, imageDown, maxImagePixels);
-
-			if (indexIDs == 0) {
-				tracker.reset();
-				trackerSimilar.initialize(image.width, image.height);
-			}
-
-			tracker.process(image);
-			tracker.spawnTracks();
-			trackerSimilar.processFrame(tracker);
-		}
+		trackImages(imageIDs, lookUpImages);
 
 		// Find the pairwise geometric relationship between views
 		long time1 = System.nanoTime();
 		generatePairwise.process(trackerSimilar);
 		long time2 = System.nanoTime();
 
+		timeTrackingMS = (time1 - time0)*1e-6;
+		timePairwiseMS = (time2 - time1)*1e-6;
+
 		// Compute a first pass metric reconstruction
 		if (!metricFromPairwise.process(trackerSimilar, generatePairwise.getGraph())) {
 			if (verbose != null) verbose.println("Failed at metric from pairwise");
 			return false;
 		}
 		long time3 = System.nanoTime();
+		timeMetricMS = (time3 - time2)*1e-6;
 
-		// Order of views in this graph is the same as the views in the SBA scene
-		// Since the image name is lost in the tracker it's referred to by frame number
-		SceneWorkingGraph graph = metricFromPairwise.workGraph;
-		for (int sbaIdx = 0; sbaIdx < graph.viewList.size(); sbaIdx++) {
-			int imageIdx = Integer.parseInt(graph.viewList.get(sbaIdx).pview.id);
-			imageIdToSceneViewIdx.put(imageIDs.get(imageIdx), sbaIdx);
-		}
+		updateImageIdToSceneView();
 
 		// Refine the entire scene all at once to get a better estimate
-		if (!refineScene.process(trackerSimilar, metricFromPairwise.getWorkGraph())) {
-			if (verbose != null) verbose.println("Failed at scene refine");
-			return false;
-		}
-		long time4 = System.nanoTime();
+		return refineAll();
+	}
+
+	/**
+	 * Adds more images from the same sequence to a scene which was previously computed by {@link #process}.
+	 * The tracker continues from the last frame, only pairs involving the new images are added to the pairwise
+	 * graph, and only the new views plus their immediate neighbors are refined. Time to update depends on the
+	 * number of new images and not the total number of images in the scene. If a scene does not exist yet
+	 * then {@link #process} is called.
+	 *
+	 * <p>The SBA scene, {@link #getSceneStructure()}, is only updated when {@link #refineAll()} is called.
+	 * Until then the latest estimate can be found in the working graph inside {@link #metricFromPairwise}.</p>
+	 *
+	 * @param imageIDs (Input) Ordered list of new image IDs which come after the previously processed images
+	 * @param lookUpImages (Input) Used to go from image ID to image.
+	 * @return true if successful or false if it failed
+	 */
+	public boolean processIncremental( List<String> imageIDs, LookUpImages lookUpImages ) {
+		if (frameIdToImageID.isEmpty())
+			return process(imageIDs, lookUpImages);
+
+		timeTrackingMS = 0;
+		timePairwiseMS = 0;
+		timeMetricMS = 0;
+		timeRefineMS = 0;
+
+		long time0 = System.nanoTime();
+		trackImages(imageIDs, lookUpImages);
+
+		// Only compare the new images against the graph
+		long time1 = System.nanoTime();
+		generatePairwise.processNewImages(trackerSimilar);
+		long time2 = System.nanoTime();
 
 		timeTrackingMS = (time1 - time0)*1e-6;
 		timePairwiseMS = (time2 - time1)*1e-6;
+
+		// If the scene failed to initialize earlier then try again with all the images
+		boolean success;
+		if (metricFromPairwise.getWorkGraph().viewList.isEmpty()) {
+			success = metricFromPairwise.process(trackerSimilar, generatePairwise.getGraph());
+		} else {
+			success = metricFromPairwise.processIncremental(trackerSimilar, generatePairwise.getNewViews().toList());
+		}
+		if (!success) {
+			if (verbose != null) verbose.println("Failed at metric from pairwise");
+			return false;
+		}
+		long time3 = System.nanoTime();
 		timeMetricMS = (time3 - time2)*1e-6;
-		timeRefineMS = (time4 - time3)*1e-6;
+
+		updateImageIdToSceneView();
 
 		return true;
 	}
 
+	/**
+	 * Processes the next frame in a video stream. The frame is tracked and, if it's selected as a key frame, the
+	 * scene is updated using only the new key frame and its neighbors. A new stream is started on the first call
+	 * and after {@link #resetStream()}, which discards all previous results. Otherwise the frame is appended to the
+	 * current sequence. Once the scene has been initialized, the time to process a frame depends on
+	 * the size of the local neighborhood and not the length of the sequence. The time is saved in
+	 * {@link #getTimePushMS()}.
+	 *
+	 * <p>Like with {@link #processIncremental}, the SBA scene is only updated when {@link #refineAll()} is called.</p>
+	 *
+	 * @param image (Input) The next image in the sequence
+	 * @param imageID (Input) Unique ID of the image
+	 * @return true if the frame was selected as a key frame
+	 */
+	public boolean pushFrame( T image, String imageID ) {
+		long time0 = System.nanoTime();
+		timeTrackingMS = 0;
+		timePairwiseMS = 0;
+		timeMetricMS = 0;
+		timeRefineMS = 0;
+
+		image = AverageDownSampleOps.downMaxPixels(image, imageDown, maxImagePixels);
+
+		// Start a new stream
+		if (frameIdToImageID.isEmpty()) {
+			checkTrue(streamMaxKeyFrames <= 0 || streamMaxKeyFrames > 2*trackerSimilar.searchRadius,
+					"streamMaxKeyFrames must be more than twice the search radius");
+			resetStream();
+			timePushMaxMS = 0;
+			trackerSimilar.initialize(image.width, image.height);
+			if (selectKeyFrames != null) {
+				selectKeyFrames.setTracker(tracker);
+				selectKeyFrames.initialize(image.width, image.height);
+			} else {
+				tracker.reset();
+			}
+		}
+
+		// The key frame selector will invoke the tracker
+		boolean keyFrame;
+		if (selectKeyFrames != null) {
+			keyFrame = selectKeyFrames.next(image);
+		} else {
+			tracker.process(image);
+			tracker.spawnTracks();
+			keyFrame = true;
+		}
+
+		if (keyFrame) {
+			frameIdToImageID.put(tracker.getFrameID() + "", imageID);
+			trackerSimilar.processFrame(tracker);
+			long time1 = System.nanoTime();
+			timeTrackingMS = (time1 - time0)*1e-6;
+			updateStreamScene();
+			discardOldKeyFrames();
+		} else {
+			timeTrackingMS = (System.nanoTime() - time0)*1e-6;
+		}
+
+		timePushMS = (System.nanoTime() - time0)*1e-6;
+		timePushMaxMS = Math.max(timePushMaxMS, timePushMS);
+		if (verbose != null)
+			verbose.printf("push: key=%s frames=%d views=%d time=%.1f ms\n", keyFrame, frameIdToImageID.size(),
+					metricFromPairwise.getWorkGraph().viewList.size(), timePushMS);
+
+		return keyFrame;
+	}
+
+	/**
+	 * Discards all previous results. The next call to {@link #pushFrame} will start a new stream.
+	 */
+	public void resetStream() {
+		frameIdToImageID.clear();
+		imageIdToSceneViewIdx.clear();
+		previewCloud.reset();
+		trackToPreview.clear();
+		streamInitialized = false;
+	}
+
+	/**
+	 * Adds the most recent key frame to the scene. Until the scene has been initialized it attempts to create one
+	 * from all the key frames. After that only the new key frame is added.
+	 */
+	void updateStreamScene() {
+		long time0 = System.nanoTime();
+		// Only the first key frame in a stream creates a new pairwise graph
+		if (frameIdToImageID.size() == 1) {
+			generatePairwise.process(trackerSimilar);
+		} else {
+			generatePairwise.processNewImages(trackerSimilar);
+		}
+		long time1 = System.nanoTime();
+		timePairwiseMS = (time1 - time0)*1e-6;
+
+		if (!streamInitialized) {
+			// Keep on trying until there's enough information to create the initial scene
+			if (!metricFromPairwise.process(trackerSimilar, generatePairwise.getGraph()))
+				return;
+			streamInitialized = true;
+			timeMetricMS = (System.nanoTime() - time1)*1e-6;
+			updateImageIdToSceneView();
+
+			// The initial scene is small so this is fast
+			if (refineAll())
+				addToPreviewCloud(refineScene, null);
+			return;
+		}
+
+		int sizeBefore = metricFromPairwise.getWorkGraph().viewList.size();
+		boolean success = metricFromPairwise.processIncremental(trackerSimilar,
+				generatePairwise.getNewViews().toList());
+		timeMetricMS = (System.nanoTime() - time1)*1e-6;
+		if (!success) {
+			if (verbose != null) verbose.println("Failed to add key frame");
+			return;
+		}
+		updateImageIdToSceneView();
+
+		// Points from the local refinement which are seen by the new views
+		List<SceneWorkingGraph.View> viewList = metricFromPairwise.getWorkGraph().viewList;
+		for (int viewIdx = sizeBefore; viewIdx < viewList.size(); viewIdx++) {
+			addToPreviewCloud(metricFromPairwise.getRefineWorking(), viewList.get(viewIdx).pview.id);
+		}
+	}
+
+	/**
+	 * Removes the oldest key frames once there are more than {@link #streamMaxKeyFrames}. They are removed from
+	 * everything which references them so that memory does not grow with the length of the stream.
+	 */
+	void discardOldKeyFrames() {
+		int numDiscard = trackerSimilar.frames.size - streamMaxKeyFrames;
+		if (streamMaxKeyFrames <= 0 || numDiscard <= 0)
+			return;
+
+		discardedIDs.clear();
+		for (int i = 0; i < numDiscard; i++) {
+			discardedIDs.add(trackerSimilar.frames.get(i).frameID);
+		}
+
+		// The working graph references views in the pairwise graph, so it needs to be updated first
+		metricFromPairwise.getWorkGraph().removeViews(discardedIDs);
+		metricFromPairwise.exploredViews.removeAll(discardedIDs);
+		generatePairwise.getGraph().removeNodes(discardedIDs);
+		trackerSimilar.removeOldestFrames(numDiscard);
+		frameIdToImageID.keySet().removeAll(discardedIDs);
+
+		// Views have been removed so every scene index could have changed
+		imageIdToSceneViewIdx.clear();
+		updateImageIdToSceneView();
+	}
+
+	/**
+	 * Adds points from the most recent refinement to the preview cloud. If the point's track already has a point
+	 * in the cloud then it's updated instead of being added again.
+	 *
+	 * @param refine (Input) Refinement which was just run
+	 * @param viewID (Input) If not null then only points observed by this view are added
+	 */
+	void addToPreviewCloud( RefineMetricWorkingGraph refine, @Nullable String viewID ) {
+		if (viewID == null) {
+			for (int viewIdx = 0; viewIdx < refine.activeViews.size(); viewIdx++) {
+				addToPreviewCloud(refine, viewIdx);
+			}
+			return;
+		}
+
+		if (!refine.viewToIntegerID.containsKey(viewID))
+			return;
+		addToPreviewCloud(refine, refine.viewToIntegerID.get(viewID));
+	}
+
+	private void addToPreviewCloud( RefineMetricWorkingGraph refine, int viewIdx ) {
+		SceneWorkingGraph.View wview = refine.activeViews.get(viewIdx);
+		PointTrackerToSimilarImages.Frame frame = trackerSimilar.frameMap.get(wview.pview.id);
+
+		// Observations in SBA have been pruned and re-ordered, so their index no longer points to the track.
+		// Instead, the frame's pixels are re-centered exactly the same way and matched to the SBA pixels
+		trackerSimilar.lookupPixelFeats(wview.pview.id, pixels);
+		float cx = (float)(wview.imageDimension.width/2);
+		float cy = (float)(wview.imageDimension.height/2);
+		pixelToTrack.clear();
+		for (int obsIdx = 0; obsIdx < pixels.size; obsIdx++) {
+			Point2D_F64 p = pixels.get(obsIdx);
+			pixelToTrack.put(pixelKey((float)(p.x - cx), (float)(p.y - cy)), frame.getID(obsIdx));
+		}
+
+		SceneStructureMetric structure = refine.bundleAdjustment.structure;
+		SceneObservations.View oview = refine.bundleAdjustment.observations.getView(viewIdx);
+		for (int obsIdx = 0; obsIdx < oview.size(); obsIdx++) {
+			int pointIdx = oview.getPointId(obsIdx);
+			if (pointIdx < 0)
+				continue;
+			oview.get(obsIdx, pixel);
+			long trackID = pixelToTrack.get(pixelKey((float)pixel.x, (float)pixel.y));
+			if (trackID < 0)
+				continue;
+
+			if (structure.isHomogenous()) {
+				structure.points.get(pointIdx).get(point4);
+				// Points at infinity can't be shown
+				if (point4.w == 0.0)
+					continue;
+				point3.setTo(point4.x/point4.w, point4.y/point4.w, point4.z/point4.w);
+			} else {
+				structure.points.get(pointIdx).get(point3);
+			}
+
+			int previewIdx = trackToPreview.get(trackID);
+			if (previewIdx < 0) {
+				trackToPreview.put(trackID, previewCloud.size());
+				previewCloud.add(point3.x, point3.y, point3.z);
+			} else {
+				previewCloud.set(previewIdx, point3.x, point3.y, point3.z);
+			}
+		}
+	}
+
+	/** Packs the bits of a pixel coordinate into a single key */
+	private static long pixelKey( float x, float y ) {
+		return ((long)Float.floatToIntBits(x) << 32) | (Float.floatToIntBits(y) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Refines the entire scene all at once and updates the SBA scene.
+	 *
+	 * @return true if successful or false if it failed
+	 */
+	public boolean refineAll() {
+		long time0 = System.nanoTime();
+		boolean success = refineScene.process(trackerSimilar, metricFromPairwise.getWorkGraph());
+		timeRefineMS = (System.nanoTime() - time0)*1e-6;
+		if (!success && verbose != null) verbose.println("Failed at scene refine");
+		return success;
+	}
+
+	/**
+	 * Feeds images into the tracker. If no images have been processed yet then the tracker is reset first.
+	 */
+	void trackImages( List<String> imageIDs, LookUpImages lookUpImages ) {
+		for (int indexIDs = 0; indexIDs < imageIDs.size(); indexIDs++) {
+			lookUpImages.loadImage(imageIDs.get(indexIDs), imageFull);
+
+			// Make sure the image is a reasonable size for processing. Also many tuning parameters
+			// are not scale invariant
+			T image = AverageDownSampleOps.downMaxPixels(imageFull, imageDown, maxImagePixels);
+
+			if (frameIdToImageID.isEmpty()) {
+				tracker.reset();
+				trackerSimilar.initialize(image.width, image.height);
+			}
+
+			tracker.process(image);
+			tracker.spawnTracks();
+			frameIdToImageID.put(tracker.getFrameID() + "", imageIDs.get(indexIDs));
+			trackerSimilar.processFrame(tracker);
+		}
+	}
+
+	/**
+	 * Order of views in the working graph is the same as the views in the SBA scene. Since the image name is
+	 * lost in the tracker it's referred to by frame ID. Views are only appended to the graph so only
+	 * views which are not already in the table need to be added. If views are removed then the table
+	 * must be cleared first.
+	 */
+	void updateImageIdToSceneView() {
+		SceneWorkingGraph graph = metricFromPairwise.workGraph;
+		for (int sbaIdx = imageIdToSceneViewIdx.size(); sbaIdx < graph.viewList.size(); sbaIdx++) {
+			String imageID = Objects.requireNonNull(frameIdToImageID.get(graph.viewList.get(sbaIdx).pview.id));
+			imageIdToSceneViewIdx.put(imageID, sbaIdx);
+		}
+	}
+
 	/** Returns the found sparse scene which has been reconstructed */
 	public SceneStructureMetric getSceneStructure() {
 		return refineScene.bundleAdjustment.structure;
@@ -18,7 +18,6 @@
 
 package boofcv.alg.sfm.structure;
 
-import boofcv.abst.geo.TriangulateNViewsMetricH;
 import boofcv.abst.geo.bundle.MetricBundleAdjustmentUtils;
 import boofcv.abst.geo.bundle.SceneObservations;
 import boofcv.abst.geo.bundle.SceneStructureMetric;
@@ -32,11 +31,15 @@ import boofcv.alg.sfm.structure.PairwiseImageGraph.View;
 import boofcv.misc.BoofMiscOps;
 import boofcv.struct.geo.AssociatedPair;
 import boofcv.struct.geo.AssociatedTriple;
+import boofcv.struct.packed.PackedArrayPoint2D_F64;
+import boofcv.struct.packed.PackedArrayPoint4D_F64;
 import georegression.geometry.UtilPoint3D_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point4D_F64;
 import georegression.struct.se.Se3_F64;
 import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_I32;
 import org.ejml.data.DMatrixRMaj;
 
 import java.util.ArrayList;
@@ -76,7 +79,12 @@ public class MetricExpandByOneView extends ExpandByOneView {
 	public final MetricBundleAdjustmentUtils bundleAdjustment = new MetricBundleAdjustmentUtils();
 
 	// Used for triangulation
-	protected final List<Point2D_F64> pixelNorms = BoofMiscOps.createListFilled(3, Point2D_F64::new);
+	protected final Point2D_F64 pixelNorm = new Point2D_F64();
+	protected final PackedArrayPoint2D_F64 packedNorms = new PackedArrayPoint2D_F64();
+	protected final DogArray_I32 packedViews = new DogArray_I32();
+	protected final DogArray_I32 packedOffsets = new DogArray_I32();
+	protected final PackedArrayPoint4D_F64 foundPoints = new PackedArrayPoint4D_F64();
+	protected final DogArray_B foundSuccess = new DogArray_B();
 	protected final List<Se3_F64> listMotion = new ArrayList<>();
 	protected final RemoveBrownPtoN_F64 normalize1 = new RemoveBrownPtoN_F64();
 	protected final RemoveBrownPtoN_F64 normalize2 = new RemoveBrownPtoN_F64();
@@ -272,22 +280,37 @@ public class MetricExpandByOneView extends ExpandByOneView {
 		SceneObservations.View viewObs2 = observations.getView(1);
 		SceneObservations.View viewObs3 = observations.getView(2);
 
-		final TriangulateNViewsMetricH triangulator = bundleAdjustment.triangulator;
-		var foundX = new Point4D_F64();
+		// Every feature is observed in all three views
+		packedNorms.reset();
+		packedNorms.reserve(numFeatures*3);
+		packedViews.reset();
+		packedOffsets.reset();
 		for (int featIdx = 0; featIdx < numFeatures; featIdx++) {
 			AssociatedTriple a = triples.get(featIdx);
 			viewObs1.set(featIdx, featIdx, (float)a.p1.x, (float)a.p1.y);
 			viewObs2.set(featIdx, featIdx, (float)a.p2.x, (float)a.p2.y);
 			viewObs3.set(featIdx, featIdx, (float)a.p3.x, (float)a.p3.y);
 
-			normalize1.compute(a.p1.x, a.p1.y, pixelNorms.get(0));
-			normalize2.compute(a.p2.x, a.p2.y, pixelNorms.get(1));
-			normalize3.compute(a.p3.x, a.p3.y, pixelNorms.get(2));
+			packedOffsets.add(packedViews.size);
+			normalize1.compute(a.p1.x, a.p1.y, pixelNorm);
+			packedNorms.append(pixelNorm);
+			normalize2.compute(a.p2.x, a.p2.y, pixelNorm);
+			packedNorms.append(pixelNorm);
+			normalize3.compute(a.p3.x, a.p3.y, pixelNorm);
+			packedNorms.append(pixelNorm);
+			packedViews.add(0);
+			packedViews.add(1);
+			packedViews.add(2);
+		}
+		packedOffsets.add(packedViews.size);
 
-			if (!triangulator.triangulate(pixelNorms, listMotion, foundX)) {
-				throw new RuntimeException("Triangulation failed. Possibly bad input. Handle this problem");
-			}
+		int numTriangulated = bundleAdjustment.getTriangulatorBatch().triangulate(
+				packedNorms, packedViews, packedOffsets, listMotion, foundPoints, foundSuccess);
+		if (numTriangulated != numFeatures)
+			throw new RuntimeException("Triangulation failed. Possibly bad input. Handle this problem");
 
+		for (int featIdx = 0; featIdx < numFeatures; featIdx++) {
+			Point4D_F64 foundX = foundPoints.getTemp(featIdx);
 			if (structure.isHomogenous())
 				structure.setPoint(featIdx, foundX.x, foundX.y, foundX.z, foundX.w);
 			else
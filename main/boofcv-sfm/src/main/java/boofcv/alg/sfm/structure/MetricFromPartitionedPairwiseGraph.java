@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.structure;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.geometry.GeometryMath_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import lombok.Getter;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_B;
+import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.Factory;
+import org.ddogleg.struct.VerbosePrint;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Divide and conquer approach to computing a metric reconstruction from a large {@link PairwiseImageGraph}.
+ * The graph is split into overlapping clusters using {@link PairwiseGraphPartition}, each cluster is reconstructed
+ * independently using {@link MetricFromUncalibratedPairwiseGraph}, then clusters are merged into a single scene
+ * by finding the similarity transform between views they have in common. Finally the entire scene is refined.
+ *
+ * <ol>
+ * <li>Partition the graph into overlapping clusters</li>
+ * <li>Reconstruct each cluster</li>
+ * <li>Start with the largest reconstructed cluster. Repeatedly merge in the cluster with the most views in common
+ * until no more clusters can be merged</li>
+ * <li>Refine the merged scene with bundle adjustment</li>
+ * </ol>
+ *
+ * Views which are not part of a cluster that was successfully reconstructed and merged are not in the output.
+ *
+ * @author Peter Abeles
+ */
+public class MetricFromPartitionedPairwiseGraph implements VerbosePrint {
+
+	/** Splits the graph into clusters */
+	final @Getter PairwiseGraphPartition partition = new PairwiseGraphPartition();
+
+	/** Refines the merged scene */
+	final @Getter RefineMetricWorkingGraph refine;
+
+	/** The merged scene */
+	final @Getter SceneWorkingGraph workGraph = new SceneWorkingGraph();
+
+	/** Minimum number of views two clusters need to have in common for them to be merged */
+	public int minCommonViews = 2;
+
+	/** If true the merged scene is refined using bundle adjustment */
+	public boolean refineMerged = true;
+
+	// Scene found for each cluster. Views reference nodes in the original graph
+	protected final DogArray<SceneWorkingGraph> clusterScenes = new DogArray<>(SceneWorkingGraph::new, SceneWorkingGraph::reset);
+	// If the cluster has been merged into the work graph
+	final DogArray_B clusterMerged = new DogArray_B();
+
+	// Used to reconstruct a single cluster
+	private final Workspace workspace;
+
+	//----------------- Storage for merging
+	// Transform from cluster world to the work graph's world. global = scale*R*cluster + T
+	final Se3_F64 cluster_to_global = new Se3_F64();
+	double scale;
+	final DMatrixRMaj sumR = new DMatrixRMaj(3, 3);
+	final DMatrixRMaj R_view = new DMatrixRMaj(3, 3);
+	final List<String> common = new ArrayList<>();
+	final DogArray<Point3D_F64> centersCluster = new DogArray<>(Point3D_F64::new);
+	final DogArray<Point3D_F64> centersGlobal = new DogArray<>(Point3D_F64::new);
+	final Point3D_F64 center = new Point3D_F64();
+
+	@Nullable PrintStream verbose;
+
+	/**
+	 * @param factory Creates the algorithm used to reconstruct an individual cluster
+	 * @param refine Used to refine the merged scene
+	 */
+	public MetricFromPartitionedPairwiseGraph( Factory<MetricFromUncalibratedPairwiseGraph> factory,
+											   RefineMetricWorkingGraph refine ) {
+		this.refine = refine;
+		this.workspace = new Workspace(factory.newInstance());
+	}
+
+	/**
+	 * Computes a metric reconstruction of the scene
+	 *
+	 * @param db (input) Contains information on each image
+	 * @param graph (input) Relationship between the images
+	 * @return true if successful or false if it failed and results can't be used
+	 */
+	public boolean process( LookUpSimilarImages db, PairwiseImageGraph graph ) {
+		workGraph.reset();
+
+		partition.process(graph);
+		if (partition.clusters.isEmpty()) {
+			if (verbose != null) verbose.println("No clusters found");
+			return false;
+		}
+
+		clusterScenes.reset();
+		clusterScenes.resize(partition.clusters.size);
+		reconstructClusters(db, graph);
+
+		if (!mergeClusters())
+			return false;
+
+		if (verbose != null)
+			verbose.println("Merged views.size=" + workGraph.viewList.size() + " / " + graph.nodes.size);
+
+		if (refineMerged && !refine.process(db, workGraph)) {
+			if (verbose != null) verbose.println("Failed to refine merged scene");
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Reconstructs each cluster independently and saves the results in {@link #clusterScenes}
+	 */
+	protected void reconstructClusters( LookUpSimilarImages db, PairwiseImageGraph graph ) {
+		workspace.reconstruct(db, graph, 0, partition.clusters.size);
+	}
+
+	/**
+	 * Merges cluster scenes into the work graph. Starts with the largest and then repeatedly merges in the cluster
+	 * with the most views in common.
+	 *
+	 * @return true if at least one cluster was reconstructed
+	 */
+	boolean mergeClusters() {
+		clusterMerged.reset();
+		clusterMerged.resize(clusterScenes.size, false);
+
+		int largest = -1;
+		for (int i = 0; i < clusterScenes.size; i++) {
+			if (largest == -1 || clusterScenes.get(i).viewList.size() > clusterScenes.get(largest).viewList.size())
+				largest = i;
+		}
+		if (largest == -1 || clusterScenes.get(largest).viewList.isEmpty()) {
+			if (verbose != null) verbose.println("All clusters failed to reconstruct");
+			return false;
+		}
+
+		cluster_to_global.reset();
+		scale = 1.0;
+		addClusterViews(clusterScenes.get(largest));
+		clusterMerged.set(largest, true);
+
+		while (true) {
+			int best = -1;
+			int bestCommon = minCommonViews - 1;
+			for (int i = 0; i < clusterScenes.size; i++) {
+				if (clusterMerged.get(i))
+					continue;
+				int count = countCommonViews(clusterScenes.get(i));
+				if (count > bestCommon) {
+					bestCommon = count;
+					best = i;
+				}
+			}
+			if (best == -1)
+				break;
+
+			clusterMerged.set(best, true);
+			SceneWorkingGraph scene = clusterScenes.get(best);
+			if (!estimateClusterToGlobal(scene)) {
+				if (verbose != null) verbose.println("Failed to estimate transform for cluster=" + best);
+				continue;
+			}
+			if (verbose != null)
+				verbose.println("Merging cluster=" + best + " common=" + bestCommon + " scale=" + scale);
+			addClusterViews(scene);
+		}
+
+		if (verbose != null) {
+			for (int i = 0; i < clusterMerged.size; i++) {
+				if (!clusterMerged.get(i))
+					verbose.println("Cluster=" + i + " could not be merged");
+			}
+		}
+
+		return true;
+	}
+
+	int countCommonViews( SceneWorkingGraph scene ) {
+		int count = 0;
+		for (int i = 0; i < scene.viewList.size(); i++) {
+			if (workGraph.views.containsKey(scene.viewList.get(i).pview.id))
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Estimates the similarity transform from the cluster's world frame to the work graph's world frame using the
+	 * location and orientation of views they have in common. Rotations are averaged and the scale is found
+	 * from the spread of camera centers.
+	 */
+	boolean estimateClusterToGlobal( SceneWorkingGraph scene ) {
+		common.clear();
+		centersCluster.reset();
+		centersGlobal.reset();
+		CommonOps_DDRM.fill(sumR, 0.0);
+
+		for (int i = 0; i < scene.viewList.size(); i++) {
+			SceneWorkingGraph.View vc = scene.viewList.get(i);
+			SceneWorkingGraph.View vg = workGraph.lookupView(vc.pview.id);
+			if (vg == null)
+				continue;
+			common.add(vc.pview.id);
+			cameraCenter(vc.world_to_view, centersCluster.grow());
+			cameraCenter(vg.world_to_view, centersGlobal.grow());
+
+			// R_view = R_global^T * R_cluster
+			CommonOps_DDRM.multTransA(vg.world_to_view.R, vc.world_to_view.R, R_view);
+			CommonOps_DDRM.addEquals(sumR, R_view);
+		}
+
+		if (common.size() < Math.max(2, minCommonViews))
+			return false;
+
+		ConvertRotation3D_F64.approximateRotationMatrix(sumR, cluster_to_global.R);
+
+		// Scale is the ratio of how spread out the camera centers are
+		Point3D_F64 meanCluster = new Point3D_F64();
+		Point3D_F64 meanGlobal = new Point3D_F64();
+		for (int i = 0; i < common.size(); i++) {
+			Point3D_F64 c = centersCluster.get(i);
+			Point3D_F64 g = centersGlobal.get(i);
+			meanCluster.setTo(meanCluster.x + c.x, meanCluster.y + c.y, meanCluster.z + c.z);
+			meanGlobal.setTo(meanGlobal.x + g.x, meanGlobal.y + g.y, meanGlobal.z + g.z);
+		}
+		meanCluster.divideIP(common.size());
+		meanGlobal.divideIP(common.size());
+
+		double spreadCluster = 0.0;
+		double spreadGlobal = 0.0;
+		for (int i = 0; i < common.size(); i++) {
+			spreadCluster += centersCluster.get(i).distance(meanCluster);
+			spreadGlobal += centersGlobal.get(i).distance(meanGlobal);
+		}
+		if (spreadCluster == 0.0 || spreadGlobal == 0.0)
+			return false;
+		scale = spreadGlobal/spreadCluster;
+
+		// T = meanGlobal - scale*R*meanCluster
+		GeometryMath_F64.mult(cluster_to_global.R, meanCluster, center);
+		cluster_to_global.T.setTo(
+				meanGlobal.x - scale*center.x, meanGlobal.y - scale*center.y, meanGlobal.z - scale*center.z);
+
+		return true;
+	}
+
+	/**
+	 * Adds views in the cluster which are not already in the work graph after converting them into the work
+	 * graph's coordinate system.
+	 */
+	void addClusterViews( SceneWorkingGraph scene ) {
+		for (int i = 0; i < scene.viewList.size(); i++) {
+			SceneWorkingGraph.View src = scene.viewList.get(i);
+			if (workGraph.views.containsKey(src.pview.id))
+				continue;
+
+			SceneWorkingGraph.View dst = workGraph.addView(src.pview);
+			dst.intrinsic.setTo(src.intrinsic);
+			dst.imageDimension.setTo(src.imageDimension);
+			copyInliers(src.inliers, dst.inliers);
+
+			// Location of the camera center in the global frame
+			cameraCenter(src.world_to_view, center);
+			GeometryMath_F64.mult(cluster_to_global.R, center, center);
+			center.scale(scale);
+			center.setTo(center.x + cluster_to_global.T.x, center.y + cluster_to_global.T.y,
+					center.z + cluster_to_global.T.z);
+
+			// R_global_to_view = R_cluster_to_view * R^T
+			CommonOps_DDRM.multTransB(src.world_to_view.R, cluster_to_global.R, dst.world_to_view.R);
+			// T = -R*C
+			GeometryMath_F64.mult(dst.world_to_view.R, center, dst.world_to_view.T);
+			dst.world_to_view.T.scale(-1);
+		}
+	}
+
+	static void copyInliers( SceneWorkingGraph.InlierInfo src, SceneWorkingGraph.InlierInfo dst ) {
+		dst.reset();
+		dst.views.addAll(src.views);
+		for (int i = 0; i < src.observations.size; i++) {
+			dst.observations.grow().setTo(src.observations.get(i));
+		}
+	}
+
+	/** Location of the camera center in world coordinates. C = -R'*T */
+	static void cameraCenter( Se3_F64 world_to_view, Point3D_F64 center ) {
+		GeometryMath_F64.multTran(world_to_view.R, world_to_view.T, center);
+		center.scale(-1);
+	}
+
+	/**
+	 * Reconstructs clusters and converts them into scenes which reference the original graph
+	 */
+	protected class Workspace {
+		final MetricFromUncalibratedPairwiseGraph metric;
+		final PairwiseImageGraph subgraph = new PairwiseImageGraph();
+
+		public Workspace( MetricFromUncalibratedPairwiseGraph metric ) {
+			this.metric = metric;
+		}
+
+		/**
+		 * Reconstructs clusters from idx0 to idx1-1
+		 */
+		public void reconstruct( LookUpSimilarImages db, PairwiseImageGraph graph, int idx0, int idx1 ) {
+			for (int clusterIdx = idx0; clusterIdx < idx1; clusterIdx++) {
+				SceneWorkingGraph output = clusterScenes.get(clusterIdx);
+				output.reset();
+
+				PairwiseGraphPartition.createSubGraph(graph, partition.clusters.get(clusterIdx), subgraph);
+				if (!metric.process(db, subgraph))
+					continue;
+
+				// Copy the results, replacing views in the sub graph with views in the original graph
+				SceneWorkingGraph found = metric.getWorkGraph();
+				for (int i = 0; i < found.viewList.size(); i++) {
+					SceneWorkingGraph.View src = found.viewList.get(i);
+					SceneWorkingGraph.View dst = output.addView(graph.lookupNode(src.pview.id));
+					dst.intrinsic.setTo(src.intrinsic);
+					dst.imageDimension.setTo(src.imageDimension);
+					dst.world_to_view.setTo(src.world_to_view);
+					for (int viewIdx = 0; viewIdx < src.inliers.views.size; viewIdx++) {
+						dst.inliers.views.add(graph.lookupNode(src.inliers.views.get(viewIdx).id));
+						dst.inliers.observations.grow().setTo(src.inliers.observations.get(viewIdx));
+					}
+				}
+			}
+		}
+	}
+
+	@Override public void setVerbose( @Nullable PrintStream out, @Nullable Set<String> configuration ) {
+		this.verbose = out;
+		partition.setVerbose(out, configuration);
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.structure;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.image.ImageDimension;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.Factory;
+import pabeles.concurrency.GrowArray;
+
+import java.util.List;
+
+/**
+ * Concurrent implementation of {@link MetricFromPartitionedPairwiseGraph}. Each cluster is reconstructed in parallel,
+ * with each thread having its own {@link MetricFromUncalibratedPairwiseGraph}. Merging and refinement is done in
+ * the main thread. Access to {@link LookUpSimilarImages} is synchronized since implementations are not required
+ * to be thread safe.
+ *
+ * @author Peter Abeles
+ */
+public class MetricFromPartitionedPairwiseGraph_MT extends MetricFromPartitionedPairwiseGraph {
+	// Workspace for each thread
+	private final GrowArray<Workspace> workspaces;
+
+	/**
+	 * @param factory Creates the algorithm used to reconstruct a cluster for each thread
+	 * @param refine Used to refine the merged scene
+	 */
+	public MetricFromPartitionedPairwiseGraph_MT( Factory<MetricFromUncalibratedPairwiseGraph> factory,
+												  RefineMetricWorkingGraph refine ) {
+		super(factory, refine);
+		workspaces = new GrowArray<>(() -> new Workspace(factory.newInstance()));
+	}
+
+	@Override protected void reconstructClusters( LookUpSimilarImages db, PairwiseImageGraph graph ) {
+		var synchronizedDB = new SynchronizedLookUp(db);
+		BoofConcurrency.loopBlocks(0, partition.clusters.size, 1, workspaces,
+				( ws, idx0, idx1 ) -> ws.reconstruct(synchronizedDB, graph, idx0, idx1));
+	}
+
+	/**
+	 * Makes all functions in {@link LookUpSimilarImages} synchronized
+	 */
+	static class SynchronizedLookUp implements LookUpSimilarImages {
+		final LookUpSimilarImages db;
+
+		SynchronizedLookUp( LookUpSimilarImages db ) {this.db = db;}
+
+		@Override public synchronized List<String> getImageIDs() {
+			return db.getImageIDs();
+		}
+
+		@Override public synchronized void findSimilar( String target, List<String> similar ) {
+			db.findSimilar(target, similar);
+		}
+
+		@Override public synchronized void lookupPixelFeats( String target, DogArray<Point2D_F64> features ) {
+			db.lookupPixelFeats(target, features);
+		}
+
+		@Override public synchronized boolean lookupMatches( String viewSrc, String viewDst,
+															 DogArray<AssociatedIndex> pairs ) {
+			return db.lookupMatches(viewSrc, viewDst, pairs);
+		}
+
+		@Override public synchronized void lookupShape( String target, ImageDimension shape ) {
+			db.lookupShape(target, shape);
+		}
+	}
+}
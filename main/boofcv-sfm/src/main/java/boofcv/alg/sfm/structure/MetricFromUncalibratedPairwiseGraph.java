@@ -33,9 +33,7 @@ import org.ddogleg.struct.DogArray_I32;
 import org.ddogleg.struct.FastArray;
 import org.ejml.data.DMatrixRMaj;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 import static boofcv.misc.BoofMiscOps.checkEq;
 import static boofcv.misc.BoofMiscOps.checkTrue;
@@ -132,6 +130,12 @@ public class MetricFromUncalibratedPairwiseGraph extends ReconstructionFromPairw
 		// For now we are keeping this very simple. Only a single seed is considered
 		SeedInfo info = seeds.get(0);
 
+		// Two views, a.k.a. stereo, is a special case which isn't supported. This happens with short sequences
+		if (info.motions.size < 2) {
+			if (verbose != null) verbose.println("Seed has too few neighbors. motions=" + info.motions.size);
+			return false;
+		}
+
 		// Find the common features
 		DogArray_I32 common = utils.findCommonFeatures(info.seed, info.motions);
 		if (common.size < 6) {// if less than the minimum it will fail
@@ -158,6 +162,74 @@ public class MetricFromUncalibratedPairwiseGraph extends ReconstructionFromPairw
 		return true;
 	}
 
+	/**
+	 * Adds new views to a scene which has already been reconstructed by {@link #process}. Only new views which have
+	 * a 3D connection to a view already in the scene, or to another new view which was successfully added, are
+	 * considered. After the new views have been added a local bundle adjustment is run on them and the known
+	 * views they are directly connected to. The rest of the scene is held constant so that the cost scales with the
+	 * number of new views and not the size of the scene.
+	 *
+	 * @param db (input) Contains information on each image
+	 * @param newViews (input) Views in the pairwise graph which were added since the last call.
+	 * @return true if successful or false if the scene has not been initialized
+	 */
+	public boolean processIncremental( LookUpSimilarImages db, List<View> newViews ) {
+		if (workGraph.viewList.isEmpty()) {
+			if (verbose != null) verbose.println("Scene has not been initialized.");
+			return false;
+		}
+
+		// Only new views connected to the existing scene can be used to seed the expansion
+		FastArray<View> open = new FastArray<>(View.class);
+		for (int i = 0; i < newViews.size(); i++) {
+			View view = newViews.get(i);
+			if (exploredViews.contains(view.id) || !hasKnown3DConnection(view))
+				continue;
+			open.add(view);
+			exploredViews.add(view.id);
+		}
+
+		int sizeBefore = workGraph.viewList.size();
+		expandMetricScene(db, open);
+
+		if (workGraph.viewList.size() == sizeBefore) {
+			if (verbose != null) verbose.println("No new views were added");
+			return true;
+		}
+
+		// Refine the new views and the known views they are connected to
+		Set<SceneWorkingGraph.View> optimize = new LinkedHashSet<>();
+		for (int viewIdx = sizeBefore; viewIdx < workGraph.viewList.size(); viewIdx++) {
+			SceneWorkingGraph.View wview = workGraph.viewList.get(viewIdx);
+			optimize.add(wview);
+			for (PairwiseImageGraph.Motion m : wview.pview.connections.toList()) {
+				if (!m.is3D)
+					continue;
+				SceneWorkingGraph.View wother = workGraph.lookupView(m.other(wview.pview).id);
+				if (wother != null)
+					optimize.add(wother);
+			}
+		}
+
+		if (verbose != null)
+			verbose.println("Local refine. added=" + (workGraph.viewList.size() - sizeBefore) +
+					" optimize=" + optimize.size());
+		refineWorking.processLocal(db, workGraph, optimize);
+
+		return true;
+	}
+
+	/**
+	 * Returns true if the view has a 3D connection to a view which is already in the scene
+	 */
+	boolean hasKnown3DConnection( View view ) {
+		for (PairwiseImageGraph.Motion m : view.connections.toList()) {
+			if (m.is3D && workGraph.isKnown(m.other(view)))
+				return true;
+		}
+		return false;
+	}
+
 	/**
 	 * Initializes the scene at the seed view
 	 */
@@ -250,13 +322,19 @@ public class MetricFromUncalibratedPairwiseGraph extends ReconstructionFromPairw
 	 * of each new view. If a metric upgrade fails that view is discarded from the metric scene.
 	 */
 	private void expandMetricScene( LookUpSimilarImages db ) {
-		if (verbose != null) verbose.println("ENTER expandMetricScene()");
 		// Mark known views as well known
 		workGraph.viewList.forEach(v -> exploredViews.add(v.pview.id));
 
 		// Create a list of views that can be added the work graph
-		FastArray<View> open = findAllOpenViews();
+		expandMetricScene(db, findAllOpenViews());
+	}
 
+	/**
+	 * Expands the scene starting from the views in the open list. Neighbors of views which are added are
+	 * added to the open list.
+	 */
+	private void expandMetricScene( LookUpSimilarImages db, FastArray<View> open ) {
+		if (verbose != null) verbose.println("ENTER expandMetricScene()");
 		while (open.size > 0) {
 			View selected = selectNextToProcess(open);
 			if (selected == null) {
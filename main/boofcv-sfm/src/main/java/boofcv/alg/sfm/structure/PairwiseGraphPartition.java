@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.structure;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_I32;
+import org.ddogleg.struct.FastArray;
+import org.ddogleg.struct.VerbosePrint;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.PrintStream;
+import java.util.*;
+
+/**
+ * Splits a {@link PairwiseImageGraph} into overlapping clusters of views which can be reconstructed independently.
+ * Clusters are found by greedily merging views connected by 3D edges with the highest {@link PairwiseImageGraph.Motion#score3D}
+ * first, while not allowing a cluster to grow larger than {@link #maxClusterSize}. After that each cluster is
+ * expanded to include its most strongly connected neighbors, giving neighboring clusters views in common which
+ * can be used to merge their reconstructions.
+ *
+ * @author Peter Abeles
+ */
+public class PairwiseGraphPartition implements VerbosePrint {
+	/** Maximum number of views in a cluster, before overlapping views are added */
+	public int maxClusterSize = 100;
+
+	/** Clusters with fewer views than this are discarded */
+	public int minClusterSize = 3;
+
+	/** Number of overlapping views added to a cluster relative to the cluster's size */
+	public double overlapFraction = 0.2;
+
+	/** Minimum number of overlapping views added to each cluster, if possible */
+	public int minOverlap = 3;
+
+	/** Index of nodes in the graph that belong to each cluster. Includes overlapping views */
+	public final DogArray<DogArray_I32> clusters = new DogArray<>(DogArray_I32::new, DogArray_I32::reset);
+
+	// Union-find parent for each node
+	final DogArray_I32 parents = new DogArray_I32();
+	// Number of views in each set. Only valid for the root
+	final DogArray_I32 sizes = new DogArray_I32();
+	// Look up table from view ID to node index
+	final TObjectIntHashMap<String> viewToIndex = new TObjectIntHashMap<>();
+	// Edges sorted by score
+	final FastArray<PairwiseImageGraph.Motion> sorted = new FastArray<>(PairwiseImageGraph.Motion.class);
+
+	@Nullable PrintStream verbose;
+
+	/**
+	 * Partitions the graph into overlapping clusters
+	 *
+	 * @param graph (Input) The graph being partitioned
+	 */
+	public void process( PairwiseImageGraph graph ) {
+		clusters.reset();
+		viewToIndex.clear();
+		for (int i = 0; i < graph.nodes.size; i++) {
+			viewToIndex.put(graph.nodes.get(i).id, i);
+		}
+
+		findDisjointClusters(graph);
+
+		// Overlapping views are added after all the disjoint clusters are found so that the order doesn't matter
+		for (int i = 0; i < clusters.size; i++) {
+			addOverlap(graph, clusters.get(i));
+		}
+
+		if (verbose != null) {
+			verbose.print("clusters.size=" + clusters.size + " sizes={");
+			for (int i = 0; i < clusters.size; i++) {
+				verbose.print(clusters.get(i).size + " ");
+			}
+			verbose.println("}");
+		}
+	}
+
+	/**
+	 * Uses union-find to greedily merge views connected by the best edges while keeping each cluster below the
+	 * maximum size
+	 */
+	void findDisjointClusters( PairwiseImageGraph graph ) {
+		final int N = graph.nodes.size;
+		parents.resize(N);
+		sizes.resize(N);
+		for (int i = 0; i < N; i++) {
+			parents.data[i] = i;
+			sizes.data[i] = 1;
+		}
+
+		sorted.reset();
+		for (int i = 0; i < graph.edges.size; i++) {
+			PairwiseImageGraph.Motion m = graph.edges.get(i);
+			if (m.is3D)
+				sorted.add(m);
+		}
+		Arrays.sort(sorted.data, 0, sorted.size, ( a, b ) -> Double.compare(b.score3D, a.score3D));
+
+		for (int i = 0; i < sorted.size; i++) {
+			PairwiseImageGraph.Motion m = sorted.get(i);
+			int rootA = findRoot(viewToIndex.get(m.src.id));
+			int rootB = findRoot(viewToIndex.get(m.dst.id));
+			if (rootA == rootB || sizes.data[rootA] + sizes.data[rootB] > maxClusterSize)
+				continue;
+			// Attach the smaller set to the larger set to keep the trees shallow
+			if (sizes.data[rootA] < sizes.data[rootB]) {
+				int tmp = rootA;
+				rootA = rootB;
+				rootB = tmp;
+			}
+			parents.data[rootB] = rootA;
+			sizes.data[rootA] += sizes.data[rootB];
+		}
+
+		// Create a cluster for each root which is large enough
+		var rootToCluster = new int[N];
+		Arrays.fill(rootToCluster, -1);
+		for (int i = 0; i < N; i++) {
+			int root = findRoot(i);
+			if (sizes.data[root] < minClusterSize)
+				continue;
+			if (rootToCluster[root] == -1) {
+				rootToCluster[root] = clusters.size;
+				clusters.grow();
+			}
+			clusters.get(rootToCluster[root]).add(i);
+		}
+	}
+
+	int findRoot( int index ) {
+		while (parents.data[index] != index) {
+			// path halving
+			parents.data[index] = parents.data[parents.data[index]];
+			index = parents.data[index];
+		}
+		return index;
+	}
+
+	/**
+	 * Adds the views outside of the cluster which have the strongest 3D connection to a view inside the cluster
+	 */
+	void addOverlap( PairwiseImageGraph graph, DogArray_I32 cluster ) {
+		var members = new HashSet<String>();
+		for (int i = 0; i < cluster.size; i++) {
+			members.add(graph.nodes.get(cluster.get(i)).id);
+		}
+
+		// Best score for each view outside of the cluster
+		var outsideScore = new HashMap<String, Double>();
+		for (int i = 0; i < cluster.size; i++) {
+			PairwiseImageGraph.View v = graph.nodes.get(cluster.get(i));
+			for (int connIdx = 0; connIdx < v.connections.size; connIdx++) {
+				PairwiseImageGraph.Motion m = v.connections.get(connIdx);
+				if (!m.is3D)
+					continue;
+				String other = m.other(v).id;
+				if (members.contains(other))
+					continue;
+				outsideScore.merge(other, m.score3D, Math::max);
+			}
+		}
+
+		List<Map.Entry<String, Double>> candidates = new ArrayList<>(outsideScore.entrySet());
+		candidates.sort(( a, b ) -> {
+			int c = Double.compare(b.getValue(), a.getValue());
+			return c != 0 ? c : a.getKey().compareTo(b.getKey());
+		});
+
+		int numOverlap = Math.max(minOverlap, (int)Math.ceil(overlapFraction*cluster.size));
+		numOverlap = Math.min(numOverlap, candidates.size());
+		for (int i = 0; i < numOverlap; i++) {
+			cluster.add(viewToIndex.get(candidates.get(i).getKey()));
+		}
+	}
+
+	/**
+	 * Creates a graph which only contains the views in the cluster and the edges between them. Inliers are
+	 * copied so that the sub graph can be modified independently of the original graph.
+	 *
+	 * @param graph (Input) The original graph
+	 * @param cluster (Input) Index of nodes in the cluster
+	 * @param subgraph (Output) Graph containing just the cluster
+	 */
+	public static void createSubGraph( PairwiseImageGraph graph, DogArray_I32 cluster, PairwiseImageGraph subgraph ) {
+		subgraph.reset();
+		for (int i = 0; i < cluster.size; i++) {
+			PairwiseImageGraph.View v = graph.nodes.get(cluster.get(i));
+			subgraph.createNode(v.id).totalObservations = v.totalObservations;
+		}
+
+		for (int i = 0; i < cluster.size; i++) {
+			PairwiseImageGraph.View v = graph.nodes.get(cluster.get(i));
+			for (int connIdx = 0; connIdx < v.connections.size; connIdx++) {
+				PairwiseImageGraph.Motion m = v.connections.get(connIdx);
+				// Only add the edge once
+				if (m.src != v)
+					continue;
+				PairwiseImageGraph.View dst = subgraph.lookupNode(m.dst.id);
+				if (dst == null)
+					continue;
+
+				PairwiseImageGraph.Motion c = subgraph.connect(subgraph.lookupNode(v.id), dst);
+				c.is3D = m.is3D;
+				c.score3D = m.score3D;
+				c.inliers.resize(m.inliers.size);
+				for (int inlierIdx = 0; inlierIdx < m.inliers.size; inlierIdx++) {
+					c.inliers.get(inlierIdx).setTo(m.inliers.get(inlierIdx));
+				}
+			}
+		}
+	}
+
+	@Override public void setVerbose( @Nullable PrintStream out, @Nullable Set<String> configuration ) {
+		this.verbose = out;
+	}
+}
@@ -25,6 +25,7 @@ import org.ddogleg.struct.FastArray;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Graph describing the relationship between image features using matching features from epipolar geometry.
@@ -65,6 +66,38 @@ public class PairwiseImageGraph {
 		return m;
 	}
 
+	/**
+	 * Removes the specified views along with every motion they are connected to. Motions which remain have their
+	 * {@link Motion#index} updated.
+	 *
+	 * @param ids IDs of the views which are to be removed
+	 */
+	public void removeNodes( Set<String> ids ) {
+		for (int edgeIdx = edges.size - 1; edgeIdx >= 0; edgeIdx--) {
+			Motion m = edges.get(edgeIdx);
+			boolean removeSrc = ids.contains(m.src.id);
+			boolean removeDst = ids.contains(m.dst.id);
+			if (!removeSrc && !removeDst)
+				continue;
+			if (!removeSrc)
+				m.src.connections.remove(m);
+			if (!removeDst)
+				m.dst.connections.remove(m);
+			edges.remove(edgeIdx).reset();
+		}
+		for (int edgeIdx = 0; edgeIdx < edges.size; edgeIdx++) {
+			edges.get(edgeIdx).index = edgeIdx;
+		}
+
+		for (int nodeIdx = nodes.size - 1; nodeIdx >= 0; nodeIdx--) {
+			View v = nodes.get(nodeIdx);
+			if (!ids.contains(v.id))
+				continue;
+			mapNodes.remove(v.id);
+			nodes.remove(nodeIdx).connections.reset();
+		}
+	}
+
 	public static class View {
 		/** Unique identifier for this view */
 		public String id;
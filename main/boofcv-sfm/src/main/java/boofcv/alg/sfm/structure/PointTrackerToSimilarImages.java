@@ -42,6 +42,8 @@ import static boofcv.misc.BoofMiscOps.checkTrue;
  *     <li>The unique string for each image is set to the frameID</li>
  *     <li>Frames can only be matched to each other with they are withing {@link #searchRadius} of each other</li>
  *     <li>No loop closure is performed</li>
+ *     <li>Track ID lookup tables are released once a frame has been matched</li>
+ *     <li>Memory for long sequences can be bounded by discarding old frames with {@link #removeOldestFrames}</li>
  * </ul>
  *
  * Internally arrays are used as much as possible to reduce memory overhead as higher level objects have a very
@@ -94,6 +96,9 @@ public class PointTrackerToSimilarImages implements LookUpSimilarImages {
 
 		// find related frames
 		findRelatedPastFrames(current);
+
+		// Future frames only search through the observations of past frames, so the lookup table is no longer needed
+		current.compact();
 	}
 
 	/**
@@ -161,6 +166,41 @@ public class PointTrackerToSimilarImages implements LookUpSimilarImages {
 		}
 	}
 
+	/**
+	 * Discards the oldest frames along with their observations and all matches they are part of. References to
+	 * them are removed from the frames which are kept. Used to bound memory when processing long sequences.
+	 *
+	 * @param count Number of frames, starting from the oldest, which are discarded
+	 */
+	public void removeOldestFrames( int count ) {
+		count = Math.min(count, frames.size);
+		if (count <= 0)
+			return;
+
+		for (int frameIdx = 0; frameIdx < count; frameIdx++) {
+			frameMap.remove(frames.get(frameIdx).frameID);
+		}
+
+		// Matches always connect frames which are related to each other, so this will find all the matches
+		for (int frameIdx = 0; frameIdx < count; frameIdx++) {
+			Frame f = frames.get(frameIdx);
+			for (int i = 0; i < f.related.size(); i++) {
+				f.related.get(i).related.remove(f);
+			}
+			for (int i = 0; i < f.matches.size(); i++) {
+				Matches m = f.matches.get(i);
+				Frame other = m.frameSrc == f ? m.frameDst : m.frameSrc;
+				other.matches.remove(m);
+				// Release the memory now instead of when it's recycled
+				matches.remove(matches.indexOf(m)).reset();
+			}
+		}
+
+		for (int i = 0; i < count; i++) {
+			frames.remove(0).reset();
+		}
+	}
+
 	/**
 	 * Returns the list of image ID's in the same order they were processed.
 	 */
@@ -331,6 +371,15 @@ public class PointTrackerToSimilarImages implements LookUpSimilarImages {
 			return ids[index];
 		}
 
+		/**
+		 * Releases memory used by the track ID lookup table. It's only used when matching this frame against
+		 * past frames.
+		 */
+		public void compact() {
+			id_to_index.clear();
+			id_to_index.compact();
+		}
+
 		public void reset() {
 			observations = null;
 			ids = null;
@@ -37,15 +37,14 @@ import georegression.struct.se.Se3_F64;
 import georegression.transform.se.SePointOps_F64;
 import gnu.trove.map.hash.TObjectIntHashMap;
 import org.ddogleg.struct.DogArray;
+import org.ddogleg.struct.DogArray_B;
 import org.ddogleg.struct.DogArray_I32;
 import org.ddogleg.struct.FastArray;
 import org.ddogleg.struct.VerbosePrint;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 import static boofcv.misc.BoofMiscOps.checkTrue;
 
@@ -75,6 +74,11 @@ public class RefineMetricWorkingGraph implements VerbosePrint {
 	// Storage for the index/ID of a particular view
 	TObjectIntHashMap<String> viewToIntegerID = new TObjectIntHashMap<>();
 
+	// Views which are included in the optimization. Index is the same as the view's index in the SBA scene
+	protected final List<SceneWorkingGraph.View> activeViews = new ArrayList<>();
+	// If true then the view's parameters are held constant and it's only used to constrain the other views
+	protected final DogArray_B activeFixed = new DogArray_B();
+
 	private PrintStream verbose;
 
 	//------------------------ Internal workspace
@@ -123,6 +127,31 @@ public class RefineMetricWorkingGraph implements VerbosePrint {
 	public boolean process( LookUpSimilarImages db, SceneWorkingGraph graph ) {
 		// Pre-declare and compute basic data structures
 		initializeDataStructures(db, graph);
+		return refineActiveViews(graph);
+	}
+
+	/**
+	 * Refines only a local neighborhood inside the `graph`. Views in `optimize` have their parameters refined. Views
+	 * which are part of their inlier sets are included but held constant, which anchors the local solution to the
+	 * rest of the scene. Inlier sets which reference views outside of this neighborhood are ignored. The cost depends
+	 * on the size of the neighborhood and not the size of the scene.
+	 *
+	 * @param db (Input) Used to lookup common features between views.
+	 * @param graph (Input, Output) Describes scene and provides initial estimate for parameters. Views in
+	 * 'optimize' are updated with refined parameters on output.
+	 * @param optimize (Input) Views which are to be refined.
+	 */
+	public boolean processLocal( LookUpSimilarImages db, SceneWorkingGraph graph,
+								 Collection<SceneWorkingGraph.View> optimize ) {
+		selectLocalViews(graph, optimize);
+		initializeActiveViews(db);
+		return refineActiveViews(graph);
+	}
+
+	/**
+	 * Creates 3D features from the active views then optimizes
+	 */
+	private boolean refineActiveViews( SceneWorkingGraph graph ) {
 		// Use observations defined in the graph to create the list of 3D features which will be optimized
 		createFeatures3D(graph);
 		// Clean up by removing observations which were never assigned to a feature
@@ -132,9 +161,48 @@ public class RefineMetricWorkingGraph implements VerbosePrint {
 	}
 
 	/**
-	 * Initialized several data structures and resets it into the initial state
+	 * Initialized several data structures and resets it into the initial state. All views are optimized.
 	 */
 	void initializeDataStructures( LookUpSimilarImages db, SceneWorkingGraph graph ) {
+		activeViews.clear();
+		activeViews.addAll(graph.viewList);
+		activeFixed.reset();
+		activeFixed.resize(activeViews.size(), false);
+		initializeActiveViews(db);
+	}
+
+	/**
+	 * Selects the views to be optimized and the views which are held constant
+	 */
+	void selectLocalViews( SceneWorkingGraph graph, Collection<SceneWorkingGraph.View> optimize ) {
+		activeViews.clear();
+		activeFixed.reset();
+
+		var selected = new HashSet<String>();
+		for (SceneWorkingGraph.View wview : optimize) {
+			if (selected.add(wview.pview.id)) {
+				activeViews.add(wview);
+				activeFixed.add(false);
+			}
+		}
+
+		// Views in the inlier sets of the optimized views are needed to triangulate their features
+		for (SceneWorkingGraph.View wview : optimize) {
+			FastArray<PairwiseImageGraph.View> inlierViews = wview.inliers.views;
+			for (int i = 0; i < inlierViews.size; i++) {
+				SceneWorkingGraph.View wother = graph.lookupView(inlierViews.get(i).id);
+				if (wother == null || !selected.add(wother.pview.id))
+					continue;
+				activeViews.add(wother);
+				activeFixed.add(true);
+			}
+		}
+	}
+
+	/**
+	 * Initializes the SBA structure and observations using the active views
+	 */
+	void initializeActiveViews( LookUpSimilarImages db ) {
 		viewToIntegerID.clear();
 		listPixelToNorm.clear();
 		listNormToPixel.clear();
@@ -142,14 +210,20 @@ public class RefineMetricWorkingGraph implements VerbosePrint {
 		final SceneStructureMetric structure = bundleAdjustment.structure;
 		final SceneObservations observations = bundleAdjustment.observations;
 
+		// If nothing is fixed then the first view is used to fix the coordinate system
+		boolean anyFixed = false;
+		for (int i = 0; i < activeFixed.size; i++) {
+			anyFixed |= activeFixed.get(i);
+		}
+
 		// Initialize the structure, but save initializing the points for later
-		structure.initialize(graph.viewList.size(), graph.viewList.size(), 0);
+		structure.initialize(activeViews.size(), activeViews.size(), 0);
 
 		// Declare enough space for each actual observation. This will make keeping track of which observations have
 		// features associated with them easier
-		observations.initialize(graph.viewList.size());
-		for (int viewIdx = 0; viewIdx < graph.viewList.size(); viewIdx++) {
-			SceneWorkingGraph.View wview = graph.viewList.get(viewIdx);
+		observations.initialize(activeViews.size());
+		for (int viewIdx = 0; viewIdx < activeViews.size(); viewIdx++) {
+			SceneWorkingGraph.View wview = activeViews.get(viewIdx);
 			SceneObservations.View oview = observations.getView(viewIdx);
 
 			viewToIntegerID.put(wview.pview.id, viewIdx);
@@ -173,8 +247,9 @@ public class RefineMetricWorkingGraph implements VerbosePrint {
 			}
 
 			// Add the view pose and intrinsics
-			structure.setCamera(viewIdx, false, wview.intrinsic);
-			structure.setView(viewIdx, viewIdx, viewIdx == 0, wview.world_to_view);
+			boolean fixed = activeFixed.get(viewIdx);
+			structure.setCamera(viewIdx, fixed, wview.intrinsic);
+			structure.setView(viewIdx, viewIdx, fixed || (!anyFixed && viewIdx == 0), wview.world_to_view);
 		}
 	}
 
@@ -183,9 +258,9 @@ public class RefineMetricWorkingGraph implements VerbosePrint {
 	 */
 	void createFeatures3D( SceneWorkingGraph graph ) {
 		// For each view, with a set inliers, create a set of triangulated 3D point features
-		for (int sceneViewIdx = 0; sceneViewIdx < graph.viewList.size(); sceneViewIdx++) {
-			SceneWorkingGraph.View wview = graph.viewList.get(sceneViewIdx);
-			if (wview.inliers.isEmpty())
+		for (int sceneViewIdx = 0; sceneViewIdx < activeViews.size(); sceneViewIdx++) {
+			SceneWorkingGraph.View wview = activeViews.get(sceneViewIdx);
+			if (wview.inliers.isEmpty() || !isInlierSetActive(wview.inliers))
 				continue;
 
 			final SceneWorkingGraph.InlierInfo inliers = wview.inliers;
@@ -236,6 +311,17 @@ public class RefineMetricWorkingGraph implements VerbosePrint {
 		}
 	}
 
+	/**
+	 * Returns true if every view in the inlier set is being optimized or is held constant
+	 */
+	boolean isInlierSetActive( SceneWorkingGraph.InlierInfo inliers ) {
+		for (int i = 0; i < inliers.views.size; i++) {
+			if (!viewToIntegerID.containsKey(inliers.views.get(i).id))
+				return false;
+		}
+		return true;
+	}
+
 	/**
 	 * Creates a look up table to go from a view's inlier index to it's int ID and SE3
 	 */
@@ -279,7 +365,7 @@ public class RefineMetricWorkingGraph implements VerbosePrint {
 			observations.getView(whichViewID).get(viewObsIdx, pixelObserved);
 
 			// look up scene information for this view
-			SceneWorkingGraph.View wview = graph.viewList.get(whichViewID);
+			SceneWorkingGraph.View wview = activeViews.get(whichViewID);
 			Point2Transform2_F64 normToPixels = listNormToPixel.get(whichViewID);
 
 			// See which 3D feature best matches this observation
@@ -440,8 +526,10 @@ public class RefineMetricWorkingGraph implements VerbosePrint {
 		final SceneStructureMetric structure = bundleAdjustment.structure;
 
 		// save the results
-		for (int viewIdx = 0; viewIdx < graph.viewList.size(); viewIdx++) {
-			SceneWorkingGraph.View wview = graph.viewList.get(viewIdx);
+		for (int viewIdx = 0; viewIdx < activeViews.size(); viewIdx++) {
+			if (activeFixed.get(viewIdx))
+				continue;
+			SceneWorkingGraph.View wview = activeViews.get(viewIdx);
 			wview.world_to_view.setTo(structure.getParentToView(viewIdx));
 			wview.intrinsic.setTo((BundlePinholeSimplified)structure.cameras.get(viewIdx).model);
 		}
@@ -36,6 +36,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static boofcv.misc.BoofMiscOps.checkTrue;
 
@@ -86,6 +87,37 @@ public class SceneWorkingGraph {
 		return v;
 	}
 
+	/**
+	 * Removes the specified views. Views which remain have their index updated and the removed views are dropped
+	 * from their inlier sets. If only the view itself is left in an inlier set then the set is cleared.
+	 *
+	 * @param ids IDs of the views which are to be removed
+	 */
+	public void removeViews( Set<String> ids ) {
+		for (int viewIdx = viewList.size() - 1; viewIdx >= 0; viewIdx--) {
+			String id = viewList.get(viewIdx).pview.id;
+			if (!ids.contains(id))
+				continue;
+			views.remove(id);
+			viewList.remove(viewIdx);
+		}
+
+		for (int viewIdx = 0; viewIdx < viewList.size(); viewIdx++) {
+			View v = viewList.get(viewIdx);
+			v.index = viewIdx;
+
+			InlierInfo inliers = v.inliers;
+			for (int i = inliers.views.size - 1; i >= 0; i--) {
+				if (!ids.contains(inliers.views.get(i).id))
+					continue;
+				inliers.views.remove(i);
+				inliers.observations.remove(i);
+			}
+			if (inliers.views.size == 1)
+				inliers.reset();
+		}
+	}
+
 	public Feature createFeature() {
 		Feature f = new Feature();
 		f.reset();
@@ -19,18 +19,15 @@
 package boofcv.alg.sfm.structure;
 
 import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.alg.cloud.PackedPointCloud_F32;
 import boofcv.alg.mvs.ColorizeMultiViewStereoResults;
 import boofcv.alg.mvs.MultiViewStereoFromKnownSceneStructure;
 import boofcv.core.image.LookUpColorRgbFormats;
 import boofcv.misc.LookUpImages;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.image.ImageType;
-import georegression.struct.point.Point3D_F64;
 import gnu.trove.map.TIntObjectMap;
 import lombok.Getter;
-import org.ddogleg.struct.DogArray_I32;
-
-import java.util.List;
 
 /**
  * Takes in a known sparse scene that's in SBA format and converts it into a dense point cloud.
@@ -43,8 +40,6 @@ public class SparseSceneToDenseCloud<T extends ImageGray<T>> {
 	private final MultiViewStereoFromKnownSceneStructure<T> mvs;
 	/** Finds and scores stereo pairs from sparse scene graph */
 	private final @Getter GenerateStereoPairGraphFromScene generateGraph = new GenerateStereoPairGraphFromScene();
-	/** RGB colors in found dense point cloud */
-	private final @Getter DogArray_I32 colorRgb = new DogArray_I32();
 
 	// Profiling times in milliseconds
 	@Getter double timeCreateGraphMS;
@@ -55,7 +50,17 @@ public class SparseSceneToDenseCloud<T extends ImageGray<T>> {
 	@Getter Class<T> grayType;
 
 	public SparseSceneToDenseCloud( Class<T> imageType ) {
-		mvs = new MultiViewStereoFromKnownSceneStructure<>(ImageType.single(imageType));
+		this(new MultiViewStereoFromKnownSceneStructure<>(ImageType.single(imageType)));
+	}
+
+	/**
+	 * Specifies which MVS algorithm is used internally
+	 *
+	 * @param mvs MVS algorithm
+	 */
+	public SparseSceneToDenseCloud( MultiViewStereoFromKnownSceneStructure<T> mvs ) {
+		this.mvs = mvs;
+		this.grayType = mvs.getImageType().getImageClass();
 	}
 
 	/**
@@ -79,16 +84,25 @@ public class SparseSceneToDenseCloud<T extends ImageGray<T>> {
 		long time1 = System.nanoTime();
 		timeCreateGraphMS = (time1 - time0)*1e-6;
 
+		var colorizeMvs = new ColorizeMultiViewStereoResults<>(new LookUpColorRgbFormats.PL_U8(), lookUpImages);
+
+		// Fused points can't be colored afterwards so their color is fused while the cloud is computed
+		boolean fusing = mvs.getDisparityCloud().getFusion() != null;
+		if (fusing)
+			mvs.setFusionColorizer(colorizeMvs);
+
 		// Compute the dense cloud
 		mvs.setImageLookUp(lookUpImages);
 		mvs.process(scene, generateGraph.getStereoGraph());
+		mvs.setFusionColorizer(null);
 		long time2 = System.nanoTime();
 		timeMultiViewStereoMS = (time2 - time1)*1e-6;
 
-		// Extract colors from cloud
-		colorRgb.resize(mvs.getCloud().size());
-		var colorizeMvs = new ColorizeMultiViewStereoResults<>(new LookUpColorRgbFormats.PL_U8(), lookUpImages);
-		colorizeMvs.processMvsCloud(scene, mvs, ( idx, r, g, b ) -> colorRgb.set(idx, (r << 16) | (g << 8) | b));
+		// Extract colors from cloud. They are saved inside the cloud
+		if (!fusing) {
+			PackedPointCloud_F32 cloud = mvs.getCloud();
+			colorizeMvs.processMvsCloud(scene, mvs, ( idx, r, g, b ) -> cloud.setRGB(idx, (r << 16) | (g << 8) | b));
+		}
 		long time3 = System.nanoTime();
 		timeColorizeMS = (time3 - time2)*1e-6;
 
@@ -96,9 +110,10 @@ public class SparseSceneToDenseCloud<T extends ImageGray<T>> {
 	}
 
 	/**
-	 * Returns the generated dense 3D point cloud
+	 * Returns the generated dense 3D point cloud. The color of each point is stored in the cloud. If the MVS fuses
+	 * points then this is empty and the colored points are in the fusion or have been spilled.
 	 */
-	public List<Point3D_F64> getCloud() {
+	public PackedPointCloud_F32 getCloud() {
 		return mvs.getCloud();
 	}
 
@@ -202,6 +202,10 @@ public class ScoreFundamentalReprojectionError implements EpipolarScore3D {
 		return is3D;
 	}
 
+	@Override public void reset() {
+		ransac3D.reset();
+	}
+
 	@Override public void setVerbose( @Nullable PrintStream out, @Nullable Set<String> param ) {
 		this.verbose = out;
 	}
@@ -139,6 +139,11 @@ public class ScoreRatioFundamentalHomography implements EpipolarScore3D {
 		return is3D;
 	}
 
+	@Override public void reset() {
+		ransac3D.reset();
+		ransacH.reset();
+	}
+
 	@Override public void setVerbose( @Nullable PrintStream verbose, @Nullable Set<String> options ) {
 		this.verbose = verbose;
 	}
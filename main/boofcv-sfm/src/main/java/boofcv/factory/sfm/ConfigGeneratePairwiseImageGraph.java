@@ -18,6 +18,7 @@
 
 package boofcv.factory.sfm;
 
+import boofcv.misc.BoofMiscOps;
 import boofcv.struct.Configuration;
 
 /**
@@ -29,11 +30,16 @@ public class ConfigGeneratePairwiseImageGraph implements Configuration {
 	/** Configuration for how quality of 3D information between two views is scored */
 	public final ConfigEpipolarScore3D score = new ConfigEpipolarScore3D();
 
+	/** Number of image pairs which are collected before they are scored. Larger batches work better with threads */
+	public int batchSize = 200;
+
 	@Override public void checkValidity() {
 		score.checkValidity();
+		BoofMiscOps.checkTrue(batchSize >= 1, "batchSize must be at least 1");
 	}
 
 	public void setTo( ConfigGeneratePairwiseImageGraph src ) {
 		this.score.setTo(src.score);
+		this.batchSize = src.batchSize;
 	}
 }
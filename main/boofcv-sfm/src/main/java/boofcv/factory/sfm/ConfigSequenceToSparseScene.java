@@ -20,6 +20,7 @@ package boofcv.factory.sfm;
 
 import boofcv.abst.feature.detect.interest.PointDetectorTypes;
 import boofcv.alg.sfm.structure.ConfigProjectiveReconstruction;
+import boofcv.factory.mvs.ConfigSelectFrames3D;
 import boofcv.factory.feature.detect.interest.ConfigDetectInterestPoint;
 import boofcv.factory.feature.detect.selector.ConfigSelectLimit;
 import boofcv.factory.tracker.ConfigPointTracker;
@@ -35,6 +36,13 @@ public class ConfigSequenceToSparseScene implements Configuration {
 	/** If an image has more pixels than this it will be down sampled */
 	public int maxImagePixels = 800*600;
 
+	/**
+	 * Maximum number of key frames kept when streaming. Older key frames are discarded. If &le; 0 then all are kept.
+	 *
+	 * @see boofcv.alg.sfm.structure.ImageSequenceToSparseScene#streamMaxKeyFrames
+	 */
+	public int streamMaxKeyFrames = 30;
+
 	/** Bundle adjustment parameters */
 	public final ConfigBundleUtils bundleAdjustment = new ConfigBundleUtils();
 
@@ -47,6 +55,9 @@ public class ConfigSequenceToSparseScene implements Configuration {
 	/** Creating pairwise graph */
 	public final ConfigGeneratePairwiseImageGraph pairwise = new ConfigGeneratePairwiseImageGraph();
 
+	/** Selects key frames when images are streamed. Its tracker is ignored and {@link #tracker} is used instead */
+	public final ConfigSelectFrames3D keyFrames = new ConfigSelectFrames3D();
+
 	{
 		// Give the tracker reasonable default parameters for this application
 		int radius = 5;
@@ -72,13 +83,16 @@ public class ConfigSequenceToSparseScene implements Configuration {
 		projective.checkValidity();
 		tracker.checkValidity();
 		pairwise.checkValidity();
+		keyFrames.checkValidity();
 	}
 
 	public void setTo( ConfigSequenceToSparseScene src ) {
 		this.maxImagePixels = src.maxImagePixels;
+		this.streamMaxKeyFrames = src.streamMaxKeyFrames;
 		this.bundleAdjustment.setTo(src.bundleAdjustment);
 		this.projective.setTo(src.projective);
 		this.tracker.setTo(src.tracker);
 		this.pairwise.setTo(src.pairwise);
+		this.keyFrames.setTo(src.keyFrames);
 	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2011-2020, Peter Abeles. All Rights Reserved.
+ * Copyright (c) 2011-2021, Peter Abeles. All Rights Reserved.
  *
  * This file is part of BoofCV (http://boofcv.org).
  *
@@ -47,6 +47,16 @@ public class ConfigVisOdomTrackPnP implements Configuration {
 	 * tends to remove most false positives.
 	 */
 	public int bundleMinObservations = 3;
+	/**
+	 * If true then bundle adjustment runs in a background thread and its results are merged in on a later frame.
+	 * This reduces the time spent processing each frame at the cost of the refined estimates arriving late.
+	 */
+	public boolean bundleAsynchronous = false;
+	/**
+	 * Number of dropped key frames which are kept in bundle adjustment as fixed views. Their observations of tracks
+	 * which are still alive continue to constrain those tracks. If zero then dropped key frames are discarded.
+	 */
+	public int bundleMarginalizedFrames = 0;
 	/** Drop tracks if they have been outliers for this many frames in a row */
 	public int dropOutlierTracks = 2;
 	/** Maximum number of key frames it will save. Must be at least 4 */
@@ -67,6 +77,8 @@ public class ConfigVisOdomTrackPnP implements Configuration {
 
 		if (bundleMinObservations < 2)
 			throw new IllegalArgumentException("bundleMinObservations must be >= 2");
+		if (bundleMarginalizedFrames < 0)
+			throw new IllegalArgumentException("bundleMarginalizedFrames must be >= 0");
 	}
 
 	public void setTo( ConfigVisOdomTrackPnP src ) {
@@ -74,6 +86,8 @@ public class ConfigVisOdomTrackPnP implements Configuration {
 		this.bundleConverge.setTo(src.bundleConverge);
 		this.bundleMaxFeaturesPerFrame = src.bundleMaxFeaturesPerFrame;
 		this.bundleMinObservations = src.bundleMinObservations;
+		this.bundleAsynchronous = src.bundleAsynchronous;
+		this.bundleMarginalizedFrames = src.bundleMarginalizedFrames;
 		this.dropOutlierTracks = src.dropOutlierTracks;
 		this.maxKeyFrames = src.maxKeyFrames;
 		this.ransac.setTo(src.ransac);
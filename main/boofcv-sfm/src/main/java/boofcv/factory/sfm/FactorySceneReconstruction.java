@@ -21,11 +21,14 @@ package boofcv.factory.sfm;
 import boofcv.abst.geo.bundle.MetricBundleAdjustmentUtils;
 import boofcv.abst.tracker.PointTracker;
 import boofcv.alg.mvs.MultiViewStereoFromKnownSceneStructure;
+import boofcv.alg.mvs.MultiViewStereoFromKnownSceneStructure_MT;
 import boofcv.alg.sfm.structure.*;
 import boofcv.alg.sfm.structure.score3d.ScoreFundamentalReprojectionError;
 import boofcv.alg.sfm.structure.score3d.ScoreRatioFundamentalHomography;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.factory.disparity.FactoryStereoDisparity;
 import boofcv.factory.geo.FactoryMultiViewRobust;
+import boofcv.factory.mvs.FactoryMultiViewStereo;
 import boofcv.factory.tracker.FactoryPointTracker;
 import boofcv.struct.geo.AssociatedPair;
 import boofcv.struct.image.GrayF32;
@@ -59,37 +62,72 @@ public class FactorySceneReconstruction {
 	}
 
 	/**
-	 * Creates {@link GeneratePairwiseImageGraph}
+	 * Creates {@link GeneratePairwiseImageGraph}. If concurrency is turned on then image pairs are scored in parallel.
 	 */
 	public static GeneratePairwiseImageGraph generatePairwise( @Nullable ConfigGeneratePairwiseImageGraph config ) {
 		if (config == null)
 			config = new ConfigGeneratePairwiseImageGraph();
 
+		final ConfigEpipolarScore3D configScore = config.score;
+		GeneratePairwiseImageGraph alg;
+		if (BoofConcurrency.USE_CONCURRENT)
+			alg = new GeneratePairwiseImageGraph_MT(() -> epipolarScore3D(configScore));
+		else
+			alg = new GeneratePairwiseImageGraph(epipolarScore3D(configScore));
+		alg.batchSize = config.batchSize;
+		return alg;
+	}
+
+	/**
+	 * Creates {@link EpipolarScore3D} for scoring how much 3D information there is between two views
+	 */
+	public static EpipolarScore3D epipolarScore3D( @Nullable ConfigEpipolarScore3D config ) {
+		if (config == null)
+			config = new ConfigEpipolarScore3D();
+
 		ModelMatcher<DMatrixRMaj, AssociatedPair> ransac3D =
-				FactoryMultiViewRobust.fundamentalRansac(config.score.fundamental, config.score.ransacF);
-
-		EpipolarScore3D scorer =
-				switch (config.score.type) {
-					case MODEL_INLIERS -> {
-						ModelMatcher<Homography2D_F64, AssociatedPair> ransacH =
-								FactoryMultiViewRobust.homographyRansac(
-										config.score.typeInliers.homography, config.score.typeInliers.ransacH);
-
-						var alg = new ScoreRatioFundamentalHomography(ransac3D, ransacH);
-						alg.minimumInliers = config.score.typeInliers.minimumInliers;
-						alg.ratio3D = config.score.typeInliers.ratio3D;
-						yield alg;
-					}
-					case FUNDAMENTAL_ERROR -> {
-						var alg = new ScoreFundamentalReprojectionError(ransac3D);
-						alg.eps = config.score.typeErrors.eps;
-						alg.ratio3D = config.score.typeErrors.ratio3D;
-						alg.maxRatioScore = config.score.typeErrors.maxRatioScore;
-						yield alg;
-					}
-				};
-
-		return new GeneratePairwiseImageGraph(scorer);
+				FactoryMultiViewRobust.fundamentalRansac(config.fundamental, config.ransacF);
+
+		return switch (config.type) {
+			case MODEL_INLIERS -> {
+				ModelMatcher<Homography2D_F64, AssociatedPair> ransacH =
+						FactoryMultiViewRobust.homographyRansac(
+								config.typeInliers.homography, config.typeInliers.ransacH);
+
+				var alg = new ScoreRatioFundamentalHomography(ransac3D, ransacH);
+				alg.minimumInliers = config.typeInliers.minimumInliers;
+				alg.ratio3D = config.typeInliers.ratio3D;
+				yield alg;
+			}
+			case FUNDAMENTAL_ERROR -> {
+				var alg = new ScoreFundamentalReprojectionError(ransac3D);
+				alg.eps = config.typeErrors.eps;
+				alg.ratio3D = config.typeErrors.ratio3D;
+				alg.maxRatioScore = config.typeErrors.maxRatioScore;
+				yield alg;
+			}
+		};
+	}
+
+	/**
+	 * Creates {@link MetricFromPartitionedPairwiseGraph}. If concurrency is turned on then clusters are
+	 * reconstructed in parallel.
+	 *
+	 * @param configProjective (Input) Optional configuration used to reconstruct each cluster. Null will use defaults.
+	 * @param configRefine (Input) Optional configuration used to refine the merged scene. Null will use defaults.
+	 * @return New instance
+	 */
+	public static MetricFromPartitionedPairwiseGraph
+	metricFromPartitioned( @Nullable ConfigProjectiveReconstruction configProjective,
+						   @Nullable ConfigBundleUtils configRefine ) {
+		final ConfigProjectiveReconstruction config =
+				configProjective == null ? new ConfigProjectiveReconstruction() : configProjective;
+
+		var refine = new RefineMetricWorkingGraph(bundleUtils(configRefine));
+		if (BoofConcurrency.USE_CONCURRENT)
+			return new MetricFromPartitionedPairwiseGraph_MT(() -> new MetricFromUncalibratedPairwiseGraph(config), refine);
+		else
+			return new MetricFromPartitionedPairwiseGraph(() -> new MetricFromUncalibratedPairwiseGraph(config), refine);
 	}
 
 	/**
@@ -113,6 +151,9 @@ public class FactorySceneReconstruction {
 
 		var alg = new ImageSequenceToSparseScene<>(tracker, similar, pairwise, metric, refine, imageType);
 		alg.maxImagePixels = config.maxImagePixels;
+		alg.streamMaxKeyFrames = config.streamMaxKeyFrames;
+		// Key frames are selected using the same tracker
+		alg.setSelectKeyFrames(FactoryMultiViewStereo.frameSelector3D(config.keyFrames, imageType));
 
 		return alg;
 	}
@@ -132,13 +173,22 @@ public class FactorySceneReconstruction {
 
 		Class<T> grayType = imageType.getImageClass();
 
-		SparseSceneToDenseCloud<T> s2c = new SparseSceneToDenseCloud<>(grayType);
-		MultiViewStereoFromKnownSceneStructure<T> mvs = s2c.getMultiViewStereo();
-
-		mvs.setStereoDisparity(FactoryStereoDisparity.generic(
-				config.disparity, grayType, GrayF32.class));
-		mvs.getComputeFused().setDisparitySmoother(
-				FactoryStereoDisparity.removeSpeckle(config.smoother, GrayF32.class));
+		final ConfigSparseToDenseCloud _config = config;
+		SparseSceneToDenseCloud<T> s2c;
+		if (BoofConcurrency.USE_CONCURRENT) {
+			// Each thread needs its own stereo disparity and smoother
+			s2c = new SparseSceneToDenseCloud<>(new MultiViewStereoFromKnownSceneStructure_MT<>(imageType,
+					() -> FactoryStereoDisparity.generic(_config.disparity, grayType, GrayF32.class),
+					() -> FactoryStereoDisparity.removeSpeckle(_config.smoother, GrayF32.class)));
+		} else {
+			s2c = new SparseSceneToDenseCloud<>(grayType);
+			MultiViewStereoFromKnownSceneStructure<T> mvs = s2c.getMultiViewStereo();
+
+			mvs.setStereoDisparity(FactoryStereoDisparity.generic(
+					config.disparity, grayType, GrayF32.class));
+			mvs.getComputeFused().setDisparitySmoother(
+					FactoryStereoDisparity.removeSpeckle(config.smoother, GrayF32.class));
+		}
 
 		GenerateStereoPairGraphFromScene generateGraph = s2c.getGenerateGraph();
 
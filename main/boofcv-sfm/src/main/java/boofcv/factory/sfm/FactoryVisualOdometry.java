@@ -216,6 +216,8 @@ public class FactoryVisualOdometry {
 		alg.setThresholdRetireTracks(configVO.dropOutlierTracks);
 		alg.getBundleViso().getSelectTracks().maxFeaturesPerFrame = configVO.bundleMaxFeaturesPerFrame;
 		alg.getBundleViso().getSelectTracks().minTrackObservations = configVO.bundleMinObservations;
+		alg.getBundleViso().setAsynchronous(configVO.bundleAsynchronous);
+		alg.getBundleViso().setMaxMarginalized(configVO.bundleMarginalizedFrames);
 		return new WrapVisOdomMonoStereoDepthPnP<>(alg, pixelTo3D, distance, imageType);
 	}
 
@@ -313,6 +315,8 @@ public class FactoryVisualOdometry {
 		alg.setThresholdRetireTracks(configVO.dropOutlierTracks);
 		alg.getBundleViso().getSelectTracks().maxFeaturesPerFrame = configVO.bundleMaxFeaturesPerFrame;
 		alg.getBundleViso().getSelectTracks().minTrackObservations = configVO.bundleMinObservations;
+		alg.getBundleViso().setAsynchronous(configVO.bundleAsynchronous);
+		alg.getBundleViso().setMaxMarginalized(configVO.bundleMarginalizedFrames);
 
 		return new VisOdomPixelDepthPnP_to_DepthVisualOdometry<>
 				(sparseDepth, alg, distance, ImageType.single(visualType), depthType);
@@ -396,6 +400,8 @@ public class FactoryVisualOdometry {
 		alg.setThresholdRetireTracks(configVO.dropOutlierTracks);
 		alg.getBundleViso().getSelectTracks().maxFeaturesPerFrame = configVO.bundleMaxFeaturesPerFrame;
 		alg.getBundleViso().getSelectTracks().minTrackObservations = configVO.bundleMinObservations;
+		alg.getBundleViso().setAsynchronous(configVO.bundleAsynchronous);
+		alg.getBundleViso().setMaxMarginalized(configVO.bundleMarginalizedFrames);
 
 		return new WrapVisOdomDualTrackPnP<>(
 				alg, pnpStereo, distanceMono, distanceStereo, associateL2R, refinePnP, imageType);
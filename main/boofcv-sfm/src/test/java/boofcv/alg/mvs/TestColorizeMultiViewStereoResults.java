@@ -20,9 +20,12 @@ package boofcv.alg.mvs;
 
 import boofcv.abst.geo.bundle.SceneStructureMetric;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.core.image.LookUpColorRgb;
 import boofcv.core.image.LookUpColorRgbFormats;
+import boofcv.errors.BoofCheckFailure;
 import boofcv.misc.LookUpImages;
 import boofcv.struct.calib.CameraPinhole;
+import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageDimension;
 import boofcv.struct.image.ImageType;
@@ -32,6 +35,7 @@ import org.ddogleg.struct.DogArray_I32;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * @author Peter Abeles
@@ -71,8 +75,8 @@ class TestColorizeMultiViewStereoResults extends BoofStandardJUnit {
 
 		// One point for each view. Both points are in the image center
 		mvs.disparityCloud.viewPointIdx.setTo(0, 1, 2);
-		mvs.disparityCloud.cloud.grow().setTo(0, 0, 1);
-		mvs.disparityCloud.cloud.grow().setTo(0, 0, 1);
+		mvs.disparityCloud.cloud.add(0, 0, 1);
+		mvs.disparityCloud.cloud.add(0, 0, 1);
 
 		var alg = new ColorizeMultiViewStereoResults<>(new LookUpColorRgbFormats.SB_U8(), new MockLookUp());
 		alg.processMvsCloud(scene, mvs, ( idx, r, g, b ) -> {
@@ -119,6 +123,16 @@ class TestColorizeMultiViewStereoResults extends BoofStandardJUnit {
 		assertEquals(2, count);
 	}
 
+	@Test void lookupColorOfView() {
+		var alg = new ColorizeMultiViewStereoResults<>(new LookUpColorRgbFormats.SB_U8(), new MockLookUp());
+
+		LookUpColorRgb<GrayU8> colorLookup = alg.lookupColorOfView("12", width, height);
+		assertEquals(12 << 16 | 12 << 8 | 12, colorLookup.lookupRgb(2, 3));
+
+		// The disparity image must have the same shape as the image
+		assertThrows(BoofCheckFailure.class, () -> alg.lookupColorOfView("12", width + 1, height));
+	}
+
 	class MockLookUp implements LookUpImages {
 		@Override public boolean loadShape( String name, ImageDimension shape ) {
 			shape.setTo(width, height);
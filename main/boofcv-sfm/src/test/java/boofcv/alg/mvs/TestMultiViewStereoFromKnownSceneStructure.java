@@ -19,17 +19,21 @@
 package boofcv.alg.mvs;
 
 import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.alg.cloud.PackedPointCloud_F32;
+import boofcv.alg.cloud.PointCloudWriter;
 import boofcv.alg.geo.bundle.BundleAdjustmentOps;
 import boofcv.alg.geo.bundle.cameras.BundlePinhole;
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.alg.mvs.MultiViewStereoFromKnownSceneStructure.ViewInfo;
 import boofcv.core.image.GConvertImage;
+import boofcv.core.image.LookUpColorRgbFormats;
 import boofcv.factory.disparity.ConfigDisparityBM;
 import boofcv.factory.disparity.DisparityError;
 import boofcv.factory.disparity.FactoryStereoDisparity;
 import boofcv.gui.image.ShowImages;
 import boofcv.misc.LookUpImages;
 import boofcv.simulation.SimulatePlanarWorld;
+import boofcv.struct.Point3dRgbI_F32;
 import boofcv.struct.border.BorderType;
 import boofcv.struct.calib.CameraPinhole;
 import boofcv.struct.image.GrayF32;
@@ -43,6 +47,7 @@ import boofcv.visualize.VisualizeData;
 import georegression.metric.UtilAngle;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.se.SpecialEuclideanOps_F64;
+import org.ddogleg.struct.DogArray;
 import org.ddogleg.struct.DogArray_F64;
 import org.ejml.UtilEjml;
 import org.junit.jupiter.api.Test;
@@ -125,6 +130,40 @@ public class TestMultiViewStereoFromKnownSceneStructure extends BoofStandardJUni
 		assertEquals(alg.getDisparityCloud().viewPointIdx.size, 3);
 	}
 
+	/**
+	 * Points are fused into voxels and colored as they are added. The remaining voxels should be spilled at the end
+	 */
+	@Test void fusion_colorAndSpill() {
+		createScene(3);
+
+		var spilled = new DogArray<>(Point3dRgbI_F32::new);
+		var fusion = new VoxelHashFusion();
+		fusion.voxelSize = 0.02;
+		fusion.setSpillTo(PointCloudWriter.wrapF32RGB(spilled));
+
+		MultiViewStereoFromKnownSceneStructure<GrayF32> alg = createAlg();
+		alg.getDisparityCloud().setFusion(fusion);
+		alg.setFusionColorizer(new ColorizeMultiViewStereoResults<>(
+				new LookUpColorRgbFormats.SB_F32(), new SimulatedLookUp()));
+		alg.process(scene, pairs);
+
+		assertEquals(0, alg.getCloud().size());
+		assertEquals(0, fusion.size());
+		assertTrue(spilled.size > 100);
+		assertEquals(spilled.size, fusion.getTotalSpilled());
+		// The texture is never black, but the background is. Only check points which are well inside the target
+		double r = planeWidth/2.0 - 0.1;
+		int totalInside = 0;
+		for (int i = 0; i < spilled.size; i++) {
+			Point3dRgbI_F32 p = spilled.get(i);
+			if (!(Math.abs(p.x) < r && Math.abs(p.y) < r))
+				continue;
+			assertTrue(p.rgb != 0);
+			totalInside++;
+		}
+		assertTrue(totalInside > 100);
+	}
+
 	/**
 	 * Checks to see if a score is computed for each view and is "qualitatively" correct. This does not check
 	 * ti see if all the geometry is handled correctly since the rectified and unrectified views are the same.
@@ -228,7 +267,12 @@ public class TestMultiViewStereoFromKnownSceneStructure extends BoofStandardJUni
 		PointCloudViewer pcv = VisualizeData.createPointCloudViewer();
 		pcv.setCameraHFov(UtilAngle.radian(90));
 		pcv.setTranslationStep(0.2);
-		pcv.addCloud(alg.getCloud());
+		List<Point3D_F64> cloud = new ArrayList<>();
+		for (int i = 0; i < alg.getCloud().size(); i++) {
+			cloud.add(new Point3D_F64());
+			alg.getCloud().get(i, cloud.get(i));
+		}
+		pcv.addCloud(cloud);
 		pcv.setColorizer(new TwoAxisRgbPlane.Z_XY(1.0).fperiod(1.0));
 		JComponent component = pcv.getComponent();
 		component.setPreferredSize(new Dimension(400, 400));
@@ -239,9 +283,11 @@ public class TestMultiViewStereoFromKnownSceneStructure extends BoofStandardJUni
 	 * Checks to see if the point cloud is as expected. A 2D square planar object at a known distance and size. This
 	 * takes in account noise
 	 */
-	private void checkCloudPlane( List<Point3D_F64> cloud ) {
+	private void checkCloudPlane( PackedPointCloud_F32 cloud ) {
 		assertTrue(cloud.size() > 100);
 
+		var p = new Point3D_F64();
+
 		DogArray_F64 arrayZ = new DogArray_F64();
 		arrayZ.resize(cloud.size());
 		arrayZ.reset();
@@ -249,7 +295,7 @@ public class TestMultiViewStereoFromKnownSceneStructure extends BoofStandardJUni
 		double x0 = Double.MAX_VALUE, x1 = -Double.MAX_VALUE;
 		double y0 = Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
 		for (int i = 0; i < cloud.size(); i++) {
-			Point3D_F64 p = cloud.get(i);
+			cloud.get(i, p);
 			double z = p.z;
 			if (UtilEjml.isUncountable(z)) // skip points at infinity
 				continue;
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.mvs;
+
+import boofcv.abst.disparity.StereoDisparity;
+import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.alg.cloud.PackedPointCloud_F32;
+import boofcv.alg.geo.bundle.BundleAdjustmentOps;
+import boofcv.alg.geo.bundle.cameras.BundlePinhole;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.core.image.GConvertImage;
+import boofcv.factory.disparity.ConfigDisparityBM;
+import boofcv.factory.disparity.DisparityError;
+import boofcv.factory.disparity.FactoryStereoDisparity;
+import boofcv.misc.LookUpImages;
+import boofcv.simulation.SimulatePlanarWorld;
+import boofcv.struct.border.BorderType;
+import boofcv.struct.calib.CameraPinhole;
+import boofcv.struct.image.*;
+import boofcv.testing.BoofStandardJUnit;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static georegression.struct.se.SpecialEuclideanOps_F64.eulerXyz;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+@SuppressWarnings("ConstantConditions")
+public class TestMultiViewStereoFromKnownSceneStructure_MT extends BoofStandardJUnit {
+
+	int width = 120, height = 100;
+
+	double planeZ = 3.0;
+	double planeWidth = 3.0;
+
+	SceneStructureMetric scene;
+	StereoPairGraph pairs;
+
+	/**
+	 * Compare against the single threaded version. Results and the order the listener is called should be identical
+	 */
+	@Test void compareToSingleThread() {
+		createScene(6);
+
+		// Break it up into three clusters so that there are multiple center views. (0,1), (2,3), (4,5)
+		for (StereoPairGraph.Vertex v : pairs.vertexes.values()) {
+			v.pairs.forEach(e -> {if (e.va.indexSba/2 != e.vb.indexSba/2) e.quality3D = 0;});
+		}
+
+		var lookUp = new SimulatedLookUp();
+
+		var single = new MultiViewStereoFromKnownSceneStructure<>(lookUp, ImageType.SB_F32);
+		single.setStereoDisparity(createDisparity());
+		var listenerSingle = new HistoryListener();
+		single.setListener(listenerSingle);
+
+		var concurrent = new MultiViewStereoFromKnownSceneStructure_MT<>(ImageType.SB_F32, this::createDisparity, null);
+		concurrent.setImageLookUp(lookUp);
+		// Make sure batches are handled correctly
+		concurrent.maxConcurrent = 2;
+		var listenerConcurrent = new HistoryListener();
+		concurrent.setListener(listenerConcurrent);
+
+		// Call it twice to make sure it resets correctly
+		for (int trial = 0; trial < 2; trial++) {
+			listenerSingle.history.clear();
+			listenerConcurrent.history.clear();
+
+			single.process(scene, pairs);
+			concurrent.process(scene, pairs);
+
+			assertEquals(3, single.getListCenters().size());
+			assertEquals(3, concurrent.getListCenters().size());
+			assertEquals(listenerSingle.history, listenerConcurrent.history);
+
+			PackedPointCloud_F32 expected = single.getCloud();
+			PackedPointCloud_F32 found = concurrent.getCloud();
+			assertTrue(expected.size() > 100);
+			assertEquals(expected.size(), found.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.x.get(i), found.x.get(i));
+				assertEquals(expected.y.get(i), found.y.get(i));
+				assertEquals(expected.z.get(i), found.z.get(i));
+			}
+		}
+
+		// All images should have been loaded through the cache
+		assertTrue(concurrent.cache.getMisses() > 0);
+	}
+
+	/**
+	 * If the user replaces the stereo algorithm it can't be shared between threads and the single threaded code
+	 * should be used instead
+	 */
+	@Test void userStereoDisparity() {
+		createScene(6);
+		for (StereoPairGraph.Vertex v : pairs.vertexes.values()) {
+			v.pairs.forEach(e -> {if (e.va.indexSba/2 != e.vb.indexSba/2) e.quality3D = 0;});
+		}
+
+		var lookUp = new SimulatedLookUp();
+
+		var single = new MultiViewStereoFromKnownSceneStructure<>(lookUp, ImageType.SB_F32);
+		single.setStereoDisparity(createDisparity());
+
+		var concurrent = new MultiViewStereoFromKnownSceneStructure_MT<>(ImageType.SB_F32, this::createDisparity, null);
+		concurrent.setImageLookUp(lookUp);
+		concurrent.setStereoDisparity(createDisparity());
+
+		single.process(scene, pairs);
+		concurrent.process(scene, pairs);
+
+		// The concurrent code was skipped and the user's algorithm was used
+		assertNull(concurrent.cache);
+		assertEquals(single.getCloud().size(), concurrent.getCloud().size());
+	}
+
+	/**
+	 * Settings in the single threaded algorithm should be copied into each worker
+	 */
+	@Test void workersCopySettings() {
+		createScene(6);
+		for (StereoPairGraph.Vertex v : pairs.vertexes.values()) {
+			v.pairs.forEach(e -> {if (e.va.indexSba/2 != e.vb.indexSba/2) e.quality3D = 0;});
+		}
+
+		var concurrent = new MultiViewStereoFromKnownSceneStructure_MT<>(ImageType.SB_F32, this::createDisparity, null);
+		concurrent.setImageLookUp(new SimulatedLookUp());
+		var out = new PrintStream(new ByteArrayOutputStream());
+		concurrent.getComputeFused().setVerbose(out, null);
+		concurrent.getComputeFused().setVerboseProfiling(out);
+
+		concurrent.process(scene, pairs);
+
+		assertTrue(concurrent.workers.size() > 0);
+		for (int i = 0; i < concurrent.workers.size(); i++) {
+			MultiBaselineStereoIndependent<GrayF32> alg = concurrent.workers.get(i);
+			assertSame(out, alg.verbose);
+			assertSame(out, alg.getVerboseProfiling());
+		}
+	}
+
+	private StereoDisparity<GrayF32, GrayF32> createDisparity() {
+		var configDisp = new ConfigDisparityBM();
+		configDisp.errorType = DisparityError.CENSUS;
+		configDisp.texture = 1.0;
+		configDisp.validateRtoL = 0;
+		configDisp.disparityMin = 0;
+		configDisp.disparityRange = 100;
+		configDisp.regionRadiusX = 3;
+		configDisp.regionRadiusY = 3;
+		configDisp.border = BorderType.EXTENDED;
+		return FactoryStereoDisparity.blockMatch(configDisp, GrayF32.class, GrayF32.class);
+	}
+
+	private void createScene( int numViews ) {
+		scene = new SceneStructureMetric(true);
+		scene.initialize(numViews, numViews, 0);
+		pairs = new StereoPairGraph();
+
+		for (int i = 0; i < numViews; i++) {
+			double cx = width/2.0;
+			double cy = height/2.0;
+			scene.setCamera(i, true, new CameraPinhole(cx, cx, 0, cx, cy, width, height));
+			scene.setView(i, i, true, SpecialEuclideanOps_F64.eulerXyz(((i%2) - 1)*0.3, 0, 0, 0, 0, 0, null));
+			pairs.addVertex("id=" + i, i);
+		}
+
+		for (int i = 0; i < numViews; i++) {
+			for (int j = i + 1; j < numViews; j++) {
+				pairs.connect("id=" + i, "id=" + j, 1.0);
+			}
+		}
+	}
+
+	/**
+	 * Records the order the listener was called in and a summary of the images it was passed
+	 */
+	private static class HistoryListener implements MultiViewStereoFromKnownSceneStructure.Listener<GrayF32> {
+		List<String> history = new ArrayList<>();
+
+		@Override
+		public void handlePairDisparity( String left, String right, GrayF32 rectLeft, GrayF32 rectRight,
+										 GrayF32 disparity, GrayU8 mask, DisparityParameters parameters ) {
+			history.add(left + " " + right + " " + sumPixels(disparity) + " " + parameters.disparityRange);
+		}
+
+		@Override
+		public void handleFusedDisparity( String centerViewName, GrayF32 disparity, GrayU8 mask,
+										  DisparityParameters parameters ) {
+			history.add(centerViewName + " " + sumPixels(disparity) + " " + parameters.baseline);
+		}
+
+		private static double sumPixels( GrayF32 image ) {
+			double sum = 0.0;
+			for (int y = 0; y < image.height; y++) {
+				for (int x = 0; x < image.width; x++) {
+					sum += image.unsafe_get(x, y);
+				}
+			}
+			return sum;
+		}
+	}
+
+	/**
+	 * Renders images as requested with a simulated target. Not thread safe.
+	 */
+	private class SimulatedLookUp implements LookUpImages {
+		SimulatePlanarWorld sim = new SimulatePlanarWorld();
+
+		public SimulatedLookUp() {
+			var texture = new GrayF32(50, 50);
+			ImageMiscOps.fillUniform(texture, rand, 50, 255);
+
+			sim.addSurface(eulerXyz(0, 0, planeZ, 0, Math.PI, 0, null), planeWidth, texture);
+		}
+
+		@Override public boolean loadShape( String name, ImageDimension shape ) {
+			shape.setTo(width, height);
+			return true;
+		}
+
+		@Override public <LT extends ImageBase<LT>> boolean loadImage( String name, LT output ) {
+			int indexSba = Integer.parseInt(name.substring(3));
+			var pinhole = new CameraPinhole();
+			BundleAdjustmentOps.convert((BundlePinhole)scene.cameras.get(indexSba).model, 0, 0, pinhole);
+			pinhole.width = width;
+			pinhole.height = height;
+
+			sim.setCamera(pinhole);
+			sim.setWorldToCamera(scene.motions.get(indexSba).motion);
+			GConvertImage.convert(sim.render(), output);
+			return true;
+		}
+	}
+}
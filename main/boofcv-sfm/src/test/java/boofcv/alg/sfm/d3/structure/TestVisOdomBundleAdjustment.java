@@ -18,6 +18,8 @@
 
 package boofcv.alg.sfm.d3.structure;
 
+import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.abst.tracker.PointTrack;
 import boofcv.alg.distort.pinhole.LensDistortionPinhole;
 import boofcv.alg.geo.PerspectiveOps;
 import boofcv.alg.sfm.d3.structure.VisOdomBundleAdjustment.BFrame;
@@ -31,7 +33,9 @@ import georegression.struct.EulerType;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.point.Point4D_F64;
+import georegression.struct.se.Se3_F64;
 import org.ejml.UtilEjml;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -84,6 +88,116 @@ class TestVisOdomBundleAdjustment extends BoofStandardJUnit {
 		assertEquals(0.0, alg.bundle.sba.getFitScore(), 0.001);
 	}
 
+	/**
+	 * Run it in a background thread and see if it converges
+	 */
+	@Test
+	void optimize_asynchronous() {
+		VisOdomBundleAdjustment<BTrack> alg = createAlgSingleCamera();
+		createPerfectScene(alg);
+		for (int i = 5; i < alg.tracks.size - 5; i++) {
+			alg.tracks.get(i).worldLoc.x += rand.nextGaussian()*0.02;
+		}
+		alg.bundle.configConverge.set(1e-6, 1e-6, 10);
+		alg.setAsynchronous(true);
+
+		alg.optimize(null);
+		alg.finishOptimize(null);
+		assertFalse(alg.isOptimizeRunning());
+		assertEquals(0.0, alg.bundle.sba.getFitScore(), 0.001);
+	}
+
+	/**
+	 * Frames added while the background thread is running should be moved along with the last optimized frame
+	 */
+	@Test
+	void optimize_asynchronous_newFrameCorrected() {
+		VisOdomBundleAdjustment<BTrack> alg = createAlgSingleCamera();
+		createPerfectScene(alg);
+		// Perturb the last frame so that it will be moved by the optimization
+		alg.getLastFrame().frame_to_world.T.x += 0.05;
+		alg.bundle.configConverge.set(1e-6, 1e-6, 10);
+		alg.setAsynchronous(true);
+
+		alg.optimize(null);
+		// Add a frame at the same location as the last frame in the snapshot
+		Se3_F64 before = alg.getLastFrame().frame_to_world.copy();
+		BFrame frameNew = alg.addFrame(10);
+		frameNew.frame_to_world.setTo(before);
+		alg.finishOptimize(null);
+
+		BFrame frameOpt = alg.frames.get(alg.frames.size - 2);
+		assertNotEquals(0.0, frameOpt.frame_to_world.T.distance(before.T), 1e-4);
+		assertEquals(0.0, frameOpt.frame_to_world.T.distance(frameNew.frame_to_world.T), UtilEjml.TEST_F64);
+	}
+
+	/**
+	 * The first frame is held fixed by bundle adjustment and shouldn't be moved by the correction applied to
+	 * frames added after the snapshot
+	 */
+	@Test
+	void optimize_asynchronous_firstFrameFixed() {
+		VisOdomBundleAdjustment<BTrack> alg = createAlgSingleCamera();
+		createPerfectScene(alg);
+		alg.getLastFrame().frame_to_world.T.x += 0.05;
+		alg.bundle.configConverge.set(1e-6, 1e-6, 10);
+		alg.setAsynchronous(true);
+
+		Se3_F64 expected = alg.getFirstFrame().frame_to_world.copy();
+		alg.optimize(null);
+		Se3_F64 last = alg.getLastFrame().frame_to_world.copy();
+		alg.addFrame(10).frame_to_world.setTo(last);
+		alg.finishOptimize(null);
+
+		Se3_F64 found = alg.getFirstFrame().frame_to_world;
+		assertEquals(0.0, found.T.distance(expected.T), UtilEjml.TEST_F64);
+		assertTrue(MatrixFeatures_DDRM.isIdentical(expected.R, found.R, UtilEjml.TEST_F64));
+	}
+
+	/**
+	 * Frames which are removed while the background thread is running should be skipped when merging
+	 */
+	@Test
+	void optimize_asynchronous_frameRemoved() {
+		VisOdomBundleAdjustment<BTrack> alg = createAlgSingleCamera();
+		createPerfectScene(alg);
+		alg.bundle.configConverge.set(1e-6, 1e-6, 10);
+		alg.setAsynchronous(true);
+
+		alg.optimize(null);
+		BFrame removed = alg.frames.get(2);
+		Se3_F64 expected = removed.frame_to_world.copy();
+		alg.removeFrame(removed, new ArrayList<>());
+		alg.finishOptimize(null);
+
+		assertEquals(4, alg.frames.size);
+		assertFalse(alg.frames.contains(removed));
+		assertEquals(0.0, removed.frame_to_world.T.distance(expected.T), UtilEjml.TEST_F64);
+	}
+
+	@Test
+	void findByTrackerTrack() {
+		VisOdomBundleAdjustment<BTrack> alg = createAlgSingleCamera();
+		BTrack trackA = alg.addTrack(1, 2, 3, 3);
+		BTrack trackB = alg.addTrack(1, 2, 3, 3);
+
+		var pointA = new PointTrack();
+		var pointB = new PointTrack();
+		var pointC = new PointTrack();
+		trackA.visualTrack = pointA;
+		trackB.visualTrack = pointB;
+		pointA.cookie = trackA;
+		pointB.cookie = trackB;
+
+		assertSame(trackA, alg.findByTrackerTrack(pointA));
+		assertSame(trackB, alg.findByTrackerTrack(pointB));
+		assertNull(alg.findByTrackerTrack(pointC));
+
+		// The track is no longer associated with the tracker track
+		trackB.visualTrack = null;
+		assertNull(alg.findByTrackerTrack(pointB));
+	}
+
 	@Test
 	void addObservation() {
 		VisOdomBundleAdjustment<BTrack> alg = createAlgSingleCamera();
@@ -186,6 +300,94 @@ class TestVisOdomBundleAdjustment extends BoofStandardJUnit {
 		assertSame(frameB, alg.frames.get(0));
 		assertTrue(alg.tracks.contains(trackB));
 		assertTrue(alg.tracks.contains(trackC));
+		assertEquals(-1, frameA.listIndex);
+		assertEquals(0, frameB.listIndex);
+
+		// A frame which isn't in the list should be caught
+		assertThrows(RuntimeException.class, () -> alg.removeFrame(frameA, new ArrayList<>()));
+	}
+
+	@Test
+	void dropKeyFrame_marginalize() {
+		VisOdomBundleAdjustment<BTrack> alg = createAlgSingleCamera();
+		alg.setMaxMarginalized(1);
+
+		BFrame frameA = alg.addFrame(0);
+		BFrame frameB = alg.addFrame(1);
+		BFrame frameC = alg.addFrame(2);
+		frameA.frame_to_world.T.setTo(1, 2, 3);
+
+		BTrack trackA = alg.addTrack(1, 2, 3, 4);
+		BTrack trackB = alg.addTrack(1, 2, 3, 4);
+		BTrack trackC = alg.addTrack(1, 2, 3, 4);
+
+		alg.addObservation(frameA, trackA, 1, 2);
+		alg.addObservation(frameA, trackC, 1, 3);
+		alg.addObservation(frameB, trackB, 1, 4);
+		alg.addObservation(frameB, trackC, 1, 5);
+		alg.addObservation(frameC, trackB, 1, 6);
+		alg.addObservation(frameC, trackC, 1, 7);
+
+		// trackA is removed with the frame so only the observation of trackC is saved
+		alg.dropKeyFrame(frameA, new ArrayList<>());
+		assertEquals(2, alg.frames.size);
+		assertEquals(2, alg.tracks.size);
+		assertEquals(1, alg.marginalized.size);
+		BFrame margA = alg.marginalized.get(0);
+		assertEquals(0, margA.id);
+		assertEquals(0.0, margA.frame_to_world.T.distance(1, 2, 3), UtilEjml.TEST_F64);
+		assertEquals(1, margA.tracks.size);
+		assertSame(trackC, margA.tracks.get(0));
+		assertEquals(1, trackC.marginalized.size);
+		assertSame(margA, trackC.marginalized.get(0).frame);
+		assertEquals(3.0, trackC.marginalized.get(0).pixel.y, UtilEjml.TEST_F64);
+		assertEquals(0, trackB.marginalized.size);
+
+		// Only one frame can be saved so the oldest should be discarded along with references to it
+		alg.dropKeyFrame(frameB, new ArrayList<>());
+		assertEquals(1, alg.frames.size);
+		assertEquals(1, alg.marginalized.size);
+		BFrame margB = alg.marginalized.get(0);
+		assertEquals(1, margB.id);
+		assertEquals(2, margB.tracks.size);
+		assertEquals(1, trackB.marginalized.size);
+		assertEquals(1, trackC.marginalized.size);
+		assertSame(margB, trackC.marginalized.get(0).frame);
+
+		// Removing the frame directly shouldn't marginalize it
+		alg.removeFrame(frameC, new ArrayList<>());
+		assertEquals(1, alg.marginalized.size);
+		assertSame(margB, alg.marginalized.get(0));
+
+		alg.reset();
+		assertEquals(0, alg.marginalized.size);
+	}
+
+	/**
+	 * Marginalized frames should be included as fixed views and constrain the tracks
+	 */
+	@Test
+	void optimize_marginalized() {
+		VisOdomBundleAdjustment<BTrack> alg = createAlgSingleCamera();
+		createPerfectScene(alg);
+		alg.setMaxMarginalized(2);
+		alg.bundle.configConverge.set(1e-6, 1e-6, 10);
+
+		alg.dropKeyFrame(alg.getFirstFrame(), new ArrayList<>());
+		assertEquals(4, alg.frames.size);
+		assertEquals(1, alg.marginalized.size);
+		Se3_F64 expected = alg.marginalized.get(0).frame_to_world.copy();
+
+		for (int i = 5; i < alg.tracks.size - 5; i++) {
+			alg.tracks.get(i).worldLoc.x += rand.nextGaussian()*0.02;
+		}
+		alg.optimize(null);
+		assertEquals(0.0, alg.bundle.sba.getFitScore(), 0.001);
+
+		SceneStructureMetric structure = alg.bundle.getStructure();
+		assertEquals(5, structure.views.size);
+		assertTrue(structure.motions.get(structure.views.get(4).parent_to_view).known);
+		assertEquals(0.0, alg.marginalized.get(0).frame_to_world.T.distance(expected.T), UtilEjml.TEST_F64);
 	}
 
 	@Test
@@ -248,6 +450,22 @@ class TestVisOdomBundleAdjustment extends BoofStandardJUnit {
 			assertFalse(track.removeRef(frameB));
 			assertEquals(0, track.observations.size);
 		}
+
+		@Test
+		void removeMarginalizedRef() {
+			BFrame frameA = new BFrame();
+			BFrame frameB = new BFrame();
+
+			BTrack track = new BTrack();
+			track.observations.grow().frame = frameA;
+			track.marginalized.grow().frame = frameB;
+
+			assertFalse(track.removeMarginalizedRef(frameA));
+			assertTrue(track.removeMarginalizedRef(frameB));
+			assertFalse(track.removeMarginalizedRef(frameB));
+			assertEquals(1, track.observations.size);
+			assertEquals(0, track.marginalized.size);
+		}
 	}
 
 	private void createPerfectScene( VisOdomBundleAdjustment<BTrack> vsba ) {
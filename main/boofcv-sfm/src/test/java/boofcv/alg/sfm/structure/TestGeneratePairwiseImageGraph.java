@@ -19,9 +19,15 @@
 package boofcv.alg.sfm.structure;
 
 import boofcv.factory.sfm.FactorySceneReconstruction;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.image.ImageDimension;
 import boofcv.testing.BoofStandardJUnit;
+import georegression.struct.point.Point2D_F64;
+import org.ddogleg.struct.DogArray;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -79,4 +85,117 @@ class TestGeneratePairwiseImageGraph extends BoofStandardJUnit {
 			}
 		}
 	}
+
+	/**
+	 * The size of a batch should have no influence on the results
+	 */
+	@Test void batchSize() {
+		var similar = new MockLookupSimilarImages(5, 123123);
+
+		GeneratePairwiseImageGraph expected = FactorySceneReconstruction.generatePairwise(null);
+		expected.batchSize = 1000;
+		expected.process(similar);
+
+		GeneratePairwiseImageGraph found = FactorySceneReconstruction.generatePairwise(null);
+		found.batchSize = 3;
+		found.process(similar);
+
+		checkIdentical(expected.graph, found.graph, true);
+	}
+
+	/**
+	 * Adding images incrementally should produce the same graph as processing them all at once
+	 */
+	@Test void processNewImages() {
+		var similar = new MockLookupSimilarImages(5, 123123);
+
+		GeneratePairwiseImageGraph expected = FactorySceneReconstruction.generatePairwise(null);
+		expected.process(similar);
+
+		// Start with only the first 3 images being visible then add the rest
+		var partial = new PartialLookUp(similar);
+		GeneratePairwiseImageGraph found = FactorySceneReconstruction.generatePairwise(null);
+		partial.numVisible = 3;
+		found.process(partial);
+		assertEquals(3, found.graph.nodes.size);
+		assertEquals(3, found.newViews.size);
+
+		partial.numVisible = 5;
+		found.processNewImages(partial);
+		assertEquals(2, found.newViews.size);
+		assertEquals(similar.getImageIDs().get(3), found.newViews.get(0).id);
+		assertEquals(similar.getImageIDs().get(4), found.newViews.get(1).id);
+
+		// Edges will be in a different order so compare using the connections in each view
+		assertEquals(expected.graph.nodes.size, found.graph.nodes.size);
+		assertEquals(expected.graph.edges.size, found.graph.edges.size);
+		for (int i = 0; i < expected.graph.nodes.size; i++) {
+			PairwiseImageGraph.View va = expected.graph.nodes.get(i);
+			PairwiseImageGraph.View vb = found.graph.lookupNode(va.id);
+			assertEquals(va.totalObservations, vb.totalObservations);
+			assertEquals(va.connections.size, vb.connections.size);
+			for (int j = 0; j < va.connections.size; j++) {
+				PairwiseImageGraph.Motion ma = va.connections.get(j);
+				PairwiseImageGraph.Motion mb = vb.findMotion(found.graph.lookupNode(ma.other(va).id));
+				assertNotNull(mb);
+				assertEquals(ma.is3D, mb.is3D);
+			}
+		}
+	}
+
+	/**
+	 * Only exposes the first N images to simulate images being added over time
+	 */
+	static class PartialLookUp implements LookUpSimilarImages {
+		LookUpSimilarImages db;
+		int numVisible;
+
+		PartialLookUp( LookUpSimilarImages db ) {this.db = db;}
+
+		@Override public List<String> getImageIDs() {
+			return db.getImageIDs().subList(0, numVisible);
+		}
+
+		@Override public void findSimilar( String target, List<String> similar ) {
+			db.findSimilar(target, similar);
+			similar.removeIf(id -> !getImageIDs().contains(id));
+		}
+
+		@Override public void lookupPixelFeats( String target, DogArray<Point2D_F64> features ) {
+			db.lookupPixelFeats(target, features);
+		}
+
+		@Override public boolean lookupMatches( String viewSrc, String viewDst, DogArray<AssociatedIndex> pairs ) {
+			return db.lookupMatches(viewSrc, viewDst, pairs);
+		}
+
+		@Override public void lookupShape( String target, ImageDimension shape ) {
+			db.lookupShape(target, shape);
+		}
+	}
+
+	/**
+	 * Checks to see if the two graphs have the same edges in the same order
+	 *
+	 * @param checkScore if true the score is also compared
+	 */
+	static void checkIdentical( PairwiseImageGraph expected, PairwiseImageGraph found, boolean checkScore ) {
+		assertEquals(expected.nodes.size, found.nodes.size);
+		assertEquals(expected.edges.size, found.edges.size);
+		for (int i = 0; i < expected.edges.size; i++) {
+			PairwiseImageGraph.Motion a = expected.edges.get(i);
+			PairwiseImageGraph.Motion b = found.edges.get(i);
+			assertEquals(a.src.id, b.src.id);
+			assertEquals(a.dst.id, b.dst.id);
+			assertEquals(a.is3D, b.is3D);
+			if (checkScore) {
+				assertEquals(a.score3D, b.score3D);
+				assertEquals(a.inliers.size, b.inliers.size);
+			}
+		}
+		for (int i = 0; i < expected.nodes.size; i++) {
+			assertEquals(expected.nodes.get(i).totalObservations, found.nodes.get(i).totalObservations);
+			assertEquals(expected.nodes.get(i).connections.size, found.nodes.get(i).connections.size);
+		}
+	}
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.structure;
+
+import boofcv.factory.sfm.ConfigEpipolarScore3D;
+import boofcv.factory.sfm.FactorySceneReconstruction;
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Test;
+
+import static boofcv.alg.sfm.structure.TestGeneratePairwiseImageGraph.checkIdentical;
+
+/**
+ * @author Peter Abeles
+ */
+class TestGeneratePairwiseImageGraph_MT extends BoofStandardJUnit {
+	/**
+	 * Should produce the same graph as the single threaded version, including the scores
+	 */
+	@Test void compareToSingleThread() {
+		var similar = new MockLookupSimilarImages(6, 123123);
+
+		var single = new GeneratePairwiseImageGraph(FactorySceneReconstruction.epipolarScore3D(null));
+		var multi = new GeneratePairwiseImageGraph_MT(
+				() -> FactorySceneReconstruction.epipolarScore3D(new ConfigEpipolarScore3D()));
+		single.batchSize = 4;
+		multi.batchSize = 4;
+
+		single.process(similar);
+		multi.process(similar);
+
+		checkIdentical(single.graph, multi.graph, true);
+	}
+}
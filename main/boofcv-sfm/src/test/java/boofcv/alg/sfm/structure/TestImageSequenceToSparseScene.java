@@ -18,6 +18,7 @@
 
 package boofcv.alg.sfm.structure;
 
+import boofcv.BoofTesting;
 import boofcv.abst.geo.bundle.SceneStructureMetric;
 import boofcv.alg.geo.bundle.cameras.BundlePinholeSimplified;
 import boofcv.factory.sfm.ConfigSequenceToSparseScene;
@@ -33,13 +34,15 @@ import georegression.geometry.ConvertRotation3D_F64;
 import georegression.geometry.UtilPoint3D_F64;
 import georegression.struct.EulerType;
 import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 @SuppressWarnings({"SameParameterValue"})
 class TestImageSequenceToSparseScene extends BoofStandardJUnit {
@@ -98,7 +101,198 @@ class TestImageSequenceToSparseScene extends BoofStandardJUnit {
 		}
 	}
 
+	/**
+	 * Process the first few images in a sequence then add the remaining images incrementally
+	 */
+	@Test void processIncremental() {
+		var config = new ConfigSequenceToSparseScene();
+		config.pairwise.score.ransacF.iterations = 30;
+		config.pairwise.score.typeInliers.ransacH.iterations = 30;
+		config.projective.ransac.iterations = 30;
+
+		ImageSequenceToSparseScene<GrayF32> alg = FactorySceneReconstruction.
+				sequenceToSparseScene(config, ImageType.SB_F32);
+
+		alg.tracker = new DummyTracker();
+
+		int numInitial = 5;
+		int numNew = 3;
+		List<GrayF32> frames = new ArrayList<>();
+		List<String> imageIDs = new ArrayList<>();
+		for (int i = 0; i < numInitial + numNew; i++) {
+			frames.add(new GrayF32(width, height));
+			imageIDs.add(i + "");
+		}
+		var lookup = new LookUpImageListByIndex<>(frames);
+
+		assertTrue(alg.process(imageIDs.subList(0, numInitial), lookup));
+		SceneWorkingGraph workGraph = alg.getMetricFromPairwise().getWorkGraph();
+		assertEquals(numInitial, workGraph.viewList.size());
+
+		// Save the state of the views before the new images are added
+		Map<String, Se3_F64> before = new HashMap<>();
+		for (SceneWorkingGraph.View v : workGraph.viewList) {
+			before.put(v.pview.id, v.world_to_view.copy());
+		}
+
+		assertTrue(alg.processIncremental(imageIDs.subList(numInitial, numInitial + numNew), lookup));
+
+		// The new images should have been added and the look up table should be consistent with the scene
+		assertEquals(numInitial + numNew, workGraph.viewList.size());
+		assertEquals(workGraph.viewList.size(), alg.getImageIdToSceneViewIdx().size());
+		for (int i = 0; i < workGraph.viewList.size(); i++) {
+			String imageID = alg.frameIdToImageID.get(workGraph.viewList.get(i).pview.id);
+			assertEquals(i, alg.getImageIdToSceneViewIdx().get(imageID));
+		}
+		for (int i = numInitial; i < imageIDs.size(); i++) {
+			assertTrue(alg.getImageIdToSceneViewIdx().containsKey(imageIDs.get(i)));
+		}
+
+		// Views which are not connected to a new view should not have been modified
+		List<PairwiseImageGraph.View> newViews = new ArrayList<>();
+		for (int i = numInitial; i < workGraph.viewList.size(); i++) {
+			newViews.add(workGraph.viewList.get(i).pview);
+		}
+		for (SceneWorkingGraph.View v : workGraph.viewList) {
+			if (!before.containsKey(v.pview.id) || isConnected(v.pview, newViews))
+				continue;
+			BoofTesting.assertEquals(before.get(v.pview.id), v.world_to_view, 0.0, 0.0);
+		}
+	}
+
+	private static boolean isConnected( PairwiseImageGraph.View view, List<PairwiseImageGraph.View> others ) {
+		for (PairwiseImageGraph.Motion m : view.connections.toList()) {
+			if (others.contains(m.other(view)))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Stream the images in one at a time with every frame being a key frame
+	 */
+	@Test void pushFrame() {
+		var config = new ConfigSequenceToSparseScene();
+		config.pairwise.score.ransacF.iterations = 30;
+		config.pairwise.score.typeInliers.ransacH.iterations = 30;
+		config.projective.ransac.iterations = 30;
+
+		ImageSequenceToSparseScene<GrayF32> alg = FactorySceneReconstruction.
+				sequenceToSparseScene(config, ImageType.SB_F32);
+
+		alg.tracker = new DummyTracker();
+		alg.setSelectKeyFrames(null);
+
+		var image = new GrayF32(width, height);
+		int numFrames = 7;
+		for (int i = 0; i < numFrames; i++) {
+			assertTrue(alg.pushFrame(image, "img" + i));
+			assertTrue(alg.getTimePushMS() > 0.0);
+			assertTrue(alg.getTimePushMaxMS() >= alg.getTimePushMS());
+		}
+
+		// Every frame was a key frame
+		assertEquals(numFrames, alg.frameIdToImageID.size());
+		assertTrue(alg.streamInitialized);
+
+		// The scene and preview should have been updated as frames were pushed
+		List<SceneWorkingGraph.View> views = alg.getMetricFromPairwise().getWorkGraph().viewList;
+		assertTrue(views.size() >= 3);
+		assertEquals(views.size(), alg.getImageIdToSceneViewIdx().size());
+		for (int i = 0; i < views.size(); i++) {
+			String imageID = alg.frameIdToImageID.get(views.get(i).pview.id);
+			assertEquals(i, alg.getImageIdToSceneViewIdx().get(imageID));
+		}
+		assertTrue(alg.getPreviewCloud().size() > 0);
+
+		// Resetting should start a new stream
+		alg.resetStream();
+		alg.pushFrame(image, "new");
+		assertEquals(1, alg.frameIdToImageID.size());
+		assertEquals(0, alg.getPreviewCloud().size());
+		assertFalse(alg.streamInitialized);
+	}
+
 	/** Custom tracker that moves every frame */
+	/**
+	 * Only the most recent key frames should be kept when streaming
+	 */
+	@Test void pushFrame_discardOld() {
+		var config = new ConfigSequenceToSparseScene();
+		config.pairwise.score.ransacF.iterations = 30;
+		config.pairwise.score.typeInliers.ransacH.iterations = 30;
+		config.projective.ransac.iterations = 30;
+		config.streamMaxKeyFrames = 5;
+
+		ImageSequenceToSparseScene<GrayF32> alg = FactorySceneReconstruction.
+				sequenceToSparseScene(config, ImageType.SB_F32);
+
+		alg.tracker = new DummyTracker();
+		alg.setSelectKeyFrames(null);
+		alg.getTrackerSimilar().searchRadius = 2;
+
+		var image = new GrayF32(width, height);
+		int numFrames = 9;
+		for (int i = 0; i < numFrames; i++) {
+			assertTrue(alg.pushFrame(image, "img" + i));
+		}
+		assertTrue(alg.streamInitialized);
+
+		// Everything should only reference the most recent key frames
+		assertEquals(5, alg.frameIdToImageID.size());
+		assertEquals(5, alg.getTrackerSimilar().frames.size);
+		assertEquals(5, alg.getTrackerSimilar().frameMap.size());
+		PairwiseImageGraph pairwise = alg.getGeneratePairwise().getGraph();
+		assertEquals(5, pairwise.nodes.size);
+		for (int i = 0; i < pairwise.edges.size; i++) {
+			assertEquals(i, pairwise.edges.get(i).index);
+		}
+		List<SceneWorkingGraph.View> views = alg.getMetricFromPairwise().getWorkGraph().viewList;
+		assertTrue(views.size() >= 3 && views.size() <= 5);
+		assertEquals(views.size(), alg.getImageIdToSceneViewIdx().size());
+		for (int i = 0; i < views.size(); i++) {
+			assertEquals(i, views.get(i).index);
+			String imageID = alg.frameIdToImageID.get(views.get(i).pview.id);
+			assertEquals(i, alg.getImageIdToSceneViewIdx().get(imageID));
+		}
+
+		// There should be at most one preview point for each track
+		assertTrue(alg.getPreviewCloud().size() > 0);
+		assertEquals(alg.getPreviewCloud().size(), alg.trackToPreview.size());
+
+		// The scene made from the remaining key frames can still be refined
+		assertTrue(alg.refineAll());
+		assertEquals(views.size(), alg.getSceneStructure().views.size);
+	}
+
+	/**
+	 * Each track should have one point in the preview and it should be updated when seen again
+	 */
+	@Test void addToPreviewCloud() {
+		var config = new ConfigSequenceToSparseScene();
+		config.pairwise.score.ransacF.iterations = 30;
+		config.pairwise.score.typeInliers.ransacH.iterations = 30;
+		config.projective.ransac.iterations = 30;
+
+		ImageSequenceToSparseScene<GrayF32> alg = FactorySceneReconstruction.
+				sequenceToSparseScene(config, ImageType.SB_F32);
+
+		alg.tracker = new DummyTracker();
+		alg.setSelectKeyFrames(null);
+
+		var image = new GrayF32(width, height);
+		for (int i = 0; i < 4; i++) {
+			alg.pushFrame(image, "img" + i);
+		}
+		assertTrue(alg.streamInitialized);
+
+		// Adding the same refinement again should not change the number of points
+		int sizeBefore = alg.getPreviewCloud().size();
+		assertTrue(sizeBefore > 0);
+		alg.addToPreviewCloud(alg.getRefineScene(), null);
+		assertEquals(sizeBefore, alg.getPreviewCloud().size());
+	}
+
 	class DummyTracker extends PointTrackerPerfectCloud<GrayF32> {
 		public DummyTracker() {
 			cloud = UtilPoint3D_F64.random(new Point3D_F64(1.0, 0, 2), -2, 2, -1, 1, -1, 1, 1000, rand);
@@ -19,6 +19,7 @@
 package boofcv.alg.sfm.structure;
 
 import boofcv.BoofTesting;
+import boofcv.abst.geo.TriangulateNViewsMetricH;
 import boofcv.alg.geo.MultiViewOps;
 import boofcv.misc.BoofMiscOps;
 import boofcv.struct.calib.CameraPinhole;
@@ -86,6 +87,29 @@ class TestMetricExpandByOneView extends BoofStandardJUnit {
 		BoofTesting.assertEquals(db.views.get(targetViewIdx).world_to_view, found.world_to_view, 0.01, 0.01);
 	}
 
+	/**
+	 * If the user changes the triangulator it should be used
+	 */
+	@Test
+	void userTriangulator() {
+		var db = new MockLookupSimilarImagesRealistic().
+				setIntrinsic(new CameraPinhole(400, 400, 0, 400, 400, 800, 800)).
+				pathLine(5, 0.3, 1.5, 2);
+		var alg = new MetricExpandByOneView();
+		alg.utils.configConvergeSBA.maxIterations = 50;
+
+		// Wrap the default triangulator so that the number of times it's called can be counted
+		TriangulateNViewsMetricH original = alg.bundleAdjustment.triangulator;
+		var count = new int[1];
+		alg.bundleAdjustment.triangulator = ( observations, listWorldToView, location ) -> {
+			count[0]++;
+			return original.triangulate(observations, listWorldToView, location);
+		};
+
+		checkPerfect(db, alg, 2);
+		assertTrue(count[0] > 0);
+	}
+
 	/**
 	 * When it fails to find the metric upgrade make sure it doesn't add it to th work graph
 	 */
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.structure;
+
+import boofcv.testing.BoofStandardJUnit;
+import georegression.geometry.GeometryMath_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import org.ejml.UtilEjml;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+class TestMetricFromPartitionedPairwiseGraph extends BoofStandardJUnit {
+	PairwiseImageGraph graph = new PairwiseImageGraph();
+	List<Se3_F64> truth = new ArrayList<>();
+
+	// Transform from the cluster's frame to the global frame. global = scale*R*cluster + T
+	Se3_F64 cluster_to_global = SpecialEuclideanOps_F64.eulerXyz(0.5, -1.0, 0.2, 0.1, -0.4, 0.25, null);
+	double scale = 2.5;
+
+	/**
+	 * Merge two clusters which are in different coordinate systems and see if views are correctly transformed
+	 */
+	@Test void mergeClusters() {
+		for (int i = 0; i < 8; i++) {
+			graph.createNode("" + i);
+			truth.add(SpecialEuclideanOps_F64.eulerXyz(
+					rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+					rand.nextGaussian()*0.2, rand.nextGaussian()*0.2, rand.nextGaussian()*0.2, null));
+		}
+
+		var alg = new MetricFromPartitionedPairwiseGraph(MetricFromUncalibratedPairwiseGraph::new,
+				new RefineMetricWorkingGraph());
+		alg.clusterScenes.resize(2);
+		// The first cluster is the largest and defines the coordinate system
+		createCluster(alg.clusterScenes.get(0), 0, 5, false);
+		createCluster(alg.clusterScenes.get(1), 3, 8, true);
+
+		assertTrue(alg.mergeClusters());
+
+		SceneWorkingGraph found = alg.getWorkGraph();
+		assertEquals(8, found.viewList.size());
+		for (int i = 0; i < 8; i++) {
+			SceneWorkingGraph.View v = found.lookupView("" + i);
+			assertSame(graph.lookupNode("" + i), v.pview);
+			assertTrue(MatrixFeatures_DDRM.isIdentical(truth.get(i).R, v.world_to_view.R, UtilEjml.TEST_F64));
+			assertEquals(0.0, truth.get(i).T.distance(v.world_to_view.T), UtilEjml.TEST_F64);
+		}
+	}
+
+	/**
+	 * Clusters without enough views in common should not be merged
+	 */
+	@Test void mergeClusters_NotEnoughCommon() {
+		for (int i = 0; i < 8; i++) {
+			graph.createNode("" + i);
+			truth.add(SpecialEuclideanOps_F64.eulerXyz(i, 0, 0, 0, 0, 0, null));
+		}
+
+		var alg = new MetricFromPartitionedPairwiseGraph(MetricFromUncalibratedPairwiseGraph::new,
+				new RefineMetricWorkingGraph());
+		alg.minCommonViews = 2;
+		alg.clusterScenes.resize(2);
+		createCluster(alg.clusterScenes.get(0), 0, 5, false);
+		createCluster(alg.clusterScenes.get(1), 4, 8, true);
+
+		assertTrue(alg.mergeClusters());
+		assertEquals(5, alg.getWorkGraph().viewList.size());
+	}
+
+	/**
+	 * Creates a cluster which contains views from idx0 to idx1-1.
+	 *
+	 * @param transform If true the views will be in a different coordinate system
+	 */
+	void createCluster( SceneWorkingGraph scene, int idx0, int idx1, boolean transform ) {
+		var center = new Point3D_F64();
+		for (int i = idx0; i < idx1; i++) {
+			SceneWorkingGraph.View v = scene.addView(graph.lookupNode("" + i));
+			v.intrinsic.f = 500 + i;
+			v.imageDimension.setTo(800, 600);
+			v.inliers.views.add(v.pview);
+			v.inliers.observations.grow().add(i);
+
+			Se3_F64 world_to_view = truth.get(i);
+			if (!transform) {
+				v.world_to_view.setTo(world_to_view);
+				continue;
+			}
+
+			// Camera center in the global frame then convert into the cluster frame
+			GeometryMath_F64.multTran(world_to_view.R, world_to_view.T, center);
+			center.scale(-1);
+			center.setTo(center.x - cluster_to_global.T.x, center.y - cluster_to_global.T.y,
+					center.z - cluster_to_global.T.z);
+			GeometryMath_F64.multTran(cluster_to_global.R, center, center);
+			center.scale(1.0/scale);
+
+			// R_cluster = R_global * R
+			CommonOps_DDRM.mult(world_to_view.R, cluster_to_global.R, v.world_to_view.R);
+			GeometryMath_F64.mult(v.world_to_view.R, center, v.world_to_view.T);
+			v.world_to_view.T.scale(-1);
+		}
+	}
+}
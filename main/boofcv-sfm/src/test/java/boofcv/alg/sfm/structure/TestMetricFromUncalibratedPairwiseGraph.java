@@ -30,8 +30,7 @@ import org.ddogleg.struct.DogArray;
 import org.ddogleg.struct.DogArray_I32;
 import org.junit.jupiter.api.Test;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -70,6 +69,76 @@ class TestMetricFromUncalibratedPairwiseGraph extends BoofStandardJUnit {
 		}
 	}
 
+	/**
+	 * Reconstruct the scene from the first few views then add the remaining views incrementally. New views should
+	 * be added and known views which are not connected to a new view should not be modified.
+	 */
+	@Test
+	void processIncremental() {
+		int numViews = 8;
+		int numNew = 3;
+		var db = new MockLookupSimilarImagesRealistic().setLoop(false).
+				setIntrinsic(new CameraPinhole(410, 410, 0, 400, 400, 800, 800)).
+				setSeed(numViews).setFeatures(400).pathLine(numViews, 0.30, 6.0, 2);
+		PairwiseImageGraph graph = db.createPairwise();
+
+		// Disconnect the new views so that it looks like they have yet to be seen
+		List<PairwiseImageGraph.View> newViews = new ArrayList<>();
+		for (int i = numViews - numNew; i < numViews; i++) {
+			newViews.add(graph.nodes.get(i));
+		}
+		Set<PairwiseImageGraph.Motion> hidden = new LinkedHashSet<>();
+		newViews.forEach(v -> hidden.addAll(v.connections.toList()));
+		for (PairwiseImageGraph.Motion m : hidden) {
+			m.src.connections.remove(m);
+			m.dst.connections.remove(m);
+		}
+
+		var alg = new MetricFromUncalibratedPairwiseGraph();
+		assertTrue(alg.process(db, graph));
+		assertEquals(numViews - numNew, alg.workGraph.viewList.size());
+
+		// Save the state of the views before the new views are added
+		Map<String, Se3_F64> before = new HashMap<>();
+		Map<String, Double> beforeFocal = new HashMap<>();
+		for (SceneWorkingGraph.View v : alg.workGraph.viewList) {
+			before.put(v.pview.id, v.world_to_view.copy());
+			beforeFocal.put(v.pview.id, v.intrinsic.f);
+		}
+
+		// Reconnect the new views and add them
+		for (PairwiseImageGraph.Motion m : hidden) {
+			m.src.connections.add(m);
+			m.dst.connections.add(m);
+		}
+		assertTrue(alg.processIncremental(db, newViews));
+
+		// The new views should have been added and the entire scene should be correct
+		for (PairwiseImageGraph.View v : newViews) {
+			assertTrue(alg.workGraph.isKnown(v));
+		}
+		checkReconstruction(alg, db);
+
+		// Known views outside the neighborhood of the new views should not have changed
+		int unchanged = 0;
+		for (SceneWorkingGraph.View v : alg.workGraph.viewList) {
+			if (!before.containsKey(v.pview.id) || isConnected(v.pview, newViews))
+				continue;
+			BoofTesting.assertEquals(before.get(v.pview.id), v.world_to_view, 0.0, 0.0);
+			assertEquals(beforeFocal.get(v.pview.id), v.intrinsic.f);
+			unchanged++;
+		}
+		assertEquals(numViews - numNew - 2, unchanged);
+	}
+
+	private static boolean isConnected( PairwiseImageGraph.View view, List<PairwiseImageGraph.View> others ) {
+		for (PairwiseImageGraph.Motion m : view.connections.toList()) {
+			if (others.contains(m.other(view)))
+				return true;
+		}
+		return false;
+	}
+
 	/**
 	 * Compare found camera matrices against truth by converting them into the same projective scale
 	 */
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.structure;
+
+import boofcv.testing.BoofStandardJUnit;
+import org.ddogleg.struct.DogArray_I32;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+class TestPairwiseGraphPartition extends BoofStandardJUnit {
+	/**
+	 * Creates a chain of views where each view is connected to its neighbors
+	 */
+	PairwiseImageGraph createChain( int numViews ) {
+		var graph = new PairwiseImageGraph();
+		for (int i = 0; i < numViews; i++) {
+			graph.createNode("" + i).totalObservations = 100;
+		}
+		for (int i = 1; i < numViews; i++) {
+			PairwiseImageGraph.Motion m = graph.connect(graph.nodes.get(i - 1), graph.nodes.get(i));
+			m.is3D = true;
+			m.score3D = 1.0 + rand.nextDouble();
+			m.inliers.grow().setTo(i, i + 1);
+		}
+		return graph;
+	}
+
+	/**
+	 * Clusters should not be too large, every view should be in a cluster, and clusters should overlap
+	 */
+	@Test void process_chain() {
+		PairwiseImageGraph graph = createChain(30);
+
+		var alg = new PairwiseGraphPartition();
+		alg.maxClusterSize = 6;
+		alg.minClusterSize = 1;
+		alg.minOverlap = 2;
+		alg.overlapFraction = 0.0;
+		alg.process(graph);
+
+		assertTrue(alg.clusters.size >= 5);
+
+		var covered = new HashSet<Integer>();
+		for (int i = 0; i < alg.clusters.size; i++) {
+			DogArray_I32 cluster = alg.clusters.get(i);
+			// In a chain there can be at most 2 overlapping views
+			assertTrue(cluster.size <= alg.maxClusterSize + 2);
+			cluster.forIdx(( idx, value ) -> covered.add(value));
+
+			// Every cluster should share a view with another cluster
+			boolean shared = false;
+			for (int j = 0; j < alg.clusters.size && !shared; j++) {
+				if (i == j)
+					continue;
+				for (int k = 0; k < cluster.size; k++) {
+					if (alg.clusters.get(j).contains(cluster.get(k))) {
+						shared = true;
+						break;
+					}
+				}
+			}
+			assertTrue(shared);
+		}
+		assertEquals(graph.nodes.size, covered.size());
+	}
+
+	/**
+	 * Views which are not connected by 3D edges should not be merged
+	 */
+	@Test void process_minClusterSize() {
+		PairwiseImageGraph graph = createChain(5);
+		graph.createNode("lonely");
+
+		var alg = new PairwiseGraphPartition();
+		alg.maxClusterSize = 10;
+		alg.minClusterSize = 2;
+		alg.process(graph);
+
+		assertEquals(1, alg.clusters.size);
+		assertEquals(5, alg.clusters.get(0).size);
+	}
+
+	@Test void createSubGraph() {
+		PairwiseImageGraph graph = createChain(6);
+
+		var subgraph = new PairwiseImageGraph();
+		PairwiseGraphPartition.createSubGraph(graph, DogArray_I32.array(1, 2, 3, 5), subgraph);
+
+		assertEquals(4, subgraph.nodes.size);
+		// edges 1-2 and 2-3 are the only ones with both views in the cluster
+		assertEquals(2, subgraph.edges.size);
+		assertEquals(0, subgraph.lookupNode("5").connections.size);
+		assertEquals(2, subgraph.lookupNode("2").connections.size);
+
+		PairwiseImageGraph.Motion expected = graph.edges.get(1);
+		PairwiseImageGraph.Motion found = subgraph.lookupNode("1").connections.get(0);
+		assertEquals("1", found.src.id);
+		assertEquals("2", found.dst.id);
+		assertEquals(expected.score3D, found.score3D);
+		assertEquals(expected.inliers.size, found.inliers.size);
+		assertEquals(expected.inliers.get(0).dst, found.inliers.get(0).dst);
+		// must be a copy
+		assertNotSame(expected.inliers.get(0), found.inliers.get(0));
+		assertNotSame(graph.lookupNode("1"), subgraph.lookupNode("1"));
+	}
+}
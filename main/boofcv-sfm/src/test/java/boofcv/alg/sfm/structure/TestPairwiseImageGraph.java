@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.structure;
+
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+class TestPairwiseImageGraph extends BoofStandardJUnit {
+	@Test void removeNodes() {
+		var alg = new PairwiseImageGraph();
+		for (int i = 0; i < 4; i++) {
+			alg.createNode("" + i);
+		}
+		alg.connect(alg.nodes.get(0), alg.nodes.get(1));
+		alg.connect(alg.nodes.get(1), alg.nodes.get(2));
+		alg.connect(alg.nodes.get(1), alg.nodes.get(3));
+		alg.connect(alg.nodes.get(2), alg.nodes.get(3));
+		PairwiseImageGraph.View view2 = alg.lookupNode("2");
+		PairwiseImageGraph.View view3 = alg.lookupNode("3");
+
+		alg.removeNodes(Set.of("0", "1"));
+
+		assertEquals(2, alg.nodes.size);
+		assertEquals(2, alg.mapNodes.size());
+		assertSame(view2, alg.lookupNode("2"));
+		assertSame(view3, alg.lookupNode("3"));
+		assertNull(alg.lookupNode("0"));
+		assertNull(alg.lookupNode("1"));
+
+		// Only the motion between the remaining nodes should be left and it should have the correct index
+		assertEquals(1, alg.edges.size);
+		PairwiseImageGraph.Motion m = alg.edges.get(0);
+		assertEquals(0, m.index);
+		assertSame(view2, m.src);
+		assertSame(view3, m.dst);
+		assertEquals(1, view2.connections.size);
+		assertEquals(1, view3.connections.size);
+		assertSame(m, view2.connections.get(0));
+		assertSame(m, view3.connections.get(0));
+	}
+}
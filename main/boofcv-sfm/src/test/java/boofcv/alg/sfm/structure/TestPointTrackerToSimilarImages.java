@@ -92,6 +92,11 @@ class TestPointTrackerToSimilarImages extends GenericLookUpSimilarImagesChecks {
 			tracker.offsetID += 5; // this will cause 5 tracks to not match
 		}
 
+		// Lookup tables should have been released after each frame was processed
+		for (int i = 0; i < alg.frames.size; i++) {
+			assertTrue(alg.frames.get(i).id_to_index.isEmpty());
+		}
+
 		DogArray<Point2D_F64> features = new DogArray<>(Point2D_F64::new);
 		DogArray<AssociatedIndex> associated = new DogArray<>(AssociatedIndex::new);
 		List<String> imageIds = alg.getImageIDs();
@@ -120,6 +125,45 @@ class TestPointTrackerToSimilarImages extends GenericLookUpSimilarImagesChecks {
 		}
 	}
 
+	@Test
+	void removeOldestFrames() {
+		var tracker = new MockTracker();
+		var alg = new PointTrackerToSimilarImages();
+
+		alg.initialize(200,210);
+		for (int i = 0; i < 10; i++) {
+			tracker.process(null);
+			alg.processFrame(tracker);
+			tracker.offsetID += 5;
+		}
+
+		alg.removeOldestFrames(4);
+
+		assertEquals(6, alg.frames.size);
+		assertEquals(6, alg.frameMap.size());
+		for (int i = 0; i < alg.frames.size; i++) {
+			Frame f = alg.frames.get(i);
+			assertSame(f, alg.frameMap.get(f.frameID));
+			// Nothing should reference a discarded frame
+			for (Frame r : f.related) {
+				assertTrue(alg.frames.contains(r));
+			}
+			for (Matches m : f.matches) {
+				assertTrue(alg.matches.contains(m));
+				assertTrue(alg.frames.contains(m.frameSrc));
+				assertTrue(alg.frames.contains(m.frameDst));
+			}
+		}
+		// Only matches between the remaining frames should be left. Only 3 frames back will have common tracks
+		assertEquals(3 + 3 + 3 + 2 + 1, alg.matches.size);
+
+		// Discarding more than there are frames should remove everything
+		alg.removeOldestFrames(100);
+		assertEquals(0, alg.frames.size);
+		assertEquals(0, alg.frameMap.size());
+		assertEquals(0, alg.matches.size);
+	}
+
 	@Test
 	void initialize() {
 		var alg = new PointTrackerToSimilarImages();
@@ -272,6 +316,20 @@ class TestPointTrackerToSimilarImages extends GenericLookUpSimilarImagesChecks {
 			assertEquals(-1,frame.id_to_index.get(345354));
 		}
 
+		@Test
+		void compact() {
+			var frame = new Frame();
+			frame.initActive(2);
+			frame.id_to_index.put(5, 0);
+			frame.id_to_index.put(8, 1);
+
+			frame.compact();
+			assertTrue(frame.id_to_index.isEmpty());
+			assertEquals(-1, frame.id_to_index.get(5));
+			// observations should not be modified
+			assertEquals(2, frame.size());
+		}
+
 		@Test
 		void getPixel() {
 			var frame = new Frame();
@@ -162,6 +162,53 @@ class TestRefineMetricWorkingGraph extends BoofStandardJUnit {
 		});
 	}
 
+	/**
+	 * Only refine a single view. Views in its inlier set should be held constant and all other views ignored.
+	 */
+	@Test
+	void processLocal() {
+		var db = new MockLookupSimilarImagesRealistic().
+				setFeatures(500).
+				setIntrinsic(intrinsic).
+				pathLine(5, 0.1, 0.6, 2);
+		var pairwise = db.createPairwise();
+		var graph = db.createWorkingGraph(pairwise);
+		graph.viewList.forEach(v -> v.intrinsic.setTo(new BundlePinholeSimplified(400, 0, 0)));
+		graph.viewList.forEach(v -> intrinsicZ.getDimension(v.imageDimension));
+
+		graph.viewList.get(0).inliers.views.add(pairwise.nodes.get(0));
+		graph.viewList.get(0).inliers.views.add(pairwise.nodes.get(1));
+		graph.viewList.get(0).inliers.views.add(pairwise.nodes.get(2));
+		selectObservations(db, graph.viewList.get(0).inliers);
+		graph.viewList.get(3).inliers.views.add(pairwise.nodes.get(2));
+		graph.viewList.get(3).inliers.views.add(pairwise.nodes.get(3));
+		graph.viewList.get(3).inliers.views.add(pairwise.nodes.get(4));
+		selectObservations(db, graph.viewList.get(3).inliers);
+
+		// Save the true location and add an error to the view being optimized and one which should be ignored
+		Se3_F64 expected3 = graph.viewList.get(3).world_to_view.copy();
+		graph.viewList.get(3).world_to_view.T.x += 0.05;
+		graph.viewList.get(1).world_to_view.T.x += 0.05;
+		List<Se3_F64> before = new ArrayList<>();
+		graph.viewList.forEach(v -> before.add(v.world_to_view.copy()));
+
+		var alg = new RefineMetricWorkingGraph();
+		assertTrue(alg.processLocal(db, graph, List.of(graph.viewList.get(3))));
+
+		// Only views 2,3,4 should have been included and only view 3 is not fixed
+		assertEquals(3, alg.activeViews.size());
+		assertEquals(3, alg.bundleAdjustment.structure.views.size);
+		assertEquals(0.0, alg.bundleAdjustment.sba.getFitScore(), 1e-6);
+
+		// Views 2 and 4 are fixed and provide the coordinate system so it should converge to the true location
+		assertEquals(0.0, expected3.T.distance(graph.viewList.get(3).world_to_view.T), 1e-4);
+		for (int i = 0; i < graph.viewList.size(); i++) {
+			if (i == 3)
+				continue;
+			assertEquals(0.0, before.get(i).T.distance(graph.viewList.get(i).world_to_view.T));
+		}
+	}
+
 	@Test
 	void findUnassignedObsAndKnown3D() {
 		var db = new MockLookupSimilarImagesRealistic().pathLine(5, 0.3, 1.5, 2);
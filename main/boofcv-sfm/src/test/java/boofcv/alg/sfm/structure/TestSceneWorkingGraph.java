@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2020, Peter Abeles. All Rights Reserved.
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
  *
  * This file is part of BoofCV (http://boofcv.org).
  *
@@ -21,6 +21,8 @@ package boofcv.alg.sfm.structure;
 import boofcv.testing.BoofStandardJUnit;
 import org.junit.jupiter.api.Test;
 
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -55,6 +57,48 @@ class TestSceneWorkingGraph extends BoofStandardJUnit {
 		assertSame(found, alg.views.get(pview.id));
 	}
 
+	@Test
+	void removeViews() {
+		var alg = new SceneWorkingGraph();
+		for (int i = 0; i < 4; i++) {
+			var pview = new PairwiseImageGraph.View();
+			pview.id = "" + i;
+			alg.addView(pview);
+		}
+		// One inlier set will have views left after the removal and the other will not
+		SceneWorkingGraph.View view2 = alg.viewList.get(2);
+		SceneWorkingGraph.View view3 = alg.viewList.get(3);
+		addInliers(view2, alg.viewList.get(0), view3);
+		addInliers(view3, alg.viewList.get(1));
+
+		alg.removeViews(Set.of("0", "1"));
+
+		assertEquals(2, alg.views.size());
+		assertEquals(2, alg.viewList.size());
+		assertSame(view2, alg.viewList.get(0));
+		assertSame(view3, alg.viewList.get(1));
+		assertEquals(0, view2.index);
+		assertEquals(1, view3.index);
+		assertFalse(alg.views.containsKey("0"));
+		assertFalse(alg.views.containsKey("1"));
+
+		assertEquals(2, view2.inliers.views.size);
+		assertEquals(2, view2.inliers.observations.size);
+		assertSame(view2.pview, view2.inliers.views.get(0));
+		assertSame(view3.pview, view2.inliers.views.get(1));
+		assertTrue(view3.inliers.isEmpty());
+		assertEquals(0, view3.inliers.views.size);
+	}
+
+	private void addInliers( SceneWorkingGraph.View target, SceneWorkingGraph.View... others ) {
+		target.inliers.views.add(target.pview);
+		target.inliers.observations.grow().add(0);
+		for (SceneWorkingGraph.View v : others) {
+			target.inliers.views.add(v.pview);
+			target.inliers.observations.grow().add(0);
+		}
+	}
+
 	@Test
 	void createFeature() {
 		var alg = new SceneWorkingGraph();
@@ -21,6 +21,7 @@ package boofcv.alg.sfm.structure;
 import boofcv.abst.disparity.StereoDisparity;
 import boofcv.abst.geo.bundle.SceneStructureCommon;
 import boofcv.abst.geo.bundle.SceneStructureMetric;
+import boofcv.alg.cloud.PackedPointCloud_F32;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.factory.sfm.FactorySceneReconstruction;
 import boofcv.misc.LookUpImages;
@@ -74,8 +75,18 @@ class TestSparseSceneToDenseCloud extends BoofStandardJUnit {
 		// should be a significant number of points in the cloud. The test number is arbitrary.
 		assertTrue(alg.getCloud().size() > 100);
 
-		// these two should be the same, although the colors won't be interesting
-		assertEquals(alg.getCloud().size(), alg.getColorRgb().size);
+		// Colors come from the images, which are filled with a constant value. Points which don't project
+		// inside of the image are not colored
+		PackedPointCloud_F32 cloud = alg.getCloud();
+		assertEquals(cloud.size(), cloud.rgb.size);
+		int colored = 0;
+		for (int i = 0; i < cloud.rgb.size; i++) {
+			if (cloud.rgb.get(i) == 0)
+				continue;
+			assertEquals(0x646464, cloud.rgb.get(i));
+			colored++;
+		}
+		assertTrue(colored > cloud.size()/2);
 	}
 
 	/**
@@ -140,6 +151,7 @@ class TestSparseSceneToDenseCloud extends BoofStandardJUnit {
 				((Planar)output).reshape(width, height, 3);
 			else
 				output.reshape(width, height);
+			GImageMiscOps.fill(output, 100);
 			return true;
 		}
 	}
@@ -33,6 +33,8 @@ class TestConfigVisOdomTrackPnP extends StandardConfigurationChecks {
 		var config = new ConfigVisOdomTrackPnP();
 		config.bundleMaxFeaturesPerFrame = 5;
 		config.bundleMinObservations = 8;
+		config.bundleAsynchronous = true;
+		config.bundleMarginalizedFrames = 2;
 		config.dropOutlierTracks = 1;
 		config.maxKeyFrames = 7;
 		config.refineIterations = 6767;
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.misc;
+
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageDimension;
+import lombok.Getter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wrapper around {@link LookUpImages} which keeps the most recently used images in memory so that they don't
+ * need to be loaded and decoded again. Images are cached by name and image type. When more than
+ * {@link #getMaxImages()} images are in the cache the least recently used image is discarded.
+ *
+ * <p>Thread safe. Calls to the wrapped {@link LookUpImages} are serialized, so it does not need to be thread safe.</p>
+ *
+ * @author Peter Abeles
+ */
+public class LookUpImagesCache implements LookUpImages {
+	/** The wrapped look up */
+	final @Getter LookUpImages lookUp;
+
+	/** Maximum number of images in the cache */
+	final @Getter int maxImages;
+
+	/** Number of times an image was found in the cache */
+	@Getter long hits;
+	/** Number of times an image had to be loaded */
+	@Getter long misses;
+
+	// Images ordered by when they were last accessed
+	final LinkedHashMap<String, ImageBase<?>> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * @param lookUp Used to load images which are not in the cache
+	 * @param maxImages Maximum number of images in the cache
+	 */
+	public LookUpImagesCache( LookUpImages lookUp, int maxImages ) {
+		BoofMiscOps.checkTrue(maxImages > 0, "maxImages must be positive");
+		this.lookUp = lookUp;
+		this.maxImages = maxImages;
+	}
+
+	@Override public boolean loadShape( String name, ImageDimension shape ) {
+		synchronized (lookUp) {
+			return lookUp.loadShape(name, shape);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override public <LT extends ImageBase<LT>> boolean loadImage( String name, LT output ) {
+		String key = name + ":" + output.getImageType();
+
+		synchronized (cache) {
+			ImageBase<?> cached = cache.get(key);
+			if (cached != null) {
+				hits++;
+				output.setTo((LT)cached);
+				return true;
+			}
+			misses++;
+		}
+
+		synchronized (lookUp) {
+			if (!lookUp.loadImage(name, output))
+				return false;
+		}
+
+		synchronized (cache) {
+			cache.put(key, output.clone());
+			Iterator<Map.Entry<String, ImageBase<?>>> iter = cache.entrySet().iterator();
+			while (cache.size() > maxImages) {
+				iter.next();
+				iter.remove();
+			}
+		}
+		return true;
+	}
+
+	/** Discards all images in the cache */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	/** Number of images in the cache */
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+}
@@ -50,6 +50,27 @@ public class PackedArrayPoint4D_F64 implements PackedArray<Point4D_F64> {
 		array.reserve(numTuples*4);
 	}
 
+	/**
+	 * Changes the number of elements in the array. Values of new elements are not defined.
+	 *
+	 * @param numTuples New number of elements
+	 */
+	public void resize( int numTuples ) {
+		array.resize(numTuples*4);
+		numElements = numTuples;
+	}
+
+	/**
+	 * Assigns the value of an element which already exists
+	 */
+	public void set( int index, double x, double y, double z, double w ) {
+		index *= 4;
+		array.data[index] = x;
+		array.data[index+1] = y;
+		array.data[index+2] = z;
+		array.data[index+3] = w;
+	}
+
 	@Override public void append( Point4D_F64 element ) {
 		array.add(element.x);
 		array.add(element.y);
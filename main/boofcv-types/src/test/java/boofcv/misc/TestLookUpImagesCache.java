@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2021, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.misc;
+
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageDimension;
+import boofcv.testing.BoofStandardJUnit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Peter Abeles
+ */
+class TestLookUpImagesCache extends BoofStandardJUnit {
+	/**
+	 * Images which are in the cache should not be loaded again
+	 */
+	@Test void cacheHit() {
+		var lookUp = new DummyLookUp();
+		var alg = new LookUpImagesCache(lookUp, 2);
+
+		var image = new GrayU8(1, 1);
+		assertTrue(alg.loadImage("1", image));
+		assertEquals(1, image.get(0, 0));
+		image.set(0, 0, 100); // modifying the output should not modify the cache
+		assertTrue(alg.loadImage("1", image));
+		assertEquals(1, image.get(0, 0));
+
+		assertEquals(1, lookUp.requested.size());
+		assertEquals(1, alg.getHits());
+		assertEquals(1, alg.getMisses());
+	}
+
+	/**
+	 * The same image with a different type is a different entry
+	 */
+	@Test void differentImageTypes() {
+		var lookUp = new DummyLookUp();
+		var alg = new LookUpImagesCache(lookUp, 2);
+
+		assertTrue(alg.loadImage("1", new GrayU8(1, 1)));
+		assertTrue(alg.loadImage("1", new GrayF32(1, 1)));
+		assertEquals(2, lookUp.requested.size());
+		assertEquals(2, alg.size());
+	}
+
+	/**
+	 * The least recently used image should be discarded
+	 */
+	@Test void discardLeastRecentlyUsed() {
+		var lookUp = new DummyLookUp();
+		var alg = new LookUpImagesCache(lookUp, 2);
+
+		var image = new GrayU8(1, 1);
+		alg.loadImage("1", image);
+		alg.loadImage("2", image);
+		alg.loadImage("1", image);
+		alg.loadImage("3", image); // "2" should be discarded
+		assertEquals(2, alg.size());
+		lookUp.requested.clear();
+
+		alg.loadImage("1", image);
+		assertEquals(0, lookUp.requested.size());
+		alg.loadImage("2", image);
+		assertEquals(1, lookUp.requested.size());
+	}
+
+	/**
+	 * Failures should be passed along and not cached
+	 */
+	@Test void failedLoad() {
+		var lookUp = new DummyLookUp();
+		var alg = new LookUpImagesCache(lookUp, 2);
+
+		assertFalse(alg.loadImage("fail", new GrayU8(1, 1)));
+		assertEquals(0, alg.size());
+	}
+
+	/**
+	 * Creates an image where the value is the name as an integer
+	 */
+	static class DummyLookUp implements LookUpImages {
+		List<String> requested = new ArrayList<>();
+
+		@Override public boolean loadShape( String name, ImageDimension shape ) {
+			shape.setTo(2, 3);
+			return true;
+		}
+
+		@Override public <LT extends ImageBase<LT>> boolean loadImage( String name, LT output ) {
+			requested.add(name);
+			if (name.equals("fail"))
+				return false;
+			output.reshape(2, 3);
+			int value = Integer.parseInt(name);
+			if (output instanceof GrayU8)
+				((GrayU8)output).data[0] = (byte)value;
+			else
+				((GrayF32)output).data[0] = value;
+			return true;
+		}
+	}
+}
@@ -21,6 +21,7 @@ package boofcv.struct.packed;
 import boofcv.struct.PackedArray;
 import georegression.struct.point.Point4D_F64;
 import org.ejml.UtilEjml;
+import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -30,6 +31,19 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
  */
 public class TestPackedArrayPoint4D_F64 extends GenericPackedArrayChecks<Point4D_F64> {
 
+	@Test void resize_set() {
+		var alg = new PackedArrayPoint4D_F64();
+		alg.resize(5);
+		assertEquals(5, alg.size());
+		assertEquals(20, alg.array.size);
+
+		alg.set(3, 1, 2, 3, 4);
+		checkEquals(new Point4D_F64(1, 2, 3, 4), alg.getTemp(3));
+
+		alg.resize(2);
+		assertEquals(2, alg.size());
+	}
+
 	@Override protected PackedArray<Point4D_F64> createAlg() {
 		return new PackedArrayPoint4D_F64();
 	}